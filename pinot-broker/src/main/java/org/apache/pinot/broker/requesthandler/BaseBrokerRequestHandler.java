@@ -47,6 +47,7 @@ import org.apache.pinot.broker.broker.AccessControlFactory;
 import org.apache.pinot.broker.queryquota.QueryQuotaManager;
 import org.apache.pinot.broker.routing.RoutingManager;
 import org.apache.pinot.broker.routing.RoutingTable;
+import org.apache.pinot.broker.routing.rollup.RollupTableSelector;
 import org.apache.pinot.broker.routing.timeboundary.TimeBoundaryInfo;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.function.TransformFunctionType;
@@ -128,6 +129,7 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
   private final int _defaultHllLog2m;
   private final boolean _enableQueryLimitOverride;
   private final boolean _enableDistinctCountBitmapOverride;
+  private final QueryCompilationCache _queryCompilationCache;
 
   public BaseBrokerRequestHandler(PinotConfiguration config, RoutingManager routingManager,
       AccessControlFactory accessControlFactory, QueryQuotaManager queryQuotaManager, TableCache tableCache,
@@ -144,6 +146,10 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     _enableQueryLimitOverride = _config.getProperty(Broker.CONFIG_OF_ENABLE_QUERY_LIMIT_OVERRIDE, false);
     _enableDistinctCountBitmapOverride =
         _config.getProperty(CommonConstants.Helix.ENABLE_DISTINCT_COUNT_BITMAP_OVERRIDE_KEY, false);
+    int queryCompilationCacheSize = _config.getProperty(Broker.CONFIG_OF_BROKER_QUERY_COMPILATION_CACHE_SIZE,
+        Broker.DEFAULT_BROKER_QUERY_COMPILATION_CACHE_SIZE);
+    _queryCompilationCache =
+        queryCompilationCacheSize > 0 ? new QueryCompilationCache(queryCompilationCacheSize) : null;
 
     _brokerId = config.getProperty(Broker.CONFIG_OF_BROKER_ID, getDefaultBrokerId());
     _brokerTimeoutMs = config.getProperty(Broker.CONFIG_OF_BROKER_TIMEOUT_MS, Broker.DEFAULT_BROKER_TIMEOUT_MS);
@@ -209,7 +215,11 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     long compilationStartTimeNs = System.nanoTime();
     BrokerRequest brokerRequest;
     try {
-      brokerRequest = PinotQueryParserFactory.parseSQLQuery(query);
+      if (_queryCompilationCache != null) {
+        brokerRequest = _queryCompilationCache.compile(query);
+      } else {
+        brokerRequest = PinotQueryParserFactory.parseSQLQuery(query);
+      }
     } catch (Exception e) {
       LOGGER.info("Caught exception while compiling SQL request {}: {}, {}", requestId, query, e.getMessage());
       _brokerMetrics.addMeteredGlobalValue(BrokerMeter.REQUEST_COMPILATION_EXCEPTIONS, 1);
@@ -355,6 +365,13 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
       requestStatistics.setRealtimeServerTenant(getServerTenant(realtimeTableName));
     } else if (offlineTableName != null) {
       // OFFLINE only
+      String rollupTableName =
+          RollupTableSelector.getRollupTableName(_routingManager, _tableCache, offlineTableName, pinotQuery);
+      if (rollupTableName != null) {
+        LOGGER.debug("Routing request {} to rollup table: {}", requestId, rollupTableName);
+        offlineTableName = rollupTableName;
+        schema = _tableCache.getSchema(TableNameBuilder.extractRawTableName(rollupTableName));
+      }
       setTableName(brokerRequest, offlineTableName);
       _queryOptimizer.optimize(pinotQuery, _tableCache.getTableConfig(offlineTableName), schema);
       offlineBrokerRequest = brokerRequest;
@@ -0,0 +1,421 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.requesthandler;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.DataSource;
+import org.apache.pinot.common.request.Expression;
+import org.apache.pinot.common.request.Function;
+import org.apache.pinot.common.request.Literal;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.common.request.QuerySource;
+import org.apache.pinot.core.requesthandler.PinotQueryParserFactory;
+import org.apache.pinot.sql.parsers.CalciteSqlParser;
+
+
+/**
+ * The {@code QueryCompilationCache} caches the compiled SQL queries (as {@link PinotQuery} templates) keyed by the
+ * query shape, which is the query with the literals replaced by placeholders, so that the queries with the same shape
+ * but different literals (e.g. dashboard queries) only need to be parsed and compiled once.
+ * <p>On cache hit, the literals of the query are bound into a copy of the cached {@link PinotQuery} template. A query
+ * shape is only cached when the literals can be bound without changing the compiled query, which is verified by:
+ * <ul>
+ *   <li>Compiling the query with unique sentinel literals, and checking that all the sentinel literals are kept as is
+ *   in the same order (not folded by compile time functions, not re-ordered, no extra literal introduced)</li>
+ *   <li>Checking that binding the literals of the query into the template generates the same query as compiling it</li>
+ * </ul>
+ * <p>The numbers after LIMIT/OFFSET, signed numbers, typed literals (e.g. X'ab') and the OPTION clauses are kept as
+ * part of the key. Queries with comments are not cached.
+ * <p>The cached templates do not depend on the table config or schema (table name resolution, column name update and
+ * query optimization are still performed on each query), so no invalidation is required on table changes.
+ */
+@ThreadSafe
+public class QueryCompilationCache {
+  private static final String STRING_PLACEHOLDER = "?s";
+  private static final String LONG_PLACEHOLDER = "?l";
+  private static final String DOUBLE_PLACEHOLDER = "?d";
+  private static final long SENTINEL_LONG_BASE = 1_000_000_007L;
+
+  // Marker for the query shapes that cannot be cached, so that they are not verified again
+  private static final QueryTemplate NOT_CACHEABLE = new QueryTemplate(new PinotQuery());
+
+  private final Cache<String, QueryTemplate> _cache;
+
+  public QueryCompilationCache(int maxSize) {
+    _cache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+  }
+
+  /**
+   * Compiles the given SQL query into a {@link BrokerRequest}, same as {@link PinotQueryParserFactory#parseSQLQuery}.
+   * The returned {@link BrokerRequest} is not shared and can be modified.
+   */
+  public BrokerRequest compile(String query) {
+    NormalizedQuery normalizedQuery = normalize(query);
+    if (normalizedQuery == null) {
+      return PinotQueryParserFactory.parseSQLQuery(query);
+    }
+    QueryTemplate template = _cache.getIfPresent(normalizedQuery._key);
+    if (template != null) {
+      if (template == NOT_CACHEABLE) {
+        return PinotQueryParserFactory.parseSQLQuery(query);
+      }
+      PinotQuery pinotQuery = template.bind(normalizedQuery._literals);
+      if (pinotQuery != null) {
+        return getBrokerRequest(pinotQuery);
+      }
+    }
+    BrokerRequest brokerRequest = PinotQueryParserFactory.parseSQLQuery(query);
+    if (template == null) {
+      _cache.put(normalizedQuery._key, createTemplate(normalizedQuery, brokerRequest.getPinotQuery()));
+    }
+    return brokerRequest;
+  }
+
+  public long size() {
+    return _cache.size();
+  }
+
+  /**
+   * Same as CalciteSqlCompiler.compileToBrokerRequest().
+   */
+  private static BrokerRequest getBrokerRequest(PinotQuery pinotQuery) {
+    BrokerRequest brokerRequest = new BrokerRequest();
+    brokerRequest.setPinotQuery(pinotQuery);
+    DataSource dataSource = pinotQuery.getDataSource();
+    if (dataSource != null) {
+      QuerySource querySource = new QuerySource();
+      querySource.setTableName(dataSource.getTableName());
+      brokerRequest.setQuerySource(querySource);
+    }
+    return brokerRequest;
+  }
+
+  private static QueryTemplate createTemplate(NormalizedQuery normalizedQuery, PinotQuery pinotQuery) {
+    PinotQuery sentinelPinotQuery;
+    try {
+      sentinelPinotQuery = CalciteSqlParser.compileToPinotQuery(normalizedQuery._sentinelQuery);
+    } catch (Exception e) {
+      return NOT_CACHEABLE;
+    }
+    List<Expression> literalExpressions = getLiteralExpressions(sentinelPinotQuery);
+    List<Literal> sentinelLiterals = normalizedQuery._sentinelLiterals;
+    int numLiterals = sentinelLiterals.size();
+    if (literalExpressions.size() != numLiterals) {
+      return NOT_CACHEABLE;
+    }
+    for (int i = 0; i < numLiterals; i++) {
+      if (!literalExpressions.get(i).getLiteral().equals(sentinelLiterals.get(i))) {
+        return NOT_CACHEABLE;
+      }
+    }
+    QueryTemplate template = new QueryTemplate(sentinelPinotQuery);
+    if (!pinotQuery.equals(template.bind(normalizedQuery._literals))) {
+      return NOT_CACHEABLE;
+    }
+    return template;
+  }
+
+  /**
+   * Returns the literal expressions within the query in the order of the clauses in the SQL.
+   */
+  private static List<Expression> getLiteralExpressions(PinotQuery pinotQuery) {
+    List<Expression> literalExpressions = new ArrayList<>();
+    addLiteralExpressions(pinotQuery.getSelectList(), literalExpressions);
+    addLiteralExpressions(pinotQuery.getFilterExpression(), literalExpressions);
+    addLiteralExpressions(pinotQuery.getGroupByList(), literalExpressions);
+    addLiteralExpressions(pinotQuery.getHavingExpression(), literalExpressions);
+    addLiteralExpressions(pinotQuery.getOrderByList(), literalExpressions);
+    return literalExpressions;
+  }
+
+  private static void addLiteralExpressions(@Nullable List<Expression> expressions,
+      List<Expression> literalExpressions) {
+    if (expressions != null) {
+      for (Expression expression : expressions) {
+        addLiteralExpressions(expression, literalExpressions);
+      }
+    }
+  }
+
+  private static void addLiteralExpressions(@Nullable Expression expression, List<Expression> literalExpressions) {
+    if (expression == null) {
+      return;
+    }
+    if (expression.isSetLiteral()) {
+      literalExpressions.add(expression);
+      return;
+    }
+    Function function = expression.getFunctionCall();
+    if (function != null) {
+      addLiteralExpressions(function.getOperands(), literalExpressions);
+    }
+  }
+
+  /**
+   * Normalizes the given SQL query by replacing the literals with placeholders, or returns {@code null} if the query
+   * cannot be normalized.
+   */
+  @Nullable
+  static NormalizedQuery normalize(String query) {
+    int length = query.length();
+    StringBuilder keyBuilder = new StringBuilder(length);
+    StringBuilder sentinelQueryBuilder = new StringBuilder(length + 16);
+    List<Literal> literals = new ArrayList<>();
+    List<Literal> sentinelLiterals = new ArrayList<>();
+    // Whether the numbers should be kept as part of the key (after LIMIT/OFFSET)
+    boolean keepNumbers = false;
+    int i = 0;
+    while (i < length) {
+      char c = query.charAt(i);
+      int start = i;
+      if (c == '\'') {
+        // String literal
+        StringBuilder valueBuilder = new StringBuilder();
+        i++;
+        while (true) {
+          if (i == length) {
+            return null;
+          }
+          char valueChar = query.charAt(i++);
+          if (valueChar == '\'') {
+            if (i < length && query.charAt(i) == '\'') {
+              valueBuilder.append('\'');
+              i++;
+            } else {
+              break;
+            }
+          } else {
+            valueBuilder.append(valueChar);
+          }
+        }
+        // Same as RequestUtils.getLiteralExpression()
+        literals.add(Literal.stringValue(StringUtils.replace(valueBuilder.toString(), "''", "'")));
+        String sentinelValue = " PinotLiteral" + literals.size() + " ";
+        sentinelLiterals.add(Literal.stringValue(sentinelValue));
+        keyBuilder.append(STRING_PLACEHOLDER);
+        sentinelQueryBuilder.append('\'').append(sentinelValue).append('\'');
+        continue;
+      }
+      if (c == '"' || c == '`') {
+        // Quoted identifier
+        i++;
+        while (true) {
+          if (i == length) {
+            return null;
+          }
+          if (query.charAt(i++) == c) {
+            if (i < length && query.charAt(i) == c) {
+              i++;
+            } else {
+              break;
+            }
+          }
+        }
+        appendVerbatim(query, start, i, keyBuilder, sentinelQueryBuilder);
+        continue;
+      }
+      if (Character.isLetter(c) || c == '_') {
+        // Identifier or keyword, including the prefix of the typed literals (e.g. X'ab')
+        while (i < length && isIdentifierPart(query.charAt(i))) {
+          i++;
+        }
+        if (i < length && query.charAt(i) == '\'') {
+          // Typed literal, keep it as part of the key
+          i++;
+          while (true) {
+            if (i == length) {
+              return null;
+            }
+            if (query.charAt(i++) == '\'') {
+              if (i < length && query.charAt(i) == '\'') {
+                i++;
+              } else {
+                break;
+              }
+            }
+          }
+          appendVerbatim(query, start, i, keyBuilder, sentinelQueryBuilder);
+          continue;
+        }
+        String word = query.substring(start, i);
+        keepNumbers = word.equalsIgnoreCase("limit") || word.equalsIgnoreCase("offset");
+        if (StringUtils.endsWithIgnoreCase(word, "option")) {
+          // Keep the OPTION clause (extracted with regex by the parser) as part of the key
+          int j = i;
+          while (j < length && Character.isWhitespace(query.charAt(j))) {
+            j++;
+          }
+          if (j < length && query.charAt(j) == '(') {
+            int end = query.indexOf(')', j);
+            if (end < 0) {
+              return null;
+            }
+            i = end + 1;
+          }
+        }
+        appendVerbatim(query, start, i, keyBuilder, sentinelQueryBuilder);
+        continue;
+      }
+      if (isDigit(c) || (c == '.' && i + 1 < length && isDigit(query.charAt(i + 1)))) {
+        // Numeric literal
+        boolean isInteger = true;
+        while (i < length && isDigit(query.charAt(i))) {
+          i++;
+        }
+        if (i < length && query.charAt(i) == '.') {
+          isInteger = false;
+          i++;
+          while (i < length && isDigit(query.charAt(i))) {
+            i++;
+          }
+        }
+        if (i < length && (query.charAt(i) == 'e' || query.charAt(i) == 'E')) {
+          isInteger = false;
+          i++;
+          if (i < length && (query.charAt(i) == '+' || query.charAt(i) == '-')) {
+            i++;
+          }
+          while (i < length && isDigit(query.charAt(i))) {
+            i++;
+          }
+        }
+        if (i < length && isIdentifierPart(query.charAt(i))) {
+          return null;
+        }
+        if (keepNumbers || isSigned(keyBuilder)) {
+          appendVerbatim(query, start, i, keyBuilder, sentinelQueryBuilder);
+          continue;
+        }
+        String value = query.substring(start, i);
+        try {
+          if (isInteger) {
+            literals.add(Literal.longValue(Long.parseLong(value)));
+            long sentinelValue = SENTINEL_LONG_BASE + literals.size();
+            sentinelLiterals.add(Literal.longValue(sentinelValue));
+            keyBuilder.append(LONG_PLACEHOLDER);
+            sentinelQueryBuilder.append(sentinelValue);
+          } else {
+            // Same as RequestUtils.getLiteralExpression()
+            literals.add(Literal.doubleValue(new BigDecimal(value).doubleValue()));
+            String sentinelValue = (SENTINEL_LONG_BASE + literals.size()) + ".5";
+            sentinelLiterals.add(Literal.doubleValue(new BigDecimal(sentinelValue).doubleValue()));
+            keyBuilder.append(DOUBLE_PLACEHOLDER);
+            sentinelQueryBuilder.append(sentinelValue);
+          }
+        } catch (NumberFormatException e) {
+          return null;
+        }
+        continue;
+      }
+      if (c == '?' || (c == '-' && i + 1 < length && query.charAt(i + 1) == '-') || (c == '/' && i + 1 < length
+          && query.charAt(i + 1) == '*')) {
+        // Dynamic parameter (conflicts with placeholders) or comment
+        return null;
+      }
+      if (c != ',' && !Character.isWhitespace(c)) {
+        keepNumbers = false;
+      }
+      i++;
+      appendVerbatim(query, start, i, keyBuilder, sentinelQueryBuilder);
+    }
+    return new NormalizedQuery(keyBuilder.toString(), sentinelQueryBuilder.toString(), literals, sentinelLiterals);
+  }
+
+  private static void appendVerbatim(String query, int start, int end, StringBuilder keyBuilder,
+      StringBuilder sentinelQueryBuilder) {
+    keyBuilder.append(query, start, end);
+    sentinelQueryBuilder.append(query, start, end);
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+  }
+
+  /**
+   * Returns whether the last non-whitespace character in the key is a sign, in which case the number should be kept as
+   * part of the key because the parser might fold the sign into the literal.
+   */
+  private static boolean isSigned(StringBuilder keyBuilder) {
+    for (int i = keyBuilder.length() - 1; i >= 0; i--) {
+      char c = keyBuilder.charAt(i);
+      if (!Character.isWhitespace(c)) {
+        return c == '-' || c == '+';
+      }
+    }
+    return false;
+  }
+
+  static class NormalizedQuery {
+    final String _key;
+    final String _sentinelQuery;
+    final List<Literal> _literals;
+    final List<Literal> _sentinelLiterals;
+
+    NormalizedQuery(String key, String sentinelQuery, List<Literal> literals, List<Literal> sentinelLiterals) {
+      _key = key;
+      _sentinelQuery = sentinelQuery;
+      _literals = literals;
+      _sentinelLiterals = sentinelLiterals;
+    }
+  }
+
+  private static class QueryTemplate {
+    // NOTE: The template should never be modified
+    final PinotQuery _pinotQuery;
+
+    QueryTemplate(PinotQuery pinotQuery) {
+      _pinotQuery = pinotQuery;
+    }
+
+    /**
+     * Binds the given literals into a copy of the template, or returns {@code null} if the literals do not match the
+     * template.
+     */
+    @Nullable
+    PinotQuery bind(List<Literal> literals) {
+      PinotQuery pinotQuery = _pinotQuery.deepCopy();
+      List<Expression> literalExpressions = getLiteralExpressions(pinotQuery);
+      int numLiterals = literals.size();
+      if (literalExpressions.size() != numLiterals) {
+        return null;
+      }
+      for (int i = 0; i < numLiterals; i++) {
+        Expression literalExpression = literalExpressions.get(i);
+        Literal literal = literals.get(i);
+        if (literalExpression.getLiteral().getSetField() != literal.getSetField()) {
+          return null;
+        }
+        literalExpression.setLiteral(literal.deepCopy());
+      }
+      return pinotQuery;
+    }
+  }
+}
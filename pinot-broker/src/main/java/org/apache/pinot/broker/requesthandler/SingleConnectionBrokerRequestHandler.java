@@ -39,12 +39,14 @@ import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.common.utils.HashUtil;
 import org.apache.pinot.common.utils.helix.TableCache;
 import org.apache.pinot.core.transport.AsyncQueryResponse;
+import org.apache.pinot.core.transport.NettyConfig;
 import org.apache.pinot.core.transport.QueryRouter;
 import org.apache.pinot.core.transport.ServerInstance;
 import org.apache.pinot.core.transport.ServerResponse;
 import org.apache.pinot.core.transport.ServerRoutingInstance;
 import org.apache.pinot.core.transport.TlsConfig;
 import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.CommonConstants.Broker;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 
 
@@ -60,7 +62,8 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
       AccessControlFactory accessControlFactory, QueryQuotaManager queryQuotaManager, TableCache tableCache,
       BrokerMetrics brokerMetrics, TlsConfig tlsConfig) {
     super(config, routingManager, accessControlFactory, queryQuotaManager, tableCache, brokerMetrics);
-    _queryRouter = new QueryRouter(_brokerId, brokerMetrics, tlsConfig);
+    NettyConfig nettyConfig = NettyConfig.extractNettyConfig(config, Broker.BROKER_NETTY_PREFIX);
+    _queryRouter = new QueryRouter(_brokerId, brokerMetrics, tlsConfig, nettyConfig);
   }
 
   @Override
@@ -52,6 +52,7 @@ import org.apache.pinot.broker.routing.timeboundary.TimeBoundaryManager;
 import org.apache.pinot.common.metadata.ZKMetadataProvider;
 import org.apache.pinot.common.metrics.BrokerMeter;
 import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.minion.RollupTableSpec;
 import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.utils.HashUtil;
 import org.apache.pinot.core.transport.ServerInstance;
@@ -76,6 +77,8 @@ import org.slf4j.LoggerFactory;
  *   <li>{@link #routingExists(String)}: Returns whether the routing exists for a table</li>
  *   <li>{@link #getRoutingTable(BrokerRequest)}: Returns the routing table for a query</li>
  *   <li>{@link #getTimeBoundaryInfo(String)}: Returns the time boundary info for a table</li>
+ *   <li>{@link #getMinStartTimeMs(String)}: Returns the minimum segment start time for a table</li>
+ *   <li>{@link #getRollupTableName(String)}: Returns the rollup table for a table</li>
  *   <li>{@link #getQueryTimeoutMs(String)}: Returns the table-level query timeout in milliseconds for a table</li>
  * </ul>
  *
@@ -88,6 +91,8 @@ public class RoutingManager implements ClusterChangeHandler {
   private final BrokerMetrics _brokerMetrics;
   private final Map<String, RoutingEntry> _routingEntryMap = new ConcurrentHashMap<>();
   private final Map<String, ServerInstance> _enabledServerInstanceMap = new ConcurrentHashMap<>();
+  // Map from the offline source table to the offline rollup table
+  private final Map<String, String> _rollupTableMap = new ConcurrentHashMap<>();
 
   private BaseDataAccessor<ZNRecord> _zkDataAccessor;
   private String _externalViewPathPrefix;
@@ -322,17 +327,26 @@ public class RoutingManager implements ClusterChangeHandler {
     InstanceSelector instanceSelector = InstanceSelectorFactory.getInstanceSelector(tableConfig, _brokerMetrics);
     instanceSelector.init(_enabledServerInstanceMap.keySet(), externalView, idealState, preSelectedOnlineSegments);
 
-    // Add time boundary manager if both offline and real-time part exist for a hybrid table
+    // Add time boundary manager if both offline and real-time part exist for a hybrid table, or the table is a rollup
+    // table (time boundary is used to decide whether the rollup table covers the time range of the query)
     TimeBoundaryManager timeBoundaryManager = null;
     String rawTableName = TableNameBuilder.extractRawTableName(tableNameWithType);
     if (TableNameBuilder.isOfflineTableResource(tableNameWithType)) {
       // Current table is offline
       String realtimeTableName = TableNameBuilder.REALTIME.tableNameWithType(rawTableName);
-      if (_routingEntryMap.containsKey(realtimeTableName)) {
+      RollupTableSpec rollupTableSpec = getRollupTableSpec(tableConfig);
+      if (_routingEntryMap.containsKey(realtimeTableName) || rollupTableSpec != null) {
         LOGGER.info("Adding time boundary manager for table: {}", tableNameWithType);
         timeBoundaryManager = new TimeBoundaryManager(tableConfig, _propertyStore);
         timeBoundaryManager.init(externalView, idealState, preSelectedOnlineSegments);
       }
+      // Remove the existing entry first in case the source table of the rollup table is changed
+      _rollupTableMap.values().removeIf(tableNameWithType::equals);
+      if (rollupTableSpec != null) {
+        String sourceTableName = TableNameBuilder.OFFLINE.tableNameWithType(rollupTableSpec.getSourceTableName());
+        LOGGER.info("Adding rollup table: {} for table: {}", tableNameWithType, sourceTableName);
+        _rollupTableMap.put(sourceTableName, tableNameWithType);
+      }
     } else {
       // Current table is real-time
       String offlineTableName = TableNameBuilder.OFFLINE.tableNameWithType(rawTableName);
@@ -379,6 +393,17 @@ public class RoutingManager implements ClusterChangeHandler {
     }
   }
 
+  @Nullable
+  private static RollupTableSpec getRollupTableSpec(TableConfig tableConfig) {
+    try {
+      return RollupTableSpec.fromTableConfig(tableConfig);
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while reading rollup config for table: {}, skipping routing queries to it",
+          tableConfig.getTableName(), e);
+      return null;
+    }
+  }
+
   /**
    * Returns the online segments (with ONLINE/CONSUMING instances) in the given ideal state.
    */
@@ -403,13 +428,19 @@ public class RoutingManager implements ClusterChangeHandler {
     if (_routingEntryMap.remove(tableNameWithType) != null) {
       LOGGER.info("Removed routing for table: {}", tableNameWithType);
 
+      // Remove the rollup table entries for both the removed rollup table and the removed source table
+      _rollupTableMap.values().removeIf(tableNameWithType::equals);
+      if (_rollupTableMap.remove(tableNameWithType) != null) {
+        LOGGER.info("Removed rollup table for table: {}", tableNameWithType);
+      }
+
       // Remove time boundary manager for the offline part routing if the removed routing is the real-time part of a
-      // hybrid table
+      // hybrid table (the time boundary manager is still needed if the offline table is a rollup table)
       if (TableNameBuilder.isRealtimeTableResource(tableNameWithType)) {
         String offlineTableName =
             TableNameBuilder.OFFLINE.tableNameWithType(TableNameBuilder.extractRawTableName(tableNameWithType));
         RoutingEntry routingEntry = _routingEntryMap.get(offlineTableName);
-        if (routingEntry != null) {
+        if (routingEntry != null && !_rollupTableMap.containsValue(offlineTableName)) {
           routingEntry.setTimeBoundaryManager(null);
           LOGGER.info("Removed time boundary manager for table: {}", offlineTableName);
         }
@@ -470,7 +501,7 @@ public class RoutingManager implements ClusterChangeHandler {
   /**
    * Returns the time boundary info for the given offline table, or {@code null} if the routing or time boundary does
    * not exist.
-   * <p>NOTE: Time boundary info is only available for the offline part of the hybrid table.
+   * <p>NOTE: Time boundary info is only available for the offline part of the hybrid table and the rollup table.
    */
   @Nullable
   public TimeBoundaryInfo getTimeBoundaryInfo(String offlineTableName) {
@@ -482,6 +513,29 @@ public class RoutingManager implements ClusterChangeHandler {
     return timeBoundaryManager != null ? timeBoundaryManager.getTimeBoundaryInfo() : null;
   }
 
+  /**
+   * Returns the minimum start time in milliseconds of the online segments for the given offline table, or {@code -1} if
+   * the routing or time boundary does not exist, or no segment has valid start time.
+   * <p>NOTE: Start time is only available for the tables with time boundary info.
+   */
+  public long getMinStartTimeMs(String offlineTableName) {
+    RoutingEntry routingEntry = _routingEntryMap.get(offlineTableName);
+    if (routingEntry == null) {
+      return -1;
+    }
+    TimeBoundaryManager timeBoundaryManager = routingEntry.getTimeBoundaryManager();
+    return timeBoundaryManager != null ? timeBoundaryManager.getMinStartTimeMs() : -1;
+  }
+
+  /**
+   * Returns the offline rollup table that keeps the pre-aggregated copy of the given offline table, or {@code null} if
+   * the rollup table does not exist.
+   */
+  @Nullable
+  public String getRollupTableName(String offlineTableName) {
+    return _rollupTableMap.get(offlineTableName);
+  }
+
   /**
    * Returns the table-level query timeout in milliseconds for the given table, or {@code null} if the timeout is not
    * configured in the table config.
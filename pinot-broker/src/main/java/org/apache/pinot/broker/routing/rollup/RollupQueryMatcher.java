@@ -0,0 +1,398 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.rollup;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.minion.RollupTableSpec;
+import org.apache.pinot.common.request.Expression;
+import org.apache.pinot.common.request.ExpressionType;
+import org.apache.pinot.common.request.Function;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.segment.spi.AggregationFunctionType;
+import org.apache.pinot.spi.data.DateTimeFieldSpec;
+import org.apache.pinot.spi.data.DateTimeFieldSpec.TimeFormat;
+import org.apache.pinot.spi.data.DateTimeFormatSpec;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.FieldType;
+import org.apache.pinot.spi.data.Schema;
+
+
+/**
+ * The {@code RollupQueryMatcher} decides whether a query can be answered with the pre-aggregated data in a rollup table
+ * (see {@link RollupTableSpec}) instead of the raw data in the source table. The query is compatible when:
+ * <ul>
+ *   <li>It is an aggregation query, where the aggregations can be computed from the pre-aggregated metrics (SUM, MIN
+ *   and MAX on metrics aggregated with the same type, MIN, MAX and DISTINCT on dimensions)</li>
+ *   <li>Metrics are only referenced inside the aggregations</li>
+ *   <li>The time column is only referenced inside the time filters aligned to the rollup time buckets
+ *   ({@code timeColumn >= bucketStart} and {@code timeColumn < bucketStart}), or inside {@code DATETRUNC} with UTC time
+ *   zone and unit not finer than the rollup granularity</li>
+ *   <li>The time range of the query is bounded on both sides by the time range covered by the rollup table (from the
+ *   start time of the rollup segments to the time boundary of the rollup table), so that all the queried data has
+ *   already been rolled up</li>
+ *   <li>The time column is in EPOCH format with the rollup time bucket being a multiple of the time unit, which is the
+ *   only format the rollup task can round to the time buckets</li>
+ * </ul>
+ */
+public class RollupQueryMatcher {
+  private static final String AS = "AS";
+  private static final String ASC = "ASC";
+  private static final String DESC = "DESC";
+  private static final String AND = "AND";
+  private static final String OR = "OR";
+  private static final String NOT = "NOT";
+  private static final String GREATER_THAN_OR_EQUAL = "GREATER_THAN_OR_EQUAL";
+  private static final String LESS_THAN = "LESS_THAN";
+  private static final String DATETRUNC = "DATETRUNC";
+  private static final String UTC = "UTC";
+
+  private RollupQueryMatcher() {
+  }
+
+  /**
+   * Returns {@code true} if the given query can be answered with the rollup table.
+   *
+   * @param pinotQuery Query on the source table
+   * @param rollupTableSpec Rollup spec of the rollup table
+   * @param rollupSchema Schema of the rollup table
+   * @param timeColumn Time column of the rollup table
+   * @param timeBoundaryValue Time boundary of the rollup table, up to which (inclusive) the data is rolled up
+   * @param rollupStartTimeMs Start time in milliseconds of the rollup table, from which (inclusive) the data is rolled
+   *                          up, or negative if unknown
+   */
+  public static boolean matches(PinotQuery pinotQuery, RollupTableSpec rollupTableSpec, Schema rollupSchema,
+      String timeColumn, String timeBoundaryValue, long rollupStartTimeMs) {
+    if (rollupStartTimeMs < 0) {
+      return false;
+    }
+    DateTimeFieldSpec timeFieldSpec = rollupSchema.getSpecForTimeColumn(timeColumn);
+    if (timeFieldSpec == null) {
+      return false;
+    }
+    DateTimeFormatSpec timeFormatSpec = new DateTimeFormatSpec(timeFieldSpec.getFormat());
+    if (timeFormatSpec.getTimeFormat() != TimeFormat.EPOCH) {
+      return false;
+    }
+    long timeUnitMs = timeFormatSpec.getColumnUnit().toMillis(timeFormatSpec.getColumnSize());
+    if (timeUnitMs <= 0 || rollupTableSpec.getBucketMs() % timeUnitMs != 0) {
+      return false;
+    }
+    Context context = new Context(rollupTableSpec, rollupSchema, timeColumn, timeFormatSpec);
+
+    // Check the time range
+    Expression filterExpression = pinotQuery.getFilterExpression();
+    if (filterExpression == null) {
+      return false;
+    }
+    long timeBoundaryMs;
+    try {
+      timeBoundaryMs = context._timeFormatSpec.fromFormatToMillis(timeBoundaryValue);
+    } catch (Exception e) {
+      return false;
+    }
+    Long endTimeMs = getBoundTimeMs(filterExpression, LESS_THAN, context);
+    if (endTimeMs == null || endTimeMs > timeBoundaryMs) {
+      return false;
+    }
+    Long startTimeMs = getBoundTimeMs(filterExpression, GREATER_THAN_OR_EQUAL, context);
+    if (startTimeMs == null || startTimeMs < rollupStartTimeMs) {
+      return false;
+    }
+    if (!isValidFilter(filterExpression, context)) {
+      return false;
+    }
+
+    // Check the aggregations and group-by expressions
+    boolean hasAggregation = false;
+    for (Expression expression : pinotQuery.getSelectList()) {
+      if (!isValidExpression(expression, context, true)) {
+        return false;
+      }
+      hasAggregation |= context._hasAggregation;
+    }
+    if (!hasAggregation) {
+      return false;
+    }
+    return isValidExpressions(pinotQuery.getGroupByList(), context, false) && isValidExpressions(
+        pinotQuery.getOrderByList(), context, true) && (pinotQuery.getHavingExpression() == null || isValidExpression(
+        pinotQuery.getHavingExpression(), context, true));
+  }
+
+  /**
+   * Returns the bound in milliseconds of the top-level AND time filters with the given operator ({@code LESS_THAN} for
+   * the exclusive end time, {@code GREATER_THAN_OR_EQUAL} for the inclusive start time), or {@code null} if the time
+   * range is not bounded on that side.
+   */
+  @Nullable
+  private static Long getBoundTimeMs(Expression filterExpression, String boundOperator, Context context) {
+    Function function = filterExpression.getFunctionCall();
+    if (function == null) {
+      return null;
+    }
+    String operator = function.getOperator();
+    if (operator.equals(AND)) {
+      Long boundTimeMs = null;
+      for (Expression operand : function.getOperands()) {
+        Long operandBoundTimeMs = getBoundTimeMs(operand, boundOperator, context);
+        if (operandBoundTimeMs != null && (boundTimeMs == null || (boundOperator.equals(LESS_THAN)
+            ? operandBoundTimeMs < boundTimeMs : operandBoundTimeMs > boundTimeMs))) {
+          boundTimeMs = operandBoundTimeMs;
+        }
+      }
+      return boundTimeMs;
+    }
+    if (operator.equals(boundOperator) && isTimeColumn(function.getOperands().get(0), context)) {
+      return getAlignedTimeMs(function.getOperands().get(1), context);
+    }
+    return null;
+  }
+
+  private static boolean isValidFilter(Expression filterExpression, Context context) {
+    Function function = filterExpression.getFunctionCall();
+    if (function == null) {
+      return false;
+    }
+    String operator = function.getOperator();
+    List<Expression> operands = function.getOperands();
+    if (operator.equals(AND) || operator.equals(OR) || operator.equals(NOT)) {
+      for (Expression operand : operands) {
+        if (!isValidFilter(operand, context)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    Expression lhs = operands.get(0);
+    if (isTimeColumn(lhs, context)) {
+      // Only allow range filters on the time bucket boundaries
+      return (operator.equals(GREATER_THAN_OR_EQUAL) || operator.equals(LESS_THAN)) && operands.size() == 2
+          && getAlignedTimeMs(operands.get(1), context) != null;
+    }
+    return isValidExpression(lhs, context, false);
+  }
+
+  private static boolean isValidExpressions(@Nullable List<Expression> expressions, Context context,
+      boolean allowAggregation) {
+    if (expressions != null) {
+      for (Expression expression : expressions) {
+        if (!isValidExpression(expression, context, allowAggregation)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns {@code true} if the given expression has the same value on the rollup table as on the source table. Sets
+   * {@link Context#_hasAggregation} if the expression contains aggregation.
+   */
+  private static boolean isValidExpression(Expression expression, Context context, boolean allowAggregation) {
+    context._hasAggregation = false;
+    return isValidExpressionInternal(expression, context, allowAggregation);
+  }
+
+  private static boolean isValidExpressionInternal(Expression expression, Context context,
+      boolean allowAggregation) {
+    ExpressionType type = expression.getType();
+    if (type == ExpressionType.LITERAL) {
+      return true;
+    }
+    if (type == ExpressionType.IDENTIFIER) {
+      return isDimension(expression, context);
+    }
+    Function function = expression.getFunctionCall();
+    String operator = function.getOperator().toUpperCase(Locale.ROOT);
+    List<Expression> operands = function.getOperands();
+    switch (operator) {
+      case AS:
+      case ASC:
+      case DESC:
+        return isValidExpressionInternal(operands.get(0), context, allowAggregation);
+      case DATETRUNC:
+        return isValidDateTrunc(operands, context);
+      default:
+        break;
+    }
+    AggregationFunctionType aggregationType = getAggregationFunctionType(operator);
+    if (aggregationType != null) {
+      if (!allowAggregation) {
+        return false;
+      }
+      context._hasAggregation = true;
+      return isValidAggregation(aggregationType, operands, context);
+    }
+    for (Expression operand : operands) {
+      if (!isValidExpressionInternal(operand, context, allowAggregation)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isValidAggregation(AggregationFunctionType aggregationType, List<Expression> operands,
+      Context context) {
+    if (aggregationType == AggregationFunctionType.DISTINCT) {
+      for (Expression operand : operands) {
+        if (!isDimension(operand, context)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (operands.size() != 1) {
+      return false;
+    }
+    Expression operand = operands.get(0);
+    switch (aggregationType) {
+      case SUM:
+        return isMetricAggregatedWith(operand, AggregationFunctionType.SUM, context);
+      case MIN:
+      case MAX:
+        return isDimension(operand, context) || isMetricAggregatedWith(operand, aggregationType, context);
+      case DISTINCTCOUNT:
+      case DISTINCTCOUNTBITMAP:
+      case DISTINCTCOUNTHLL:
+      case DISTINCTCOUNTRAWHLL:
+        return isDimension(operand, context);
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * DATETRUNC on the rounded time value returns the same value when the unit is not finer than the rollup granularity
+   * and the time zone is UTC (time buckets are aligned to the epoch).
+   */
+  private static boolean isValidDateTrunc(List<Expression> operands, Context context) {
+    int numOperands = operands.size();
+    if (numOperands < 2 || !isTimeColumn(operands.get(1), context)) {
+      return false;
+    }
+    String unit = getLiteralValue(operands.get(0));
+    if (unit == null) {
+      return false;
+    }
+    long minUnitMs;
+    switch (unit.toUpperCase(Locale.ROOT)) {
+      case "HOUR":
+        minUnitMs = TimeUnit.HOURS.toMillis(1);
+        break;
+      case "DAY":
+      case "WEEK":
+      case "MONTH":
+      case "QUARTER":
+      case "YEAR":
+        minUnitMs = TimeUnit.DAYS.toMillis(1);
+        break;
+      default:
+        return false;
+    }
+    if (minUnitMs < context._rollupTableSpec.getBucketMs()) {
+      return false;
+    }
+    if (numOperands >= 4) {
+      String timeZone = getLiteralValue(operands.get(3));
+      return timeZone != null && timeZone.equalsIgnoreCase(UTC);
+    }
+    return true;
+  }
+
+  @Nullable
+  private static AggregationFunctionType getAggregationFunctionType(String operator) {
+    try {
+      return AggregationFunctionType.getAggregationFunctionType(operator);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static boolean isTimeColumn(Expression expression, Context context) {
+    return expression.getType() == ExpressionType.IDENTIFIER && expression.getIdentifier().getName()
+        .equals(context._timeColumn);
+  }
+
+  private static boolean isDimension(Expression expression, Context context) {
+    if (expression.getType() != ExpressionType.IDENTIFIER) {
+      return false;
+    }
+    String column = expression.getIdentifier().getName();
+    if (column.equals(context._timeColumn)) {
+      return false;
+    }
+    FieldSpec fieldSpec = context._schema.getFieldSpecFor(column);
+    return fieldSpec != null && fieldSpec.getFieldType() != FieldType.METRIC;
+  }
+
+  private static boolean isMetricAggregatedWith(Expression expression, AggregationFunctionType aggregationType,
+      Context context) {
+    if (expression.getType() != ExpressionType.IDENTIFIER) {
+      return false;
+    }
+    String column = expression.getIdentifier().getName();
+    FieldSpec fieldSpec = context._schema.getFieldSpecFor(column);
+    return fieldSpec != null && fieldSpec.getFieldType() == FieldType.METRIC
+        && context._rollupTableSpec.getAggregationType(column) == aggregationType;
+  }
+
+  /**
+   * Returns the time in milliseconds of the given time literal if it is aligned to the rollup time buckets, or
+   * {@code null} otherwise.
+   */
+  @Nullable
+  private static Long getAlignedTimeMs(Expression expression, Context context) {
+    String value = getLiteralValue(expression);
+    if (value == null) {
+      return null;
+    }
+    long timeMs;
+    try {
+      timeMs = context._timeFormatSpec.fromFormatToMillis(value);
+    } catch (Exception e) {
+      return null;
+    }
+    return timeMs % context._rollupTableSpec.getBucketMs() == 0 ? timeMs : null;
+  }
+
+  @Nullable
+  private static String getLiteralValue(Expression expression) {
+    if (expression.getType() != ExpressionType.LITERAL) {
+      return null;
+    }
+    return expression.getLiteral().getFieldValue().toString();
+  }
+
+  private static class Context {
+    final RollupTableSpec _rollupTableSpec;
+    final Schema _schema;
+    final String _timeColumn;
+    final DateTimeFormatSpec _timeFormatSpec;
+    boolean _hasAggregation;
+
+    Context(RollupTableSpec rollupTableSpec, Schema schema, String timeColumn, DateTimeFormatSpec timeFormatSpec) {
+      _rollupTableSpec = rollupTableSpec;
+      _schema = schema;
+      _timeColumn = timeColumn;
+      _timeFormatSpec = timeFormatSpec;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.rollup;
+
+import javax.annotation.Nullable;
+import org.apache.pinot.broker.routing.RoutingManager;
+import org.apache.pinot.broker.routing.timeboundary.TimeBoundaryInfo;
+import org.apache.pinot.common.minion.RollupTableSpec;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.common.utils.helix.TableCache;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.DateTimeFieldSpec;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code RollupTableSelector} selects the rollup table to route the query of an offline table to. The query is
+ * routed to the rollup table only when the rollup table is still configured as the rollup of the queried table, the
+ * time column has the same format in both tables (the time literals in the query are in the format of the queried
+ * table), and the query is compatible with the rollup table (see {@link RollupQueryMatcher}). Otherwise the query falls
+ * back to the queried table.
+ */
+public class RollupTableSelector {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RollupTableSelector.class);
+
+  private RollupTableSelector() {
+  }
+
+  /**
+   * Returns the rollup table of the given offline table if the query can be answered with the pre-aggregated data in
+   * the rollup table, or {@code null} otherwise.
+   */
+  @Nullable
+  public static String getRollupTableName(RoutingManager routingManager, TableCache tableCache,
+      String offlineTableName, PinotQuery pinotQuery) {
+    String rollupTableName = routingManager.getRollupTableName(offlineTableName);
+    if (rollupTableName == null) {
+      return null;
+    }
+    try {
+      TableConfig rollupTableConfig = tableCache.getTableConfig(rollupTableName);
+      TimeBoundaryInfo timeBoundaryInfo = routingManager.getTimeBoundaryInfo(rollupTableName);
+      if (rollupTableConfig == null || timeBoundaryInfo == null) {
+        return null;
+      }
+      // The rollup table config might have been changed after the routing is built
+      String rawTableName = TableNameBuilder.extractRawTableName(offlineTableName);
+      RollupTableSpec rollupTableSpec = RollupTableSpec.fromTableConfig(rollupTableConfig);
+      if (rollupTableSpec == null || !rollupTableSpec.getSourceTableName().equals(rawTableName)) {
+        return null;
+      }
+      Schema schema = tableCache.getSchema(rawTableName);
+      Schema rollupSchema = tableCache.getSchema(TableNameBuilder.extractRawTableName(rollupTableName));
+      if (schema == null || rollupSchema == null) {
+        return null;
+      }
+      String timeColumn = timeBoundaryInfo.getTimeColumn();
+      DateTimeFieldSpec timeFieldSpec = schema.getSpecForTimeColumn(timeColumn);
+      DateTimeFieldSpec rollupTimeFieldSpec = rollupSchema.getSpecForTimeColumn(timeColumn);
+      if (timeFieldSpec == null || rollupTimeFieldSpec == null || !timeFieldSpec.getFormat()
+          .equals(rollupTimeFieldSpec.getFormat())) {
+        return null;
+      }
+      if (RollupQueryMatcher.matches(pinotQuery, rollupTableSpec, rollupSchema, timeColumn,
+          timeBoundaryInfo.getTimeValue(), routingManager.getMinStartTimeMs(rollupTableName))) {
+        return rollupTableName;
+      }
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while matching query against rollup table: {}", rollupTableName, e);
+    }
+    return null;
+  }
+}
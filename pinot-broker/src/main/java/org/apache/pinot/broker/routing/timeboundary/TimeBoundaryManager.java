@@ -51,6 +51,7 @@ import org.slf4j.LoggerFactory;
 public class TimeBoundaryManager {
   private static final Logger LOGGER = LoggerFactory.getLogger(TimeBoundaryManager.class);
   private static final long INVALID_END_TIME_MS = -1;
+  private static final long INVALID_START_TIME_MS = -1;
 
   private final String _offlineTableName;
   private final ZkHelixPropertyStore<ZNRecord> _propertyStore;
@@ -59,8 +60,10 @@ public class TimeBoundaryManager {
   private final DateTimeFormatSpec _timeFormatSpec;
   private final long _timeOffsetMs;
   private final Map<String, Long> _endTimeMsMap = new HashMap<>();
+  private final Map<String, Long> _startTimeMsMap = new HashMap<>();
 
   private volatile TimeBoundaryInfo _timeBoundaryInfo;
+  private volatile long _minStartTimeMs = INVALID_START_TIME_MS;
 
   public TimeBoundaryManager(TableConfig tableConfig, ZkHelixPropertyStore<ZNRecord> propertyStore) {
     Preconditions.checkState(tableConfig.getTableType() == TableType.OFFLINE,
@@ -114,11 +117,14 @@ public class TimeBoundaryManager {
     long maxEndTimeMs = INVALID_END_TIME_MS;
     for (int i = 0; i < numSegments; i++) {
       String segment = segments.get(i);
-      long endTimeMs = extractEndTimeMsFromSegmentZKMetadataZNRecord(segment, znRecords.get(i));
+      ZNRecord znRecord = znRecords.get(i);
+      long endTimeMs = extractEndTimeMsFromSegmentZKMetadataZNRecord(segment, znRecord);
       _endTimeMsMap.put(segment, endTimeMs);
+      _startTimeMsMap.put(segment, extractStartTimeMsFromSegmentZKMetadataZNRecord(znRecord));
       maxEndTimeMs = Math.max(maxEndTimeMs, endTimeMs);
     }
     updateTimeBoundaryInfo(maxEndTimeMs);
+    _minStartTimeMs = getMinStartTimeMsFromSegments();
   }
 
   private long extractEndTimeMsFromSegmentZKMetadataZNRecord(String segment, @Nullable ZNRecord znRecord) {
@@ -140,6 +146,18 @@ public class TimeBoundaryManager {
     return endTimeMs;
   }
 
+  private long extractStartTimeMsFromSegmentZKMetadataZNRecord(@Nullable ZNRecord znRecord) {
+    if (znRecord == null || znRecord.getLongField(CommonConstants.Segment.TOTAL_DOCS, -1) == 0) {
+      return INVALID_START_TIME_MS;
+    }
+    long startTime = znRecord.getLongField(CommonConstants.Segment.START_TIME, -1);
+    if (startTime < 0) {
+      return INVALID_START_TIME_MS;
+    }
+    TimeUnit timeUnit = znRecord.getEnumField(CommonConstants.Segment.TIME_UNIT, TimeUnit.class, TimeUnit.DAYS);
+    return timeUnit.toMillis(startTime);
+  }
+
   private void updateTimeBoundaryInfo(long maxEndTimeMs) {
     if (maxEndTimeMs > 0) {
       String timeBoundary = _timeFormatSpec.fromMillisToFormat(maxEndTimeMs - _timeOffsetMs);
@@ -169,13 +187,17 @@ public class TimeBoundaryManager {
       // NOTE: Only update the segment end time when there are ONLINE instances in the external view to prevent moving
       //       the time boundary before the new segment is picked up by the servers
       Map<String, String> instanceStateMap = externalView.getStateMap(segment);
-      if (instanceStateMap != null && instanceStateMap.containsValue(SegmentStateModel.ONLINE)) {
-        _endTimeMsMap.computeIfAbsent(segment, k -> extractEndTimeMsFromSegmentZKMetadataZNRecord(segment,
-            _propertyStore.get(_segmentZKMetadataPathPrefix + segment, null, AccessOption.PERSISTENT)));
+      if (instanceStateMap != null && instanceStateMap.containsValue(SegmentStateModel.ONLINE)
+          && !_endTimeMsMap.containsKey(segment)) {
+        ZNRecord znRecord = _propertyStore.get(_segmentZKMetadataPathPrefix + segment, null, AccessOption.PERSISTENT);
+        _endTimeMsMap.put(segment, extractEndTimeMsFromSegmentZKMetadataZNRecord(segment, znRecord));
+        _startTimeMsMap.put(segment, extractStartTimeMsFromSegmentZKMetadataZNRecord(znRecord));
       }
     }
     _endTimeMsMap.keySet().retainAll(onlineSegments);
+    _startTimeMsMap.keySet().retainAll(onlineSegments);
     updateTimeBoundaryInfo(getMaxEndTimeMs());
+    _minStartTimeMs = getMinStartTimeMsFromSegments();
   }
 
   private long getMaxEndTimeMs() {
@@ -186,17 +208,41 @@ public class TimeBoundaryManager {
     return maxEndTimeMs;
   }
 
+  /**
+   * Returns the minimum start time of the segments with valid start time. Segments without valid start time are
+   * ignored, which can only make the returned start time later than the actual one.
+   */
+  private long getMinStartTimeMsFromSegments() {
+    long minStartTimeMs = Long.MAX_VALUE;
+    for (long startTimeMs : _startTimeMsMap.values()) {
+      if (startTimeMs != INVALID_START_TIME_MS) {
+        minStartTimeMs = Math.min(minStartTimeMs, startTimeMs);
+      }
+    }
+    return minStartTimeMs != Long.MAX_VALUE ? minStartTimeMs : INVALID_START_TIME_MS;
+  }
+
   /**
    * Refreshes the metadata for the given segment (called when segment is getting refreshed).
    */
   public synchronized void refreshSegment(String segment) {
-    _endTimeMsMap.put(segment, extractEndTimeMsFromSegmentZKMetadataZNRecord(segment,
-        _propertyStore.get(_segmentZKMetadataPathPrefix + segment, null, AccessOption.PERSISTENT)));
+    ZNRecord znRecord = _propertyStore.get(_segmentZKMetadataPathPrefix + segment, null, AccessOption.PERSISTENT);
+    _endTimeMsMap.put(segment, extractEndTimeMsFromSegmentZKMetadataZNRecord(segment, znRecord));
+    _startTimeMsMap.put(segment, extractStartTimeMsFromSegmentZKMetadataZNRecord(znRecord));
     updateTimeBoundaryInfo(getMaxEndTimeMs());
+    _minStartTimeMs = getMinStartTimeMsFromSegments();
   }
 
   @Nullable
   public TimeBoundaryInfo getTimeBoundaryInfo() {
     return _timeBoundaryInfo;
   }
+
+  /**
+   * Returns the minimum start time in milliseconds of the online segments, or {@code -1} if no segment has valid start
+   * time.
+   */
+  public long getMinStartTimeMs() {
+    return _minStartTimeMs;
+  }
 }
@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.requesthandler;
+
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.core.requesthandler.PinotQueryParserFactory;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+
+public class QueryCompilationCacheTest {
+
+  @Test
+  public void testNormalize() {
+    QueryCompilationCache.NormalizedQuery normalizedQuery = QueryCompilationCache.normalize(
+        "SELECT a, b FROM myTable WHERE c = 'it''s' AND d IN (1, 2.5, 3e2) AND \"e'1\" > 10 LIMIT 10, 20");
+    assertNotNull(normalizedQuery);
+    assertEquals(normalizedQuery._key,
+        "SELECT a, b FROM myTable WHERE c = ?s AND d IN (?l, ?d, ?d) AND \"e'1\" > ?l LIMIT 10, 20");
+    assertEquals(normalizedQuery._literals.size(), 5);
+    assertEquals(normalizedQuery._literals.get(0).getStringValue(), "it's");
+    assertEquals(normalizedQuery._literals.get(1).getLongValue(), 1L);
+    assertEquals(normalizedQuery._literals.get(2).getDoubleValue(), 2.5);
+    assertEquals(normalizedQuery._literals.get(3).getDoubleValue(), 300.0);
+    assertEquals(normalizedQuery._literals.get(4).getLongValue(), 10L);
+
+    // Numbers after LIMIT/OFFSET, signed numbers, typed literals and OPTION clause should be kept
+    normalizedQuery = QueryCompilationCache.normalize(
+        "SELECT * FROM myTable WHERE a > -5 AND b = X'ab' LIMIT 10 OFFSET 5 OPTION(timeoutMs=1000)");
+    assertNotNull(normalizedQuery);
+    assertEquals(normalizedQuery._key,
+        "SELECT * FROM myTable WHERE a > -5 AND b = X'ab' LIMIT 10 OFFSET 5 OPTION(timeoutMs=1000)");
+    assertEquals(normalizedQuery._literals.size(), 0);
+
+    // Queries with comments, dynamic parameters or unterminated literals cannot be normalized
+    assertNull(QueryCompilationCache.normalize("SELECT * FROM myTable -- comment"));
+    assertNull(QueryCompilationCache.normalize("SELECT * FROM myTable /* comment */"));
+    assertNull(QueryCompilationCache.normalize("SELECT * FROM myTable WHERE a = ?"));
+    assertNull(QueryCompilationCache.normalize("SELECT * FROM myTable WHERE a = 'abc"));
+  }
+
+  @Test
+  public void testCompile() {
+    QueryCompilationCache cache = new QueryCompilationCache(10);
+    String[] queries = new String[]{
+        "SELECT a, SUM(b) FROM myTable WHERE c = 'foo' AND d BETWEEN 10 AND 20 GROUP BY a ORDER BY SUM(b) DESC LIMIT 5",
+        "SELECT a, SUM(b) FROM myTable WHERE c = 'bar' AND d BETWEEN 5 AND 100 GROUP BY a ORDER BY SUM(b) DESC LIMIT 5",
+        "SELECT a, SUM(b) FROM myTable WHERE c = 'b''z' AND d BETWEEN 1 AND 2 GROUP BY a ORDER BY SUM(b) DESC LIMIT 5"
+    };
+    for (String query : queries) {
+      assertEquals(cache.compile(query), PinotQueryParserFactory.parseSQLQuery(query));
+    }
+    assertEquals(cache.size(), 1);
+
+    // Different LIMIT should be cached separately
+    String query = "SELECT * FROM myTable WHERE a = 1.5 LIMIT 10";
+    assertEquals(cache.compile(query), PinotQueryParserFactory.parseSQLQuery(query));
+    query = "SELECT * FROM myTable WHERE a = 2.5 LIMIT 20";
+    assertEquals(cache.compile(query), PinotQueryParserFactory.parseSQLQuery(query));
+    assertEquals(cache.size(), 3);
+
+    // Returned query should not be shared
+    query = "SELECT * FROM myTable WHERE a = 'foo' LIMIT 10";
+    BrokerRequest brokerRequest = cache.compile(query);
+    brokerRequest.getPinotQuery().setLimit(100);
+    brokerRequest.getPinotQuery().getFilterExpression().getFunctionCall().getOperands().get(1).getLiteral()
+        .setStringValue("bar");
+    assertEquals(cache.compile(query), PinotQueryParserFactory.parseSQLQuery(query));
+  }
+
+  @Test
+  public void testNotCacheable() {
+    QueryCompilationCache cache = new QueryCompilationCache(10);
+
+    // Literals that are evaluated at compile time should not be bound directly
+    String query = "SELECT * FROM myTable WHERE a = upper('ABC')";
+    assertEquals(cache.compile(query), PinotQueryParserFactory.parseSQLQuery(query));
+    query = "SELECT * FROM myTable WHERE a = upper('abc')";
+    assertEquals(cache.compile(query), PinotQueryParserFactory.parseSQLQuery(query));
+
+    // Literals that are re-ordered by the compiler should not be bound directly
+    query = "SELECT * FROM myTable WHERE 10 = a + 2";
+    assertEquals(cache.compile(query), PinotQueryParserFactory.parseSQLQuery(query));
+    query = "SELECT * FROM myTable WHERE 20 = a + 5";
+    BrokerRequest brokerRequest = cache.compile(query);
+    assertEquals(brokerRequest, PinotQueryParserFactory.parseSQLQuery(query));
+    assertNotEquals(brokerRequest, PinotQueryParserFactory.parseSQLQuery("SELECT * FROM myTable WHERE 5 = a + 20"));
+  }
+}
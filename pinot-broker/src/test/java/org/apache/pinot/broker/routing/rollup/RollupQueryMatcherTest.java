@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.rollup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.common.minion.Granularity;
+import org.apache.pinot.common.minion.RollupTableSpec;
+import org.apache.pinot.segment.spi.AggregationFunctionType;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableCustomConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.apache.pinot.sql.parsers.CalciteSqlParser;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class RollupQueryMatcherTest {
+  private static final String SOURCE_TABLE_NAME = "testTable";
+  private static final String ROLLUP_TABLE_NAME = "testTable_daily";
+  private static final String TIME_COLUMN = "ts";
+  private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+  private static final long START_MS = 18990 * DAY_MS;
+  private static final long END_MS = 19000 * DAY_MS;
+  private static final long ROLLUP_START_MS = START_MS - 5 * DAY_MS;
+  private static final String TIME_BOUNDARY = Long.toString(END_MS);
+  private static final String TIME_FILTER = String.format("ts >= %d AND ts < %d", START_MS, END_MS);
+
+  private static final Schema SCHEMA =
+      new Schema.SchemaBuilder().setSchemaName(ROLLUP_TABLE_NAME).addSingleValueDimension("country", DataType.STRING)
+          .addMetric("clicks", DataType.LONG).addMetric("maxLatency", DataType.DOUBLE)
+          .addDateTime(TIME_COLUMN, DataType.LONG, "1:MILLISECONDS:EPOCH", "1:MILLISECONDS").build();
+  private static final RollupTableSpec ROLLUP_TABLE_SPEC = getRollupTableSpec();
+
+  private static RollupTableSpec getRollupTableSpec() {
+    Map<String, String> customConfigs = new HashMap<>();
+    customConfigs.put(RollupTableSpec.SOURCE_TABLE_KEY, SOURCE_TABLE_NAME);
+    customConfigs.put(RollupTableSpec.GRANULARITY_KEY, "daily");
+    customConfigs.put(RollupTableSpec.AGGREGATE_KEY_PREFIX + "maxLatency", "max");
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(ROLLUP_TABLE_NAME)
+        .setTimeColumnName(TIME_COLUMN).setCustomConfig(new TableCustomConfig(customConfigs)).build();
+    return RollupTableSpec.fromTableConfig(tableConfig);
+  }
+
+  @Test
+  public void testRollupTableSpec() {
+    assertNotNull(ROLLUP_TABLE_SPEC);
+    assertEquals(ROLLUP_TABLE_SPEC.getSourceTableName(), SOURCE_TABLE_NAME);
+    assertEquals(ROLLUP_TABLE_SPEC.getGranularity(), Granularity.DAILY);
+    assertEquals(ROLLUP_TABLE_SPEC.getBucketMs(), DAY_MS);
+    assertEquals(ROLLUP_TABLE_SPEC.getAggregationType("maxLatency"), AggregationFunctionType.MAX);
+    assertEquals(ROLLUP_TABLE_SPEC.getAggregationType("clicks"), AggregationFunctionType.SUM);
+
+    // Not a rollup table
+    assertNull(RollupTableSpec.fromTableConfig(
+        new TableConfigBuilder(TableType.OFFLINE).setTableName(SOURCE_TABLE_NAME).build()));
+  }
+
+  @Test
+  public void testCompatibleQueries() {
+    assertTrue(matches("SELECT SUM(clicks), MAX(maxLatency) FROM testTable WHERE " + TIME_FILTER));
+    assertTrue(matches("SELECT country, SUM(clicks) FROM testTable WHERE " + TIME_FILTER
+        + " AND country IN ('US', 'CA') GROUP BY country ORDER BY SUM(clicks) DESC LIMIT 10"));
+    assertTrue(matches("SELECT DISTINCTCOUNT(country), MIN(country) FROM testTable WHERE " + TIME_FILTER));
+    assertTrue(matches("SELECT DATETRUNC('MONTH', ts), SUM(clicks) FROM testTable WHERE " + TIME_FILTER
+        + " GROUP BY DATETRUNC('MONTH', ts)"));
+    assertTrue(matches("SELECT DISTINCT country FROM testTable WHERE " + TIME_FILTER));
+    // Upper bound before the time boundary, lower bound at the start of the rollup table
+    assertTrue(matches(
+        "SELECT SUM(clicks) FROM testTable WHERE ts >= " + ROLLUP_START_MS + " AND ts < " + (END_MS - DAY_MS)));
+  }
+
+  @Test
+  public void testIncompatibleQueries() {
+    // Selection query
+    assertFalse(matches("SELECT country, clicks FROM testTable WHERE " + TIME_FILTER));
+    // COUNT cannot be computed from the rolled-up records
+    assertFalse(matches("SELECT COUNT(*) FROM testTable WHERE " + TIME_FILTER));
+    // Metric aggregated with a different type
+    assertFalse(matches("SELECT SUM(maxLatency) FROM testTable WHERE " + TIME_FILTER));
+    assertFalse(matches("SELECT MIN(clicks) FROM testTable WHERE " + TIME_FILTER));
+    // Filter on metric
+    assertFalse(matches("SELECT SUM(clicks) FROM testTable WHERE " + TIME_FILTER + " AND clicks > 10"));
+    // Group by the time column or finer time unit
+    assertFalse(matches("SELECT ts, SUM(clicks) FROM testTable WHERE " + TIME_FILTER + " GROUP BY ts"));
+    assertFalse(matches("SELECT DATETRUNC('HOUR', ts), SUM(clicks) FROM testTable WHERE " + TIME_FILTER
+        + " GROUP BY DATETRUNC('HOUR', ts)"));
+    // No upper bound, upper bound after the time boundary, or time filter not aligned to the time buckets
+    assertFalse(matches("SELECT SUM(clicks) FROM testTable"));
+    assertFalse(matches("SELECT SUM(clicks) FROM testTable WHERE ts >= " + START_MS));
+    assertFalse(matches("SELECT SUM(clicks) FROM testTable WHERE ts < " + (END_MS + DAY_MS)));
+    assertFalse(matches("SELECT SUM(clicks) FROM testTable WHERE ts >= " + (START_MS + 1) + " AND ts < " + END_MS));
+    assertFalse(matches("SELECT SUM(clicks) FROM testTable WHERE ts <= " + END_MS));
+    // No lower bound, or lower bound before the start of the rollup table
+    assertFalse(matches("SELECT SUM(clicks) FROM testTable WHERE ts < " + END_MS));
+    assertFalse(matches(
+        "SELECT SUM(clicks) FROM testTable WHERE ts >= " + (ROLLUP_START_MS - DAY_MS) + " AND ts < " + END_MS));
+  }
+
+  @Test
+  public void testIncompatibleRollupTables() {
+    String query = "SELECT SUM(clicks) FROM testTable WHERE " + TIME_FILTER;
+    // Unknown start time of the rollup table
+    assertFalse(RollupQueryMatcher.matches(CalciteSqlParser.compileToPinotQuery(query), ROLLUP_TABLE_SPEC, SCHEMA,
+        TIME_COLUMN, TIME_BOUNDARY, -1));
+    // Time column not in EPOCH format
+    Schema sdfSchema =
+        new Schema.SchemaBuilder().setSchemaName(ROLLUP_TABLE_NAME).addMetric("clicks", DataType.LONG)
+            .addDateTime(TIME_COLUMN, DataType.STRING, "1:DAYS:SIMPLE_DATE_FORMAT:yyyyMMdd", "1:DAYS").build();
+    assertFalse(RollupQueryMatcher.matches(CalciteSqlParser.compileToPinotQuery(
+        "SELECT SUM(clicks) FROM testTable WHERE ts >= '20211201' AND ts < '20211202'"), ROLLUP_TABLE_SPEC, sdfSchema,
+        TIME_COLUMN, "20211210", ROLLUP_START_MS));
+    // Time bucket not a multiple of the time unit
+    Schema misalignedSchema =
+        new Schema.SchemaBuilder().setSchemaName(ROLLUP_TABLE_NAME).addMetric("clicks", DataType.LONG)
+            .addDateTime(TIME_COLUMN, DataType.LONG, "7:HOURS:EPOCH", "7:HOURS").build();
+    assertFalse(RollupQueryMatcher.matches(CalciteSqlParser.compileToPinotQuery(query), ROLLUP_TABLE_SPEC,
+        misalignedSchema, TIME_COLUMN, TIME_BOUNDARY, ROLLUP_START_MS));
+  }
+
+  private static boolean matches(String query) {
+    return RollupQueryMatcher.matches(CalciteSqlParser.compileToPinotQuery(query), ROLLUP_TABLE_SPEC, SCHEMA,
+        TIME_COLUMN, TIME_BOUNDARY, ROLLUP_START_MS);
+  }
+}
@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.rollup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.broker.routing.RoutingManager;
+import org.apache.pinot.broker.routing.timeboundary.TimeBoundaryInfo;
+import org.apache.pinot.common.minion.RollupTableSpec;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.common.utils.helix.TableCache;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableCustomConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.apache.pinot.sql.parsers.CalciteSqlParser;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+
+public class RollupTableSelectorTest {
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String OFFLINE_TABLE_NAME = "testTable_OFFLINE";
+  private static final String RAW_ROLLUP_TABLE_NAME = "testTable_daily";
+  private static final String ROLLUP_TABLE_NAME = "testTable_daily_OFFLINE";
+  private static final String TIME_COLUMN = "ts";
+  private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+  private static final long START_MS = 18990 * DAY_MS;
+  private static final long END_MS = 19000 * DAY_MS;
+  private static final PinotQuery COMPATIBLE_QUERY = CalciteSqlParser.compileToPinotQuery(
+      String.format("SELECT SUM(clicks) FROM testTable WHERE ts >= %d AND ts < %d", START_MS, END_MS));
+
+  private RoutingManager _routingManager;
+  private TableCache _tableCache;
+
+  @BeforeMethod
+  public void setUp() {
+    _routingManager = mock(RoutingManager.class);
+    when(_routingManager.getRollupTableName(OFFLINE_TABLE_NAME)).thenReturn(ROLLUP_TABLE_NAME);
+    when(_routingManager.getTimeBoundaryInfo(ROLLUP_TABLE_NAME))
+        .thenReturn(new TimeBoundaryInfo(TIME_COLUMN, Long.toString(END_MS)));
+    when(_routingManager.getMinStartTimeMs(ROLLUP_TABLE_NAME)).thenReturn(START_MS);
+    _tableCache = mock(TableCache.class);
+    when(_tableCache.getTableConfig(ROLLUP_TABLE_NAME)).thenReturn(getRollupTableConfig(RAW_TABLE_NAME));
+    when(_tableCache.getSchema(RAW_TABLE_NAME)).thenReturn(getSchema(RAW_TABLE_NAME, "1:MILLISECONDS:EPOCH"));
+    when(_tableCache.getSchema(RAW_ROLLUP_TABLE_NAME))
+        .thenReturn(getSchema(RAW_ROLLUP_TABLE_NAME, "1:MILLISECONDS:EPOCH"));
+  }
+
+  private static TableConfig getRollupTableConfig(String sourceTableName) {
+    Map<String, String> customConfigs = new HashMap<>();
+    customConfigs.put(RollupTableSpec.SOURCE_TABLE_KEY, sourceTableName);
+    customConfigs.put(RollupTableSpec.GRANULARITY_KEY, "daily");
+    return new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_ROLLUP_TABLE_NAME).setTimeColumnName(TIME_COLUMN)
+        .setCustomConfig(new TableCustomConfig(customConfigs)).build();
+  }
+
+  private static Schema getSchema(String schemaName, String timeFormat) {
+    return new Schema.SchemaBuilder().setSchemaName(schemaName).addSingleValueDimension("country", DataType.STRING)
+        .addMetric("clicks", DataType.LONG).addDateTime(TIME_COLUMN, DataType.LONG, timeFormat, "1:MILLISECONDS")
+        .build();
+  }
+
+  @Test
+  public void testRouteToRollupTable() {
+    assertEquals(getRollupTableName(COMPATIBLE_QUERY), ROLLUP_TABLE_NAME);
+  }
+
+  @Test
+  public void testFallbackToSourceTable() {
+    // Incompatible query
+    assertNull(getRollupTableName(CalciteSqlParser.compileToPinotQuery(
+        String.format("SELECT COUNT(*) FROM testTable WHERE ts >= %d AND ts < %d", START_MS, END_MS))));
+    // Query starting before the rollup table
+    assertNull(getRollupTableName(CalciteSqlParser.compileToPinotQuery(
+        String.format("SELECT SUM(clicks) FROM testTable WHERE ts >= %d AND ts < %d", START_MS - DAY_MS, END_MS))));
+
+    // No rollup table
+    when(_routingManager.getRollupTableName(OFFLINE_TABLE_NAME)).thenReturn(null);
+    assertNull(getRollupTableName(COMPATIBLE_QUERY));
+    when(_routingManager.getRollupTableName(OFFLINE_TABLE_NAME)).thenReturn(ROLLUP_TABLE_NAME);
+
+    // No time boundary for the rollup table
+    when(_routingManager.getTimeBoundaryInfo(ROLLUP_TABLE_NAME)).thenReturn(null);
+    assertNull(getRollupTableName(COMPATIBLE_QUERY));
+  }
+
+  @Test
+  public void testFallbackOnTableChange() {
+    // Rollup table re-configured for another source table
+    when(_tableCache.getTableConfig(ROLLUP_TABLE_NAME)).thenReturn(getRollupTableConfig("anotherTable"));
+    assertNull(getRollupTableName(COMPATIBLE_QUERY));
+
+    // Rollup table deleted
+    when(_tableCache.getTableConfig(ROLLUP_TABLE_NAME)).thenReturn(null);
+    assertNull(getRollupTableName(COMPATIBLE_QUERY));
+  }
+
+  @Test
+  public void testFallbackOnDifferentTimeFormat() {
+    // The time literals in the query are in the format of the source table
+    when(_tableCache.getSchema(RAW_ROLLUP_TABLE_NAME)).thenReturn(getSchema(RAW_ROLLUP_TABLE_NAME, "1:SECONDS:EPOCH"));
+    assertNull(getRollupTableName(COMPATIBLE_QUERY));
+  }
+
+  private String getRollupTableName(PinotQuery pinotQuery) {
+    return RollupTableSelector.getRollupTableName(_routingManager, _tableCache, OFFLINE_TABLE_NAME, pinotQuery);
+  }
+}
@@ -126,6 +126,7 @@ public class TimeBoundaryManagerTest {
     setSegmentZKMetadata(rawTableName, segment0, 2, timeUnit);
     timeBoundaryManager.init(externalView, idealState, onlineSegments);
     verifyTimeBoundaryInfo(timeBoundaryManager.getTimeBoundaryInfo(), timeUnit.convert(1, TimeUnit.DAYS));
+    assertEquals(timeBoundaryManager.getMinStartTimeMs(), TimeUnit.DAYS.toMillis(1));
 
     // Add a new segment with larger end time but no ONLINE instance should not update the time boundary
     String segment1 = "segment1";
@@ -170,6 +171,14 @@ public class TimeBoundaryManagerTest {
     // Refresh the changed segment should update the time boundary
     timeBoundaryManager.refreshSegment(segment2);
     verifyTimeBoundaryInfo(timeBoundaryManager.getTimeBoundaryInfo(), timeUnit.convert(4, TimeUnit.DAYS));
+    assertEquals(timeBoundaryManager.getMinStartTimeMs(), TimeUnit.DAYS.toMillis(1));
+
+    // Remove the segment with smallest start time should update the min start time (segment with 0 total docs should
+    // be ignored)
+    onlineSegments.remove(segment0);
+    segmentAssignment.remove(segment0);
+    timeBoundaryManager.onExternalViewChange(externalView, idealState, onlineSegments);
+    assertEquals(timeBoundaryManager.getMinStartTimeMs(), TimeUnit.DAYS.toMillis(4));
   }
 
   private void testHourlyPushTable(String rawTableName, TableConfig tableConfig, TimeUnit timeUnit) {
@@ -212,6 +221,7 @@ public class TimeBoundaryManagerTest {
   private void setSegmentZKMetadata(String rawTableName, String segment, int endTimeInDays, TimeUnit timeUnit) {
     OfflineSegmentZKMetadata offlineSegmentZKMetadata = new OfflineSegmentZKMetadata();
     offlineSegmentZKMetadata.setSegmentName(segment);
+    offlineSegmentZKMetadata.setStartTime(timeUnit.convert(endTimeInDays - 1, TimeUnit.DAYS));
     offlineSegmentZKMetadata.setEndTime(timeUnit.convert(endTimeInDays, TimeUnit.DAYS));
     offlineSegmentZKMetadata.setTimeUnit(timeUnit);
     ZKMetadataProvider
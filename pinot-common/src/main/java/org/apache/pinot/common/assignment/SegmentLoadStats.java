@@ -0,0 +1,206 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.assignment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.I0Itec.zkclient.exception.ZkException;
+import org.apache.helix.AccessOption;
+import org.apache.helix.ZNRecord;
+import org.apache.helix.store.HelixPropertyStore;
+import org.apache.pinot.common.metadata.ZKMetadataProvider;
+import org.apache.pinot.spi.utils.CommonConstants;
+
+
+/**
+ * Load statistics of the segments of a table, used by the load-aware segment assignment to balance the storage and the
+ * expected query load across the instances.
+ *
+ * <p>For each segment, the on-disk size and the number of queries that processed the segment (summed over all the
+ * replicas) within the recent time window are kept. The stats are periodically collected from the servers and
+ * persisted under the ZK path: {@code <cluster>/PROPERTYSTORE/SEGMENT_LOAD_STATS/<tableNameWithType>/<shardId>}.
+ *
+ * <p>To keep each ZNode well below the ZK size limit (1MB by default) for tables with lots of segments, the stats are
+ * split into shards of at most {@link #MAX_NUM_SEGMENTS_PER_SHARD} segments, each stored as a child ZNode of the table.
+ * Within a shard, the load of each segment is encoded as {@code <sizeInBytes>,<numQueries>} in a single map field.
+ */
+public class SegmentLoadStats {
+  // With segment names of ~100 characters, each shard is ~600KB
+  public static final int MAX_NUM_SEGMENTS_PER_SHARD = 5000;
+
+  private static final String UPDATE_TIME_MS_KEY = "updateTimeMs";
+  private static final String SEGMENT_LOADS_KEY = "segmentLoads";
+  private static final char SEPARATOR = ',';
+
+  private final String _tableNameWithType;
+  private final long _updateTimeMs;
+  private final Map<String, SegmentLoad> _segmentLoadMap;
+
+  public SegmentLoadStats(String tableNameWithType, long updateTimeMs, Map<String, SegmentLoad> segmentLoadMap) {
+    _tableNameWithType = tableNameWithType;
+    _updateTimeMs = updateTimeMs;
+    _segmentLoadMap = segmentLoadMap;
+  }
+
+  public String getTableNameWithType() {
+    return _tableNameWithType;
+  }
+
+  public long getUpdateTimeMs() {
+    return _updateTimeMs;
+  }
+
+  public Map<String, SegmentLoad> getSegmentLoadMap() {
+    return _segmentLoadMap;
+  }
+
+  /**
+   * Merges the shards of the segment load stats. The update time of the merged stats is the earliest update time of the
+   * shards.
+   */
+  public static SegmentLoadStats fromZNRecords(String tableNameWithType, List<ZNRecord> znRecords) {
+    Map<String, SegmentLoad> segmentLoadMap = new HashMap<>();
+    long updateTimeMs = Long.MAX_VALUE;
+    for (ZNRecord znRecord : znRecords) {
+      updateTimeMs = Math.min(updateTimeMs, znRecord.getLongField(UPDATE_TIME_MS_KEY, 0L));
+      Map<String, String> segmentLoads = znRecord.getMapField(SEGMENT_LOADS_KEY);
+      if (segmentLoads != null) {
+        for (Map.Entry<String, String> entry : segmentLoads.entrySet()) {
+          String load = entry.getValue();
+          int separatorIndex = load.indexOf(SEPARATOR);
+          segmentLoadMap.put(entry.getKey(), new SegmentLoad(Long.parseLong(load.substring(0, separatorIndex)),
+              Long.parseLong(load.substring(separatorIndex + 1))));
+        }
+      }
+    }
+    return new SegmentLoadStats(tableNameWithType, znRecords.isEmpty() ? 0L : updateTimeMs, segmentLoadMap);
+  }
+
+  /**
+   * Splits the segment load stats into shards of at most {@link #MAX_NUM_SEGMENTS_PER_SHARD} segments. Always returns
+   * at least one shard so that the update time is persisted even if there is no segment.
+   */
+  public List<ZNRecord> toZNRecords() {
+    int numShards = Math.max((_segmentLoadMap.size() + MAX_NUM_SEGMENTS_PER_SHARD - 1) / MAX_NUM_SEGMENTS_PER_SHARD, 1);
+    List<ZNRecord> znRecords = new ArrayList<>(numShards);
+    Map<String, String> segmentLoads = null;
+    for (Map.Entry<String, SegmentLoad> entry : _segmentLoadMap.entrySet()) {
+      if (segmentLoads == null || segmentLoads.size() == MAX_NUM_SEGMENTS_PER_SHARD) {
+        segmentLoads = addShard(znRecords);
+      }
+      SegmentLoad segmentLoad = entry.getValue();
+      segmentLoads.put(entry.getKey(), Long.toString(segmentLoad.getSizeInBytes()) + SEPARATOR + segmentLoad
+          .getNumQueries());
+    }
+    if (znRecords.isEmpty()) {
+      addShard(znRecords);
+    }
+    return znRecords;
+  }
+
+  private Map<String, String> addShard(List<ZNRecord> znRecords) {
+    ZNRecord znRecord = new ZNRecord(Integer.toString(znRecords.size()));
+    znRecord.setLongField(UPDATE_TIME_MS_KEY, _updateTimeMs);
+    Map<String, String> segmentLoads = new HashMap<>();
+    znRecord.setMapField(SEGMENT_LOADS_KEY, segmentLoads);
+    znRecords.add(znRecord);
+    return segmentLoads;
+  }
+
+  /**
+   * Fetches the segment load stats of the given table from Helix property store, or {@code null} if it does not exist.
+   */
+  @Nullable
+  public static SegmentLoadStats fetchSegmentLoadStats(HelixPropertyStore<ZNRecord> propertyStore,
+      String tableNameWithType) {
+    String path = ZKMetadataProvider.constructPropertyStorePathForSegmentLoadStats(tableNameWithType);
+    List<ZNRecord> znRecords = propertyStore.getChildren(path, null, AccessOption.PERSISTENT,
+        CommonConstants.Helix.ZkClient.RETRY_COUNT, CommonConstants.Helix.ZkClient.RETRY_INTERVAL_MS);
+    if (znRecords == null) {
+      return null;
+    }
+    // NOTE: it is possible that znRecord is null if the shard gets removed while calling this method
+    List<ZNRecord> shards = new ArrayList<>(znRecords.size());
+    for (ZNRecord znRecord : znRecords) {
+      if (znRecord != null) {
+        shards.add(znRecord);
+      }
+    }
+    return !shards.isEmpty() ? fromZNRecords(tableNameWithType, shards) : null;
+  }
+
+  /**
+   * Persists the segment load stats to Helix property store, and removes the shards no longer needed.
+   */
+  public static void persistSegmentLoadStats(HelixPropertyStore<ZNRecord> propertyStore,
+      SegmentLoadStats segmentLoadStats) {
+    String tableNameWithType = segmentLoadStats.getTableNameWithType();
+    String path = ZKMetadataProvider.constructPropertyStorePathForSegmentLoadStats(tableNameWithType);
+    List<ZNRecord> znRecords = segmentLoadStats.toZNRecords();
+    for (ZNRecord znRecord : znRecords) {
+      if (!propertyStore.set(path + "/" + znRecord.getId(), znRecord, AccessOption.PERSISTENT)) {
+        throw new ZkException("Failed to persist segment load stats for table: " + tableNameWithType);
+      }
+    }
+    List<String> shardIds = propertyStore.getChildNames(path, AccessOption.PERSISTENT);
+    if (shardIds != null) {
+      for (String shardId : shardIds) {
+        if (Integer.parseInt(shardId) >= znRecords.size() && !propertyStore
+            .remove(path + "/" + shardId, AccessOption.PERSISTENT)) {
+          throw new ZkException("Failed to remove segment load stats shard: " + shardId + " for table: "
+              + tableNameWithType);
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes the segment load stats of the given table from Helix property store if it exists.
+   */
+  public static void removeSegmentLoadStats(HelixPropertyStore<ZNRecord> propertyStore, String tableNameWithType) {
+    String path = ZKMetadataProvider.constructPropertyStorePathForSegmentLoadStats(tableNameWithType);
+    if (propertyStore.exists(path, AccessOption.PERSISTENT) && !propertyStore.remove(path, AccessOption.PERSISTENT)) {
+      throw new ZkException("Failed to remove segment load stats for table: " + tableNameWithType);
+    }
+  }
+
+  /**
+   * Load of a segment.
+   */
+  public static class SegmentLoad {
+    private final long _sizeInBytes;
+    private final long _numQueries;
+
+    public SegmentLoad(long sizeInBytes, long numQueries) {
+      _sizeInBytes = sizeInBytes;
+      _numQueries = numQueries;
+    }
+
+    public long getSizeInBytes() {
+      return _sizeInBytes;
+    }
+
+    public long getNumQueries() {
+      return _numQueries;
+    }
+  }
+}
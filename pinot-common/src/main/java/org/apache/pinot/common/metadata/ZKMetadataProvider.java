@@ -61,6 +61,7 @@ public class ZKMetadataProvider {
   private static final String PROPERTYSTORE_CLUSTER_CONFIGS_PREFIX = "/CONFIGS/CLUSTER";
   private static final String PROPERTYSTORE_SEGMENT_LINEAGE = "/SEGMENT_LINEAGE";
   private static final String PROPERTYSTORE_MINION_TASK_METADATA_PREFIX = "/MINION_TASK_METADATA";
+  private static final String PROPERTYSTORE_SEGMENT_LOAD_STATS_PREFIX = "/SEGMENT_LOAD_STATS";
 
   public static void setRealtimeTableConfig(ZkHelixPropertyStore<ZNRecord> propertyStore, String realtimeTableName,
       ZNRecord znRecord) {
@@ -122,6 +123,10 @@ public class ZKMetadataProvider {
     return StringUtil.join("/", PROPERTYSTORE_MINION_TASK_METADATA_PREFIX, taskType, tableNameWithType);
   }
 
+  public static String constructPropertyStorePathForSegmentLoadStats(String tableNameWithType) {
+    return StringUtil.join("/", PROPERTYSTORE_SEGMENT_LOAD_STATS_PREFIX, tableNameWithType);
+  }
+
   public static boolean isSegmentExisted(ZkHelixPropertyStore<ZNRecord> propertyStore, String resourceNameForResource,
       String segmentName) {
     return propertyStore
@@ -163,6 +168,18 @@ public class ZKMetadataProvider {
             offlineSegmentZKMetadata.toZNRecord(), AccessOption.PERSISTENT);
   }
 
+  public static boolean setRealtimeSegmentZKMetadata(ZkHelixPropertyStore<ZNRecord> propertyStore,
+      String realtimeTableName, RealtimeSegmentZKMetadata realtimeSegmentZKMetadata, int expectedVersion) {
+    // NOTE: Helix will throw ZkBadVersionException if version does not match
+    try {
+      return propertyStore
+          .set(constructPropertyStorePathForSegment(realtimeTableName, realtimeSegmentZKMetadata.getSegmentName()),
+              realtimeSegmentZKMetadata.toZNRecord(), expectedVersion, AccessOption.PERSISTENT);
+    } catch (ZkBadVersionException e) {
+      return false;
+    }
+  }
+
   public static boolean setRealtimeSegmentZKMetadata(ZkHelixPropertyStore<ZNRecord> propertyStore,
       String realtimeTableName, RealtimeSegmentZKMetadata realtimeSegmentZKMetadata) {
     return propertyStore
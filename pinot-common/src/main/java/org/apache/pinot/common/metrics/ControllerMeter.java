@@ -49,7 +49,10 @@ public enum ControllerMeter implements AbstractMetrics.Meter {
   NUMBER_TIMES_SCHEDULE_TASKS_CALLED("tasks", true),
   NUMBER_TASKS_SUBMITTED("tasks", false),
   NUMBER_SEGMENT_UPLOAD_TIMEOUT_EXCEEDED("SegmentUploadTimeouts", true),
-  CRON_SCHEDULER_JOB_TRIGGERED("cronSchedulerJobTriggered", false);
+  CRON_SCHEDULER_JOB_TRIGGERED("cronSchedulerJobTriggered", false),
+  IDEAL_STATE_UPDATES("updates", false),
+  IDEAL_STATE_UPDATE_BATCHES("batches", false),
+  IDEAL_STATE_UPDATE_FAILURES("failures", false);
 
   private final String brokerMeterName;
   private final String unit;
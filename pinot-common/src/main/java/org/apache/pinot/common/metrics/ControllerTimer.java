@@ -26,7 +26,9 @@ import org.apache.pinot.common.Utils;
  *
  */
 public enum ControllerTimer implements AbstractMetrics.Timer {
-  CRON_SCHEDULER_JOB_EXECUTION_TIME_MS("cronSchedulerJobExecutionTimeMs", false);
+  CRON_SCHEDULER_JOB_EXECUTION_TIME_MS("cronSchedulerJobExecutionTimeMs", false),
+  IDEAL_STATE_UPDATE_BATCH_TIME_MS("idealStateUpdateBatchTimeMs", false),
+  IDEAL_STATE_UPDATE_LATENCY_MS("idealStateUpdateLatencyMs", false);
 
   private final String timerName;
   private final boolean global;
@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.minion;
+
+import com.google.common.base.Preconditions;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.apache.pinot.segment.spi.AggregationFunctionType;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableCustomConfig;
+
+
+/**
+ * The {@code RollupTableSpec} describes an OFFLINE table that keeps a coarser-granularity pre-aggregated copy of the
+ * data of a source table. It is configured in the custom configs of the rollup table:
+ * <ul>
+ *   <li>'rollup.sourceTable': raw name of the source table</li>
+ *   <li>'rollup.granularity': granularity of the rolled-up time buckets (HOURLY or DAILY)</li>
+ *   <li>'rollup.aggregate.&lt;metric&gt;': aggregation type of the metric (SUM, MIN or MAX)</li>
+ * </ul>
+ * The rolled-up records have the time value rounded down to the start of the time bucket, the same dimension values as
+ * the source records, and the metric values aggregated with the configured aggregation type (SUM by default).
+ */
+public class RollupTableSpec {
+  public static final String ROLLUP_CONFIG_PREFIX = "rollup.";
+  public static final String SOURCE_TABLE_KEY = ROLLUP_CONFIG_PREFIX + "sourceTable";
+  public static final String GRANULARITY_KEY = ROLLUP_CONFIG_PREFIX + "granularity";
+  public static final String AGGREGATE_KEY_PREFIX = ROLLUP_CONFIG_PREFIX + "aggregate.";
+
+  private final String _sourceTableName;
+  private final Granularity _granularity;
+  private final long _bucketMs;
+  private final Map<String, AggregationFunctionType> _aggregationTypes;
+
+  public RollupTableSpec(String sourceTableName, Granularity granularity,
+      Map<String, AggregationFunctionType> aggregationTypes) {
+    _sourceTableName = sourceTableName;
+    _granularity = granularity;
+    _bucketMs = getBucketMs(granularity);
+    for (Map.Entry<String, AggregationFunctionType> entry : aggregationTypes.entrySet()) {
+      AggregationFunctionType aggregationType = entry.getValue();
+      Preconditions.checkArgument(aggregationType == AggregationFunctionType.SUM
+              || aggregationType == AggregationFunctionType.MIN || aggregationType == AggregationFunctionType.MAX,
+          "Unsupported rollup aggregation type: %s for column: %s", aggregationType, entry.getKey());
+    }
+    _aggregationTypes = aggregationTypes;
+  }
+
+  /**
+   * Returns the {@code RollupTableSpec} configured in the given table config, or {@code null} if the table is not a
+   * rollup table.
+   */
+  @Nullable
+  public static RollupTableSpec fromTableConfig(TableConfig tableConfig) {
+    TableCustomConfig customConfig = tableConfig.getCustomConfig();
+    Map<String, String> customConfigs = customConfig != null ? customConfig.getCustomConfigs() : null;
+    if (customConfigs == null) {
+      return null;
+    }
+    String sourceTableName = customConfigs.get(SOURCE_TABLE_KEY);
+    if (sourceTableName == null) {
+      return null;
+    }
+    String granularity = customConfigs.get(GRANULARITY_KEY);
+    Preconditions.checkArgument(granularity != null, "Rollup granularity must be configured for rollup table: %s",
+        tableConfig.getTableName());
+    Map<String, AggregationFunctionType> aggregationTypes = new HashMap<>();
+    for (Map.Entry<String, String> entry : customConfigs.entrySet()) {
+      String key = entry.getKey();
+      if (key.startsWith(AGGREGATE_KEY_PREFIX)) {
+        aggregationTypes.put(key.substring(AGGREGATE_KEY_PREFIX.length()),
+            AggregationFunctionType.getAggregationFunctionType(entry.getValue()));
+      }
+    }
+    return new RollupTableSpec(sourceTableName, Granularity.valueOf(granularity.toUpperCase()), aggregationTypes);
+  }
+
+  private static long getBucketMs(Granularity granularity) {
+    switch (granularity) {
+      case HOURLY:
+        return TimeUnit.HOURS.toMillis(1);
+      case DAILY:
+        return TimeUnit.DAYS.toMillis(1);
+      default:
+        throw new IllegalArgumentException("Unsupported rollup granularity: " + granularity);
+    }
+  }
+
+  /**
+   * Returns the raw name of the source table.
+   */
+  public String getSourceTableName() {
+    return _sourceTableName;
+  }
+
+  public Granularity getGranularity() {
+    return _granularity;
+  }
+
+  /**
+   * Returns the size of the rolled-up time buckets in milliseconds. The buckets are aligned to the epoch.
+   */
+  public long getBucketMs() {
+    return _bucketMs;
+  }
+
+  /**
+   * Returns the aggregation type for the given metric column (SUM if not configured).
+   */
+  public AggregationFunctionType getAggregationType(String column) {
+    return _aggregationTypes.getOrDefault(column, AggregationFunctionType.SUM);
+  }
+
+  /**
+   * Returns the configured aggregation types keyed by the metric column.
+   */
+  public Map<String, AggregationFunctionType> getAggregationTypes() {
+    return Collections.unmodifiableMap(_aggregationTypes);
+  }
+
+  @Override
+  public String toString() {
+    return "RollupTableSpec{" + "_sourceTableName='" + _sourceTableName + '\'' + ", _granularity=" + _granularity
+        + ", _aggregationTypes=" + _aggregationTypes + '}';
+  }
+}
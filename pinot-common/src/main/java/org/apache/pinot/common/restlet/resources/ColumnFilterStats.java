@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.restlet.resources;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Filter statistics of a column, aggregated over the segments processed by the queries. The statistics include the
+ * number of filters per predicate type (e.g. EQ, RANGE), the number of filters per access path (e.g. INVERTED_INDEX,
+ * SCAN), and the number of entries scanned by the scan-based filters.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ColumnFilterStats {
+  private final Map<String, Long> _numFiltersPerPredicateType;
+  private final Map<String, Long> _numFiltersPerAccessPath;
+  private final long _numEntriesScanned;
+
+  public ColumnFilterStats(@JsonProperty("numFiltersPerPredicateType") Map<String, Long> numFiltersPerPredicateType,
+      @JsonProperty("numFiltersPerAccessPath") Map<String, Long> numFiltersPerAccessPath,
+      @JsonProperty("numEntriesScanned") long numEntriesScanned) {
+    _numFiltersPerPredicateType = numFiltersPerPredicateType;
+    _numFiltersPerAccessPath = numFiltersPerAccessPath;
+    _numEntriesScanned = numEntriesScanned;
+  }
+
+  public Map<String, Long> getNumFiltersPerPredicateType() {
+    return _numFiltersPerPredicateType;
+  }
+
+  public Map<String, Long> getNumFiltersPerAccessPath() {
+    return _numFiltersPerAccessPath;
+  }
+
+  public long getNumEntriesScanned() {
+    return _numEntriesScanned;
+  }
+
+  /**
+   * Returns the total number of filters on the column.
+   */
+  @JsonIgnore
+  public long getNumFilters() {
+    long numFilters = 0;
+    for (long count : _numFiltersPerPredicateType.values()) {
+      numFilters += count;
+    }
+    return numFilters;
+  }
+
+  /**
+   * Returns the number of filters of the given predicate type.
+   */
+  public long getNumFilters(String predicateType) {
+    return _numFiltersPerPredicateType.getOrDefault(predicateType, 0L);
+  }
+
+  /**
+   * Returns the number of filters solved with the given access path.
+   */
+  public long getNumFiltersWithAccessPath(String accessPath) {
+    return _numFiltersPerAccessPath.getOrDefault(accessPath, 0L);
+  }
+
+  /**
+   * Returns the sum of this and the given stats.
+   */
+  public ColumnFilterStats merge(ColumnFilterStats other) {
+    Map<String, Long> numFiltersPerPredicateType = new HashMap<>(_numFiltersPerPredicateType);
+    other._numFiltersPerPredicateType.forEach((key, value) -> numFiltersPerPredicateType.merge(key, value, Long::sum));
+    Map<String, Long> numFiltersPerAccessPath = new HashMap<>(_numFiltersPerAccessPath);
+    other._numFiltersPerAccessPath.forEach((key, value) -> numFiltersPerAccessPath.merge(key, value, Long::sum));
+    return new ColumnFilterStats(numFiltersPerPredicateType, numFiltersPerAccessPath,
+        _numEntriesScanned + other._numEntriesScanned);
+  }
+}
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.restlet.resources;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Map;
+
+
+/**
+ * Number of queries that processed each segment of a table on a server since {@code startTimeMs}, which is used as the
+ * query heat of the segments by the load-aware segment assignment.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SegmentQueryStats {
+  private final String _tableName;
+  private final long _startTimeMs;
+  private final Map<String, Long> _numQueriesPerSegment;
+
+  public SegmentQueryStats(@JsonProperty("tableName") String tableName, @JsonProperty("startTimeMs") long startTimeMs,
+      @JsonProperty("numQueriesPerSegment") Map<String, Long> numQueriesPerSegment) {
+    _tableName = tableName;
+    _startTimeMs = startTimeMs;
+    _numQueriesPerSegment = numQueriesPerSegment;
+  }
+
+  public String getTableName() {
+    return _tableName;
+  }
+
+  public long getStartTimeMs() {
+    return _startTimeMs;
+  }
+
+  public Map<String, Long> getNumQueriesPerSegment() {
+    return _numQueriesPerSegment;
+  }
+}
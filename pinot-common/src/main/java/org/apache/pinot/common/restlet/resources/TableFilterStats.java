@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.restlet.resources;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Filter statistics of the columns of a table collected by the servers since {@code startTimeMs}, which are used to
+ * tune the indexes of the table based on the query workload.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TableFilterStats {
+  private final String _tableName;
+  private final long _startTimeMs;
+  private final Map<String, ColumnFilterStats> _columnFilterStats;
+
+  public TableFilterStats(@JsonProperty("tableName") String tableName, @JsonProperty("startTimeMs") long startTimeMs,
+      @JsonProperty("columnFilterStats") Map<String, ColumnFilterStats> columnFilterStats) {
+    _tableName = tableName;
+    _startTimeMs = startTimeMs;
+    _columnFilterStats = columnFilterStats;
+  }
+
+  public String getTableName() {
+    return _tableName;
+  }
+
+  public long getStartTimeMs() {
+    return _startTimeMs;
+  }
+
+  public Map<String, ColumnFilterStats> getColumnFilterStats() {
+    return _columnFilterStats;
+  }
+
+  /**
+   * Returns the sum of this and the given stats (e.g. collected from different servers). The start time of the merged
+   * stats is the latest start time, after which all the stats are available.
+   */
+  public TableFilterStats merge(TableFilterStats other) {
+    Map<String, ColumnFilterStats> columnFilterStats = new HashMap<>(_columnFilterStats);
+    other._columnFilterStats
+        .forEach((column, stats) -> columnFilterStats.merge(column, stats, ColumnFilterStats::merge));
+    return new TableFilterStats(_tableName, Math.max(_startTimeMs, other._startTimeMs), columnFilterStats);
+  }
+}
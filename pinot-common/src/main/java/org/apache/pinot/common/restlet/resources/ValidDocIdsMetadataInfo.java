@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.restlet.resources;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+
+/**
+ * Information regarding the valid doc ids of an immutable segment in an upsert enabled table
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ValidDocIdsMetadataInfo {
+  private final String _segmentName;
+  private final String _crc;
+  private final int _totalDocs;
+  private final int _totalValidDocs;
+
+  public ValidDocIdsMetadataInfo(@JsonProperty("segmentName") String segmentName, @JsonProperty("crc") String crc,
+      @JsonProperty("totalDocs") int totalDocs, @JsonProperty("totalValidDocs") int totalValidDocs) {
+    _segmentName = segmentName;
+    _crc = crc;
+    _totalDocs = totalDocs;
+    _totalValidDocs = totalValidDocs;
+  }
+
+  public String getSegmentName() {
+    return _segmentName;
+  }
+
+  public String getCrc() {
+    return _crc;
+  }
+
+  public int getTotalDocs() {
+    return _totalDocs;
+  }
+
+  public int getTotalValidDocs() {
+    return _totalValidDocs;
+  }
+
+  public int getTotalInvalidDocs() {
+    return _totalDocs - _totalValidDocs;
+  }
+}
@@ -28,6 +28,7 @@ import java.io.OutputStream;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveInputStream;
 import org.apache.commons.compress.archivers.ArchiveOutputStream;
@@ -37,6 +38,8 @@ import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang3.StringUtils;
 
 
@@ -141,6 +144,54 @@ public class TarGzCompressionUtils {
     return untarredFiles;
   }
 
+  /**
+   * Un-tars the files with the given file names from a tar.gz input stream into the output directory (the relative
+   * paths inside the tar.gz are preserved), returns the total size of all the files in the tar.gz.
+   * <p>The input stream is fully consumed (so that the whole tar.gz including the gzip trailer is verified) but not
+   * closed. This allows extracting a few files while the tar.gz is being streamed elsewhere (e.g. through a
+   * {@link org.apache.commons.io.input.TeeInputStream}) without storing the untarred files.
+   * <p>For security reason, the untarred files must reside in the output directory.
+   */
+  public static long untarFiles(InputStream inputStream, Set<String> fileNames, File outputDir)
+      throws IOException {
+    String outputDirCanonicalPath = outputDir.getCanonicalPath();
+    long totalSize = 0;
+    try (InputStream bufferedIn = new BufferedInputStream(new CloseShieldInputStream(inputStream));
+        InputStream gzipIn = new GzipCompressorInputStream(bufferedIn);
+        ArchiveInputStream tarGzIn = new TarArchiveInputStream(gzipIn)) {
+      ArchiveEntry entry;
+      while ((entry = tarGzIn.getNextEntry()) != null) {
+        if (entry.isDirectory()) {
+          continue;
+        }
+        totalSize += entry.getSize();
+        String[] parts = StringUtils.split(entry.getName(), ENTRY_NAME_SEPARATOR);
+        if (parts.length == 0 || !fileNames.contains(parts[parts.length - 1])) {
+          continue;
+        }
+        File outputFile = outputDir;
+        for (String part : parts) {
+          outputFile = new File(outputFile, part);
+        }
+        File parentFile = outputFile.getParentFile();
+        if (!parentFile.getCanonicalPath().startsWith(outputDirCanonicalPath)) {
+          throw new IOException(String
+              .format("Trying to create directory: %s outside of the output directory: %s", parentFile, outputDir));
+        }
+        if (!parentFile.isDirectory() && !parentFile.mkdirs()) {
+          throw new IOException(String.format("Failed to create directory: %s", parentFile));
+        }
+        try (OutputStream out = Files.newOutputStream(outputFile.toPath())) {
+          IOUtils.copy(tarGzIn, out);
+        }
+      }
+      // Read through the padding of the tar so that the gzip trailer is verified
+      IOUtils.copyLarge(gzipIn, NullOutputStream.NULL_OUTPUT_STREAM);
+    }
+    IOUtils.copyLarge(inputStream, NullOutputStream.NULL_OUTPUT_STREAM);
+    return totalSize;
+  }
+
   /**
    * Un-tars one single file with the given file name from a tar.gz file.
    */
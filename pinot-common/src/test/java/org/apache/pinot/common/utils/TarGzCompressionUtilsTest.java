@@ -18,17 +18,20 @@
  */
 package org.apache.pinot.common.utils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.util.Collections;
 import java.util.List;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.TeeInputStream;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -106,6 +109,23 @@ public class TarGzCompressionUtilsTest {
     assertEquals(FileUtils.readFileToString(new File(untarredFile, fileName1)), fileContent1);
     assertEquals(FileUtils.readFileToString(new File(untarredFile, fileName2)), fileContent2);
 
+    // Untar one file while copying the tar.gz
+    File untarDir = new File(UNTAR_DIR, "stream");
+    ByteArrayOutputStream copyOut = new ByteArrayOutputStream();
+    try (InputStream in = new TeeInputStream(Files.newInputStream(tarGzFile.toPath()), copyOut)) {
+      long totalSize = TarGzCompressionUtils.untarFiles(in, Collections.singleton(fileName2), untarDir);
+      assertEquals(totalSize, fileContent1.length() + fileContent2.length());
+    }
+    assertEquals(copyOut.toByteArray(), FileUtils.readFileToByteArray(tarGzFile));
+    files = untarDir.listFiles();
+    assertNotNull(files);
+    assertEquals(files.length, 1);
+    assertEquals(files[0], new File(untarDir, dirName));
+    files = files[0].listFiles();
+    assertNotNull(files);
+    assertEquals(files.length, 1);
+    assertEquals(FileUtils.readFileToString(files[0]), fileContent2);
+
     untarredFile = new File(UNTAR_DIR, "untarred");
     TarGzCompressionUtils.untarOneFile(tarGzFile, fileName1, untarredFile);
     assertEquals(FileUtils.readFileToString(untarredFile), fileContent1);
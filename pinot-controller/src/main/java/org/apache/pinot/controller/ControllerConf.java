@@ -110,6 +110,8 @@ public class ControllerConf extends PinotConfiguration {
         "controller.realtime.segment.relocator.frequency";
     public static final String SEGMENT_RELOCATOR_FREQUENCY_IN_SECONDS =
         "controller.segment.relocator.frequencyInSeconds";
+    public static final String SEGMENT_LOAD_STATS_UPDATER_FREQUENCY_IN_SECONDS =
+        "controller.segment.loadStatsUpdater.frequencyInSeconds";
     // Because segment level validation is expensive and requires heavy ZK access, we run segment level validation with a
     // separate interval
     public static final String SEGMENT_LEVEL_VALIDATION_INTERVAL_IN_SECONDS =
@@ -152,6 +154,7 @@ public class ControllerConf extends PinotConfiguration {
 
     private static final int DEFAULT_SEGMENT_LEVEL_VALIDATION_INTERVAL_IN_SECONDS = 24 * 60 * 60;
     private static final int DEFAULT_SEGMENT_RELOCATOR_FREQUENCY_IN_SECONDS = 60 * 60;
+    private static final int DEFAULT_SEGMENT_LOAD_STATS_UPDATER_FREQUENCY_IN_SECONDS = 60 * 60; // 1 Hour.
   }
 
   private static final String SERVER_ADMIN_REQUEST_TIMEOUT_SECONDS = "server.request.timeoutSeconds";
@@ -509,6 +512,16 @@ public class ControllerConf extends PinotConfiguration {
         Integer.toString(taskMetricsEmitterFrequencyInSeconds));
   }
 
+  public int getSegmentLoadStatsUpdaterFrequencyInSeconds() {
+    return getProperty(ControllerPeriodicTasksConf.SEGMENT_LOAD_STATS_UPDATER_FREQUENCY_IN_SECONDS,
+        ControllerPeriodicTasksConf.DEFAULT_SEGMENT_LOAD_STATS_UPDATER_FREQUENCY_IN_SECONDS);
+  }
+
+  public void setSegmentLoadStatsUpdaterFrequencyInSeconds(int segmentLoadStatsUpdaterFrequencyInSeconds) {
+    setProperty(ControllerPeriodicTasksConf.SEGMENT_LOAD_STATS_UPDATER_FREQUENCY_IN_SECONDS,
+        Integer.toString(segmentLoadStatsUpdaterFrequencyInSeconds));
+  }
+
   public int getStatusCheckerWaitForPushTimeInSeconds() {
     return getProperty(ControllerPeriodicTasksConf.STATUS_CHECKER_WAIT_FOR_PUSH_TIME_IN_SECONDS,
         ControllerPeriodicTasksConf.DEFAULT_STATUS_CONTROLLER_WAIT_FOR_PUSH_TIME_IN_SECONDS);
@@ -634,6 +647,11 @@ public class ControllerConf extends PinotConfiguration {
     setProperty(SEGMENT_UPLOAD_TIMEOUT_IN_MILLIS, segmentUploadTimeoutInMillis);
   }
 
+  /**
+   * @deprecated IdealState updates on segment commit are coalesced per table by the {@code IdealStateUpdateCoalescer}
+   *             instead of being serialized with locks, so this config is no longer used.
+   */
+  @Deprecated
   public int getRealtimeSegmentMetadataCommitNumLocks() {
     return getProperty(REALTIME_SEGMENT_METADATA_COMMIT_NUMLOCKS, DEFAULT_REALTIME_SEGMENT_METADATA_COMMIT_NUMLOCKS);
   }
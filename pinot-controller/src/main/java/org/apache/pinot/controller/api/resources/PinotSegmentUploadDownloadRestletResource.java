@@ -20,9 +20,11 @@ package org.apache.pinot.controller.api.resources;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableSet;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -30,9 +32,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.URI;
-import java.nio.file.Files;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Executor;
 import javax.annotation.Nullable;
@@ -57,6 +59,7 @@ import javax.ws.rs.core.StreamingOutput;
 import org.apache.commons.httpclient.HttpConnectionManager;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.TeeInputStream;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.pinot.common.metrics.ControllerMeter;
@@ -64,6 +67,7 @@ import org.apache.pinot.common.metrics.ControllerMetrics;
 import org.apache.pinot.common.restlet.resources.StartReplaceSegmentsRequest;
 import org.apache.pinot.common.utils.FileUploadDownloadClient;
 import org.apache.pinot.common.utils.StringUtil;
+import org.apache.pinot.common.utils.TarGzCompressionUtils;
 import org.apache.pinot.common.utils.URIUtils;
 import org.apache.pinot.common.utils.fetcher.SegmentFetcherFactory;
 import org.apache.pinot.controller.ControllerConf;
@@ -79,6 +83,8 @@ import org.apache.pinot.controller.helix.core.PinotHelixResourceManager;
 import org.apache.pinot.core.metadata.DefaultMetadataExtractor;
 import org.apache.pinot.core.metadata.MetadataExtractorFactory;
 import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
 import org.apache.pinot.spi.config.table.TableType;
 import org.apache.pinot.spi.crypt.PinotCrypter;
 import org.apache.pinot.spi.crypt.PinotCrypterFactory;
@@ -101,6 +107,10 @@ public class PinotSegmentUploadDownloadRestletResource {
   private static final Logger LOGGER = LoggerFactory.getLogger(PinotSegmentUploadDownloadRestletResource.class);
   private static final String TMP_DIR_PREFIX = "tmp-";
   private static final String ENCRYPTED_SUFFIX = "_encrypted";
+  private static final int STREAMING_BUFFER_SIZE = 64 * 1024;
+  // Segment files required to extract the segment metadata (including the CRC)
+  private static final Set<String> SEGMENT_METADATA_FILE_NAMES =
+      ImmutableSet.of(V1Constants.MetadataKeys.METADATA_FILE_NAME, V1Constants.SEGMENT_CREATION_META);
 
   @Inject
   PinotHelixResourceManager _pinotHelixResourceManager;
@@ -149,16 +159,17 @@ public class PinotSegmentUploadDownloadRestletResource {
     segmentName = URIUtils.decode(segmentName);
     URI dataDirURI = ControllerFilePathProvider.getInstance().getDataDirURI();
     Response.ResponseBuilder builder = Response.ok();
-    File segmentFile;
-    // If the segment file is local, just use it as the return entity; otherwise copy it from remote to local first.
+    // If the segment file is local, just use it as the return entity; otherwise stream it from the remote PinotFS.
     if (CommonConstants.Segment.LOCAL_SEGMENT_SCHEME.equals(dataDirURI.getScheme())) {
-      segmentFile = new File(new File(dataDirURI), StringUtil.join(File.separator, tableName, segmentName));
+      File segmentFile = new File(new File(dataDirURI), StringUtil.join(File.separator, tableName, segmentName));
       if (!segmentFile.exists()) {
         throw new ControllerApplicationException(LOGGER,
             "Segment " + segmentName + " or table " + tableName + " not found in " + segmentFile.getAbsolutePath(),
             Response.Status.NOT_FOUND);
       }
       builder.entity(segmentFile);
+      builder.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + segmentFile.getName());
+      builder.header(HttpHeaders.CONTENT_LENGTH, segmentFile.length());
     } else {
       URI remoteSegmentFileURI = URIUtils.getUri(dataDirURI.toString(), tableName, URIUtils.encode(segmentName));
       PinotFS pinotFS = PinotFSFactory.create(dataDirURI.getScheme());
@@ -167,20 +178,16 @@ public class PinotSegmentUploadDownloadRestletResource {
             "Segment: " + segmentName + " of table: " + tableName + " not found at: " + remoteSegmentFileURI,
             Response.Status.NOT_FOUND);
       }
-      segmentFile = new File(new File(ControllerFilePathProvider.getInstance().getFileDownloadTempDir(), tableName),
-          segmentName + "-" + UUID.randomUUID());
-      pinotFS.copyToLocalFile(remoteSegmentFileURI, segmentFile);
-      // Streaming in the tmp file and delete it afterward.
+      // Stream the remote segment directly into the response with a bounded buffer. The blocking writes to the response
+      // provide the backpressure to the remote read, so no local copy of the segment is needed.
       builder.entity((StreamingOutput) output -> {
-        try {
-          Files.copy(segmentFile.toPath(), output);
-        } finally {
-          FileUtils.deleteQuietly(segmentFile);
+        try (InputStream inputStream = pinotFS.open(remoteSegmentFileURI)) {
+          IOUtils.copyLarge(inputStream, output, new byte[STREAMING_BUFFER_SIZE]);
         }
       });
+      builder.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + segmentName);
+      builder.header(HttpHeaders.CONTENT_LENGTH, pinotFS.length(remoteSegmentFileURI));
     }
-    builder.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + segmentFile.getName());
-    builder.header(HttpHeaders.CONTENT_LENGTH, segmentFile.length());
     return builder.build();
   }
 
@@ -211,17 +218,21 @@ public class PinotSegmentUploadDownloadRestletResource {
       boolean uploadedSegmentIsEncrypted = !Strings.isNullOrEmpty(crypterClassNameInHeader);
       FileUploadDownloadClient.FileUploadType uploadType = getUploadType(uploadTypeStr);
       File dstFile = uploadedSegmentIsEncrypted ? tempEncryptedFile : tempDecryptedFile;
+      // For un-encrypted multipart upload, the segment metadata files are untarred while the segment is being written,
+      // so that the whole segment does not need to be untarred onto the controller disk
+      File metadataDir = uploadedSegmentIsEncrypted ? null : tempSegmentDir;
+      long untarredSegmentSizeInBytes = -1;
       switch (uploadType) {
         case URI:
           downloadSegmentFileFromURI(downloadUri, dstFile, tableName);
           break;
         case SEGMENT:
-          createSegmentFileFromMultipart(multiPart, dstFile);
+          untarredSegmentSizeInBytes = createSegmentFileFromMultipart(multiPart, dstFile, metadataDir);
           break;
         case METADATA:
           moveSegmentToFinalLocation = false;
           Preconditions.checkState(downloadUri != null, "Download URI is required in segment metadata upload mode");
-          createSegmentFileFromMultipart(multiPart, dstFile);
+          untarredSegmentSizeInBytes = createSegmentFileFromMultipart(multiPart, dstFile, metadataDir);
           break;
         default:
           throw new UnsupportedOperationException("Unsupported upload type: " + uploadType);
@@ -231,8 +242,14 @@ public class PinotSegmentUploadDownloadRestletResource {
         decryptFile(crypterClassNameInHeader, tempEncryptedFile, tempDecryptedFile);
       }
 
-      String metadataProviderClass = DefaultMetadataExtractor.class.getName();
-      SegmentMetadata segmentMetadata = getSegmentMetadata(tempDecryptedFile, tempSegmentDir, metadataProviderClass);
+      SegmentMetadata segmentMetadata;
+      if (untarredSegmentSizeInBytes >= 0) {
+        segmentMetadata = getSegmentMetadataFromUntarredMetadataFiles(tempSegmentDir);
+      } else {
+        String metadataProviderClass = DefaultMetadataExtractor.class.getName();
+        segmentMetadata = getSegmentMetadata(tempDecryptedFile, tempSegmentDir, metadataProviderClass);
+        untarredSegmentSizeInBytes = FileUtils.sizeOfDirectory(tempSegmentDir);
+      }
 
       // Fetch segment name
       String segmentName = segmentMetadata.getName();
@@ -269,7 +286,7 @@ public class PinotSegmentUploadDownloadRestletResource {
         // Validate segment
         new SegmentValidator(_pinotHelixResourceManager, _controllerConf, _executor, _connectionManager,
             _controllerMetrics, _leadControllerManager.isLeaderForTable(tableNameWithType))
-            .validateOfflineSegment(tableNameWithType, segmentMetadata, tempSegmentDir);
+            .validateOfflineSegment(tableNameWithType, segmentMetadata, untarredSegmentSizeInBytes);
       }
 
       // Encrypt segment
@@ -385,6 +402,16 @@ public class PinotSegmentUploadDownloadRestletResource {
     return MetadataExtractorFactory.create(metadataProviderClass).extractMetadata(tempDecryptedFile, tempSegmentDir);
   }
 
+  private SegmentMetadata getSegmentMetadataFromUntarredMetadataFiles(File tempSegmentDir)
+      throws Exception {
+    File[] indexDirs = tempSegmentDir.listFiles();
+    if (indexDirs == null || indexDirs.length != 1 || !indexDirs[0].isDirectory()) {
+      throw new ControllerApplicationException(LOGGER, "Failed to find segment metadata in the uploaded segment",
+          Response.Status.BAD_REQUEST);
+    }
+    return new SegmentMetadataImpl(indexDirs[0]);
+  }
+
   private void completeZkOperations(boolean enableParallelPushProtection, HttpHeaders headers, File uploadedSegmentFile,
       String tableNameWithType, SegmentMetadata segmentMetadata, String segmentName, String zkDownloadURI,
       boolean moveSegmentToFinalLocation, String crypter)
@@ -538,7 +565,12 @@ public class PinotSegmentUploadDownloadRestletResource {
     }
   }
 
-  private File createSegmentFileFromMultipart(FormDataMultiPart multiPart, File dstFile)
+  /**
+   * Writes the segment from the multipart into the destination file. If the metadata directory is provided, untars the
+   * segment metadata files into it while the segment is being written, and returns the size of the untarred segment;
+   * otherwise returns -1.
+   */
+  private long createSegmentFileFromMultipart(FormDataMultiPart multiPart, File dstFile, @Nullable File metadataDir)
       throws IOException {
     // Read segment file or segment metadata file and directly use that information to update zk
     Map<String, List<FormDataBodyPart>> segmentMetadataMap = multiPart.getFields();
@@ -548,12 +580,17 @@ public class PinotSegmentUploadDownloadRestletResource {
     }
     FormDataBodyPart segmentMetadataBodyPart = segmentMetadataMap.values().iterator().next().get(0);
     try (InputStream inputStream = segmentMetadataBodyPart.getValueAs(InputStream.class);
-        OutputStream outputStream = new FileOutputStream(dstFile)) {
-      IOUtils.copyLarge(inputStream, outputStream);
+        OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(dstFile), STREAMING_BUFFER_SIZE)) {
+      if (metadataDir != null) {
+        return TarGzCompressionUtils
+            .untarFiles(new TeeInputStream(inputStream, outputStream), SEGMENT_METADATA_FILE_NAMES, metadataDir);
+      } else {
+        IOUtils.copyLarge(inputStream, outputStream, new byte[STREAMING_BUFFER_SIZE]);
+        return -1;
+      }
     } finally {
       multiPart.cleanup();
     }
-    return dstFile;
   }
 
   private FileUploadDownloadClient.FileUploadType getUploadType(String uploadTypeStr) {
@@ -66,9 +66,13 @@ import org.apache.pinot.controller.api.exception.TableAlreadyExistsException;
 import org.apache.pinot.controller.helix.core.PinotHelixResourceManager;
 import org.apache.pinot.controller.helix.core.minion.PinotHelixTaskResourceManager;
 import org.apache.pinot.controller.helix.core.rebalance.RebalanceConfigConstants;
+import org.apache.pinot.controller.helix.core.rebalance.RebalanceProgress;
 import org.apache.pinot.controller.helix.core.rebalance.RebalanceResult;
 import org.apache.pinot.controller.recommender.RecommenderDriver;
+import org.apache.pinot.controller.tuner.IndexTuningReport;
 import org.apache.pinot.controller.tuner.TableConfigTunerUtils;
+import org.apache.pinot.controller.tuner.WorkloadIndexTuner;
+import org.apache.pinot.controller.util.TableFilterStatsReader;
 import org.apache.pinot.controller.util.TableIngestionStatusHelper;
 import org.apache.pinot.controller.util.TableMetadataReader;
 import org.apache.pinot.segment.local.utils.TableConfigUtils;
@@ -77,6 +81,7 @@ import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.TableStats;
 import org.apache.pinot.spi.config.table.TableStatus;
 import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.config.table.TunerConfig;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.utils.JsonUtils;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
@@ -494,7 +499,9 @@ public class PinotTableRestletResource {
       @ApiParam(value = "Whether to rebalance table in bootstrap mode (regardless of minimum segment movement, reassign all segments in a round-robin fashion as if adding new segments to an empty table)") @DefaultValue("false") @QueryParam("bootstrap") boolean bootstrap,
       @ApiParam(value = "Whether to allow downtime for the rebalance") @DefaultValue("false") @QueryParam("downtime") boolean downtime,
       @ApiParam(value = "For no-downtime rebalance, minimum number of replicas to keep alive during rebalance, or maximum number of replicas allowed to be unavailable if value is negative") @DefaultValue("1") @QueryParam("minAvailableReplicas") int minAvailableReplicas,
-      @ApiParam(value = "Whether to use best-efforts to rebalance (not fail the rebalance when the no-downtime contract cannot be achieved)") @DefaultValue("false") @QueryParam("bestEfforts") boolean bestEfforts) {
+      @ApiParam(value = "Whether to use best-efforts to rebalance (not fail the rebalance when the no-downtime contract cannot be achieved)") @DefaultValue("false") @QueryParam("bestEfforts") boolean bestEfforts,
+      @ApiParam(value = "For no-downtime rebalance, maximum number of segments moved to a server at the same time (enables throttled mode if positive)") @DefaultValue("-1") @QueryParam("maxConcurrentMovesPerServer") int maxConcurrentMovesPerServer,
+      @ApiParam(value = "For no-downtime rebalance, maximum bytes per second downloaded by a server (enables throttled mode if positive)") @DefaultValue("-1") @QueryParam("maxDownloadBytesPerSecondPerServer") long maxDownloadBytesPerSecondPerServer) {
 
     String tableNameWithType = constructTableNameWithType(tableName, tableTypeStr);
 
@@ -506,6 +513,9 @@ public class PinotTableRestletResource {
     rebalanceConfig.addProperty(RebalanceConfigConstants.DOWNTIME, downtime);
     rebalanceConfig.addProperty(RebalanceConfigConstants.MIN_REPLICAS_TO_KEEP_UP_FOR_NO_DOWNTIME, minAvailableReplicas);
     rebalanceConfig.addProperty(RebalanceConfigConstants.BEST_EFFORTS, bestEfforts);
+    rebalanceConfig.addProperty(RebalanceConfigConstants.MAX_CONCURRENT_MOVES_PER_SERVER, maxConcurrentMovesPerServer);
+    rebalanceConfig.addProperty(RebalanceConfigConstants.MAX_DOWNLOAD_BYTES_PER_SECOND_PER_SERVER,
+        maxDownloadBytesPerSecondPerServer);
 
     try {
       if (dryRun || downtime) {
@@ -527,8 +537,8 @@ public class PinotTableRestletResource {
             }
           });
           return new RebalanceResult(RebalanceResult.Status.IN_PROGRESS,
-              "In progress, check controller logs for updates", dryRunResult.getInstanceAssignment(),
-              dryRunResult.getSegmentAssignment());
+              "In progress, check controller logs or the rebalance status for updates",
+              dryRunResult.getInstanceAssignment(), dryRunResult.getSegmentAssignment());
         } else {
           // If dry-run failed or is no-op, return the dry-run result
           return dryRunResult;
@@ -539,6 +549,23 @@ public class PinotTableRestletResource {
     }
   }
 
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("/tables/{tableName}/rebalanceStatus")
+  @ApiOperation(value = "Get the progress of the ongoing or the last no-downtime rebalance of a table", notes = "Returns the segment moves, bytes moved and estimated remaining time of the rebalance started on this controller")
+  public RebalanceProgress getRebalanceStatus(
+      @ApiParam(value = "Name of the table", required = true) @PathParam("tableName") String tableName,
+      @ApiParam(value = "OFFLINE|REALTIME", required = true) @QueryParam("type") String tableTypeStr) {
+    String tableNameWithType = constructTableNameWithType(tableName, tableTypeStr);
+    RebalanceProgress rebalanceProgress = _pinotHelixResourceManager.getRebalanceProgress(tableNameWithType);
+    if (rebalanceProgress == null) {
+      throw new ControllerApplicationException(LOGGER,
+          "Failed to find rebalance started on this controller for table: " + tableNameWithType,
+          Response.Status.NOT_FOUND);
+    }
+    return rebalanceProgress;
+  }
+
   @GET
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/tables/{tableName}/state")
@@ -677,6 +704,87 @@ public class PinotTableRestletResource {
     return segmentsMetadata;
   }
 
+  @GET
+  @Path("/tables/{tableName}/indexTuning")
+  @Produces(MediaType.APPLICATION_JSON)
+  @ApiOperation(value = "Recommend index changes based on the query workload", notes = "Recommend index changes based on the filter stats collected by the servers")
+  public IndexTuningReport getIndexTuningReport(
+      @ApiParam(value = "Name of the table", required = true) @PathParam("tableName") String tableName,
+      @ApiParam(value = "realtime|offline", required = true) @QueryParam("type") String tableTypeStr) {
+    String tableNameWithType = constructTableNameWithType(tableName, tableTypeStr);
+    TableConfig tableConfig = getTableConfigForIndexTuning(tableNameWithType);
+    return getIndexTuner(tableConfig).recommend(tableConfig);
+  }
+
+  @POST
+  @Path("/tables/{tableName}/indexTuning")
+  @Authenticate(AccessType.UPDATE)
+  @Produces(MediaType.APPLICATION_JSON)
+  @ApiOperation(value = "Apply the index changes recommended based on the query workload", notes = "Apply the index changes recommended based on the filter stats collected by the servers (only returns the recommendations unless dryRun is set to false), and optionally reload the segments to apply the changes to the existing segments")
+  public IndexTuningReport applyIndexTuning(
+      @ApiParam(value = "Name of the table", required = true) @PathParam("tableName") String tableName,
+      @ApiParam(value = "realtime|offline", required = true) @QueryParam("type") String tableTypeStr,
+      @ApiParam(value = "Whether to only return the recommendations without applying them") @DefaultValue("true") @QueryParam("dryRun") boolean dryRun,
+      @ApiParam(value = "Whether to reload all the segments after applying the changes") @DefaultValue("false") @QueryParam("reload") boolean reload) {
+    String tableNameWithType = constructTableNameWithType(tableName, tableTypeStr);
+    TableConfig tableConfig = getTableConfigForIndexTuning(tableNameWithType);
+    IndexTuningReport report = getIndexTuner(tableConfig).recommend(tableConfig);
+    if (dryRun || report.getRecommendations().isEmpty()) {
+      return report;
+    }
+    WorkloadIndexTuner.applyRecommendations(tableConfig, report);
+    try {
+      _pinotHelixResourceManager.updateTableConfig(tableConfig);
+    } catch (Exception e) {
+      throw new ControllerApplicationException(LOGGER,
+          String.format("Failed to update table config for table %s. %s", tableNameWithType, e.getMessage()),
+          Response.Status.INTERNAL_SERVER_ERROR, e);
+    }
+    LOGGER.info("Applied {} index changes to table: {}", report.getRecommendations().size(), tableNameWithType);
+    if (reload) {
+      int numReloadMessagesSent = _pinotHelixResourceManager.reloadAllSegments(tableNameWithType);
+      LOGGER.info("Sent {} reload messages for table: {}", numReloadMessagesSent, tableNameWithType);
+    }
+    return report;
+  }
+
+  private TableConfig getTableConfigForIndexTuning(String tableNameWithType) {
+    TableConfig tableConfig = _pinotHelixResourceManager.getTableConfig(tableNameWithType);
+    if (tableConfig == null) {
+      throw new ControllerApplicationException(LOGGER, "Failed to find table: " + tableNameWithType,
+          Response.Status.NOT_FOUND);
+    }
+    return tableConfig;
+  }
+
+  /**
+   * Returns a {@link WorkloadIndexTuner} initialized with the filter stats of the table collected from the servers. The
+   * tuner properties are read from the table config if the table is configured with the workload index tuner.
+   */
+  private WorkloadIndexTuner getIndexTuner(TableConfig tableConfig) {
+    String tableNameWithType = tableConfig.getTableName();
+    Schema schema = _pinotHelixResourceManager.getSchemaForTableConfig(tableConfig);
+    if (schema == null) {
+      throw new ControllerApplicationException(LOGGER, "Failed to find schema for table: " + tableNameWithType,
+          Response.Status.NOT_FOUND);
+    }
+    TunerConfig tunerConfig = tableConfig.getTunerConfig();
+    if (tunerConfig == null || !WorkloadIndexTuner.TUNER_NAME.equals(tunerConfig.getName())) {
+      tunerConfig = new TunerConfig(WorkloadIndexTuner.TUNER_NAME, null);
+    }
+    WorkloadIndexTuner tuner = new WorkloadIndexTuner();
+    tuner.init(_pinotHelixResourceManager, tunerConfig, schema);
+    try {
+      TableFilterStatsReader tableFilterStatsReader =
+          new TableFilterStatsReader(_executor, _connectionManager, _pinotHelixResourceManager);
+      tuner.setTableFilterStats(tableFilterStatsReader
+          .getTableFilterStats(tableNameWithType, _controllerConf.getServerAdminRequestTimeoutSeconds() * 1000));
+    } catch (InvalidConfigException e) {
+      throw new ControllerApplicationException(LOGGER, e.getMessage(), Response.Status.BAD_REQUEST);
+    }
+    return tuner;
+  }
+
   private List<String> getExistingTableNamesWithType(String tableName, @Nullable TableType tableType) {
     try {
       return _pinotHelixResourceManager.getExistingTableNamesWithType(tableName, tableType);
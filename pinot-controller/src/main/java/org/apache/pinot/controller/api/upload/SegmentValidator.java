@@ -18,11 +18,9 @@
  */
 package org.apache.pinot.controller.api.upload;
 
-import java.io.File;
 import java.util.concurrent.Executor;
 import javax.ws.rs.core.Response;
 import org.apache.commons.httpclient.HttpConnectionManager;
-import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.exception.InvalidConfigException;
 import org.apache.pinot.common.metadata.ZKMetadataProvider;
 import org.apache.pinot.common.metrics.ControllerMetrics;
@@ -63,7 +61,8 @@ public class SegmentValidator {
     _isLeaderForTable = isLeaderForTable;
   }
 
-  public void validateOfflineSegment(String offlineTableName, SegmentMetadata segmentMetadata, File tempSegmentDir) {
+  public void validateOfflineSegment(String offlineTableName, SegmentMetadata segmentMetadata,
+      long untarredSegmentSizeInBytes) {
     TableConfig offlineTableConfig =
         ZKMetadataProvider.getOfflineTableConfig(_pinotHelixResourceManager.getPropertyStore(), offlineTableName);
     if (offlineTableConfig == null) {
@@ -74,7 +73,7 @@ public class SegmentValidator {
     String segmentName = segmentMetadata.getName();
     StorageQuotaChecker.QuotaCheckerResponse quotaResponse;
     try {
-      quotaResponse = checkStorageQuota(tempSegmentDir, segmentMetadata, offlineTableConfig);
+      quotaResponse = checkStorageQuota(untarredSegmentSizeInBytes, segmentMetadata, offlineTableConfig);
     } catch (InvalidConfigException e) {
       // Admin port is missing, return response with 500 status code.
       throw new ControllerApplicationException(LOGGER,
@@ -99,14 +98,13 @@ public class SegmentValidator {
   }
 
   /**
-   * check if the segment represented by segmentFile is within the storage quota
-   * @param segmentFile untarred segment. This should not be null.
-   *                    segmentFile must exist on disk and must be a directory
+   * check if the segment is within the storage quota
+   * @param untarredSegmentSizeInBytes size of the untarred segment
    * @param metadata segment metadata. This should not be null.
    * @param offlineTableConfig offline table configuration. This should not be null.
    */
-  private StorageQuotaChecker.QuotaCheckerResponse checkStorageQuota(File segmentFile, SegmentMetadata metadata,
-      TableConfig offlineTableConfig)
+  private StorageQuotaChecker.QuotaCheckerResponse checkStorageQuota(long untarredSegmentSizeInBytes,
+      SegmentMetadata metadata, TableConfig offlineTableConfig)
       throws InvalidConfigException {
     if (!_controllerConf.getEnableStorageQuotaCheck()) {
       return StorageQuotaChecker.success("Quota check is disabled");
@@ -115,7 +113,7 @@ public class SegmentValidator {
         new TableSizeReader(_executor, _connectionManager, _controllerMetrics, _pinotHelixResourceManager);
     StorageQuotaChecker quotaChecker =
         new StorageQuotaChecker(offlineTableConfig, tableSizeReader, _controllerMetrics, _isLeaderForTable);
-    return quotaChecker.isSegmentStorageWithinQuota(metadata.getName(), FileUtils.sizeOfDirectory(segmentFile),
+    return quotaChecker.isSegmentStorageWithinQuota(metadata.getName(), untarredSegmentSizeInBytes,
         _controllerConf.getServerAdminRequestTimeoutSeconds() * 1000);
   }
 }
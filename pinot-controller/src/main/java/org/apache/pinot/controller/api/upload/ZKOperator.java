@@ -19,10 +19,12 @@
 package org.apache.pinot.controller.api.upload;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import org.apache.helix.ZNRecord;
+import org.apache.pinot.common.metadata.segment.LLCRealtimeSegmentZKMetadata;
 import org.apache.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
 import org.apache.pinot.common.metadata.segment.SegmentZKMetadataCustomMapModifier;
 import org.apache.pinot.common.metrics.ControllerMeter;
@@ -34,6 +36,7 @@ import org.apache.pinot.controller.helix.core.PinotHelixResourceManager;
 import org.apache.pinot.segment.spi.SegmentMetadata;
 import org.apache.pinot.spi.filesystem.PinotFS;
 import org.apache.pinot.spi.filesystem.PinotFSFactory;
+import org.apache.pinot.spi.utils.CommonConstants;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,12 +73,13 @@ public class ZKOperator {
       return;
     }
 
-    // TODO Allow segment refreshing for realtime tables.
+    // NOTE: Segment upload to realtime table is only allowed for upsert enabled tables
     if (TableNameBuilder.isRealtimeTableResource(tableNameWithType)) {
-      throw new ControllerApplicationException(LOGGER,
-          "Refresh existing segment " + segmentName + " for realtime table " + tableNameWithType + " is not yet supported ",
-          Response.Status.NOT_IMPLEMENTED
-      );
+      LOGGER.info("Segment {} from table {} already exists, refreshing if necessary", segmentName, tableNameWithType);
+      processExistingRealtimeSegment(segmentMetadata, finalSegmentLocationURI, currentSegmentLocation, headers,
+          zkDownloadURI, crypter, tableNameWithType, segmentName, segmentMetadataZnRecord,
+          moveSegmentToFinalLocation);
+      return;
     }
 
     LOGGER.info("Segment {} from table {} already exists, refreshing if necessary", segmentName, tableNameWithType);
@@ -131,17 +135,8 @@ public class ZKOperator {
 
     try {
       // Modify the custom map in segment ZK metadata
-      String segmentZKMetadataCustomMapModifierStr =
-          headers.getHeaderString(FileUploadDownloadClient.CustomHeaders.SEGMENT_ZK_METADATA_CUSTOM_MAP_MODIFIER);
-      SegmentZKMetadataCustomMapModifier segmentZKMetadataCustomMapModifier;
-      if (segmentZKMetadataCustomMapModifierStr != null) {
-        segmentZKMetadataCustomMapModifier =
-            new SegmentZKMetadataCustomMapModifier(segmentZKMetadataCustomMapModifierStr);
-      } else {
-        // By default, use REPLACE modify mode
-        segmentZKMetadataCustomMapModifier =
-            new SegmentZKMetadataCustomMapModifier(SegmentZKMetadataCustomMapModifier.ModifyMode.REPLACE, null);
-      }
+      SegmentZKMetadataCustomMapModifier segmentZKMetadataCustomMapModifier =
+          getSegmentZKMetadataCustomMapModifier(headers);
       existingSegmentZKMetadata
           .setCustomMap(segmentZKMetadataCustomMapModifier.modifyMap(existingSegmentZKMetadata.getCustomMap()));
 
@@ -184,6 +179,69 @@ public class ZKOperator {
     }
   }
 
+  /**
+   * Refreshes an existing committed segment of an upsert enabled realtime table. The upsert metadata is kept consistent
+   * by the servers when replacing the segment with the same name.
+   */
+  private void processExistingRealtimeSegment(SegmentMetadata segmentMetadata, URI finalSegmentLocationURI,
+      File currentSegmentLocation, HttpHeaders headers, String zkDownloadURI, String crypter,
+      String tableNameWithType, String segmentName, ZNRecord znRecord, boolean moveSegmentToFinalLocation)
+      throws Exception {
+    LLCRealtimeSegmentZKMetadata existingSegmentZKMetadata = new LLCRealtimeSegmentZKMetadata(znRecord);
+    if (existingSegmentZKMetadata.getStatus() == CommonConstants.Segment.Realtime.Status.IN_PROGRESS) {
+      throw new ControllerApplicationException(LOGGER,
+          "Cannot refresh consuming segment: " + segmentName + " of table: " + tableNameWithType,
+          Response.Status.BAD_REQUEST);
+    }
+    long existingCrc = existingSegmentZKMetadata.getCrc();
+
+    // Check if CRC match when IF-MATCH header is set
+    checkCRC(headers, tableNameWithType, segmentName, existingCrc);
+
+    // Modify the custom map in segment ZK metadata
+    existingSegmentZKMetadata.setCustomMap(
+        getSegmentZKMetadataCustomMapModifier(headers).modifyMap(existingSegmentZKMetadata.getCustomMap()));
+
+    long newCrc = Long.parseLong(segmentMetadata.getCrc());
+    if (newCrc == existingCrc) {
+      LOGGER.info("New segment crc '{}' is the same as existing segment crc for segment '{}'. Updating ZK metadata "
+          + "without refreshing the segment.", newCrc, segmentName);
+      if (!_pinotHelixResourceManager
+          .updateZkMetadata(tableNameWithType, existingSegmentZKMetadata, znRecord.getVersion())) {
+        throw new ControllerApplicationException(LOGGER,
+            "Failed to update ZK metadata for segment: " + segmentName + " of table: " + tableNameWithType
+                + ", retry later", Response.Status.CONFLICT);
+      }
+      return;
+    }
+
+    LOGGER.info("New segment crc {} is different than the existing segment crc {}. Updating ZK metadata and "
+        + "refreshing segment {}", newCrc, existingCrc, segmentName);
+    if (moveSegmentToFinalLocation) {
+      moveSegmentToPermanentDirectory(currentSegmentLocation, finalSegmentLocationURI);
+      LOGGER.info("Moved segment {} from temp location {} to {}", segmentName, currentSegmentLocation.getAbsolutePath(),
+          finalSegmentLocationURI.getPath());
+    } else {
+      LOGGER.info("Skipping segment move, keeping segment {} from table {} at {}", segmentName, tableNameWithType,
+          zkDownloadURI);
+    }
+    _pinotHelixResourceManager
+        .refreshRealtimeSegment(tableNameWithType, segmentMetadata, existingSegmentZKMetadata, zkDownloadURI, crypter,
+            znRecord.getVersion());
+  }
+
+  private static SegmentZKMetadataCustomMapModifier getSegmentZKMetadataCustomMapModifier(HttpHeaders headers)
+      throws IOException {
+    String segmentZKMetadataCustomMapModifierStr =
+        headers.getHeaderString(FileUploadDownloadClient.CustomHeaders.SEGMENT_ZK_METADATA_CUSTOM_MAP_MODIFIER);
+    if (segmentZKMetadataCustomMapModifierStr != null) {
+      return new SegmentZKMetadataCustomMapModifier(segmentZKMetadataCustomMapModifierStr);
+    } else {
+      // By default, use REPLACE modify mode
+      return new SegmentZKMetadataCustomMapModifier(SegmentZKMetadataCustomMapModifier.ModifyMode.REPLACE, null);
+    }
+  }
+
   private void checkCRC(HttpHeaders headers, String offlineTableName, String segmentName, long existingCrc) {
     String expectedCrcStr = headers.getHeaderString(HttpHeaders.IF_MATCH);
     if (expectedCrcStr != null) {
@@ -0,0 +1,305 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.helix.core;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
+import org.apache.helix.HelixManager;
+import org.apache.helix.model.IdealState;
+import org.apache.pinot.common.metrics.ControllerMeter;
+import org.apache.pinot.common.metrics.ControllerMetrics;
+import org.apache.pinot.common.metrics.ControllerTimer;
+import org.apache.pinot.common.utils.helix.HelixHelper;
+import org.apache.pinot.spi.utils.retry.RetryPolicies;
+import org.apache.pinot.spi.utils.retry.RetryPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code IdealStateUpdateCoalescer} batches the concurrent IdealState updates of a table into a single
+ * read-modify-write round, instead of having each update read, modify and compare-and-set the whole IdealState ZNode
+ * on its own and retry on conflicts.
+ * <p>Updates are queued per table. The thread that acquires the table lock drains up to {@code maxBatchSize} pending
+ * updates with the same retry policy, applies all of them in order on one copy of the IdealState and writes it back
+ * with a single versioned set (retried with the retry policy on version conflicts). The threads whose updates are
+ * already applied by another thread return without touching ZK.
+ * <p>Same as {@link HelixHelper#updateIdealState(HelixManager, String, Function, RetryPolicy, boolean)}, an updater
+ * throwing {@link HelixHelper.PermanentUpdaterException} is failed right away, while other exceptions are retried on a
+ * fresh copy of the IdealState. Only the update whose updater failed is failed, and the round is re-run with the
+ * remaining updates on a fresh copy of the IdealState so that partial changes from the failed updater are never
+ * written.
+ */
+public class IdealStateUpdateCoalescer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(IdealStateUpdateCoalescer.class);
+
+  public static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+  private static final RetryPolicy DEFAULT_RETRY_POLICY = RetryPolicies.randomDelayRetryPolicy(20, 100L, 200L);
+
+  private final HelixManager _helixManager;
+  private final ControllerMetrics _controllerMetrics;
+  private final int _maxBatchSize;
+  private final RetryPolicy _defaultRetryPolicy;
+  private final ConcurrentHashMap<String, TableUpdateQueue> _tableUpdateQueueMap = new ConcurrentHashMap<>();
+
+  public IdealStateUpdateCoalescer(HelixManager helixManager, ControllerMetrics controllerMetrics) {
+    this(helixManager, controllerMetrics, DEFAULT_MAX_BATCH_SIZE, DEFAULT_RETRY_POLICY);
+  }
+
+  public IdealStateUpdateCoalescer(HelixManager helixManager, ControllerMetrics controllerMetrics, int maxBatchSize,
+      RetryPolicy defaultRetryPolicy) {
+    Preconditions.checkArgument(maxBatchSize > 0, "Max batch size must be positive, got: %s", maxBatchSize);
+    _helixManager = helixManager;
+    _controllerMetrics = controllerMetrics;
+    _maxBatchSize = maxBatchSize;
+    _defaultRetryPolicy = defaultRetryPolicy;
+  }
+
+  /**
+   * Updates the IdealState of the given table with the default retry policy, and blocks until the update is written to
+   * ZK (or skipped because it did not change the IdealState). The calling thread might apply the updates queued by
+   * other threads in the same round.
+   *
+   * @throws RuntimeException If the update failed
+   */
+  public void updateIdealState(String tableNameWithType, Function<IdealState, IdealState> updater) {
+    updateIdealState(tableNameWithType, updater, _defaultRetryPolicy);
+  }
+
+  /**
+   * Updates the IdealState of the given table, and blocks until the update is written to ZK (or skipped because it did
+   * not change the IdealState). The update is only coalesced with the updates using the same retry policy instance, so
+   * callers should share the retry policy instance across their updates.
+   *
+   * @throws RuntimeException If the update failed
+   */
+  public void updateIdealState(String tableNameWithType, Function<IdealState, IdealState> updater,
+      RetryPolicy retryPolicy) {
+    TableUpdateQueue tableUpdateQueue = getTableUpdateQueue(tableNameWithType);
+    PendingUpdate pendingUpdate = tableUpdateQueue.enqueue(updater, retryPolicy);
+    processUntilDone(tableUpdateQueue, pendingUpdate);
+    try {
+      pendingUpdate._future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new RuntimeException("Caught exception while updating ideal state for resource: " + tableNameWithType,
+          cause);
+    }
+  }
+
+  /**
+   * Removes the update queue for the given table (e.g. after the table is deleted). Updates already queued are still
+   * applied by the threads waiting on them.
+   */
+  public void removeTable(String tableNameWithType) {
+    _tableUpdateQueueMap.remove(tableNameWithType);
+  }
+
+  @VisibleForTesting
+  int getNumPendingUpdates(String tableNameWithType) {
+    TableUpdateQueue tableUpdateQueue = _tableUpdateQueueMap.get(tableNameWithType);
+    return tableUpdateQueue != null ? tableUpdateQueue._pendingUpdates.size() : 0;
+  }
+
+  private TableUpdateQueue getTableUpdateQueue(String tableNameWithType) {
+    return _tableUpdateQueueMap.computeIfAbsent(tableNameWithType, TableUpdateQueue::new);
+  }
+
+  private void processUntilDone(TableUpdateQueue tableUpdateQueue, PendingUpdate pendingUpdate) {
+    while (!pendingUpdate._future.isDone()) {
+      tableUpdateQueue._lock.lock();
+      try {
+        if (!pendingUpdate._future.isDone()) {
+          processBatch(tableUpdateQueue);
+        }
+      } finally {
+        tableUpdateQueue._lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Drains up to {@code maxBatchSize} pending updates with the same retry policy as the first pending update, and
+   * applies them in a single read-modify-write round. Must be called while holding the table lock.
+   */
+  private void processBatch(TableUpdateQueue tableUpdateQueue) {
+    String tableNameWithType = tableUpdateQueue._tableNameWithType;
+    Queue<PendingUpdate> pendingUpdates = tableUpdateQueue._pendingUpdates;
+    PendingUpdate firstUpdate = pendingUpdates.poll();
+    if (firstUpdate == null) {
+      return;
+    }
+    RetryPolicy retryPolicy = firstUpdate._retryPolicy;
+    List<PendingUpdate> batch = new ArrayList<>();
+    batch.add(firstUpdate);
+    // NOTE: Only the thread holding the table lock polls from the queue, so the peeked update can be safely polled
+    PendingUpdate pendingUpdate;
+    while (batch.size() < _maxBatchSize && (pendingUpdate = pendingUpdates.peek()) != null
+        && pendingUpdate._retryPolicy == retryPolicy) {
+      batch.add(pendingUpdates.poll());
+    }
+
+    long startTimeMs = System.currentTimeMillis();
+    int numUpdates = batch.size();
+    int numRounds = 0;
+    while (!batch.isEmpty()) {
+      numRounds++;
+      BatchUpdater batchUpdater = new BatchUpdater(batch);
+      try {
+        HelixHelper.updateIdealState(_helixManager, tableNameWithType, batchUpdater, retryPolicy, true);
+        for (PendingUpdate update : batch) {
+          completeUpdate(tableNameWithType, update, null);
+        }
+        break;
+      } catch (Exception e) {
+        PendingUpdate rejectedUpdate = batchUpdater._rejectedUpdate;
+        Exception rejectionCause = batchUpdater._rejectionCause;
+        if (rejectedUpdate == null) {
+          // The updater kept failing until running out of retries
+          rejectedUpdate = batchUpdater._failedUpdate;
+          rejectionCause = batchUpdater._failureCause;
+        }
+        if (rejectedUpdate != null) {
+          // Drop the rejected update and re-run the round with the remaining updates
+          batch.remove(rejectedUpdate);
+          if (rejectionCause != null) {
+            _controllerMetrics.addMeteredTableValue(tableNameWithType, ControllerMeter.IDEAL_STATE_UPDATE_FAILURES,
+                1L);
+          }
+          completeUpdate(tableNameWithType, rejectedUpdate, rejectionCause);
+          continue;
+        }
+        LOGGER.error("Failed to apply {} ideal state updates for table: {}", batch.size(), tableNameWithType, e);
+        _controllerMetrics.addMeteredTableValue(tableNameWithType, ControllerMeter.IDEAL_STATE_UPDATE_FAILURES,
+            batch.size());
+        for (PendingUpdate update : batch) {
+          completeUpdate(tableNameWithType, update, e);
+        }
+        break;
+      }
+    }
+
+    long timeMs = System.currentTimeMillis() - startTimeMs;
+    _controllerMetrics.addMeteredTableValue(tableNameWithType, ControllerMeter.IDEAL_STATE_UPDATE_BATCHES, 1L);
+    _controllerMetrics.addMeteredTableValue(tableNameWithType, ControllerMeter.IDEAL_STATE_UPDATES, numUpdates);
+    _controllerMetrics.addTimedTableValue(tableNameWithType, ControllerTimer.IDEAL_STATE_UPDATE_BATCH_TIME_MS, timeMs,
+        TimeUnit.MILLISECONDS);
+    if (numUpdates > 1 || numRounds > 1) {
+      LOGGER.info("Applied {} coalesced ideal state updates for table: {} in {} round(s), took {}ms", numUpdates,
+          tableNameWithType, numRounds, timeMs);
+    }
+  }
+
+  private void completeUpdate(String tableNameWithType, PendingUpdate pendingUpdate, @Nullable Throwable t) {
+    _controllerMetrics.addTimedTableValue(tableNameWithType, ControllerTimer.IDEAL_STATE_UPDATE_LATENCY_MS,
+        System.currentTimeMillis() - pendingUpdate._enqueueTimeMs, TimeUnit.MILLISECONDS);
+    if (t == null) {
+      pendingUpdate._future.complete(null);
+    } else {
+      pendingUpdate._future.completeExceptionally(t);
+    }
+  }
+
+  private static class TableUpdateQueue {
+    final String _tableNameWithType;
+    final Queue<PendingUpdate> _pendingUpdates = new ConcurrentLinkedQueue<>();
+    final ReentrantLock _lock = new ReentrantLock();
+
+    TableUpdateQueue(String tableNameWithType) {
+      _tableNameWithType = tableNameWithType;
+    }
+
+    PendingUpdate enqueue(Function<IdealState, IdealState> updater, RetryPolicy retryPolicy) {
+      PendingUpdate pendingUpdate = new PendingUpdate(updater, retryPolicy);
+      _pendingUpdates.add(pendingUpdate);
+      return pendingUpdate;
+    }
+  }
+
+  private static class PendingUpdate {
+    final Function<IdealState, IdealState> _updater;
+    final RetryPolicy _retryPolicy;
+    final CompletableFuture<Void> _future = new CompletableFuture<>();
+    final long _enqueueTimeMs = System.currentTimeMillis();
+
+    PendingUpdate(Function<IdealState, IdealState> updater, RetryPolicy retryPolicy) {
+      _updater = updater;
+      _retryPolicy = retryPolicy;
+    }
+  }
+
+  /**
+   * Applies all the updates in the batch in order on the same copy of the IdealState. If an updater throws
+   * {@link HelixHelper.PermanentUpdaterException} or returns {@code null}, aborts the round without writing anything
+   * and records the rejected update. If an updater throws other exceptions, records the failed update and rethrows the
+   * exception so that the round is retried on a fresh copy of the IdealState.
+   */
+  private static class BatchUpdater implements Function<IdealState, IdealState> {
+    final List<PendingUpdate> _batch;
+    PendingUpdate _rejectedUpdate;
+    Exception _rejectionCause;
+    // Update failed in the last attempt
+    PendingUpdate _failedUpdate;
+    Exception _failureCause;
+
+    BatchUpdater(List<PendingUpdate> batch) {
+      _batch = batch;
+    }
+
+    @Override
+    public IdealState apply(IdealState idealState) {
+      _failedUpdate = null;
+      _failureCause = null;
+      for (PendingUpdate pendingUpdate : _batch) {
+        IdealState updatedIdealState;
+        try {
+          updatedIdealState = pendingUpdate._updater.apply(idealState);
+        } catch (HelixHelper.PermanentUpdaterException e) {
+          _rejectedUpdate = pendingUpdate;
+          _rejectionCause = e;
+          throw e;
+        } catch (RuntimeException e) {
+          _failedUpdate = pendingUpdate;
+          _failureCause = e;
+          throw e;
+        }
+        if (updatedIdealState == null) {
+          _rejectedUpdate = pendingUpdate;
+          throw new HelixHelper.PermanentUpdaterException("Skipping null ideal state update");
+        }
+        idealState = updatedIdealState;
+      }
+      return idealState;
+    }
+  }
+}
@@ -41,6 +41,7 @@ import java.util.Set;
 import java.util.TimeZone;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -72,6 +73,7 @@ import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.pinot.common.assignment.InstanceAssignmentConfigUtils;
 import org.apache.pinot.common.assignment.InstancePartitions;
 import org.apache.pinot.common.assignment.InstancePartitionsUtils;
+import org.apache.pinot.common.assignment.SegmentLoadStats;
 import org.apache.pinot.common.exception.InvalidConfigException;
 import org.apache.pinot.common.exception.SchemaBackwardIncompatibleException;
 import org.apache.pinot.common.exception.SchemaNotFoundException;
@@ -90,6 +92,8 @@ import org.apache.pinot.common.metadata.instance.InstanceZKMetadata;
 import org.apache.pinot.common.metadata.segment.LLCRealtimeSegmentZKMetadata;
 import org.apache.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
 import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import org.apache.pinot.common.metrics.ControllerMetrics;
+import org.apache.pinot.common.metrics.PinotMetricUtils;
 import org.apache.pinot.common.utils.HashUtil;
 import org.apache.pinot.common.utils.SchemaUtils;
 import org.apache.pinot.common.utils.config.InstanceUtils;
@@ -108,6 +112,8 @@ import org.apache.pinot.controller.helix.core.assignment.segment.SegmentAssignme
 import org.apache.pinot.controller.helix.core.assignment.segment.SegmentAssignmentFactory;
 import org.apache.pinot.controller.helix.core.assignment.segment.SegmentAssignmentUtils;
 import org.apache.pinot.controller.helix.core.realtime.PinotLLCRealtimeSegmentManager;
+import org.apache.pinot.controller.helix.core.rebalance.RebalanceConfigConstants;
+import org.apache.pinot.controller.helix.core.rebalance.RebalanceProgress;
 import org.apache.pinot.controller.helix.core.rebalance.RebalanceResult;
 import org.apache.pinot.controller.helix.core.rebalance.TableRebalancer;
 import org.apache.pinot.controller.helix.core.util.ZKMetadataUtils;
@@ -146,7 +152,6 @@ public class PinotHelixResourceManager {
   private static final long CACHE_ENTRY_EXPIRE_TIME_HOURS = 6L;
   private static final RetryPolicy DEFAULT_RETRY_POLICY = RetryPolicies.exponentialBackoffRetryPolicy(5, 1000L, 2.0f);
   public static final String APPEND = "APPEND";
-  private static final int DEFAULT_TABLE_UPDATER_LOCKERS_SIZE = 100;
 
   // TODO: make this configurable
   public static final long EXTERNAL_VIEW_ONLINE_SEGMENTS_MAX_WAIT_MS = 10 * 60_000L; // 10 minutes
@@ -156,9 +161,8 @@ public class PinotHelixResourceManager {
 
   private final Map<String, Map<String, Long>> _segmentCrcMap = new HashMap<>();
   private final Map<String, Map<String, Integer>> _lastKnownSegmentMetadataVersionMap = new HashMap<>();
-  private final Object[] _tableUpdaterLocks;
-
   private final LoadingCache<String, String> _instanceAdminEndpointCache;
+  private final Map<String, RebalanceProgress> _rebalanceProgressMap = new ConcurrentHashMap<>();
 
   private final String _helixZkURL;
   private final String _helixClusterName;
@@ -173,6 +177,7 @@ public class PinotHelixResourceManager {
   private HelixDataAccessor _helixDataAccessor;
   private Builder _keyBuilder;
   private SegmentDeletionManager _segmentDeletionManager;
+  private IdealStateUpdateCoalescer _idealStateUpdateCoalescer;
   private PinotLLCRealtimeSegmentManager _pinotLLCRealtimeSegmentManager;
   private TableCache _tableCache;
 
@@ -215,10 +220,6 @@ public class PinotHelixResourceManager {
                 return String.format("%s://%s:%d", protocol, hostname, port);
               }
             });
-    _tableUpdaterLocks = new Object[DEFAULT_TABLE_UPDATER_LOCKERS_SIZE];
-    for (int i = 0; i < _tableUpdaterLocks.length; i++) {
-      _tableUpdaterLocks[i] = new Object();
-    }
     SIMPLE_DATE_FORMAT.setTimeZone(TimeZone.getTimeZone("UTC"));
   }
 
@@ -235,12 +236,21 @@ public class PinotHelixResourceManager {
    * which would be put to lead controller resource and mess up the leadership assignment. Those places should use SPECTATOR other than PARTICIPANT.
    */
   public synchronized void start(HelixManager helixZkManager) {
+    start(helixZkManager, new ControllerMetrics(PinotMetricUtils.getPinotMetricsRegistry()));
+  }
+
+  /**
+   * Starts a Pinot controller instance, and emits the controller metrics (e.g. for the IdealState updates) to the
+   * given {@link ControllerMetrics}.
+   */
+  public synchronized void start(HelixManager helixZkManager, ControllerMetrics controllerMetrics) {
     _helixZkManager = helixZkManager;
     _helixAdmin = _helixZkManager.getClusterManagmentTool();
     _propertyStore = _helixZkManager.getHelixPropertyStore();
     _helixDataAccessor = _helixZkManager.getHelixDataAccessor();
     _keyBuilder = _helixDataAccessor.keyBuilder();
     _segmentDeletionManager = new SegmentDeletionManager(_dataDir, _helixAdmin, _helixClusterName, _propertyStore);
+    _idealStateUpdateCoalescer = new IdealStateUpdateCoalescer(_helixZkManager, controllerMetrics);
     ZKMetadataProvider.setClusterTenantIsolationEnabled(_propertyStore, _isSingleTenantCluster);
 
     // Initialize TableCache
@@ -287,6 +297,15 @@ public class PinotHelixResourceManager {
     return _segmentDeletionManager;
   }
 
+  /**
+   * Get the IdealState update coalescer, which batches the concurrent IdealState updates of a table.
+   *
+   * @return IdealState update coalescer
+   */
+  public IdealStateUpdateCoalescer getIdealStateUpdateCoalescer() {
+    return _idealStateUpdateCoalescer;
+  }
+
   /**
    * Get the Helix manager.
    *
@@ -611,12 +630,16 @@ public class PinotHelixResourceManager {
    * @param segmentNames List of names of segment to be deleted
    * @return Request response
    */
-  public synchronized PinotResourceManagerResponse deleteSegments(String tableNameWithType, List<String> segmentNames) {
+  public PinotResourceManagerResponse deleteSegments(String tableNameWithType, List<String> segmentNames) {
     try {
       LOGGER.info("Trying to delete segments: {} from table: {} ", segmentNames, tableNameWithType);
       Preconditions.checkArgument(TableNameBuilder.isTableResource(tableNameWithType),
           "Table name: %s is not a valid table name with type suffix", tableNameWithType);
-      HelixHelper.removeSegmentsFromIdealState(_helixZkManager, tableNameWithType, segmentNames);
+      _idealStateUpdateCoalescer.updateIdealState(tableNameWithType, idealState -> {
+        assert idealState != null;
+        idealState.getRecord().getMapFields().keySet().removeAll(segmentNames);
+        return idealState;
+      });
       _segmentDeletionManager.deleteSegments(tableNameWithType, segmentNames);
       return PinotResourceManagerResponse.success("Segment " + segmentNames + " deleted");
     } catch (final Exception e) {
@@ -632,7 +655,7 @@ public class PinotHelixResourceManager {
    * @param segmentName Name of segment to be deleted
    * @return Request response
    */
-  public synchronized PinotResourceManagerResponse deleteSegment(String tableNameWithType, String segmentName) {
+  public PinotResourceManagerResponse deleteSegment(String tableNameWithType, String segmentName) {
     return deleteSegments(tableNameWithType, Collections.singletonList(segmentName));
   }
 
@@ -1534,6 +1557,12 @@ public class PinotHelixResourceManager {
         InstancePartitionsType.OFFLINE.getInstancePartitionsName(TableNameBuilder.extractRawTableName(tableName)));
     LOGGER.info("Deleting table {}: Removed instance partitions", offlineTableName);
 
+    // Remove segment load stats
+    SegmentLoadStats.removeSegmentLoadStats(_propertyStore, offlineTableName);
+    _idealStateUpdateCoalescer.removeTable(offlineTableName);
+    _rebalanceProgressMap.remove(offlineTableName);
+    LOGGER.info("Deleting table {}: Removed segment load stats", offlineTableName);
+
     LOGGER.info("Deleting table {}: Finish", offlineTableName);
   }
 
@@ -1573,6 +1602,12 @@ public class PinotHelixResourceManager {
         InstancePartitionsType.COMPLETED.getInstancePartitionsName(rawTableName));
     LOGGER.info("Deleting table {}: Removed instance partitions", realtimeTableName);
 
+    // Remove segment load stats
+    SegmentLoadStats.removeSegmentLoadStats(_propertyStore, realtimeTableName);
+    _idealStateUpdateCoalescer.removeTable(realtimeTableName);
+    _rebalanceProgressMap.remove(realtimeTableName);
+    LOGGER.info("Deleting table {}: Removed segment load stats", realtimeTableName);
+
     // Remove groupId/partitionId mapping for HLC table
     if (instancesForTable != null) {
       for (String instance : instancesForTable) {
@@ -1691,25 +1726,24 @@ public class PinotHelixResourceManager {
       Map<InstancePartitionsType, InstancePartitions> instancePartitionsMap = Collections
           .singletonMap(instancePartitionsType, InstancePartitionsUtils
               .fetchOrComputeInstancePartitions(_helixZkManager, tableConfig, instancePartitionsType));
-      synchronized (getTableUpdaterLock(tableNameWithType)) {
-        HelixHelper.updateIdealState(_helixZkManager, tableNameWithType, idealState -> {
-          assert idealState != null;
-          Map<String, Map<String, String>> currentAssignment = idealState.getRecord().getMapFields();
-          if (currentAssignment.containsKey(segmentName)) {
-            LOGGER.warn("Segment: {} already exists in the IdealState for table: {}, do not update", segmentName,
-                tableNameWithType);
-          } else {
-            List<String> assignedInstances =
-                segmentAssignment.assignSegment(segmentName, currentAssignment, instancePartitionsMap);
-            LOGGER.info("Assigning segment: {} to instances: {} for table: {}", segmentName, assignedInstances,
-                tableNameWithType);
-            currentAssignment.put(segmentName,
-                SegmentAssignmentUtils.getInstanceStateMap(assignedInstances, SegmentStateModel.ONLINE));
-          }
-          return idealState;
-        });
-        LOGGER.info("Added segment: {} to IdealState for table: {}", segmentName, tableNameWithType);
-      }
+      // Concurrent uploads to the same table are coalesced into a single IdealState update
+      _idealStateUpdateCoalescer.updateIdealState(tableNameWithType, idealState -> {
+        assert idealState != null;
+        Map<String, Map<String, String>> currentAssignment = idealState.getRecord().getMapFields();
+        if (currentAssignment.containsKey(segmentName)) {
+          LOGGER.warn("Segment: {} already exists in the IdealState for table: {}, do not update", segmentName,
+              tableNameWithType);
+        } else {
+          List<String> assignedInstances =
+              segmentAssignment.assignSegment(segmentName, currentAssignment, instancePartitionsMap);
+          LOGGER.info("Assigning segment: {} to instances: {} for table: {}", segmentName, assignedInstances,
+              tableNameWithType);
+          currentAssignment.put(segmentName,
+              SegmentAssignmentUtils.getInstanceStateMap(assignedInstances, SegmentStateModel.ONLINE));
+        }
+        return idealState;
+      });
+      LOGGER.info("Added segment: {} to IdealState for table: {}", segmentName, tableNameWithType);
     } catch (Exception e) {
       LOGGER
           .error("Caught exception while adding segment: {} to IdealState for table: {}, deleting segment ZK metadata",
@@ -1733,10 +1767,6 @@ public class PinotHelixResourceManager {
     return ((upsertConfig != null) && upsertConfig.getMode() != UpsertConfig.Mode.NONE);
   }
 
-  private Object getTableUpdaterLock(String offlineTableName) {
-    return _tableUpdaterLocks[(offlineTableName.hashCode() & Integer.MAX_VALUE) % _tableUpdaterLocks.length];
-  }
-
   @Nullable
   public ZNRecord getSegmentMetadataZnRecord(String tableNameWithType, String segmentName) {
     return ZKMetadataProvider.getZnRecord(_propertyStore,
@@ -1749,6 +1779,12 @@ public class PinotHelixResourceManager {
         .setOfflineSegmentZKMetadata(_propertyStore, offlineTableName, segmentMetadata, expectedVersion);
   }
 
+  public boolean updateZkMetadata(String realtimeTableName, RealtimeSegmentZKMetadata segmentMetadata,
+      int expectedVersion) {
+    return ZKMetadataProvider
+        .setRealtimeSegmentZKMetadata(_propertyStore, realtimeTableName, segmentMetadata, expectedVersion);
+  }
+
   public boolean updateZkMetadata(String offlineTableName, OfflineSegmentZKMetadata segmentMetadata) {
     return ZKMetadataProvider.setOfflineSegmentZKMetadata(_propertyStore, offlineTableName, segmentMetadata);
   }
@@ -1776,6 +1812,32 @@ public class PinotHelixResourceManager {
     sendSegmentRefreshMessage(offlineTableName, segmentName, true, true);
   }
 
+  /**
+   * Refreshes a committed LLC segment of an upsert enabled REALTIME table (e.g. compacted by minion). The segment ZK
+   * metadata is updated only if its version matches the expected version to not override the concurrent updates.
+   */
+  public void refreshRealtimeSegment(String realtimeTableName, SegmentMetadata segmentMetadata,
+      LLCRealtimeSegmentZKMetadata segmentZKMetadata, String downloadUrl, @Nullable String crypter,
+      int expectedVersion) {
+    String segmentName = segmentMetadata.getName();
+
+    // NOTE: Must first set the segment ZK metadata before trying to refresh because servers rely on the CRC in segment
+    // ZK metadata to decide whether to download the new segment
+    ZKMetadataUtils
+        .updateSegmentMetadata(segmentZKMetadata, segmentMetadata, CommonConstants.Segment.SegmentType.REALTIME);
+    segmentZKMetadata.setDownloadUrl(downloadUrl);
+    segmentZKMetadata.setCrypterName(crypter);
+    if (!ZKMetadataProvider
+        .setRealtimeSegmentZKMetadata(_propertyStore, realtimeTableName, segmentZKMetadata, expectedVersion)) {
+      throw new RuntimeException(
+          "Failed to update ZK metadata for segment: " + segmentName + " of table: " + realtimeTableName);
+    }
+    LOGGER.info("Updated segment: {} of table: {} to property store", segmentName, realtimeTableName);
+
+    // Send a message to servers and brokers hosting the table to refresh the segment
+    sendSegmentRefreshMessage(realtimeTableName, segmentName, true, true);
+  }
+
   public int reloadAllSegments(String tableNameWithType) {
     LOGGER.info("Sending reload message for table: {}", tableNameWithType);
 
@@ -2480,7 +2542,26 @@ public class PinotHelixResourceManager {
     if (tableConfig == null) {
       throw new TableNotFoundException("Failed to find table config for table: " + tableNameWithType);
     }
-    return new TableRebalancer(_helixZkManager).rebalance(tableConfig, rebalanceConfig);
+    boolean dryRun =
+        rebalanceConfig.getBoolean(RebalanceConfigConstants.DRY_RUN, RebalanceConfigConstants.DEFAULT_DRY_RUN);
+    boolean downtime =
+        rebalanceConfig.getBoolean(RebalanceConfigConstants.DOWNTIME, RebalanceConfigConstants.DEFAULT_DOWNTIME);
+    if (dryRun || downtime) {
+      return new TableRebalancer(_helixZkManager).rebalance(tableConfig, rebalanceConfig);
+    }
+    // Track the progress of the no-downtime rebalance
+    RebalanceProgress rebalanceProgress = new RebalanceProgress(tableNameWithType);
+    _rebalanceProgressMap.put(tableNameWithType, rebalanceProgress);
+    return new TableRebalancer(_helixZkManager).rebalance(tableConfig, rebalanceConfig, rebalanceProgress);
+  }
+
+  /**
+   * Returns the progress of the ongoing or the last no-downtime rebalance of the table started on this controller, or
+   * {@code null} if there is none.
+   */
+  @Nullable
+  public RebalanceProgress getRebalanceProgress(String tableNameWithType) {
+    return _rebalanceProgressMap.get(tableNameWithType);
   }
 
   /**
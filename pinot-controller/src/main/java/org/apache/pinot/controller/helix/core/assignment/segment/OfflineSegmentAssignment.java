@@ -20,6 +20,7 @@ package org.apache.pinot.controller.helix.core.assignment.segment;
 
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -32,6 +33,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.configuration.Configuration;
 import org.apache.helix.HelixManager;
 import org.apache.pinot.common.assignment.InstancePartitions;
+import org.apache.pinot.common.assignment.SegmentLoadStats;
 import org.apache.pinot.common.metadata.ZKMetadataProvider;
 import org.apache.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
 import org.apache.pinot.common.tier.Tier;
@@ -67,6 +69,10 @@ import org.slf4j.LoggerFactory;
  *     segment moves.
  *   </li>
  * </ul>
+ * <p>With the load-aware segment assignment strategy (segmentAssignmentStrategy: LoadAwareSegmentAssignmentStrategy),
+ * instead of the number of segments, the load on each instance is measured as the sum of the segment weights derived
+ * from the on-disk size and the recent query load of the segments (see {@link SegmentLoadStats}), so that both the
+ * storage and the expected query load are balanced across the instances.
  */
 public class OfflineSegmentAssignment implements SegmentAssignment {
   private static final Logger LOGGER = LoggerFactory.getLogger(OfflineSegmentAssignment.class);
@@ -75,6 +81,7 @@ public class OfflineSegmentAssignment implements SegmentAssignment {
   private String _offlineTableName;
   private int _replication;
   private String _partitionColumn;
+  private boolean _loadAware;
 
   @Override
   public void init(HelixManager helixManager, TableConfig tableConfig) {
@@ -84,7 +91,11 @@ public class OfflineSegmentAssignment implements SegmentAssignment {
     ReplicaGroupStrategyConfig replicaGroupStrategyConfig =
         tableConfig.getValidationConfig().getReplicaGroupStrategyConfig();
     _partitionColumn = replicaGroupStrategyConfig != null ? replicaGroupStrategyConfig.getPartitionColumn() : null;
+    _loadAware = SegmentAssignmentUtils.isLoadAwareSegmentAssignment(tableConfig);
 
+    if (_loadAware) {
+      LOGGER.info("Using load-aware segment assignment for table: {}", _offlineTableName);
+    }
     if (_partitionColumn == null) {
       LOGGER.info("Initialized OfflineSegmentAssignment with replication: {} without partition column for table: {} ",
           _replication, _offlineTableName);
@@ -104,7 +115,8 @@ public class OfflineSegmentAssignment implements SegmentAssignment {
         _offlineTableName);
     checkReplication(instancePartitions);
 
-    List<String> instancesAssigned = assignSegment(segmentName, currentAssignment, instancePartitions);
+    List<String> instancesAssigned = assignSegment(segmentName, currentAssignment, instancePartitions,
+        getSegmentWeights(currentAssignment.keySet()));
 
     LOGGER
         .info("Assigned segment: {} to instances: {} for table: {}", segmentName, instancesAssigned, _offlineTableName);
@@ -127,17 +139,28 @@ public class OfflineSegmentAssignment implements SegmentAssignment {
     }
   }
 
+  /**
+   * Helper method to return the weights of the given segments for the load-aware segment assignment, or {@code null}
+   * if the load-aware segment assignment is not enabled.
+   */
+  @Nullable
+  private Map<String, Double> getSegmentWeights(Collection<String> segments) {
+    return _loadAware ? SegmentAssignmentUtils.getSegmentWeights(_helixManager, _offlineTableName, segments) : null;
+  }
+
   /**
    * Helper method to assign instances based on the current assignment and instance partitions.
    */
   private List<String> assignSegment(String segmentName, Map<String, Map<String, String>> currentAssignment,
-      InstancePartitions instancePartitions) {
+      InstancePartitions instancePartitions, @Nullable Map<String, Double> segmentWeights) {
     int numReplicaGroups = instancePartitions.getNumReplicaGroups();
     if (numReplicaGroups == 1) {
       // Non-replica-group based assignment
 
-      return SegmentAssignmentUtils
-          .assignSegmentWithoutReplicaGroup(currentAssignment, instancePartitions, _replication);
+      return segmentWeights != null ? SegmentAssignmentUtils
+          .assignSegmentWithoutReplicaGroup(currentAssignment, instancePartitions, _replication, segmentWeights)
+          : SegmentAssignmentUtils
+              .assignSegmentWithoutReplicaGroup(currentAssignment, instancePartitions, _replication);
     } else {
       // Replica-group based assignment
 
@@ -158,7 +181,9 @@ public class OfflineSegmentAssignment implements SegmentAssignment {
         partitionId = segmentPartitionId % numPartitions;
       }
 
-      return SegmentAssignmentUtils.assignSegmentWithReplicaGroup(currentAssignment, instancePartitions, partitionId);
+      return segmentWeights != null ? SegmentAssignmentUtils
+          .assignSegmentWithReplicaGroup(currentAssignment, instancePartitions, partitionId, segmentWeights)
+          : SegmentAssignmentUtils.assignSegmentWithReplicaGroup(currentAssignment, instancePartitions, partitionId);
     }
   }
 
@@ -232,6 +257,7 @@ public class OfflineSegmentAssignment implements SegmentAssignment {
   private Map<String, Map<String, String>> reassignSegments(String instancePartitionType,
       Map<String, Map<String, String>> currentAssignment, InstancePartitions instancePartitions, boolean bootstrap) {
     Map<String, Map<String, String>> newAssignment;
+    Map<String, Double> segmentWeights = getSegmentWeights(currentAssignment.keySet());
     if (bootstrap) {
       LOGGER.info("Bootstrapping segment assignment for {} segments of table: {}", instancePartitionType,
           _offlineTableName);
@@ -239,7 +265,7 @@ public class OfflineSegmentAssignment implements SegmentAssignment {
       // When bootstrap is enabled, start with an empty assignment and reassign all segments
       newAssignment = new TreeMap<>();
       for (String segment : currentAssignment.keySet()) {
-        List<String> assignedInstances = assignSegment(segment, newAssignment, instancePartitions);
+        List<String> assignedInstances = assignSegment(segment, newAssignment, instancePartitions, segmentWeights);
         newAssignment
             .put(segment, SegmentAssignmentUtils.getInstanceStateMap(assignedInstances, SegmentStateModel.ONLINE));
       }
@@ -250,8 +276,10 @@ public class OfflineSegmentAssignment implements SegmentAssignment {
 
         List<String> instances =
             SegmentAssignmentUtils.getInstancesForNonReplicaGroupBasedAssignment(instancePartitions, _replication);
-        newAssignment = SegmentAssignmentUtils
-            .rebalanceTableWithHelixAutoRebalanceStrategy(currentAssignment, instances, _replication);
+        newAssignment = segmentWeights != null ? SegmentAssignmentUtils
+            .rebalanceTableByLoad(currentAssignment, instances, _replication, segmentWeights)
+            : SegmentAssignmentUtils
+                .rebalanceTableWithHelixAutoRebalanceStrategy(currentAssignment, instances, _replication);
       } else {
         // Replica-group based assignment
 
@@ -263,10 +291,17 @@ public class OfflineSegmentAssignment implements SegmentAssignment {
           Collections.shuffle(segments, new Random(_offlineTableName.hashCode()));
 
           newAssignment = new TreeMap<>();
-          SegmentAssignmentUtils
-              .rebalanceReplicaGroupBasedPartition(currentAssignment, instancePartitions, 0, segments, newAssignment);
+          if (segmentWeights != null) {
+            SegmentAssignmentUtils
+                .rebalanceReplicaGroupBasedPartition(currentAssignment, instancePartitions, 0, segments,
+                    segmentWeights, newAssignment);
+          } else {
+            SegmentAssignmentUtils
+                .rebalanceReplicaGroupBasedPartition(currentAssignment, instancePartitions, 0, segments,
+                    newAssignment);
+          }
         } else {
-          newAssignment = rebalanceTableWithPartition(currentAssignment, instancePartitions);
+          newAssignment = rebalanceTableWithPartition(currentAssignment, instancePartitions, segmentWeights);
         }
       }
     }
@@ -274,7 +309,8 @@ public class OfflineSegmentAssignment implements SegmentAssignment {
   }
 
   private Map<String, Map<String, String>> rebalanceTableWithPartition(
-      Map<String, Map<String, String>> currentAssignment, InstancePartitions instancePartitions) {
+      Map<String, Map<String, String>> currentAssignment, InstancePartitions instancePartitions,
+      @Nullable Map<String, Double> segmentWeights) {
     // Fetch partition id from segment ZK metadata
     List<OfflineSegmentZKMetadata> segmentZKMetadataList = ZKMetadataProvider
         .getOfflineSegmentZKMetadataListForTable(_helixManager.getHelixPropertyStore(), _offlineTableName);
@@ -296,8 +332,11 @@ public class OfflineSegmentAssignment implements SegmentAssignment {
       Collections.shuffle(segments, random);
     }
 
-    return SegmentAssignmentUtils
-        .rebalanceReplicaGroupBasedTable(currentAssignment, instancePartitions, partitionIdToSegmentsMap);
+    return segmentWeights != null ? SegmentAssignmentUtils
+        .rebalanceReplicaGroupBasedTable(currentAssignment, instancePartitions, partitionIdToSegmentsMap,
+            segmentWeights)
+        : SegmentAssignmentUtils
+            .rebalanceReplicaGroupBasedTable(currentAssignment, instancePartitions, partitionIdToSegmentsMap);
   }
 
   private int getPartitionId(OfflineSegmentZKMetadata segmentZKMetadata) {
@@ -69,7 +69,7 @@ import org.slf4j.LoggerFactory;
  *       <li>
  *         If COMPLETED instance partitions are provided, reassign COMPLETED segments the same way as
  *         OfflineSegmentAssignment to relocate COMPLETED segments and offload them from CONSUMING instances to
- *         COMPLETED instances
+ *         COMPLETED instances (balanced by the segment load with the load-aware segment assignment strategy)
  *       </li>
  *       <li>
  *         If COMPLETED instance partitions are not provided, reassign COMPLETED segments the same way as CONSUMING
@@ -87,6 +87,7 @@ public class RealtimeSegmentAssignment implements SegmentAssignment {
   private String _realtimeTableName;
   private int _replication;
   private String _partitionColumn;
+  private boolean _loadAware;
 
   @Override
   public void init(HelixManager helixManager, TableConfig tableConfig) {
@@ -96,9 +97,11 @@ public class RealtimeSegmentAssignment implements SegmentAssignment {
     ReplicaGroupStrategyConfig replicaGroupStrategyConfig =
         tableConfig.getValidationConfig().getReplicaGroupStrategyConfig();
     _partitionColumn = replicaGroupStrategyConfig != null ? replicaGroupStrategyConfig.getPartitionColumn() : null;
+    _loadAware = SegmentAssignmentUtils.isLoadAwareSegmentAssignment(tableConfig);
 
-    LOGGER.info("Initialized RealtimeSegmentAssignment with replication: {}, partitionColumn: {} for table: {}",
-        _replication, _partitionColumn, _realtimeTableName);
+    LOGGER.info(
+        "Initialized RealtimeSegmentAssignment with replication: {}, partitionColumn: {}, loadAware: {} for table: {}",
+        _replication, _partitionColumn, _loadAware, _realtimeTableName);
   }
 
   @Override
@@ -305,6 +308,8 @@ public class RealtimeSegmentAssignment implements SegmentAssignment {
   private Map<String, Map<String, String>> reassignSegments(String instancePartitionType,
       Map<String, Map<String, String>> currentAssignment, InstancePartitions instancePartitions, boolean bootstrap) {
     Map<String, Map<String, String>> newAssignment;
+    Map<String, Double> segmentWeights = _loadAware ? SegmentAssignmentUtils
+        .getSegmentWeights(_helixManager, _realtimeTableName, currentAssignment.keySet()) : null;
     if (bootstrap) {
       LOGGER.info("Bootstrapping segment assignment for {} segments of table: {}", instancePartitionType,
           _realtimeTableName);
@@ -312,7 +317,8 @@ public class RealtimeSegmentAssignment implements SegmentAssignment {
       // When bootstrap is enabled, start with an empty assignment and reassign all segments
       newAssignment = new TreeMap<>();
       for (String segment : currentAssignment.keySet()) {
-        List<String> assignedInstances = assignCompletedSegment(segment, newAssignment, instancePartitions);
+        List<String> assignedInstances =
+            assignCompletedSegment(segment, newAssignment, instancePartitions, segmentWeights);
         newAssignment
             .put(segment, SegmentAssignmentUtils.getInstanceStateMap(assignedInstances, SegmentStateModel.ONLINE));
       }
@@ -322,8 +328,10 @@ public class RealtimeSegmentAssignment implements SegmentAssignment {
 
         List<String> instances =
             SegmentAssignmentUtils.getInstancesForNonReplicaGroupBasedAssignment(instancePartitions, _replication);
-        newAssignment = SegmentAssignmentUtils
-            .rebalanceTableWithHelixAutoRebalanceStrategy(currentAssignment, instances, _replication);
+        newAssignment = segmentWeights != null ? SegmentAssignmentUtils
+            .rebalanceTableByLoad(currentAssignment, instances, _replication, segmentWeights)
+            : SegmentAssignmentUtils
+                .rebalanceTableWithHelixAutoRebalanceStrategy(currentAssignment, instances, _replication);
       } else {
         // Replica-group based assignment
 
@@ -342,8 +350,11 @@ public class RealtimeSegmentAssignment implements SegmentAssignment {
           Collections.shuffle(segments, random);
         }
 
-        newAssignment = SegmentAssignmentUtils
-            .rebalanceReplicaGroupBasedTable(currentAssignment, instancePartitions, partitionGroupIdToSegmentsMap);
+        newAssignment = segmentWeights != null ? SegmentAssignmentUtils
+            .rebalanceReplicaGroupBasedTable(currentAssignment, instancePartitions, partitionGroupIdToSegmentsMap,
+                segmentWeights)
+            : SegmentAssignmentUtils
+                .rebalanceReplicaGroupBasedTable(currentAssignment, instancePartitions, partitionGroupIdToSegmentsMap);
       }
     }
     return newAssignment;
@@ -353,13 +364,15 @@ public class RealtimeSegmentAssignment implements SegmentAssignment {
    * Helper method to assign instances for COMPLETED segment based on the current assignment and instance partitions.
    */
   private List<String> assignCompletedSegment(String segmentName, Map<String, Map<String, String>> currentAssignment,
-      InstancePartitions instancePartitions) {
+      InstancePartitions instancePartitions, @Nullable Map<String, Double> segmentWeights) {
     int numReplicaGroups = instancePartitions.getNumReplicaGroups();
     if (numReplicaGroups == 1) {
       // Non-replica-group based assignment
 
-      return SegmentAssignmentUtils
-          .assignSegmentWithoutReplicaGroup(currentAssignment, instancePartitions, _replication);
+      return segmentWeights != null ? SegmentAssignmentUtils
+          .assignSegmentWithoutReplicaGroup(currentAssignment, instancePartitions, _replication, segmentWeights)
+          : SegmentAssignmentUtils
+              .assignSegmentWithoutReplicaGroup(currentAssignment, instancePartitions, _replication);
     } else {
       // Replica-group based assignment
 
@@ -368,8 +381,10 @@ public class RealtimeSegmentAssignment implements SegmentAssignment {
           SegmentUtils.getRealtimeSegmentPartitionId(segmentName, _realtimeTableName, _helixManager, _partitionColumn);
       int numPartitions = instancePartitions.getNumPartitions();
       int partitionGroupId = segmentPartitionId % numPartitions;
-      return SegmentAssignmentUtils
-          .assignSegmentWithReplicaGroup(currentAssignment, instancePartitions, partitionGroupId);
+      return segmentWeights != null ? SegmentAssignmentUtils
+          .assignSegmentWithReplicaGroup(currentAssignment, instancePartitions, partitionGroupId, segmentWeights)
+          : SegmentAssignmentUtils
+              .assignSegmentWithReplicaGroup(currentAssignment, instancePartitions, partitionGroupId);
     }
   }
 }
@@ -19,19 +19,33 @@
 package org.apache.pinot.controller.helix.core.assignment.segment;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.apache.helix.HelixManager;
+import org.apache.helix.ZNRecord;
 import org.apache.helix.controller.rebalancer.strategy.AutoRebalanceStrategy;
+import org.apache.helix.store.HelixPropertyStore;
 import org.apache.pinot.common.assignment.InstancePartitions;
+import org.apache.pinot.common.assignment.SegmentLoadStats;
+import org.apache.pinot.common.assignment.SegmentLoadStats.SegmentLoad;
 import org.apache.pinot.common.tier.Tier;
+import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.utils.CommonConstants.Helix.StateModel.SegmentStateModel;
+import org.apache.pinot.spi.utils.CommonConstants.Segment.AssignmentStrategy;
 import org.apache.pinot.spi.utils.Pairs;
 
 
@@ -42,6 +56,20 @@ public class SegmentAssignmentUtils {
   private SegmentAssignmentUtils() {
   }
 
+  // For the load-aware segment assignment, fraction of the segment weight from the on-disk size (the rest from the
+  // query load), the default weight for the segments without load stats, and the min weight of a segment
+  private static final double SIZE_LOAD_FRACTION = 0.5;
+  private static final double DEFAULT_SEGMENT_WEIGHT = 1.0;
+  private static final double MIN_SEGMENT_WEIGHT = 0.01;
+
+  // Cache of the segment load stats keyed by cluster and table name. The stats are only updated periodically (hourly by
+  // default), so there is no need to read the ZNodes from the property store for the assignment of each new segment.
+  private static final long SEGMENT_LOAD_STATS_CACHE_SIZE = 1000;
+  private static final long SEGMENT_LOAD_STATS_CACHE_EXPIRE_TIME_MINUTES = 5;
+  private static final Cache<String, Optional<SegmentLoadStats>> SEGMENT_LOAD_STATS_CACHE =
+      CacheBuilder.newBuilder().maximumSize(SEGMENT_LOAD_STATS_CACHE_SIZE)
+          .expireAfterWrite(SEGMENT_LOAD_STATS_CACHE_EXPIRE_TIME_MINUTES, TimeUnit.MINUTES).build();
+
   /**
    * Returns the number of segments assigned to each instance.
    */
@@ -69,6 +97,127 @@ public class SegmentAssignmentUtils {
     return instanceNameToIdMap;
   }
 
+  /**
+   * Returns whether the table uses the load-aware segment assignment, which balances the segments by their on-disk size
+   * and recent query load (see {@link SegmentLoadStats}) instead of the number of segments.
+   */
+  public static boolean isLoadAwareSegmentAssignment(TableConfig tableConfig) {
+    return AssignmentStrategy.LOAD_AWARE_SEGMENT_ASSIGNMENT_STRATEGY
+        .equalsIgnoreCase(tableConfig.getValidationConfig().getSegmentAssignmentStrategy());
+  }
+
+  /**
+   * Fetches the segment load stats of the table from the property store (cached for a few minutes), and returns the
+   * weights of the given segments for the load-aware segment assignment.
+   */
+  static Map<String, Double> getSegmentWeights(HelixManager helixManager, String tableNameWithType,
+      Collection<String> segments) {
+    HelixPropertyStore<ZNRecord> propertyStore = helixManager.getHelixPropertyStore();
+    Optional<SegmentLoadStats> segmentLoadStats;
+    try {
+      segmentLoadStats =
+          SEGMENT_LOAD_STATS_CACHE.get(getSegmentLoadStatsCacheKey(helixManager, tableNameWithType),
+              () -> Optional.ofNullable(SegmentLoadStats.fetchSegmentLoadStats(propertyStore, tableNameWithType)));
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Failed to fetch segment load stats for table: " + tableNameWithType, e);
+    }
+    return getSegmentWeights(segmentLoadStats.orElse(null), segments);
+  }
+
+  /**
+   * Invalidates the cached segment load stats of the table, e.g. after the stats are updated.
+   */
+  public static void invalidateSegmentLoadStats(HelixManager helixManager, String tableNameWithType) {
+    SEGMENT_LOAD_STATS_CACHE.invalidate(getSegmentLoadStatsCacheKey(helixManager, tableNameWithType));
+  }
+
+  private static String getSegmentLoadStatsCacheKey(HelixManager helixManager, String tableNameWithType) {
+    return helixManager.getClusterName() + '/' + tableNameWithType;
+  }
+
+  /**
+   * Returns the weights of the given segments for the load-aware segment assignment. The weight of a segment combines
+   * its share of the total on-disk size and its share of the total number of queries, and is normalized so that the
+   * average weight is 1. Segments without load stats are not included, and have the default weight of 1.
+   */
+  static Map<String, Double> getSegmentWeights(@Nullable SegmentLoadStats segmentLoadStats,
+      Collection<String> segments) {
+    Map<String, Double> segmentWeights = new HashMap<>();
+    if (segmentLoadStats == null) {
+      return segmentWeights;
+    }
+    Map<String, SegmentLoad> segmentLoadMap = segmentLoadStats.getSegmentLoadMap();
+    long totalSizeInBytes = 0;
+    long totalNumQueries = 0;
+    int numSegmentsWithLoad = 0;
+    for (String segmentName : segments) {
+      SegmentLoad segmentLoad = segmentLoadMap.get(segmentName);
+      if (segmentLoad != null) {
+        totalSizeInBytes += segmentLoad.getSizeInBytes();
+        totalNumQueries += segmentLoad.getNumQueries();
+        numSegmentsWithLoad++;
+      }
+    }
+    if (totalSizeInBytes == 0 && totalNumQueries == 0) {
+      return segmentWeights;
+    }
+    double sizeFraction = totalNumQueries == 0 ? 1.0 : totalSizeInBytes == 0 ? 0.0 : SIZE_LOAD_FRACTION;
+    for (String segmentName : segments) {
+      SegmentLoad segmentLoad = segmentLoadMap.get(segmentName);
+      if (segmentLoad != null) {
+        double weight = 0;
+        if (sizeFraction > 0) {
+          weight += sizeFraction * segmentLoad.getSizeInBytes() / totalSizeInBytes;
+        }
+        if (sizeFraction < 1) {
+          weight += (1 - sizeFraction) * segmentLoad.getNumQueries() / totalNumQueries;
+        }
+        segmentWeights.put(segmentName, Math.max(weight * numSegmentsWithLoad, MIN_SEGMENT_WEIGHT));
+      }
+    }
+    return segmentWeights;
+  }
+
+  private static double getSegmentWeight(Map<String, Double> segmentWeights, String segmentName) {
+    return segmentWeights.getOrDefault(segmentName, DEFAULT_SEGMENT_WEIGHT);
+  }
+
+  /**
+   * Returns the load (sum of the segment weights) on each instance.
+   */
+  static double[] getLoadPerInstance(Map<String, Map<String, String>> segmentAssignment, List<String> instances,
+      Map<String, Double> segmentWeights) {
+    double[] loadPerInstance = new double[instances.size()];
+    Map<String, Integer> instanceNameToIdMap = getInstanceNameToIdMap(instances);
+    for (Map.Entry<String, Map<String, String>> entry : segmentAssignment.entrySet()) {
+      double segmentWeight = getSegmentWeight(segmentWeights, entry.getKey());
+      for (String instanceName : entry.getValue().keySet()) {
+        Integer instanceId = instanceNameToIdMap.get(instanceName);
+        if (instanceId != null) {
+          loadPerInstance[instanceId] += segmentWeight;
+        }
+      }
+    }
+    return loadPerInstance;
+  }
+
+  /**
+   * Returns the ids of the given number of instances with the least load, or the smallest ids if there is a tie.
+   */
+  private static int[] getInstanceIdsWithLeastLoad(double[] loadPerInstance, int numInstancesToPick) {
+    PriorityQueue<Integer> heap = new PriorityQueue<>(loadPerInstance.length,
+        Comparator.comparingDouble((Integer instanceId) -> loadPerInstance[instanceId])
+            .thenComparingInt(instanceId -> instanceId));
+    for (int instanceId = 0; instanceId < loadPerInstance.length; instanceId++) {
+      heap.add(instanceId);
+    }
+    int[] instanceIds = new int[numInstancesToPick];
+    for (int i = 0; i < numInstancesToPick; i++) {
+      instanceIds[i] = heap.remove();
+    }
+    return instanceIds;
+  }
+
   /**
    * Returns instances for non-replica-group based assignment.
    */
@@ -135,6 +284,40 @@ public class SegmentAssignmentUtils {
     return instancesAssigned;
   }
 
+  /**
+   * Assigns the segment for the non-replica-group based load-aware segment assignment strategy and returns the assigned
+   * instances. The segment is assigned to the instances with the least load, or the smallest index if there is a tie.
+   */
+  static List<String> assignSegmentWithoutReplicaGroup(Map<String, Map<String, String>> currentAssignment,
+      InstancePartitions instancePartitions, int replication, Map<String, Double> segmentWeights) {
+    List<String> instances =
+        SegmentAssignmentUtils.getInstancesForNonReplicaGroupBasedAssignment(instancePartitions, replication);
+    double[] loadPerInstance = getLoadPerInstance(currentAssignment, instances, segmentWeights);
+    List<String> instancesAssigned = new ArrayList<>(replication);
+    for (int instanceId : getInstanceIdsWithLeastLoad(loadPerInstance, replication)) {
+      instancesAssigned.add(instances.get(instanceId));
+    }
+    return instancesAssigned;
+  }
+
+  /**
+   * Assigns the segment for the replica-group based load-aware segment assignment strategy and returns the assigned
+   * instances. The segment is assigned to the instance with the least load in replica-group 0, or the smallest index if
+   * there is a tie, and the assignment is mirrored to all replica-groups.
+   */
+  static List<String> assignSegmentWithReplicaGroup(Map<String, Map<String, String>> currentAssignment,
+      InstancePartitions instancePartitions, int partitionId, Map<String, Double> segmentWeights) {
+    List<String> instances = instancePartitions.getInstances(partitionId, 0);
+    double[] loadPerInstance = getLoadPerInstance(currentAssignment, instances, segmentWeights);
+    int instanceIdWithLeastLoad = getInstanceIdsWithLeastLoad(loadPerInstance, 1)[0];
+    int numReplicaGroups = instancePartitions.getNumReplicaGroups();
+    List<String> instancesAssigned = new ArrayList<>(numReplicaGroups);
+    for (int replicaGroupId = 0; replicaGroupId < numReplicaGroups; replicaGroupId++) {
+      instancesAssigned.add(instancePartitions.getInstances(partitionId, replicaGroupId).get(instanceIdWithLeastLoad));
+    }
+    return instancesAssigned;
+  }
+
   /**
    * Rebalances the table with Helix AutoRebalanceStrategy.
    */
@@ -242,6 +425,134 @@ public class SegmentAssignmentUtils {
     }
   }
 
+  /**
+   * Rebalances the table for the non-replica-group based load-aware segment assignment strategy.
+   * <p>See {@link #assignSegmentsByLoad} for the algorithm.
+   */
+  static Map<String, Map<String, String>> rebalanceTableByLoad(Map<String, Map<String, String>> currentAssignment,
+      List<String> instances, int replication, Map<String, Double> segmentWeights) {
+    Map<String, List<Integer>> segmentToInstanceIdsMap =
+        assignSegmentsByLoad(currentAssignment, currentAssignment.keySet(), instances, replication, segmentWeights);
+    Map<String, Map<String, String>> newAssignment = new TreeMap<>();
+    for (Map.Entry<String, List<Integer>> entry : segmentToInstanceIdsMap.entrySet()) {
+      List<String> instancesAssigned = new ArrayList<>(replication);
+      for (int instanceId : entry.getValue()) {
+        instancesAssigned.add(instances.get(instanceId));
+      }
+      newAssignment.put(entry.getKey(), getInstanceStateMap(instancesAssigned, SegmentStateModel.ONLINE));
+    }
+    return newAssignment;
+  }
+
+  /**
+   * Rebalances the table for the replica-group based load-aware segment assignment strategy.
+   * <p>The number of partitions for the segments can be different from the number of partitions in the instance
+   * partitions. Uniformly spray the segment partitions over the instance partitions.
+   */
+  static Map<String, Map<String, String>> rebalanceReplicaGroupBasedTable(
+      Map<String, Map<String, String>> currentAssignment, InstancePartitions instancePartitions,
+      Map<Integer, List<String>> partitionIdToSegmentsMap, Map<String, Double> segmentWeights) {
+    Map<String, Map<String, String>> newAssignment = new TreeMap<>();
+    int numPartitions = instancePartitions.getNumPartitions();
+    for (Map.Entry<Integer, List<String>> entry : partitionIdToSegmentsMap.entrySet()) {
+      // Uniformly spray the segment partitions over the instance partitions
+      int partitionId = entry.getKey() % numPartitions;
+      rebalanceReplicaGroupBasedPartition(currentAssignment, instancePartitions, partitionId, entry.getValue(),
+          segmentWeights, newAssignment);
+    }
+    return newAssignment;
+  }
+
+  /**
+   * Rebalances one partition of the table for the replica-group based load-aware segment assignment strategy. Balance
+   * the load within replica-group 0 (see {@link #assignSegmentsByLoad} for the algorithm), then mirror the assignment
+   * to other replica-groups.
+   */
+  static void rebalanceReplicaGroupBasedPartition(Map<String, Map<String, String>> currentAssignment,
+      InstancePartitions instancePartitions, int partitionId, List<String> segments,
+      Map<String, Double> segmentWeights, Map<String, Map<String, String>> newAssignment) {
+    List<String> instances = instancePartitions.getInstances(partitionId, 0);
+    Map<String, List<Integer>> segmentToInstanceIdsMap =
+        assignSegmentsByLoad(currentAssignment, segments, instances, 1, segmentWeights);
+    for (Map.Entry<String, List<Integer>> entry : segmentToInstanceIdsMap.entrySet()) {
+      newAssignment.put(entry.getKey(),
+          getReplicaGroupBasedInstanceStateMap(instancePartitions, partitionId, entry.getValue().get(0)));
+    }
+  }
+
+  /**
+   * Assigns the segments to the instances so that the load (sum of the segment weights) on each instance is balanced,
+   * with minimum segment movements.
+   * <ul>
+   *   <li>
+   *     1. Calculate the target load on each instance (total load of all the replicas over the number of instances)
+   *   </li>
+   *   <li>
+   *     2. Loop over the segments from the heaviest to the lightest, and keep the segment on its current instances if
+   *     the target load for the instance has not been reached
+   *   </li>
+   *   <li>
+   *     3. Loop over the segments from the heaviest to the lightest again, and assign the missing replicas to the
+   *     instances with the least load, or the smallest index if there is a tie
+   *   </li>
+   * </ul>
+   * <p>The order of the segments with the same weight is preserved, so that the caller can shuffle the segments to
+   * avoid moving only the new segments.
+   *
+   * @return Map from segment name to the ids of the instances assigned
+   */
+  private static Map<String, List<Integer>> assignSegmentsByLoad(Map<String, Map<String, String>> currentAssignment,
+      Collection<String> segments, List<String> instances, int numReplicas, Map<String, Double> segmentWeights) {
+    Map<String, Integer> instanceNameToIdMap = getInstanceNameToIdMap(instances);
+    int numInstances = instances.size();
+    List<String> sortedSegments = new ArrayList<>(segments);
+    sortedSegments.sort(
+        Comparator.comparingDouble((String segmentName) -> getSegmentWeight(segmentWeights, segmentName)).reversed());
+
+    double totalLoad = 0;
+    for (String segmentName : sortedSegments) {
+      totalLoad += getSegmentWeight(segmentWeights, segmentName) * numReplicas;
+    }
+    double targetLoadPerInstance = totalLoad / numInstances;
+
+    // Do not move segment if target load is not reached
+    double[] loadPerInstance = new double[numInstances];
+    Map<String, List<Integer>> segmentToInstanceIdsMap = new HashMap<>();
+    for (String segmentName : sortedSegments) {
+      double segmentWeight = getSegmentWeight(segmentWeights, segmentName);
+      List<Integer> instanceIds = new ArrayList<>(numReplicas);
+      for (String instanceName : currentAssignment.get(segmentName).keySet()) {
+        Integer instanceId = instanceNameToIdMap.get(instanceName);
+        if (instanceId != null && loadPerInstance[instanceId] < targetLoadPerInstance) {
+          instanceIds.add(instanceId);
+          loadPerInstance[instanceId] += segmentWeight;
+          if (instanceIds.size() == numReplicas) {
+            break;
+          }
+        }
+      }
+      segmentToInstanceIdsMap.put(segmentName, instanceIds);
+    }
+
+    // Assign the missing replicas to the instances with the least load, or the smallest id if there is a tie
+    for (String segmentName : sortedSegments) {
+      double segmentWeight = getSegmentWeight(segmentWeights, segmentName);
+      List<Integer> instanceIds = segmentToInstanceIdsMap.get(segmentName);
+      while (instanceIds.size() < numReplicas) {
+        int instanceIdWithLeastLoad = -1;
+        for (int instanceId = 0; instanceId < numInstances; instanceId++) {
+          if (!instanceIds.contains(instanceId) && (instanceIdWithLeastLoad == -1
+              || loadPerInstance[instanceId] < loadPerInstance[instanceIdWithLeastLoad])) {
+            instanceIdWithLeastLoad = instanceId;
+          }
+        }
+        instanceIds.add(instanceIdWithLeastLoad);
+        loadPerInstance[instanceIdWithLeastLoad] += segmentWeight;
+      }
+    }
+    return segmentToInstanceIdsMap;
+  }
+
   /**
    * Returns the map from instance name to Helix partition state for the replica-group based segment assignment
    * strategy, which can be put into the segment assignment. The instances are picked from the instance partitions by
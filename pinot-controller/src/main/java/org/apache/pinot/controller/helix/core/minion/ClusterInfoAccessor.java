@@ -21,10 +21,12 @@ package org.apache.pinot.controller.helix.core.minion;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.helix.model.HelixConfigScope;
 import org.apache.helix.model.builder.HelixConfigScopeBuilder;
 import org.apache.helix.task.TaskState;
+import org.apache.pinot.common.exception.InvalidConfigException;
 import org.apache.pinot.common.metadata.ZKMetadataProvider;
 import org.apache.pinot.common.metadata.segment.LLCRealtimeSegmentZKMetadata;
 import org.apache.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
@@ -111,6 +113,27 @@ public class ClusterInfoAccessor {
         .getLLCRealtimeSegmentZKMetadataListForTable(_pinotHelixResourceManager.getPropertyStore(), tableName);
   }
 
+  /**
+   * Get the map from server instance to the segments it hosts for the given table based on the ideal state.
+   *
+   * @param tableNameWithType Table name with type suffix
+   * @return Map from server instance to segments
+   */
+  public Map<String, List<String>> getServerToSegmentsMap(String tableNameWithType) {
+    return _pinotHelixResourceManager.getServerToSegmentsMap(tableNameWithType);
+  }
+
+  /**
+   * Get the admin endpoints (e.g. http://host:port) for the given server instances.
+   *
+   * @param instances Server instances
+   * @return Map from server instance to admin endpoint
+   */
+  public Map<String, String> getServerAdminEndpoints(Set<String> instances)
+      throws InvalidConfigException {
+    return _pinotHelixResourceManager.getDataInstanceAdminEndpoints(instances);
+  }
+
   /**
    * Fetches the {@link MergeRollupTaskMetadata} from MINION_TASK_METADATA for given table
    * @param tableNameWithType table name with type
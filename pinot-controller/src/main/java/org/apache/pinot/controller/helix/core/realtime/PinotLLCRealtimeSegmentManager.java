@@ -30,8 +30,6 @@ import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.apache.helix.AccessOption;
@@ -89,6 +87,7 @@ import org.apache.pinot.spi.utils.CommonConstants.Segment.Realtime.Status;
 import org.apache.pinot.spi.utils.IngestionConfigUtils;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 import org.apache.pinot.spi.utils.retry.RetryPolicies;
+import org.apache.pinot.spi.utils.retry.RetryPolicy;
 import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -125,6 +124,11 @@ public class PinotLLCRealtimeSegmentManager {
    */
   private static final long MAX_SEGMENT_COMPLETION_TIME_MILLIS = 300_000L; // 5 MINUTES
 
+  // Retry policy for the ideal state update on segment completion. Shared across the segment commits so that the
+  // concurrent commits of the same table are coalesced into a single ideal state update.
+  private static final RetryPolicy IDEAL_STATE_UPDATE_ON_SEGMENT_COMPLETION_RETRY_POLICY =
+      RetryPolicies.exponentialBackoffRetryPolicy(10, 1000L, 1.2f);
+
   private final HelixAdmin _helixAdmin;
   private final HelixManager _helixManager;
   private final ZkHelixPropertyStore<ZNRecord> _propertyStore;
@@ -133,8 +137,6 @@ public class PinotLLCRealtimeSegmentManager {
   private final ControllerConf _controllerConf;
   private final ControllerMetrics _controllerMetrics;
   private final MetadataEventNotifierFactory _metadataEventNotifierFactory;
-  private final int _numIdealStateUpdateLocks;
-  private final Lock[] _idealStateUpdateLocks;
   private final TableConfigCache _tableConfigCache;
   private final FlushThresholdUpdateManager _flushThresholdUpdateManager;
 
@@ -152,11 +154,6 @@ public class PinotLLCRealtimeSegmentManager {
     _controllerMetrics = controllerMetrics;
     _metadataEventNotifierFactory =
         MetadataEventNotifierFactory.loadFactory(controllerConf.subset(METADATA_EVENT_NOTIFIER_PREFIX));
-    _numIdealStateUpdateLocks = controllerConf.getRealtimeSegmentMetadataCommitNumLocks();
-    _idealStateUpdateLocks = new Lock[_numIdealStateUpdateLocks];
-    for (int i = 0; i < _numIdealStateUpdateLocks; i++) {
-      _idealStateUpdateLocks[i] = new ReentrantLock();
-    }
     _tableConfigCache = new TableConfigCache(_propertyStore);
     _flushThresholdUpdateManager = new FlushThresholdUpdateManager();
   }
@@ -176,6 +173,10 @@ public class PinotLLCRealtimeSegmentManager {
     // From all segment names in the ideal state, find unique partition group ids and their latest segment
     Map<Integer, LLCSegmentName> partitionGroupIdToLatestSegment = new HashMap<>();
     for (String segment : idealState.getRecord().getMapFields().keySet()) {
+      // Skip the segments not created by the LLC (e.g. uploaded segments)
+      if (!SegmentName.isLowLevelConsumerSegmentName(segment)) {
+        continue;
+      }
       LLCSegmentName llcSegmentName = new LLCSegmentName(segment);
       int partitionGroupId = llcSegmentName.getPartitionGroupId();
       partitionGroupIdToLatestSegment.compute(partitionGroupId, (k, latestSegment) -> {
@@ -484,6 +485,17 @@ public class PinotLLCRealtimeSegmentManager {
             "Failed to find instance in CONSUMING state in IdealState for segment: %s", committingSegmentName);
     int numReplicas = getNumReplicas(tableConfig, instancePartitions);
 
+    // With pauseless commit, the committing segment must end at the start offset of the next segment if it exists
+    String existingNextSegmentName =
+        isPauselessCommitEnabled(tableConfig) ? getNextSegmentName(idealState, committingLLCSegment) : null;
+    if (existingNextSegmentName != null) {
+      String nextSegmentStartOffset = getSegmentZKMetadata(realtimeTableName, existingNextSegmentName).getStartOffset();
+      Preconditions.checkState(nextSegmentStartOffset.equals(committingSegmentDescriptor.getNextOffset()),
+          "Committing segment: %s end offset: %s does not match start offset: %s of the next segment: %s",
+          committingSegmentName, committingSegmentDescriptor.getNextOffset(), nextSegmentStartOffset,
+          existingNextSegmentName);
+    }
+
     /*
      * Update zookeeper in 3 steps.
      *
@@ -513,10 +525,15 @@ public class PinotLLCRealtimeSegmentManager {
     int numPartitionGroups = newPartitionGroupMetadataList.size();
 
     // Only if committingSegment's partitionGroup is present in the newPartitionGroupMetadataList, we create new segment metadata
+    // With pauseless commit, the new segment might already be created when the committer was picked, in which case we
+    // only need to change the committing segment to ONLINE state in the ideal state.
     String newConsumingSegmentName = null;
     String rawTableName = TableNameBuilder.extractRawTableName(realtimeTableName);
     long newSegmentCreationTimeMs = getCurrentTimeMs();
-    if (newPartitionGroupSet.contains(committingSegmentPartitionGroupId)) {
+    if (existingNextSegmentName != null) {
+      LOGGER.info("Next CONSUMING segment: {} already exists for committing segment: {}", existingNextSegmentName,
+          committingSegmentName);
+    } else if (newPartitionGroupSet.contains(committingSegmentPartitionGroupId)) {
       LLCSegmentName newLLCSegment = new LLCSegmentName(rawTableName, committingSegmentPartitionGroupId,
           committingLLCSegment.getSequenceNumber() + 1, newSegmentCreationTimeMs);
       createNewSegmentZKMetadata(tableConfig, streamConfig, newLLCSegment, newSegmentCreationTimeMs,
@@ -530,20 +547,11 @@ public class PinotLLCRealtimeSegmentManager {
     Map<InstancePartitionsType, InstancePartitions> instancePartitionsMap =
         Collections.singletonMap(InstancePartitionsType.CONSUMING, instancePartitions);
 
-    // When multiple segments of the same table complete around the same time it is possible that
-    // the idealstate update fails due to contention. We serialize the updates to the idealstate
-    // to reduce this contention. We may still contend with RetentionManager, or other updates
-    // to idealstate from other controllers, but then we have the retry mechanism to get around that.
-    // hash code can be negative, so make sure we are getting a positive lock index
-    int lockIndex = (realtimeTableName.hashCode() & Integer.MAX_VALUE) % _numIdealStateUpdateLocks;
-    Lock lock = _idealStateUpdateLocks[lockIndex];
-    try {
-      lock.lock();
-      updateIdealStateOnSegmentCompletion(realtimeTableName, committingSegmentName, newConsumingSegmentName,
-          segmentAssignment, instancePartitionsMap);
-    } finally {
-      lock.unlock();
-    }
+    // When multiple segments of the same table complete around the same time, their idealstate updates are coalesced
+    // into a single update to avoid contention. We may still contend with RetentionManager, or other updates to
+    // idealstate from other controllers, but then we have the retry mechanism to get around that.
+    updateIdealStateOnSegmentCompletion(realtimeTableName, committingSegmentName, newConsumingSegmentName,
+        segmentAssignment, instancePartitionsMap);
 
     // TODO: also create the new partition groups here, instead of waiting till the {@link RealtimeSegmentValidationManager} runs
     //  E.g. If current state is A, B, C, and newPartitionGroupMetadataList contains B, C, D, E,
@@ -554,6 +562,130 @@ public class PinotLLCRealtimeSegmentManager {
     _metadataEventNotifierFactory.create().notifyOnSegmentFlush(tableConfig);
   }
 
+  /**
+   * Returns whether pauseless commit is enabled for the table, i.e. whether the next CONSUMING segment should be
+   * created as soon as the committer of the current segment is picked.
+   */
+  public boolean isPauselessCommitEnabled(String realtimeTableName) {
+    if (_propertyStore == null) {
+      return false;
+    }
+    return isPauselessCommitEnabled(getTableConfig(realtimeTableName));
+  }
+
+  private static boolean isPauselessCommitEnabled(TableConfig tableConfig) {
+    return Boolean.parseBoolean(IngestionConfigUtils.getStreamConfigMap(tableConfig)
+        .get(StreamConfigProperties.SEGMENT_PAUSELESS_COMMIT_ENABLED));
+  }
+
+  /**
+   * Creates the next CONSUMING segment for a committing segment before the committing segment is built and uploaded,
+   * so that the servers can start consuming from the end offset of the committing segment right away (pauseless
+   * commit). The committing segment stays in CONSUMING state in the ideal state (and keeps serving queries from the
+   * sealed mutable segment) until {@link #commitSegmentMetadata} changes it to ONLINE.
+   * <p>Once the next segment is created, its start offset pins the end offset of the committing segment, and the
+   * segment completion protocol only accepts a committer at that offset.
+   *
+   * @return Name of the next CONSUMING segment, or {@code null} if the partition group has reached end of life
+   */
+  @Nullable
+  public String createNextConsumingSegment(String realtimeTableName, String committingSegmentName,
+      StreamPartitionMsgOffset endOffset) {
+    Preconditions.checkState(!_isStopping, "Segment manager is stopping");
+    LLCSegmentName committingLLCSegment = new LLCSegmentName(committingSegmentName);
+    IdealState idealState = getIdealState(realtimeTableName);
+    String existingNextSegmentName = getNextSegmentName(idealState, committingLLCSegment);
+    if (existingNextSegmentName != null) {
+      return existingNextSegmentName;
+    }
+    Preconditions
+        .checkState(idealState.getInstanceStateMap(committingSegmentName).containsValue(SegmentStateModel.CONSUMING),
+            "Failed to find instance in CONSUMING state in IdealState for segment: %s", committingSegmentName);
+
+    TableConfig tableConfig = getTableConfig(realtimeTableName);
+    InstancePartitions instancePartitions = getConsumingInstancePartitions(tableConfig);
+    int numReplicas = getNumReplicas(tableConfig, instancePartitions);
+    PartitionLevelStreamConfig streamConfig = new PartitionLevelStreamConfig(tableConfig.getTableName(),
+        IngestionConfigUtils.getStreamConfigMap(tableConfig));
+    List<PartitionGroupConsumptionStatus> currentPartitionGroupConsumptionStatusList =
+        getPartitionGroupConsumptionStatusList(idealState, streamConfig);
+    List<PartitionGroupMetadata> newPartitionGroupMetadataList =
+        getNewPartitionGroupMetadataList(streamConfig, currentPartitionGroupConsumptionStatusList);
+    int committingSegmentPartitionGroupId = committingLLCSegment.getPartitionGroupId();
+    if (newPartitionGroupMetadataList.stream()
+        .noneMatch(metadata -> metadata.getPartitionGroupId() == committingSegmentPartitionGroupId)) {
+      LOGGER.info("PartitionGroup: {} has reached end of life, skipping creating next segment for segment: {}",
+          committingSegmentPartitionGroupId, committingSegmentName);
+      return null;
+    }
+
+    // The committing segment is not built yet, so the flush threshold is computed the same way as for segment repairs
+    // (segment size unknown)
+    long newSegmentCreationTimeMs = getCurrentTimeMs();
+    LLCSegmentName newLLCSegment = new LLCSegmentName(committingLLCSegment.getTableName(),
+        committingSegmentPartitionGroupId, committingLLCSegment.getSequenceNumber() + 1, newSegmentCreationTimeMs);
+    String newSegmentName = newLLCSegment.getSegmentName();
+    CommittingSegmentDescriptor committingSegmentDescriptor =
+        new CommittingSegmentDescriptor(committingSegmentName, endOffset.toString(), 0);
+    createNewSegmentZKMetadata(tableConfig, streamConfig, newLLCSegment, newSegmentCreationTimeMs,
+        committingSegmentDescriptor, getSegmentZKMetadata(realtimeTableName, committingSegmentName),
+        instancePartitions, newPartitionGroupMetadataList.size(), numReplicas);
+
+    SegmentAssignment segmentAssignment = SegmentAssignmentFactory.getSegmentAssignment(_helixManager, tableConfig);
+    Map<InstancePartitionsType, InstancePartitions> instancePartitionsMap =
+        Collections.singletonMap(InstancePartitionsType.CONSUMING, instancePartitions);
+    try {
+      updateIdealStateOnSegmentCompletion(realtimeTableName, null, newSegmentName, segmentAssignment,
+          instancePartitionsMap);
+    } catch (Exception e) {
+      // Remove the segment ZK metadata so that the segment commit can create the next segment as usual
+      LOGGER.error("Caught exception while adding next CONSUMING segment: {} to the ideal state, removing its ZK "
+          + "metadata", newSegmentName, e);
+      _propertyStore.remove(ZKMetadataProvider.constructPropertyStorePathForSegment(realtimeTableName, newSegmentName),
+          AccessOption.PERSISTENT);
+      throw e;
+    }
+    LOGGER.info("Created next CONSUMING segment: {} starting at offset: {} for committing segment: {}",
+        newSegmentName, endOffset, committingSegmentName);
+    return newSegmentName;
+  }
+
+  /**
+   * Returns the start offset of the next segment of the given segment if it is already created (pauseless commit),
+   * or {@code null} otherwise.
+   */
+  @Nullable
+  public String getNextSegmentStartOffset(String realtimeTableName, LLCSegmentName llcSegmentName) {
+    String nextSegmentName = getNextSegmentName(getIdealState(realtimeTableName), llcSegmentName);
+    return nextSegmentName != null ? getSegmentZKMetadata(realtimeTableName, nextSegmentName).getStartOffset() : null;
+  }
+
+  /**
+   * Returns the name of the segment with the next sequence number in the same partition group from the ideal state,
+   * or {@code null} if it does not exist.
+   */
+  @Nullable
+  private static String getNextSegmentName(IdealState idealState, LLCSegmentName llcSegmentName) {
+    return getNextSegmentName(idealState.getRecord().getMapFields().keySet(), llcSegmentName);
+  }
+
+  /**
+   * Returns the name of the segment with the next sequence number in the same partition group, or {@code null} if it
+   * does not exist. The segment names are matched by the LLC segment name prefix (everything but the creation time)
+   * derived from the given segment, so that the other segment names (e.g. uploaded or HLC segments) are not parsed.
+   */
+  @Nullable
+  private static String getNextSegmentName(Set<String> segmentNames, LLCSegmentName llcSegmentName) {
+    String prefix = llcSegmentName.getTableName() + SegmentName.SEPARATOR + llcSegmentName.getPartitionGroupId()
+        + SegmentName.SEPARATOR + (llcSegmentName.getSequenceNumber() + 1) + SegmentName.SEPARATOR;
+    for (String segmentName : segmentNames) {
+      if (segmentName.startsWith(prefix)) {
+        return segmentName;
+      }
+    }
+    return null;
+  }
+
   /**
    * Updates segment ZK metadata for the committing segment.
    */
@@ -834,13 +966,15 @@ public class PinotLLCRealtimeSegmentManager {
   }
 
   /**
-   * Updates ideal state after completion of a realtime segment
+   * Updates ideal state after completion of a realtime segment. The committing segment is {@code null} when the next
+   * CONSUMING segment is added ahead of the commit (pauseless commit).
    */
   @VisibleForTesting
-  void updateIdealStateOnSegmentCompletion(String realtimeTableName, String committingSegmentName,
-      String newSegmentName, SegmentAssignment segmentAssignment,
+  void updateIdealStateOnSegmentCompletion(String realtimeTableName, @Nullable String committingSegmentName,
+      @Nullable String newSegmentName, SegmentAssignment segmentAssignment,
       Map<InstancePartitionsType, InstancePartitions> instancePartitionsMap) {
-    HelixHelper.updateIdealState(_helixManager, realtimeTableName, idealState -> {
+    // Segment commits of different partitions are coalesced into a single IdealState update
+    _helixResourceManager.getIdealStateUpdateCoalescer().updateIdealState(realtimeTableName, idealState -> {
       assert idealState != null;
       // When segment completion begins, the zk metadata is updated, followed by ideal state.
       // We allow only {@link PinotLLCRealtimeSegmentManager::MAX_SEGMENT_COMPLETION_TIME_MILLIS} ms for a segment to complete,
@@ -848,7 +982,8 @@ public class PinotLLCRealtimeSegmentManager {
       // After updating metadata, if more than {@link PinotLLCRealtimeSegmentManager::MAX_SEGMENT_COMPLETION_TIME_MILLIS} ms elapse and ideal state is still not updated,
       // the segment could have already been fixed by {@link org.apache.pinot.controller.validation.RealtimeSegmentValidationManager}
       // Therefore, we do not want to proceed with ideal state update if max segment completion time has exceeded
-      if (isExceededMaxSegmentCompletionTime(realtimeTableName, committingSegmentName, getCurrentTimeMs())) {
+      if (committingSegmentName != null && isExceededMaxSegmentCompletionTime(realtimeTableName,
+          committingSegmentName, getCurrentTimeMs())) {
         LOGGER.error("Exceeded max segment completion time. Skipping ideal state update for segment: {}",
             committingSegmentName);
         throw new HelixHelper.PermanentUpdaterException(
@@ -857,7 +992,7 @@ public class PinotLLCRealtimeSegmentManager {
       updateInstanceStatesForNewConsumingSegment(idealState.getRecord().getMapFields(), committingSegmentName,
           newSegmentName, segmentAssignment, instancePartitionsMap);
       return idealState;
-    }, RetryPolicies.exponentialBackoffRetryPolicy(10, 1000L, 1.2f));
+    }, IDEAL_STATE_UPDATE_ON_SEGMENT_COMPLETION_RETRY_POLICY);
   }
 
   @VisibleForTesting
@@ -884,6 +1019,9 @@ public class PinotLLCRealtimeSegmentManager {
       int partitionId = newLLCSegmentName.getPartitionGroupId();
       int seqNum = newLLCSegmentName.getSequenceNumber();
       for (String segmentNameStr : instanceStatesMap.keySet()) {
+        if (!SegmentName.isLowLevelConsumerSegmentName(segmentNameStr)) {
+          continue;
+        }
         LLCSegmentName llcSegmentName = new LLCSegmentName(segmentNameStr);
         if (llcSegmentName.getPartitionGroupId() == partitionId && llcSegmentName.getSequenceNumber() == seqNum) {
           String errorMsg =
@@ -988,11 +1126,18 @@ public class PinotLLCRealtimeSegmentManager {
     long currentTimeMs = getCurrentTimeMs();
     StreamPartitionMsgOffsetFactory offsetFactory =
         StreamConsumerFactoryProvider.create(streamConfig).createStreamMsgOffsetFactory();
+    boolean isPauselessCommitEnabled = Boolean.parseBoolean(
+        streamConfig.getStreamConfigsMap().get(StreamConfigProperties.SEGMENT_PAUSELESS_COMMIT_ENABLED));
 
     // Get the latest segment ZK metadata for each partition
     Map<Integer, LLCRealtimeSegmentZKMetadata> latestSegmentZKMetadataMap =
         getLatestSegmentZKMetadataMap(realtimeTableName);
 
+    if (isPauselessCommitEnabled) {
+      repairUncommittedSegmentsOfPauselessCommit(realtimeTableName, streamConfig, offsetFactory, instanceStatesMap,
+          latestSegmentZKMetadataMap, currentTimeMs);
+    }
+
     // Walk over all partitions that we have metadata for, and repair any partitions necessary.
     // Possible things to repair:
     // 1. The latest metadata is in DONE state, but the idealstate says segment is CONSUMING:
@@ -1104,6 +1249,9 @@ public class PinotLLCRealtimeSegmentManager {
           // Find the previous CONSUMING segment
           String previousConsumingSegment = null;
           for (Map.Entry<String, Map<String, String>> segmentEntry : instanceStatesMap.entrySet()) {
+            if (!SegmentName.isLowLevelConsumerSegmentName(segmentEntry.getKey())) {
+              continue;
+            }
             LLCSegmentName llcSegmentName = new LLCSegmentName(segmentEntry.getKey());
             if (llcSegmentName.getPartitionGroupId() == partitionGroupId && segmentEntry.getValue()
                 .containsValue(SegmentStateModel.CONSUMING)) {
@@ -1116,6 +1264,11 @@ public class PinotLLCRealtimeSegmentManager {
                 .error("Failed to find previous CONSUMING segment for partition: {} of table: {}, potential data loss",
                     partitionGroupId, realtimeTableName);
             _controllerMetrics.addMeteredTableValue(realtimeTableName, ControllerMeter.LLC_STREAM_DATA_LOSS, 1L);
+          } else if (getSegmentZKMetadata(realtimeTableName, previousConsumingSegment).getStatus()
+              == Status.IN_PROGRESS) {
+            // With pauseless commit, the previous segment is not committed yet when the next segment is created, so
+            // only add the next segment
+            previousConsumingSegment = null;
           }
           updateInstanceStatesForNewConsumingSegment(instanceStatesMap, previousConsumingSegment, latestSegmentName,
               segmentAssignment, instancePartitionsMap);
@@ -1141,6 +1294,84 @@ public class PinotLLCRealtimeSegmentManager {
     return idealState;
   }
 
+  /**
+   * With pauseless commit, the next CONSUMING segment is created before the previous segment is committed, so a failed
+   * commit leaves a segment behind the latest segment of the partition group, which is the only one checked by the
+   * repairs in {@link #ensureAllPartitionsConsuming}. Repairs such a segment when:
+   * <ul>
+   *   <li>
+   *     The segment ZK metadata is DONE, but the segment is still CONSUMING in the ideal state (the ideal state update
+   *     failed during the commit): change the segment to ONLINE.
+   *   </li>
+   *   <li>
+   *     The segment ZK metadata is still IN_PROGRESS long after the next segment is created (the commit failed
+   *     permanently): change the segment to OFFLINE so that the servers drop the sealed segment. It is re-consumed in
+   *     the next run.
+   *   </li>
+   *   <li>
+   *     The segment ZK metadata is IN_PROGRESS and all the instances are OFFLINE: change the segment back to CONSUMING
+   *     so that the servers re-consume it from its start offset. The segment completion protocol pins its end offset to
+   *     the start offset of the next segment.
+   *   </li>
+   * </ul>
+   */
+  private void repairUncommittedSegmentsOfPauselessCommit(String realtimeTableName, StreamConfig streamConfig,
+      StreamPartitionMsgOffsetFactory offsetFactory, Map<String, Map<String, String>> instanceStatesMap,
+      Map<Integer, LLCRealtimeSegmentZKMetadata> latestSegmentZKMetadataMap, long currentTimeMs) {
+    for (Map.Entry<String, Map<String, String>> entry : instanceStatesMap.entrySet()) {
+      String segmentName = entry.getKey();
+      Map<String, String> instanceStateMap = entry.getValue();
+      boolean isConsuming = instanceStateMap.containsValue(SegmentStateModel.CONSUMING);
+      if (!SegmentName.isLowLevelConsumerSegmentName(segmentName) || instanceStateMap.isEmpty()
+          || !isConsuming && !isAllInstancesInState(instanceStateMap, SegmentStateModel.OFFLINE)) {
+        continue;
+      }
+      LLCSegmentName llcSegmentName = new LLCSegmentName(segmentName);
+      int partitionGroupId = llcSegmentName.getPartitionGroupId();
+      LLCRealtimeSegmentZKMetadata latestSegmentZKMetadata = latestSegmentZKMetadataMap.get(partitionGroupId);
+      if (latestSegmentZKMetadata == null || segmentName.equals(latestSegmentZKMetadata.getSegmentName())) {
+        continue;
+      }
+      String nextSegmentName = getNextSegmentName(instanceStatesMap.keySet(), llcSegmentName);
+      if (nextSegmentName == null) {
+        continue;
+      }
+      LLCRealtimeSegmentZKMetadata segmentZKMetadata = getSegmentZKMetadata(realtimeTableName, segmentName);
+      if (isConsuming) {
+        if (!isExceededMaxSegmentCompletionTime(realtimeTableName, segmentName, currentTimeMs)) {
+          continue;
+        }
+        if (segmentZKMetadata.getStatus() == Status.DONE) {
+          LOGGER.info("Repairing segment: {} which is DONE in segment ZK metadata, but is CONSUMING in IdealState "
+              + "after the next segment: {} is created", segmentName, nextSegmentName);
+          entry.setValue(
+              SegmentAssignmentUtils.getInstanceStateMap(instanceStateMap.keySet(), SegmentStateModel.ONLINE));
+        } else if (isExceededMaxSegmentCompletionTime(realtimeTableName, nextSegmentName, currentTimeMs)) {
+          LOGGER.info("Repairing segment: {} which is not committed after the next segment: {} is created, changing "
+              + "it to OFFLINE to be re-consumed", segmentName, nextSegmentName);
+          entry.setValue(
+              SegmentAssignmentUtils.getInstanceStateMap(instanceStateMap.keySet(), SegmentStateModel.OFFLINE));
+        }
+      } else if (segmentZKMetadata.getStatus() == Status.IN_PROGRESS) {
+        // Skip the segment if the next segment is created by the repair of OFFLINE segments, which re-consumes from the
+        // same start offset, or from the smallest offset of the stream if the start offset is no longer available
+        StreamPartitionMsgOffset startOffset = offsetFactory.create(segmentZKMetadata.getStartOffset());
+        StreamPartitionMsgOffset nextSegmentStartOffset =
+            offsetFactory.create(getSegmentZKMetadata(realtimeTableName, nextSegmentName).getStartOffset());
+        if (nextSegmentStartOffset.compareTo(startOffset) <= 0
+            || getPartitionGroupSmallestOffset(streamConfig, partitionGroupId).compareTo(startOffset) > 0) {
+          continue;
+        }
+        LOGGER.info("Repairing segment: {} which is OFFLINE for all instances before it is committed, changing it "
+            + "back to CONSUMING to be re-consumed", segmentName);
+        // Touch the segment ZK metadata so that the segment is not treated as failed to commit until it is re-consumed
+        persistSegmentZKMetadata(realtimeTableName, segmentZKMetadata, -1);
+        entry.setValue(
+            SegmentAssignmentUtils.getInstanceStateMap(instanceStateMap.keySet(), SegmentStateModel.CONSUMING));
+      }
+    }
+  }
+
   private StreamPartitionMsgOffset getPartitionGroupSmallestOffset(StreamConfig streamConfig, int partitionGroupId) {
     Map<String, String> streamConfigMapWithSmallestOffsetCriteria = new HashMap<>(streamConfig.getStreamConfigsMap());
     streamConfigMapWithSmallestOffsetCriteria.put(StreamConfigProperties
@@ -393,10 +393,17 @@ public class SegmentCompletionManager {
     private long _maxTimeAllowedToCommitMs;
     private final boolean _isSplitCommitEnabled;
     private final String _controllerVipUrl;
+    private final boolean _isPauselessCommitEnabled;
+    // With pauseless commit, the start offset of the next CONSUMING segment once it is created. The segment can only
+    // be committed at this offset.
+    private StreamPartitionMsgOffset _pinnedOffset = null;
 
     public static SegmentCompletionFSM fsmInHolding(PinotLLCRealtimeSegmentManager segmentManager,
         SegmentCompletionManager segmentCompletionManager, LLCSegmentName segmentName, int numReplicas) {
-      return new SegmentCompletionFSM(segmentManager, segmentCompletionManager, segmentName, numReplicas);
+      SegmentCompletionFSM fsm =
+          new SegmentCompletionFSM(segmentManager, segmentCompletionManager, segmentName, numReplicas);
+      fsm.pinOffsetIfNextSegmentExists();
+      return fsm;
     }
 
     public static SegmentCompletionFSM fsmInCommit(PinotLLCRealtimeSegmentManager segmentManager,
@@ -411,6 +418,7 @@ public class SegmentCompletionManager {
       SegmentCompletionFSM fsm =
           new SegmentCompletionFSM(segmentManager, segmentCompletionManager, segmentName, numReplicas);
       fsm._state = State.PARTIAL_CONSUMING;
+      fsm.pinOffsetIfNextSegmentExists();
       return fsm;
     }
 
@@ -446,6 +454,7 @@ public class SegmentCompletionManager {
       _maxTimeAllowedToCommitMs = _startTimeMs + _initialCommitTimeMs;
       _isSplitCommitEnabled = segmentCompletionManager.isSplitCommitEnabled();
       _controllerVipUrl = segmentCompletionManager.getControllerVipUrl();
+      _isPauselessCommitEnabled = _segmentManager.isPauselessCommitEnabled(_realtimeTableName);
     }
 
     // Ctor that starts the FSM in COMMITTED state
@@ -459,6 +468,21 @@ public class SegmentCompletionManager {
       _winner = "UNKNOWN";
     }
 
+    /*
+     * With pauseless commit, the next CONSUMING segment might have been created by a previous (aborted) FSM for this
+     * segment. The next segment already started consuming from its start offset, so the segment must end there.
+     */
+    private void pinOffsetIfNextSegmentExists() {
+      if (_isPauselessCommitEnabled) {
+        String nextSegmentStartOffset = _segmentManager.getNextSegmentStartOffset(_realtimeTableName, _segmentName);
+        if (nextSegmentStartOffset != null) {
+          _pinnedOffset = _streamPartitionMsgOffsetFactory.create(nextSegmentStartOffset);
+          _winningOffset = _pinnedOffset;
+          LOGGER.info("Pinned end offset to {} from the next CONSUMING segment", _pinnedOffset);
+        }
+      }
+    }
+
     @Override
     public String toString() {
       return "{" + _segmentName.getSegmentName() + "," + _state + "," + _startTimeMs + "," + _winner + ","
@@ -681,9 +705,28 @@ public class SegmentCompletionManager {
       if (_isSplitCommitEnabled) {
         params.withControllerVipUrl(_controllerVipUrl);
       }
+      if (_isPauselessCommitEnabled && _pinnedOffset == null) {
+        createNextConsumingSegment(offset);
+      }
       return new SegmentCompletionProtocol.Response(params);
     }
 
+    /*
+     * Pauseless commit: create the next CONSUMING segment starting at the committing offset before the committer builds
+     * the segment, so that the servers do not stop consuming during the build and upload. If this fails, the next
+     * segment is created when the segment is committed as usual.
+     */
+    private void createNextConsumingSegment(StreamPartitionMsgOffset offset) {
+      try {
+        if (_segmentManager.createNextConsumingSegment(_realtimeTableName, _segmentName.getSegmentName(), offset)
+            != null) {
+          _pinnedOffset = offset;
+        }
+      } catch (Exception e) {
+        LOGGER.error("{}:Caught exception while creating next CONSUMING segment at offset={}", _state, offset, e);
+      }
+    }
+
     private SegmentCompletionProtocol.Response discard(String instanceId, StreamPartitionMsgOffset offset) {
       LOGGER.warn("{}:DISCARD for instance={} offset={}", _state, instanceId, offset);
       return SegmentCompletionProtocol.RESP_DISCARD;
@@ -777,6 +820,9 @@ public class SegmentCompletionManager {
      */
     private SegmentCompletionProtocol.Response HOLDING__consumed(String instanceId, StreamPartitionMsgOffset offset,
         long now, final String stopReason) {
+      if (_pinnedOffset != null) {
+        return processConsumedWithPinnedOffset(instanceId, offset);
+      }
       SegmentCompletionProtocol.Response response;
       // If we are past the max time to pick a winner, or we have heard from all replicas,
       // we are ready to pick a winner.
@@ -796,6 +842,27 @@ public class SegmentCompletionManager {
       return response;
     }
 
+    /*
+     * The next CONSUMING segment has already been created (pauseless commit), so the segment must end at the pinned
+     * offset. The first server to report the pinned offset is picked as the committer, servers behind it are asked to
+     * catch up, and servers beyond it discard their segment (and download the committed one later).
+     */
+    private SegmentCompletionProtocol.Response processConsumedWithPinnedOffset(String instanceId,
+        StreamPartitionMsgOffset offset) {
+      int comparison = offset.compareTo(_pinnedOffset);
+      if (comparison == 0) {
+        LOGGER.info("{}:Committer notified winner instance={} pinned offset={}", _state, instanceId, offset);
+        _winner = instanceId;
+        SegmentCompletionProtocol.Response response = commit(instanceId, offset);
+        _state = State.COMMITTER_NOTIFIED;
+        return response;
+      } else if (comparison < 0) {
+        return catchup(instanceId, offset);
+      } else {
+        return discard(instanceId, offset);
+      }
+    }
+
     /*
      * This not a good state to receive a commit message, but then it may be that the controller
      * failed over while in the COMMITTER_NOTIFIED state...
@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.helix.core.rebalance;
+
+import java.util.concurrent.TimeUnit;
+import org.I0Itec.zkclient.IZkDataListener;
+import org.apache.helix.BaseDataAccessor;
+import org.apache.helix.ZNRecord;
+
+
+/**
+ * The {@code ExternalViewChangeWaiter} watches the ExternalView ZNode of a table, so that the rebalancer can react to
+ * the ExternalView changes instead of polling the ExternalView periodically.
+ * <p>The waiter must be closed to remove the watch.
+ */
+class ExternalViewChangeWaiter implements IZkDataListener, AutoCloseable {
+  private final BaseDataAccessor<ZNRecord> _baseDataAccessor;
+  private final String _externalViewPath;
+  private boolean _changed;
+
+  ExternalViewChangeWaiter(BaseDataAccessor<ZNRecord> baseDataAccessor, String externalViewPath) {
+    _baseDataAccessor = baseDataAccessor;
+    _externalViewPath = externalViewPath;
+    _baseDataAccessor.subscribeDataChanges(_externalViewPath, this);
+  }
+
+  /**
+   * Waits until the ExternalView changes since the last call, or the given timeout elapses. Returns {@code true} if the
+   * ExternalView changed, {@code false} if timed out.
+   */
+  synchronized boolean await(long timeoutMs)
+      throws InterruptedException {
+    long endTimeNs = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    while (!_changed) {
+      long remainingMs = TimeUnit.NANOSECONDS.toMillis(endTimeNs - System.nanoTime());
+      if (remainingMs <= 0) {
+        return false;
+      }
+      wait(remainingMs);
+    }
+    _changed = false;
+    return true;
+  }
+
+  @Override
+  public synchronized void handleDataChange(String dataPath, Object data) {
+    _changed = true;
+    notifyAll();
+  }
+
+  @Override
+  public synchronized void handleDataDeleted(String dataPath) {
+    _changed = true;
+    notifyAll();
+  }
+
+  @Override
+  public void close() {
+    _baseDataAccessor.unsubscribeDataChanges(_externalViewPath, this);
+  }
+}
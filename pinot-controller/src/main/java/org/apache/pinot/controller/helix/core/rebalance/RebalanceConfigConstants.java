@@ -55,4 +55,15 @@ public class RebalanceConfigConstants {
   // - ExternalView has not converged within the maximum wait time -> continue to the next stage
   public static final String BEST_EFFORTS = "bestEfforts";
   public static final boolean DEFAULT_BEST_EFFORTS = false;
+
+  // For no-downtime rebalance, maximum number of segments that can be moved to (downloaded by) a server at the same
+  // time. When this or the download bandwidth below is set to a positive value, the table is rebalanced in throttled
+  // mode: each segment is moved as soon as its previous move converges in ExternalView and the budgets of the target
+  // servers allow, instead of moving all the segments in steps
+  public static final String MAX_CONCURRENT_MOVES_PER_SERVER = "maxConcurrentMovesPerServer";
+  public static final int DEFAULT_MAX_CONCURRENT_MOVES_PER_SERVER = -1;
+
+  // For no-downtime rebalance in throttled mode, maximum bytes per second a server can download for the rebalance
+  public static final String MAX_DOWNLOAD_BYTES_PER_SECOND_PER_SERVER = "maxDownloadBytesPerSecondPerServer";
+  public static final long DEFAULT_MAX_DOWNLOAD_BYTES_PER_SECOND_PER_SERVER = -1L;
 }
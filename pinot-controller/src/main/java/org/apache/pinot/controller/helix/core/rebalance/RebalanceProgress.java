@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.helix.core.rebalance;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+
+/**
+ * Progress of an ongoing (or finished) no-downtime table rebalance, kept in memory on the controller running the
+ * rebalance.
+ * <p>A segment move is adding a segment to an instance; the number of moves and bytes to move are calculated from the
+ * segment assignment that ExternalView converged to and the target segment assignment. The estimated remaining time is
+ * extrapolated from the rate of the finished moves (by bytes if segment sizes are known, by number of moves otherwise).
+ */
+@JsonPropertyOrder({"tableNameWithType", "status", "description", "startTimeMs", "lastUpdateTimeMs",
+    "numSegmentMovesTotal", "numSegmentMovesCompleted", "numSegmentMovesInProgress", "bytesToMoveTotal",
+    "bytesMoved", "estimatedTimeRemainingMs"})
+public class RebalanceProgress {
+  private final String _tableNameWithType;
+  private final long _startTimeMs;
+
+  private RebalanceResult.Status _status = RebalanceResult.Status.IN_PROGRESS;
+  private String _description = "In progress";
+  private long _lastUpdateTimeMs;
+  private long _numSegmentMovesTotal = -1;
+  private long _numSegmentMovesCompleted;
+  private int _numSegmentMovesInProgress;
+  private long _bytesToMoveTotal = -1;
+  private long _bytesMoved;
+
+  public RebalanceProgress(String tableNameWithType) {
+    _tableNameWithType = tableNameWithType;
+    _startTimeMs = System.currentTimeMillis();
+    _lastUpdateTimeMs = _startTimeMs;
+  }
+
+  /**
+   * Updates the progress with the remaining segment moves and bytes to move (including the moves in progress).
+   */
+  public synchronized void update(long numRemainingMoves, long numRemainingBytes, int numMovesInProgress) {
+    if (_numSegmentMovesTotal < 0) {
+      _numSegmentMovesTotal = numRemainingMoves;
+      _bytesToMoveTotal = numRemainingBytes;
+    }
+    // The target assignment might be re-calculated with more moves
+    _numSegmentMovesTotal = Math.max(_numSegmentMovesTotal, _numSegmentMovesCompleted + numRemainingMoves);
+    _numSegmentMovesCompleted = _numSegmentMovesTotal - numRemainingMoves;
+    _bytesToMoveTotal = Math.max(_bytesToMoveTotal, _bytesMoved + numRemainingBytes);
+    _bytesMoved = _bytesToMoveTotal - numRemainingBytes;
+    _numSegmentMovesInProgress = numMovesInProgress;
+    _lastUpdateTimeMs = System.currentTimeMillis();
+  }
+
+  public synchronized void finish(RebalanceResult.Status status, String description) {
+    _status = status;
+    _description = description;
+    _numSegmentMovesInProgress = 0;
+    _lastUpdateTimeMs = System.currentTimeMillis();
+  }
+
+  @JsonProperty
+  public String getTableNameWithType() {
+    return _tableNameWithType;
+  }
+
+  @JsonProperty
+  public synchronized RebalanceResult.Status getStatus() {
+    return _status;
+  }
+
+  @JsonProperty
+  public synchronized String getDescription() {
+    return _description;
+  }
+
+  @JsonProperty
+  public long getStartTimeMs() {
+    return _startTimeMs;
+  }
+
+  @JsonProperty
+  public synchronized long getLastUpdateTimeMs() {
+    return _lastUpdateTimeMs;
+  }
+
+  @JsonProperty
+  public synchronized long getNumSegmentMovesTotal() {
+    return _numSegmentMovesTotal;
+  }
+
+  @JsonProperty
+  public synchronized long getNumSegmentMovesCompleted() {
+    return _numSegmentMovesCompleted;
+  }
+
+  @JsonProperty
+  public synchronized int getNumSegmentMovesInProgress() {
+    return _numSegmentMovesInProgress;
+  }
+
+  @JsonProperty
+  public synchronized long getBytesToMoveTotal() {
+    return _bytesToMoveTotal;
+  }
+
+  @JsonProperty
+  public synchronized long getBytesMoved() {
+    return _bytesMoved;
+  }
+
+  /**
+   * Returns the estimated remaining time in milliseconds, {@code 0} if the rebalance is finished, or {@code -1} if it
+   * cannot be estimated yet.
+   */
+  @JsonProperty
+  public synchronized long getEstimatedTimeRemainingMs() {
+    if (_status != RebalanceResult.Status.IN_PROGRESS) {
+      return 0;
+    }
+    long elapsedTimeMs = _lastUpdateTimeMs - _startTimeMs;
+    if (_bytesMoved > 0) {
+      return elapsedTimeMs * (_bytesToMoveTotal - _bytesMoved) / _bytesMoved;
+    }
+    if (_numSegmentMovesCompleted > 0) {
+      return elapsedTimeMs * (_numSegmentMovesTotal - _numSegmentMovesCompleted) / _numSegmentMovesCompleted;
+    }
+    return -1;
+  }
+}
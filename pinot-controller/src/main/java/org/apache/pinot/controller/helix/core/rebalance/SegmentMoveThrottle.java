@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.helix.core.rebalance;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * The {@code SegmentMoveThrottle} class tracks the per-server budgets for the segments being moved to the servers
+ * during a throttled rebalance:
+ * <ul>
+ *   <li>Concurrency budget: maximum number of segments being downloaded by a server at the same time</li>
+ *   <li>
+ *     Bandwidth budget: maximum bytes per second downloaded by a server. Each admitted move reserves the download time
+ *     of the segment (size / bandwidth) on the server, and the next move can only be admitted to the server after the
+ *     reserved time elapses.
+ *   </li>
+ * </ul>
+ * A non-positive budget means unlimited. This class is not thread-safe.
+ */
+class SegmentMoveThrottle {
+  private final int _maxConcurrentMovesPerServer;
+  private final long _maxDownloadBytesPerSecondPerServer;
+  private final Map<String, Integer> _numMovesInProgressMap = new HashMap<>();
+  private final Map<String, Long> _nextAvailableTimeMsMap = new HashMap<>();
+
+  SegmentMoveThrottle(int maxConcurrentMovesPerServer, long maxDownloadBytesPerSecondPerServer) {
+    _maxConcurrentMovesPerServer = maxConcurrentMovesPerServer;
+    _maxDownloadBytesPerSecondPerServer = maxDownloadBytesPerSecondPerServer;
+  }
+
+  /**
+   * Tries to reserve the budgets for moving a segment of the given size to all the given instances. Returns
+   * {@code true} if the move is admitted (budgets are reserved on all the instances), {@code false} otherwise (no
+   * budget is reserved).
+   */
+  boolean tryAcquire(Collection<String> instances, long sizeInBytes, long currentTimeMs) {
+    for (String instance : instances) {
+      if (_maxConcurrentMovesPerServer > 0
+          && _numMovesInProgressMap.getOrDefault(instance, 0) >= _maxConcurrentMovesPerServer) {
+        return false;
+      }
+      if (_maxDownloadBytesPerSecondPerServer > 0
+          && _nextAvailableTimeMsMap.getOrDefault(instance, 0L) > currentTimeMs) {
+        return false;
+      }
+    }
+    long downloadTimeMs =
+        _maxDownloadBytesPerSecondPerServer > 0 ? sizeInBytes * 1000 / _maxDownloadBytesPerSecondPerServer : 0;
+    for (String instance : instances) {
+      _numMovesInProgressMap.merge(instance, 1, Integer::sum);
+      if (downloadTimeMs > 0) {
+        _nextAvailableTimeMsMap.merge(instance, currentTimeMs + downloadTimeMs,
+            (nextAvailableTimeMs, newTimeMs) -> Math.max(nextAvailableTimeMs, currentTimeMs) + downloadTimeMs);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Releases the concurrency budget of a finished (or aborted) move on the given instances. The reserved download time
+   * is not released so that the bandwidth budget holds across moves.
+   */
+  void release(Collection<String> instances) {
+    for (String instance : instances) {
+      _numMovesInProgressMap.computeIfPresent(instance, (k, numMovesInProgress) ->
+          numMovesInProgress > 1 ? numMovesInProgress - 1 : null);
+    }
+  }
+
+  /**
+   * Cancels a move admitted by {@link #tryAcquire} but never applied (e.g. the IdealState update failed due to version
+   * change), releasing both the concurrency budget and the reserved download time on the given instances so that the
+   * move can be re-admitted right away.
+   */
+  void cancel(Collection<String> instances, long sizeInBytes) {
+    release(instances);
+    if (_maxDownloadBytesPerSecondPerServer > 0) {
+      long downloadTimeMs = sizeInBytes * 1000 / _maxDownloadBytesPerSecondPerServer;
+      if (downloadTimeMs > 0) {
+        for (String instance : instances) {
+          _nextAvailableTimeMsMap.computeIfPresent(instance,
+              (k, nextAvailableTimeMs) -> nextAvailableTimeMs - downloadTimeMs);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the time in milliseconds until the bandwidth budget of any server becomes available, or {@code 0} if there
+   * is no pending reservation.
+   */
+  long getWaitTimeMs(long currentTimeMs) {
+    long waitTimeMs = 0;
+    for (long nextAvailableTimeMs : _nextAvailableTimeMsMap.values()) {
+      if (nextAvailableTimeMs > currentTimeMs) {
+        long timeMs = nextAvailableTimeMs - currentTimeMs;
+        waitTimeMs = waitTimeMs == 0 ? timeMs : Math.min(waitTimeMs, timeMs);
+      }
+    }
+    return waitTimeMs;
+  }
+}
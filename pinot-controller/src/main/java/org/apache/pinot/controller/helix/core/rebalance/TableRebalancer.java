@@ -20,13 +20,18 @@ package org.apache.pinot.controller.helix.core.rebalance;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
 import org.I0Itec.zkclient.exception.ZkBadVersionException;
 import org.apache.commons.configuration.Configuration;
 import org.apache.helix.AccessOption;
@@ -39,6 +44,8 @@ import org.apache.helix.model.IdealState;
 import org.apache.pinot.common.assignment.InstanceAssignmentConfigUtils;
 import org.apache.pinot.common.assignment.InstancePartitions;
 import org.apache.pinot.common.assignment.InstancePartitionsUtils;
+import org.apache.pinot.common.assignment.SegmentLoadStats;
+import org.apache.pinot.common.assignment.SegmentLoadStats.SegmentLoad;
 import org.apache.pinot.common.tier.PinotServerTierStorage;
 import org.apache.pinot.common.tier.Tier;
 import org.apache.pinot.common.tier.TierFactory;
@@ -93,9 +100,18 @@ import org.slf4j.LoggerFactory;
  *         ExternalView has not converged within the maximum wait time -> with best-efforts, continue to the next stage
  *       </li>
  *     </ul>
+ *     <p>By default, segments are moved in steps: the next step only starts after ExternalView converges for all the
+ *     segments. If a per-server concurrency or download bandwidth budget is configured, the table is rebalanced in
+ *     throttled mode instead: each segment is moved directly from its current instances to its target instances as
+ *     soon as its previous move converges and the budgets of the target servers allow, and the rebalancer reacts to
+ *     the ExternalView changes instead of polling. Larger segments are moved first so that the long downloads are not
+ *     left to the end.
  *   </li>
  * </ul>
  *
+ * <p>The progress of a no-downtime rebalance (segment moves and bytes moved, estimated remaining time) can be tracked
+ * with a {@link RebalanceProgress}. Segment sizes are read from the segment load stats if available.
+ *
  * <p>NOTE: If the controller that handles the rebalance goes down/restarted, the rebalance isn't automatically resumed
  * by other controllers.
  */
@@ -105,6 +121,8 @@ public class TableRebalancer {
   // TODO: make them configurable
   private static final long EXTERNAL_VIEW_CHECK_INTERVAL_MS = 1_000L; // 1 second
   private static final long EXTERNAL_VIEW_STABILIZATION_MAX_WAIT_MS = 60 * 60_000L; // 1 hour
+  // In throttled mode, ExternalView is re-checked at least once within this interval in case a change event is missed
+  private static final long EXTERNAL_VIEW_CHANGE_MAX_WAIT_MS = 30_000L; // 30 seconds
 
   private final HelixManager _helixManager;
   private final HelixDataAccessor _helixDataAccessor;
@@ -115,6 +133,24 @@ public class TableRebalancer {
   }
 
   public RebalanceResult rebalance(TableConfig tableConfig, Configuration rebalanceConfig) {
+    return rebalance(tableConfig, rebalanceConfig, null);
+  }
+
+  /**
+   * Rebalances the table, and tracks the progress of the rebalance with the given {@link RebalanceProgress} if it is
+   * not {@code null}.
+   */
+  public RebalanceResult rebalance(TableConfig tableConfig, Configuration rebalanceConfig,
+      @Nullable RebalanceProgress progress) {
+    RebalanceResult rebalanceResult = doRebalance(tableConfig, rebalanceConfig, progress);
+    if (progress != null) {
+      progress.finish(rebalanceResult.getStatus(), rebalanceResult.getDescription());
+    }
+    return rebalanceResult;
+  }
+
+  private RebalanceResult doRebalance(TableConfig tableConfig, Configuration rebalanceConfig,
+      @Nullable RebalanceProgress progress) {
     long startTimeMs = System.currentTimeMillis();
     String tableNameWithType = tableConfig.getTableName();
 
@@ -136,10 +172,17 @@ public class TableRebalancer {
             .equalsIgnoreCase(tableConfig.getRoutingConfig().getInstanceSelectorType());
     boolean bestEfforts = rebalanceConfig
         .getBoolean(RebalanceConfigConstants.BEST_EFFORTS, RebalanceConfigConstants.DEFAULT_BEST_EFFORTS);
+    int maxConcurrentMovesPerServer = rebalanceConfig
+        .getInt(RebalanceConfigConstants.MAX_CONCURRENT_MOVES_PER_SERVER,
+            RebalanceConfigConstants.DEFAULT_MAX_CONCURRENT_MOVES_PER_SERVER);
+    long maxDownloadBytesPerSecondPerServer = rebalanceConfig
+        .getLong(RebalanceConfigConstants.MAX_DOWNLOAD_BYTES_PER_SECOND_PER_SERVER,
+            RebalanceConfigConstants.DEFAULT_MAX_DOWNLOAD_BYTES_PER_SECOND_PER_SERVER);
     LOGGER.info(
-        "Start rebalancing table: {} with dryRun: {}, reassignInstances: {}, includeConsuming: {}, bootstrap: {}, downtime: {}, minReplicasToKeepUpForNoDowntime: {}, enableStrictReplicaGroup: {}, bestEfforts: {}",
+        "Start rebalancing table: {} with dryRun: {}, reassignInstances: {}, includeConsuming: {}, bootstrap: {}, downtime: {}, minReplicasToKeepUpForNoDowntime: {}, enableStrictReplicaGroup: {}, bestEfforts: {}, maxConcurrentMovesPerServer: {}, maxDownloadBytesPerSecondPerServer: {}",
         tableNameWithType, dryRun, reassignInstances, includeConsuming, bootstrap, downtime,
-        minReplicasToKeepUpForNoDowntime, enableStrictReplicaGroup, bestEfforts);
+        minReplicasToKeepUpForNoDowntime, enableStrictReplicaGroup, bestEfforts, maxConcurrentMovesPerServer,
+        maxDownloadBytesPerSecondPerServer);
 
     // Validate table config
     try {
@@ -341,6 +384,20 @@ public class TableRebalancer {
       minAvailableReplicas = Math.max(numReplicas + minReplicasToKeepUpForNoDowntime, 0);
     }
 
+    Map<String, Long> segmentSizes = getSegmentSizes(tableNameWithType, currentAssignment.keySet());
+    if (maxConcurrentMovesPerServer > 0 || maxDownloadBytesPerSecondPerServer > 0) {
+      if (enableStrictReplicaGroup) {
+        // Moving segments independently could break the strict replica-group routing, fall back to moving in steps
+        LOGGER.warn("Throttled rebalance is not supported with strict replica-group routing for table: {}, moving "
+            + "segments in steps", tableNameWithType);
+      } else {
+        return rebalanceWithThrottle(tableNameWithType, segmentAssignment, targetAssignment, instancePartitionsMap,
+            sortedTiers, tierToInstancePartitionMap, rebalanceConfig, minAvailableReplicas, bestEfforts,
+            new SegmentMoveThrottle(maxConcurrentMovesPerServer, maxDownloadBytesPerSecondPerServer), segmentSizes,
+            progress, startTimeMs);
+      }
+    }
+
     LOGGER.info("Rebalancing table: {} with minAvailableReplicas: {}, enableStrictReplicaGroup: {}, bestEfforts: {}",
         tableNameWithType, minAvailableReplicas, enableStrictReplicaGroup, bestEfforts);
     int expectedVersion = currentIdealState.getRecord().getVersion();
@@ -378,6 +435,7 @@ public class TableRebalancer {
               targetAssignment);
         }
       }
+      updateProgress(progress, currentAssignment, targetAssignment, segmentSizes, Collections.emptyMap());
 
       if (currentAssignment.equals(targetAssignment)) {
         LOGGER.info(
@@ -422,6 +480,220 @@ public class TableRebalancer {
     }
   }
 
+  /**
+   * Rebalances the table without downtime in throttled mode. Each segment is moved independently: the IdealState of a
+   * segment is advanced (see {@link #getNextSingleSegmentAssignment}) as soon as its previous move converges in
+   * ExternalView and the budgets of the target servers allow.
+   */
+  private RebalanceResult rebalanceWithThrottle(String tableNameWithType, SegmentAssignment segmentAssignment,
+      Map<String, Map<String, String>> targetAssignment,
+      Map<InstancePartitionsType, InstancePartitions> instancePartitionsMap, @Nullable List<Tier> sortedTiers,
+      @Nullable Map<String, InstancePartitions> tierToInstancePartitionMap, Configuration rebalanceConfig,
+      int minAvailableReplicas, boolean bestEfforts, SegmentMoveThrottle throttle, Map<String, Long> segmentSizes,
+      @Nullable RebalanceProgress progress, long startTimeMs) {
+    LOGGER.info("Rebalancing table: {} in throttled mode with minAvailableReplicas: {}, bestEfforts: {}",
+        tableNameWithType, minAvailableReplicas, bestEfforts);
+    PropertyKey idealStatePropertyKey = _helixDataAccessor.keyBuilder().idealStates(tableNameWithType);
+    PropertyKey externalViewPropertyKey = _helixDataAccessor.keyBuilder().externalView(tableNameWithType);
+
+    // Wait for ExternalView to converge before moving any segment, so that all the current instances are serving
+    IdealState currentIdealState;
+    try {
+      currentIdealState = waitForExternalViewToConverge(tableNameWithType, bestEfforts);
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while waiting for ExternalView to converge for table: {}, aborting the rebalance",
+          tableNameWithType, e);
+      return new RebalanceResult(RebalanceResult.Status.FAILED,
+          "Caught exception while waiting for ExternalView to converge: " + e, instancePartitionsMap, targetAssignment);
+    }
+    Map<String, Map<String, String>> currentAssignment = null;
+    int expectedVersion = -1;
+    Map<String, SegmentMove> segmentMovesInProgress = new HashMap<>();
+    long lastMoveFinishedTimeMs = System.currentTimeMillis();
+
+    try (ExternalViewChangeWaiter externalViewChangeWaiter = new ExternalViewChangeWaiter(
+        _helixDataAccessor.getBaseDataAccessor(), externalViewPropertyKey.getPath())) {
+      while (true) {
+        // Re-calculate the target assignment if IdealState is changed by others
+        if (currentIdealState.getRecord().getVersion() != expectedVersion) {
+          if (currentAssignment != null) {
+            LOGGER.info("IdealState version changed for table: {}, re-calculating the target assignment",
+                tableNameWithType);
+          }
+          try {
+            currentAssignment = currentIdealState.getRecord().getMapFields();
+            targetAssignment = segmentAssignment
+                .rebalanceTable(currentAssignment, instancePartitionsMap, sortedTiers, tierToInstancePartitionMap,
+                    rebalanceConfig);
+            expectedVersion = currentIdealState.getRecord().getVersion();
+          } catch (Exception e) {
+            LOGGER.warn(
+                "Caught exception while re-calculating the target assignment for table: {}, aborting the rebalance",
+                tableNameWithType, e);
+            return new RebalanceResult(RebalanceResult.Status.FAILED,
+                "Caught exception while re-calculating the target assignment: " + e, instancePartitionsMap,
+                targetAssignment);
+          }
+        }
+
+        // Finish the segment moves that converged in ExternalView
+        long currentTimeMs = System.currentTimeMillis();
+        try {
+          ExternalView externalView = _helixDataAccessor.getProperty(externalViewPropertyKey);
+          Map<String, Map<String, String>> externalViewAssignment =
+              externalView != null ? externalView.getRecord().getMapFields() : Collections.emptyMap();
+          Iterator<Map.Entry<String, SegmentMove>> iterator = segmentMovesInProgress.entrySet().iterator();
+          while (iterator.hasNext()) {
+            Map.Entry<String, SegmentMove> entry = iterator.next();
+            String segmentName = entry.getKey();
+            Map<String, String> instanceStateMap = currentAssignment.get(segmentName);
+            // Segment might be deleted while moving
+            if (instanceStateMap == null || isExternalViewConverged(tableNameWithType, externalViewAssignment,
+                Collections.singletonMap(segmentName, instanceStateMap), bestEfforts)) {
+              throttle.release(entry.getValue()._instances);
+              iterator.remove();
+              lastMoveFinishedTimeMs = currentTimeMs;
+            }
+          }
+        } catch (Exception e) {
+          LOGGER.warn("Caught exception while checking ExternalView for table: {}, aborting the rebalance",
+              tableNameWithType, e);
+          return new RebalanceResult(RebalanceResult.Status.FAILED,
+              "Caught exception while checking ExternalView: " + e, instancePartitionsMap, targetAssignment);
+        }
+        if (!segmentMovesInProgress.isEmpty()
+            && currentTimeMs - lastMoveFinishedTimeMs > EXTERNAL_VIEW_STABILIZATION_MAX_WAIT_MS) {
+          if (bestEfforts) {
+            LOGGER.warn(
+                "No segment move converged in ExternalView within: {}ms for table: {}, continuing the rebalance "
+                    + "(best-efforts)", EXTERNAL_VIEW_STABILIZATION_MAX_WAIT_MS, tableNameWithType);
+            for (SegmentMove segmentMove : segmentMovesInProgress.values()) {
+              throttle.release(segmentMove._instances);
+            }
+            segmentMovesInProgress.clear();
+            lastMoveFinishedTimeMs = currentTimeMs;
+          } else {
+            LOGGER.warn("No segment move converged in ExternalView within: {}ms for table: {}, aborting the rebalance",
+                EXTERNAL_VIEW_STABILIZATION_MAX_WAIT_MS, tableNameWithType);
+            return new RebalanceResult(RebalanceResult.Status.FAILED,
+                "Timeout while waiting for ExternalView to converge", instancePartitionsMap, targetAssignment);
+          }
+        }
+
+        if (segmentMovesInProgress.isEmpty() && currentAssignment.equals(targetAssignment)) {
+          updateProgress(progress, currentAssignment, targetAssignment, segmentSizes, segmentMovesInProgress);
+          LOGGER.info("Finished rebalancing table: {} in throttled mode with minAvailableReplicas: {}, bestEfforts: {} "
+                  + "in {}ms.", tableNameWithType, minAvailableReplicas, bestEfforts,
+              System.currentTimeMillis() - startTimeMs);
+          return new RebalanceResult(RebalanceResult.Status.DONE,
+              "Success in throttled mode with minAvailableReplicas: " + minAvailableReplicas
+                  + " (both IdealState and ExternalView should reach the target segment assignment)",
+              instancePartitionsMap, targetAssignment);
+        }
+
+        boolean versionChanged = false;
+        Map<String, SegmentMove> newSegmentMoves = new HashMap<>();
+        Map<String, Map<String, String>> nextAssignment =
+            getNextThrottledAssignment(currentAssignment, targetAssignment, minAvailableReplicas,
+                segmentMovesInProgress.keySet(), throttle, segmentSizes, currentTimeMs, newSegmentMoves);
+        if (!nextAssignment.equals(currentAssignment)) {
+          // Reuse current IdealState to update the IdealState in cluster
+          ZNRecord idealStateRecord = currentIdealState.getRecord();
+          idealStateRecord.setMapFields(nextAssignment);
+          currentIdealState.setNumPartitions(nextAssignment.size());
+          currentIdealState.setReplicas(Integer.toString(nextAssignment.values().iterator().next().size()));
+
+          // Check version and update IdealState
+          try {
+            Preconditions.checkState(_helixDataAccessor.getBaseDataAccessor()
+                    .set(idealStatePropertyKey.getPath(), idealStateRecord, expectedVersion, AccessOption.PERSISTENT),
+                "Failed to update IdealState");
+            currentAssignment = nextAssignment;
+            expectedVersion++;
+            segmentMovesInProgress.putAll(newSegmentMoves);
+            LOGGER.info("Updated the IdealState for table: {} with {} new segment moves, {} segment moves in progress",
+                tableNameWithType, newSegmentMoves.size(), segmentMovesInProgress.size());
+          } catch (ZkBadVersionException e) {
+            LOGGER.info("Version changed while updating IdealState for table: {}", tableNameWithType);
+            versionChanged = true;
+            // The new segment moves are not applied, release all their reserved budgets before retrying
+            for (SegmentMove segmentMove : newSegmentMoves.values()) {
+              throttle.cancel(segmentMove._instances, segmentMove._sizeInBytes);
+            }
+          } catch (Exception e) {
+            LOGGER.warn("Caught exception while updating IdealState for table: {}, aborting the rebalance",
+                tableNameWithType, e);
+            return new RebalanceResult(RebalanceResult.Status.FAILED,
+                "Caught exception while updating IdealState: " + e, instancePartitionsMap, targetAssignment);
+          }
+        }
+        updateProgress(progress, currentAssignment, targetAssignment, segmentSizes, segmentMovesInProgress);
+
+        // Wait for ExternalView to change, or the download bandwidth budget to be available
+        if (!versionChanged) {
+          long waitTimeMs = EXTERNAL_VIEW_CHANGE_MAX_WAIT_MS;
+          long throttleWaitTimeMs = throttle.getWaitTimeMs(System.currentTimeMillis());
+          if (throttleWaitTimeMs > 0) {
+            waitTimeMs = Math.min(waitTimeMs, throttleWaitTimeMs);
+          }
+          externalViewChangeWaiter.await(waitTimeMs);
+        }
+
+        try {
+          currentIdealState = _helixDataAccessor.getProperty(idealStatePropertyKey);
+          // IdealState might be null if table got deleted, throwing exception to abort the rebalance
+          Preconditions.checkState(currentIdealState != null, "Failed to find the IdealState");
+        } catch (Exception e) {
+          LOGGER.warn("Caught exception while fetching IdealState for table: {}, aborting the rebalance",
+              tableNameWithType, e);
+          return new RebalanceResult(RebalanceResult.Status.FAILED, "Caught exception while fetching IdealState: " + e,
+              instancePartitionsMap, targetAssignment);
+        }
+      }
+    } catch (InterruptedException e) {
+      LOGGER.warn("Interrupted while rebalancing table: {}, aborting the rebalance", tableNameWithType);
+      Thread.currentThread().interrupt();
+      return new RebalanceResult(RebalanceResult.Status.FAILED, "Interrupted while rebalancing table",
+          instancePartitionsMap, targetAssignment);
+    }
+  }
+
+  /**
+   * Returns the segment sizes from the segment load stats, where the segments without size use the average size of the
+   * other segments. Returns an empty map if the segment sizes are not available.
+   */
+  private Map<String, Long> getSegmentSizes(String tableNameWithType, Set<String> segments) {
+    SegmentLoadStats segmentLoadStats;
+    try {
+      segmentLoadStats =
+          SegmentLoadStats.fetchSegmentLoadStats(_helixManager.getHelixPropertyStore(), tableNameWithType);
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while fetching segment load stats for table: {}", tableNameWithType, e);
+      return Collections.emptyMap();
+    }
+    if (segmentLoadStats == null) {
+      LOGGER.info("Segment sizes are not available for table: {}, tracking rebalance by number of segments",
+          tableNameWithType);
+      return Collections.emptyMap();
+    }
+    Map<String, Long> segmentSizes = new HashMap<>();
+    long totalSizeInBytes = 0;
+    for (String segmentName : segments) {
+      SegmentLoad segmentLoad = segmentLoadStats.getSegmentLoadMap().get(segmentName);
+      if (segmentLoad != null) {
+        segmentSizes.put(segmentName, segmentLoad.getSizeInBytes());
+        totalSizeInBytes += segmentLoad.getSizeInBytes();
+      }
+    }
+    if (!segmentSizes.isEmpty() && segmentSizes.size() < segments.size()) {
+      long averageSizeInBytes = totalSizeInBytes / segmentSizes.size();
+      for (String segmentName : segments) {
+        segmentSizes.putIfAbsent(segmentName, averageSizeInBytes);
+      }
+    }
+    return segmentSizes;
+  }
+
   private InstancePartitions getInstancePartitions(TableConfig tableConfig,
       InstancePartitionsType instancePartitionsType, boolean reassignInstances, boolean dryRun) {
     String tableNameWithType = tableConfig.getTableName();
@@ -619,6 +891,85 @@ public class TableRebalancer {
     return nextAssignment;
   }
 
+  /**
+   * Returns the next assignment for the table in throttled mode. For each segment not being moved and not yet reaching
+   * the target assignment (from the largest to the smallest), compute its next assignment with regards to the minimum
+   * available replicas requirement (see {@link #getNextSingleSegmentAssignment}). If the next assignment only removes
+   * instances, apply it directly; if it adds instances, apply it only if the budgets of all the added instances allow,
+   * and put the move into the new segment moves.
+   */
+  @VisibleForTesting
+  static Map<String, Map<String, String>> getNextThrottledAssignment(
+      Map<String, Map<String, String>> currentAssignment, Map<String, Map<String, String>> targetAssignment,
+      int minAvailableReplicas, Set<String> segmentsInProgress, SegmentMoveThrottle throttle,
+      Map<String, Long> segmentSizes, long currentTimeMs, Map<String, SegmentMove> newSegmentMoves) {
+    List<String> segmentsToMove = new ArrayList<>();
+    for (Map.Entry<String, Map<String, String>> entry : currentAssignment.entrySet()) {
+      String segmentName = entry.getKey();
+      if (!segmentsInProgress.contains(segmentName) && !entry.getValue().equals(targetAssignment.get(segmentName))) {
+        segmentsToMove.add(segmentName);
+      }
+    }
+    // Move the larger segments first so that the long downloads are not left to the end
+    segmentsToMove.sort(
+        Comparator.comparingLong((String segmentName) -> segmentSizes.getOrDefault(segmentName, 0L)).reversed());
+
+    Map<String, Map<String, String>> nextAssignment = new TreeMap<>(currentAssignment);
+    for (String segmentName : segmentsToMove) {
+      Map<String, String> currentInstanceStateMap = currentAssignment.get(segmentName);
+      Map<String, String> nextInstanceStateMap =
+          getNextSingleSegmentAssignment(currentInstanceStateMap, targetAssignment.get(segmentName),
+              minAvailableReplicas)._instanceStateMap;
+      List<String> instancesToAdd = new ArrayList<>();
+      for (String instanceName : nextInstanceStateMap.keySet()) {
+        if (!currentInstanceStateMap.containsKey(instanceName)) {
+          instancesToAdd.add(instanceName);
+        }
+      }
+      if (instancesToAdd.isEmpty()) {
+        nextAssignment.put(segmentName, nextInstanceStateMap);
+      } else {
+        long sizeInBytes = segmentSizes.getOrDefault(segmentName, 0L);
+        if (throttle.tryAcquire(instancesToAdd, sizeInBytes, currentTimeMs)) {
+          nextAssignment.put(segmentName, nextInstanceStateMap);
+          newSegmentMoves.put(segmentName, new SegmentMove(instancesToAdd, sizeInBytes));
+        }
+      }
+    }
+    return nextAssignment;
+  }
+
+  /**
+   * Updates the rebalance progress with the remaining segment moves from the current assignment (segment moves in
+   * progress are counted as remaining) to the target assignment.
+   */
+  private static void updateProgress(@Nullable RebalanceProgress progress,
+      Map<String, Map<String, String>> currentAssignment, Map<String, Map<String, String>> targetAssignment,
+      Map<String, Long> segmentSizes, Map<String, SegmentMove> segmentMovesInProgress) {
+    if (progress == null) {
+      return;
+    }
+    long numRemainingMoves = 0;
+    long numRemainingBytes = 0;
+    for (Map.Entry<String, Map<String, String>> entry : targetAssignment.entrySet()) {
+      String segmentName = entry.getKey();
+      Map<String, String> currentInstanceStateMap = currentAssignment.get(segmentName);
+      int numInstancesToAdd = 0;
+      for (String instanceName : entry.getValue().keySet()) {
+        if (currentInstanceStateMap == null || !currentInstanceStateMap.containsKey(instanceName)) {
+          numInstancesToAdd++;
+        }
+      }
+      numRemainingMoves += numInstancesToAdd;
+      numRemainingBytes += numInstancesToAdd * segmentSizes.getOrDefault(segmentName, 0L);
+    }
+    for (SegmentMove segmentMove : segmentMovesInProgress.values()) {
+      numRemainingMoves += segmentMove._instances.size();
+      numRemainingBytes += segmentMove._instances.size() * segmentMove._sizeInBytes;
+    }
+    progress.update(numRemainingMoves, numRemainingBytes, segmentMovesInProgress.size());
+  }
+
   /**
    * Returns the next assignment for a segment based on the current instance state map and the target instance state map
    * with regards to the minimum available replicas requirement.
@@ -682,4 +1033,18 @@ public class TableRebalancer {
       _availableInstances = availableInstances;
     }
   }
+
+  /**
+   * Segment move in throttled mode (adding a segment to the instances).
+   */
+  @VisibleForTesting
+  static class SegmentMove {
+    final List<String> _instances;
+    final long _sizeInBytes;
+
+    SegmentMove(List<String> instances, long sizeInBytes) {
+      _instances = instances;
+      _sizeInBytes = sizeInBytes;
+    }
+  }
 }
@@ -0,0 +1,101 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.helix.core.relocation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import org.apache.commons.httpclient.HttpConnectionManager;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.pinot.common.assignment.SegmentLoadStats;
+import org.apache.pinot.common.assignment.SegmentLoadStats.SegmentLoad;
+import org.apache.pinot.common.metrics.ControllerMetrics;
+import org.apache.pinot.common.restlet.resources.SegmentSizeInfo;
+import org.apache.pinot.controller.ControllerConf;
+import org.apache.pinot.controller.LeadControllerManager;
+import org.apache.pinot.controller.helix.core.PinotHelixResourceManager;
+import org.apache.pinot.controller.helix.core.assignment.segment.SegmentAssignmentUtils;
+import org.apache.pinot.controller.helix.core.periodictask.ControllerPeriodicTask;
+import org.apache.pinot.controller.util.SegmentQueryStatsReader;
+import org.apache.pinot.controller.util.TableSizeReader;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Periodic task to collect the on-disk size and the recent number of queries of each segment from the servers for the
+ * tables using the load-aware segment assignment, and persist them as {@link SegmentLoadStats} into the property store
+ * so that the segment assignment and the table rebalancer can balance the load across the instances.
+ */
+public class SegmentLoadStatsUpdater extends ControllerPeriodicTask<Void> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentLoadStatsUpdater.class);
+
+  private final Executor _executor;
+  private final HttpConnectionManager _connectionManager;
+  private final int _serverAdminRequestTimeoutMs;
+
+  public SegmentLoadStatsUpdater(PinotHelixResourceManager pinotHelixResourceManager,
+      LeadControllerManager leadControllerManager, ControllerConf config, ControllerMetrics controllerMetrics,
+      Executor executor) {
+    super(SegmentLoadStatsUpdater.class.getSimpleName(), config.getSegmentLoadStatsUpdaterFrequencyInSeconds(),
+        config.getPeriodicTaskInitialDelayInSeconds(), pinotHelixResourceManager, leadControllerManager,
+        controllerMetrics);
+    _executor = executor;
+    _connectionManager = new MultiThreadedHttpConnectionManager();
+    _serverAdminRequestTimeoutMs = config.getServerAdminRequestTimeoutSeconds() * 1000;
+  }
+
+  @Override
+  protected void processTable(String tableNameWithType) {
+    TableConfig tableConfig = _pinotHelixResourceManager.getTableConfig(tableNameWithType);
+    if (tableConfig == null || !SegmentAssignmentUtils.isLoadAwareSegmentAssignment(tableConfig)) {
+      return;
+    }
+
+    try {
+      Map<String, SegmentLoad> segmentLoadMap = new HashMap<>();
+      Map<String, Long> numQueriesPerSegment =
+          new SegmentQueryStatsReader(_executor, _connectionManager, _pinotHelixResourceManager)
+              .getNumQueriesPerSegment(tableNameWithType, _serverAdminRequestTimeoutMs);
+      Map<String, TableSizeReader.SegmentSizeDetails> segmentSizeDetailsMap =
+          new TableSizeReader(_executor, _connectionManager, _controllerMetrics, _pinotHelixResourceManager)
+              .getTableSubtypeSize(tableNameWithType, _serverAdminRequestTimeoutMs).segments;
+      for (Map.Entry<String, TableSizeReader.SegmentSizeDetails> entry : segmentSizeDetailsMap.entrySet()) {
+        String segmentName = entry.getKey();
+        // Use the max size reported by the replicas as the segment size
+        long sizeInBytes = -1;
+        for (SegmentSizeInfo segmentSizeInfo : entry.getValue().serverInfo.values()) {
+          sizeInBytes = Math.max(sizeInBytes, segmentSizeInfo.diskSizeInBytes);
+        }
+        if (sizeInBytes >= 0) {
+          segmentLoadMap.put(segmentName,
+              new SegmentLoad(sizeInBytes, numQueriesPerSegment.getOrDefault(segmentName, 0L)));
+        }
+      }
+      SegmentLoadStats.persistSegmentLoadStats(_pinotHelixResourceManager.getPropertyStore(),
+          new SegmentLoadStats(tableNameWithType, System.currentTimeMillis(), segmentLoadMap));
+      SegmentAssignmentUtils.invalidateSegmentLoadStats(_pinotHelixResourceManager.getHelixZkManager(),
+          tableNameWithType);
+      LOGGER.info("Updated load stats of {} segments for table: {}", segmentLoadMap.size(), tableNameWithType);
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while updating segment load stats for table: {}", tableNameWithType, e);
+    }
+  }
+}
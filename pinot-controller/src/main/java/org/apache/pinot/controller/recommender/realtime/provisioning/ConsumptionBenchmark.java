@@ -0,0 +1,486 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.recommender.realtime.provisioning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.RateLimiter;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.core.plan.maker.PlanMaker;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.local.indexsegment.mutable.MutableSegmentImpl;
+import org.apache.pinot.segment.local.io.writer.impl.DirectMemoryManager;
+import org.apache.pinot.segment.local.realtime.converter.RealtimeSegmentConverter;
+import org.apache.pinot.segment.local.realtime.impl.RealtimeSegmentConfig;
+import org.apache.pinot.segment.local.realtime.impl.RealtimeSegmentStatsHistory;
+import org.apache.pinot.segment.local.recordtransformer.CompositeTransformer;
+import org.apache.pinot.segment.local.recordtransformer.RecordTransformer;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.spi.config.table.IndexingConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.RecordReader;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Measures the actual cost of consuming a table by replaying sample rows through a {@link MutableSegmentImpl} that is
+ * configured with the table's index config, the same way a server consumes a stream partition.
+ * <p>Unlike {@link MemoryEstimator}, which derives the consuming segment memory from the stats of a sample segment,
+ * this class measures:
+ * <ul>
+ *   <li>Ingestion throughput per core (rows indexed per CPU second of the consuming thread)</li>
+ *   <li>Off-heap and heap growth of the consuming segment</li>
+ *   <li>Time to build the completed segment on commit, and its size</li>
+ *   <li>Latency of a query on the consuming segment as it grows</li>
+ * </ul>
+ * The measurements are extrapolated linearly by {@link #recommend} to pick the rows per segment and number of hosts.
+ */
+public class ConsumptionBenchmark {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConsumptionBenchmark.class);
+
+  private static final String STATS_FILE_NAME = "benchmark.stats.ser";
+  private static final String SEGMENT_DIR_NAME = "benchmark-segment";
+  // Fraction of the cores of a host that can be used for consumption, the rest is left for queries and commits
+  private static final double MAX_CONSUMPTION_CPU_FRACTION = 0.5;
+
+  private final TableConfig _tableConfig;
+  private final Schema _schema;
+  private final File _workingDir;
+  private final int _numRowsToIndex;
+  private final int _rowsPerSecond;
+  private final String _query;
+  private final int _numQuerySamples;
+
+  /**
+   * @param numRowsToIndex number of rows to index into the consuming segment, sample rows are replayed if needed
+   * @param rowsPerSecond rate at which rows are indexed, or non-positive to index as fast as possible
+   * @param query SQL query to run on the consuming segment, or null to skip measuring query latency
+   * @param numQuerySamples number of times the query is run, evenly spread across the ingestion
+   */
+  public ConsumptionBenchmark(TableConfig tableConfig, Schema schema, File workingDir, int numRowsToIndex,
+      int rowsPerSecond, @Nullable String query, int numQuerySamples) {
+    Preconditions.checkArgument(numRowsToIndex > 0, "Number of rows to index must be positive");
+    _tableConfig = tableConfig;
+    _schema = schema;
+    _workingDir = workingDir;
+    _numRowsToIndex = numRowsToIndex;
+    _rowsPerSecond = rowsPerSecond;
+    _query = query;
+    _numQuerySamples = query != null ? Math.max(numQuerySamples, 1) : 0;
+  }
+
+  /**
+   * Runs the benchmark on the rows of the given record reader. The rows are first indexed once (unmeasured) to seed
+   * the stats history, as a server would have from the previously completed segments of the table, then indexed again
+   * into the measured consuming segment which is finally committed.
+   */
+  public Result run(RecordReader recordReader)
+      throws Exception {
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig(null, _tableConfig);
+    List<String> sortedColumns = indexLoadingConfig.getSortedColumns();
+    String sortedColumn =
+        !sortedColumns.isEmpty() && _schema.hasColumn(sortedColumns.get(0)) ? sortedColumns.get(0) : null;
+    Set<String> invertedIndexColumns = indexLoadingConfig.getInvertedIndexColumns();
+    if (sortedColumn != null) {
+      invertedIndexColumns.add(sortedColumn);
+    }
+    RecordTransformer recordTransformer = CompositeTransformer.getDefaultTransformer(_tableConfig, _schema);
+    String tableNameWithType = _tableConfig.getTableName();
+    File statsFile = new File(_workingDir, STATS_FILE_NAME);
+    FileUtils.forceMkdir(_workingDir);
+    try {
+      // Seed the stats history
+      MutableSegmentImpl seedSegment =
+          createMutableSegment(indexLoadingConfig, invertedIndexColumns, statsFile, "seed");
+      try {
+        indexRows(seedSegment, recordReader, recordTransformer, null, null);
+      } finally {
+        // Destroying the segment dumps its stats into the stats history
+        seedSegment.destroy();
+      }
+
+      // Measured consumption
+      String segmentName = tableNameWithType + "__benchmark__" + System.currentTimeMillis();
+      DirectMemoryManager memoryManager = new DirectMemoryManager(segmentName);
+      RealtimeSegmentStatsHistory statsHistory = RealtimeSegmentStatsHistory.deserialzeFrom(statsFile);
+      long heapBytesBefore = getUsedHeapBytes();
+      MutableSegmentImpl mutableSegment = new MutableSegmentImpl(
+          getRealtimeSegmentConfigBuilder(indexLoadingConfig, invertedIndexColumns, segmentName)
+              .setMemoryManager(memoryManager).setStatsHistory(statsHistory).build(), null);
+      try {
+        RateLimiter rateLimiter = _rowsPerSecond > 0 ? RateLimiter.create(_rowsPerSecond) : null;
+        long[] queryLatenciesNs = new long[_numQuerySamples];
+        long startTimeNs = System.nanoTime();
+        IndexingStats indexingStats =
+            indexRows(mutableSegment, recordReader, recordTransformer, rateLimiter, queryLatenciesNs);
+        long wallTimeNs = System.nanoTime() - startTimeNs;
+        long offHeapBytes = memoryManager.getTotalAllocatedBytes();
+        long heapBytes = Math.max(getUsedHeapBytes() - heapBytesBefore, 0);
+        // Rows consumed rather than docs in the segment, which can be fewer when metrics are aggregated
+        int numRowsIndexed = indexingStats._numRowsIndexed;
+        long cpuTimeNs = indexingStats._cpuTimeNs;
+        LOGGER.info("Indexed {} rows in {}ms ({}ms CPU), off-heap: {} bytes, heap: {} bytes", numRowsIndexed,
+            wallTimeNs / 1_000_000, cpuTimeNs / 1_000_000, offHeapBytes, heapBytes);
+
+        // Commit
+        File segmentOutputDir = new File(_workingDir, SEGMENT_DIR_NAME);
+        IndexingConfig indexingConfig = _tableConfig.getIndexingConfig();
+        RealtimeSegmentConverter converter =
+            new RealtimeSegmentConverter(mutableSegment, segmentOutputDir.getAbsolutePath(), _schema,
+                tableNameWithType, _tableConfig, segmentName, sortedColumn, new ArrayList<>(invertedIndexColumns),
+                new ArrayList<>(indexLoadingConfig.getTextIndexColumns()),
+                new ArrayList<>(indexLoadingConfig.getFSTIndexColumns()),
+                new ArrayList<>(indexLoadingConfig.getNoDictionaryColumns()),
+                new ArrayList<>(indexLoadingConfig.getVarLengthDictionaryColumns()),
+                indexingConfig.isNullHandlingEnabled());
+        long commitStartTimeMs = System.currentTimeMillis();
+        converter.build(indexLoadingConfig.getSegmentVersion(), null);
+        long commitBuildTimeMs = System.currentTimeMillis() - commitStartTimeMs;
+        long completedSegmentSizeBytes = FileUtils.sizeOfDirectory(new File(segmentOutputDir, segmentName));
+        LOGGER.info("Built completed segment of size: {} bytes in {}ms", completedSegmentSizeBytes, commitBuildTimeMs);
+
+        return new Result(numRowsIndexed, cpuTimeNs, wallTimeNs, offHeapBytes, heapBytes, commitBuildTimeMs,
+            completedSegmentSizeBytes, queryLatenciesNs);
+      } finally {
+        mutableSegment.destroy();
+      }
+    } finally {
+      FileUtils.deleteQuietly(_workingDir);
+    }
+  }
+
+  private MutableSegmentImpl createMutableSegment(IndexLoadingConfig indexLoadingConfig,
+      Set<String> invertedIndexColumns, File statsFile, String segmentNameSuffix)
+      throws Exception {
+    String segmentName = _tableConfig.getTableName() + "__" + segmentNameSuffix;
+    return new MutableSegmentImpl(getRealtimeSegmentConfigBuilder(indexLoadingConfig, invertedIndexColumns, segmentName)
+        .setMemoryManager(new DirectMemoryManager(segmentName))
+        .setStatsHistory(RealtimeSegmentStatsHistory.deserialzeFrom(statsFile)).build(), null);
+  }
+
+  /**
+   * Returns the consuming segment config, mirroring how the server configures a consuming segment for the table.
+   */
+  private RealtimeSegmentConfig.Builder getRealtimeSegmentConfigBuilder(IndexLoadingConfig indexLoadingConfig,
+      Set<String> invertedIndexColumns, String segmentName) {
+    IndexingConfig indexingConfig = _tableConfig.getIndexingConfig();
+    RealtimeSegmentZKMetadata segmentZKMetadata = new RealtimeSegmentZKMetadata();
+    segmentZKMetadata.setTableName(_tableConfig.getTableName());
+    segmentZKMetadata.setSegmentName(segmentName);
+    segmentZKMetadata.setCreationTime(System.currentTimeMillis());
+    return new RealtimeSegmentConfig.Builder().setTableNameWithType(_tableConfig.getTableName())
+        .setSegmentName(segmentName).setStreamName(_tableConfig.getTableName()).setSchema(_schema)
+        .setTimeColumnName(_tableConfig.getValidationConfig().getTimeColumnName()).setCapacity(_numRowsToIndex)
+        .setAvgNumMultiValues(indexLoadingConfig.getRealtimeAvgMultiValueCount())
+        .setNoDictionaryColumns(indexLoadingConfig.getNoDictionaryColumns())
+        .setVarLengthDictionaryColumns(indexLoadingConfig.getVarLengthDictionaryColumns())
+        .setInvertedIndexColumns(invertedIndexColumns).setTextIndexColumns(indexLoadingConfig.getTextIndexColumns())
+        .setFSTIndexColumns(indexLoadingConfig.getFSTIndexColumns())
+        .setJsonIndexColumns(indexLoadingConfig.getJsonIndexColumns())
+        .setZoneMapColumns(indexLoadingConfig.getZoneMapColumns())
+        .setH3IndexConfigs(indexLoadingConfig.getH3IndexConfigs())
+        .setStarTreeIndexConfigs(indexingConfig.getStarTreeIndexConfigs())
+        .setRealtimeSegmentZKMetadata(segmentZKMetadata).setOffHeap(true)
+        .setAggregateMetrics(indexingConfig.isAggregateMetrics())
+        .setNullHandlingEnabled(indexingConfig.isNullHandlingEnabled());
+  }
+
+  /**
+   * Indexes {@link #_numRowsToIndex} rows into the given segment, replaying the rows of the record reader if it does
+   * not have enough rows, or until the segment cannot take more rows. If query latencies are requested, runs the query
+   * evenly spread across the ingestion.
+   *
+   * @return number of rows indexed and CPU time spent by the current thread on indexing (excluding the queries)
+   */
+  private IndexingStats indexRows(MutableSegmentImpl mutableSegment, RecordReader recordReader,
+      RecordTransformer recordTransformer, @Nullable RateLimiter rateLimiter, @Nullable long[] queryLatenciesNs)
+      throws Exception {
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    int numQueries = queryLatenciesNs != null ? queryLatenciesNs.length : 0;
+    PlanMaker planMaker = numQueries > 0 ? new InstancePlanMakerImplV2() : null;
+    QueryContext queryContext = numQueries > 0 ? QueryContextConverterUtils.getQueryContextFromSQL(_query) : null;
+    int rowsBetweenQueries = numQueries > 0 ? Math.max(_numRowsToIndex / numQueries, 1) : Integer.MAX_VALUE;
+    int queryId = 0;
+
+    recordReader.rewind();
+    GenericRow reuse = new GenericRow();
+    int numRowsRead = 0;
+    int numReplays = 0;
+    int numRowsIndexed = 0;
+    long queryCpuTimeNs = 0;
+    long startCpuTimeNs = threadMXBean.getCurrentThreadCpuTime();
+    boolean canTakeMore = true;
+    while (canTakeMore && numRowsIndexed < _numRowsToIndex) {
+      if (!recordReader.hasNext()) {
+        Preconditions.checkState(numRowsRead > 0, "No rows in the sample data");
+        recordReader.rewind();
+        numReplays++;
+      }
+      reuse.clear();
+      GenericRow row = recordTransformer.transform(recordReader.next(reuse));
+      numRowsRead++;
+      if (row == null) {
+        continue;
+      }
+      if (rateLimiter != null) {
+        rateLimiter.acquire();
+      }
+      canTakeMore = mutableSegment.index(row, null);
+      numRowsIndexed++;
+      if (queryId < numQueries && numRowsIndexed % rowsBetweenQueries == 0) {
+        long queryStartCpuTimeNs = threadMXBean.getCurrentThreadCpuTime();
+        long queryStartTimeNs = System.nanoTime();
+        planMaker.makeSegmentPlanNode(mutableSegment, queryContext).run().nextBlock();
+        queryLatenciesNs[queryId++] = System.nanoTime() - queryStartTimeNs;
+        queryCpuTimeNs += threadMXBean.getCurrentThreadCpuTime() - queryStartCpuTimeNs;
+      }
+    }
+    if (numReplays > 0) {
+      LOGGER.warn("Replayed the sample data {} times to index {} rows, dictionary sizes might be under-estimated",
+          numReplays, numRowsIndexed);
+    }
+    return new IndexingStats(numRowsIndexed,
+        threadMXBean.getCurrentThreadCpuTime() - startCpuTimeNs - queryCpuTimeNs);
+  }
+
+  private static class IndexingStats {
+    final int _numRowsIndexed;
+    final long _cpuTimeNs;
+
+    IndexingStats(int numRowsIndexed, long cpuTimeNs) {
+      _numRowsIndexed = numRowsIndexed;
+      _cpuTimeNs = cpuTimeNs;
+    }
+  }
+
+  private static long getUsedHeapBytes() {
+    Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Recommends the number of hours to consume (and the resulting rows per segment) and the number of hosts for the
+   * table, by extrapolating the benchmark result to the given ingestion rate.
+   * <p>A combination is feasible when the active memory per host (consuming segments plus the completed segments
+   * within the retention) fits into the usable host memory, and consumption does not use more than half of the cores
+   * of the host. The smallest feasible number of hosts is picked, and for it the largest feasible number of hours to
+   * consume (i.e. the fewest segments to query and commit).
+   *
+   * @return the recommendation, or null if no combination is feasible
+   */
+  @Nullable
+  public static Recommendation recommend(Result result, int ingestionRatePerPartition, int totalConsumingPartitions,
+      int[] numHosts, int[] numHours, int retentionHours, long maxUsableHostMemory, int numCoresPerHost) {
+    int[] sortedNumHosts = Arrays.stream(numHosts).sorted().toArray();
+    int[] sortedNumHours = Arrays.stream(numHours).sorted().toArray();
+    for (int numHostsToProvision : sortedNumHosts) {
+      int numPartitionsPerHost = (totalConsumingPartitions + numHostsToProvision - 1) / numHostsToProvision;
+      double numCoresForConsumption =
+          (double) numPartitionsPerHost * ingestionRatePerPartition / result.getRowsPerCoreSecond();
+      if (numCoresForConsumption > numCoresPerHost * MAX_CONSUMPTION_CPU_FRACTION) {
+        continue;
+      }
+      for (int i = sortedNumHours.length - 1; i >= 0; i--) {
+        int numHoursToConsume = sortedNumHours[i];
+        if (numHoursToConsume > retentionHours) {
+          continue;
+        }
+        long rowsPerSegment = (long) ingestionRatePerPartition * numHoursToConsume * 3600;
+        if (rowsPerSegment > Integer.MAX_VALUE) {
+          continue;
+        }
+        long consumingBytesPerPartition = (long) (rowsPerSegment * result.getConsumingBytesPerRow());
+        long completedSegmentSizeBytes = (long) (rowsPerSegment * result.getCompletedBytesPerRow());
+        int numActiveSegmentsPerPartition = (retentionHours + numHoursToConsume - 1) / numHoursToConsume;
+        long activeMemoryPerHost = numPartitionsPerHost * (consumingBytesPerPartition
+            + completedSegmentSizeBytes * (numActiveSegmentsPerPartition - 1));
+        if (activeMemoryPerHost <= maxUsableHostMemory) {
+          return new Recommendation(numHostsToProvision, numHoursToConsume, (int) rowsPerSegment,
+              activeMemoryPerHost, numPartitionsPerHost * consumingBytesPerPartition, completedSegmentSizeBytes,
+              numCoresForConsumption, Math.round(rowsPerSegment * result.getCommitBuildTimeMsPerRow()));
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Measurements of a benchmark run.
+   */
+  public static class Result {
+    private final int _numRowsIndexed;
+    private final long _cpuTimeNs;
+    private final long _wallTimeNs;
+    private final long _offHeapBytes;
+    private final long _heapBytes;
+    private final long _commitBuildTimeMs;
+    private final long _completedSegmentSizeBytes;
+    private final long[] _queryLatenciesNs;
+
+    Result(int numRowsIndexed, long cpuTimeNs, long wallTimeNs, long offHeapBytes, long heapBytes,
+        long commitBuildTimeMs, long completedSegmentSizeBytes, long[] queryLatenciesNs) {
+      Preconditions.checkState(numRowsIndexed > 0, "No rows indexed");
+      _numRowsIndexed = numRowsIndexed;
+      _cpuTimeNs = Math.max(cpuTimeNs, 1);
+      _wallTimeNs = Math.max(wallTimeNs, 1);
+      _offHeapBytes = offHeapBytes;
+      _heapBytes = heapBytes;
+      _commitBuildTimeMs = commitBuildTimeMs;
+      _completedSegmentSizeBytes = completedSegmentSizeBytes;
+      _queryLatenciesNs = queryLatenciesNs.clone();
+      Arrays.sort(_queryLatenciesNs);
+    }
+
+    public int getNumRowsIndexed() {
+      return _numRowsIndexed;
+    }
+
+    public double getRowsPerSecond() {
+      return _numRowsIndexed * 1e9 / _wallTimeNs;
+    }
+
+    public double getRowsPerCoreSecond() {
+      return _numRowsIndexed * 1e9 / _cpuTimeNs;
+    }
+
+    public long getOffHeapBytes() {
+      return _offHeapBytes;
+    }
+
+    public long getHeapBytes() {
+      return _heapBytes;
+    }
+
+    public double getConsumingBytesPerRow() {
+      return (double) (_offHeapBytes + _heapBytes) / _numRowsIndexed;
+    }
+
+    public long getCommitBuildTimeMs() {
+      return _commitBuildTimeMs;
+    }
+
+    public double getCommitBuildTimeMsPerRow() {
+      return (double) _commitBuildTimeMs / _numRowsIndexed;
+    }
+
+    public long getCompletedSegmentSizeBytes() {
+      return _completedSegmentSizeBytes;
+    }
+
+    public double getCompletedBytesPerRow() {
+      return (double) _completedSegmentSizeBytes / _numRowsIndexed;
+    }
+
+    public int getNumQueries() {
+      return _queryLatenciesNs.length;
+    }
+
+    /**
+     * Returns the query latency at the given percentile (0-100), or -1 if no query was run.
+     */
+    public double getQueryLatencyMs(double percentile) {
+      if (_queryLatenciesNs.length == 0) {
+        return -1;
+      }
+      int index = (int) Math.ceil(percentile / 100 * _queryLatenciesNs.length) - 1;
+      return _queryLatenciesNs[Math.min(Math.max(index, 0), _queryLatenciesNs.length - 1)] / 1e6;
+    }
+  }
+
+  /**
+   * Recommended provisioning derived from a benchmark {@link Result}.
+   */
+  public static class Recommendation {
+    private final int _numHosts;
+    private final int _numHoursToConsume;
+    private final int _rowsPerSegment;
+    private final long _activeMemoryPerHostBytes;
+    private final long _consumingMemoryPerHostBytes;
+    private final long _completedSegmentSizeBytes;
+    private final double _numCoresForConsumptionPerHost;
+    private final long _commitBuildTimeMs;
+
+    Recommendation(int numHosts, int numHoursToConsume, int rowsPerSegment, long activeMemoryPerHostBytes,
+        long consumingMemoryPerHostBytes, long completedSegmentSizeBytes, double numCoresForConsumptionPerHost,
+        long commitBuildTimeMs) {
+      _numHosts = numHosts;
+      _numHoursToConsume = numHoursToConsume;
+      _rowsPerSegment = rowsPerSegment;
+      _activeMemoryPerHostBytes = activeMemoryPerHostBytes;
+      _consumingMemoryPerHostBytes = consumingMemoryPerHostBytes;
+      _completedSegmentSizeBytes = completedSegmentSizeBytes;
+      _numCoresForConsumptionPerHost = numCoresForConsumptionPerHost;
+      _commitBuildTimeMs = commitBuildTimeMs;
+    }
+
+    public int getNumHosts() {
+      return _numHosts;
+    }
+
+    public int getNumHoursToConsume() {
+      return _numHoursToConsume;
+    }
+
+    public int getRowsPerSegment() {
+      return _rowsPerSegment;
+    }
+
+    public long getActiveMemoryPerHostBytes() {
+      return _activeMemoryPerHostBytes;
+    }
+
+    public long getConsumingMemoryPerHostBytes() {
+      return _consumingMemoryPerHostBytes;
+    }
+
+    public long getCompletedSegmentSizeBytes() {
+      return _completedSegmentSizeBytes;
+    }
+
+    public double getNumCoresForConsumptionPerHost() {
+      return _numCoresForConsumptionPerHost;
+    }
+
+    public long getCommitBuildTimeMs() {
+      return _commitBuildTimeMs;
+    }
+  }
+
+  /**
+   * Returns the default query used to measure the query latency on the consuming segment.
+   */
+  public static String getDefaultQuery(TableConfig tableConfig) {
+    return "SELECT COUNT(*) FROM " + TableNameBuilder.extractRawTableName(tableConfig.getTableName());
+  }
+}
@@ -430,6 +430,22 @@ public class MemoryEstimator {
     return _numSegmentsQueriedPerHost;
   }
 
+  /**
+   * Returns the sample completed segment (either provided or generated), which gets deleted along with the working dir
+   * after memory estimation if generated.
+   */
+  public File getSampleCompletedSegment() {
+    return _sampleCompletedSegment;
+  }
+
+  public int getTotalDocsInSampleSegment() {
+    return _totalDocsInSampleSegment;
+  }
+
+  public Schema getSchema() {
+    return _segmentMetadata.getSchema();
+  }
+
   private static File generateCompletedSegment(SchemaWithMetaData schemaWithMetadata, Schema schema,
       TableConfig tableConfig, int numberOfRows, File workingDir) {
     return new SegmentGenerator(schemaWithMetadata, schema, tableConfig, numberOfRows, true, workingDir).generate();
@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.tuner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Report of the index changes recommended by the {@link WorkloadIndexTuner} for a table, along with the estimated cost
+ * and benefit of each change.
+ */
+public class IndexTuningReport {
+  private final String _tableName;
+  private final long _statsStartTimeMs;
+  private final long _totalDocs;
+  private final List<IndexRecommendation> _recommendations = new ArrayList<>();
+  private boolean _applied;
+
+  public IndexTuningReport(String tableName, long statsStartTimeMs, long totalDocs) {
+    _tableName = tableName;
+    _statsStartTimeMs = statsStartTimeMs;
+    _totalDocs = totalDocs;
+  }
+
+  public String getTableName() {
+    return _tableName;
+  }
+
+  public long getStatsStartTimeMs() {
+    return _statsStartTimeMs;
+  }
+
+  public long getTotalDocs() {
+    return _totalDocs;
+  }
+
+  public List<IndexRecommendation> getRecommendations() {
+    return _recommendations;
+  }
+
+  public void addRecommendation(IndexRecommendation recommendation) {
+    _recommendations.add(recommendation);
+  }
+
+  public boolean isApplied() {
+    return _applied;
+  }
+
+  public void setApplied(boolean applied) {
+    _applied = applied;
+  }
+
+  /**
+   * The index change on a column.
+   */
+  public enum Action {
+    ADD_INVERTED_INDEX, ADD_RANGE_INDEX, ADD_BLOOM_FILTER, SET_SORTED_COLUMN, ADD_DICTIONARY, ADD_RAW_ENCODING,
+    REMOVE_INVERTED_INDEX
+  }
+
+  /**
+   * A recommended index change on a column.
+   * <ul>
+   *   <li>Benefit: number of entries scanned by the filters on the column that could have been avoided</li>
+   *   <li>Cost: rough estimate of the extra storage in bytes (negative when the change saves storage)</li>
+   * </ul>
+   */
+  public static class IndexRecommendation {
+    private final String _column;
+    private final Action _action;
+    private final String _reason;
+    private final long _estimatedEntriesScannedSaved;
+    private final long _estimatedSizeBytes;
+    // Whether the change only applies to the newly created segments (cannot be applied to the existing segments with a
+    // reload)
+    private final boolean _newSegmentsOnly;
+
+    public IndexRecommendation(String column, Action action, String reason, long estimatedEntriesScannedSaved,
+        long estimatedSizeBytes, boolean newSegmentsOnly) {
+      _column = column;
+      _action = action;
+      _reason = reason;
+      _estimatedEntriesScannedSaved = estimatedEntriesScannedSaved;
+      _estimatedSizeBytes = estimatedSizeBytes;
+      _newSegmentsOnly = newSegmentsOnly;
+    }
+
+    public String getColumn() {
+      return _column;
+    }
+
+    public Action getAction() {
+      return _action;
+    }
+
+    public String getReason() {
+      return _reason;
+    }
+
+    public long getEstimatedEntriesScannedSaved() {
+      return _estimatedEntriesScannedSaved;
+    }
+
+    public long getEstimatedSizeBytes() {
+      return _estimatedSizeBytes;
+    }
+
+    public boolean isNewSegmentsOnly() {
+      return _newSegmentsOnly;
+    }
+  }
+}
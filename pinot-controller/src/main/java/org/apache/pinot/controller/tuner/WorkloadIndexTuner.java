@@ -0,0 +1,288 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.tuner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
+import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.common.restlet.resources.ColumnFilterStats;
+import org.apache.pinot.common.restlet.resources.TableFilterStats;
+import org.apache.pinot.controller.helix.core.PinotHelixResourceManager;
+import org.apache.pinot.controller.tuner.IndexTuningReport.Action;
+import org.apache.pinot.controller.tuner.IndexTuningReport.IndexRecommendation;
+import org.apache.pinot.core.query.stats.FilterStatsCollector.AccessPath;
+import org.apache.pinot.spi.config.table.IndexingConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.config.table.TunerConfig;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.Schema;
+
+
+/**
+ * Used to tune the table indexing config based on the query workload, i.e. the filter stats collected by the servers
+ * (see {@link TableFilterStats}). The filters on each column are analyzed and the following changes are recommended:
+ * - Inverted index for the columns mostly filtered with EQ/IN predicates solved by scanning (plus dictionary if the
+ *   column is raw encoded)
+ * - Range index for the columns mostly filtered with RANGE predicates solved by scanning
+ * - Bloom filter for the columns almost always filtered with EQ predicates (to prune segments)
+ * - Sorted column for the column with the most entries scanned by EQ/IN predicates if no sorted column is configured
+ *   (only applies to the newly created segments)
+ * - Removal of the inverted index for the columns never filtered with EQ/IN predicates
+ * - Raw encoding for the metric columns never filtered
+ *
+ * Without filter stats (e.g. when applied on table creation), the table config is not modified.
+ *
+ * Supported tuner properties:
+ * - minNumFilters: minimum number of filters on the table (all columns) before recommending any change
+ * - minObservationWindowMs: minimum time the filter stats must have been collected for before recommending any change,
+ *   so that a short burst of queries right after a server restart or stats reset does not drive the index changes
+ * - minScanFraction: minimum fraction of the filters on a column solved by scanning before recommending an index
+ * - bloomFilterEqFraction: minimum fraction of the filters on a column with EQ predicate to recommend a bloom filter
+ */
+@Tuner(name = WorkloadIndexTuner.TUNER_NAME)
+public class WorkloadIndexTuner implements TableConfigTuner {
+  public static final String TUNER_NAME = "workloadIndexTuner";
+  public static final String MIN_NUM_FILTERS_KEY = "minNumFilters";
+  public static final String MIN_OBSERVATION_WINDOW_MS_KEY = "minObservationWindowMs";
+  public static final String MIN_SCAN_FRACTION_KEY = "minScanFraction";
+  public static final String BLOOM_FILTER_EQ_FRACTION_KEY = "bloomFilterEqFraction";
+  public static final long DEFAULT_MIN_NUM_FILTERS = 100;
+  public static final long DEFAULT_MIN_OBSERVATION_WINDOW_MS = TimeUnit.DAYS.toMillis(1);
+  public static final double DEFAULT_MIN_SCAN_FRACTION = 0.5;
+  public static final double DEFAULT_BLOOM_FILTER_EQ_FRACTION = 0.9;
+
+  // Rough per document size estimates of the indexes, used to estimate the cost of the recommendations
+  private static final long INVERTED_INDEX_BYTES_PER_DOC = 4;
+  private static final long RANGE_INDEX_BYTES_PER_DOC = 4;
+  private static final long BLOOM_FILTER_BYTES_PER_DOC = 1;
+
+  private PinotHelixResourceManager _pinotHelixResourceManager;
+  private Schema _schema;
+  private long _minNumFilters = DEFAULT_MIN_NUM_FILTERS;
+  private long _minObservationWindowMs = DEFAULT_MIN_OBSERVATION_WINDOW_MS;
+  private double _minScanFraction = DEFAULT_MIN_SCAN_FRACTION;
+  private double _bloomFilterEqFraction = DEFAULT_BLOOM_FILTER_EQ_FRACTION;
+  private TableFilterStats _tableFilterStats;
+
+  @Override
+  public void init(@Nullable PinotHelixResourceManager pinotHelixResourceManager, TunerConfig tunerConfig,
+      Schema schema) {
+    _pinotHelixResourceManager = pinotHelixResourceManager;
+    _schema = schema;
+    Map<String, String> properties = tunerConfig.getTunerProperties();
+    if (properties != null) {
+      _minNumFilters = Long.parseLong(properties.getOrDefault(MIN_NUM_FILTERS_KEY, Long.toString(_minNumFilters)));
+      _minObservationWindowMs = Long.parseLong(
+          properties.getOrDefault(MIN_OBSERVATION_WINDOW_MS_KEY, Long.toString(_minObservationWindowMs)));
+      _minScanFraction =
+          Double.parseDouble(properties.getOrDefault(MIN_SCAN_FRACTION_KEY, Double.toString(_minScanFraction)));
+      _bloomFilterEqFraction = Double
+          .parseDouble(properties.getOrDefault(BLOOM_FILTER_EQ_FRACTION_KEY, Double.toString(_bloomFilterEqFraction)));
+    }
+  }
+
+  /**
+   * Sets the filter stats of the table collected from the servers.
+   */
+  public void setTableFilterStats(TableFilterStats tableFilterStats) {
+    _tableFilterStats = tableFilterStats;
+  }
+
+  @Override
+  public TableConfig apply(TableConfig initialConfig) {
+    if (_tableFilterStats != null) {
+      applyRecommendations(initialConfig, recommend(initialConfig));
+    }
+    return initialConfig;
+  }
+
+  /**
+   * Returns the index changes recommended for the given table config based on the filter stats.
+   */
+  public IndexTuningReport recommend(TableConfig tableConfig) {
+    String tableNameWithType = tableConfig.getTableName();
+    Map<String, ColumnFilterStats> columnFilterStatsMap =
+        _tableFilterStats != null ? _tableFilterStats.getColumnFilterStats() : Collections.emptyMap();
+    long startTimeMs = _tableFilterStats != null ? _tableFilterStats.getStartTimeMs() : System.currentTimeMillis();
+    long totalDocs = getTotalDocs(tableConfig);
+    IndexTuningReport report = new IndexTuningReport(tableNameWithType, startTimeMs, totalDocs);
+
+    long totalNumFilters = 0;
+    for (ColumnFilterStats columnFilterStats : columnFilterStatsMap.values()) {
+      totalNumFilters += columnFilterStats.getNumFilters();
+    }
+    if (totalNumFilters < _minNumFilters || System.currentTimeMillis() - startTimeMs < _minObservationWindowMs) {
+      return report;
+    }
+
+    IndexingConfig indexingConfig = tableConfig.getIndexingConfig();
+    List<String> invertedIndexColumns = nullToEmpty(indexingConfig.getInvertedIndexColumns());
+    List<String> rangeIndexColumns = nullToEmpty(indexingConfig.getRangeIndexColumns());
+    List<String> sortedColumns = nullToEmpty(indexingConfig.getSortedColumn());
+    List<String> bloomFilterColumns = new ArrayList<>(nullToEmpty(indexingConfig.getBloomFilterColumns()));
+    if (indexingConfig.getBloomFilterConfigs() != null) {
+      bloomFilterColumns.addAll(indexingConfig.getBloomFilterConfigs().keySet());
+    }
+    List<String> noDictionaryColumns = nullToEmpty(indexingConfig.getNoDictionaryColumns());
+
+    String sortedColumnCandidate = null;
+    long maxEqEntriesScanned = 0;
+    for (Map.Entry<String, ColumnFilterStats> entry : columnFilterStatsMap.entrySet()) {
+      String column = entry.getKey();
+      ColumnFilterStats stats = entry.getValue();
+      FieldSpec fieldSpec = _schema.getFieldSpecFor(column);
+      if (fieldSpec == null) {
+        continue;
+      }
+      long numFilters = stats.getNumFilters();
+      long numScans = stats.getNumFiltersWithAccessPath(AccessPath.SCAN.name());
+      long numEqFilters = stats.getNumFilters(Predicate.Type.EQ.name());
+      long numEqInFilters = numEqFilters + stats.getNumFilters(Predicate.Type.IN.name()) + stats
+          .getNumFilters(Predicate.Type.NOT_EQ.name()) + stats.getNumFilters(Predicate.Type.NOT_IN.name());
+      long numRangeFilters = stats.getNumFilters(Predicate.Type.RANGE.name());
+      long numEntriesScanned = stats.getNumEntriesScanned();
+      long eqEntriesScanned = numFilters > 0 ? numEntriesScanned * numEqInFilters / numFilters : 0;
+
+      if (numFilters > 0 && numEqFilters >= _bloomFilterEqFraction * numFilters && !bloomFilterColumns
+          .contains(column)) {
+        report.addRecommendation(new IndexRecommendation(column, Action.ADD_BLOOM_FILTER,
+            String.format("%d of %d filters are EQ, which can prune segments with bloom filter", numEqFilters,
+                numFilters), 0, totalDocs * BLOOM_FILTER_BYTES_PER_DOC, false));
+      }
+
+      if (numFilters == 0 || numScans < _minScanFraction * numFilters || sortedColumns.contains(column)) {
+        continue;
+      }
+      if (numEqInFilters >= numRangeFilters) {
+        if (!invertedIndexColumns.contains(column)) {
+          if (noDictionaryColumns.contains(column)) {
+            report.addRecommendation(new IndexRecommendation(column, Action.ADD_DICTIONARY,
+                "Inverted index requires dictionary encoding", 0, 0, false));
+          }
+          report.addRecommendation(new IndexRecommendation(column, Action.ADD_INVERTED_INDEX,
+              String.format("%d of %d filters are solved by scanning, %d are EQ/IN", numScans, numFilters,
+                  numEqInFilters), eqEntriesScanned, totalDocs * INVERTED_INDEX_BYTES_PER_DOC, false));
+        }
+        if (eqEntriesScanned > maxEqEntriesScanned && fieldSpec.isSingleValueField()) {
+          sortedColumnCandidate = column;
+          maxEqEntriesScanned = eqEntriesScanned;
+        }
+      } else if (!rangeIndexColumns.contains(column)) {
+        report.addRecommendation(new IndexRecommendation(column, Action.ADD_RANGE_INDEX,
+            String.format("%d of %d filters are solved by scanning, %d are RANGE", numScans, numFilters,
+                numRangeFilters), numEntriesScanned * numRangeFilters / numFilters,
+            totalDocs * RANGE_INDEX_BYTES_PER_DOC, false));
+      }
+    }
+
+    if (sortedColumnCandidate != null && sortedColumns.isEmpty()) {
+      report.addRecommendation(new IndexRecommendation(sortedColumnCandidate, Action.SET_SORTED_COLUMN,
+          "Column with the most entries scanned by EQ/IN filters", maxEqEntriesScanned, 0, true));
+    }
+
+    for (String column : invertedIndexColumns) {
+      ColumnFilterStats stats = columnFilterStatsMap.get(column);
+      if (stats == null || stats.getNumFiltersWithAccessPath(AccessPath.INVERTED_INDEX.name()) == 0) {
+        report.addRecommendation(new IndexRecommendation(column, Action.REMOVE_INVERTED_INDEX,
+            String.format("Inverted index not used by any of the %d filters on the table", totalNumFilters), 0,
+            -totalDocs * INVERTED_INDEX_BYTES_PER_DOC, false));
+      }
+    }
+
+    for (String column : _schema.getMetricNames()) {
+      if (!columnFilterStatsMap.containsKey(column) && !noDictionaryColumns.contains(column) && !invertedIndexColumns
+          .contains(column) && !rangeIndexColumns.contains(column) && !sortedColumns.contains(column)) {
+        report.addRecommendation(new IndexRecommendation(column, Action.ADD_RAW_ENCODING,
+            "Metric column never filtered, raw encoding avoids the dictionary lookup when aggregating", 0, 0, false));
+      }
+    }
+    return report;
+  }
+
+  /**
+   * Applies the recommended index changes to the given table config.
+   */
+  public static void applyRecommendations(TableConfig tableConfig, IndexTuningReport report) {
+    IndexingConfig indexingConfig = tableConfig.getIndexingConfig();
+    List<String> invertedIndexColumns = new ArrayList<>(nullToEmpty(indexingConfig.getInvertedIndexColumns()));
+    List<String> rangeIndexColumns = new ArrayList<>(nullToEmpty(indexingConfig.getRangeIndexColumns()));
+    List<String> bloomFilterColumns = new ArrayList<>(nullToEmpty(indexingConfig.getBloomFilterColumns()));
+    List<String> noDictionaryColumns = new ArrayList<>(nullToEmpty(indexingConfig.getNoDictionaryColumns()));
+    for (IndexRecommendation recommendation : report.getRecommendations()) {
+      String column = recommendation.getColumn();
+      switch (recommendation.getAction()) {
+        case ADD_INVERTED_INDEX:
+          invertedIndexColumns.add(column);
+          break;
+        case REMOVE_INVERTED_INDEX:
+          invertedIndexColumns.remove(column);
+          break;
+        case ADD_RANGE_INDEX:
+          rangeIndexColumns.add(column);
+          break;
+        case ADD_BLOOM_FILTER:
+          bloomFilterColumns.add(column);
+          break;
+        case SET_SORTED_COLUMN:
+          indexingConfig.setSortedColumn(Collections.singletonList(column));
+          break;
+        case ADD_DICTIONARY:
+          noDictionaryColumns.remove(column);
+          break;
+        case ADD_RAW_ENCODING:
+          noDictionaryColumns.add(column);
+          break;
+        default:
+          throw new IllegalStateException("Unsupported action: " + recommendation.getAction());
+      }
+    }
+    indexingConfig.setInvertedIndexColumns(invertedIndexColumns);
+    indexingConfig.setRangeIndexColumns(rangeIndexColumns);
+    indexingConfig.setBloomFilterColumns(bloomFilterColumns);
+    indexingConfig.setNoDictionaryColumns(noDictionaryColumns);
+    report.setApplied(true);
+  }
+
+  private long getTotalDocs(TableConfig tableConfig) {
+    if (_pinotHelixResourceManager == null) {
+      return 0;
+    }
+    String tableNameWithType = tableConfig.getTableName();
+    List<? extends SegmentZKMetadata> segmentsZKMetadata =
+        tableConfig.getTableType() == TableType.OFFLINE ? _pinotHelixResourceManager
+            .getOfflineSegmentMetadata(tableNameWithType)
+            : _pinotHelixResourceManager.getRealtimeSegmentMetadata(tableNameWithType);
+    long totalDocs = 0;
+    for (SegmentZKMetadata segmentZKMetadata : segmentsZKMetadata) {
+      // Consuming segments have total docs of -1
+      totalDocs += Math.max(segmentZKMetadata.getTotalDocs(), 0);
+    }
+    return totalDocs;
+  }
+
+  private static List<String> nullToEmpty(@Nullable List<String> columns) {
+    return columns != null ? columns : Collections.emptyList();
+  }
+}
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import org.apache.commons.httpclient.HttpConnectionManager;
+import org.apache.pinot.common.exception.InvalidConfigException;
+import org.apache.pinot.common.restlet.resources.SegmentQueryStats;
+import org.apache.pinot.controller.helix.core.PinotHelixResourceManager;
+
+
+/**
+ * This is a helper class that calls the server API endpoints to fetch the query stats of the segments of a table, and
+ * sums up the number of queries of each segment over all the servers hosting the table. Servers returning errors are
+ * skipped.
+ */
+public class SegmentQueryStatsReader extends ServerTableStatsReader {
+
+  public SegmentQueryStatsReader(Executor executor, HttpConnectionManager connectionManager,
+      PinotHelixResourceManager helixResourceManager) {
+    super(executor, connectionManager, helixResourceManager);
+  }
+
+  /**
+   * Returns a map from segment name to the number of queries that processed the segment on all the servers.
+   */
+  public Map<String, Long> getNumQueriesPerSegment(String tableNameWithType, int timeoutMs)
+      throws InvalidConfigException {
+    Map<String, Long> numQueriesPerSegment = new HashMap<>();
+    for (SegmentQueryStats serverStats : getServerStats(tableNameWithType, "segments/queryStats",
+        SegmentQueryStats.class, timeoutMs)) {
+      serverStats.getNumQueriesPerSegment()
+          .forEach((segment, numQueries) -> numQueriesPerSegment.merge(segment, numQueries, Long::sum));
+    }
+    return numQueriesPerSegment;
+  }
+}
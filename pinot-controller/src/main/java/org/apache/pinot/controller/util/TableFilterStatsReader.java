@@ -0,0 +1,52 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.util;
+
+import java.util.HashMap;
+import java.util.concurrent.Executor;
+import org.apache.commons.httpclient.HttpConnectionManager;
+import org.apache.pinot.common.exception.InvalidConfigException;
+import org.apache.pinot.common.restlet.resources.TableFilterStats;
+import org.apache.pinot.controller.helix.core.PinotHelixResourceManager;
+
+
+/**
+ * This is a helper class that calls the server API endpoints to fetch the filter stats of a table, and merges the
+ * stats from all the servers hosting the table. Servers returning errors are skipped.
+ */
+public class TableFilterStatsReader extends ServerTableStatsReader {
+
+  public TableFilterStatsReader(Executor executor, HttpConnectionManager connectionManager,
+      PinotHelixResourceManager helixResourceManager) {
+    super(executor, connectionManager, helixResourceManager);
+  }
+
+  /**
+   * Returns the filter stats of the given table merged from all the servers hosting the table.
+   */
+  public TableFilterStats getTableFilterStats(String tableNameWithType, int timeoutMs)
+      throws InvalidConfigException {
+    TableFilterStats tableFilterStats = new TableFilterStats(tableNameWithType, 0L, new HashMap<>());
+    for (TableFilterStats serverStats : getServerStats(tableNameWithType, "filterStats", TableFilterStats.class,
+        timeoutMs)) {
+      tableFilterStats = tableFilterStats.merge(serverStats);
+    }
+    return tableFilterStats;
+  }
+}
@@ -19,20 +19,34 @@
 package org.apache.pinot.controller.api.upload;
 
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import org.apache.helix.ZNRecord;
+import org.apache.pinot.common.metadata.segment.LLCRealtimeSegmentZKMetadata;
 import org.apache.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
+import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
 import org.apache.pinot.common.metrics.ControllerMetrics;
+import org.apache.pinot.common.utils.LLCSegmentName;
 import org.apache.pinot.controller.ControllerConf;
 import org.apache.pinot.controller.ControllerTestUtils;
+import org.apache.pinot.controller.api.exception.ControllerApplicationException;
+import org.apache.pinot.controller.helix.core.PinotHelixResourceManager;
 import org.apache.pinot.segment.spi.SegmentMetadata;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.utils.CommonConstants;
 import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
@@ -124,6 +138,70 @@ public class ZKOperatorTest {
     assertEquals(segmentZKMetadata.getCrypterName(), "otherCrypter");
   }
 
+  @Test
+  public void testCompleteRealtimeSegmentOperations()
+      throws Exception {
+    String realtimeTableName = TableNameBuilder.REALTIME.tableNameWithType(TABLE_NAME);
+    String segmentName = new LLCSegmentName(TABLE_NAME, 0, 0, System.currentTimeMillis()).getSegmentName();
+    int version = 3;
+    LLCRealtimeSegmentZKMetadata segmentZKMetadata = new LLCRealtimeSegmentZKMetadata();
+    segmentZKMetadata.setSegmentName(segmentName);
+    segmentZKMetadata.setStatus(CommonConstants.Segment.Realtime.Status.IN_PROGRESS);
+    segmentZKMetadata.setCrc(12345L);
+    ZNRecord znRecord = segmentZKMetadata.toZNRecord();
+    znRecord.setVersion(version);
+
+    PinotHelixResourceManager helixResourceManager = mock(PinotHelixResourceManager.class);
+    when(helixResourceManager.getSegmentMetadataZnRecord(realtimeTableName, segmentName)).thenReturn(znRecord);
+    ZKOperator zkOperator =
+        new ZKOperator(helixResourceManager, mock(ControllerConf.class), mock(ControllerMetrics.class));
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getName()).thenReturn(segmentName);
+    when(segmentMetadata.getCrc()).thenReturn("12345");
+    HttpHeaders httpHeaders = mock(HttpHeaders.class);
+
+    // Consuming segment cannot be refreshed
+    try {
+      zkOperator.completeSegmentOperations(realtimeTableName, segmentMetadata, null, null, false, httpHeaders,
+          "downloadUrl", false, "crypter");
+      fail();
+    } catch (ControllerApplicationException e) {
+      assertEquals(e.getResponse().getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
+    }
+
+    // Refresh the committed segment with the same segment (same CRC), only ZK metadata should be updated
+    segmentZKMetadata.setStatus(CommonConstants.Segment.Realtime.Status.DONE);
+    znRecord = segmentZKMetadata.toZNRecord();
+    znRecord.setVersion(version);
+    when(helixResourceManager.getSegmentMetadataZnRecord(realtimeTableName, segmentName)).thenReturn(znRecord);
+    when(helixResourceManager.updateZkMetadata(eq(realtimeTableName), any(RealtimeSegmentZKMetadata.class),
+        eq(version))).thenReturn(true);
+    zkOperator.completeSegmentOperations(realtimeTableName, segmentMetadata, null, null, false, httpHeaders,
+        "downloadUrl", false, "crypter");
+    verify(helixResourceManager).updateZkMetadata(eq(realtimeTableName), any(RealtimeSegmentZKMetadata.class),
+        eq(version));
+    verify(helixResourceManager, never()).refreshRealtimeSegment(anyString(), any(), any(), anyString(), any(),
+        anyInt());
+
+    // ZK metadata version changed during the refresh
+    when(helixResourceManager.updateZkMetadata(eq(realtimeTableName), any(RealtimeSegmentZKMetadata.class),
+        eq(version))).thenReturn(false);
+    try {
+      zkOperator.completeSegmentOperations(realtimeTableName, segmentMetadata, null, null, false, httpHeaders,
+          "downloadUrl", false, "crypter");
+      fail();
+    } catch (ControllerApplicationException e) {
+      assertEquals(e.getResponse().getStatus(), Response.Status.CONFLICT.getStatusCode());
+    }
+
+    // Refresh the committed segment with a different segment (different CRC)
+    when(segmentMetadata.getCrc()).thenReturn("23456");
+    zkOperator.completeSegmentOperations(realtimeTableName, segmentMetadata, null, null, false, httpHeaders,
+        "otherDownloadUrl", false, "otherCrypter");
+    verify(helixResourceManager).refreshRealtimeSegment(eq(realtimeTableName), eq(segmentMetadata),
+        any(LLCRealtimeSegmentZKMetadata.class), eq("otherDownloadUrl"), eq("otherCrypter"), eq(version));
+  }
+
   @AfterClass
   public void tearDown() {
     ControllerTestUtils.cleanup();
@@ -0,0 +1,326 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.helix.core;
+
+import com.google.common.base.Function;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.helix.BaseDataAccessor;
+import org.apache.helix.HelixDataAccessor;
+import org.apache.helix.HelixManager;
+import org.apache.helix.PropertyKey;
+import org.apache.helix.ZNRecord;
+import org.apache.helix.model.IdealState;
+import org.apache.pinot.common.metrics.ControllerMetrics;
+import org.apache.pinot.common.metrics.PinotMetricUtils;
+import org.apache.pinot.common.utils.helix.HelixHelper;
+import org.apache.pinot.spi.utils.retry.RetryPolicies;
+import org.apache.pinot.spi.utils.retry.RetryPolicy;
+import org.apache.pinot.util.TestUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+
+public class IdealStateUpdateCoalescerTest {
+  private static final String TABLE_NAME = "testTable_OFFLINE";
+  private static final String SEGMENT_NAME_PREFIX = "segment_";
+  private static final String INSTANCE_NAME = "Server_localhost_0";
+  private static final int NUM_UPDATES = 10;
+  private static final int MAX_NUM_ATTEMPTS = 3;
+  private static final RetryPolicy RETRY_POLICY = RetryPolicies.fixedDelayRetryPolicy(MAX_NUM_ATTEMPTS, 10L);
+
+  // Mocked IdealState ZNode
+  private ZNRecord _idealStateRecord;
+  private int _numWrites;
+
+  private HelixManager _helixManager;
+  private ExecutorService _executorService;
+
+  @BeforeMethod
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    _idealStateRecord = new ZNRecord(TABLE_NAME);
+    _idealStateRecord.setVersion(0);
+    _numWrites = 0;
+
+    HelixDataAccessor dataAccessor = mock(HelixDataAccessor.class);
+    when(dataAccessor.keyBuilder()).thenReturn(new PropertyKey.Builder("testCluster"));
+    when(dataAccessor.getProperty(any(PropertyKey.class))).thenAnswer(invocation -> readIdealState());
+    BaseDataAccessor<ZNRecord> baseDataAccessor = mock(BaseDataAccessor.class);
+    when(baseDataAccessor.set(anyString(), any(ZNRecord.class), anyInt(), anyInt()))
+        .thenAnswer(invocation -> writeIdealState(invocation.getArgument(1), invocation.getArgument(2)));
+    when(dataAccessor.getBaseDataAccessor()).thenReturn(baseDataAccessor);
+    _helixManager = mock(HelixManager.class);
+    when(_helixManager.getHelixDataAccessor()).thenReturn(dataAccessor);
+
+    _executorService = Executors.newCachedThreadPool();
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    _executorService.shutdownNow();
+  }
+
+  private synchronized IdealState readIdealState() {
+    IdealState idealState = HelixHelper.cloneIdealState(new IdealState(_idealStateRecord));
+    idealState.getRecord().setVersion(_idealStateRecord.getVersion());
+    return idealState;
+  }
+
+  private synchronized boolean writeIdealState(ZNRecord record, int expectedVersion) {
+    if (expectedVersion != _idealStateRecord.getVersion()) {
+      return false;
+    }
+    _idealStateRecord = HelixHelper.cloneIdealState(new IdealState(record)).getRecord();
+    _idealStateRecord.setVersion(expectedVersion + 1);
+    _numWrites++;
+    return true;
+  }
+
+  @Test
+  public void testCoalesceConcurrentUpdates()
+      throws Exception {
+    IdealStateUpdateCoalescer coalescer = getCoalescer(IdealStateUpdateCoalescer.DEFAULT_MAX_BATCH_SIZE);
+    List<Future<?>> futures = updateWhileBlocked(coalescer, -1);
+    for (Future<?> future : futures) {
+      future.get(10, TimeUnit.SECONDS);
+    }
+
+    // The first update is applied on its own, and all the updates queued while it is running should be applied in a
+    // single round
+    assertEquals(_numWrites, 2);
+    for (int i = 0; i < NUM_UPDATES; i++) {
+      assertTrue(readIdealState().getRecord().getMapFields().containsKey(SEGMENT_NAME_PREFIX + i));
+    }
+  }
+
+  @Test
+  public void testMaxBatchSize()
+      throws Exception {
+    IdealStateUpdateCoalescer coalescer = getCoalescer(2);
+    List<Future<?>> futures = updateWhileBlocked(coalescer, -1);
+    for (Future<?> future : futures) {
+      future.get(10, TimeUnit.SECONDS);
+    }
+
+    // 1 round for the first update, and 5 rounds for the other 9 updates
+    assertEquals(_numWrites, 6);
+    assertEquals(readIdealState().getRecord().getMapFields().size(), NUM_UPDATES);
+  }
+
+  @Test
+  public void testFailedUpdate()
+      throws Exception {
+    IdealStateUpdateCoalescer coalescer = getCoalescer(IdealStateUpdateCoalescer.DEFAULT_MAX_BATCH_SIZE);
+    int failedUpdateId = 5;
+    List<Future<?>> futures = updateWhileBlocked(coalescer, failedUpdateId);
+    for (int i = 1; i < NUM_UPDATES; i++) {
+      Future<?> future = futures.get(i - 1);
+      if (i == failedUpdateId) {
+        try {
+          future.get(10, TimeUnit.SECONDS);
+          fail("Update should fail");
+        } catch (ExecutionException e) {
+          assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+      } else {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    }
+
+    // The failed update should not affect the other updates in the same round, and its partial change should not be
+    // written
+    assertEquals(_numWrites, 2);
+    IdealState idealState = readIdealState();
+    assertEquals(idealState.getRecord().getMapFields().size(), NUM_UPDATES - 1);
+    assertFalse(idealState.getRecord().getMapFields().containsKey(SEGMENT_NAME_PREFIX + failedUpdateId));
+  }
+
+  @Test
+  public void testRetryFailedUpdater() {
+    IdealStateUpdateCoalescer coalescer = getCoalescer(IdealStateUpdateCoalescer.DEFAULT_MAX_BATCH_SIZE);
+
+    // Non-permanent failure should be retried
+    AtomicInteger numAttempts = new AtomicInteger();
+    coalescer.updateIdealState(TABLE_NAME, idealState -> {
+      if (numAttempts.getAndIncrement() == 0) {
+        throw new IllegalStateException("Transient failure");
+      }
+      return getUpdater(0, false).apply(idealState);
+    });
+    assertEquals(numAttempts.get(), 2);
+    assertEquals(_numWrites, 1);
+
+    // Non-permanent failure should fail the update after running out of retries
+    numAttempts.set(0);
+    try {
+      coalescer.updateIdealState(TABLE_NAME, idealState -> {
+        numAttempts.getAndIncrement();
+        return getUpdater(1, true).apply(idealState);
+      });
+      fail("Update should fail");
+    } catch (IllegalStateException e) {
+      // Expected
+    }
+    assertEquals(numAttempts.get(), MAX_NUM_ATTEMPTS);
+
+    // Permanent failure should not be retried
+    numAttempts.set(0);
+    try {
+      coalescer.updateIdealState(TABLE_NAME, idealState -> {
+        numAttempts.getAndIncrement();
+        throw new HelixHelper.PermanentUpdaterException("Permanent failure");
+      });
+      fail("Update should fail");
+    } catch (HelixHelper.PermanentUpdaterException e) {
+      // Expected
+    }
+    assertEquals(numAttempts.get(), 1);
+    assertEquals(_numWrites, 1);
+    assertEquals(readIdealState().getRecord().getMapFields().size(), 1);
+  }
+
+  @Test
+  public void testSynchronousUpdate() {
+    IdealStateUpdateCoalescer coalescer = getCoalescer(IdealStateUpdateCoalescer.DEFAULT_MAX_BATCH_SIZE);
+    coalescer.updateIdealState(TABLE_NAME, getUpdater(0, false));
+    assertEquals(_numWrites, 1);
+    try {
+      coalescer.updateIdealState(TABLE_NAME, getUpdater(1, true));
+      fail("Update should fail");
+    } catch (IllegalStateException e) {
+      // Expected
+    }
+    // No-op update should not write the IdealState
+    coalescer.updateIdealState(TABLE_NAME, getUpdater(0, false));
+    assertEquals(_numWrites, 1);
+    assertEquals(readIdealState().getRecord().getMapFields().size(), 1);
+  }
+
+  @Test
+  public void testDifferentRetryPolicies()
+      throws Exception {
+    IdealStateUpdateCoalescer coalescer = getCoalescer(IdealStateUpdateCoalescer.DEFAULT_MAX_BATCH_SIZE);
+    CountDownLatch enteredLatch = new CountDownLatch(1);
+    CountDownLatch releaseLatch = new CountDownLatch(1);
+    Future<?> firstUpdate = _executorService.submit(() -> coalescer.updateIdealState(TABLE_NAME, idealState -> {
+      enteredLatch.countDown();
+      awaitUninterruptibly(releaseLatch);
+      return getUpdater(0, false).apply(idealState);
+    }));
+    assertTrue(enteredLatch.await(10, TimeUnit.SECONDS));
+
+    // Updates with a different retry policy should not be coalesced with the updates with the default retry policy
+    RetryPolicy otherRetryPolicy = RetryPolicies.fixedDelayRetryPolicy(MAX_NUM_ATTEMPTS, 10L);
+    List<Future<?>> futures = new ArrayList<>();
+    futures.add(_executorService.submit(() -> coalescer.updateIdealState(TABLE_NAME, getUpdater(1, false))));
+    waitForNumPendingUpdates(coalescer, 1);
+    futures.add(_executorService.submit(
+        () -> coalescer.updateIdealState(TABLE_NAME, getUpdater(2, false), otherRetryPolicy)));
+    waitForNumPendingUpdates(coalescer, 2);
+    futures.add(_executorService.submit(
+        () -> coalescer.updateIdealState(TABLE_NAME, getUpdater(3, false), otherRetryPolicy)));
+    waitForNumPendingUpdates(coalescer, 3);
+    releaseLatch.countDown();
+    firstUpdate.get(10, TimeUnit.SECONDS);
+    for (Future<?> future : futures) {
+      future.get(10, TimeUnit.SECONDS);
+    }
+
+    // 1 round for the first update, 1 round for the update with the default retry policy, and 1 round for the 2 updates
+    // with the other retry policy
+    assertEquals(_numWrites, 3);
+    assertEquals(readIdealState().getRecord().getMapFields().size(), 4);
+  }
+
+  private IdealStateUpdateCoalescer getCoalescer(int maxBatchSize) {
+    return new IdealStateUpdateCoalescer(_helixManager,
+        new ControllerMetrics(PinotMetricUtils.getPinotMetricsRegistry()), maxBatchSize, RETRY_POLICY);
+  }
+
+  /**
+   * Blocks the first update inside its updater, issues the other updates from other threads and waits for them to be
+   * queued, then unblocks the first update. Returns the futures for the other updates (segment 1 to
+   * {@code NUM_UPDATES - 1}).
+   */
+  private List<Future<?>> updateWhileBlocked(IdealStateUpdateCoalescer coalescer, int failedUpdateId)
+      throws Exception {
+    CountDownLatch enteredLatch = new CountDownLatch(1);
+    CountDownLatch releaseLatch = new CountDownLatch(1);
+    Function<IdealState, IdealState> firstUpdater = getUpdater(0, false);
+    Future<?> firstUpdate = _executorService.submit(() -> coalescer.updateIdealState(TABLE_NAME, idealState -> {
+      enteredLatch.countDown();
+      awaitUninterruptibly(releaseLatch);
+      return firstUpdater.apply(idealState);
+    }));
+    assertTrue(enteredLatch.await(10, TimeUnit.SECONDS));
+
+    List<Future<?>> futures = new ArrayList<>(NUM_UPDATES - 1);
+    for (int i = 1; i < NUM_UPDATES; i++) {
+      Function<IdealState, IdealState> updater = getUpdater(i, i == failedUpdateId);
+      futures.add(_executorService.submit(() -> coalescer.updateIdealState(TABLE_NAME, updater)));
+      // Wait for the update to be queued to keep the order of the updates
+      waitForNumPendingUpdates(coalescer, i);
+    }
+    releaseLatch.countDown();
+    firstUpdate.get(10, TimeUnit.SECONDS);
+    return futures;
+  }
+
+  private static void waitForNumPendingUpdates(IdealStateUpdateCoalescer coalescer, int numPendingUpdates) {
+    TestUtils.waitForCondition(aVoid -> coalescer.getNumPendingUpdates(TABLE_NAME) == numPendingUpdates, 1L, 10_000L,
+        "Failed to queue the update");
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static Function<IdealState, IdealState> getUpdater(int segmentId, boolean fail) {
+    return idealState -> {
+      idealState.setPartitionState(SEGMENT_NAME_PREFIX + segmentId, INSTANCE_NAME, "ONLINE");
+      if (fail) {
+        throw new IllegalStateException("Failed to update segment: " + SEGMENT_NAME_PREFIX + segmentId);
+      }
+      return idealState;
+    };
+  }
+}
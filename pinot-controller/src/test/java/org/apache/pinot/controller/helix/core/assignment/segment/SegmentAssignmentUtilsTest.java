@@ -21,14 +21,20 @@ package org.apache.pinot.controller.helix.core.assignment.segment;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import org.apache.helix.ZNRecord;
 import org.apache.pinot.common.assignment.InstancePartitions;
+import org.apache.pinot.common.assignment.SegmentLoadStats;
+import org.apache.pinot.common.assignment.SegmentLoadStats.SegmentLoad;
 import org.apache.pinot.spi.utils.CommonConstants.Helix.StateModel.SegmentStateModel;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 
@@ -429,4 +435,162 @@ public class SegmentAssignmentUtilsTest {
       assertEquals((int) numSegmentsToBeMovedPerInstance.get(instanceName), numSegmentsPerInstance);
     }
   }
+
+  @Test
+  public void testGetSegmentWeights() {
+    Map<String, SegmentLoad> segmentLoadMap = new HashMap<>();
+    segmentLoadMap.put("segment_0", new SegmentLoad(100L, 0L));
+    segmentLoadMap.put("segment_1", new SegmentLoad(100L, 0L));
+    segmentLoadMap.put("segment_2", new SegmentLoad(100L, 0L));
+    segmentLoadMap.put("segment_3", new SegmentLoad(100L, 400L));
+    SegmentLoadStats segmentLoadStats = new SegmentLoadStats("testTable_OFFLINE", 0L, segmentLoadMap);
+    List<String> segments = Arrays.asList("segment_0", "segment_1", "segment_2", "segment_3", "segment_4");
+
+    // Half of the weight from the size share, half from the query share, normalized to average of 1
+    Map<String, Double> segmentWeights = SegmentAssignmentUtils.getSegmentWeights(segmentLoadStats, segments);
+    assertEquals(segmentWeights.size(), 4);
+    assertEquals(segmentWeights.get("segment_0"), 0.5, 1e-9);
+    assertEquals(segmentWeights.get("segment_3"), 2.5, 1e-9);
+    // Segment without load stats should not be included
+    assertFalse(segmentWeights.containsKey("segment_4"));
+
+    // Without query, weight should be based on the size only
+    segmentLoadMap.put("segment_3", new SegmentLoad(300L, 0L));
+    segmentWeights = SegmentAssignmentUtils.getSegmentWeights(segmentLoadStats, segments);
+    assertEquals(segmentWeights.get("segment_0"), 4.0 / 6, 1e-9);
+    assertEquals(segmentWeights.get("segment_3"), 2.0, 1e-9);
+
+    // Without load stats, all segments should have the default weight
+    assertTrue(SegmentAssignmentUtils.getSegmentWeights(null, segments).isEmpty());
+  }
+
+  @Test
+  public void testSegmentLoadStatsShards() {
+    int numSegments = SegmentLoadStats.MAX_NUM_SEGMENTS_PER_SHARD * 2 + 1;
+    Map<String, SegmentLoad> segmentLoadMap = new HashMap<>();
+    for (int i = 0; i < numSegments; i++) {
+      segmentLoadMap.put(SEGMENT_NAME_PREFIX + i, new SegmentLoad(i, 2L * i));
+    }
+    SegmentLoadStats segmentLoadStats = new SegmentLoadStats("testTable_OFFLINE", 123L, segmentLoadMap);
+
+    // Segments should be split into shards of at most MAX_NUM_SEGMENTS_PER_SHARD segments
+    List<ZNRecord> znRecords = segmentLoadStats.toZNRecords();
+    assertEquals(znRecords.size(), 3);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(znRecords.get(i).getId(), Integer.toString(i));
+    }
+
+    SegmentLoadStats mergedStats = SegmentLoadStats.fromZNRecords("testTable_OFFLINE", znRecords);
+    assertEquals(mergedStats.getUpdateTimeMs(), 123L);
+    assertEquals(mergedStats.getSegmentLoadMap().size(), numSegments);
+    for (int i = 0; i < numSegments; i++) {
+      SegmentLoad segmentLoad = mergedStats.getSegmentLoadMap().get(SEGMENT_NAME_PREFIX + i);
+      assertEquals(segmentLoad.getSizeInBytes(), i);
+      assertEquals(segmentLoad.getNumQueries(), 2L * i);
+    }
+
+    // Update time should be persisted even without segment
+    znRecords = new SegmentLoadStats("testTable_OFFLINE", 123L, new HashMap<>()).toZNRecords();
+    assertEquals(znRecords.size(), 1);
+    mergedStats = SegmentLoadStats.fromZNRecords("testTable_OFFLINE", znRecords);
+    assertEquals(mergedStats.getUpdateTimeMs(), 123L);
+    assertTrue(mergedStats.getSegmentLoadMap().isEmpty());
+  }
+
+  @Test
+  public void testRebalanceTableByLoad() {
+    int numSegments = 8;
+    List<String> segments = SegmentAssignmentTestUtils.getNameList(SEGMENT_NAME_PREFIX, numSegments);
+    int numInstances = 4;
+    List<String> instances = SegmentAssignmentTestUtils.getNameList(INSTANCE_NAME_PREFIX, numInstances);
+    int numReplicas = 2;
+
+    // Uniformly spray segments to the instances (4 segments on each instance):
+    // [instance_0,   instance_1,   instance_2,   instance_3]
+    //  segment_0(r0) segment_0(r1) segment_1(r0) segment_1(r1)
+    //  ...
+    Map<String, Map<String, String>> currentAssignment = new TreeMap<>();
+    int assignedInstanceId = 0;
+    for (String segmentName : segments) {
+      List<String> instancesAssigned = new ArrayList<>(numReplicas);
+      for (int replicaId = 0; replicaId < numReplicas; replicaId++) {
+        instancesAssigned.add(instances.get(assignedInstanceId));
+        assignedInstanceId = (assignedInstanceId + 1) % numInstances;
+      }
+      currentAssignment
+          .put(segmentName, SegmentAssignmentUtils.getInstanceStateMap(instancesAssigned, SegmentStateModel.ONLINE));
+    }
+
+    // segment_0 is hot, other segments are light
+    Map<String, Double> segmentWeights = new HashMap<>();
+    segmentWeights.put("segment_0", 4.0);
+    for (int i = 1; i < numSegments; i++) {
+      segmentWeights.put(SEGMENT_NAME_PREFIX + i, 0.5);
+    }
+    assertEquals(SegmentAssignmentUtils.getLoadPerInstance(currentAssignment, instances, segmentWeights),
+        new double[]{5.5, 5.5, 2.0, 2.0});
+
+    // The hot segment should not be moved, and the light segments on the same instances should be moved to the other
+    // instances
+    Map<String, Map<String, String>> newAssignment =
+        SegmentAssignmentUtils.rebalanceTableByLoad(currentAssignment, instances, numReplicas, segmentWeights);
+    assertEquals(newAssignment.size(), numSegments);
+    for (Map<String, String> instanceStateMap : newAssignment.values()) {
+      assertEquals(instanceStateMap.size(), numReplicas);
+    }
+    assertEquals(newAssignment.get("segment_0"), currentAssignment.get("segment_0"));
+    assertEquals(SegmentAssignmentUtils.getLoadPerInstance(newAssignment, instances, segmentWeights),
+        new double[]{4.0, 4.0, 3.5, 3.5});
+    // Only the light segments on the hot instances should be moved
+    Map<String, Integer> numSegmentsToBeMovedPerInstance =
+        SegmentAssignmentUtils.getNumSegmentsToBeMovedPerInstance(currentAssignment, newAssignment);
+    assertEquals(numSegmentsToBeMovedPerInstance.size(), 2);
+    assertEquals((int) numSegmentsToBeMovedPerInstance.get("instance_2"), 3);
+    assertEquals((int) numSegmentsToBeMovedPerInstance.get("instance_3"), 3);
+    // Rebalance again should not move any segment
+    assertEquals(
+        SegmentAssignmentUtils.rebalanceTableByLoad(newAssignment, instances, numReplicas, segmentWeights),
+        newAssignment);
+
+    // New segment should be assigned to the instances with the least load
+    InstancePartitions instancePartitions = new InstancePartitions("testTable_OFFLINE");
+    instancePartitions.setInstances(0, 0, instances);
+    assertEquals(SegmentAssignmentUtils
+            .assignSegmentWithoutReplicaGroup(newAssignment, instancePartitions, numReplicas, segmentWeights),
+        Arrays.asList("instance_2", "instance_3"));
+  }
+
+  @Test
+  public void testRebalanceReplicaGroupBasedPartitionByLoad() {
+    int numSegments = 4;
+    List<String> segments = SegmentAssignmentTestUtils.getNameList(SEGMENT_NAME_PREFIX, numSegments);
+    InstancePartitions instancePartitions = new InstancePartitions("testTable_OFFLINE");
+    instancePartitions.setInstances(0, 0, Arrays.asList("instance_0", "instance_1"));
+    instancePartitions.setInstances(0, 1, Arrays.asList("instance_2", "instance_3"));
+
+    // Mirror the segments to both replica-groups:
+    // segment_0, segment_2 -> instance_0, instance_2
+    // segment_1, segment_3 -> instance_1, instance_3
+    Map<String, Map<String, String>> currentAssignment = new TreeMap<>();
+    for (int i = 0; i < numSegments; i++) {
+      currentAssignment.put(SEGMENT_NAME_PREFIX + i, SegmentAssignmentUtils
+          .getInstanceStateMap(Arrays.asList("instance_" + (i % 2), "instance_" + (i % 2 + 2)),
+              SegmentStateModel.ONLINE));
+    }
+    Map<String, Double> segmentWeights = new HashMap<>();
+    segmentWeights.put("segment_0", 3.0);
+
+    Map<String, Map<String, String>> newAssignment = new TreeMap<>();
+    SegmentAssignmentUtils
+        .rebalanceReplicaGroupBasedPartition(currentAssignment, instancePartitions, 0, segments, segmentWeights,
+            newAssignment);
+    assertEquals(newAssignment.size(), numSegments);
+    // segment_2 should be moved to balance the load
+    assertEquals(SegmentAssignmentUtils.getNumSegmentsToBeMovedPerInstance(currentAssignment, newAssignment).keySet(),
+        new HashSet<>(Arrays.asList("instance_1", "instance_3")));
+    assertEquals(newAssignment.get("segment_2").keySet(), new HashSet<>(Arrays.asList("instance_1", "instance_3")));
+    assertEquals(SegmentAssignmentUtils.getLoadPerInstance(newAssignment,
+        Arrays.asList("instance_0", "instance_1", "instance_2", "instance_3"), segmentWeights),
+        new double[]{3.0, 3.0, 3.0, 3.0});
+  }
 }
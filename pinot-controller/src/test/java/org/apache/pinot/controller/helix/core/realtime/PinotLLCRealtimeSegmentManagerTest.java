@@ -29,19 +29,27 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
+import org.apache.helix.BaseDataAccessor;
+import org.apache.helix.HelixDataAccessor;
+import org.apache.helix.HelixManager;
+import org.apache.helix.PropertyKey;
+import org.apache.helix.ZNRecord;
 import org.apache.helix.model.IdealState;
 import org.apache.pinot.common.assignment.InstancePartitions;
 import org.apache.pinot.common.metadata.segment.LLCRealtimeSegmentZKMetadata;
 import org.apache.pinot.common.metrics.ControllerMetrics;
 import org.apache.pinot.common.utils.LLCSegmentName;
 import org.apache.pinot.common.utils.URIUtils;
+import org.apache.pinot.common.utils.helix.HelixHelper;
 import org.apache.pinot.controller.ControllerConf;
+import org.apache.pinot.controller.helix.core.IdealStateUpdateCoalescer;
 import org.apache.pinot.controller.helix.core.PinotHelixResourceManager;
 import org.apache.pinot.controller.helix.core.assignment.segment.SegmentAssignment;
 import org.apache.pinot.controller.helix.core.realtime.segment.CommittingSegmentDescriptor;
@@ -59,6 +67,7 @@ import org.apache.pinot.spi.stream.PartitionGroupConsumptionStatus;
 import org.apache.pinot.spi.stream.PartitionGroupMetadata;
 import org.apache.pinot.spi.stream.PartitionLevelStreamConfig;
 import org.apache.pinot.spi.stream.StreamConfig;
+import org.apache.pinot.spi.stream.StreamConfigProperties;
 import org.apache.pinot.spi.utils.CommonConstants;
 import org.apache.pinot.spi.utils.CommonConstants.Helix;
 import org.apache.pinot.spi.utils.CommonConstants.Helix.StateModel.SegmentStateModel;
@@ -72,6 +81,9 @@ import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.*;
@@ -168,6 +180,13 @@ public class PinotLLCRealtimeSegmentManagerTest {
     }
   }
 
+  private void enablePauselessCommit(FakePinotLLCRealtimeSegmentManager segmentManager) {
+    segmentManager._tableConfig.getIndexingConfig().getStreamConfigs()
+        .put(StreamConfigProperties.SEGMENT_PAUSELESS_COMMIT_ENABLED, "true");
+    segmentManager._streamConfig = new PartitionLevelStreamConfig(segmentManager._tableConfig.getTableName(),
+        IngestionConfigUtils.getStreamConfigMap(segmentManager._tableConfig));
+  }
+
   private void setUpNewTable(FakePinotLLCRealtimeSegmentManager segmentManager, int numReplicas, int numInstances,
       int numPartitions) {
     segmentManager._numReplicas = numReplicas;
@@ -295,6 +314,227 @@ public class PinotLLCRealtimeSegmentManagerTest {
     assertNull(consumingSegmentZKMetadata);
   }
 
+  /**
+   * Test segment commit through the {@link IdealStateUpdateCoalescer} (instead of updating the IdealState in place).
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCommitSegmentWithIdealStateUpdateCoalescer() {
+    PinotHelixResourceManager helixResourceManager = mock(PinotHelixResourceManager.class);
+    FakePinotLLCRealtimeSegmentManager segmentManager = new FakePinotLLCRealtimeSegmentManager(helixResourceManager);
+    segmentManager._useIdealStateUpdateCoalescer = true;
+    setUpNewTable(segmentManager, 2, 5, 4);
+
+    // Mock the IdealState ZNode with the IdealState in the segment manager
+    HelixDataAccessor dataAccessor = mock(HelixDataAccessor.class);
+    when(dataAccessor.keyBuilder()).thenReturn(new PropertyKey.Builder("testCluster"));
+    when(dataAccessor.getProperty(any(PropertyKey.class))).thenAnswer(invocation -> segmentManager._idealState);
+    BaseDataAccessor<ZNRecord> baseDataAccessor = mock(BaseDataAccessor.class);
+    when(baseDataAccessor.set(anyString(), any(ZNRecord.class), anyInt(), anyInt())).thenAnswer(invocation -> {
+      segmentManager._idealState = new IdealState((ZNRecord) invocation.getArgument(1));
+      return true;
+    });
+    when(dataAccessor.getBaseDataAccessor()).thenReturn(baseDataAccessor);
+    HelixManager helixManager = mock(HelixManager.class);
+    when(helixManager.getHelixDataAccessor()).thenReturn(dataAccessor);
+    when(helixResourceManager.getIdealStateUpdateCoalescer())
+        .thenReturn(new IdealStateUpdateCoalescer(helixManager, mock(ControllerMetrics.class)));
+
+    // Commit a segment for each partition group
+    for (int partitionGroupId = 0; partitionGroupId < 4; partitionGroupId++) {
+      String committingSegment =
+          new LLCSegmentName(RAW_TABLE_NAME, partitionGroupId, 0, CURRENT_TIME_MS).getSegmentName();
+      CommittingSegmentDescriptor committingSegmentDescriptor = new CommittingSegmentDescriptor(committingSegment,
+          new LongMsgOffset(PARTITION_OFFSET.getOffset() + NUM_DOCS).toString(), 0L);
+      committingSegmentDescriptor.setSegmentMetadata(mockSegmentMetadata());
+      segmentManager.commitSegmentMetadata(REALTIME_TABLE_NAME, committingSegmentDescriptor);
+    }
+
+    // Verify instance states for committed segments and new consuming segments
+    Map<String, Map<String, String>> instanceStatesMap = segmentManager._idealState.getRecord().getMapFields();
+    assertEquals(instanceStatesMap.size(), 8);
+    for (int partitionGroupId = 0; partitionGroupId < 4; partitionGroupId++) {
+      String committedSegment =
+          new LLCSegmentName(RAW_TABLE_NAME, partitionGroupId, 0, CURRENT_TIME_MS).getSegmentName();
+      assertEquals(new HashSet<>(instanceStatesMap.get(committedSegment).values()),
+          Collections.singleton(SegmentStateModel.ONLINE));
+      String consumingSegment =
+          new LLCSegmentName(RAW_TABLE_NAME, partitionGroupId, 1, CURRENT_TIME_MS).getSegmentName();
+      assertEquals(new HashSet<>(instanceStatesMap.get(consumingSegment).values()),
+          Collections.singleton(SegmentStateModel.CONSUMING));
+    }
+
+    // IdealState should not be updated after exceeding the max segment completion time
+    segmentManager._exceededMaxSegmentCompletionTime = true;
+    String committingSegment = new LLCSegmentName(RAW_TABLE_NAME, 0, 1, CURRENT_TIME_MS).getSegmentName();
+    CommittingSegmentDescriptor committingSegmentDescriptor = new CommittingSegmentDescriptor(committingSegment,
+        new LongMsgOffset(PARTITION_OFFSET.getOffset() + NUM_DOCS + NUM_DOCS).toString(), 0L);
+    committingSegmentDescriptor.setSegmentMetadata(mockSegmentMetadata());
+    try {
+      segmentManager.commitSegmentMetadata(REALTIME_TABLE_NAME, committingSegmentDescriptor);
+      fail();
+    } catch (HelixHelper.PermanentUpdaterException e) {
+      // Expected
+    }
+    instanceStatesMap = segmentManager._idealState.getRecord().getMapFields();
+    assertEquals(instanceStatesMap.size(), 8);
+    assertEquals(new HashSet<>(instanceStatesMap.get(committingSegment).values()),
+        Collections.singleton(SegmentStateModel.CONSUMING));
+  }
+
+  @Test
+  public void testPauselessCommitSegment() {
+    // Set up a new table with 2 replicas, 5 instances, 4 partition, and pauseless commit enabled
+    FakePinotLLCRealtimeSegmentManager segmentManager = new FakePinotLLCRealtimeSegmentManager();
+    setUpNewTable(segmentManager, 2, 5, 4);
+    enablePauselessCommit(segmentManager);
+    Map<String, Map<String, String>> instanceStatesMap = segmentManager._idealState.getRecord().getMapFields();
+    int numSegments = instanceStatesMap.size();
+
+    // Create the next segment for partition group 0 before committing the current segment
+    String committingSegment = new LLCSegmentName(RAW_TABLE_NAME, 0, 0, CURRENT_TIME_MS).getSegmentName();
+    LongMsgOffset endOffset = new LongMsgOffset(PARTITION_OFFSET.getOffset() + NUM_DOCS);
+    String consumingSegment = new LLCSegmentName(RAW_TABLE_NAME, 0, 1, CURRENT_TIME_MS).getSegmentName();
+    assertEquals(segmentManager.createNextConsumingSegment(REALTIME_TABLE_NAME, committingSegment, endOffset),
+        consumingSegment);
+    assertEquals(instanceStatesMap.size(), numSegments + 1);
+
+    // Both the committing segment and the next segment should be CONSUMING
+    assertEquals(new HashSet<>(instanceStatesMap.get(committingSegment).values()),
+        Collections.singleton(SegmentStateModel.CONSUMING));
+    assertEquals(new HashSet<>(instanceStatesMap.get(consumingSegment).values()),
+        Collections.singleton(SegmentStateModel.CONSUMING));
+    LLCRealtimeSegmentZKMetadata consumingSegmentZKMetadata =
+        segmentManager._segmentZKMetadataMap.get(consumingSegment);
+    assertEquals(consumingSegmentZKMetadata.getStatus(), Status.IN_PROGRESS);
+    assertEquals(consumingSegmentZKMetadata.getStartOffset(), endOffset.toString());
+    assertEquals(segmentManager.getNextSegmentStartOffset(REALTIME_TABLE_NAME, new LLCSegmentName(committingSegment)),
+        endOffset.toString());
+
+    // Creating the next segment again should be a no-op
+    assertEquals(segmentManager.createNextConsumingSegment(REALTIME_TABLE_NAME, committingSegment, endOffset),
+        consumingSegment);
+    assertEquals(instanceStatesMap.size(), numSegments + 1);
+
+    // Committing the segment at a different offset should fail
+    CommittingSegmentDescriptor committingSegmentDescriptor = new CommittingSegmentDescriptor(committingSegment,
+        new LongMsgOffset(endOffset.getOffset() + 1).toString(), 0L);
+    committingSegmentDescriptor.setSegmentMetadata(mockSegmentMetadata());
+    try {
+      segmentManager.commitSegmentMetadata(REALTIME_TABLE_NAME, committingSegmentDescriptor);
+      fail();
+    } catch (IllegalStateException e) {
+      // Expected
+    }
+
+    // Commit the segment, which should only change the committing segment to ONLINE
+    committingSegmentDescriptor = new CommittingSegmentDescriptor(committingSegment, endOffset.toString(), 0L);
+    committingSegmentDescriptor.setSegmentMetadata(mockSegmentMetadata());
+    int metadataMapSize = segmentManager._segmentZKMetadataMap.size();
+    segmentManager.commitSegmentMetadata(REALTIME_TABLE_NAME, committingSegmentDescriptor);
+    assertEquals(instanceStatesMap.size(), numSegments + 1);
+    assertEquals(segmentManager._segmentZKMetadataMap.size(), metadataMapSize);
+    assertEquals(new HashSet<>(instanceStatesMap.get(committingSegment).values()),
+        Collections.singleton(SegmentStateModel.ONLINE));
+    assertEquals(new HashSet<>(instanceStatesMap.get(consumingSegment).values()),
+        Collections.singleton(SegmentStateModel.CONSUMING));
+    LLCRealtimeSegmentZKMetadata committedSegmentZKMetadata =
+        segmentManager._segmentZKMetadataMap.get(committingSegment);
+    assertEquals(committedSegmentZKMetadata.getStatus(), Status.DONE);
+    assertEquals(committedSegmentZKMetadata.getEndOffset(), endOffset.toString());
+  }
+
+  /**
+   * Test segment commit when the IdealState contains segments not created by the LLC (e.g. uploaded segments).
+   */
+  @Test
+  public void testCommitSegmentWithUploadedSegments() {
+    FakePinotLLCRealtimeSegmentManager segmentManager = new FakePinotLLCRealtimeSegmentManager();
+    setUpNewTable(segmentManager, 2, 5, 4);
+    Map<String, Map<String, String>> instanceStatesMap = segmentManager._idealState.getRecord().getMapFields();
+    String uploadedSegment = "uploadedSegment";
+    instanceStatesMap.put(uploadedSegment, Collections.singletonMap("Server_0", SegmentStateModel.ONLINE));
+
+    // Commit a segment with pauseless commit disabled and enabled
+    for (int sequenceNumber = 0; sequenceNumber < 2; sequenceNumber++) {
+      if (sequenceNumber == 1) {
+        enablePauselessCommit(segmentManager);
+      }
+      String committingSegment =
+          new LLCSegmentName(RAW_TABLE_NAME, 0, sequenceNumber, CURRENT_TIME_MS).getSegmentName();
+      CommittingSegmentDescriptor committingSegmentDescriptor = new CommittingSegmentDescriptor(committingSegment,
+          new LongMsgOffset(PARTITION_OFFSET.getOffset() + (sequenceNumber + 1) * NUM_DOCS).toString(), 0L);
+      committingSegmentDescriptor.setSegmentMetadata(mockSegmentMetadata());
+      segmentManager.commitSegmentMetadata(REALTIME_TABLE_NAME, committingSegmentDescriptor);
+
+      assertEquals(new HashSet<>(instanceStatesMap.get(committingSegment).values()),
+          Collections.singleton(SegmentStateModel.ONLINE));
+      String consumingSegment =
+          new LLCSegmentName(RAW_TABLE_NAME, 0, sequenceNumber + 1, CURRENT_TIME_MS).getSegmentName();
+      assertEquals(new HashSet<>(instanceStatesMap.get(consumingSegment).values()),
+          Collections.singleton(SegmentStateModel.CONSUMING));
+    }
+    assertEquals(instanceStatesMap.get(uploadedSegment),
+        Collections.singletonMap("Server_0", SegmentStateModel.ONLINE));
+  }
+
+  @Test
+  public void testRepairsOfPauselessCommit() {
+    // Set up a new table with 2 replicas, 5 instances, 4 partition, and pauseless commit enabled
+    FakePinotLLCRealtimeSegmentManager segmentManager = new FakePinotLLCRealtimeSegmentManager();
+    setUpNewTable(segmentManager, 2, 5, 4);
+    enablePauselessCommit(segmentManager);
+    Map<String, Map<String, String>> instanceStatesMap = segmentManager._idealState.getRecord().getMapFields();
+
+    // Create the next segments for partition group 0 and 1 before committing the current segments
+    LongMsgOffset endOffset = new LongMsgOffset(PARTITION_OFFSET.getOffset() + NUM_DOCS);
+    String segment0 = new LLCSegmentName(RAW_TABLE_NAME, 0, 0, CURRENT_TIME_MS).getSegmentName();
+    String segment1 = new LLCSegmentName(RAW_TABLE_NAME, 1, 0, CURRENT_TIME_MS).getSegmentName();
+    String nextSegment0 = segmentManager.createNextConsumingSegment(REALTIME_TABLE_NAME, segment0, endOffset);
+    String nextSegment1 = segmentManager.createNextConsumingSegment(REALTIME_TABLE_NAME, segment1, endOffset);
+    assertNotNull(nextSegment0);
+    assertNotNull(nextSegment1);
+    int numSegments = instanceStatesMap.size();
+
+    // Segment 0 failed to commit after the segment ZK metadata is updated to DONE, segment 1 failed to commit before
+    // the segment ZK metadata is updated
+    segmentManager._segmentZKMetadataMap.get(segment0).setStatus(Status.DONE);
+
+    // Segments should not be repaired before the max segment completion time
+    segmentManager._exceededMaxSegmentCompletionTime = false;
+    segmentManager.ensureAllPartitionsConsuming();
+    assertEquals(new HashSet<>(instanceStatesMap.get(segment0).values()),
+        Collections.singleton(SegmentStateModel.CONSUMING));
+    assertEquals(new HashSet<>(instanceStatesMap.get(segment1).values()),
+        Collections.singleton(SegmentStateModel.CONSUMING));
+
+    // Segment 0 should be changed to ONLINE, segment 1 should be changed to OFFLINE to be re-consumed
+    segmentManager._exceededMaxSegmentCompletionTime = true;
+    segmentManager.ensureAllPartitionsConsuming();
+    assertEquals(instanceStatesMap.size(), numSegments);
+    assertEquals(new HashSet<>(instanceStatesMap.get(segment0).values()),
+        Collections.singleton(SegmentStateModel.ONLINE));
+    assertEquals(new HashSet<>(instanceStatesMap.get(segment1).values()),
+        Collections.singleton(SegmentStateModel.OFFLINE));
+    assertEquals(new HashSet<>(instanceStatesMap.get(nextSegment0).values()),
+        Collections.singleton(SegmentStateModel.CONSUMING));
+    assertEquals(new HashSet<>(instanceStatesMap.get(nextSegment1).values()),
+        Collections.singleton(SegmentStateModel.CONSUMING));
+
+    // Segment 1 should be changed back to CONSUMING on the same instances to be re-consumed
+    Set<String> instances = instanceStatesMap.get(segment1).keySet();
+    int segmentZKMetadataVersion = segmentManager._segmentZKMetadataVersionMap.get(segment1);
+    segmentManager.ensureAllPartitionsConsuming();
+    assertEquals(instanceStatesMap.size(), numSegments);
+    assertEquals(instanceStatesMap.get(segment1).keySet(), instances);
+    assertEquals(new HashSet<>(instanceStatesMap.get(segment1).values()),
+        Collections.singleton(SegmentStateModel.CONSUMING));
+    assertEquals(segmentManager._segmentZKMetadataMap.get(segment1).getStatus(), Status.IN_PROGRESS);
+    assertEquals((int) segmentManager._segmentZKMetadataVersionMap.get(segment1), segmentZKMetadataVersion + 1);
+    assertEquals(new HashSet<>(instanceStatesMap.get(segment0).values()),
+        Collections.singleton(SegmentStateModel.ONLINE));
+  }
+
   /**
    * Test cases for the scenario where stream partitions increase, and the validation manager is attempting to create
    * segments for new partitions. This test assumes that all other factors remain the same (no error conditions or
@@ -931,9 +1171,14 @@ public class PinotLLCRealtimeSegmentManagerTest {
     int _numPartitions;
     List<PartitionGroupMetadata> _partitionGroupMetadataList = null;
     boolean _exceededMaxSegmentCompletionTime = false;
+    boolean _useIdealStateUpdateCoalescer = false;
 
     FakePinotLLCRealtimeSegmentManager() {
-      super(mock(PinotHelixResourceManager.class), CONTROLLER_CONF, mock(ControllerMetrics.class));
+      this(mock(PinotHelixResourceManager.class));
+    }
+
+    FakePinotLLCRealtimeSegmentManager(PinotHelixResourceManager helixResourceManager) {
+      super(helixResourceManager, CONTROLLER_CONF, mock(ControllerMetrics.class));
     }
 
     void makeTableConfig() {
@@ -1020,6 +1265,11 @@ public class PinotLLCRealtimeSegmentManagerTest {
     void updateIdealStateOnSegmentCompletion(String realtimeTableName, String committingSegmentName,
         String newSegmentName, SegmentAssignment segmentAssignment,
         Map<InstancePartitionsType, InstancePartitions> instancePartitionsMap) {
+      if (_useIdealStateUpdateCoalescer) {
+        super.updateIdealStateOnSegmentCompletion(realtimeTableName, committingSegmentName, newSegmentName,
+            segmentAssignment, instancePartitionsMap);
+        return;
+      }
       updateInstanceStatesForNewConsumingSegment(_idealState.getRecord().getMapFields(), committingSegmentName, null,
           segmentAssignment, instancePartitionsMap);
       updateInstanceStatesForNewConsumingSegment(_idealState.getRecord().getMapFields(), null, newSegmentName,
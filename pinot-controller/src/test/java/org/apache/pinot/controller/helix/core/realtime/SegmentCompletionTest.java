@@ -724,6 +724,60 @@ public class SegmentCompletionTest {
     Assert.assertEquals(response.getStatus(), ControllerResponseStatus.DISCARD);
   }
 
+  @Test
+  public void testPauselessCommit() throws Exception {
+    segmentManager._isPauselessCommitEnabled = true;
+    SegmentCompletionProtocol.Response response;
+    Request.Params params;
+    segmentCompletionMgr._seconds = 10L;
+    // S1 is picked as the committer, and the next segment is created right away
+    params = new Request.Params().withInstanceId(s1)
+        .withStreamPartitionMsgOffset(s1Offset.toString())
+        .withSegmentName(segmentNameStr)
+        .withReason(SegmentCompletionProtocol.REASON_ROW_LIMIT);
+    response = segmentCompletionMgr.segmentConsumed(params);
+    Assert.assertEquals(response.getStatus(), ControllerResponseStatus.COMMIT);
+    Assert.assertEquals(segmentManager._nextSegmentStartOffset, s1Offset.toString());
+
+    // A new controller takes over before S1 commits, and the end offset is pinned by the next segment
+    replaceSegmentCompletionManager();
+    segmentCompletionMgr._seconds += 1;
+    // S2 is ahead of the pinned offset, and is asked to discard
+    params = new Request.Params().withInstanceId(s2)
+        .withStreamPartitionMsgOffset(s2Offset.toString())
+        .withSegmentName(segmentNameStr)
+        .withReason(SegmentCompletionProtocol.REASON_TIME_LIMIT);
+    response = segmentCompletionMgr.segmentConsumed(params);
+    Assert.assertEquals(response.getStatus(), ControllerResponseStatus.DISCARD);
+    // S3 is behind the pinned offset, and is asked to catch up
+    StreamPartitionMsgOffset s3BehindOffset = getModifiedLongOffset(s1Offset, -5);
+    params = new Request.Params().withInstanceId(s3)
+        .withStreamPartitionMsgOffset(s3BehindOffset.toString())
+        .withSegmentName(segmentNameStr)
+        .withReason(SegmentCompletionProtocol.REASON_TIME_LIMIT);
+    response = segmentCompletionMgr.segmentConsumed(params);
+    Assert.assertEquals(response.getStatus(), ControllerResponseStatus.CATCH_UP);
+    verifyOffset(response, s1Offset);
+    // S3 comes back at the pinned offset, and is asked to commit without waiting for the other servers
+    segmentCompletionMgr._seconds += 1;
+    params = new Request.Params().withInstanceId(s3)
+        .withStreamPartitionMsgOffset(s1Offset.toString())
+        .withSegmentName(segmentNameStr);
+    response = segmentCompletionMgr.segmentConsumed(params);
+    Assert.assertEquals(response.getStatus(), ControllerResponseStatus.COMMIT);
+    verifyOffset(response, s1Offset);
+    params = new Request.Params().withInstanceId(s3)
+        .withStreamPartitionMsgOffset(s1Offset.toString())
+        .withSegmentName(segmentNameStr);
+    response = segmentCompletionMgr.segmentCommitStart(params);
+    Assert.assertEquals(response.getStatus(), ControllerResponseStatus.COMMIT_CONTINUE);
+    segmentCompletionMgr._seconds += 5;
+    response = segmentCompletionMgr.segmentCommitEnd(params, true, false,
+        CommittingSegmentDescriptor.fromSegmentCompletionReqParams(params));
+    Assert.assertEquals(response.getStatus(), ControllerResponseStatus.COMMIT_SUCCESS);
+    Assert.assertEquals(segmentManager._segmentMetadata.getEndOffset(), s1Offset.toString());
+  }
+
   // Tests that when server is delayed(Stalls for a hour), when server comes back, we commit successfully.
   @Test
   public void testDelayedServerSplitCommit() throws Exception {
@@ -1366,6 +1420,8 @@ public class SegmentCompletionTest {
     public LLCSegmentName _stoppedSegmentName;
     public String _stoppedInstance;
     public HelixManager _helixManager = mock(HelixManager.class);
+    public boolean _isPauselessCommitEnabled = false;
+    public String _nextSegmentStartOffset;
 
     protected MockPinotLLCRealtimeSegmentManager(PinotHelixResourceManager pinotHelixResourceManager) {
       this(pinotHelixResourceManager, new ControllerMetrics(PinotMetricUtils.getPinotMetricsRegistry()));
@@ -1389,6 +1445,27 @@ public class SegmentCompletionTest {
       _segmentMetadata.setEndTime(_segmentCompletionMgr.getCurrentTimeMs());
     }
 
+    @Override
+    public boolean isPauselessCommitEnabled(String realtimeTableName) {
+      return _isPauselessCommitEnabled;
+    }
+
+    @Override
+    public String createNextConsumingSegment(String realtimeTableName, String committingSegmentName,
+        StreamPartitionMsgOffset endOffset) {
+      if (_nextSegmentStartOffset == null) {
+        _nextSegmentStartOffset = endOffset.toString();
+      }
+      LLCSegmentName llcSegmentName = new LLCSegmentName(committingSegmentName);
+      return new LLCSegmentName(llcSegmentName.getTableName(), llcSegmentName.getPartitionGroupId(),
+          llcSegmentName.getSequenceNumber() + 1, _segmentCompletionMgr.getCurrentTimeMs()).getSegmentName();
+    }
+
+    @Override
+    public String getNextSegmentStartOffset(String realtimeTableName, LLCSegmentName llcSegmentName) {
+      return _nextSegmentStartOffset;
+    }
+
     @Override
     public void commitSegmentFile(String rawTableName, CommittingSegmentDescriptor committingSegmentDescriptor) {
       Preconditions.checkState(!committingSegmentDescriptor.getSegmentLocation().equals("doNotCommitMe"));
@@ -20,6 +20,7 @@ package org.apache.pinot.controller.helix.core.rebalance;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.TreeSet;
@@ -523,4 +524,140 @@ public class TableRebalancerTest {
     assertTrue(TableRebalancer
         .isExternalViewConverged(offlineTableName, externalViewSegmentStates, idealStateSegmentStates, true));
   }
+
+  @Test
+  public void testThrottledAssignment() {
+    Map<String, Map<String, String>> currentAssignment = new TreeMap<>();
+    currentAssignment.put("segment1",
+        SegmentAssignmentUtils.getInstanceStateMap(Arrays.asList("host1", "host2"), ONLINE));
+    currentAssignment.put("segment2",
+        SegmentAssignmentUtils.getInstanceStateMap(Arrays.asList("host1", "host2"), ONLINE));
+    Map<String, Map<String, String>> targetAssignment = new TreeMap<>();
+    targetAssignment.put("segment1",
+        SegmentAssignmentUtils.getInstanceStateMap(Arrays.asList("host3", "host4"), ONLINE));
+    targetAssignment.put("segment2",
+        SegmentAssignmentUtils.getInstanceStateMap(Arrays.asList("host3", "host4"), ONLINE));
+    Map<String, Long> segmentSizes = new HashMap<>();
+    segmentSizes.put("segment1", 1000L);
+    segmentSizes.put("segment2", 2000L);
+
+    // With 1 concurrent move per server, only the larger segment should be moved first
+    SegmentMoveThrottle throttle = new SegmentMoveThrottle(1, -1);
+    Map<String, TableRebalancer.SegmentMove> newSegmentMoves = new TreeMap<>();
+    Map<String, Map<String, String>> nextAssignment = TableRebalancer
+        .getNextThrottledAssignment(currentAssignment, targetAssignment, 0, Collections.emptySet(), throttle,
+            segmentSizes, 0L, newSegmentMoves);
+    assertEquals(nextAssignment.get("segment1"), currentAssignment.get("segment1"));
+    assertEquals(nextAssignment.get("segment2"), targetAssignment.get("segment2"));
+    assertEquals(newSegmentMoves.keySet(), Collections.singleton("segment2"));
+    TableRebalancer.SegmentMove segmentMove = newSegmentMoves.get("segment2");
+    assertEquals(segmentMove._instances, Arrays.asList("host3", "host4"));
+    assertEquals(segmentMove._sizeInBytes, 2000L);
+
+    // Segment in progress should not be moved again, and the other segment should still be throttled
+    newSegmentMoves.clear();
+    Map<String, Map<String, String>> assignment = TableRebalancer
+        .getNextThrottledAssignment(nextAssignment, targetAssignment, 0, Collections.singleton("segment2"), throttle,
+            segmentSizes, 0L, newSegmentMoves);
+    assertEquals(assignment, nextAssignment);
+    assertTrue(newSegmentMoves.isEmpty());
+
+    // After the move finishes, the other segment should be moved
+    throttle.release(segmentMove._instances);
+    assignment = TableRebalancer
+        .getNextThrottledAssignment(nextAssignment, targetAssignment, 0, Collections.emptySet(), throttle,
+            segmentSizes, 0L, newSegmentMoves);
+    assertEquals(assignment, targetAssignment);
+    assertEquals(newSegmentMoves.keySet(), Collections.singleton("segment1"));
+
+    // With 1000 bytes per second per server, the second segment should wait for the download time of the first one
+    throttle = new SegmentMoveThrottle(-1, 1000L);
+    newSegmentMoves.clear();
+    nextAssignment = TableRebalancer
+        .getNextThrottledAssignment(currentAssignment, targetAssignment, 0, Collections.emptySet(), throttle,
+            segmentSizes, 0L, newSegmentMoves);
+    assertEquals(nextAssignment.get("segment1"), currentAssignment.get("segment1"));
+    assertEquals(nextAssignment.get("segment2"), targetAssignment.get("segment2"));
+    assertEquals(throttle.getWaitTimeMs(0L), 2000L);
+    assertEquals(throttle.getWaitTimeMs(1500L), 500L);
+    newSegmentMoves.clear();
+    assignment = TableRebalancer
+        .getNextThrottledAssignment(nextAssignment, targetAssignment, 0, Collections.emptySet(), throttle,
+            segmentSizes, 1500L, newSegmentMoves);
+    assertEquals(assignment, nextAssignment);
+    assertTrue(newSegmentMoves.isEmpty());
+    assignment = TableRebalancer
+        .getNextThrottledAssignment(nextAssignment, targetAssignment, 0, Collections.emptySet(), throttle,
+            segmentSizes, 2000L, newSegmentMoves);
+    assertEquals(assignment, targetAssignment);
+    assertEquals(newSegmentMoves.keySet(), Collections.singleton("segment1"));
+    assertEquals(throttle.getWaitTimeMs(2000L), 1000L);
+
+    // Cancelled moves (e.g. IdealState update failed due to version change) should not hold any budget
+    throttle = new SegmentMoveThrottle(1, 1000L);
+    newSegmentMoves.clear();
+    nextAssignment = TableRebalancer
+        .getNextThrottledAssignment(currentAssignment, targetAssignment, 0, Collections.emptySet(), throttle,
+            segmentSizes, 0L, newSegmentMoves);
+    assertEquals(newSegmentMoves.keySet(), Collections.singleton("segment2"));
+    assertEquals(throttle.getWaitTimeMs(0L), 2000L);
+    segmentMove = newSegmentMoves.get("segment2");
+    throttle.cancel(segmentMove._instances, segmentMove._sizeInBytes);
+    assertEquals(throttle.getWaitTimeMs(0L), 0L);
+    newSegmentMoves.clear();
+    assignment = TableRebalancer
+        .getNextThrottledAssignment(currentAssignment, targetAssignment, 0, Collections.emptySet(), throttle,
+            segmentSizes, 0L, newSegmentMoves);
+    assertEquals(assignment, nextAssignment);
+    assertEquals(newSegmentMoves.keySet(), Collections.singleton("segment2"));
+    assertEquals(throttle.getWaitTimeMs(0L), 2000L);
+
+    // Dropping instances should not be throttled
+    throttle = new SegmentMoveThrottle(1, 1000L);
+    assertTrue(throttle.tryAcquire(Arrays.asList("host1", "host2", "host3"), 1000L, 0L));
+    currentAssignment.put("segment1",
+        SegmentAssignmentUtils.getInstanceStateMap(Arrays.asList("host1", "host2", "host3"), ONLINE));
+    targetAssignment.put("segment1",
+        SegmentAssignmentUtils.getInstanceStateMap(Arrays.asList("host1", "host2"), ONLINE));
+    targetAssignment.put("segment2", currentAssignment.get("segment2"));
+    newSegmentMoves.clear();
+    assignment = TableRebalancer
+        .getNextThrottledAssignment(currentAssignment, targetAssignment, 1, Collections.emptySet(), throttle,
+            segmentSizes, 0L, newSegmentMoves);
+    assertEquals(assignment, targetAssignment);
+    assertTrue(newSegmentMoves.isEmpty());
+  }
+
+  @Test
+  public void testRebalanceProgress() {
+    RebalanceProgress progress = new RebalanceProgress("testTable_OFFLINE");
+    assertEquals(progress.getStatus(), RebalanceResult.Status.IN_PROGRESS);
+    assertEquals(progress.getNumSegmentMovesTotal(), -1L);
+    assertEquals(progress.getEstimatedTimeRemainingMs(), -1L);
+
+    progress.update(10, 10000, 2);
+    assertEquals(progress.getNumSegmentMovesTotal(), 10L);
+    assertEquals(progress.getNumSegmentMovesCompleted(), 0L);
+    assertEquals(progress.getNumSegmentMovesInProgress(), 2);
+    assertEquals(progress.getBytesToMoveTotal(), 10000L);
+    assertEquals(progress.getBytesMoved(), 0L);
+    assertEquals(progress.getEstimatedTimeRemainingMs(), -1L);
+
+    progress.update(6, 4000, 2);
+    assertEquals(progress.getNumSegmentMovesCompleted(), 4L);
+    assertEquals(progress.getBytesMoved(), 6000L);
+    assertTrue(progress.getEstimatedTimeRemainingMs() >= 0);
+
+    // Total should grow when the target assignment is re-calculated with more moves
+    progress.update(8, 6000, 1);
+    assertEquals(progress.getNumSegmentMovesTotal(), 12L);
+    assertEquals(progress.getNumSegmentMovesCompleted(), 4L);
+    assertEquals(progress.getBytesToMoveTotal(), 12000L);
+    assertEquals(progress.getBytesMoved(), 6000L);
+
+    progress.finish(RebalanceResult.Status.DONE, "Success");
+    assertEquals(progress.getStatus(), RebalanceResult.Status.DONE);
+    assertEquals(progress.getNumSegmentMovesInProgress(), 0);
+    assertEquals(progress.getEstimatedTimeRemainingMs(), 0L);
+  }
 }
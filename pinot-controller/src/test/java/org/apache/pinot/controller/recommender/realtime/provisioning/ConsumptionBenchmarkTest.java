@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.recommender.realtime.provisioning;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Files;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.controller.recommender.io.metadata.SchemaWithMetaData;
+import org.apache.pinot.segment.local.segment.readers.PinotSegmentRecordReader;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.utils.JsonUtils;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class ConsumptionBenchmarkTest {
+
+  @Test
+  public void testBenchmark()
+      throws Exception {
+    File workingDir = Files.createTempDirectory("working-dir").toFile();
+    try {
+      File schemaFile = readFile("memory_estimation/schema-with-metadata.json");
+      Schema schema = JsonUtils.fileToObject(schemaFile, Schema.class);
+      SchemaWithMetaData schemaWithMetadata = JsonUtils.fileToObject(schemaFile, SchemaWithMetaData.class);
+      TableConfig tableConfig =
+          JsonUtils.fileToObject(readFile("memory_estimation/table-config.json"), TableConfig.class);
+      File sampleSegment =
+          new MemoryEstimator.SegmentGenerator(schemaWithMetadata, schema, tableConfig, 10_000, true, workingDir)
+              .generate();
+
+      // Index more rows than the sample segment has to replay it
+      File benchmarkDir = new File(workingDir, "benchmark");
+      ConsumptionBenchmark benchmark = new ConsumptionBenchmark(tableConfig, schema, benchmarkDir, 25_000, 0,
+          ConsumptionBenchmark.getDefaultQuery(tableConfig), 5);
+      ConsumptionBenchmark.Result result;
+      try (PinotSegmentRecordReader recordReader = new PinotSegmentRecordReader(sampleSegment)) {
+        result = benchmark.run(recordReader);
+      }
+
+      assertEquals(result.getNumRowsIndexed(), 25_000);
+      assertTrue(result.getRowsPerCoreSecond() > 0);
+      assertTrue(result.getOffHeapBytes() > 0);
+      assertTrue(result.getCompletedSegmentSizeBytes() > 0);
+      assertEquals(result.getNumQueries(), 5);
+      assertTrue(result.getQueryLatencyMs(50) >= 0);
+      assertTrue(result.getQueryLatencyMs(50) <= result.getQueryLatencyMs(100));
+      assertFalse(benchmarkDir.exists());
+    } finally {
+      FileUtils.deleteQuietly(workingDir);
+    }
+  }
+
+  @Test
+  public void testRecommend() {
+    // 1M rows: 100 bytes/row consuming, 20 bytes/row completed, 100K rows/s per core, 10s to commit
+    ConsumptionBenchmark.Result result =
+        new ConsumptionBenchmark.Result(1_000_000, 10_000_000_000L, 10_000_000_000L, 80_000_000L, 20_000_000L,
+            10_000L, 20_000_000L, new long[0]);
+    assertEquals(result.getConsumingBytesPerRow(), 100.0);
+    assertEquals(result.getCompletedBytesPerRow(), 20.0);
+    assertEquals(result.getRowsPerCoreSecond(), 100_000.0);
+    assertEquals(result.getQueryLatencyMs(50), -1.0);
+
+    // 1000 rows/s per partition, 24 consuming partitions, 24 hours retention
+    int[] numHosts = {2, 4, 8};
+    int[] numHours = {2, 4, 6};
+
+    // 2 hosts: 12 partitions per host
+    // - 6 hours: 21.6M rows per segment, 2.16GB consuming + 432MB * 3 completed per partition = 41.472GB per host
+    ConsumptionBenchmark.Recommendation recommendation =
+        ConsumptionBenchmark.recommend(result, 1000, 24, numHosts, numHours, 24, 48_000_000_000L, 16);
+    assertNotNull(recommendation);
+    assertEquals(recommendation.getNumHosts(), 2);
+    assertEquals(recommendation.getNumHoursToConsume(), 6);
+    assertEquals(recommendation.getRowsPerSegment(), 21_600_000);
+    assertEquals(recommendation.getActiveMemoryPerHostBytes(), 41_472_000_000L);
+    assertEquals(recommendation.getCompletedSegmentSizeBytes(), 432_000_000L);
+    assertEquals(recommendation.getNumCoresForConsumptionPerHost(), 0.12, 1e-9);
+    assertEquals(recommendation.getCommitBuildTimeMs(), 216_000L);
+
+    // Less memory per host: 6 hours does not fit, 4 hours (14.4M rows) needs 12 * (1.44GB + 288MB * 5) = 34.56GB
+    recommendation = ConsumptionBenchmark.recommend(result, 1000, 24, numHosts, numHours, 24, 36_000_000_000L, 16);
+    assertNotNull(recommendation);
+    assertEquals(recommendation.getNumHosts(), 2);
+    assertEquals(recommendation.getNumHoursToConsume(), 4);
+    assertEquals(recommendation.getActiveMemoryPerHostBytes(), 34_560_000_000L);
+
+    // Not enough cores with 2 hosts (12 partitions * 10K rows/s needs 1.2 cores, more than half of 2 cores)
+    recommendation = ConsumptionBenchmark.recommend(result, 10_000, 24, numHosts, new int[]{2}, 24, Long.MAX_VALUE, 2);
+    assertNotNull(recommendation);
+    assertEquals(recommendation.getNumHosts(), 4);
+
+    // Nothing fits
+    assertNull(ConsumptionBenchmark.recommend(result, 1000, 24, numHosts, numHours, 24, 1_000_000L, 16));
+  }
+
+  private File readFile(String fileName)
+      throws Exception {
+    URL resource = getClass().getClassLoader().getResource(fileName);
+    return new File(resource.toURI());
+  }
+}
@@ -0,0 +1,174 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.tuner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.pinot.common.restlet.resources.ColumnFilterStats;
+import org.apache.pinot.common.restlet.resources.TableFilterStats;
+import org.apache.pinot.controller.tuner.IndexTuningReport.Action;
+import org.apache.pinot.controller.tuner.IndexTuningReport.IndexRecommendation;
+import org.apache.pinot.spi.config.table.IndexingConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.config.table.TunerConfig;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class WorkloadIndexTunerTest {
+  private static final String TABLE_NAME = "testTable_OFFLINE";
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().setSchemaName("testTable")
+      .addSingleValueDimension("eqCol", FieldSpec.DataType.STRING)
+      .addSingleValueDimension("rangeCol", FieldSpec.DataType.LONG)
+      .addSingleValueDimension("indexedCol", FieldSpec.DataType.STRING)
+      .addSingleValueDimension("unusedIndexCol", FieldSpec.DataType.STRING)
+      .addMetric("rawMetric", FieldSpec.DataType.DOUBLE).addMetric("dictMetric", FieldSpec.DataType.DOUBLE).build();
+
+  private static ColumnFilterStats columnFilterStats(Map<String, Long> numFiltersPerPredicateType,
+      Map<String, Long> numFiltersPerAccessPath, long numEntriesScanned) {
+    return new ColumnFilterStats(numFiltersPerPredicateType, numFiltersPerAccessPath, numEntriesScanned);
+  }
+
+  private static TableConfig getTableConfig() {
+    return new TableConfigBuilder(TableType.OFFLINE).setTableName("testTable")
+        .setInvertedIndexColumns(Arrays.asList("indexedCol", "unusedIndexCol"))
+        .setNoDictionaryColumns(Collections.singletonList("rawMetric")).build();
+  }
+
+  private static WorkloadIndexTuner getTuner(TableFilterStats tableFilterStats) {
+    WorkloadIndexTuner tuner = new WorkloadIndexTuner();
+    tuner.init(null, new TunerConfig(WorkloadIndexTuner.TUNER_NAME, null), SCHEMA);
+    tuner.setTableFilterStats(tableFilterStats);
+    return tuner;
+  }
+
+  private static TableFilterStats getTableFilterStats() {
+    Map<String, ColumnFilterStats> columnFilterStatsMap = new HashMap<>();
+    columnFilterStatsMap
+        .put("eqCol", columnFilterStats(Collections.singletonMap("EQ", 100L), Collections.singletonMap("SCAN", 100L),
+            100_000L));
+    columnFilterStatsMap.put("rangeCol",
+        columnFilterStats(Collections.singletonMap("RANGE", 50L), Collections.singletonMap("SCAN", 50L), 50_000L));
+    Map<String, Long> indexedColPredicateTypes = new HashMap<>();
+    indexedColPredicateTypes.put("EQ", 5L);
+    indexedColPredicateTypes.put("IN", 5L);
+    columnFilterStatsMap.put("indexedCol",
+        columnFilterStats(indexedColPredicateTypes, Collections.singletonMap("INVERTED_INDEX", 10L), 0L));
+    columnFilterStatsMap.put("rawMetric",
+        columnFilterStats(Collections.singletonMap("RANGE", 5L), Collections.singletonMap("SCAN", 5L), 5_000L));
+    return new TableFilterStats(TABLE_NAME, 0L, columnFilterStatsMap);
+  }
+
+  @Test
+  public void testMergeFilterStats() {
+    TableFilterStats stats1 = new TableFilterStats(TABLE_NAME, 100L, new HashMap<>(Collections.singletonMap("eqCol",
+        columnFilterStats(Collections.singletonMap("EQ", 1L), Collections.singletonMap("SCAN", 1L), 10L))));
+    TableFilterStats stats2 = new TableFilterStats(TABLE_NAME, 200L, new HashMap<>(Collections.singletonMap("eqCol",
+        columnFilterStats(Collections.singletonMap("IN", 2L), Collections.singletonMap("SCAN", 2L), 20L))));
+    TableFilterStats merged = stats1.merge(stats2);
+    assertEquals(merged.getStartTimeMs(), 200L);
+    ColumnFilterStats columnFilterStats = merged.getColumnFilterStats().get("eqCol");
+    assertEquals(columnFilterStats.getNumFilters(), 3L);
+    assertEquals(columnFilterStats.getNumFilters("EQ"), 1L);
+    assertEquals(columnFilterStats.getNumFilters("IN"), 2L);
+    assertEquals(columnFilterStats.getNumFiltersWithAccessPath("SCAN"), 3L);
+    assertEquals(columnFilterStats.getNumEntriesScanned(), 30L);
+  }
+
+  @Test
+  public void testRecommend() {
+    TableConfig tableConfig = getTableConfig();
+    IndexTuningReport report = getTuner(getTableFilterStats()).recommend(tableConfig);
+    assertEquals(report.getTableName(), TABLE_NAME);
+    assertFalse(report.isApplied());
+
+    Map<String, List<Action>> actions = new HashMap<>();
+    for (IndexRecommendation recommendation : report.getRecommendations()) {
+      actions.computeIfAbsent(recommendation.getColumn(), k -> new ArrayList<>())
+          .add(recommendation.getAction());
+      if (recommendation.getAction() == Action.ADD_INVERTED_INDEX) {
+        assertEquals(recommendation.getEstimatedEntriesScannedSaved(), 100_000L);
+      }
+      if (recommendation.getAction() == Action.SET_SORTED_COLUMN) {
+        assertTrue(recommendation.isNewSegmentsOnly());
+      }
+    }
+    assertEquals(actions.get("eqCol"),
+        Arrays.asList(Action.ADD_BLOOM_FILTER, Action.ADD_INVERTED_INDEX, Action.SET_SORTED_COLUMN));
+    assertEquals(actions.get("rangeCol"), Collections.singletonList(Action.ADD_RANGE_INDEX));
+    assertNull(actions.get("indexedCol"));
+    assertEquals(actions.get("unusedIndexCol"), Collections.singletonList(Action.REMOVE_INVERTED_INDEX));
+    // Filtered metric should not be recommended for raw encoding
+    assertEquals(actions.get("rawMetric"), Collections.singletonList(Action.ADD_RANGE_INDEX));
+    assertEquals(actions.get("dictMetric"), Collections.singletonList(Action.ADD_RAW_ENCODING));
+  }
+
+  @Test
+  public void testApply() {
+    TableConfig tableConfig = getTableConfig();
+    getTuner(getTableFilterStats()).apply(tableConfig);
+    IndexingConfig indexingConfig = tableConfig.getIndexingConfig();
+    assertEquals(indexingConfig.getInvertedIndexColumns(), Arrays.asList("indexedCol", "eqCol"));
+    assertEquals(indexingConfig.getSortedColumn(), Collections.singletonList("eqCol"));
+    assertEquals(indexingConfig.getBloomFilterColumns(), Collections.singletonList("eqCol"));
+    assertTrue(indexingConfig.getRangeIndexColumns().contains("rangeCol"));
+    assertTrue(indexingConfig.getNoDictionaryColumns().contains("dictMetric"));
+  }
+
+  @Test
+  public void testNotEnoughFilters() {
+    TableConfig tableConfig = getTableConfig();
+    Map<String, String> properties = Collections.singletonMap(WorkloadIndexTuner.MIN_NUM_FILTERS_KEY, "1000");
+    WorkloadIndexTuner tuner = new WorkloadIndexTuner();
+    tuner.init(null, new TunerConfig(WorkloadIndexTuner.TUNER_NAME, properties), SCHEMA);
+    tuner.setTableFilterStats(getTableFilterStats());
+    assertTrue(tuner.recommend(tableConfig).getRecommendations().isEmpty());
+
+    // Filter stats collected for less than the minimum observation window should not drive any change
+    TableFilterStats tableFilterStats = getTableFilterStats();
+    tuner = getTuner(new TableFilterStats(TABLE_NAME, System.currentTimeMillis(),
+        tableFilterStats.getColumnFilterStats()));
+    assertTrue(tuner.recommend(tableConfig).getRecommendations().isEmpty());
+    properties = Collections.singletonMap(WorkloadIndexTuner.MIN_OBSERVATION_WINDOW_MS_KEY, "0");
+    tuner = new WorkloadIndexTuner();
+    tuner.init(null, new TunerConfig(WorkloadIndexTuner.TUNER_NAME, properties), SCHEMA);
+    tuner.setTableFilterStats(new TableFilterStats(TABLE_NAME, System.currentTimeMillis(),
+        tableFilterStats.getColumnFilterStats()));
+    assertFalse(tuner.recommend(tableConfig).getRecommendations().isEmpty());
+
+    // Without filter stats, the table config should not be modified
+    tuner = new WorkloadIndexTuner();
+    tuner.init(null, new TunerConfig(WorkloadIndexTuner.TUNER_NAME, null), SCHEMA);
+    tuner.apply(tableConfig);
+    assertEquals(tableConfig.getIndexingConfig().getInvertedIndexColumns(),
+        Arrays.asList("indexedCol", "unusedIndexCol"));
+  }
+}
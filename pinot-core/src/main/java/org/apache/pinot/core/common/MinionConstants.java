@@ -77,6 +77,10 @@ public class MinionConstants {
 
     // Segment name generator related configs
     public static final String MERGED_SEGMENT_NAME_KEY = "mergedSegmentNameKey";
+
+    // Raw name of the rollup table (configured with RollupTableSpec) to upload the rolled-up copy of the input segments
+    // to. The input segments are kept in the source table.
+    public static final String ROLLUP_TABLE_NAME_KEY = "rollupTableName";
   }
 
   /**
@@ -106,6 +110,30 @@ public class MinionConstants {
     public static final String MAX_NUM_RECORDS_PER_SEGMENT_KEY = "maxNumRecordsPerSegment";
   }
 
+  /**
+   * Compacts the committed segments of an upsert enabled REALTIME table by removing the invalidated records
+   */
+  public static class UpsertCompactionTask {
+    public static final String TASK_TYPE = "UpsertCompactionTask";
+
+    /**
+     * The time period to wait after the segment is committed before compacting it
+     * e.g. if set to "1d", no task will be scheduled for segments committed within 1 day
+     */
+    public static final String BUFFER_TIME_PERIOD_KEY = "bufferTimePeriod";
+    /**
+     * The minimum percentage of the invalid records in a segment to trigger the compaction
+     */
+    public static final String INVALID_RECORDS_THRESHOLD_PERCENT_KEY = "invalidRecordsThresholdPercent";
+    /**
+     * The minimum number of the invalid records in a segment to trigger the compaction
+     */
+    public static final String INVALID_RECORDS_THRESHOLD_COUNT_KEY = "invalidRecordsThresholdCount";
+
+    // Admin endpoints of the servers hosting the segment set by task generator to fetch the valid doc ids
+    public static final String SERVER_ADMIN_ENDPOINTS_KEY = "serverAdminEndpoints";
+  }
+
   // Generate segment and push to controller based on batch ingestion configs
   public static class SegmentGenerationAndPushTask {
     public static final String TASK_TYPE = "SegmentGenerationAndPushTask";
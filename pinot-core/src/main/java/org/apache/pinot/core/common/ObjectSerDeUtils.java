@@ -19,6 +19,7 @@
 package org.apache.pinot.core.common;
 
 import com.clearspring.analytics.stream.cardinality.HyperLogLog;
+import com.clearspring.analytics.stream.cardinality.RegisterSet;
 import com.google.common.primitives.Longs;
 import com.tdunning.math.stats.MergingDigest;
 import com.tdunning.math.stats.TDigest;
@@ -42,6 +43,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -323,22 +325,23 @@ public class ObjectSerDeUtils {
 
     @Override
     public HyperLogLog deserialize(byte[] bytes) {
-      try {
-        return HyperLogLog.Builder.build(bytes);
-      } catch (IOException e) {
-        throw new RuntimeException("Caught exception while de-serializing HyperLogLog", e);
-      }
+      return deserialize(ByteBuffer.wrap(bytes));
     }
 
+    /**
+     * NOTE: Reads the registers directly from the byte buffer into the register set, instead of copying the bytes into
+     *       an intermediate byte array and converting it via the {@link HyperLogLog.Builder}. The serialized format is:
+     *       log2m (int), number of register bytes (int), registers (int[]).
+     */
+    @SuppressWarnings("deprecation")
     @Override
     public HyperLogLog deserialize(ByteBuffer byteBuffer) {
-      byte[] bytes = new byte[byteBuffer.remaining()];
-      byteBuffer.get(bytes);
-      try {
-        return HyperLogLog.Builder.build(bytes);
-      } catch (IOException e) {
-        throw new RuntimeException("Caught exception while de-serializing HyperLogLog", e);
-      }
+      int log2m = byteBuffer.getInt();
+      int numRegisterInts = byteBuffer.getInt() / Integer.BYTES;
+      int[] registers = new int[numRegisterInts];
+      byteBuffer.asIntBuffer().get(registers);
+      byteBuffer.position(byteBuffer.position() + numRegisterInts * Integer.BYTES);
+      return new HyperLogLog(log2m, new RegisterSet(1 << log2m, registers));
     }
   };
 
@@ -706,11 +709,17 @@ public class ObjectSerDeUtils {
       return Sketch.wrap(Memory.wrap(bytes));
     }
 
+    /**
+     * NOTE: Wraps the byte buffer (e.g. the variable size data of the DataTable) without copying the bytes. The returned
+     *       sketch is read-only, and can be directly merged into a theta Union.
+     */
     @Override
     public Sketch deserialize(ByteBuffer byteBuffer) {
-      byte[] bytes = new byte[byteBuffer.remaining()];
-      byteBuffer.get(bytes);
-      return Sketch.wrap(Memory.wrap(bytes));
+      // NOTE: Memory wraps the whole backing buffer regardless of the position and limit, so slice from the current
+      //       position first. Theta sketches are always serialized in little-endian byte order.
+      ByteBuffer slice = byteBuffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+      byteBuffer.position(byteBuffer.limit());
+      return Sketch.wrap(Memory.wrap(slice, ByteOrder.LITTLE_ENDIAN));
     }
   };
 
@@ -73,6 +73,13 @@ public interface InstanceDataManager {
   void addRealtimeSegment(String realtimeTableName, String segmentName)
       throws Exception;
 
+  /**
+   * Replaces a committed segment in an upsert enabled REALTIME table with the copy in the deep store if the CRC of the
+   * local copy does not match the segment ZK metadata (e.g. the segment is compacted by minion).
+   */
+  void replaceRealtimeSegment(String realtimeTableName, String segmentName)
+      throws Exception;
+
   /**
    * Removes a segment from a table.
    */
@@ -71,6 +71,7 @@ import org.apache.pinot.spi.config.table.SegmentPartitionConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.IndexedGenericRow;
 import org.apache.pinot.spi.metrics.PinotMeter;
 import org.apache.pinot.spi.stream.MessageBatch;
 import org.apache.pinot.spi.stream.PartitionGroupConsumer;
@@ -78,6 +79,7 @@ import org.apache.pinot.spi.stream.PartitionGroupConsumptionStatus;
 import org.apache.pinot.spi.stream.PartitionLevelStreamConfig;
 import org.apache.pinot.spi.stream.PermanentConsumerException;
 import org.apache.pinot.spi.stream.RowMetadata;
+import org.apache.pinot.spi.stream.StreamConfigProperties;
 import org.apache.pinot.spi.stream.StreamConsumerFactory;
 import org.apache.pinot.spi.stream.StreamConsumerFactoryProvider;
 import org.apache.pinot.spi.stream.StreamDecoderProvider;
@@ -224,6 +226,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   // This boolean is needed because the semaphore is shared by threads; every thread holding this semaphore can
   // modify the permit. This boolean make sure the semaphore gets released only once when the partition group stops consuming.
   private final AtomicBoolean _acquiredConsumerSemaphore;
+  // With pauseless commit, the next segment of the partition group starts consuming as soon as the committer of this
+  // segment is picked, so the semaphore is released once this segment stops consuming instead of after it is committed.
+  private final boolean _isPauselessCommitEnabled;
   private final String _metricKeyName;
   private final ServerMetrics _serverMetrics;
   private final MutableSegmentImpl _realtimeSegment;
@@ -259,6 +264,8 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   private final LLCSegmentName _llcSegmentName;
   private final RecordTransformer _recordTransformer;
   private final ComplexTypeTransformer _complexTypeTransformer;
+  // Layout of the rows decoded from the stream, so that the columns are accessed via the slots
+  private final IndexedGenericRow.Layout _rowLayout;
   private PartitionGroupConsumer _partitionGroupConsumer = null;
   private StreamMetadataProvider _streamMetadataProvider = null;
   private final File _resourceTmpDir;
@@ -450,7 +457,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     int streamMessageCount = 0;
     boolean canTakeMore = true;
 
-    GenericRow reuse = new GenericRow();
+    GenericRow reuse = new IndexedGenericRow(_rowLayout);
     for (int index = 0; index < messagesAndOffsets.getMessageCount(); index++) {
       if (_shouldStop || endCriteriaReached()) {
         break;
@@ -578,6 +585,11 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
 
           // If we are sending segmentConsumed() to the controller, we are in HOLDING state.
           _state = State.HOLDING;
+          if (_isPauselessCommitEnabled) {
+            // Let the next segment start consuming without waiting for this segment to be committed. The stream
+            // consumer is kept open in case the controller asks this replica to catch up to the committed offset.
+            releasePartitionGroupConsumerSemaphore();
+          }
           SegmentCompletionProtocol.Response response = postSegmentConsumedMsg();
           SegmentCompletionProtocol.ControllerResponseStatus status = response.getStatus();
           StreamPartitionMsgOffset rspOffset = extractOffset(response);
@@ -901,7 +913,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
         .withSegmentSizeBytes(_segmentBuildDescriptor.getSegmentSizeBytes())
         .withWaitTimeMillis(_segmentBuildDescriptor.getWaitTimeMillis());
     if (_isOffHeap) {
-      params.withMemoryUsedBytes(_memoryManager.getTotalAllocatedBytes());
+      params.withMemoryUsedBytes(_realtimeSegment.getTotalMemoryUsedBytes());
     }
 
     SegmentCommitter segmentCommitter;
@@ -927,6 +939,10 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   private void closeStreamConsumers() {
     closePartitionGroupConsumer();
     closeStreamMetadataProvider();
+    releasePartitionGroupConsumerSemaphore();
+  }
+
+  private void releasePartitionGroupConsumerSemaphore() {
     if (_acquiredConsumerSemaphore.compareAndSet(true, false)) {
       _partitionGroupConsumerSemaphore.release();
     }
@@ -991,7 +1007,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     params.withStreamPartitionMsgOffset(_currentOffset.toString()).withSegmentName(_segmentNameStr)
         .withReason(_stopReason).withNumRows(_numRowsConsumed).withInstanceId(_instanceId);
     if (_isOffHeap) {
-      params.withMemoryUsedBytes(_memoryManager.getTotalAllocatedBytes());
+      params.withMemoryUsedBytes(_realtimeSegment.getTotalMemoryUsedBytes());
     }
     return _protocolHandler.segmentConsumed(params);
   }
@@ -1175,6 +1191,8 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     _streamPartitionMsgOffsetFactory =
         StreamConsumerFactoryProvider.create(_partitionLevelStreamConfig).createStreamMsgOffsetFactory();
     _streamTopic = _partitionLevelStreamConfig.getTopicName();
+    _isPauselessCommitEnabled = Boolean.parseBoolean(_partitionLevelStreamConfig.getStreamConfigsMap()
+        .get(StreamConfigProperties.SEGMENT_PAUSELESS_COMMIT_ENABLED));
     _segmentNameStr = _segmentZKMetadata.getSegmentName();
     _llcSegmentName = llcSegmentName;
     _partitionGroupId = _llcSegmentName.getPartitionGroupId();
@@ -1254,7 +1272,10 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
             .setVarLengthDictionaryColumns(indexLoadingConfig.getVarLengthDictionaryColumns())
             .setInvertedIndexColumns(invertedIndexColumns).setTextIndexColumns(textIndexColumns)
             .setFSTIndexColumns(fstIndexColumns).setJsonIndexColumns(indexLoadingConfig.getJsonIndexColumns())
-            .setH3IndexConfigs(indexLoadingConfig.getH3IndexConfigs()).setRealtimeSegmentZKMetadata(segmentZKMetadata)
+            .setZoneMapColumns(indexLoadingConfig.getZoneMapColumns())
+            .setH3IndexConfigs(indexLoadingConfig.getH3IndexConfigs())
+            .setStarTreeIndexConfigs(indexingConfig.getStarTreeIndexConfigs())
+            .setRealtimeSegmentZKMetadata(segmentZKMetadata)
             .setOffHeap(_isOffHeap).setMemoryManager(_memoryManager)
             .setStatsHistory(realtimeTableDataManager.getStatsHistory())
             .setAggregateMetrics(indexingConfig.isAggregateMetrics()).setNullHandlingEnabled(_nullHandlingEnabled)
@@ -1272,6 +1293,8 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     // Create complex type transformer
     _complexTypeTransformer = ComplexTypeTransformer.getComplexTypeTransformer(tableConfig);
 
+    _rowLayout = IndexedGenericRow.Layout.of(schema);
+
     // Acquire semaphore to create stream consumers
     try {
       _partitionGroupConsumerSemaphore.acquire();
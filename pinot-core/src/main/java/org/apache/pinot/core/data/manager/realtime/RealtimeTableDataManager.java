@@ -31,6 +31,7 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.concurrent.ThreadSafe;
@@ -62,10 +63,12 @@ import org.apache.pinot.segment.local.segment.virtualcolumn.VirtualColumnProvide
 import org.apache.pinot.segment.local.upsert.PartialUpsertHandler;
 import org.apache.pinot.segment.local.upsert.PartitionUpsertMetadataManager;
 import org.apache.pinot.segment.local.upsert.TableUpsertMetadataManager;
+import org.apache.pinot.segment.local.upsert.UpsertSnapshotUtils;
 import org.apache.pinot.segment.local.utils.IngestionUtils;
 import org.apache.pinot.segment.local.utils.SchemaUtils;
 import org.apache.pinot.segment.spi.ImmutableSegment;
 import org.apache.pinot.segment.spi.index.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
 import org.apache.pinot.spi.config.table.IndexingConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.UpsertConfig;
@@ -116,6 +119,9 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
   private TableUpsertMetadataManager _tableUpsertMetadataManager;
   private List<String> _primaryKeyColumns;
   private String _timeColumnName;
+  private boolean _enableUpsertSnapshot;
+  // Periodically persists the upsert snapshots, null when upsert snapshot is disabled
+  private ScheduledExecutorService _upsertSnapshotExecutorService;
 
   public RealtimeTableDataManager(Semaphore segmentBuildSemaphore) {
     _segmentBuildSemaphore = segmentBuildSemaphore;
@@ -175,6 +181,22 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
       Preconditions.checkState(!CollectionUtils.isEmpty(_primaryKeyColumns),
           "Primary key columns must be configured for upsert");
       _timeColumnName = tableConfig.getValidationConfig().getTimeColumnName();
+      _enableUpsertSnapshot = upsertConfig.isEnableSnapshot();
+      if (_enableUpsertSnapshot) {
+        // Persist the snapshots periodically in the background so that they stay reasonably fresh for an unclean
+        // shutdown without adding I/O to the segment commit path
+        long snapshotIntervalSeconds = upsertConfig.getSnapshotIntervalSeconds();
+        int numPrimaryKeyColumns = _primaryKeyColumns.size();
+        _upsertSnapshotExecutorService = Executors
+            .newSingleThreadScheduledExecutor(new NamedThreadFactory("UpsertSnapshot-" + _tableNameWithType));
+        _upsertSnapshotExecutorService.scheduleWithFixedDelay(() -> {
+          try {
+            _tableUpsertMetadataManager.persistOutdatedSnapshots(numPrimaryKeyColumns);
+          } catch (Exception e) {
+            _logger.warn("Caught exception while persisting upsert snapshots", e);
+          }
+        }, snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+      }
     }
 
     if (consumerDir.exists()) {
@@ -201,6 +223,15 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
   @Override
   protected void doShutdown() {
     _segmentAsyncExecutorService.shutdown();
+    if (_enableUpsertSnapshot) {
+      _upsertSnapshotExecutorService.shutdownNow();
+      try {
+        _upsertSnapshotExecutorService.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      _tableUpsertMetadataManager.persistSnapshots(_primaryKeyColumns.size());
+    }
     for (SegmentDataManager segmentDataManager : _segmentDataManagerMap.values()) {
       segmentDataManager.destroy();
     }
@@ -286,7 +317,14 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
     boolean isLLCSegment = SegmentName.isLowLevelConsumerSegmentName(segmentName);
     if (segmentDir.exists()) {
       // Segment already exists on disk
-      if (realtimeSegmentZKMetadata.getStatus() == Status.DONE) {
+      if (realtimeSegmentZKMetadata.getStatus() == Status.DONE && isLLCSegment && isUpsertEnabled()
+          && isCrcMismatch(segmentDir, realtimeSegmentZKMetadata)) {
+        // Segment of upsert enabled table has been replaced (e.g. compacted by minion), delete the local segment and
+        // download a new copy
+        _logger.info("Local CRC does not match the segment ZK metadata for segment: {}, downloading a new copy",
+            segmentName);
+        FileUtils.deleteQuietly(segmentDir);
+      } else if (realtimeSegmentZKMetadata.getStatus() == Status.DONE) {
         // Metadata has been committed, load the local segment
         try {
           addSegment(ImmutableSegmentLoader.load(segmentDir, indexLoadingConfig, schema));
@@ -377,13 +415,29 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
     ThreadSafeMutableRoaringBitmap validDocIds = new ThreadSafeMutableRoaringBitmap();
     immutableSegment.enableUpsert(partitionUpsertMetadataManager, validDocIds);
 
+    int numPrimaryKeyColumns = _primaryKeyColumns.size();
+    if (_enableUpsertSnapshot) {
+      List<PartitionUpsertMetadataManager.RecordInfo> recordInfos = null;
+      File indexDir = immutableSegment.getSegmentMetadata().getIndexDir();
+      try {
+        recordInfos = UpsertSnapshotUtils.loadSnapshot(indexDir, numPrimaryKeyColumns);
+      } catch (Exception e) {
+        _logger.warn("Caught exception while loading upsert snapshot for segment: {}, reading the columns instead",
+            segmentName, e);
+      }
+      if (recordInfos != null) {
+        _logger.info("Loaded {} records from upsert snapshot for segment: {}", recordInfos.size(), segmentName);
+        partitionUpsertMetadataManager.addSegment(immutableSegment, recordInfos.iterator());
+        return;
+      }
+    }
+
     Map<String, PinotSegmentColumnReader> columnToReaderMap = new HashMap<>();
     for (String primaryKeyColumn : _primaryKeyColumns) {
       columnToReaderMap.put(primaryKeyColumn, new PinotSegmentColumnReader(immutableSegment, primaryKeyColumn));
     }
     columnToReaderMap.put(_timeColumnName, new PinotSegmentColumnReader(immutableSegment, _timeColumnName));
     int numTotalDocs = immutableSegment.getSegmentMetadata().getTotalDocs();
-    int numPrimaryKeyColumns = _primaryKeyColumns.size();
     Iterator<PartitionUpsertMetadataManager.RecordInfo> recordInfoIterator =
         new Iterator<PartitionUpsertMetadataManager.RecordInfo>() {
           private int _docId = 0;
@@ -413,6 +467,18 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
     partitionUpsertMetadataManager.addSegment(immutableSegment, recordInfoIterator);
   }
 
+  /**
+   * Returns {@code true} if the CRC of the local segment does not match the segment ZK metadata, {@code false} if it
+   * matches or the local segment metadata cannot be read (will be handled when loading the segment).
+   */
+  private boolean isCrcMismatch(File segmentDir, RealtimeSegmentZKMetadata segmentZKMetadata) {
+    try {
+      return Long.parseLong(new SegmentMetadataImpl(segmentDir).getCrc()) != segmentZKMetadata.getCrc();
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
   public void downloadAndReplaceSegment(String segmentName, LLCRealtimeSegmentZKMetadata llcSegmentMetadata,
       IndexLoadingConfig indexLoadingConfig, TableConfig tableConfig) {
     final String uri = llcSegmentMetadata.getDownloadUrl();
@@ -24,6 +24,7 @@ import org.apache.pinot.core.operator.blocks.DocIdSetBlock;
 import org.apache.pinot.core.operator.docidsets.FilterBlockDocIdSet;
 import org.apache.pinot.core.operator.filter.BaseFilterOperator;
 import org.apache.pinot.core.plan.DocIdSetPlanNode;
+import org.apache.pinot.core.query.scheduler.CooperativeYield;
 import org.apache.pinot.segment.spi.Constants;
 
 
@@ -31,6 +32,8 @@ import org.apache.pinot.segment.spi.Constants;
  * The <code>DocIdSetOperator</code> takes a filter operator and returns blocks with set of the matched document Ids.
  * <p>Should call {@link #nextBlock()} multiple times until it returns <code>null</code> (already exhausts all the
  * matched documents) or already gathered enough documents (for selection queries).
+ * <p>An optional {@link DocIdSkipper} can be set to skip the matched documents that are not needed by the query (e.g.
+ * documents that cannot make the top rows for selection order-by queries) without reading their values.
  */
 public class DocIdSetOperator extends BaseOperator<DocIdSetBlock> {
   private static final String OPERATOR_NAME = "DocIdSetOperator";
@@ -43,6 +46,7 @@ public class DocIdSetOperator extends BaseOperator<DocIdSetBlock> {
 
   private FilterBlockDocIdSet _filterBlockDocIdSet;
   private BlockDocIdIterator _blockDocIdIterator;
+  private DocIdSkipper _docIdSkipper;
   private int _currentDocId = 0;
 
   public DocIdSetOperator(BaseFilterOperator filterOperator, int maxSizeOfDocIdSet) {
@@ -51,12 +55,23 @@ public class DocIdSetOperator extends BaseOperator<DocIdSetBlock> {
     _maxSizeOfDocIdSet = maxSizeOfDocIdSet;
   }
 
+  /**
+   * Sets the {@link DocIdSkipper} to skip the documents that are not needed. Should be called before
+   * {@link #nextBlock()}.
+   */
+  public void setDocIdSkipper(DocIdSkipper docIdSkipper) {
+    _docIdSkipper = docIdSkipper;
+  }
+
   @Override
   protected DocIdSetBlock getNextBlock() {
     if (_currentDocId == Constants.EOF) {
       return null;
     }
 
+    // Give the scheduler the chance to account for the resources used and to switch to the other queries
+    CooperativeYield.onBlock();
+
     // Initialize filter block document Id set
     if (_filterBlockDocIdSet == null) {
       _filterBlockDocIdSet = _filterOperator.nextBlock().getBlockDocIdSet();
@@ -67,6 +82,9 @@ public class DocIdSetOperator extends BaseOperator<DocIdSetBlock> {
     int[] docIds = THREAD_LOCAL_DOC_IDS.get();
     for (int i = 0; i < _maxSizeOfDocIdSet; i++) {
       _currentDocId = _blockDocIdIterator.next();
+      if (_docIdSkipper != null) {
+        _currentDocId = skipDocIds(_currentDocId);
+      }
       if (_currentDocId == Constants.EOF) {
         break;
       }
@@ -79,6 +97,24 @@ public class DocIdSetOperator extends BaseOperator<DocIdSetBlock> {
     }
   }
 
+  /**
+   * Helper method to skip the documents starting from the given matched document id, and returns the first matched
+   * document id that is not skipped, or {@link Constants#EOF} if all the remaining documents are skipped.
+   */
+  private int skipDocIds(int docId) {
+    while (docId != Constants.EOF) {
+      int candidateDocId = _docIdSkipper.getNextCandidateDocId(docId);
+      if (candidateDocId == docId) {
+        return docId;
+      }
+      if (candidateDocId == Constants.EOF) {
+        return Constants.EOF;
+      }
+      docId = _blockDocIdIterator.advance(candidateDocId);
+    }
+    return Constants.EOF;
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
@@ -90,4 +126,16 @@ public class DocIdSetOperator extends BaseOperator<DocIdSetBlock> {
         _filterBlockDocIdSet != null ? _filterBlockDocIdSet.getNumEntriesScannedInFilter() : 0;
     return new ExecutionStatistics(0, numEntriesScannedInFilter, 0, 0);
   }
+
+  /**
+   * Interface to skip the matched documents that are not needed by the query.
+   */
+  public interface DocIdSkipper {
+
+    /**
+     * Returns the first document id greater than or equal to the given matched document id that might be needed by the
+     * query, or {@link Constants#EOF} if none of the remaining documents is needed.
+     */
+    int getNextCandidateDocId(int docId);
+  }
 }
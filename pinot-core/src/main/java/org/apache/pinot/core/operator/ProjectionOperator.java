@@ -50,6 +50,19 @@ public class ProjectionOperator extends BaseOperator<ProjectionBlock> {
     return _dataSourceMap;
   }
 
+  /**
+   * Sets the {@link DocIdSetOperator.DocIdSkipper} to skip the documents that are not needed, and returns whether it is
+   * applied (only applicable when the documents are fetched by a {@link DocIdSetOperator}).
+   */
+  public boolean setDocIdSkipper(DocIdSetOperator.DocIdSkipper docIdSkipper) {
+    if (_docIdSetOperator instanceof DocIdSetOperator) {
+      ((DocIdSetOperator) _docIdSetOperator).setDocIdSkipper(docIdSkipper);
+      return true;
+    } else {
+      return false;
+    }
+  }
+
   @Override
   protected ProjectionBlock getNextBlock() {
     // NOTE: Should not be called when _docIdSetOperator is null.
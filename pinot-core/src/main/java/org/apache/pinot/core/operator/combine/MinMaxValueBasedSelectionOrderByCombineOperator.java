@@ -52,6 +52,8 @@ import org.slf4j.LoggerFactory;
  *   <li>2. Keep processing segments until we get enough documents to fulfill the LIMIT and OFFSET requirement</li>
  *   <li>3. Skip processing the segments that cannot add values to the final result</li>
  * </ul>
+ * <p>The boundary value is also passed to the {@link SelectionOrderByOperator} before processing the segment so that
+ * the rows that cannot add values to the final result can be skipped within the segment.
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
 public class MinMaxValueBasedSelectionOrderByCombineOperator extends BaseCombineOperator {
@@ -189,6 +191,11 @@ public class MinMaxValueBasedSelectionOrderByCombineOperator extends BaseCombine
 
       // Process the segment
       try {
+        // Pass the boundary value to the operator so that it can skip the rows that cannot add values to the final
+        // result within the segment
+        if (boundaryValue != null) {
+          minMaxValueContext._operator.setBoundaryValue(boundaryValue);
+        }
         IntermediateResultsBlock resultsBlock = minMaxValueContext._operator.nextBlock();
         PriorityQueue<Object[]> selectionResult = (PriorityQueue<Object[]>) resultsBlock.getSelectionResult();
         if (selectionResult != null && selectionResult.size() == _numRowsToKeep) {
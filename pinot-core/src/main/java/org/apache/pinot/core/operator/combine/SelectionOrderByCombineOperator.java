@@ -28,8 +28,10 @@ import org.apache.pinot.common.request.context.OrderByExpressionContext;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.operator.query.SelectionOrderByOperator;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
+import org.apache.pinot.core.query.selection.SharedSelectionOrderByThreshold;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +42,8 @@ import org.slf4j.LoggerFactory;
  * {@link org.apache.pinot.core.operator.combine.MinMaxValueBasedSelectionOrderByCombineOperator} first, which will
  * skip processing some segments based on the column min/max value. Otherwise fall back to the default combine
  * (process all segments).
+ * <p>The threshold on the first order-by expression is shared across the segments (see
+ * {@link SharedSelectionOrderByThreshold}) so that each segment can skip the rows that cannot make the global top rows.
  */
 @SuppressWarnings("rawtypes")
 public class SelectionOrderByCombineOperator extends BaseCombineOperator {
@@ -52,6 +56,15 @@ public class SelectionOrderByCombineOperator extends BaseCombineOperator {
       ExecutorService executorService, long endTimeMs) {
     super(operators, queryContext, executorService, endTimeMs);
     _numRowsToKeep = queryContext.getLimit() + queryContext.getOffset();
+    List<OrderByExpressionContext> orderByExpressions = queryContext.getOrderByExpressions();
+    assert orderByExpressions != null;
+    SharedSelectionOrderByThreshold sharedThreshold =
+        new SharedSelectionOrderByThreshold(orderByExpressions.get(0).isAsc());
+    for (Operator operator : operators) {
+      if (operator instanceof SelectionOrderByOperator) {
+        ((SelectionOrderByOperator) operator).setSharedThreshold(sharedThreshold);
+      }
+    }
   }
 
   @Override
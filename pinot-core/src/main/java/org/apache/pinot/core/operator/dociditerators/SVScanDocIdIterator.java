@@ -18,6 +18,8 @@
  */
 package org.apache.pinot.core.operator.dociditerators;
 
+import java.util.BitSet;
+import javax.annotation.Nullable;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.segment.spi.Constants;
 import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
@@ -30,6 +32,8 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
 /**
  * The {@code SVScanDocIdIterator} is the scan-based iterator for SVScanDocIdSet to scan a single-value column for the
  * matching document ids.
+ * <p>When the candidate blocks are provided (e.g. from the zone map of the column), only the documents within the
+ * candidate blocks are scanned.
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
 public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
@@ -40,21 +44,43 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private final ForwardIndexReaderContext _readerContext;
   private final int _numDocs;
   private final ValueMatcher _valueMatcher;
+  private final BitSet _candidateBlocks;
+  private final int _numDocsPerBlock;
 
   private int _nextDocId = 0;
+  // End (exclusive) of the current candidate block
+  private int _blockEndDocId = 0;
   private long _numEntriesScanned = 0L;
 
   public SVScanDocIdIterator(PredicateEvaluator predicateEvaluator, ForwardIndexReader reader, int numDocs) {
+    this(predicateEvaluator, reader, numDocs, null, 0);
+  }
+
+  public SVScanDocIdIterator(PredicateEvaluator predicateEvaluator, ForwardIndexReader reader, int numDocs,
+      @Nullable BitSet candidateBlocks, int numDocsPerBlock) {
     _predicateEvaluator = predicateEvaluator;
     _reader = reader;
     _readerContext = reader.createContext();
     _numDocs = numDocs;
     _valueMatcher = getValueMatcher();
+    _candidateBlocks = candidateBlocks;
+    _numDocsPerBlock = numDocsPerBlock;
   }
 
   @Override
   public int next() {
     while (_nextDocId < _numDocs) {
+      if (_candidateBlocks != null && _nextDocId >= _blockEndDocId) {
+        // Jump to the next candidate block
+        int blockId = _candidateBlocks.nextSetBit(_nextDocId / _numDocsPerBlock);
+        if (blockId < 0) {
+          _nextDocId = _numDocs;
+          break;
+        }
+        _nextDocId = Math.max(_nextDocId, blockId * _numDocsPerBlock);
+        _blockEndDocId = (blockId + 1) * _numDocsPerBlock;
+        continue;
+      }
       int nextDocId = _nextDocId++;
       _numEntriesScanned++;
       if (_valueMatcher.doesValueMatch(nextDocId)) {
@@ -76,6 +102,9 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     IntIterator docIdIterator = docIds.getIntIterator();
     int nextDocId;
     while (docIdIterator.hasNext() && (nextDocId = docIdIterator.next()) < _numDocs) {
+      if (_candidateBlocks != null && !_candidateBlocks.get(nextDocId / _numDocsPerBlock)) {
+        continue;
+      }
       _numEntriesScanned++;
       if (_valueMatcher.doesValueMatch(nextDocId)) {
         result.add(nextDocId);
@@ -18,6 +18,8 @@
  */
 package org.apache.pinot.core.operator.docidsets;
 
+import java.util.BitSet;
+import javax.annotation.Nullable;
 import org.apache.pinot.core.operator.dociditerators.SVScanDocIdIterator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
@@ -30,6 +32,11 @@ public final class SVScanDocIdSet implements FilterBlockDocIdSet {
     _docIdIterator = new SVScanDocIdIterator(predicateEvaluator, reader, numDocs);
   }
 
+  public SVScanDocIdSet(PredicateEvaluator predicateEvaluator, ForwardIndexReader<?> reader, int numDocs,
+      @Nullable BitSet candidateBlocks, int numDocsPerBlock) {
+    _docIdIterator = new SVScanDocIdIterator(predicateEvaluator, reader, numDocs, candidateBlocks, numDocsPerBlock);
+  }
+
   @Override
   public SVScanDocIdIterator iterator() {
     return _docIdIterator;
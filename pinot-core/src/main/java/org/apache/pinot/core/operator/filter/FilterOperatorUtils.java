@@ -41,6 +41,15 @@ public class FilterOperatorUtils {
    */
   public static BaseFilterOperator getLeafFilterOperator(PredicateEvaluator predicateEvaluator, DataSource dataSource,
       int numDocs) {
+    return getLeafFilterOperator(predicateEvaluator, dataSource, numDocs, null);
+  }
+
+  /**
+   * Returns the leaf filter operator (i.e. not {@link AndFilterOperator} or {@link OrFilterOperator}). The predicate
+   * (optional) is used by the scan-based filter operator to skip blocks based on the zone map of the column.
+   */
+  public static BaseFilterOperator getLeafFilterOperator(PredicateEvaluator predicateEvaluator, DataSource dataSource,
+      int numDocs, @Nullable Predicate predicate) {
     if (predicateEvaluator.isAlwaysFalse()) {
       return EmptyFilterOperator.getInstance();
     } else if (predicateEvaluator.isAlwaysTrue()) {
@@ -61,7 +70,7 @@ public class FilterOperatorUtils {
       if (dataSource.getRangeIndex() != null) {
         return new RangeIndexBasedFilterOperator(predicateEvaluator, dataSource, numDocs);
       }
-      return new ScanBasedFilterOperator(predicateEvaluator, dataSource, numDocs);
+      return new ScanBasedFilterOperator(predicateEvaluator, dataSource, numDocs, predicate);
     } else if (predicateType == Predicate.Type.REGEXP_LIKE) {
       if (dataSource.getFSTIndex() != null && dataSource.getDataSourceMetadata().isSorted()) {
         return new SortedIndexBasedFilterOperator(predicateEvaluator, dataSource, numDocs);
@@ -69,7 +78,7 @@ public class FilterOperatorUtils {
       if (dataSource.getFSTIndex() != null && dataSource.getInvertedIndex() != null) {
         return new BitmapBasedFilterOperator(predicateEvaluator, dataSource, numDocs);
       }
-      return new ScanBasedFilterOperator(predicateEvaluator, dataSource, numDocs);
+      return new ScanBasedFilterOperator(predicateEvaluator, dataSource, numDocs, predicate);
     } else {
       if (dataSource.getDataSourceMetadata().isSorted() && dataSource.getDictionary() != null) {
         return new SortedIndexBasedFilterOperator(predicateEvaluator, dataSource, numDocs);
@@ -77,7 +86,7 @@ public class FilterOperatorUtils {
       if (dataSource.getInvertedIndex() != null) {
         return new BitmapBasedFilterOperator(predicateEvaluator, dataSource, numDocs);
       }
-      return new ScanBasedFilterOperator(predicateEvaluator, dataSource, numDocs);
+      return new ScanBasedFilterOperator(predicateEvaluator, dataSource, numDocs, predicate);
     }
   }
 
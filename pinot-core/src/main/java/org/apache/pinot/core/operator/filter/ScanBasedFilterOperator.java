@@ -18,12 +18,17 @@
  */
 package org.apache.pinot.core.operator.filter;
 
+import java.util.BitSet;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.core.operator.blocks.EmptyFilterBlock;
 import org.apache.pinot.core.operator.blocks.FilterBlock;
 import org.apache.pinot.core.operator.docidsets.MVScanDocIdSet;
 import org.apache.pinot.core.operator.docidsets.SVScanDocIdSet;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.segment.spi.datasource.DataSource;
 import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
 
 
 public class ScanBasedFilterOperator extends BaseFilterOperator {
@@ -32,17 +37,40 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
   private final PredicateEvaluator _predicateEvaluator;
   private final DataSource _dataSource;
   private final int _numDocs;
+  private final Predicate _predicate;
 
   ScanBasedFilterOperator(PredicateEvaluator predicateEvaluator, DataSource dataSource, int numDocs) {
+    this(predicateEvaluator, dataSource, numDocs, null);
+  }
+
+  /**
+   * The predicate is used to skip the blocks that cannot match the predicate based on the zone map of the column.
+   */
+  ScanBasedFilterOperator(PredicateEvaluator predicateEvaluator, DataSource dataSource, int numDocs,
+      @Nullable Predicate predicate) {
     _predicateEvaluator = predicateEvaluator;
     _dataSource = dataSource;
     _numDocs = numDocs;
+    _predicate = predicate;
   }
 
   @Override
   protected FilterBlock getNextBlock() {
     DataSourceMetadata dataSourceMetadata = _dataSource.getDataSourceMetadata();
     if (dataSourceMetadata.isSingleValue()) {
+      ZoneMapReader zoneMap = _dataSource.getZoneMap();
+      if (_predicate != null && zoneMap != null) {
+        BitSet candidateBlocks =
+            ZoneMapBlockPruner.getCandidateBlocks(_predicate, dataSourceMetadata.getDataType(), zoneMap, _numDocs);
+        if (candidateBlocks != null) {
+          if (candidateBlocks.isEmpty()) {
+            return EmptyFilterBlock.getInstance();
+          }
+          return new FilterBlock(
+              new SVScanDocIdSet(_predicateEvaluator, _dataSource.getForwardIndex(), _numDocs, candidateBlocks,
+                  zoneMap.getNumDocsPerBlock()));
+        }
+      }
       return new FilterBlock(new SVScanDocIdSet(_predicateEvaluator, _dataSource.getForwardIndex(), _numDocs));
     } else {
       return new FilterBlock(new MVScanDocIdSet(_predicateEvaluator, _dataSource.getForwardIndex(), _numDocs,
@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.request.context.predicate.EqPredicate;
+import org.apache.pinot.common.request.context.predicate.InPredicate;
+import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.common.request.context.predicate.RangePredicate;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * The {@code ZoneMapBlockPruner} uses the per-block min/max values from the {@link ZoneMapReader} to find the blocks
+ * that might contain documents matching the predicate, so that the scan-based filter can skip the other blocks.
+ * <p>Only EQ, IN and RANGE predicates are supported, where the block can be skipped if none of the values (or the
+ * range) overlaps with the min/max value of the block.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class ZoneMapBlockPruner {
+  private ZoneMapBlockPruner() {
+  }
+
+  /**
+   * Returns the candidate blocks that might contain matching documents within the first {@code numDocs} documents,
+   * or {@code null} if no block can be skipped (or the predicate is not supported).
+   */
+  @Nullable
+  public static BitSet getCandidateBlocks(Predicate predicate, DataType dataType, ZoneMapReader zoneMap,
+      int numDocs) {
+    int numDocsPerBlock = zoneMap.getNumDocsPerBlock();
+    int numBlocks = (numDocs + numDocsPerBlock - 1) / numDocsPerBlock;
+    if (numBlocks == 0 || numBlocks > zoneMap.getNumBlocks()) {
+      return null;
+    }
+    BlockMatcher blockMatcher;
+    try {
+      blockMatcher = getBlockMatcher(predicate, dataType);
+    } catch (Exception e) {
+      // Let the predicate evaluator handle the invalid values
+      return null;
+    }
+    if (blockMatcher == null) {
+      return null;
+    }
+    BitSet candidateBlocks = new BitSet(numBlocks);
+    for (int i = 0; i < numBlocks; i++) {
+      if (blockMatcher.mightMatch(zoneMap.getMinValue(i), zoneMap.getMaxValue(i))) {
+        candidateBlocks.set(i);
+      }
+    }
+    return candidateBlocks.cardinality() < numBlocks ? candidateBlocks : null;
+  }
+
+  @Nullable
+  private static BlockMatcher getBlockMatcher(Predicate predicate, DataType dataType) {
+    switch (predicate.getType()) {
+      case EQ:
+        Comparable value = dataType.convertInternal(((EqPredicate) predicate).getValue());
+        return (minValue, maxValue) -> value.compareTo(minValue) >= 0 && value.compareTo(maxValue) <= 0;
+      case IN:
+        List<String> stringValues = ((InPredicate) predicate).getValues();
+        List<Comparable> values = new ArrayList<>(stringValues.size());
+        for (String stringValue : stringValues) {
+          values.add(dataType.convertInternal(stringValue));
+        }
+        Collections.sort(values);
+        return (minValue, maxValue) -> {
+          // Find the smallest value that is not smaller than the min value, and check if it is within the max value
+          int index = Collections.binarySearch(values, minValue, Comparator.naturalOrder());
+          if (index < 0) {
+            index = -index - 1;
+          }
+          return index < values.size() && values.get(index).compareTo(maxValue) <= 0;
+        };
+      case RANGE:
+        return getRangeBlockMatcher((RangePredicate) predicate, dataType);
+      default:
+        return null;
+    }
+  }
+
+  private static BlockMatcher getRangeBlockMatcher(RangePredicate rangePredicate, DataType dataType) {
+    String lowerBound = rangePredicate.getLowerBound();
+    Comparable lowerBoundValue =
+        lowerBound.equals(RangePredicate.UNBOUNDED) ? null : dataType.convertInternal(lowerBound);
+    boolean lowerInclusive = rangePredicate.isLowerInclusive();
+    String upperBound = rangePredicate.getUpperBound();
+    Comparable upperBoundValue =
+        upperBound.equals(RangePredicate.UNBOUNDED) ? null : dataType.convertInternal(upperBound);
+    boolean upperInclusive = rangePredicate.isUpperInclusive();
+    return (minValue, maxValue) -> {
+      if (lowerBoundValue != null) {
+        int result = lowerBoundValue.compareTo(maxValue);
+        if (result > 0 || (result == 0 && !lowerInclusive)) {
+          return false;
+        }
+      }
+      if (upperBoundValue != null) {
+        int result = upperBoundValue.compareTo(minValue);
+        if (result < 0 || (result == 0 && !upperInclusive)) {
+          return false;
+        }
+      }
+      return true;
+    };
+  }
+
+  private interface BlockMatcher {
+
+    /**
+     * Returns {@code true} if the block with the given min/max value might contain matching documents.
+     */
+    boolean mightMatch(Comparable minValue, Comparable maxValue);
+  }
+}
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.request.context.ExpressionContext;
 import org.apache.pinot.common.request.context.OrderByExpressionContext;
 import org.apache.pinot.common.utils.DataSchema;
@@ -33,6 +34,7 @@ import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.common.RowBasedBlockValueFetcher;
 import org.apache.pinot.core.operator.BaseOperator;
 import org.apache.pinot.core.operator.BitmapDocIdSetOperator;
+import org.apache.pinot.core.operator.DocIdSetOperator;
 import org.apache.pinot.core.operator.ExecutionStatistics;
 import org.apache.pinot.core.operator.ProjectionOperator;
 import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
@@ -41,8 +43,14 @@ import org.apache.pinot.core.operator.transform.TransformOperator;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
+import org.apache.pinot.core.query.selection.SelectionOrderByThreshold;
+import org.apache.pinot.core.query.selection.SharedSelectionOrderByThreshold;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.apache.pinot.segment.spi.index.reader.SortedIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.utils.ByteArray;
 import org.apache.pinot.spi.utils.CommonConstants.Segment.BuiltInVirtualColumn;
@@ -66,7 +74,16 @@ import org.roaringbitmap.RoaringBitmap;
  *     FROM table ORDER BY col).
  *   </li>
  * </ul>
+ * <p>Once the priority queue is full, the operator keeps the first order-by value of the last row to keep as the
+ * threshold (see {@link SelectionOrderByThreshold}), and skips the rows that cannot make the top rows directly on the
+ * columnar values of the first order-by expression (dictionary ids for columns with sorted dictionary, primitive values
+ * for numeric expressions) before materializing the rows. The threshold can also be seeded with the boundary value
+ * from the other segments via {@link #setBoundaryValue(Comparable)}, or shared with the segments processed concurrently
+ * via {@link #setSharedThreshold(SharedSelectionOrderByThreshold)}. When the first order-by expression is a sorted
+ * column or a column with zone map, the threshold is also pushed down to the scan so that the documents that cannot
+ * make the top rows are skipped without being read.
  */
+@SuppressWarnings("rawtypes")
 public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBlock> {
   private static final String OPERATOR_NAME = "SelectionOrderByOperator";
 
@@ -78,7 +95,12 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
   private final TransformResultMetadata[] _orderByExpressionMetadata;
   private final int _numRowsToKeep;
   private final PriorityQueue<Object[]> _rows;
+  // Threshold on the first order-by expression, null if not supported
+  private final SelectionOrderByThreshold _threshold;
 
+  private SharedSelectionOrderByThreshold _sharedThreshold;
+  private Comparable _lastSharedValue;
+  private int[] _candidateRows;
   private int _numDocsScanned = 0;
   private long _numEntriesScannedPostFilter = 0;
 
@@ -100,6 +122,54 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
     _numRowsToKeep = queryContext.getOffset() + queryContext.getLimit();
     _rows = new PriorityQueue<>(Math.min(_numRowsToKeep, SelectionOperatorUtils.MAX_ROW_HOLDER_INITIAL_CAPACITY),
         getComparator());
+    _threshold = createThreshold();
+    if (_threshold != null) {
+      pushDownThreshold();
+    }
+  }
+
+  @Nullable
+  private SelectionOrderByThreshold createThreshold() {
+    OrderByExpressionContext firstOrderByExpression = _orderByExpressions.get(0);
+    TransformResultMetadata expressionMetadata = _orderByExpressionMetadata[0];
+    ExpressionContext expression = firstOrderByExpression.getExpression();
+    Dictionary dictionary = null;
+    if (expression.getType() == ExpressionContext.Type.IDENTIFIER && expressionMetadata.hasDictionary()) {
+      dictionary = _indexSegment.getDataSource(expression.getIdentifier()).getDictionary();
+    }
+    return SelectionOrderByThreshold.create(firstOrderByExpression.isAsc(), expressionMetadata, dictionary);
+  }
+
+  /**
+   * Helper method to push down the threshold to the scan when the first order-by expression is a column:
+   * <ul>
+   *   <li>For sorted column, the documents that can make the top rows are in a single document id range</li>
+   *   <li>For column with zone map, the blocks with all the values worse than the threshold can be skipped</li>
+   * </ul>
+   */
+  private void pushDownThreshold() {
+    ExpressionContext expression = _orderByExpressions.get(0).getExpression();
+    if (expression.getType() != ExpressionContext.Type.IDENTIFIER) {
+      return;
+    }
+    DataSource dataSource = _indexSegment.getDataSource(expression.getIdentifier());
+    DocIdSetOperator.DocIdSkipper docIdSkipper = null;
+    if (dataSource.getDataSourceMetadata().isSorted() && dataSource.getDictionary() != null) {
+      InvertedIndexReader<?> invertedIndex = dataSource.getInvertedIndex();
+      if (invertedIndex instanceof SortedIndexReader) {
+        docIdSkipper = _threshold.getSortedColumnDocIdSkipper((SortedIndexReader<?>) invertedIndex);
+      }
+    }
+    if (docIdSkipper == null) {
+      ZoneMapReader zoneMap = dataSource.getZoneMap();
+      if (zoneMap != null) {
+        docIdSkipper =
+            _threshold.getZoneMapDocIdSkipper(zoneMap, _indexSegment.getSegmentMetadata().getTotalDocs());
+      }
+    }
+    if (docIdSkipper != null) {
+      _transformOperator.setDocIdSkipper(docIdSkipper);
+    }
   }
 
   private Comparator<Object[]> getComparator() {
@@ -167,8 +237,31 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
     return _indexSegment;
   }
 
+  /**
+   * Sets the boundary value (first order-by value of the last row to keep across the segments already processed) so
+   * that the rows that cannot make the top rows can be skipped early. Should be called before {@link #nextBlock()}.
+   */
+  public void setBoundaryValue(Comparable boundaryValue) {
+    if (_threshold != null) {
+      _threshold.update(boundaryValue);
+    }
+  }
+
+  /**
+   * Sets the threshold shared with the other segments processed concurrently for the same query. Should be called
+   * before {@link #nextBlock()}.
+   */
+  public void setSharedThreshold(SharedSelectionOrderByThreshold sharedThreshold) {
+    if (_threshold != null) {
+      _sharedThreshold = sharedThreshold;
+    }
+  }
+
   @Override
   protected IntermediateResultsBlock getNextBlock() {
+    if (_sharedThreshold != null) {
+      applySharedThreshold();
+    }
     if (_expressions.size() == _orderByExpressions.size()) {
       return computeAllOrdered();
     } else {
@@ -193,8 +286,17 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
       }
       RowBasedBlockValueFetcher blockValueFetcher = new RowBasedBlockValueFetcher(blockValSets);
       int numDocsFetched = transformBlock.getNumDocs();
-      for (int i = 0; i < numDocsFetched; i++) {
-        SelectionOperatorUtils.addToPriorityQueue(blockValueFetcher.getRow(i), _rows, _numRowsToKeep);
+      if (_threshold != null) {
+        int numCandidateRows = getCandidateRows(blockValSets[0], numDocsFetched);
+        for (int i = 0; i < numCandidateRows; i++) {
+          SelectionOperatorUtils.addToPriorityQueue(blockValueFetcher.getRow(_candidateRows[i]), _rows,
+              _numRowsToKeep);
+        }
+        updateThreshold();
+      } else {
+        for (int i = 0; i < numDocsFetched; i++) {
+          SelectionOperatorUtils.addToPriorityQueue(blockValueFetcher.getRow(i), _rows, _numRowsToKeep);
+        }
       }
       _numDocsScanned += numDocsFetched;
       _numEntriesScannedPostFilter += numDocsFetched * numColumnsProjected;
@@ -214,6 +316,50 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
     return new IntermediateResultsBlock(dataSchema, _rows);
   }
 
+  /**
+   * Helper method to fill the candidate rows (rows that might make the top rows) based on the threshold, and returns
+   * the number of candidate rows.
+   */
+  private int getCandidateRows(BlockValSet firstOrderByBlockValSet, int numDocsFetched) {
+    if (_candidateRows == null || _candidateRows.length < numDocsFetched) {
+      _candidateRows = new int[numDocsFetched];
+    }
+    return _threshold.getCandidateRows(firstOrderByBlockValSet, numDocsFetched, _candidateRows);
+  }
+
+  /**
+   * Helper method to update the threshold with the last row to keep when the priority queue is full.
+   */
+  private void updateThreshold() {
+    if (_rows.size() == _numRowsToKeep && !_rows.isEmpty()) {
+      Comparable value = (Comparable) _rows.peek()[0];
+      _threshold.update(value);
+      if (_sharedThreshold != null) {
+        _sharedThreshold.update(value);
+      }
+    }
+    if (_sharedThreshold != null) {
+      applySharedThreshold();
+    }
+  }
+
+  /**
+   * Helper method to update the threshold with the value published by the other segments if it changed.
+   */
+  private void applySharedThreshold() {
+    Comparable sharedValue = _sharedThreshold.get();
+    if (sharedValue != null && sharedValue != _lastSharedValue) {
+      _lastSharedValue = sharedValue;
+      try {
+        _threshold.update(sharedValue);
+      } catch (ClassCastException e) {
+        // The value is published by a segment with a different stored type for the first order-by expression (e.g.
+        // schema evolution), stop sharing the threshold for this segment
+        _sharedThreshold = null;
+      }
+    }
+  }
+
   /**
    * Helper method to compute the result when not all the output expressions are ordered.
    */
@@ -233,13 +379,23 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
       blockValSets[numOrderByExpressions] = transformBlock.getBlockValueSet(BuiltInVirtualColumn.DOCID);
       RowBasedBlockValueFetcher blockValueFetcher = new RowBasedBlockValueFetcher(blockValSets);
       int numDocsFetched = transformBlock.getNumDocs();
-      for (int i = 0; i < numDocsFetched; i++) {
-        // NOTE: We pre-allocate the complete row so that we can fill up the non-order-by output expression values later
-        //       without creating extra rows or re-constructing the priority queue. We can change the values in-place
-        //       because the comparator only compare the values for the order-by expressions.
-        Object[] row = new Object[numExpressions];
-        blockValueFetcher.getRow(i, row, 0);
-        SelectionOperatorUtils.addToPriorityQueue(row, _rows, _numRowsToKeep);
+      if (_threshold != null) {
+        int numCandidateRows = getCandidateRows(blockValSets[0], numDocsFetched);
+        for (int i = 0; i < numCandidateRows; i++) {
+          Object[] row = new Object[numExpressions];
+          blockValueFetcher.getRow(_candidateRows[i], row, 0);
+          SelectionOperatorUtils.addToPriorityQueue(row, _rows, _numRowsToKeep);
+        }
+        updateThreshold();
+      } else {
+        for (int i = 0; i < numDocsFetched; i++) {
+          // NOTE: We pre-allocate the complete row so that we can fill up the non-order-by output expression values
+          //       later without creating extra rows or re-constructing the priority queue. We can change the values
+          //       in-place because the comparator only compare the values for the order-by expressions.
+          Object[] row = new Object[numExpressions];
+          blockValueFetcher.getRow(i, row, 0);
+          SelectionOperatorUtils.addToPriorityQueue(row, _rows, _numRowsToKeep);
+        }
       }
       _numDocsScanned += numDocsFetched;
       _numEntriesScannedPostFilter += numDocsFetched * numColumnsProjected;
@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.Map;
 import org.apache.pinot.common.request.context.ExpressionContext;
 import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.DocIdSetOperator;
 import org.apache.pinot.core.operator.ExecutionStatistics;
 import org.apache.pinot.core.operator.ProjectionOperator;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
@@ -87,6 +88,17 @@ public class TransformOperator extends BaseOperator<TransformBlock> {
     return _transformFunctionMap.get(expression).getDictionary();
   }
 
+  /**
+   * Sets the {@link DocIdSetOperator.DocIdSkipper} to skip the documents that are not needed, and returns whether it is
+   * applied.
+   *
+   * @param docIdSkipper Document id skipper
+   * @return Whether the document id skipper is applied
+   */
+  public boolean setDocIdSkipper(DocIdSetOperator.DocIdSkipper docIdSkipper) {
+    return _projectionOperator.setDocIdSkipper(docIdSkipper);
+  }
+
   @Override
   protected TransformBlock getNextBlock() {
     ProjectionBlock projectionBlock = _projectionOperator.nextBlock();
@@ -45,6 +45,7 @@ import org.apache.pinot.core.operator.filter.predicate.FSTBasedRegexpPredicateEv
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
 import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.stats.FilterStatsCollector;
 import org.apache.pinot.core.util.QueryOptions;
 import org.apache.pinot.segment.local.segment.index.datasource.MutableDataSource;
 import org.apache.pinot.segment.spi.IndexSegment;
@@ -199,7 +200,8 @@ public class FilterPlanNode implements PlanNode {
                 evaluator = PredicateEvaluatorProvider.getPredicateEvaluator(predicate, dataSource.getDictionary(),
                     dataSource.getDataSourceMetadata().getDataType());
               }
-              return FilterOperatorUtils.getLeafFilterOperator(evaluator, dataSource, _numDocs);
+              return recordFilterStats(column, predicate,
+                  FilterOperatorUtils.getLeafFilterOperator(evaluator, dataSource, _numDocs, predicate));
             case JSON_MATCH:
               JsonIndexReader jsonIndex = dataSource.getJsonIndex();
               Preconditions
@@ -223,11 +225,21 @@ public class FilterPlanNode implements PlanNode {
               PredicateEvaluator predicateEvaluator = PredicateEvaluatorProvider
                   .getPredicateEvaluator(predicate, dataSource.getDictionary(),
                       dataSource.getDataSourceMetadata().getDataType());
-              return FilterOperatorUtils.getLeafFilterOperator(predicateEvaluator, dataSource, _numDocs);
+              return recordFilterStats(column, predicate,
+                  FilterOperatorUtils.getLeafFilterOperator(predicateEvaluator, dataSource, _numDocs, predicate));
           }
         }
       default:
         throw new IllegalStateException();
     }
   }
+
+  /**
+   * Records the leaf filter on the column for the workload based index tuning, and returns the filter operator.
+   */
+  private BaseFilterOperator recordFilterStats(String column, Predicate predicate, BaseFilterOperator filterOperator) {
+    FilterStatsCollector.getInstance()
+        .recordFilter(_queryContext.getTableName(), column, predicate.getType(), filterOperator, _numDocs);
+    return filterOperator;
+  }
 }
@@ -52,6 +52,7 @@ import org.apache.pinot.core.query.request.ServerQueryRequest;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.TimerContext;
 import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.query.stats.SegmentQueryStatsCollector;
 import org.apache.pinot.core.query.utils.idset.IdSet;
 import org.apache.pinot.core.util.QueryOptions;
 import org.apache.pinot.core.util.trace.TraceContext;
@@ -273,6 +274,7 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
     segmentPruneTimer.stopAndRecord();
     int numSelectedSegments = selectedSegments.size();
     LOGGER.debug("Matched {} segments after pruning", numSelectedSegments);
+    SegmentQueryStatsCollector.getInstance().recordQuery(queryContext.getTableName(), selectedSegments);
     if (numSelectedSegments == 0) {
       // Only return metadata for streaming query
       DataTable dataTable =
@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.scheduler;
+
+import javax.annotation.Nullable;
+
+
+/**
+ * Cooperative yield point for the query execution threads.
+ *
+ * Operators call {@link #onBlock()} before producing each block. When the thread is executing a task for a scheduler
+ * that supports cooperative scheduling, the installed {@link Handler} gets the chance to account for the resources used
+ * so far and to park the thread in favor of the work of other scheduler groups. Without a handler, this is a no-op.
+ */
+public class CooperativeYield {
+  private CooperativeYield() {
+  }
+
+  private static final ThreadLocal<Handler> HANDLER = new ThreadLocal<>();
+
+  public interface Handler {
+
+    /**
+     * Invoked on the execution thread before each block is produced. The handler may block the thread until it is
+     * allowed to continue.
+     */
+    void onBlock();
+  }
+
+  /**
+   * Installs the handler for the current thread, or removes the handler if {@code null} is passed in.
+   */
+  public static void setHandler(@Nullable Handler handler) {
+    if (handler != null) {
+      HANDLER.set(handler);
+    } else {
+      HANDLER.remove();
+    }
+  }
+
+  public static void onBlock() {
+    Handler handler = HANDLER.get();
+    if (handler != null) {
+      handler.onBlock();
+    }
+  }
+}
@@ -26,6 +26,7 @@ import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.core.query.executor.QueryExecutor;
+import org.apache.pinot.core.query.scheduler.fairshare.FairSharePriorityScheduler;
 import org.apache.pinot.core.query.scheduler.fcfs.BoundedFCFSScheduler;
 import org.apache.pinot.core.query.scheduler.fcfs.FCFSQueryScheduler;
 import org.apache.pinot.core.query.scheduler.tokenbucket.TokenPriorityScheduler;
@@ -42,6 +43,7 @@ public class QuerySchedulerFactory {
   private static final String DEFAULT_QUERY_SCHEDULER_ALGORITHM = FCFS_ALGORITHM;
   public static final String TOKEN_BUCKET_ALGORITHM = "tokenbucket";
   public static final String BOUNDED_FCFS_ALGORITHM = "bounded_fcfs";
+  public static final String FAIR_SHARE_ALGORITHM = "fairshare";
   public static final String ALGORITHM_NAME_CONFIG_KEY = "name";
   private static Logger LOGGER = LoggerFactory.getLogger(QuerySchedulerFactory.class);
 
@@ -69,6 +71,9 @@ public class QuerySchedulerFactory {
       return TokenPriorityScheduler.create(schedulerConfig, queryExecutor, serverMetrics, latestQueryTime);
     } else if (schedulerName.equals(BOUNDED_FCFS_ALGORITHM)) {
       return BoundedFCFSScheduler.create(schedulerConfig, queryExecutor, serverMetrics, latestQueryTime);
+    } else if (schedulerName.equals(FAIR_SHARE_ALGORITHM)) {
+      LOGGER.info("Using Fair Share scheduler");
+      return FairSharePriorityScheduler.create(schedulerConfig, queryExecutor, serverMetrics, latestQueryTime);
     }
 
     // didn't find by name so try by classname
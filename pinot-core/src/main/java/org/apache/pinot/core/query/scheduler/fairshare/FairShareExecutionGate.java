@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.scheduler.fairshare;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Gate that bounds the number of worker threads actively executing queries, and hands out the execution slots in
+ * weighted-fair order of the {@link FairShareSchedulerGroup}s.
+ *
+ * Worker threads acquire a slot before executing a task, and cooperatively yield the slot between blocks. On yield, if
+ * a parked thread belongs to a group with lower virtual runtime than the group of the yielding thread, the yielding
+ * thread gives up its slot and parks until it is the best candidate again. This way a long running query of a heavy
+ * group cannot hold the CPU while the queries of the light groups are waiting.
+ *
+ * Parked threads are resumed in the order of the virtual runtime of their groups, then in the order of arrival. The
+ * number of parked threads is bounded by the size of the worker thread pool, so linear scan is used to pick the next
+ * thread because the virtual runtime of the groups keeps changing while the threads are parked.
+ */
+public class FairShareExecutionGate {
+  private final int _numSlots;
+  private final Lock _lock = new ReentrantLock();
+  private final Condition _stateChanged = _lock.newCondition();
+  private final List<Waiter> _waiters = new ArrayList<>();
+
+  private int _numAvailableSlots;
+  private long _nextSequence;
+
+  public FairShareExecutionGate(int numSlots) {
+    Preconditions.checkArgument(numSlots > 0, "Number of slots must be positive, got: %s", numSlots);
+    _numSlots = numSlots;
+    _numAvailableSlots = numSlots;
+  }
+
+  public int getNumSlots() {
+    return _numSlots;
+  }
+
+  public int getNumWaiters() {
+    _lock.lock();
+    try {
+      return _waiters.size();
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  /**
+   * Acquires an execution slot for the given group, blocks until the slot is available and there is no better
+   * candidate waiting for it.
+   */
+  public void acquire(FairShareSchedulerGroup group)
+      throws InterruptedException {
+    _lock.lock();
+    try {
+      awaitSlot(group);
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  /**
+   * Releases the execution slot held by the current thread.
+   */
+  public void release() {
+    _lock.lock();
+    try {
+      releaseSlot();
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  /**
+   * Yields the execution slot held by the current thread if a thread of a group with lower virtual runtime is waiting,
+   * and re-acquires the slot after that. Returns {@code true} if the slot was yielded, {@code false} otherwise.
+   * <p>If interrupted while re-acquiring the slot, the slot is not held by the current thread when this method throws.
+   */
+  public boolean yield(FairShareSchedulerGroup group)
+      throws InterruptedException {
+    _lock.lock();
+    try {
+      if (_waiters.isEmpty()) {
+        return false;
+      }
+      double virtualRuntimeNs = group.getVirtualRuntimeNs();
+      boolean hasBetterWaiter = false;
+      for (Waiter waiter : _waiters) {
+        if (waiter._group.getVirtualRuntimeNs() < virtualRuntimeNs) {
+          hasBetterWaiter = true;
+          break;
+        }
+      }
+      if (!hasBetterWaiter) {
+        return false;
+      }
+      releaseSlot();
+      awaitSlot(group);
+      return true;
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  // callers must hold the lock
+  private void awaitSlot(FairShareSchedulerGroup group)
+      throws InterruptedException {
+    Waiter waiter = new Waiter(group, _nextSequence++);
+    _waiters.add(waiter);
+    try {
+      while (_numAvailableSlots == 0 || getBestWaiter() != waiter) {
+        _stateChanged.await();
+      }
+    } catch (InterruptedException e) {
+      _waiters.remove(waiter);
+      // The best waiter might have changed
+      _stateChanged.signalAll();
+      throw e;
+    }
+    _waiters.remove(waiter);
+    _numAvailableSlots--;
+    if (_numAvailableSlots > 0 && !_waiters.isEmpty()) {
+      _stateChanged.signalAll();
+    }
+  }
+
+  // callers must hold the lock
+  private void releaseSlot() {
+    Preconditions.checkState(_numAvailableSlots < _numSlots, "Releasing slot that is not acquired");
+    _numAvailableSlots++;
+    if (!_waiters.isEmpty()) {
+      _stateChanged.signalAll();
+    }
+  }
+
+  // callers must hold the lock
+  private Waiter getBestWaiter() {
+    Waiter bestWaiter = null;
+    double bestVirtualRuntimeNs = 0;
+    for (Waiter waiter : _waiters) {
+      double virtualRuntimeNs = waiter._group.getVirtualRuntimeNs();
+      if (bestWaiter == null || virtualRuntimeNs < bestVirtualRuntimeNs || (virtualRuntimeNs == bestVirtualRuntimeNs
+          && waiter._sequence < bestWaiter._sequence)) {
+        bestWaiter = waiter;
+        bestVirtualRuntimeNs = virtualRuntimeNs;
+      }
+    }
+    return bestWaiter;
+  }
+
+  private static class Waiter {
+    final FairShareSchedulerGroup _group;
+    final long _sequence;
+
+    Waiter(FairShareSchedulerGroup group, long sequence) {
+      _group = group;
+      _sequence = sequence;
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.scheduler.fairshare;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import javax.annotation.Nonnull;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.query.executor.QueryExecutor;
+import org.apache.pinot.core.query.scheduler.MultiLevelPriorityQueue;
+import org.apache.pinot.core.query.scheduler.PriorityScheduler;
+import org.apache.pinot.core.query.scheduler.SchedulerGroup;
+import org.apache.pinot.core.query.scheduler.SchedulerGroupFactory;
+import org.apache.pinot.core.query.scheduler.TableBasedGroupMapper;
+import org.apache.pinot.core.query.scheduler.resources.ResourceManager;
+import org.apache.pinot.spi.env.PinotConfiguration;
+
+
+/**
+ * Schedules queries from a {@link SchedulerGroup} (one per table) with the lowest weighted thread CPU time on
+ * priority. Different from {@link org.apache.pinot.core.query.scheduler.tokenbucket.TokenPriorityScheduler} which only
+ * decides which query starts next, the worker threads of the running queries cooperatively yield between blocks to
+ * the queries of the groups with lower weighted CPU time (see {@link FairShareExecutionGate}), so that an expensive
+ * query cannot starve the cheap queries of the other tables.
+ *
+ * This is a thin wrapper factory class that configures {@link PriorityScheduler} with the right concrete classes.
+ */
+public class FairSharePriorityScheduler extends PriorityScheduler {
+  // Weight of a table can be configured with key: weight.<tableNameWithType>
+  public static final String WEIGHT_KEY_PREFIX = "weight.";
+  public static final String DEFAULT_WEIGHT_KEY = "default_weight";
+  public static final String DECAY_PERIOD_MS_KEY = "decay_period_ms";
+  private static final double DEFAULT_WEIGHT = 1.0;
+  private static final long DEFAULT_DECAY_PERIOD_MS = 1000L;
+
+  public static FairSharePriorityScheduler create(@Nonnull PinotConfiguration config,
+      @Nonnull QueryExecutor queryExecutor, @Nonnull ServerMetrics metrics, @Nonnull LongAccumulator latestQueryTime) {
+    final ResourceManager rm = new FairShareResourceManager(config);
+    final SchedulerGroupFactory groupFactory = new SchedulerGroupFactory() {
+      @Override
+      public SchedulerGroup create(PinotConfiguration config, String groupName) {
+        double defaultWeight = config.getProperty(DEFAULT_WEIGHT_KEY, DEFAULT_WEIGHT);
+        double weight = config.getProperty(WEIGHT_KEY_PREFIX + groupName, defaultWeight);
+        long decayPeriodMs = config.getProperty(DECAY_PERIOD_MS_KEY, DEFAULT_DECAY_PERIOD_MS);
+        return new FairShareSchedulerGroup(groupName, weight, decayPeriodMs);
+      }
+    };
+
+    MultiLevelPriorityQueue queue = new MultiLevelPriorityQueue(config, rm, groupFactory, new TableBasedGroupMapper());
+    return new FairSharePriorityScheduler(config, rm, queryExecutor, queue, metrics, latestQueryTime);
+  }
+
+  private FairSharePriorityScheduler(@Nonnull PinotConfiguration config, @Nonnull ResourceManager resourceManager,
+      @Nonnull QueryExecutor queryExecutor, @Nonnull MultiLevelPriorityQueue queue, @Nonnull ServerMetrics metrics,
+      @Nonnull LongAccumulator latestQueryTime) {
+    super(config, resourceManager, queryExecutor, queue, metrics, latestQueryTime);
+  }
+
+  @Override
+  public String name() {
+    return "FairShare";
+  }
+}
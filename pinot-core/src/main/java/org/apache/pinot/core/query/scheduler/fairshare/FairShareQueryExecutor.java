@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.scheduler.fairshare;
+
+import com.google.common.base.Preconditions;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import javax.annotation.Nonnull;
+import org.apache.pinot.core.query.scheduler.CooperativeYield;
+import org.apache.pinot.core.query.scheduler.resources.QueryExecutorService;
+import org.apache.pinot.spi.exception.EarlyTerminationException;
+
+
+/**
+ * Executor service that runs the tasks of a query through the {@link FairShareExecutionGate}.
+ *
+ * Each task acquires an execution slot before running, charges the thread CPU time to the scheduler group of the
+ * query and offers to yield the slot every {@code yieldIntervalBlocks} blocks, and releases the slot when done. Tasks
+ * are submitted to the delegate executor service which bounds the parallelism of the query.
+ */
+public class FairShareQueryExecutor extends QueryExecutorService {
+  private static final ThreadMXBean MX_BEAN = ManagementFactory.getThreadMXBean();
+  private static final boolean IS_CURRENT_THREAD_CPU_TIME_SUPPORTED = MX_BEAN.isCurrentThreadCpuTimeSupported();
+
+  private final QueryExecutorService _delegate;
+  private final FairShareExecutionGate _gate;
+  private final FairShareSchedulerGroup _group;
+  private final int _yieldIntervalBlocks;
+
+  public FairShareQueryExecutor(@Nonnull QueryExecutorService delegate, @Nonnull FairShareExecutionGate gate,
+      @Nonnull FairShareSchedulerGroup group, int yieldIntervalBlocks) {
+    Preconditions.checkNotNull(delegate);
+    Preconditions.checkNotNull(gate);
+    Preconditions.checkNotNull(group);
+    Preconditions.checkArgument(yieldIntervalBlocks > 0);
+    _delegate = delegate;
+    _gate = gate;
+    _group = group;
+    _yieldIntervalBlocks = yieldIntervalBlocks;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    _delegate.execute(new YieldingRunnable(command));
+  }
+
+  @Override
+  public void releaseWorkers() {
+    _delegate.releaseWorkers();
+  }
+
+  /**
+   * Returns the CPU time of the current thread, or the wall clock time if thread CPU time is not supported.
+   */
+  private static long currentThreadCpuTimeNs() {
+    return IS_CURRENT_THREAD_CPU_TIME_SUPPORTED ? MX_BEAN.getCurrentThreadCpuTime() : System.nanoTime();
+  }
+
+  private class YieldingRunnable implements Runnable, CooperativeYield.Handler {
+    private final Runnable _runnable;
+    private int _numBlocks;
+    private long _lastCpuTimeNs;
+    private boolean _holdingSlot;
+
+    YieldingRunnable(Runnable runnable) {
+      _runnable = runnable;
+    }
+
+    @Override
+    public void run() {
+      try {
+        _gate.acquire(_group);
+        _holdingSlot = true;
+      } catch (InterruptedException e) {
+        // The query is cancelled before the task gets the slot. Still run the task (without slot) with the interrupt
+        // flag set so that the task is terminated the same way as with the other schedulers.
+        Thread.currentThread().interrupt();
+        _runnable.run();
+        return;
+      }
+      _lastCpuTimeNs = currentThreadCpuTimeNs();
+      CooperativeYield.setHandler(this);
+      try {
+        _runnable.run();
+      } finally {
+        CooperativeYield.setHandler(null);
+        chargeCpuTime();
+        if (_holdingSlot) {
+          _gate.release();
+        }
+      }
+    }
+
+    @Override
+    public void onBlock() {
+      if (++_numBlocks % _yieldIntervalBlocks != 0) {
+        return;
+      }
+      chargeCpuTime();
+      try {
+        _gate.yield(_group);
+      } catch (InterruptedException e) {
+        // The slot is already given up when interrupted while waiting for it
+        _holdingSlot = false;
+        throw new EarlyTerminationException();
+      }
+      _lastCpuTimeNs = currentThreadCpuTimeNs();
+    }
+
+    private void chargeCpuTime() {
+      long currentCpuTimeNs = currentThreadCpuTimeNs();
+      _group.charge(currentCpuTimeNs - _lastCpuTimeNs);
+      _lastCpuTimeNs = currentCpuTimeNs;
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.scheduler.fairshare;
+
+import com.google.common.base.Preconditions;
+import org.apache.pinot.core.query.request.ServerQueryRequest;
+import org.apache.pinot.core.query.scheduler.SchedulerGroupAccountant;
+import org.apache.pinot.core.query.scheduler.resources.PolicyBasedResourceManager;
+import org.apache.pinot.core.query.scheduler.resources.QueryExecutorService;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * ResourceManager that limits the threads of each query as per the configured policy (same as
+ * {@link PolicyBasedResourceManager}), and runs the query workers through a shared {@link FairShareExecutionGate} so
+ * that the worker threads cooperatively yield to the queries of the scheduler groups with lower CPU usage.
+ */
+public class FairShareResourceManager extends PolicyBasedResourceManager {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FairShareResourceManager.class);
+
+  public static final String RUNNING_WORKERS_KEY = "running_worker_threads";
+  public static final String YIELD_INTERVAL_BLOCKS_KEY = "yield_interval_blocks";
+  public static final int DEFAULT_RUNNING_WORKERS = Runtime.getRuntime().availableProcessors();
+  public static final int DEFAULT_YIELD_INTERVAL_BLOCKS = 4;
+
+  private final FairShareExecutionGate _gate;
+  private final int _yieldIntervalBlocks;
+
+  public FairShareResourceManager(PinotConfiguration config) {
+    super(config);
+    // Keep fewer running workers than the worker threads so that there are parked threads to switch to on yield
+    int numRunningWorkers =
+        Math.min(config.getProperty(RUNNING_WORKERS_KEY, DEFAULT_RUNNING_WORKERS), numQueryWorkerThreads);
+    _gate = new FairShareExecutionGate(numRunningWorkers);
+    _yieldIntervalBlocks = config.getProperty(YIELD_INTERVAL_BLOCKS_KEY, DEFAULT_YIELD_INTERVAL_BLOCKS);
+    Preconditions.checkArgument(_yieldIntervalBlocks > 0, "Yield interval blocks must be positive, got: %s",
+        _yieldIntervalBlocks);
+    LOGGER.info("Initializing with {} running worker threads, yielding every {} blocks", numRunningWorkers,
+        _yieldIntervalBlocks);
+  }
+
+  public FairShareExecutionGate getExecutionGate() {
+    return _gate;
+  }
+
+  @Override
+  public QueryExecutorService getExecutorService(ServerQueryRequest query, SchedulerGroupAccountant accountant) {
+    Preconditions.checkArgument(accountant instanceof FairShareSchedulerGroup,
+        "Fair share resource manager requires FairShareSchedulerGroup, got: %s", accountant.getClass());
+    return new FairShareQueryExecutor(super.getExecutorService(query, accountant), _gate,
+        (FairShareSchedulerGroup) accountant, _yieldIntervalBlocks);
+  }
+}
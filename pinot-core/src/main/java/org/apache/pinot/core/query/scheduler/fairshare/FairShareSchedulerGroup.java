@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.scheduler.fairshare;
+
+import com.google.common.base.Preconditions;
+import org.apache.pinot.core.query.scheduler.AbstractSchedulerGroup;
+import org.apache.pinot.core.query.scheduler.SchedulerGroup;
+import org.apache.pinot.core.query.scheduler.SchedulerGroupAccountant;
+import org.apache.pinot.core.query.scheduler.fcfs.FCFSSchedulerGroup;
+
+
+/**
+ * Scheduler group that manages accounting based on the thread CPU time consumed by the group.
+ *
+ * Worker threads executing the queries of this group charge their CPU time to the group at each cooperative yield
+ * point (see {@link FairShareExecutionGate}). The charged CPU time divided by the weight of the group is the virtual
+ * runtime of the group, and the group with the lowest virtual runtime has the highest priority, both to start new
+ * queries and to resume the parked worker threads.
+ *
+ * Charged CPU time decays by {@link #DECAY_FACTOR} every decay period, so that the usage of the group in the recent
+ * periods dominates and a group that has been idle for a while does not monopolize the server when it comes back.
+ */
+public class FairShareSchedulerGroup extends AbstractSchedulerGroup {
+  static final double DECAY_FACTOR = 0.5;
+
+  private final double _weight;
+  private final long _decayPeriodMs;
+
+  // CPU time charged to this group (with decay applied up to _lastDecayTimeMs)
+  private double _chargedCpuTimeNs;
+  private long _lastDecayTimeMs;
+
+  FairShareSchedulerGroup(String schedGroupName, double weight, long decayPeriodMs) {
+    super(schedGroupName);
+    Preconditions.checkArgument(weight > 0, "Weight must be positive, got: %s", weight);
+    Preconditions.checkArgument(decayPeriodMs > 0, "Decay period must be positive, got: %s", decayPeriodMs);
+    _weight = weight;
+    _decayPeriodMs = decayPeriodMs;
+    _lastDecayTimeMs = currentTimeMillis();
+  }
+
+  public double getWeight() {
+    return _weight;
+  }
+
+  /**
+   * Charges the given thread CPU time to this group.
+   */
+  public synchronized void charge(long cpuTimeNs) {
+    decay();
+    _chargedCpuTimeNs += cpuTimeNs;
+  }
+
+  /**
+   * Returns the virtual runtime of this group, i.e. the decayed charged CPU time normalized by the weight.
+   */
+  public synchronized double getVirtualRuntimeNs() {
+    decay();
+    return _chargedCpuTimeNs / _weight;
+  }
+
+  /**
+   * Compares priority of this group with respect to another scheduler group.
+   * Group with lower virtual runtime has higher priority. If both groups have the same virtual runtime then the group
+   * with earliest waiting job has higher priority.
+   * @param rhs SchedulerGroupAccount to compare with
+   * @return < 0 if lhs has lower priority than rhs
+   *     > 0 if lhs has higher priority than rhs
+   *     = 0 if lhs has same priority as rhs
+   */
+  @Override
+  public int compareTo(SchedulerGroupAccountant rhs) {
+    if (rhs == null) {
+      return 1;
+    }
+    if (this == rhs) {
+      return 0;
+    }
+    int result = Double.compare(((FairShareSchedulerGroup) rhs).getVirtualRuntimeNs(), getVirtualRuntimeNs());
+    if (result != 0) {
+      return result;
+    }
+    return FCFSSchedulerGroup.compare(this, (SchedulerGroup) rhs);
+  }
+
+  public String toString() {
+    return String.format(" {%s:[%.0f,%d,%d,%d,%d]},", name(), getVirtualRuntimeNs(), numPending(), numRunning(),
+        getThreadsInUse(), totalReservedThreads());
+  }
+
+  // callers must synchronize access to this method
+  private void decay() {
+    long currentTimeMs = currentTimeMillis();
+    long numPeriods = (currentTimeMs - _lastDecayTimeMs) / _decayPeriodMs;
+    if (numPeriods > 0) {
+      _chargedCpuTimeNs *= Math.pow(DECAY_FACTOR, numPeriods);
+      _lastDecayTimeMs += numPeriods * _decayPeriodMs;
+    }
+  }
+
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+}
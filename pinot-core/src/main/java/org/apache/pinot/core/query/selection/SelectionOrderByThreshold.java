@@ -0,0 +1,513 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.selection;
+
+import javax.annotation.Nullable;
+import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.operator.DocIdSetOperator.DocIdSkipper;
+import org.apache.pinot.core.operator.transform.TransformResultMetadata;
+import org.apache.pinot.segment.spi.Constants;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.SortedIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.apache.pinot.spi.utils.Pairs;
+
+
+/**
+ * The {@code SelectionOrderByThreshold} keeps the threshold on the first order-by expression for the selection order-by
+ * queries, which is the first order-by value of the last row to keep (the head of the priority queue when it is full).
+ * <p>Rows with the first order-by value strictly worse than the threshold cannot make the top rows, and can be skipped
+ * directly on the columnar block values without boxing the values and materializing the rows. Rows with the same value
+ * as the threshold still need to be compared on all the order-by expressions.
+ * <p>For columns with sorted dictionary, the threshold is kept as dictionary id and compared with the dictionary ids;
+ * for other numeric columns, the threshold is kept and compared as primitive value. When the first order-by expression
+ * is a sorted column, the threshold can also be pushed down to the scan (see {@link #getSortedColumnDocIdSkipper}) to
+ * skip the documents without reading the values; otherwise when the column has a zone map, the threshold can be pushed
+ * down to skip the zone map blocks with all the values worse than the threshold (see {@link #getZoneMapDocIdSkipper}).
+ */
+@SuppressWarnings("rawtypes")
+public abstract class SelectionOrderByThreshold {
+  protected final boolean _asc;
+  protected boolean _hasThreshold;
+
+  protected SelectionOrderByThreshold(boolean asc) {
+    _asc = asc;
+  }
+
+  /**
+   * Returns the threshold for the first order-by expression with the given metadata and dictionary (optional), or
+   * {@code null} if the expression is not supported (multi-value or non-numeric without sorted dictionary).
+   */
+  @Nullable
+  public static SelectionOrderByThreshold create(boolean asc, TransformResultMetadata expressionMetadata,
+      @Nullable Dictionary dictionary) {
+    if (!expressionMetadata.isSingleValue()) {
+      return null;
+    }
+    if (dictionary != null && dictionary.isSorted()) {
+      return new DictIdThreshold(asc, dictionary);
+    }
+    switch (expressionMetadata.getDataType().getStoredType()) {
+      case INT:
+        return new IntThreshold(asc);
+      case LONG:
+        return new LongThreshold(asc);
+      case FLOAT:
+        return new FloatThreshold(asc);
+      case DOUBLE:
+        return new DoubleThreshold(asc);
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Updates the threshold with the given first order-by value (in stored type, {@code ByteArray} for BYTES) of the last
+   * row to keep. The threshold is only updated when the given value is better than the current threshold.
+   */
+  public abstract void update(Comparable value);
+
+  /**
+   * Fills the indexes of the rows (within the block) that might make the top rows into the given buffer, and returns
+   * the number of candidate rows.
+   */
+  public int getCandidateRows(BlockValSet blockValSet, int numRows, int[] candidateRows) {
+    if (!_hasThreshold) {
+      for (int i = 0; i < numRows; i++) {
+        candidateRows[i] = i;
+      }
+      return numRows;
+    }
+    return getCandidateRowsWithThreshold(blockValSet, numRows, candidateRows);
+  }
+
+  protected abstract int getCandidateRowsWithThreshold(BlockValSet blockValSet, int numRows, int[] candidateRows);
+
+  /**
+   * Returns a {@link DocIdSkipper} that skips the documents that cannot make the top rows based on the current
+   * threshold when the first order-by expression is a sorted column with the given sorted index, or {@code null} if the
+   * threshold is not kept as dictionary id.
+   */
+  @Nullable
+  public DocIdSkipper getSortedColumnDocIdSkipper(SortedIndexReader<?> sortedIndexReader) {
+    return null;
+  }
+
+  /**
+   * Returns a {@link DocIdSkipper} that skips the zone map blocks where all the values of the first order-by column are
+   * worse than the current threshold.
+   */
+  public DocIdSkipper getZoneMapDocIdSkipper(ZoneMapReader zoneMap, int numDocs) {
+    return new ZoneMapDocIdSkipper(zoneMap, numDocs);
+  }
+
+  /**
+   * Compares the given value (in stored type, {@code ByteArray} for BYTES) with the threshold. Should only be called
+   * when the threshold is set.
+   */
+  protected abstract int compareToThreshold(Comparable value);
+
+  private class ZoneMapDocIdSkipper implements DocIdSkipper {
+    final ZoneMapReader _zoneMap;
+    final int _numDocsPerBlock;
+    final int _numDocs;
+
+    // Block that is already checked to contain candidate documents. The threshold only gets tightened, so re-checking
+    // the block with the new threshold can only skip more documents.
+    int _candidateBlockId = -1;
+
+    ZoneMapDocIdSkipper(ZoneMapReader zoneMap, int numDocs) {
+      _zoneMap = zoneMap;
+      _numDocsPerBlock = zoneMap.getNumDocsPerBlock();
+      _numDocs = numDocs;
+    }
+
+    @Override
+    public int getNextCandidateDocId(int docId) {
+      int blockId = docId / _numDocsPerBlock;
+      if (!_hasThreshold || blockId == _candidateBlockId) {
+        return docId;
+      }
+      // NOTE: Blocks without zone map (documents indexed after reading the number of blocks for consuming segment) are
+      //       always treated as candidate blocks.
+      int numBlocks = _zoneMap.getNumBlocks();
+      int candidateBlockId = blockId;
+      while (candidateBlockId < numBlocks && canSkipBlock(candidateBlockId)) {
+        candidateBlockId++;
+      }
+      _candidateBlockId = candidateBlockId;
+      if (candidateBlockId == blockId) {
+        return docId;
+      }
+      int candidateDocId = candidateBlockId * _numDocsPerBlock;
+      return candidateDocId < _numDocs ? candidateDocId : Constants.EOF;
+    }
+
+    boolean canSkipBlock(int blockId) {
+      if (_asc) {
+        return compareToThreshold(_zoneMap.getMinValue(blockId)) > 0;
+      } else {
+        return compareToThreshold(_zoneMap.getMaxValue(blockId)) < 0;
+      }
+    }
+  }
+
+  private static class DictIdThreshold extends SelectionOrderByThreshold {
+    final Dictionary _dictionary;
+    int _threshold;
+
+    DictIdThreshold(boolean asc, Dictionary dictionary) {
+      super(asc);
+      _dictionary = dictionary;
+    }
+
+    @Override
+    public void update(Comparable value) {
+      int index = insertionIndexOf(value);
+      int threshold;
+      if (index >= 0) {
+        threshold = index;
+      } else {
+        // Value does not exist in the dictionary (from another segment), use the closest dictionary id that still
+        // needs to be kept
+        int insertionIndex = -index - 1;
+        threshold = _asc ? insertionIndex - 1 : insertionIndex;
+      }
+      if (!_hasThreshold || (_asc ? threshold < _threshold : threshold > _threshold)) {
+        _threshold = threshold;
+        _hasThreshold = true;
+      }
+    }
+
+    /**
+     * Binary searches the value (in stored type) in the sorted dictionary with the typed value getters, and returns the
+     * dictionary id if found, or {@code -(insertionIndex + 1)} otherwise.
+     */
+    private int insertionIndexOf(Comparable value) {
+      switch (_dictionary.getValueType().getStoredType()) {
+        case INT: {
+          int target = (Integer) value;
+          return binarySearch(dictId -> Integer.compare(_dictionary.getIntValue(dictId), target));
+        }
+        case LONG: {
+          long target = (Long) value;
+          return binarySearch(dictId -> Long.compare(_dictionary.getLongValue(dictId), target));
+        }
+        case FLOAT: {
+          float target = (Float) value;
+          return binarySearch(dictId -> Float.compare(_dictionary.getFloatValue(dictId), target));
+        }
+        case DOUBLE: {
+          double target = (Double) value;
+          return binarySearch(dictId -> Double.compare(_dictionary.getDoubleValue(dictId), target));
+        }
+        case STRING:
+          return _dictionary.insertionIndexOf((String) value);
+        case BYTES: {
+          byte[] target = ((ByteArray) value).getBytes();
+          return binarySearch(dictId -> ByteArray.compare(_dictionary.getBytesValue(dictId), target));
+        }
+        default:
+          throw new IllegalStateException("Unsupported value type: " + _dictionary.getValueType());
+      }
+    }
+
+    @Override
+    protected int compareToThreshold(Comparable value) {
+      int index = insertionIndexOf(value);
+      if (index >= 0) {
+        return Integer.compare(index, _threshold);
+      }
+      // Value does not exist in the dictionary, and is larger than the threshold value when it should be inserted after
+      // the threshold (also works for the sentinel thresholds -1 and dictionary length)
+      int insertionIndex = -index - 1;
+      return insertionIndex > _threshold ? 1 : -1;
+    }
+
+    private int binarySearch(DictIdComparator comparator) {
+      int low = 0;
+      int high = _dictionary.length() - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        int result = comparator.compareToTarget(mid);
+        if (result < 0) {
+          low = mid + 1;
+        } else if (result > 0) {
+          high = mid - 1;
+        } else {
+          return mid;
+        }
+      }
+      return -(low + 1);
+    }
+
+    @Override
+    public DocIdSkipper getSortedColumnDocIdSkipper(SortedIndexReader<?> sortedIndexReader) {
+      return new SortedColumnDocIdSkipper(sortedIndexReader);
+    }
+
+    /**
+     * Documents in a sorted column are ordered by the dictionary ids, so the documents that can make the top rows are
+     * in a single range: before the end of the threshold dictionary id range for ascending order, and after the start
+     * of the threshold dictionary id range for descending order.
+     */
+    private class SortedColumnDocIdSkipper implements DocIdSkipper {
+      final SortedIndexReader<?> _sortedIndexReader;
+      final int _numDictIds;
+
+      // Cache the document id range for the last threshold to avoid looking up the sorted index for each document
+      boolean _hasDocIdRange;
+      int _dictId;
+      Pairs.IntPair _docIdRange;
+
+      SortedColumnDocIdSkipper(SortedIndexReader<?> sortedIndexReader) {
+        _sortedIndexReader = sortedIndexReader;
+        _numDictIds = _dictionary.length();
+      }
+
+      @Override
+      public int getNextCandidateDocId(int docId) {
+        if (!_hasThreshold) {
+          return docId;
+        }
+        int threshold = _threshold;
+        if (threshold < 0 || threshold >= _numDictIds) {
+          // All the values are worse than the threshold
+          return Constants.EOF;
+        }
+        if (!_hasDocIdRange || _dictId != threshold) {
+          _docIdRange = _sortedIndexReader.getDocIds(threshold);
+          _dictId = threshold;
+          _hasDocIdRange = true;
+        }
+        if (_asc) {
+          return docId <= _docIdRange.getRight() ? docId : Constants.EOF;
+        } else {
+          return Math.max(docId, _docIdRange.getLeft());
+        }
+      }
+    }
+
+    @Override
+    protected int getCandidateRowsWithThreshold(BlockValSet blockValSet, int numRows, int[] candidateRows) {
+      int[] dictIds = blockValSet.getDictionaryIdsSV();
+      int threshold = _threshold;
+      int numCandidateRows = 0;
+      if (_asc) {
+        for (int i = 0; i < numRows; i++) {
+          if (dictIds[i] <= threshold) {
+            candidateRows[numCandidateRows++] = i;
+          }
+        }
+      } else {
+        for (int i = 0; i < numRows; i++) {
+          if (dictIds[i] >= threshold) {
+            candidateRows[numCandidateRows++] = i;
+          }
+        }
+      }
+      return numCandidateRows;
+    }
+  }
+
+  private static class IntThreshold extends SelectionOrderByThreshold {
+    int _threshold;
+
+    IntThreshold(boolean asc) {
+      super(asc);
+    }
+
+    @Override
+    public void update(Comparable value) {
+      int threshold = (Integer) value;
+      if (!_hasThreshold || (_asc ? threshold < _threshold : threshold > _threshold)) {
+        _threshold = threshold;
+        _hasThreshold = true;
+      }
+    }
+
+    @Override
+    protected int compareToThreshold(Comparable value) {
+      return Integer.compare((Integer) value, _threshold);
+    }
+
+    @Override
+    protected int getCandidateRowsWithThreshold(BlockValSet blockValSet, int numRows, int[] candidateRows) {
+      int[] values = blockValSet.getIntValuesSV();
+      int threshold = _threshold;
+      int numCandidateRows = 0;
+      if (_asc) {
+        for (int i = 0; i < numRows; i++) {
+          if (values[i] <= threshold) {
+            candidateRows[numCandidateRows++] = i;
+          }
+        }
+      } else {
+        for (int i = 0; i < numRows; i++) {
+          if (values[i] >= threshold) {
+            candidateRows[numCandidateRows++] = i;
+          }
+        }
+      }
+      return numCandidateRows;
+    }
+  }
+
+  private static class LongThreshold extends SelectionOrderByThreshold {
+    long _threshold;
+
+    LongThreshold(boolean asc) {
+      super(asc);
+    }
+
+    @Override
+    public void update(Comparable value) {
+      long threshold = (Long) value;
+      if (!_hasThreshold || (_asc ? threshold < _threshold : threshold > _threshold)) {
+        _threshold = threshold;
+        _hasThreshold = true;
+      }
+    }
+
+    @Override
+    protected int compareToThreshold(Comparable value) {
+      return Long.compare((Long) value, _threshold);
+    }
+
+    @Override
+    protected int getCandidateRowsWithThreshold(BlockValSet blockValSet, int numRows, int[] candidateRows) {
+      long[] values = blockValSet.getLongValuesSV();
+      long threshold = _threshold;
+      int numCandidateRows = 0;
+      if (_asc) {
+        for (int i = 0; i < numRows; i++) {
+          if (values[i] <= threshold) {
+            candidateRows[numCandidateRows++] = i;
+          }
+        }
+      } else {
+        for (int i = 0; i < numRows; i++) {
+          if (values[i] >= threshold) {
+            candidateRows[numCandidateRows++] = i;
+          }
+        }
+      }
+      return numCandidateRows;
+    }
+  }
+
+  // NOTE: Use Float.compare() and Double.compare() to match the ordering of the boxed values (e.g. NaN)
+
+  private static class FloatThreshold extends SelectionOrderByThreshold {
+    float _threshold;
+
+    FloatThreshold(boolean asc) {
+      super(asc);
+    }
+
+    @Override
+    public void update(Comparable value) {
+      float threshold = (Float) value;
+      if (!_hasThreshold || (_asc ? Float.compare(threshold, _threshold) < 0
+          : Float.compare(threshold, _threshold) > 0)) {
+        _threshold = threshold;
+        _hasThreshold = true;
+      }
+    }
+
+    @Override
+    protected int compareToThreshold(Comparable value) {
+      return Float.compare((Float) value, _threshold);
+    }
+
+    @Override
+    protected int getCandidateRowsWithThreshold(BlockValSet blockValSet, int numRows, int[] candidateRows) {
+      float[] values = blockValSet.getFloatValuesSV();
+      float threshold = _threshold;
+      int numCandidateRows = 0;
+      if (_asc) {
+        for (int i = 0; i < numRows; i++) {
+          if (Float.compare(values[i], threshold) <= 0) {
+            candidateRows[numCandidateRows++] = i;
+          }
+        }
+      } else {
+        for (int i = 0; i < numRows; i++) {
+          if (Float.compare(values[i], threshold) >= 0) {
+            candidateRows[numCandidateRows++] = i;
+          }
+        }
+      }
+      return numCandidateRows;
+    }
+  }
+
+  private static class DoubleThreshold extends SelectionOrderByThreshold {
+    double _threshold;
+
+    DoubleThreshold(boolean asc) {
+      super(asc);
+    }
+
+    @Override
+    public void update(Comparable value) {
+      double threshold = (Double) value;
+      if (!_hasThreshold || (_asc ? Double.compare(threshold, _threshold) < 0
+          : Double.compare(threshold, _threshold) > 0)) {
+        _threshold = threshold;
+        _hasThreshold = true;
+      }
+    }
+
+    @Override
+    protected int compareToThreshold(Comparable value) {
+      return Double.compare((Double) value, _threshold);
+    }
+
+    @Override
+    protected int getCandidateRowsWithThreshold(BlockValSet blockValSet, int numRows, int[] candidateRows) {
+      double[] values = blockValSet.getDoubleValuesSV();
+      double threshold = _threshold;
+      int numCandidateRows = 0;
+      if (_asc) {
+        for (int i = 0; i < numRows; i++) {
+          if (Double.compare(values[i], threshold) <= 0) {
+            candidateRows[numCandidateRows++] = i;
+          }
+        }
+      } else {
+        for (int i = 0; i < numRows; i++) {
+          if (Double.compare(values[i], threshold) >= 0) {
+            candidateRows[numCandidateRows++] = i;
+          }
+        }
+      }
+      return numCandidateRows;
+    }
+  }
+
+  private interface DictIdComparator {
+
+    /**
+     * Compares the value of the given dictionary id with the target value.
+     */
+    int compareToTarget(int dictId);
+  }
+}
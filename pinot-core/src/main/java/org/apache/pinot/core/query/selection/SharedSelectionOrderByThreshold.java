@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.selection;
+
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
+
+
+/**
+ * The {@code SharedSelectionOrderByThreshold} shares the threshold on the first order-by expression (see
+ * {@link SelectionOrderByThreshold}) across the segments processed concurrently for the same selection order-by query.
+ * <p>Each segment publishes the first order-by value of its last row to keep once its priority queue is full, and picks
+ * up the best value published by the other segments, so that the segments can skip the rows that cannot make the
+ * global top rows without waiting for the combine.
+ * <p>The threshold can only be tightened, and is thread-safe.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class SharedSelectionOrderByThreshold {
+  private final boolean _asc;
+  private final AtomicReference<Comparable> _value = new AtomicReference<>();
+
+  public SharedSelectionOrderByThreshold(boolean asc) {
+    _asc = asc;
+  }
+
+  /**
+   * Updates the threshold with the given first order-by value (in stored type) of the last row to keep within a
+   * segment. The threshold is only updated when the given value is better than the current threshold. Values of a
+   * different type than the current threshold (e.g. from segments with a different schema) are ignored.
+   */
+  public void update(Comparable value) {
+    while (true) {
+      Comparable currentValue = _value.get();
+      if (currentValue != null) {
+        if (currentValue.getClass() != value.getClass()) {
+          return;
+        }
+        int result = value.compareTo(currentValue);
+        if (_asc ? result >= 0 : result <= 0) {
+          return;
+        }
+      }
+      if (_value.compareAndSet(currentValue, value)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the current threshold value, or {@code null} if no segment has published one yet.
+   */
+  @Nullable
+  public Comparable get() {
+    return _value.get();
+  }
+}
@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.stats;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.common.restlet.resources.ColumnFilterStats;
+import org.apache.pinot.common.restlet.resources.TableFilterStats;
+import org.apache.pinot.core.operator.filter.BaseFilterOperator;
+import org.apache.pinot.core.operator.filter.BitmapBasedFilterOperator;
+import org.apache.pinot.core.operator.filter.EmptyFilterOperator;
+import org.apache.pinot.core.operator.filter.MatchAllFilterOperator;
+import org.apache.pinot.core.operator.filter.RangeIndexBasedFilterOperator;
+import org.apache.pinot.core.operator.filter.ScanBasedFilterOperator;
+import org.apache.pinot.core.operator.filter.SortedIndexBasedFilterOperator;
+
+
+/**
+ * The {@code FilterStatsCollector} aggregates the filter statistics per table and column on the server, which are
+ * exposed via the server admin API and used by the controller to tune the indexes based on the query workload.
+ * <p>One filter is recorded for each leaf predicate on a column for each segment processed, along with the access path
+ * chosen for the predicate. For the scan-based filters, the number of documents in the segment is recorded as the
+ * number of entries scanned (upper bound as the scan might be limited by other filters).
+ * <p>The statistics are kept in memory since the server start or the last reset of the table.
+ */
+public class FilterStatsCollector extends TableStatsCollector<FilterStatsCollector.TableStats> {
+  private static final FilterStatsCollector INSTANCE = new FilterStatsCollector();
+
+  public static FilterStatsCollector getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * The access path of the filter on a column.
+   */
+  public enum AccessPath {
+    SORTED_INDEX, INVERTED_INDEX, RANGE_INDEX, SCAN,
+    // Predicate solved with the dictionary (always true or always false)
+    DICTIONARY,
+    // Access path not tracked (e.g. expression filters)
+    OTHER
+  }
+
+  @Override
+  protected TableStats createTableStats() {
+    return new TableStats();
+  }
+
+  /**
+   * Records a leaf filter on the given column within a segment.
+   */
+  public void recordFilter(@Nullable String tableNameWithType, String column, Predicate.Type predicateType,
+      BaseFilterOperator filterOperator, int numDocs) {
+    TableStats tableStats = getOrCreateTableStats(tableNameWithType);
+    if (tableStats == null) {
+      return;
+    }
+    AccessPath accessPath = getAccessPath(filterOperator);
+    tableStats._columnStatsMap.computeIfAbsent(column, k -> new ColumnStats())
+        .record(predicateType, accessPath, accessPath == AccessPath.SCAN ? numDocs : 0);
+  }
+
+  private static AccessPath getAccessPath(BaseFilterOperator filterOperator) {
+    if (filterOperator instanceof ScanBasedFilterOperator) {
+      return AccessPath.SCAN;
+    } else if (filterOperator instanceof SortedIndexBasedFilterOperator) {
+      return AccessPath.SORTED_INDEX;
+    } else if (filterOperator instanceof BitmapBasedFilterOperator) {
+      return AccessPath.INVERTED_INDEX;
+    } else if (filterOperator instanceof RangeIndexBasedFilterOperator) {
+      return AccessPath.RANGE_INDEX;
+    } else if (filterOperator instanceof EmptyFilterOperator || filterOperator instanceof MatchAllFilterOperator) {
+      return AccessPath.DICTIONARY;
+    } else {
+      return AccessPath.OTHER;
+    }
+  }
+
+  /**
+   * Returns the filter statistics of the given table (empty if no filter recorded).
+   */
+  public TableFilterStats getTableFilterStats(String tableNameWithType) {
+    TableStats tableStats = getTableStats(tableNameWithType);
+    if (tableStats == null) {
+      return new TableFilterStats(tableNameWithType, System.currentTimeMillis(), new HashMap<>());
+    }
+    Map<String, ColumnFilterStats> columnFilterStats = new HashMap<>();
+    tableStats._columnStatsMap.forEach((column, columnStats) -> columnFilterStats.put(column, columnStats.toStats()));
+    return new TableFilterStats(tableNameWithType, tableStats._startTimeMs, columnFilterStats);
+  }
+
+  static class TableStats {
+    final long _startTimeMs = System.currentTimeMillis();
+    final Map<String, ColumnStats> _columnStatsMap = new ConcurrentHashMap<>();
+  }
+
+  private static class ColumnStats {
+    static final Predicate.Type[] PREDICATE_TYPES = Predicate.Type.values();
+    static final AccessPath[] ACCESS_PATHS = AccessPath.values();
+
+    final LongAdder[] _numFiltersPerPredicateType = createCounters(PREDICATE_TYPES.length);
+    final LongAdder[] _numFiltersPerAccessPath = createCounters(ACCESS_PATHS.length);
+    final LongAdder _numEntriesScanned = new LongAdder();
+
+    static LongAdder[] createCounters(int numCounters) {
+      LongAdder[] counters = new LongAdder[numCounters];
+      for (int i = 0; i < numCounters; i++) {
+        counters[i] = new LongAdder();
+      }
+      return counters;
+    }
+
+    void record(Predicate.Type predicateType, AccessPath accessPath, int numEntriesScanned) {
+      _numFiltersPerPredicateType[predicateType.ordinal()].increment();
+      _numFiltersPerAccessPath[accessPath.ordinal()].increment();
+      if (numEntriesScanned > 0) {
+        _numEntriesScanned.add(numEntriesScanned);
+      }
+    }
+
+    ColumnFilterStats toStats() {
+      Map<String, Long> numFiltersPerPredicateType = new HashMap<>();
+      for (int i = 0; i < PREDICATE_TYPES.length; i++) {
+        long count = _numFiltersPerPredicateType[i].sum();
+        if (count > 0) {
+          numFiltersPerPredicateType.put(PREDICATE_TYPES[i].name(), count);
+        }
+      }
+      Map<String, Long> numFiltersPerAccessPath = new HashMap<>();
+      for (int i = 0; i < ACCESS_PATHS.length; i++) {
+        long count = _numFiltersPerAccessPath[i].sum();
+        if (count > 0) {
+          numFiltersPerAccessPath.put(ACCESS_PATHS[i].name(), count);
+        }
+      }
+      return new ColumnFilterStats(numFiltersPerPredicateType, numFiltersPerAccessPath, _numEntriesScanned.sum());
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.stats;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.restlet.resources.SegmentQueryStats;
+import org.apache.pinot.segment.spi.IndexSegment;
+
+
+/**
+ * The {@code SegmentQueryStatsCollector} counts the number of queries that processed each segment (after pruning) on
+ * the server, which is exposed via the server admin API and used by the controller as the query heat of the segments
+ * for the load-aware segment assignment.
+ * <p>To reflect the recent query pattern, the counts are kept within 2 rotating time windows: the stats cover the
+ * previous (complete) window and the current window.
+ */
+public class SegmentQueryStatsCollector extends TableStatsCollector<SegmentQueryStatsCollector.TableStats> {
+  private static final SegmentQueryStatsCollector INSTANCE = new SegmentQueryStatsCollector();
+  private static final long WINDOW_MS = TimeUnit.HOURS.toMillis(1);
+
+  public static SegmentQueryStatsCollector getInstance() {
+    return INSTANCE;
+  }
+
+  @Override
+  protected TableStats createTableStats() {
+    return new TableStats();
+  }
+
+  /**
+   * Records a query that processed the given segments of the table.
+   */
+  public void recordQuery(@Nullable String tableNameWithType, List<IndexSegment> segments) {
+    TableStats tableStats = getOrCreateTableStats(tableNameWithType);
+    if (tableStats == null) {
+      return;
+    }
+    Map<String, LongAdder> currentCounts = tableStats.getCurrentCounts(System.currentTimeMillis());
+    for (IndexSegment segment : segments) {
+      currentCounts.computeIfAbsent(segment.getSegmentName(), k -> new LongAdder()).increment();
+    }
+  }
+
+  /**
+   * Returns the query stats of the segments of the given table (empty if no query recorded).
+   */
+  public SegmentQueryStats getSegmentQueryStats(String tableNameWithType) {
+    TableStats tableStats = getTableStats(tableNameWithType);
+    long now = System.currentTimeMillis();
+    if (tableStats == null) {
+      return new SegmentQueryStats(tableNameWithType, now, Collections.emptyMap());
+    }
+    return tableStats.getStats(tableNameWithType, now);
+  }
+
+  /**
+   * NOTE: The counts of the previous window are kept as counters (instead of being summed up on rotation) so that the
+   *       queries recorded into the previous window concurrently with the rotation are not lost.
+   */
+  static class TableStats {
+    long _previousWindowStartMs;
+    Map<String, LongAdder> _previousCounts = Collections.emptyMap();
+    volatile long _currentWindowStartMs = System.currentTimeMillis();
+    volatile Map<String, LongAdder> _currentCounts = new ConcurrentHashMap<>();
+
+    TableStats() {
+      _previousWindowStartMs = _currentWindowStartMs;
+    }
+
+    Map<String, LongAdder> getCurrentCounts(long now) {
+      if (now - _currentWindowStartMs >= WINDOW_MS) {
+        rotate(now);
+      }
+      return _currentCounts;
+    }
+
+    synchronized void rotate(long now) {
+      if (now - _currentWindowStartMs < WINDOW_MS) {
+        return;
+      }
+      if (now - _currentWindowStartMs < 2 * WINDOW_MS) {
+        _previousWindowStartMs = _currentWindowStartMs;
+        _previousCounts = _currentCounts;
+      } else {
+        // No query in the last window
+        _previousWindowStartMs = now - WINDOW_MS;
+        _previousCounts = Collections.emptyMap();
+      }
+      _currentWindowStartMs = now;
+      _currentCounts = new ConcurrentHashMap<>();
+    }
+
+    synchronized SegmentQueryStats getStats(String tableNameWithType, long now) {
+      getCurrentCounts(now);
+      Map<String, Long> numQueriesPerSegment = sum(_previousCounts);
+      sum(_currentCounts).forEach((segment, count) -> numQueriesPerSegment.merge(segment, count, Long::sum));
+      return new SegmentQueryStats(tableNameWithType, _previousWindowStartMs, numQueriesPerSegment);
+    }
+
+    static Map<String, Long> sum(Map<String, LongAdder> counts) {
+      Map<String, Long> sums = new HashMap<>();
+      counts.forEach((segment, count) -> sums.put(segment, count.sum()));
+      return sums;
+    }
+  }
+}
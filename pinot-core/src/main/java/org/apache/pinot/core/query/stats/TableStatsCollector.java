@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.stats;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+
+
+/**
+ * Base class of the collectors that keep in-memory query statistics per table on the server (e.g. the filters on each
+ * column, the queries hitting each segment). The statistics are kept since the first query on the table after the
+ * server start, and are removed when the table is reset or removed from the server.
+ *
+ * @param <T> Type of the statistics of a table, which must be thread-safe
+ */
+public abstract class TableStatsCollector<T> {
+  private final Map<String, T> _tableStatsMap = new ConcurrentHashMap<>();
+
+  /**
+   * Creates the statistics for a table on its first query.
+   */
+  protected abstract T createTableStats();
+
+  /**
+   * Returns the statistics of the given table, creating them if they do not exist, or {@code null} if the table name
+   * is not available (e.g. queries not issued against a table).
+   */
+  @Nullable
+  protected T getOrCreateTableStats(@Nullable String tableNameWithType) {
+    return tableNameWithType != null ? _tableStatsMap.computeIfAbsent(tableNameWithType, k -> createTableStats())
+        : null;
+  }
+
+  /**
+   * Returns the statistics of the given table, or {@code null} if no query has been recorded for the table.
+   */
+  @Nullable
+  protected T getTableStats(String tableNameWithType) {
+    return _tableStatsMap.get(tableNameWithType);
+  }
+
+  /**
+   * Removes the statistics of the given table.
+   */
+  public void reset(String tableNameWithType) {
+    _tableStatsMap.remove(tableNameWithType);
+  }
+}
@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import io.netty.handler.flush.FlushConsolidationHandler;
+import org.apache.pinot.spi.env.PinotConfiguration;
+
+
+/**
+ * Container object for the netty transport configuration between the Pinot brokers and servers.
+ * <ul>
+ *   <li>nativeTransportsEnabled: whether to use the Linux native epoll transport when available (fall back to NIO
+ *   otherwise)</li>
+ *   <li>flushConsolidationEnabled: whether to coalesce the flushes of the concurrent requests/responses on the same
+ *   channel into a single flush (single gathering write)</li>
+ *   <li>maxFlushesToConsolidate: max number of flushes to consolidate before an explicit flush</li>
+ * </ul>
+ */
+public class NettyConfig {
+  public static final String NATIVE_TRANSPORTS_ENABLED = "native.transports.enabled";
+  public static final String FLUSH_CONSOLIDATION_ENABLED = "flush.consolidation.enabled";
+  public static final String MAX_FLUSHES_TO_CONSOLIDATE = "flush.consolidation.max.flushes";
+
+  private boolean _nativeTransportsEnabled = false;
+  private boolean _flushConsolidationEnabled = false;
+  private int _maxFlushesToConsolidate = FlushConsolidationHandler.DEFAULT_EXPLICIT_FLUSH_AFTER_FLUSHES;
+
+  /**
+   * Extracts a NettyConfig instance from a namespaced set of configuration keys.
+   *
+   * @param pinotConfig pinot configuration
+   * @param namespace namespace prefix
+   *
+   * @return NettyConfig instance
+   */
+  public static NettyConfig extractNettyConfig(PinotConfiguration pinotConfig, String namespace) {
+    NettyConfig nettyConfig = new NettyConfig();
+    nettyConfig.setNativeTransportsEnabled(
+        pinotConfig.getProperty(namespace + "." + NATIVE_TRANSPORTS_ENABLED, nettyConfig.isNativeTransportsEnabled()));
+    nettyConfig.setFlushConsolidationEnabled(pinotConfig
+        .getProperty(namespace + "." + FLUSH_CONSOLIDATION_ENABLED, nettyConfig.isFlushConsolidationEnabled()));
+    nettyConfig.setMaxFlushesToConsolidate(pinotConfig
+        .getProperty(namespace + "." + MAX_FLUSHES_TO_CONSOLIDATE, nettyConfig.getMaxFlushesToConsolidate()));
+    return nettyConfig;
+  }
+
+  public boolean isNativeTransportsEnabled() {
+    return _nativeTransportsEnabled;
+  }
+
+  public void setNativeTransportsEnabled(boolean nativeTransportsEnabled) {
+    _nativeTransportsEnabled = nativeTransportsEnabled;
+  }
+
+  public boolean isFlushConsolidationEnabled() {
+    return _flushConsolidationEnabled;
+  }
+
+  public void setFlushConsolidationEnabled(boolean flushConsolidationEnabled) {
+    _flushConsolidationEnabled = flushConsolidationEnabled;
+  }
+
+  public int getMaxFlushesToConsolidate() {
+    return _maxFlushesToConsolidate;
+  }
+
+  public void setMaxFlushesToConsolidate(int maxFlushesToConsolidate) {
+    _maxFlushesToConsolidate = maxFlushesToConsolidate;
+  }
+}
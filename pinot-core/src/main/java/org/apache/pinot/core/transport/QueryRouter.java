@@ -74,11 +74,24 @@ public class QueryRouter {
    * @param tlsConfig TLS config
    */
   public QueryRouter(String brokerId, BrokerMetrics brokerMetrics, TlsConfig tlsConfig) {
+    this(brokerId, brokerMetrics, tlsConfig, new NettyConfig());
+  }
+
+  /**
+   * Create a query router with TLS config (optional) and netty config
+   *
+   * @param brokerId broker id
+   * @param brokerMetrics broker metrics
+   * @param tlsConfig TLS config
+   * @param nettyConfig netty transport config
+   */
+  public QueryRouter(String brokerId, BrokerMetrics brokerMetrics, @Nullable TlsConfig tlsConfig,
+      NettyConfig nettyConfig) {
     _brokerId = brokerId;
     _brokerMetrics = brokerMetrics;
-    _serverChannels = new ServerChannels(this, brokerMetrics);
-    _serverChannelsTls =
-        Optional.ofNullable(tlsConfig).map(conf -> new ServerChannels(this, brokerMetrics, conf)).orElse(null);
+    _serverChannels = new ServerChannels(this, brokerMetrics, null, nettyConfig);
+    _serverChannelsTls = Optional.ofNullable(tlsConfig).map(conf -> new ServerChannels(this, brokerMetrics, conf,
+        nettyConfig)).orElse(null);
   }
 
   public AsyncQueryResponse submitQuery(long requestId, String rawTableName,
@@ -19,21 +19,30 @@
 package org.apache.pinot.core.transport;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.ssl.ClientAuth;
 import io.netty.handler.ssl.SslContextBuilder;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.core.query.scheduler.QueryScheduler;
 import org.apache.pinot.core.util.TlsUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
@@ -41,10 +50,13 @@ import org.apache.pinot.core.util.TlsUtils;
  * Brokers.
  */
 public class QueryServer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueryServer.class);
+
   private final int _port;
   private final QueryScheduler _queryScheduler;
   private final ServerMetrics _serverMetrics;
   private final TlsConfig _tlsConfig;
+  private final NettyConfig _nettyConfig;
 
   private EventLoopGroup _bossGroup;
   private EventLoopGroup _workerGroup;
@@ -70,19 +82,47 @@ public class QueryServer {
    * @param tlsConfig TLS/SSL config
    */
   public QueryServer(int port, QueryScheduler queryScheduler, ServerMetrics serverMetrics, TlsConfig tlsConfig) {
+    this(port, queryScheduler, serverMetrics, tlsConfig, new NettyConfig());
+  }
+
+  /**
+   * Create a server instance with TLS config (optional) and netty config
+   *
+   * @param port bind port
+   * @param queryScheduler query scheduler
+   * @param serverMetrics server metrics
+   * @param tlsConfig TLS/SSL config, null for unsecured server
+   * @param nettyConfig netty transport config
+   */
+  public QueryServer(int port, QueryScheduler queryScheduler, ServerMetrics serverMetrics,
+      @Nullable TlsConfig tlsConfig, NettyConfig nettyConfig) {
     _port = port;
     _queryScheduler = queryScheduler;
     _serverMetrics = serverMetrics;
     _tlsConfig = tlsConfig;
+    _nettyConfig = nettyConfig;
   }
 
   public void start() {
-    _bossGroup = new NioEventLoopGroup();
-    _workerGroup = new NioEventLoopGroup();
+    Class<? extends ServerChannel> channelClass;
+    if (_nettyConfig.isNativeTransportsEnabled() && Epoll.isAvailable()) {
+      _bossGroup = new EpollEventLoopGroup();
+      _workerGroup = new EpollEventLoopGroup();
+      channelClass = EpollServerSocketChannel.class;
+    } else {
+      if (_nettyConfig.isNativeTransportsEnabled()) {
+        LOGGER.warn("Native epoll transport is not available, falling back to NIO transport",
+            Epoll.unavailabilityCause());
+      }
+      _bossGroup = new NioEventLoopGroup();
+      _workerGroup = new NioEventLoopGroup();
+      channelClass = NioServerSocketChannel.class;
+    }
     try {
       ServerBootstrap serverBootstrap = new ServerBootstrap();
-      _channel = serverBootstrap.group(_bossGroup, _workerGroup).channel(NioServerSocketChannel.class)
+      _channel = serverBootstrap.group(_bossGroup, _workerGroup).channel(channelClass)
           .option(ChannelOption.SO_BACKLOG, 128).childOption(ChannelOption.SO_KEEPALIVE, true)
+          .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
           .childHandler(new ChannelInitializer<SocketChannel>() {
             @Override
             protected void initChannel(SocketChannel ch) {
@@ -90,6 +130,10 @@ public class QueryServer {
                 attachSSLHandler(ch);
               }
 
+              if (_nettyConfig.isFlushConsolidationEnabled()) {
+                // Coalesce the flushes of the responses sent from the query threads into a single gathering write
+                ch.pipeline().addLast(new FlushConsolidationHandler(_nettyConfig.getMaxFlushesToConsolidate(), true));
+              }
               ch.pipeline()
                   .addLast(new LengthFieldBasedFrameDecoder(Integer.MAX_VALUE, 0, Integer.BYTES, 0, Integer.BYTES),
                       new LengthFieldPrepender(Integer.BYTES),
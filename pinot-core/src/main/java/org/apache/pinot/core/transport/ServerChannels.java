@@ -19,19 +19,26 @@
 package org.apache.pinot.core.transport;
 
 import io.netty.bootstrap.Bootstrap;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.ssl.SslContextBuilder;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.metrics.BrokerGauge;
 import org.apache.pinot.common.metrics.BrokerMeter;
@@ -39,8 +46,10 @@ import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.metrics.BrokerTimer;
 import org.apache.pinot.common.request.InstanceRequest;
 import org.apache.pinot.core.util.TlsUtils;
-import org.apache.thrift.TSerializer;
 import org.apache.thrift.protocol.TCompactProtocol;
+import org.apache.thrift.transport.TIOStreamTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
@@ -50,11 +59,15 @@ import org.apache.thrift.protocol.TCompactProtocol;
  */
 @ThreadSafe
 public class ServerChannels {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ServerChannels.class);
+
   private final QueryRouter _queryRouter;
   private final BrokerMetrics _brokerMetrics;
   private final ConcurrentHashMap<ServerRoutingInstance, ServerChannel> _serverToChannelMap = new ConcurrentHashMap<>();
-  private final EventLoopGroup _eventLoopGroup = new NioEventLoopGroup();
+  private final EventLoopGroup _eventLoopGroup;
+  private final Class<? extends SocketChannel> _channelClass;
   private final TlsConfig _tlsConfig;
+  private final NettyConfig _nettyConfig;
 
   /**
    * Create an unsecured server channel
@@ -74,9 +87,34 @@ public class ServerChannels {
    * @param tlsConfig TLS/SSL config
    */
   public ServerChannels(QueryRouter queryRouter, BrokerMetrics brokerMetrics, TlsConfig tlsConfig) {
+    this(queryRouter, brokerMetrics, tlsConfig, new NettyConfig());
+  }
+
+  /**
+   * Create a server channel with TLS config (optional) and netty config
+   *
+   * @param queryRouter query router
+   * @param brokerMetrics broker metrics
+   * @param tlsConfig TLS/SSL config, null for unsecured channel
+   * @param nettyConfig netty transport config
+   */
+  public ServerChannels(QueryRouter queryRouter, BrokerMetrics brokerMetrics, @Nullable TlsConfig tlsConfig,
+      NettyConfig nettyConfig) {
     _queryRouter = queryRouter;
     _brokerMetrics = brokerMetrics;
     _tlsConfig = tlsConfig;
+    _nettyConfig = nettyConfig;
+    if (nettyConfig.isNativeTransportsEnabled() && Epoll.isAvailable()) {
+      _eventLoopGroup = new EpollEventLoopGroup();
+      _channelClass = EpollSocketChannel.class;
+    } else {
+      if (nettyConfig.isNativeTransportsEnabled()) {
+        LOGGER.warn("Native epoll transport is not available, falling back to NIO transport",
+            Epoll.unavailabilityCause());
+      }
+      _eventLoopGroup = new NioEventLoopGroup();
+      _channelClass = NioSocketChannel.class;
+    }
   }
 
   public void sendRequest(String rawTableName, AsyncQueryResponse asyncQueryResponse,
@@ -93,7 +131,6 @@ public class ServerChannels {
 
   @ThreadSafe
   private class ServerChannel {
-    final TSerializer _serializer = new TSerializer(new TCompactProtocol.Factory());
     final ServerRoutingInstance _serverRoutingInstance;
     final Bootstrap _bootstrap;
     Channel _channel;
@@ -101,7 +138,8 @@ public class ServerChannels {
     ServerChannel(ServerRoutingInstance serverRoutingInstance) {
       _serverRoutingInstance = serverRoutingInstance;
       _bootstrap = new Bootstrap().remoteAddress(serverRoutingInstance.getHostname(), serverRoutingInstance.getPort())
-          .group(_eventLoopGroup).channel(NioSocketChannel.class).option(ChannelOption.SO_KEEPALIVE, true)
+          .group(_eventLoopGroup).channel(_channelClass).option(ChannelOption.SO_KEEPALIVE, true)
+          .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
           .handler(new ChannelInitializer<SocketChannel>() {
             @Override
             protected void initChannel(SocketChannel ch) {
@@ -109,6 +147,10 @@ public class ServerChannels {
                 attachSSLHandler(ch);
               }
 
+              if (_nettyConfig.isFlushConsolidationEnabled()) {
+                // Coalesce the flushes of the concurrent requests sent to the server into a single gathering write
+                ch.pipeline().addLast(new FlushConsolidationHandler(_nettyConfig.getMaxFlushesToConsolidate(), true));
+              }
               ch.pipeline()
                   .addLast(new LengthFieldBasedFrameDecoder(Integer.MAX_VALUE, 0, Integer.BYTES, 0, Integer.BYTES),
                       new LengthFieldPrepender(Integer.BYTES),
@@ -147,16 +189,24 @@ public class ServerChannels {
         _brokerMetrics.setValueOfGlobalGauge(BrokerGauge.NETTY_CONNECTION_CONNECT_TIME_MS,
             System.currentTimeMillis() - startTime);
       }
-      byte[] requestBytes = _serializer.serialize(instanceRequest);
+      // Serialize the request directly into a pooled buffer (released after being written to the channel)
+      ByteBuf requestBuf = _channel.alloc().buffer();
+      try {
+        instanceRequest.write(new TCompactProtocol(new TIOStreamTransport(new ByteBufOutputStream(requestBuf))));
+      } catch (Exception e) {
+        requestBuf.release();
+        throw e;
+      }
+      int requestSize = requestBuf.readableBytes();
       long sendRequestStartTimeMs = System.currentTimeMillis();
-      _channel.writeAndFlush(Unpooled.wrappedBuffer(requestBytes)).addListener(f -> {
+      _channel.writeAndFlush(requestBuf).addListener(f -> {
         long requestSentLatencyMs = System.currentTimeMillis() - sendRequestStartTimeMs;
         _brokerMetrics.addTimedTableValue(rawTableName, BrokerTimer.NETTY_CONNECTION_SEND_REQUEST_LATENCY,
             requestSentLatencyMs, TimeUnit.MILLISECONDS);
         asyncQueryResponse.markRequestSent(serverRoutingInstance, requestSentLatencyMs);
       });
       _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_REQUESTS_SENT, 1);
-      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_BYTES_SENT, requestBytes.length);
+      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_BYTES_SENT, requestSize);
     }
   }
 }
@@ -23,10 +23,14 @@ import com.tdunning.math.stats.TDigest;
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
 import org.apache.commons.lang.RandomStringUtils;
+import org.apache.datasketches.theta.Sketch;
+import org.apache.datasketches.theta.UpdateSketch;
+import org.apache.datasketches.theta.UpdateSketchBuilder;
 import org.apache.pinot.core.query.aggregation.function.PercentileEstAggregationFunction;
 import org.apache.pinot.core.query.aggregation.function.PercentileTDigestAggregationFunction;
 import org.apache.pinot.segment.local.customobject.AvgPair;
@@ -35,6 +39,7 @@ import org.apache.pinot.segment.local.customobject.QuantileDigest;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 
 
 public class ObjectSerDeUtilsTest {
@@ -134,6 +139,84 @@ public class ObjectSerDeUtilsTest {
     }
   }
 
+  @Test
+  public void testHyperLogLogFromByteBuffer() {
+    for (int i = 0; i < NUM_ITERATIONS; i++) {
+      HyperLogLog expected = new HyperLogLog(12);
+      int size = RANDOM.nextInt(1000) + 1;
+      for (int j = 0; j < size; j++) {
+        expected.offer(RANDOM.nextInt());
+      }
+
+      ByteBuffer slice = toSlice(ObjectSerDeUtils.serialize(expected));
+      HyperLogLog actual = ObjectSerDeUtils.deserialize(slice, ObjectSerDeUtils.ObjectType.HyperLogLog);
+
+      assertEquals(actual.cardinality(), expected.cardinality(), ERROR_MESSAGE);
+      assertFalse(slice.hasRemaining(), ERROR_MESSAGE);
+    }
+  }
+
+  @Test
+  public void testDataSketchFromByteBuffer() {
+    for (int i = 0; i < NUM_ITERATIONS; i++) {
+      UpdateSketch updateSketch = new UpdateSketchBuilder().build();
+      int size = RANDOM.nextInt(10000) + 1;
+      for (int j = 0; j < size; j++) {
+        updateSketch.update(RANDOM.nextLong());
+      }
+      Sketch expected = updateSketch.compact();
+
+      ByteBuffer slice = toSlice(ObjectSerDeUtils.serialize(expected));
+      Sketch actual = ObjectSerDeUtils.deserialize(slice, ObjectSerDeUtils.ObjectType.DataSketch);
+
+      assertEquals(actual.getEstimate(), expected.getEstimate(), ERROR_MESSAGE);
+      assertEquals(actual.getRetainedEntries(), expected.getRetainedEntries(), ERROR_MESSAGE);
+    }
+  }
+
+  @Test
+  public void testDataSketchFromByteBufferWithOffset() {
+    for (int i = 0; i < NUM_ITERATIONS; i++) {
+      UpdateSketch updateSketch = new UpdateSketchBuilder().build();
+      int size = RANDOM.nextInt(10000) + 1;
+      for (int j = 0; j < size; j++) {
+        updateSketch.update(RANDOM.nextLong());
+      }
+      Sketch expected = updateSketch.compact();
+
+      // Put the bytes after some garbage bytes, followed by some more garbage bytes excluded by the limit
+      byte[] bytes = ObjectSerDeUtils.serialize(expected);
+      int offset = RANDOM.nextInt(10) + 1;
+      ByteBuffer byteBuffer = ByteBuffer.allocate(offset + bytes.length + RANDOM.nextInt(10) + 1);
+      RANDOM.nextBytes(byteBuffer.array());
+      byteBuffer.position(offset);
+      byteBuffer.put(bytes);
+      byteBuffer.flip();
+      byteBuffer.position(offset);
+      Sketch actual = ObjectSerDeUtils.deserialize(byteBuffer, ObjectSerDeUtils.ObjectType.DataSketch);
+
+      assertEquals(actual.getEstimate(), expected.getEstimate(), ERROR_MESSAGE);
+      assertEquals(actual.getRetainedEntries(), expected.getRetainedEntries(), ERROR_MESSAGE);
+      assertEquals(actual.toByteArray(), bytes, ERROR_MESSAGE);
+      assertFalse(byteBuffer.hasRemaining(), ERROR_MESSAGE);
+    }
+  }
+
+  /**
+   * Puts the bytes in the middle of a larger byte buffer (similar to the variable size data of the DataTable) and
+   * returns a slice of it.
+   */
+  private static ByteBuffer toSlice(byte[] bytes) {
+    int offset = RANDOM.nextInt(10) + 1;
+    ByteBuffer byteBuffer = ByteBuffer.allocate(offset + bytes.length + RANDOM.nextInt(10) + 1);
+    byteBuffer.position(offset);
+    byteBuffer.put(bytes);
+    byteBuffer.position(offset);
+    ByteBuffer slice = byteBuffer.slice();
+    slice.limit(bytes.length);
+    return slice;
+  }
+
   @Test
   public void testQuantileDigest() {
     for (int i = 0; i < NUM_ITERATIONS; i++) {
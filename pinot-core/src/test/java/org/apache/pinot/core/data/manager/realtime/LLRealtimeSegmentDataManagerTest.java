@@ -158,8 +158,12 @@ public class LLRealtimeSegmentDataManagerTest {
 
   private FakeLLRealtimeSegmentDataManager createFakeSegmentManager()
       throws Exception {
+    return createFakeSegmentManager(createTableConfig());
+  }
+
+  private FakeLLRealtimeSegmentDataManager createFakeSegmentManager(TableConfig tableConfig)
+      throws Exception {
     LLCRealtimeSegmentZKMetadata segmentZKMetadata = createZkMetadata();
-    TableConfig tableConfig = createTableConfig();
     InstanceZKMetadata instanceZKMetadata = new InstanceZKMetadata();
     RealtimeTableDataManager tableDataManager = createTableDataManager(tableConfig);
     String resourceDir = _segmentDir;
@@ -759,6 +763,51 @@ public class LLRealtimeSegmentDataManagerTest {
     Assert.assertEquals(secondSegmentDataManager.get().getPartitionGroupConsumerSemaphore().availablePermits(), 1);
   }
 
+  @Test
+  public void testPauselessCommitReleasesSemaphoreWhenHolding()
+      throws Exception {
+    TableConfig tableConfig = createTableConfig();
+    tableConfig.getIndexingConfig().getStreamConfigs()
+        .put(StreamConfigProperties.SEGMENT_PAUSELESS_COMMIT_ENABLED, "true");
+    FakeLLRealtimeSegmentDataManager segmentDataManager = createFakeSegmentManager(tableConfig);
+    Semaphore semaphore = segmentDataManager.getPartitionGroupConsumerSemaphore();
+    Assert.assertEquals(semaphore.availablePermits(), 0);
+    LLRealtimeSegmentDataManager.PartitionConsumer consumer = segmentDataManager.createPartitionConsumer();
+    final LongMsgOffset firstOffset = new LongMsgOffset(_startOffsetValue + 500);
+    final LongMsgOffset catchupOffset = new LongMsgOffset(firstOffset.getOffset() + 10);
+    segmentDataManager._consumeOffsets.add(firstOffset);
+    segmentDataManager._consumeOffsets.add(catchupOffset);
+    // Non-committer replica: asked to catch up to the committed offset, then to hold while the committer commits
+    segmentDataManager._responses.add(new SegmentCompletionProtocol.Response(
+        new SegmentCompletionProtocol.Response.Params()
+            .withStatus(SegmentCompletionProtocol.ControllerResponseStatus.CATCH_UP)
+            .withStreamPartitionMsgOffset(catchupOffset.toString())));
+    segmentDataManager._responses.add(new SegmentCompletionProtocol.Response(
+        new SegmentCompletionProtocol.Response.Params()
+            .withStatus(SegmentCompletionProtocol.ControllerResponseStatus.HOLD)
+            .withStreamPartitionMsgOffset(catchupOffset.toString())));
+
+    consumer.run();
+
+    Assert.assertTrue(segmentDataManager._responses.isEmpty());
+    Assert.assertTrue(segmentDataManager._consumeOffsets.isEmpty());
+    Assert.assertFalse(segmentDataManager._buildSegmentCalled);
+    Assert.assertEquals(segmentDataManager._state.get(segmentDataManager), LLRealtimeSegmentDataManager.State.HOLDING);
+    Assert.assertFalse(segmentDataManager.getAcquiredConsumerSemaphore().get());
+    Assert.assertEquals(semaphore.availablePermits(), 1);
+
+    // The next segment of the partition group should be able to start consuming before this segment is committed
+    FakeLLRealtimeSegmentDataManager nextSegmentDataManager = createFakeSegmentManager(tableConfig);
+    Assert.assertTrue(nextSegmentDataManager.getAcquiredConsumerSemaphore().get());
+    Assert.assertEquals(semaphore.availablePermits(), 0);
+
+    // Destroying the holding segment should not release the semaphore again
+    segmentDataManager.destroy();
+    Assert.assertEquals(semaphore.availablePermits(), 0);
+    nextSegmentDataManager.destroy();
+    Assert.assertEquals(semaphore.availablePermits(), 1);
+  }
+
   @Test
   public void testShutdownTableDataManagerWillNotShutdownLeaseExtenderExecutor()
       throws Exception {
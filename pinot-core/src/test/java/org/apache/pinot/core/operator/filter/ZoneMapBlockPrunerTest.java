@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.request.context.predicate.EqPredicate;
+import org.apache.pinot.common.request.context.predicate.InPredicate;
+import org.apache.pinot.common.request.context.predicate.NotEqPredicate;
+import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.common.request.context.predicate.RangePredicate;
+import org.apache.pinot.core.operator.dociditerators.SVScanDocIdIterator;
+import org.apache.pinot.core.operator.docidsets.SVScanDocIdSet;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import org.apache.pinot.segment.local.realtime.impl.zonemap.MutableZoneMap;
+import org.apache.pinot.segment.spi.Constants;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class ZoneMapBlockPrunerTest {
+  private static final ExpressionContext COLUMN_EXPRESSION = ExpressionContext.forIdentifier("column");
+  private static final int NUM_DOCS = 1000;
+  private static final int NUM_DOCS_PER_BLOCK = 64;
+
+  // Value of each doc is the same as the doc id, so block i contains values [64 * i, 64 * i + 63]
+  private final MutableZoneMap _zoneMap = createZoneMap();
+  private final ForwardIndexReader<?> _forwardIndex = createForwardIndex();
+
+  @Test
+  public void testCandidateBlocks() {
+    assertEquals(getCandidateBlocks(new EqPredicate(COLUMN_EXPRESSION, "100")), BitSet.valueOf(new long[]{0b10}));
+    assertEquals(getCandidateBlocks(new InPredicate(COLUMN_EXPRESSION, Arrays.asList("999", "5", "2000"))),
+        BitSet.valueOf(new long[]{1 | 1 << 15}));
+    assertEquals(getCandidateBlocks(new RangePredicate(COLUMN_EXPRESSION, false, "200", true, "300")),
+        BitSet.valueOf(new long[]{0b11000}));
+    // Exclusive bounds on the block boundaries
+    assertEquals(getCandidateBlocks(new RangePredicate(COLUMN_EXPRESSION, false, "127", false, "256")),
+        BitSet.valueOf(new long[]{0b1100}));
+    assertEquals(
+        getCandidateBlocks(new RangePredicate(COLUMN_EXPRESSION, true, RangePredicate.UNBOUNDED, false, "64")),
+        BitSet.valueOf(new long[]{0b1}));
+
+    // No matching block
+    BitSet candidateBlocks = getCandidateBlocks(new EqPredicate(COLUMN_EXPRESSION, "5000"));
+    assertNotNull(candidateBlocks);
+    assertTrue(candidateBlocks.isEmpty());
+
+    // All blocks match
+    assertNull(getCandidateBlocks(new RangePredicate(COLUMN_EXPRESSION, true, "0", true, RangePredicate.UNBOUNDED)));
+
+    // Unsupported predicate and invalid value
+    assertNull(getCandidateBlocks(new NotEqPredicate(COLUMN_EXPRESSION, "100")));
+    assertNull(getCandidateBlocks(new RangePredicate(COLUMN_EXPRESSION, true, "0", true, "abc")));
+  }
+
+  @Test
+  public void testInBlockMatcher() {
+    // Values on the block boundaries, unsorted with duplicates
+    assertEquals(getCandidateBlocks(new InPredicate(COLUMN_EXPRESSION, Arrays.asList("128", "63", "64", "63"))),
+        BitSet.valueOf(new long[]{0b111}));
+    // Values out of the range of all the blocks are ignored
+    assertEquals(getCandidateBlocks(new InPredicate(COLUMN_EXPRESSION, Arrays.asList("-1", "1000", "500"))),
+        BitSet.valueOf(new long[]{1 << 7}));
+
+    // No matching block
+    BitSet candidateBlocks = getCandidateBlocks(new InPredicate(COLUMN_EXPRESSION, Arrays.asList("-5", "1000")));
+    assertNotNull(candidateBlocks);
+    assertTrue(candidateBlocks.isEmpty());
+
+    // All blocks match
+    List<String> values = new ArrayList<>();
+    for (int i = 0; i < NUM_DOCS; i += NUM_DOCS_PER_BLOCK) {
+      values.add(Integer.toString(i));
+    }
+    assertNull(getCandidateBlocks(new InPredicate(COLUMN_EXPRESSION, values)));
+
+    // Invalid value
+    assertNull(getCandidateBlocks(new InPredicate(COLUMN_EXPRESSION, Arrays.asList("5", "abc"))));
+  }
+
+  @Test
+  public void testScanWithCandidateBlocks() {
+    RangePredicate predicate = new RangePredicate(COLUMN_EXPRESSION, false, "200", true, "300");
+    SVScanDocIdIterator docIdIterator = getDocIdIterator(predicate);
+    List<Integer> docIds = new ArrayList<>();
+    int docId;
+    while ((docId = docIdIterator.next()) != Constants.EOF) {
+      docIds.add(docId);
+    }
+    assertEquals(docIds.size(), 100);
+    assertEquals((int) docIds.get(0), 201);
+    assertEquals((int) docIds.get(99), 300);
+    // Only the docs within the candidate blocks are scanned
+    assertEquals(docIdIterator.getNumEntriesScanned(), 2 * NUM_DOCS_PER_BLOCK);
+
+    docIdIterator = getDocIdIterator(new InPredicate(COLUMN_EXPRESSION, Arrays.asList("5", "999")));
+    assertEquals(docIdIterator.advance(3), 5);
+    assertEquals(docIdIterator.advance(6), 999);
+    assertEquals(docIdIterator.next(), Constants.EOF);
+    // Scanned [3, 64) and [960, 1000)
+    assertEquals(docIdIterator.getNumEntriesScanned(), 61 + 40);
+
+    docIdIterator = getDocIdIterator(new EqPredicate(COLUMN_EXPRESSION, "100"));
+    MutableRoaringBitmap result = docIdIterator.applyAnd(MutableRoaringBitmap.bitmapOf(5, 100, 101, 500));
+    assertEquals(result, MutableRoaringBitmap.bitmapOf(100));
+    assertEquals(docIdIterator.getNumEntriesScanned(), 2);
+  }
+
+  private BitSet getCandidateBlocks(Predicate predicate) {
+    return ZoneMapBlockPruner.getCandidateBlocks(predicate, DataType.INT, _zoneMap, NUM_DOCS);
+  }
+
+  private SVScanDocIdIterator getDocIdIterator(Predicate predicate) {
+    BitSet candidateBlocks = getCandidateBlocks(predicate);
+    assertNotNull(candidateBlocks);
+    return new SVScanDocIdSet(PredicateEvaluatorProvider.getPredicateEvaluator(predicate, null, DataType.INT),
+        _forwardIndex, NUM_DOCS, candidateBlocks, NUM_DOCS_PER_BLOCK).iterator();
+  }
+
+  private static MutableZoneMap createZoneMap() {
+    MutableZoneMap zoneMap = new MutableZoneMap(NUM_DOCS, NUM_DOCS_PER_BLOCK);
+    for (int i = 0; i < NUM_DOCS; i++) {
+      zoneMap.add(i, i, false);
+    }
+    return zoneMap;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ForwardIndexReader<?> createForwardIndex() {
+    ForwardIndexReader forwardIndex = mock(ForwardIndexReader.class);
+    when(forwardIndex.isDictionaryEncoded()).thenReturn(false);
+    when(forwardIndex.getValueType()).thenReturn(DataType.INT);
+    when(forwardIndex.getInt(anyInt(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+    return forwardIndex;
+  }
+}
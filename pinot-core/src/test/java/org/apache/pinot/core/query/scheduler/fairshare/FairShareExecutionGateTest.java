@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.scheduler.fairshare;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.pinot.util.TestUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+
+public class FairShareExecutionGateTest {
+  private static final long TIMEOUT_MS = 10_000L;
+
+  private final ExecutorService _executorService = Executors.newCachedThreadPool();
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdownNow();
+  }
+
+  @Test
+  public void testYieldToLighterGroup()
+      throws Exception {
+    FairShareExecutionGate gate = new FairShareExecutionGate(1);
+    FairShareSchedulerGroup heavyGroup = new FairShareSchedulerGroup("heavy", 1.0, Long.MAX_VALUE);
+    FairShareSchedulerGroup lightGroup = new FairShareSchedulerGroup("light", 1.0, Long.MAX_VALUE);
+    heavyGroup.charge(1_000_000);
+
+    gate.acquire(heavyGroup);
+    // No waiter, nothing to yield to
+    assertFalse(gate.yield(heavyGroup));
+
+    CountDownLatch lightAcquired = new CountDownLatch(1);
+    CountDownLatch lightRelease = new CountDownLatch(1);
+    Future<?> lightFuture = _executorService.submit(() -> {
+      gate.acquire(lightGroup);
+      lightAcquired.countDown();
+      lightRelease.await();
+      gate.release();
+      return null;
+    });
+    TestUtils.waitForCondition(aVoid -> gate.getNumWaiters() == 1, TIMEOUT_MS, "Failed to park the light group");
+    assertFalse(lightAcquired.await(100, TimeUnit.MILLISECONDS));
+
+    // Heavy group yields the slot to the light group, and gets it back after the light group releases it
+    Future<Boolean> yieldFuture = _executorService.submit(() -> gate.yield(heavyGroup));
+    assertTrue(lightAcquired.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    try {
+      yieldFuture.get(100, TimeUnit.MILLISECONDS);
+      fail("Heavy group should not get the slot while the light group is holding it");
+    } catch (TimeoutException e) {
+      // Expected
+    }
+    lightRelease.countDown();
+    lightFuture.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    assertTrue(yieldFuture.get(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testNotYieldToHeavierGroup()
+      throws Exception {
+    FairShareExecutionGate gate = new FairShareExecutionGate(1);
+    FairShareSchedulerGroup heavyGroup = new FairShareSchedulerGroup("heavy", 1.0, Long.MAX_VALUE);
+    FairShareSchedulerGroup lightGroup = new FairShareSchedulerGroup("light", 1.0, Long.MAX_VALUE);
+    heavyGroup.charge(1_000_000);
+
+    gate.acquire(lightGroup);
+    Future<?> heavyFuture = _executorService.submit(() -> {
+      gate.acquire(heavyGroup);
+      gate.release();
+      return null;
+    });
+    TestUtils.waitForCondition(aVoid -> gate.getNumWaiters() == 1, TIMEOUT_MS, "Failed to park the heavy group");
+    assertFalse(gate.yield(lightGroup));
+    gate.release();
+    heavyFuture.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+  }
+
+  @Test
+  public void testResumeInFairOrder()
+      throws Exception {
+    FairShareExecutionGate gate = new FairShareExecutionGate(1);
+    FairShareSchedulerGroup firstGroup = new FairShareSchedulerGroup("first", 1.0, Long.MAX_VALUE);
+    FairShareSchedulerGroup secondGroup = new FairShareSchedulerGroup("second", 1.0, Long.MAX_VALUE);
+    FairShareSchedulerGroup thirdGroup = new FairShareSchedulerGroup("third", 1.0, Long.MAX_VALUE);
+    firstGroup.charge(1000);
+    secondGroup.charge(2000);
+    thirdGroup.charge(3000);
+
+    gate.acquire(thirdGroup);
+    StringBuffer order = new StringBuffer();
+    Future<?> secondFuture = _executorService.submit(() -> {
+      gate.acquire(secondGroup);
+      order.append("second,");
+      gate.release();
+      return null;
+    });
+    TestUtils.waitForCondition(aVoid -> gate.getNumWaiters() == 1, TIMEOUT_MS, "Failed to park the second group");
+    Future<?> firstFuture = _executorService.submit(() -> {
+      gate.acquire(firstGroup);
+      order.append("first,");
+      gate.release();
+      return null;
+    });
+    TestUtils.waitForCondition(aVoid -> gate.getNumWaiters() == 2, TIMEOUT_MS, "Failed to park the first group");
+    gate.release();
+    firstFuture.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    secondFuture.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    assertEquals(order.toString(), "first,second,");
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.scheduler.fairshare;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class FairShareSchedulerGroupTest {
+  private static final long DECAY_PERIOD_MS = 100;
+
+  long timeMillis = 1000;
+
+  class TestFairShareSchedulerGroup extends FairShareSchedulerGroup {
+    TestFairShareSchedulerGroup(String name, double weight) {
+      super(name, weight, DECAY_PERIOD_MS);
+    }
+
+    @Override
+    protected long currentTimeMillis() {
+      return timeMillis;
+    }
+  }
+
+  @Test
+  public void testVirtualRuntime() {
+    timeMillis = 1000;
+    TestFairShareSchedulerGroup group = new TestFairShareSchedulerGroup("group", 2.0);
+    assertEquals(group.getVirtualRuntimeNs(), 0.0);
+    group.charge(1000);
+    group.charge(3000);
+    assertEquals(group.getVirtualRuntimeNs(), 2000.0);
+
+    // Less than a decay period, no decay
+    timeMillis += DECAY_PERIOD_MS - 1;
+    assertEquals(group.getVirtualRuntimeNs(), 2000.0);
+    // Decay once
+    timeMillis += 1;
+    assertEquals(group.getVirtualRuntimeNs(), 2000.0 * FairShareSchedulerGroup.DECAY_FACTOR);
+    // Decay for multiple periods at once
+    timeMillis += 2 * DECAY_PERIOD_MS + DECAY_PERIOD_MS / 2;
+    double expected = 2000.0 * Math.pow(FairShareSchedulerGroup.DECAY_FACTOR, 3);
+    assertEquals(group.getVirtualRuntimeNs(), expected);
+    // The partial period should be carried over
+    timeMillis += DECAY_PERIOD_MS / 2;
+    assertEquals(group.getVirtualRuntimeNs(), expected * FairShareSchedulerGroup.DECAY_FACTOR);
+  }
+
+  @Test
+  public void testCompare() {
+    timeMillis = 1000;
+    TestFairShareSchedulerGroup lhs = new TestFairShareSchedulerGroup("lhs", 1.0);
+    TestFairShareSchedulerGroup rhs = new TestFairShareSchedulerGroup("rhs", 4.0);
+    assertEquals(lhs.compareTo(rhs), 0);
+    assertTrue(lhs.compareTo(null) > 0);
+
+    // Lower virtual runtime has higher priority
+    lhs.charge(1000);
+    assertTrue(lhs.compareTo(rhs) < 0);
+    assertTrue(rhs.compareTo(lhs) > 0);
+
+    // Weight normalizes the charged CPU time
+    rhs.charge(3000);
+    assertTrue(lhs.compareTo(rhs) > 0);
+    rhs.charge(1000);
+    assertEquals(lhs.compareTo(rhs), 0);
+    rhs.charge(1000);
+    assertTrue(lhs.compareTo(rhs) > 0);
+  }
+}
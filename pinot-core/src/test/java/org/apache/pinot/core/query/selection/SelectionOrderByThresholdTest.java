@@ -0,0 +1,319 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.selection;
+
+import java.util.Arrays;
+import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.operator.DocIdSetOperator.DocIdSkipper;
+import org.apache.pinot.core.operator.transform.TransformResultMetadata;
+import org.apache.pinot.segment.spi.Constants;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.SortedIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.Pairs;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+
+public class SelectionOrderByThresholdTest {
+  private static final int[] INT_VALUES = new int[]{5, 1, 9, 3, 7, 3};
+
+  @Test
+  public void testCreate() {
+    assertNull(SelectionOrderByThreshold.create(true, new TransformResultMetadata(DataType.INT, false, false), null));
+    assertNull(
+        SelectionOrderByThreshold.create(true, new TransformResultMetadata(DataType.STRING, true, false), null));
+    assertNotNull(
+        SelectionOrderByThreshold.create(true, new TransformResultMetadata(DataType.TIMESTAMP, true, false), null));
+
+    // Dictionary id based threshold should only be used for sorted dictionary
+    Dictionary dictionary = mock(Dictionary.class);
+    when(dictionary.isSorted()).thenReturn(false);
+    assertNull(
+        SelectionOrderByThreshold.create(true, new TransformResultMetadata(DataType.STRING, true, true), dictionary));
+    when(dictionary.isSorted()).thenReturn(true);
+    assertNotNull(
+        SelectionOrderByThreshold.create(true, new TransformResultMetadata(DataType.STRING, true, true), dictionary));
+  }
+
+  @Test
+  public void testIntThreshold() {
+    BlockValSet blockValSet = mock(BlockValSet.class);
+    when(blockValSet.getIntValuesSV()).thenReturn(INT_VALUES);
+    int numRows = INT_VALUES.length;
+
+    // Ascending
+    SelectionOrderByThreshold threshold =
+        SelectionOrderByThreshold.create(true, new TransformResultMetadata(DataType.INT, true, false), null);
+    assertNotNull(threshold);
+    // No threshold yet, all rows should be returned
+    assertEquals(getCandidateRows(threshold, blockValSet, numRows), new int[]{0, 1, 2, 3, 4, 5});
+    threshold.update(5);
+    assertEquals(getCandidateRows(threshold, blockValSet, numRows), new int[]{0, 1, 3, 5});
+    // Threshold should not be loosened
+    threshold.update(7);
+    assertEquals(getCandidateRows(threshold, blockValSet, numRows), new int[]{0, 1, 3, 5});
+    threshold.update(3);
+    assertEquals(getCandidateRows(threshold, blockValSet, numRows), new int[]{1, 3, 5});
+
+    // Descending
+    threshold = SelectionOrderByThreshold.create(false, new TransformResultMetadata(DataType.INT, true, false), null);
+    assertNotNull(threshold);
+    threshold.update(5);
+    assertEquals(getCandidateRows(threshold, blockValSet, numRows), new int[]{0, 2, 4});
+    threshold.update(3);
+    assertEquals(getCandidateRows(threshold, blockValSet, numRows), new int[]{0, 2, 4});
+    threshold.update(9);
+    assertEquals(getCandidateRows(threshold, blockValSet, numRows), new int[]{2});
+  }
+
+  @Test
+  public void testLongThreshold() {
+    BlockValSet blockValSet = mock(BlockValSet.class);
+    long[] values = new long[]{1_600_000_000_000L, 1_600_000_000_500L, 1_600_000_001_000L, 1_599_999_999_000L};
+    when(blockValSet.getLongValuesSV()).thenReturn(values);
+
+    // ORDER BY ts DESC
+    SelectionOrderByThreshold threshold =
+        SelectionOrderByThreshold.create(false, new TransformResultMetadata(DataType.TIMESTAMP, true, false), null);
+    assertNotNull(threshold);
+    threshold.update(1_600_000_000_500L);
+    assertEquals(getCandidateRows(threshold, blockValSet, values.length), new int[]{1, 2});
+  }
+
+  @Test
+  public void testDoubleThreshold() {
+    BlockValSet blockValSet = mock(BlockValSet.class);
+    double[] values = new double[]{1.5, Double.NaN, -0.0, 0.0, -2.5};
+    when(blockValSet.getDoubleValuesSV()).thenReturn(values);
+
+    // Should follow the same ordering as Double.compareTo()
+    SelectionOrderByThreshold threshold =
+        SelectionOrderByThreshold.create(true, new TransformResultMetadata(DataType.DOUBLE, true, false), null);
+    assertNotNull(threshold);
+    threshold.update(-0.0);
+    assertEquals(getCandidateRows(threshold, blockValSet, values.length), new int[]{2, 4});
+
+    threshold =
+        SelectionOrderByThreshold.create(false, new TransformResultMetadata(DataType.DOUBLE, true, false), null);
+    assertNotNull(threshold);
+    threshold.update(1.5);
+    assertEquals(getCandidateRows(threshold, blockValSet, values.length), new int[]{0, 1});
+  }
+
+  @Test
+  public void testDictIdThreshold() {
+    // Sorted dictionary: [b, d, f, h]
+    String[] dictValues = new String[]{"b", "d", "f", "h"};
+    Dictionary dictionary = mock(Dictionary.class);
+    when(dictionary.isSorted()).thenReturn(true);
+    when(dictionary.getValueType()).thenReturn(DataType.STRING);
+    when(dictionary.insertionIndexOf(anyString())).thenAnswer(
+        invocation -> Arrays.binarySearch(dictValues, (String) invocation.getArgument(0)));
+    BlockValSet blockValSet = mock(BlockValSet.class);
+    int[] dictIds = new int[]{3, 0, 2, 1, 2};
+    when(blockValSet.getDictionaryIdsSV()).thenReturn(dictIds);
+    TransformResultMetadata expressionMetadata = new TransformResultMetadata(DataType.STRING, true, true);
+
+    // Ascending
+    SelectionOrderByThreshold threshold = SelectionOrderByThreshold.create(true, expressionMetadata, dictionary);
+    assertNotNull(threshold);
+    threshold.update("f");
+    assertEquals(getCandidateRows(threshold, blockValSet, dictIds.length), new int[]{1, 2, 3, 4});
+    // Value not in the dictionary (from another segment): "e" is between "d" and "f"
+    threshold.update("e");
+    assertEquals(getCandidateRows(threshold, blockValSet, dictIds.length), new int[]{1, 3});
+    // Value smaller than all the values in the dictionary
+    threshold.update("a");
+    assertEquals(getCandidateRows(threshold, blockValSet, dictIds.length), new int[0]);
+
+    // Descending
+    threshold = SelectionOrderByThreshold.create(false, expressionMetadata, dictionary);
+    assertNotNull(threshold);
+    threshold.update("d");
+    assertEquals(getCandidateRows(threshold, blockValSet, dictIds.length), new int[]{0, 2, 3, 4});
+    threshold.update("g");
+    assertEquals(getCandidateRows(threshold, blockValSet, dictIds.length), new int[]{0});
+    // Value larger than all the values in the dictionary
+    threshold.update("i");
+    assertEquals(getCandidateRows(threshold, blockValSet, dictIds.length), new int[0]);
+  }
+
+  @Test
+  public void testDictIdThresholdTypedLookup() {
+    // Sorted dictionary: [-10, 2, 30, 400], looked up with the typed value instead of the string representation (where
+    // "400" < "-10" < "2" < "30")
+    int[] dictValues = new int[]{-10, 2, 30, 400};
+    Dictionary dictionary = mock(Dictionary.class);
+    when(dictionary.isSorted()).thenReturn(true);
+    when(dictionary.getValueType()).thenReturn(DataType.INT);
+    when(dictionary.length()).thenReturn(dictValues.length);
+    when(dictionary.getIntValue(anyInt())).thenAnswer(invocation -> dictValues[(int) invocation.getArgument(0)]);
+    BlockValSet blockValSet = mock(BlockValSet.class);
+    int[] dictIds = new int[]{3, 0, 2, 1, 2};
+    when(blockValSet.getDictionaryIdsSV()).thenReturn(dictIds);
+    TransformResultMetadata expressionMetadata = new TransformResultMetadata(DataType.INT, true, true);
+
+    // Ascending
+    SelectionOrderByThreshold threshold = SelectionOrderByThreshold.create(true, expressionMetadata, dictionary);
+    assertNotNull(threshold);
+    threshold.update(30);
+    assertEquals(getCandidateRows(threshold, blockValSet, dictIds.length), new int[]{1, 2, 3, 4});
+    // Value not in the dictionary (from another segment): 5 is between 2 and 30
+    threshold.update(5);
+    assertEquals(getCandidateRows(threshold, blockValSet, dictIds.length), new int[]{1, 3});
+    threshold.update(-20);
+    assertEquals(getCandidateRows(threshold, blockValSet, dictIds.length), new int[0]);
+
+    // Descending
+    threshold = SelectionOrderByThreshold.create(false, expressionMetadata, dictionary);
+    assertNotNull(threshold);
+    threshold.update(2);
+    assertEquals(getCandidateRows(threshold, blockValSet, dictIds.length), new int[]{0, 2, 3, 4});
+    threshold.update(100);
+    assertEquals(getCandidateRows(threshold, blockValSet, dictIds.length), new int[]{0});
+    threshold.update(500);
+    assertEquals(getCandidateRows(threshold, blockValSet, dictIds.length), new int[0]);
+  }
+
+  @Test
+  public void testSortedColumnDocIdSkipper() {
+    // Sorted column with dictionary [b, d, f, h], docs: [0, 2] -> b, [3, 4] -> d, [5, 8] -> f, [9, 9] -> h
+    String[] dictValues = new String[]{"b", "d", "f", "h"};
+    Pairs.IntPair[] docIdRanges = new Pairs.IntPair[]{
+        new Pairs.IntPair(0, 2), new Pairs.IntPair(3, 4), new Pairs.IntPair(5, 8), new Pairs.IntPair(9, 9)
+    };
+    Dictionary dictionary = mock(Dictionary.class);
+    when(dictionary.isSorted()).thenReturn(true);
+    when(dictionary.getValueType()).thenReturn(DataType.STRING);
+    when(dictionary.length()).thenReturn(dictValues.length);
+    when(dictionary.insertionIndexOf(anyString())).thenAnswer(
+        invocation -> Arrays.binarySearch(dictValues, (String) invocation.getArgument(0)));
+    SortedIndexReader<?> sortedIndexReader = mock(SortedIndexReader.class);
+    when(sortedIndexReader.getDocIds(anyInt())).thenAnswer(
+        invocation -> docIdRanges[(int) invocation.getArgument(0)]);
+    TransformResultMetadata expressionMetadata = new TransformResultMetadata(DataType.STRING, true, true);
+
+    // Non-dictionary based threshold does not support skipping
+    SelectionOrderByThreshold intThreshold =
+        SelectionOrderByThreshold.create(true, new TransformResultMetadata(DataType.INT, true, false), null);
+    assertNotNull(intThreshold);
+    assertNull(intThreshold.getSortedColumnDocIdSkipper(sortedIndexReader));
+
+    // Ascending: skip all the documents after the threshold range
+    SelectionOrderByThreshold threshold = SelectionOrderByThreshold.create(true, expressionMetadata, dictionary);
+    assertNotNull(threshold);
+    DocIdSkipper docIdSkipper = threshold.getSortedColumnDocIdSkipper(sortedIndexReader);
+    assertNotNull(docIdSkipper);
+    // No threshold yet
+    assertEquals(docIdSkipper.getNextCandidateDocId(9), 9);
+    threshold.update("d");
+    assertEquals(docIdSkipper.getNextCandidateDocId(1), 1);
+    assertEquals(docIdSkipper.getNextCandidateDocId(4), 4);
+    assertEquals(docIdSkipper.getNextCandidateDocId(5), Constants.EOF);
+    threshold.update("a");
+    assertEquals(docIdSkipper.getNextCandidateDocId(0), Constants.EOF);
+
+    // Descending: skip all the documents before the threshold range
+    threshold = SelectionOrderByThreshold.create(false, expressionMetadata, dictionary);
+    assertNotNull(threshold);
+    docIdSkipper = threshold.getSortedColumnDocIdSkipper(sortedIndexReader);
+    assertNotNull(docIdSkipper);
+    threshold.update("e");
+    assertEquals(docIdSkipper.getNextCandidateDocId(0), 5);
+    assertEquals(docIdSkipper.getNextCandidateDocId(7), 7);
+    threshold.update("h");
+    assertEquals(docIdSkipper.getNextCandidateDocId(7), 9);
+    threshold.update("i");
+    assertEquals(docIdSkipper.getNextCandidateDocId(9), Constants.EOF);
+  }
+
+  @Test
+  public void testZoneMapDocIdSkipper() {
+    // 5 blocks of 10 docs (46 docs in total) with min/max: [0, 9], [20, 29], [5, 15], [30, 39], [1, 2]
+    int[] minValues = new int[]{0, 20, 5, 30, 1};
+    int[] maxValues = new int[]{9, 29, 15, 39, 2};
+    ZoneMapReader zoneMap = mock(ZoneMapReader.class);
+    when(zoneMap.getNumDocsPerBlock()).thenReturn(10);
+    when(zoneMap.getNumBlocks()).thenReturn(minValues.length);
+    when(zoneMap.getMinValue(anyInt())).thenAnswer(invocation -> minValues[(int) invocation.getArgument(0)]);
+    when(zoneMap.getMaxValue(anyInt())).thenAnswer(invocation -> maxValues[(int) invocation.getArgument(0)]);
+    TransformResultMetadata expressionMetadata = new TransformResultMetadata(DataType.INT, true, false);
+
+    // Ascending: skip the blocks with min value larger than the threshold
+    SelectionOrderByThreshold threshold = SelectionOrderByThreshold.create(true, expressionMetadata, null);
+    assertNotNull(threshold);
+    DocIdSkipper docIdSkipper = threshold.getZoneMapDocIdSkipper(zoneMap, 46);
+    // No threshold yet
+    assertEquals(docIdSkipper.getNextCandidateDocId(15), 15);
+    threshold.update(5);
+    assertEquals(docIdSkipper.getNextCandidateDocId(3), 3);
+    assertEquals(docIdSkipper.getNextCandidateDocId(10), 20);
+    assertEquals(docIdSkipper.getNextCandidateDocId(21), 21);
+    assertEquals(docIdSkipper.getNextCandidateDocId(30), 40);
+    threshold.update(0);
+    assertEquals(docIdSkipper.getNextCandidateDocId(10), Constants.EOF);
+
+    // Descending: skip the blocks with max value smaller than the threshold
+    threshold = SelectionOrderByThreshold.create(false, expressionMetadata, null);
+    assertNotNull(threshold);
+    docIdSkipper = threshold.getZoneMapDocIdSkipper(zoneMap, 46);
+    threshold.update(20);
+    assertEquals(docIdSkipper.getNextCandidateDocId(0), 10);
+    assertEquals(docIdSkipper.getNextCandidateDocId(20), 30);
+    assertEquals(docIdSkipper.getNextCandidateDocId(40), Constants.EOF);
+  }
+
+  @Test
+  public void testSharedThreshold() {
+    SharedSelectionOrderByThreshold sharedThreshold = new SharedSelectionOrderByThreshold(true);
+    assertNull(sharedThreshold.get());
+    sharedThreshold.update(5L);
+    assertEquals(sharedThreshold.get(), 5L);
+    // Only tightened
+    sharedThreshold.update(7L);
+    assertEquals(sharedThreshold.get(), 5L);
+    sharedThreshold.update(3L);
+    assertEquals(sharedThreshold.get(), 3L);
+    // Values of a different type are ignored
+    sharedThreshold.update(1);
+    assertEquals(sharedThreshold.get(), 3L);
+
+    sharedThreshold = new SharedSelectionOrderByThreshold(false);
+    sharedThreshold.update("b");
+    sharedThreshold.update("a");
+    assertEquals(sharedThreshold.get(), "b");
+    sharedThreshold.update("c");
+    assertEquals(sharedThreshold.get(), "c");
+  }
+
+  private static int[] getCandidateRows(SelectionOrderByThreshold threshold, BlockValSet blockValSet, int numRows) {
+    int[] candidateRows = new int[numRows];
+    int numCandidateRows = threshold.getCandidateRows(blockValSet, numRows, candidateRows);
+    return Arrays.copyOf(candidateRows, numCandidateRows);
+  }
+}
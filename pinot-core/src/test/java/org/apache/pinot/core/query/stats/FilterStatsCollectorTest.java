@@ -0,0 +1,168 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.stats;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.common.restlet.resources.ColumnFilterStats;
+import org.apache.pinot.common.restlet.resources.TableFilterStats;
+import org.apache.pinot.core.operator.filter.EmptyFilterOperator;
+import org.apache.pinot.core.operator.filter.MatchAllFilterOperator;
+import org.apache.pinot.core.plan.FilterPlanNode;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.query.stats.FilterStatsCollector.AccessPath;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests for {@link FilterStatsCollector}, including the filters recorded by the {@link FilterPlanNode}.
+ */
+public class FilterStatsCollectorTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "FilterStatsCollectorTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String TABLE_NAME = "testTable_OFFLINE";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_RECORDS = 100;
+
+  private static final String SORTED_COLUMN = "sortedColumn";
+  private static final String INVERTED_INDEX_COLUMN = "invertedIndexColumn";
+  private static final String SCAN_COLUMN = "scanColumn";
+  private static final TableConfig TABLE_CONFIG = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+      .setInvertedIndexColumns(Collections.singletonList(INVERTED_INDEX_COLUMN)).build();
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+      .addSingleValueDimension(SORTED_COLUMN, DataType.INT)
+      .addSingleValueDimension(INVERTED_INDEX_COLUMN, DataType.STRING)
+      .addSingleValueDimension(SCAN_COLUMN, DataType.LONG).build();
+
+  private ImmutableSegment _indexSegment;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+    List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      GenericRow record = new GenericRow();
+      record.putValue(SORTED_COLUMN, i);
+      record.putValue(INVERTED_INDEX_COLUMN, "value_" + i % 10);
+      record.putValue(SCAN_COLUMN, (long) (i % 7));
+      records.add(record);
+    }
+
+    TABLE_CONFIG.getIndexingConfig().setCreateInvertedIndexDuringSegmentGeneration(true);
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(TABLE_CONFIG, SCHEMA);
+    segmentGeneratorConfig.setSegmentName(SEGMENT_NAME);
+    segmentGeneratorConfig.setOutDir(TEMP_DIR.getPath());
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+    driver.build();
+
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setInvertedIndexColumns(Collections.singleton(INVERTED_INDEX_COLUMN));
+    _indexSegment = ImmutableSegmentLoader.load(new File(TEMP_DIR, SEGMENT_NAME), indexLoadingConfig);
+  }
+
+  @BeforeMethod
+  public void resetStats() {
+    FilterStatsCollector.getInstance().reset(TABLE_NAME);
+  }
+
+  @Test
+  public void testRecordFilter() {
+    FilterStatsCollector collector = new FilterStatsCollector();
+    collector.recordFilter(TABLE_NAME, SCAN_COLUMN, Predicate.Type.EQ, EmptyFilterOperator.getInstance(), NUM_RECORDS);
+    collector.recordFilter(TABLE_NAME, SCAN_COLUMN, Predicate.Type.RANGE, new MatchAllFilterOperator(NUM_RECORDS),
+        NUM_RECORDS);
+    // Filters without table name should be ignored
+    collector.recordFilter(null, SCAN_COLUMN, Predicate.Type.EQ, EmptyFilterOperator.getInstance(), NUM_RECORDS);
+
+    TableFilterStats tableFilterStats = collector.getTableFilterStats(TABLE_NAME);
+    assertEquals(tableFilterStats.getTableName(), TABLE_NAME);
+    Map<String, ColumnFilterStats> columnFilterStatsMap = tableFilterStats.getColumnFilterStats();
+    assertEquals(columnFilterStatsMap.size(), 1);
+    ColumnFilterStats columnFilterStats = columnFilterStatsMap.get(SCAN_COLUMN);
+    assertEquals(columnFilterStats.getNumFilters(), 2);
+    assertEquals(columnFilterStats.getNumFilters(Predicate.Type.EQ.name()), 1);
+    assertEquals(columnFilterStats.getNumFilters(Predicate.Type.RANGE.name()), 1);
+    assertEquals(columnFilterStats.getNumFiltersWithAccessPath(AccessPath.DICTIONARY.name()), 2);
+    // Entries scanned are only recorded for the scan-based filters
+    assertEquals(columnFilterStats.getNumEntriesScanned(), 0);
+
+    // Reset should clear the stats of the table
+    collector.reset(TABLE_NAME);
+    assertTrue(collector.getTableFilterStats(TABLE_NAME).getColumnFilterStats().isEmpty());
+  }
+
+  @Test
+  public void testFilterPlanNode() {
+    String query = String.format("SELECT * FROM %s WHERE %s = 5 AND %s = 'value_5' AND %s > 3 AND %s = 'invalid'",
+        TABLE_NAME, SORTED_COLUMN, INVERTED_INDEX_COLUMN, SCAN_COLUMN, INVERTED_INDEX_COLUMN);
+    new FilterPlanNode(_indexSegment, QueryContextConverterUtils.getQueryContextFromSQL(query)).run();
+
+    Map<String, ColumnFilterStats> columnFilterStatsMap =
+        FilterStatsCollector.getInstance().getTableFilterStats(TABLE_NAME).getColumnFilterStats();
+    assertEquals(columnFilterStatsMap.size(), 3);
+
+    ColumnFilterStats sortedColumnStats = columnFilterStatsMap.get(SORTED_COLUMN);
+    assertEquals(sortedColumnStats.getNumFilters(Predicate.Type.EQ.name()), 1);
+    assertEquals(sortedColumnStats.getNumFiltersWithAccessPath(AccessPath.SORTED_INDEX.name()), 1);
+    assertEquals(sortedColumnStats.getNumEntriesScanned(), 0);
+
+    ColumnFilterStats invertedIndexColumnStats = columnFilterStatsMap.get(INVERTED_INDEX_COLUMN);
+    assertEquals(invertedIndexColumnStats.getNumFilters(Predicate.Type.EQ.name()), 2);
+    assertEquals(invertedIndexColumnStats.getNumFiltersWithAccessPath(AccessPath.INVERTED_INDEX.name()), 1);
+    // Value not in the dictionary
+    assertEquals(invertedIndexColumnStats.getNumFiltersWithAccessPath(AccessPath.DICTIONARY.name()), 1);
+
+    ColumnFilterStats scanColumnStats = columnFilterStatsMap.get(SCAN_COLUMN);
+    assertEquals(scanColumnStats.getNumFilters(Predicate.Type.RANGE.name()), 1);
+    assertEquals(scanColumnStats.getNumFiltersWithAccessPath(AccessPath.SCAN.name()), 1);
+    assertEquals(scanColumnStats.getNumEntriesScanned(), NUM_RECORDS);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    _indexSegment.destroy();
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+}
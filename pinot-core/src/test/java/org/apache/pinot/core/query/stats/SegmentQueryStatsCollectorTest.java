@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.stats;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.pinot.common.restlet.resources.SegmentQueryStats;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class SegmentQueryStatsCollectorTest {
+  private static final String TABLE_NAME = "testTable_OFFLINE";
+  private static final long WINDOW_MS = TimeUnit.HOURS.toMillis(1);
+
+  @Test
+  public void testRotateWindows() {
+    SegmentQueryStatsCollector.TableStats tableStats = new SegmentQueryStatsCollector.TableStats();
+    long startTimeMs = tableStats._currentWindowStartMs;
+    increment(tableStats.getCurrentCounts(startTimeMs), "segment_0");
+
+    // Counter obtained before the rotation but incremented after it should not be lost
+    Map<String, LongAdder> countsBeforeRotation = tableStats.getCurrentCounts(startTimeMs);
+    tableStats.rotate(startTimeMs + WINDOW_MS);
+    increment(countsBeforeRotation, "segment_0");
+    increment(tableStats.getCurrentCounts(startTimeMs + WINDOW_MS), "segment_1");
+
+    SegmentQueryStats stats = tableStats.getStats(TABLE_NAME, startTimeMs + WINDOW_MS);
+    assertEquals(stats.getNumQueriesPerSegment().get("segment_0").longValue(), 2L);
+    assertEquals(stats.getNumQueriesPerSegment().get("segment_1").longValue(), 1L);
+
+    // Previous window should be dropped after another rotation
+    stats = tableStats.getStats(TABLE_NAME, startTimeMs + 2 * WINDOW_MS);
+    assertEquals(stats.getNumQueriesPerSegment().size(), 1);
+    assertEquals(stats.getNumQueriesPerSegment().get("segment_1").longValue(), 1L);
+
+    // All windows should be dropped without query for more than 2 windows
+    stats = tableStats.getStats(TABLE_NAME, startTimeMs + 5 * WINDOW_MS);
+    assertTrue(stats.getNumQueriesPerSegment().isEmpty());
+  }
+
+  private static void increment(Map<String, LongAdder> counts, String segmentName) {
+    counts.computeIfAbsent(segmentName, k -> new LongAdder()).increment();
+  }
+}
@@ -233,6 +233,39 @@ public class QueryRoutingTest {
     assertTrue(System.currentTimeMillis() - startTimeMs < timeoutMs);
   }
 
+  @Test
+  public void testNettyConfig()
+      throws Exception {
+    long requestId = 123;
+    DataTable dataTable = DataTableBuilder.getEmptyDataTable();
+    dataTable.getMetadata().put(MetadataKey.REQUEST_ID.getName(), Long.toString(requestId));
+    byte[] responseBytes = dataTable.toBytes();
+
+    // Native transports should fall back to NIO when not available
+    NettyConfig nettyConfig = new NettyConfig();
+    nettyConfig.setNativeTransportsEnabled(true);
+    nettyConfig.setFlushConsolidationEnabled(true);
+    QueryServer queryServer =
+        new QueryServer(TEST_PORT, mockQueryScheduler(0, responseBytes), mock(ServerMetrics.class), null, nettyConfig);
+    queryServer.start();
+    QueryRouter queryRouter = new QueryRouter("testBroker", mock(BrokerMetrics.class), null, nettyConfig);
+
+    // NOTE: The mocked server always responds with the same request id, so the queries are sent one by one
+    for (int i = 0; i < 10; i++) {
+      AsyncQueryResponse asyncQueryResponse = queryRouter
+          .submitQuery(requestId, "testTable", BROKER_REQUEST, ROUTING_TABLE, BROKER_REQUEST, ROUTING_TABLE, 1_000L);
+      Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+      assertEquals(response.size(), 2);
+      for (ServerResponse serverResponse : response.values()) {
+        assertNotNull(serverResponse.getDataTable());
+        assertEquals(serverResponse.getResponseSize(), responseBytes.length);
+      }
+    }
+
+    queryRouter.shutDown();
+    queryServer.shutDown();
+  }
+
   @AfterClass
   public void tearDown() {
     _queryRouter.shutDown();
@@ -0,0 +1,170 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.segment.local.indexsegment.mutable.MutableSegmentImpl;
+import org.apache.pinot.segment.local.io.writer.impl.DirectMemoryManager;
+import org.apache.pinot.segment.local.realtime.impl.RealtimeSegmentConfig;
+import org.apache.pinot.segment.local.realtime.impl.RealtimeSegmentStatsHistory;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Queries test for the star-tree maintained in the consuming segment, which compares the results of the queries solved
+ * with the star-tree against the results from scanning the raw records of the same rows.
+ */
+public class MutableSegmentStarTreeQueriesTest extends BaseQueriesTest {
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String DIMENSION_1 = "dim1";
+  private static final String DIMENSION_2 = "dim2";
+  private static final String METRIC = "metric";
+  private static final int NUM_ROWS = 10000;
+  private static final Random RANDOM = new Random();
+
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+      .addSingleValueDimension(DIMENSION_1, DataType.STRING).addSingleValueDimension(DIMENSION_2, DataType.INT)
+      .addMetric(METRIC, DataType.LONG).build();
+  private static final StarTreeIndexConfig STAR_TREE_INDEX_CONFIG =
+      new StarTreeIndexConfig(Arrays.asList(DIMENSION_1, DIMENSION_2), null,
+          Arrays.asList("count__*", "sum__" + METRIC, "max__" + METRIC), 10);
+
+  private MutableSegmentImpl _starTreeSegment;
+  private MutableSegmentImpl _rawSegment;
+  private IndexSegment _indexSegment;
+  private List<IndexSegment> _indexSegments;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return _indexSegments;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    _starTreeSegment = createMutableSegment("starTreeSegment__0__0__155555", STAR_TREE_INDEX_CONFIG);
+    _rawSegment = createMutableSegment("rawSegment__0__0__155555", null);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(DIMENSION_1, "value" + RANDOM.nextInt(10));
+      row.putValue(DIMENSION_2, RANDOM.nextInt(100));
+      row.putValue(METRIC, (long) RANDOM.nextInt(1000));
+      _starTreeSegment.index(row, null);
+      _rawSegment.index(row, null);
+    }
+  }
+
+  private static MutableSegmentImpl createMutableSegment(String segmentName, StarTreeIndexConfig starTreeIndexConfig) {
+    RealtimeSegmentStatsHistory statsHistory = mock(RealtimeSegmentStatsHistory.class);
+    when(statsHistory.getEstimatedCardinality(anyString())).thenReturn(200);
+    when(statsHistory.getEstimatedAvgColSize(anyString())).thenReturn(32);
+    RealtimeSegmentConfig realtimeSegmentConfig =
+        new RealtimeSegmentConfig.Builder().setTableNameWithType(RAW_TABLE_NAME + "_REALTIME")
+            .setSegmentName(segmentName).setStreamName(RAW_TABLE_NAME).setSchema(SCHEMA).setCapacity(100000)
+            .setAvgNumMultiValues(2).setNoDictionaryColumns(Collections.singleton(METRIC))
+            .setVarLengthDictionaryColumns(Collections.emptySet()).setInvertedIndexColumns(Collections.emptySet())
+            .setStarTreeIndexConfigs(
+                starTreeIndexConfig != null ? Collections.singletonList(starTreeIndexConfig) : null)
+            // Refresh the star-tree snapshot whenever more rows are indexed so that the results are comparable
+            .setStarTreeRefreshIntervalMs(0L).setRealtimeSegmentZKMetadata(new RealtimeSegmentZKMetadata())
+            .setMemoryManager(new DirectMemoryManager(segmentName)).setStatsHistory(statsHistory).build();
+    return new MutableSegmentImpl(realtimeSegmentConfig, null);
+  }
+
+  @Test
+  public void testQueries() {
+    String selection = "SELECT COUNT(*), SUM(metric), MAX(metric) FROM testTable";
+    testQuery(selection);
+    testQuery(selection + " WHERE dim1 = 'value3'");
+    testQuery(selection + " WHERE dim1 IN ('value1', 'value5') AND dim2 = 7");
+    testQuery(selection + " WHERE dim2 = 42");
+    testQuery("SELECT dim1, COUNT(*), SUM(metric), MAX(metric) FROM testTable GROUP BY dim1 ORDER BY dim1 LIMIT 100");
+    testQuery("SELECT dim1, dim2, COUNT(*), SUM(metric), MAX(metric) FROM testTable "
+        + "WHERE dim1 IN ('value2', 'value4', 'value6') GROUP BY dim1, dim2 ORDER BY dim1, dim2 LIMIT 1000");
+  }
+
+  @Test
+  public void testQueriesAfterIndexingMoreRows()
+      throws Exception {
+    String query = "SELECT dim1, COUNT(*), SUM(metric) FROM testTable GROUP BY dim1 ORDER BY dim1 LIMIT 100";
+    testQuery(query);
+    GenericRow row = new GenericRow();
+    row.putValue(DIMENSION_1, "newValue");
+    row.putValue(DIMENSION_2, 0);
+    row.putValue(METRIC, 1L);
+    _starTreeSegment.index(row, null);
+    _rawSegment.index(row, null);
+    testQuery(query);
+  }
+
+  private void testQuery(String query) {
+    _indexSegment = _starTreeSegment;
+    _indexSegments = Arrays.asList(_starTreeSegment, _starTreeSegment);
+    BrokerResponseNative starTreeResponse = getBrokerResponseForSqlQuery(query);
+    _indexSegment = _rawSegment;
+    _indexSegments = Arrays.asList(_rawSegment, _rawSegment);
+    BrokerResponseNative rawResponse = getBrokerResponseForSqlQuery(query);
+
+    assertNotNull(starTreeResponse.getResultTable());
+    assertNotNull(rawResponse.getResultTable());
+    List<Object[]> starTreeRows = starTreeResponse.getResultTable().getRows();
+    List<Object[]> rawRows = rawResponse.getResultTable().getRows();
+    assertEquals(starTreeRows.size(), rawRows.size(), query);
+    for (int i = 0; i < rawRows.size(); i++) {
+      assertEquals(starTreeRows.get(i), rawRows.get(i), query);
+    }
+    // The star-tree should be used, which scans the pre-aggregated records instead of the raw records
+    assertTrue(starTreeResponse.getNumDocsScanned() < rawResponse.getNumDocsScanned(), query);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _starTreeSegment.destroy();
+    _rawSegment.destroy();
+  }
+}
@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import org.apache.helix.model.InstanceConfig;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.metrics.PinotMetricUtils;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.common.utils.DataTable.MetadataKey;
+import org.apache.pinot.core.common.datatable.DataTableBuilder;
+import org.apache.pinot.core.query.executor.ServerQueryExecutorV1Impl;
+import org.apache.pinot.core.query.request.ServerQueryRequest;
+import org.apache.pinot.core.query.scheduler.QueryScheduler;
+import org.apache.pinot.core.query.scheduler.resources.UnboundedResourceManager;
+import org.apache.pinot.core.requesthandler.PinotQueryParserFactory;
+import org.apache.pinot.core.transport.AsyncQueryResponse;
+import org.apache.pinot.core.transport.NettyConfig;
+import org.apache.pinot.core.transport.QueryRouter;
+import org.apache.pinot.core.transport.QueryServer;
+import org.apache.pinot.core.transport.ServerInstance;
+import org.apache.pinot.core.transport.ServerResponse;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Benchmark for the round trip of the instance requests between the broker ({@link QueryRouter}) and the server
+ * ({@link QueryServer}) over the loopback interface, with different netty transport configs. The server responds with
+ * a fixed size DataTable without executing the query, so that the benchmark measures the transport overhead only.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class BenchmarkQueryTransport {
+  private static final int PORT = 18099;
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final BrokerRequest BROKER_REQUEST = PinotQueryParserFactory.parseSQLQuery(
+      "SELECT c, COUNT(*) FROM testTable WHERE a = 'foo' AND b > 123 GROUP BY c ORDER BY COUNT(*) DESC LIMIT 10");
+  private static final Map<ServerInstance, List<String>> ROUTING_TABLE = Collections
+      .singletonMap(new ServerInstance(new InstanceConfig("Server_localhost_" + PORT)),
+          Collections.singletonList("testSegment"));
+
+  @Param({"false", "true"})
+  private boolean _nativeTransportsEnabled;
+
+  @Param({"false", "true"})
+  private boolean _flushConsolidationEnabled;
+
+  @Param({"1024", "65536"})
+  private int _responseSize;
+
+  private final AtomicLong _requestIdGenerator = new AtomicLong();
+  private QueryServer _queryServer;
+  private QueryRouter _queryRouter;
+
+  @Setup
+  public void setUp() {
+    NettyConfig nettyConfig = new NettyConfig();
+    nettyConfig.setNativeTransportsEnabled(_nativeTransportsEnabled);
+    nettyConfig.setFlushConsolidationEnabled(_flushConsolidationEnabled);
+    _queryServer = new QueryServer(PORT, new EchoQueryScheduler(_responseSize),
+        new ServerMetrics(PinotMetricUtils.getPinotMetricsRegistry()), null, nettyConfig);
+    _queryServer.start();
+    _queryRouter =
+        new QueryRouter("testBroker", new BrokerMetrics(PinotMetricUtils.getPinotMetricsRegistry()), null, nettyConfig);
+  }
+
+  @TearDown
+  public void tearDown() {
+    _queryRouter.shutDown();
+    _queryServer.shutDown();
+  }
+
+  @Benchmark
+  public int roundTrip()
+      throws InterruptedException {
+    AsyncQueryResponse asyncQueryResponse = _queryRouter
+        .submitQuery(_requestIdGenerator.incrementAndGet(), RAW_TABLE_NAME, BROKER_REQUEST, ROUTING_TABLE, null, null,
+            10_000L);
+    int responseSize = 0;
+    for (ServerResponse serverResponse : asyncQueryResponse.getResponse().values()) {
+      responseSize += serverResponse.getResponseSize();
+    }
+    return responseSize;
+  }
+
+  /**
+   * Query scheduler that responds to each query with a DataTable containing the request id and a fixed size payload.
+   */
+  private static class EchoQueryScheduler extends QueryScheduler {
+    final String _payload;
+
+    EchoQueryScheduler(int responseSize) {
+      super(new PinotConfiguration(), new ServerQueryExecutorV1Impl(),
+          new UnboundedResourceManager(new PinotConfiguration()),
+          new ServerMetrics(PinotMetricUtils.getPinotMetricsRegistry()), new LongAccumulator(Long::max, 0));
+      char[] payload = new char[responseSize];
+      for (int i = 0; i < responseSize; i++) {
+        payload[i] = (char) ('a' + i % 26);
+      }
+      _payload = new String(payload);
+    }
+
+    @Override
+    public ListenableFuture<byte[]> submit(ServerQueryRequest queryRequest) {
+      try {
+        DataTable dataTable = DataTableBuilder.getEmptyDataTable();
+        Map<String, String> metadata = dataTable.getMetadata();
+        metadata.put(MetadataKey.REQUEST_ID.getName(), Long.toString(queryRequest.getRequestId()));
+        metadata.put("payload", _payload);
+        return Futures.immediateFuture(dataTable.toBytes());
+      } catch (Exception e) {
+        return Futures.immediateFailedFuture(e);
+      }
+    }
+
+    @Override
+    public String name() {
+      return "echo";
+    }
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkQueryTransport.class.getSimpleName());
+    new Runner(opt.build()).run();
+  }
+}
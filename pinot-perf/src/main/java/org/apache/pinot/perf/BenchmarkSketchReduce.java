@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import com.clearspring.analytics.stream.cardinality.CardinalityMergeException;
+import com.clearspring.analytics.stream.cardinality.HyperLogLog;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.datasketches.theta.SetOperationBuilder;
+import org.apache.datasketches.theta.Sketch;
+import org.apache.datasketches.theta.Union;
+import org.apache.datasketches.theta.UpdateSketch;
+import org.apache.datasketches.theta.UpdateSketchBuilder;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.common.datatable.DataTableBuilder;
+import org.apache.pinot.core.common.datatable.DataTableFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Benchmark for the broker side reduce of the sketch based aggregations (DISTINCT_COUNT_HLL and
+ * DISTINCT_COUNT_THETA_SKETCH), which de-serializes the intermediate sketches from the server DataTables and merges
+ * them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchmarkSketchReduce {
+  private static final Random RANDOM = new Random();
+  private static final int NUM_VALUES_PER_SERVER = 100_000;
+  private static final int LOG2M = 12;
+  private static final DataSchema DATA_SCHEMA = new DataSchema(new String[]{"distinctCountHLL", "distinctCountTheta"},
+      new ColumnDataType[]{ColumnDataType.OBJECT, ColumnDataType.OBJECT});
+
+  @Param({"10", "100", "500"})
+  private int _numServers;
+
+  private DataTable[] _dataTables;
+
+  @Setup
+  public void setUp()
+      throws Exception {
+    _dataTables = new DataTable[_numServers];
+    UpdateSketchBuilder updateSketchBuilder = new UpdateSketchBuilder();
+    for (int i = 0; i < _numServers; i++) {
+      HyperLogLog hyperLogLog = new HyperLogLog(LOG2M);
+      UpdateSketch updateSketch = updateSketchBuilder.build();
+      for (int j = 0; j < NUM_VALUES_PER_SERVER; j++) {
+        long value = RANDOM.nextLong();
+        hyperLogLog.offer(value);
+        updateSketch.update(value);
+      }
+      DataTableBuilder dataTableBuilder = new DataTableBuilder(DATA_SCHEMA);
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, hyperLogLog);
+      dataTableBuilder.setColumn(1, Collections.singletonList(updateSketch.compact(false, null)));
+      dataTableBuilder.finishRow();
+      // Serialize and de-serialize the DataTable to simulate the DataTable received by the broker
+      _dataTables[i] = DataTableFactory.getDataTable(dataTableBuilder.build().toBytes());
+    }
+  }
+
+  @Benchmark
+  public long reduceHyperLogLog()
+      throws CardinalityMergeException {
+    HyperLogLog mergedHyperLogLog = _dataTables[0].getObject(0, 0);
+    for (int i = 1; i < _numServers; i++) {
+      HyperLogLog hyperLogLog = _dataTables[i].getObject(0, 0);
+      mergedHyperLogLog.addAll(hyperLogLog);
+    }
+    return mergedHyperLogLog.cardinality();
+  }
+
+  @Benchmark
+  public double reduceThetaSketch() {
+    Union union = new SetOperationBuilder().buildUnion();
+    for (DataTable dataTable : _dataTables) {
+      List<Sketch> sketches = dataTable.getObject(0, 1);
+      union.update(sketches.get(0));
+    }
+    return union.getResult(false, null).getEstimate();
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkSketchReduce.class.getSimpleName());
+    new Runner(opt.build()).run();
+  }
+}
@@ -18,14 +18,24 @@
  */
 package org.apache.pinot.perf;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.utils.StringUtil;
 import org.apache.pinot.segment.local.io.readerwriter.PinotDataBufferMemoryManager;
 import org.apache.pinot.segment.local.io.writer.impl.DirectMemoryManager;
 import org.apache.pinot.segment.local.realtime.impl.dictionary.StringOffHeapMutableDictionary;
 import org.apache.pinot.segment.local.realtime.impl.dictionary.StringOnHeapMutableDictionary;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentDictionaryCreator;
+import org.apache.pinot.segment.local.segment.index.readers.StringDictionary;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -53,6 +63,8 @@ public class BenchmarkStringDictionary {
   private static final int NUM_RECORDS = 1_000_000;
   private static final int CARDINALITY = 200_000;
   private static final Random RANDOM = new Random();
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkStringDictionary");
+  private static final String COLUMN_NAME = "stringColumn";
 
   @Param({"8", "16", "32", "64", "128", "256", "512", "1024"})
   private int _maxValueLength;
@@ -61,9 +73,12 @@ public class BenchmarkStringDictionary {
   private String[] _values;
   private StringOffHeapMutableDictionary _offHeapDictionary;
   private StringOnHeapMutableDictionary _onHeapDictionary;
+  private PinotDataBuffer _dictionaryBuffer;
+  private StringDictionary _immutableDictionary;
 
   @Setup
-  public void setUp() {
+  public void setUp()
+      throws IOException {
     _memoryManager = new DirectMemoryManager("");
     _offHeapDictionary =
         new StringOffHeapMutableDictionary(CARDINALITY, CARDINALITY / 10, _memoryManager, null, _maxValueLength / 2);
@@ -79,6 +94,19 @@ public class BenchmarkStringDictionary {
     for (int i = 0; i < NUM_RECORDS; i++) {
       _values[i] = uniqueValues[RANDOM.nextInt(CARDINALITY)];
     }
+
+    FileUtils.deleteQuietly(INDEX_DIR);
+    String[] sortedValues = new TreeSet<>(Arrays.asList(uniqueValues)).toArray(new String[0]);
+    int numBytesPerValue;
+    try (SegmentDictionaryCreator dictionaryCreator = new SegmentDictionaryCreator(sortedValues,
+        new DimensionFieldSpec(COLUMN_NAME, DataType.STRING, true), INDEX_DIR)) {
+      dictionaryCreator.build();
+      numBytesPerValue = dictionaryCreator.getNumBytesPerEntry();
+    }
+    _dictionaryBuffer =
+        PinotDataBuffer.mapReadOnlyBigEndianFile(new File(INDEX_DIR, COLUMN_NAME + V1Constants.Dict.FILE_EXTENSION));
+    _immutableDictionary =
+        new StringDictionary(_dictionaryBuffer, sortedValues.length, numBytesPerValue, (byte) 0, true);
   }
 
   @TearDown
@@ -87,6 +115,9 @@ public class BenchmarkStringDictionary {
     _onHeapDictionary.close();
     _offHeapDictionary.close();
     _memoryManager.close();
+    _immutableDictionary.close();
+    _dictionaryBuffer.close();
+    FileUtils.deleteQuietly(INDEX_DIR);
   }
 
   // Generates a ascii displayable string of the given length
@@ -116,6 +147,24 @@ public class BenchmarkStringDictionary {
     return sum;
   }
 
+  @Benchmark
+  public int immutableStringDictionaryRead() {
+    int sum = 0;
+    for (String stringValue : _values) {
+      sum += _immutableDictionary.indexOf(stringValue);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int immutableStringDictionaryBinarySearch() {
+    int sum = 0;
+    for (String stringValue : _values) {
+      sum += _immutableDictionary.insertionIndexOf(stringValue);
+    }
+    return sum;
+  }
+
   @Benchmark
   public int offHeapStringDictionaryWrite()
       throws IOException {
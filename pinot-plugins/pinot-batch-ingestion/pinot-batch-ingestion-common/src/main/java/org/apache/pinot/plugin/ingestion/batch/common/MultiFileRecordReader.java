@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.plugin.ingestion.batch.common;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.RecordReader;
+import org.apache.pinot.spi.data.readers.RecordReaderConfig;
+
+
+/**
+ * Record reader that reads the records from multiple initialized record readers one after another, which is used to
+ * pack multiple small input files into one segment.
+ */
+public class MultiFileRecordReader implements RecordReader {
+  private final List<RecordReader> _recordReaders;
+
+  private int _currentReaderIndex;
+
+  public MultiFileRecordReader(List<RecordReader> recordReaders) {
+    Preconditions.checkArgument(!recordReaders.isEmpty(), "At least one record reader is required");
+    _recordReaders = recordReaders;
+  }
+
+  @Override
+  public void init(File dataFile, @Nullable Set<String> fieldsToRead, @Nullable RecordReaderConfig recordReaderConfig) {
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (_currentReaderIndex < _recordReaders.size()) {
+      if (_recordReaders.get(_currentReaderIndex).hasNext()) {
+        return true;
+      }
+      _currentReaderIndex++;
+    }
+    return false;
+  }
+
+  @Override
+  public GenericRow next()
+      throws IOException {
+    return next(new GenericRow());
+  }
+
+  @Override
+  public GenericRow next(GenericRow reuse)
+      throws IOException {
+    Preconditions.checkState(hasNext(), "No more record to read");
+    return _recordReaders.get(_currentReaderIndex).next(reuse);
+  }
+
+  @Override
+  public void rewind()
+      throws IOException {
+    for (RecordReader recordReader : _recordReaders) {
+      recordReader.rewind();
+    }
+    _currentReaderIndex = 0;
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    IOException exception = null;
+    for (RecordReader recordReader : _recordReaders) {
+      try {
+        recordReader.close();
+      } catch (IOException e) {
+        if (exception == null) {
+          exception = e;
+        } else {
+          exception.addSuppressed(e);
+        }
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+}
@@ -19,6 +19,9 @@
 package org.apache.pinot.plugin.ingestion.batch.common;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.apache.pinot.spi.ingestion.batch.spec.SegmentNameGeneratorSpec;
 
 
@@ -43,4 +46,36 @@ public class SegmentGenerationJobUtils implements Serializable {
     }
     return Boolean.parseBoolean(useGlobalDirectorySequenceId);
   }
+
+  /**
+   * Packs the consecutive input files into groups, where each group is used to generate one segment. Files smaller than
+   * the packing size are packed together as long as the total size of the group does not exceed the packing size.
+   * Non-positive packing size means no packing (one file per group).
+   */
+  public static List<List<String>> packInputFiles(List<String> inputFiles, long[] inputFileSizes, long packingSize) {
+    int numInputFiles = inputFiles.size();
+    List<List<String>> groups = new ArrayList<>();
+    if (packingSize <= 0) {
+      for (String inputFile : inputFiles) {
+        groups.add(Collections.singletonList(inputFile));
+      }
+      return groups;
+    }
+    List<String> currentGroup = new ArrayList<>();
+    long currentGroupSize = 0;
+    for (int i = 0; i < numInputFiles; i++) {
+      long inputFileSize = inputFileSizes[i];
+      if (!currentGroup.isEmpty() && currentGroupSize + inputFileSize > packingSize) {
+        groups.add(currentGroup);
+        currentGroup = new ArrayList<>();
+        currentGroupSize = 0;
+      }
+      currentGroup.add(inputFiles.get(i));
+      currentGroupSize += inputFileSize;
+    }
+    if (!currentGroup.isEmpty()) {
+      groups.add(currentGroup);
+    }
+    return groups;
+  }
 }
@@ -20,10 +20,28 @@ package org.apache.pinot.plugin.ingestion.batch.common;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.segment.processing.framework.MergeType;
+import org.apache.pinot.core.segment.processing.genericrow.GenericRowFileManager;
+import org.apache.pinot.core.segment.processing.utils.SegmentProcessorUtils;
+import org.apache.pinot.segment.local.recordtransformer.ComplexTypeTransformer;
+import org.apache.pinot.segment.local.recordtransformer.CompositeTransformer;
+import org.apache.pinot.segment.local.segment.creator.RecordReaderSegmentCreationDataSource;
 import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.utils.IngestionUtils;
 import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
 import org.apache.pinot.segment.spi.creator.name.FixedSegmentNameGenerator;
 import org.apache.pinot.segment.spi.creator.name.NormalizedDateSegmentNameGenerator;
@@ -33,17 +51,25 @@ import org.apache.pinot.spi.config.table.SegmentsValidationAndRetentionConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.data.DateTimeFieldSpec;
 import org.apache.pinot.spi.data.DateTimeFormatSpec;
+import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.RecordReader;
 import org.apache.pinot.spi.data.readers.RecordReaderConfig;
+import org.apache.pinot.spi.data.readers.RecordReaderFactory;
 import org.apache.pinot.spi.ingestion.batch.spec.SegmentGenerationTaskSpec;
 import org.apache.pinot.spi.ingestion.batch.spec.SegmentNameGeneratorSpec;
 import org.apache.pinot.spi.plugin.PluginManager;
 import org.apache.pinot.spi.utils.IngestionConfigUtils;
 import org.apache.pinot.spi.utils.JsonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 @SuppressWarnings("serial")
 public class SegmentGenerationTaskRunner implements Serializable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentGenerationTaskRunner.class);
+  private static final String CHUNKS_DIR_PREFIX = "chunks-";
 
   public static final String FIXED_SEGMENT_NAME_GENERATOR = "fixed";
   public static final String SIMPLE_SEGMENT_NAME_GENERATOR = "simple";
@@ -70,8 +96,87 @@ public class SegmentGenerationTaskRunner implements Serializable {
     _taskSpec = taskSpec;
   }
 
+  /**
+   * Generates one segment from all the input files of the task, returns the segment name.
+   */
   public String run()
       throws Exception {
+    SegmentGeneratorConfig segmentGeneratorConfig = getSegmentGeneratorConfig(getSegmentNameGenerator());
+
+    //build segment
+    SegmentIndexCreationDriverImpl segmentIndexCreationDriver = new SegmentIndexCreationDriverImpl();
+    if (_taskSpec.getInputFilePaths().size() > 1) {
+      segmentIndexCreationDriver.init(segmentGeneratorConfig, getRecordReader(segmentGeneratorConfig));
+    } else {
+      segmentIndexCreationDriver.init(segmentGeneratorConfig);
+    }
+    segmentIndexCreationDriver.build();
+    return segmentIndexCreationDriver.getSegmentName();
+  }
+
+  /**
+   * Generates the segments from the input files of the task, and invokes the segment handler on each generated segment.
+   * <p>When the maximum number of records per segment is not configured, generates one segment on the current thread.
+   * Otherwise, reads the input once and buffers the transformed records into chunks of at most the maximum number of
+   * records, and builds the segment for each chunk on the given executor while the remaining input is still being
+   * read. When the input is split into multiple chunks, the chunk id is appended to the segment names to keep them
+   * unique.
+   * <p>Returns once all the input is read, segments of the last chunks might still be built on the executor. The
+   * returned future completes after the segments of all the chunks are built and handled. The segments are only handed
+   * to the segment handler after all the chunks are built, so that a failed task does not leave partial segments in
+   * the output. If reading the input or building any chunk fails, the pending chunks are cancelled, the segments
+   * already built are deleted, and the task fails (either by throwing or through the returned future).
+   */
+  public CompletableFuture<Void> run(Executor executor, SegmentHandler segmentHandler)
+      throws Exception {
+    int maxNumRecordsPerSegment = _taskSpec.getMaxNumRecordsPerSegment();
+    if (maxNumRecordsPerSegment <= 0) {
+      segmentHandler.handle(run());
+      return CompletableFuture.completedFuture(null);
+    }
+
+    TableConfig tableConfig = _taskSpec.getTableConfig();
+    Schema schema = _taskSpec.getSchema();
+    List<FieldSpec> fieldSpecs = SegmentProcessorUtils.getFieldSpecs(schema, MergeType.CONCAT, null).getLeft();
+    boolean includeNullFields = tableConfig.getIndexingConfig().isNullHandlingEnabled();
+    CompositeTransformer recordTransformer = CompositeTransformer.getDefaultTransformer(tableConfig, schema);
+    ComplexTypeTransformer complexTypeTransformer = ComplexTypeTransformer.getComplexTypeTransformer(tableConfig);
+    File chunksDir = new File(_taskSpec.getOutputDirectoryPath(), CHUNKS_DIR_PREFIX + UUID.randomUUID());
+    SegmentChunker chunker =
+        new SegmentChunker(chunksDir, fieldSpecs, includeNullFields, maxNumRecordsPerSegment, executor, segmentHandler);
+    try (RecordReader recordReader = getRecordReader(getSegmentGeneratorConfig(getSegmentNameGenerator()))) {
+      GenericRow reuse = new GenericRow();
+      while (recordReader.hasNext()) {
+        chunker.checkFailure();
+        reuse = recordReader.next(reuse);
+        if (complexTypeTransformer != null) {
+          reuse = complexTypeTransformer.transform(reuse);
+        }
+        if (reuse.getValue(GenericRow.MULTIPLE_RECORDS_KEY) != null) {
+          //noinspection unchecked
+          for (GenericRow row : (Collection<GenericRow>) reuse.getValue(GenericRow.MULTIPLE_RECORDS_KEY)) {
+            GenericRow transformedRow = recordTransformer.transform(row);
+            if (transformedRow != null && IngestionUtils.shouldIngestRow(transformedRow)) {
+              chunker.write(transformedRow);
+            }
+          }
+        } else {
+          GenericRow transformedRow = recordTransformer.transform(reuse);
+          if (transformedRow != null && IngestionUtils.shouldIngestRow(transformedRow)) {
+            chunker.write(transformedRow);
+          }
+        }
+        reuse.clear();
+      }
+      return chunker.finish();
+    } catch (Exception e) {
+      chunker.abort(e);
+      throw e;
+    }
+  }
+
+  private SegmentGeneratorConfig getSegmentGeneratorConfig(SegmentNameGenerator segmentNameGenerator)
+      throws Exception {
     TableConfig tableConfig = _taskSpec.getTableConfig();
     String tableName = tableConfig.getTableName();
     Schema schema = _taskSpec.getSchema();
@@ -90,9 +195,6 @@ public class SegmentGenerationTaskRunner implements Serializable {
       recordReaderConfig = (RecordReaderConfig) JsonUtils.jsonNodeToObject(jsonNode, clazz);
     }
 
-    //init segmentName Generator
-    SegmentNameGenerator segmentNameGenerator = getSegmentNameGenerator();
-
     //init segment generation config
     SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(tableConfig, schema);
     segmentGeneratorConfig.setTableName(tableName);
@@ -104,12 +206,38 @@ public class SegmentGenerationTaskRunner implements Serializable {
     segmentGeneratorConfig.setInputFilePath(_taskSpec.getInputFilePath());
     segmentGeneratorConfig.setCustomProperties(_taskSpec.getCustomProperties());
     segmentGeneratorConfig.setFailOnEmptySegment(_taskSpec.isFailOnEmptySegment());
+    segmentGeneratorConfig.setNumColumnIndexCreationThreads(_taskSpec.getColumnParallelism());
+    segmentGeneratorConfig.setNumStarTreeBuildThreads(_taskSpec.getColumnParallelism());
+    return segmentGeneratorConfig;
+  }
 
-    //build segment
-    SegmentIndexCreationDriverImpl segmentIndexCreationDriver = new SegmentIndexCreationDriverImpl();
-    segmentIndexCreationDriver.init(segmentGeneratorConfig);
-    segmentIndexCreationDriver.build();
-    return segmentIndexCreationDriver.getSegmentName();
+  /**
+   * Returns a record reader over all the input files of the task.
+   */
+  private RecordReader getRecordReader(SegmentGeneratorConfig segmentGeneratorConfig)
+      throws Exception {
+    Set<String> sourceFields = IngestionUtils
+        .getFieldsForRecordExtractor(_taskSpec.getTableConfig().getIngestionConfig(), _taskSpec.getSchema());
+    List<RecordReader> recordReaders = new ArrayList<>();
+    try {
+      String recordReaderClassName = segmentGeneratorConfig.getRecordReaderPath();
+      for (String inputFilePath : _taskSpec.getInputFilePaths()) {
+        File inputFile = new File(inputFilePath);
+        if (recordReaderClassName != null) {
+          recordReaders.add(RecordReaderFactory.getRecordReaderByClass(recordReaderClassName, inputFile, sourceFields,
+              segmentGeneratorConfig.getReaderConfig()));
+        } else {
+          recordReaders.add(RecordReaderFactory.getRecordReader(segmentGeneratorConfig.getFormat(), inputFile,
+              sourceFields, segmentGeneratorConfig.getReaderConfig()));
+        }
+      }
+    } catch (Exception e) {
+      for (RecordReader recordReader : recordReaders) {
+        recordReader.close();
+      }
+      throw e;
+    }
+    return recordReaders.size() == 1 ? recordReaders.get(0) : new MultiFileRecordReader(recordReaders);
   }
 
   private SegmentNameGenerator getSegmentNameGenerator() {
@@ -153,4 +281,258 @@ public class SegmentGenerationTaskRunner implements Serializable {
         throw new UnsupportedOperationException("Unsupported segment name generator type: " + segmentNameGeneratorType);
     }
   }
+
+  /**
+   * Handler of the segments generated by the task.
+   */
+  public interface SegmentHandler {
+
+    /**
+     * Handles the generated segment under the output directory of the task.
+     */
+    void handle(String segmentName)
+        throws Exception;
+  }
+
+  /**
+   * Buffers the transformed records into chunks, and builds the segment for each full chunk on the executor. The first
+   * chunk is only built after the second chunk is started or the input ends, so that its segment name is unchanged
+   * when the input is not split.
+   * <p>The futures of the submitted chunks are tracked so that the task can be failed as a whole: once a chunk fails
+   * (or reading the input fails), the pending chunks are cancelled and the segments already built are deleted.
+   */
+  private class SegmentChunker {
+    final File _chunksDir;
+    final List<FieldSpec> _fieldSpecs;
+    final boolean _includeNullFields;
+    final int _maxNumRecordsPerChunk;
+    final Executor _executor;
+    final SegmentHandler _segmentHandler;
+    // Completes after the segments of all the chunks are built and handled
+    final CompletableFuture<Void> _result = new CompletableFuture<>();
+
+    // NOTE: Fields below are guarded by the chunker lock because they are accessed by the chunk builds
+    final List<CompletableFuture<Void>> _chunkFutures = new ArrayList<>();
+    final List<String> _segmentNames = new ArrayList<>();
+    Throwable _failure;
+
+    int _numChunks;
+    Chunk _currentChunk;
+    Chunk _firstChunk;
+
+    SegmentChunker(File chunksDir, List<FieldSpec> fieldSpecs, boolean includeNullFields, int maxNumRecordsPerChunk,
+        Executor executor, SegmentHandler segmentHandler) {
+      _chunksDir = chunksDir;
+      _fieldSpecs = fieldSpecs;
+      _includeNullFields = includeNullFields;
+      _maxNumRecordsPerChunk = maxNumRecordsPerChunk;
+      _executor = executor;
+      _segmentHandler = segmentHandler;
+    }
+
+    /**
+     * Throws if any chunk already failed, so that the task stops reading the input.
+     */
+    synchronized void checkFailure() {
+      if (_failure != null) {
+        throw new IllegalStateException("Failed to generate segment for input files: " + _taskSpec.getInputFilePaths(),
+            _failure);
+      }
+    }
+
+    void write(GenericRow row)
+        throws Exception {
+      if (_currentChunk == null || _currentChunk._numRecords == _maxNumRecordsPerChunk) {
+        startNextChunk();
+      }
+      _currentChunk._fileManager.getFileWriter().write(row);
+      _currentChunk._numRecords++;
+    }
+
+    CompletableFuture<Void> finish()
+        throws Exception {
+      if (_currentChunk == null) {
+        // Empty input, build the segment the same way as without chunking (empty segment or failure)
+        startNextChunk();
+      }
+      _currentChunk._fileManager.closeFileWriter();
+      submit(_currentChunk, _numChunks > 1);
+      _currentChunk = null;
+      CompletableFuture<Void> allChunksBuilt;
+      synchronized (this) {
+        allChunksBuilt = CompletableFuture.allOf(_chunkFutures.toArray(new CompletableFuture[0]));
+      }
+      allChunksBuilt.whenComplete((v, t) -> {
+        if (t == null) {
+          handleSegments();
+        }
+      });
+      return _result;
+    }
+
+    /**
+     * Fails the task when reading the input fails, cleans up the chunks not submitted yet.
+     */
+    void abort(Throwable cause) {
+      fail(cause);
+      if (_firstChunk != null) {
+        _firstChunk.cleanUp();
+      }
+      if (_currentChunk != null) {
+        _currentChunk.cleanUp();
+      }
+    }
+
+    /**
+     * Fails the task: cancels the pending chunks and deletes the segments already built. Segments built by the running
+     * chunks are deleted when they finish.
+     */
+    synchronized void fail(Throwable cause) {
+      if (_failure != null) {
+        return;
+      }
+      _failure = cause;
+      _result.completeExceptionally(cause);
+      for (CompletableFuture<Void> chunkFuture : _chunkFutures) {
+        chunkFuture.cancel(false);
+      }
+      for (String segmentName : _segmentNames) {
+        deleteSegment(segmentName);
+      }
+      _segmentNames.clear();
+    }
+
+    private synchronized void onSegmentBuilt(String segmentName) {
+      if (_failure != null) {
+        deleteSegment(segmentName);
+      } else {
+        _segmentNames.add(segmentName);
+      }
+    }
+
+    private void deleteSegment(String segmentName) {
+      FileUtils.deleteQuietly(new File(_taskSpec.getOutputDirectoryPath(), segmentName));
+    }
+
+    /**
+     * Hands the segments of all the chunks to the segment handler on the executor, then completes the task.
+     */
+    private void handleSegments() {
+      List<CompletableFuture<Void>> handleFutures = new ArrayList<>();
+      synchronized (this) {
+        for (String segmentName : _segmentNames) {
+          handleFutures.add(CompletableFuture.runAsync(() -> {
+            try {
+              _segmentHandler.handle(segmentName);
+            } catch (Exception e) {
+              throw new CompletionException(e);
+            }
+          }, _executor));
+        }
+      }
+      CompletableFuture.allOf(handleFutures.toArray(new CompletableFuture[0])).whenComplete((v, t) -> {
+        if (t == null) {
+          _result.complete(null);
+        } else {
+          LOGGER.error("Failed to handle segments for input files: {}", _taskSpec.getInputFilePaths(), t);
+          _result.completeExceptionally(t instanceof CompletionException ? t.getCause() : t);
+        }
+      });
+    }
+
+    private void startNextChunk()
+        throws Exception {
+      if (_currentChunk != null) {
+        _currentChunk._fileManager.closeFileWriter();
+        if (_currentChunk._chunkId == 0) {
+          _firstChunk = _currentChunk;
+        } else {
+          submit(_currentChunk, true);
+        }
+      }
+      _currentChunk = new Chunk(_numChunks++);
+      if (_firstChunk != null) {
+        submit(_firstChunk, true);
+        _firstChunk = null;
+      }
+    }
+
+    /**
+     * Builds the segment for the chunk on the executor. A chunk cancelled before it starts is only cleaned up.
+     */
+    private void submit(Chunk chunk, boolean appendChunkId) {
+      CompletableFuture<Void> chunkFuture = new CompletableFuture<>();
+      synchronized (this) {
+        _chunkFutures.add(chunkFuture);
+      }
+      _executor.execute(() -> {
+        try {
+          if (chunkFuture.isDone()) {
+            return;
+          }
+          SegmentNameGenerator segmentNameGenerator = getSegmentNameGenerator();
+          if (appendChunkId) {
+            segmentNameGenerator = new ChunkSegmentNameGenerator(segmentNameGenerator, chunk._chunkId);
+          }
+          SegmentGeneratorConfig segmentGeneratorConfig = getSegmentGeneratorConfig(segmentNameGenerator);
+          SegmentIndexCreationDriverImpl segmentIndexCreationDriver = new SegmentIndexCreationDriverImpl();
+          segmentIndexCreationDriver.init(segmentGeneratorConfig,
+              new RecordReaderSegmentCreationDataSource(chunk._fileManager.getFileReader().getRecordReader()),
+              CompositeTransformer.getPassThroughTransformer(), null);
+          segmentIndexCreationDriver.build();
+          onSegmentBuilt(segmentIndexCreationDriver.getSegmentName());
+          chunkFuture.complete(null);
+        } catch (Exception e) {
+          LOGGER.error("Failed to generate segment for chunk: {} of input files: {}", chunk._chunkId,
+              _taskSpec.getInputFilePaths(), e);
+          fail(e);
+          chunkFuture.completeExceptionally(e);
+        } finally {
+          chunk.cleanUp();
+        }
+      });
+    }
+
+    private class Chunk {
+      final int _chunkId;
+      final File _chunkDir;
+      final GenericRowFileManager _fileManager;
+      int _numRecords;
+
+      Chunk(int chunkId)
+          throws Exception {
+        _chunkId = chunkId;
+        _chunkDir = new File(_chunksDir, Integer.toString(chunkId));
+        FileUtils.forceMkdir(_chunkDir);
+        _fileManager = new GenericRowFileManager(_chunkDir, _fieldSpecs, _includeNullFields, 0);
+      }
+
+      void cleanUp() {
+        try {
+          _fileManager.cleanUp();
+        } catch (Exception e) {
+          LOGGER.warn("Caught exception while cleaning up chunk: {}", _chunkDir, e);
+        }
+        FileUtils.deleteQuietly(_chunkDir);
+      }
+    }
+  }
+
+  /**
+   * Segment name generator that appends the chunk id to the segment name generated by the delegate.
+   */
+  private static class ChunkSegmentNameGenerator implements SegmentNameGenerator {
+    final SegmentNameGenerator _delegate;
+    final int _chunkId;
+
+    ChunkSegmentNameGenerator(SegmentNameGenerator delegate, int chunkId) {
+      _delegate = delegate;
+      _chunkId = chunkId;
+    }
+
+    @Override
+    public String generateSegmentName(int sequenceId, @Nullable Object minTimeValue, @Nullable Object maxTimeValue) {
+      return JOINER.join(_delegate.generateSegmentName(sequenceId, minTimeValue, maxTimeValue), _chunkId);
+    }
+  }
 }
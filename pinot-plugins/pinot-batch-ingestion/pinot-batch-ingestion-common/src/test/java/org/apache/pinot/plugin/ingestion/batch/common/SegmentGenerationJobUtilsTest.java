@@ -20,7 +20,10 @@
 package org.apache.pinot.plugin.ingestion.batch.common;
 
 import com.google.common.collect.ImmutableMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import org.apache.pinot.spi.ingestion.batch.spec.SegmentNameGeneratorSpec;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -48,4 +51,26 @@ public class SegmentGenerationJobUtilsTest {
     spec.setConfigs(ImmutableMap.of("local.directory.sequence.id", "False"));
     Assert.assertTrue(SegmentGenerationJobUtils.useGlobalDirectorySequenceId(spec));
   }
+
+  @Test
+  public void testPackInputFiles() {
+    List<String> inputFiles = Arrays.asList("f1", "f2", "f3", "f4", "f5", "f6");
+    long[] inputFileSizes = new long[]{10, 20, 100, 30, 40, 50};
+
+    // No packing
+    List<List<String>> groups = SegmentGenerationJobUtils.packInputFiles(inputFiles, inputFileSizes, -1);
+    Assert.assertEquals(groups.size(), 6);
+    for (int i = 0; i < 6; i++) {
+      Assert.assertEquals(groups.get(i), Collections.singletonList(inputFiles.get(i)));
+    }
+
+    // Large file should be in its own group, small files should be packed up to the packing size
+    groups = SegmentGenerationJobUtils.packInputFiles(inputFiles, inputFileSizes, 70);
+    Assert.assertEquals(groups, Arrays
+        .asList(Arrays.asList("f1", "f2"), Collections.singletonList("f3"), Arrays.asList("f4", "f5"),
+            Collections.singletonList("f6")));
+
+    groups = SegmentGenerationJobUtils.packInputFiles(inputFiles, inputFileSizes, 1000);
+    Assert.assertEquals(groups, Collections.singletonList(inputFiles));
+  }
 }
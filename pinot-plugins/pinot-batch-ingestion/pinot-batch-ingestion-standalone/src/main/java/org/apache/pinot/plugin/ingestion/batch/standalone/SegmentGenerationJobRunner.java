@@ -31,10 +31,14 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.UUID;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.segment.generation.SegmentGenerationUtils;
 import org.apache.pinot.common.utils.TarGzCompressionUtils;
@@ -67,7 +71,10 @@ public class SegmentGenerationJobRunner implements IngestionJobRunner {
   private PinotFS _outputDirFS;
   private URI _inputDirURI;
   private URI _outputDirURI;
-  private CountDownLatch _segmentCreationTaskCountDownLatch;
+  // Futures of the submitted tasks, where the tasks might submit more tasks (segment creation for the input chunks)
+  private final Queue<Future<?>> _submittedTasks = new ConcurrentLinkedQueue<>();
+  private final AtomicLong _numInputBytes = new AtomicLong();
+  private final AtomicInteger _numSegments = new AtomicInteger();
   private Schema _schema;
   private TableConfig _tableConfig;
 
@@ -195,10 +202,10 @@ public class SegmentGenerationJobRunner implements IngestionJobRunner {
       }
     }
     File localTempDir = new File(FileUtils.getTempDirectory(), "pinot-" + UUID.randomUUID());
+    long packingSize =
+        _spec.getInputFilePackingSize() != null ? DataSizeUtils.toBytes(_spec.getInputFilePackingSize()) : -1;
+    long startTimeMs = System.currentTimeMillis();
     try {
-      int numInputFiles = filteredFiles.size();
-      _segmentCreationTaskCountDownLatch = new CountDownLatch(numInputFiles);
-
       if (!SegmentGenerationJobUtils.useGlobalDirectorySequenceId(_spec.getSegmentNameGeneratorSpec())) {
         Map<String, List<String>> localDirIndex = new HashMap<>();
         for (String filteredFile : filteredFiles) {
@@ -208,20 +215,32 @@ public class SegmentGenerationJobRunner implements IngestionJobRunner {
         for (String parentPath : localDirIndex.keySet()) {
           List<String> siblingFiles = localDirIndex.get(parentPath);
           Collections.sort(siblingFiles);
-          for (int i = 0; i < siblingFiles.size(); i++) {
-            URI inputFileURI = SegmentGenerationUtils
-                .getFileURI(siblingFiles.get(i), SegmentGenerationUtils.getDirectoryURI(parentPath));
-            submitSegmentGenTask(localTempDir, inputFileURI, i);
+          URI parentDirURI = SegmentGenerationUtils.getDirectoryURI(parentPath);
+          List<List<String>> inputFileGroups = SegmentGenerationJobUtils
+              .packInputFiles(siblingFiles, getInputFileSizes(siblingFiles, parentDirURI, packingSize), packingSize);
+          for (int i = 0; i < inputFileGroups.size(); i++) {
+            submitSegmentGenTask(localTempDir, getInputFileURIs(inputFileGroups.get(i), parentDirURI), i);
           }
         }
       } else {
         //iterate on the file list, for each
-        for (int i = 0; i < numInputFiles; i++) {
-          final URI inputFileURI = SegmentGenerationUtils.getFileURI(filteredFiles.get(i), _inputDirURI);
-          submitSegmentGenTask(localTempDir, inputFileURI, i);
+        List<List<String>> inputFileGroups = SegmentGenerationJobUtils
+            .packInputFiles(filteredFiles, getInputFileSizes(filteredFiles, _inputDirURI, packingSize), packingSize);
+        for (int i = 0; i < inputFileGroups.size(); i++) {
+          submitSegmentGenTask(localTempDir, getInputFileURIs(inputFileGroups.get(i), _inputDirURI), i);
         }
       }
-      _segmentCreationTaskCountDownLatch.await();
+      Future<?> future;
+      while ((future = _submittedTasks.poll()) != null) {
+        future.get();
+      }
+      long timeMs = Math.max(System.currentTimeMillis() - startTimeMs, 1);
+      long numInputBytes = _numInputBytes.get();
+      int numSegments = _numSegments.get();
+      LOGGER.info(
+          "Generated {} segments from {} input files ({}) in {}ms, throughput: {}/s, {} segments/s", numSegments,
+          filteredFiles.size(), DataSizeUtils.fromBytes(numInputBytes), timeMs,
+          DataSizeUtils.fromBytes(numInputBytes * 1000 / timeMs), String.format("%.2f", numSegments * 1000.0 / timeMs));
     } finally {
       //clean up
       FileUtils.deleteQuietly(localTempDir);
@@ -229,7 +248,36 @@ public class SegmentGenerationJobRunner implements IngestionJobRunner {
     }
   }
 
-  private void submitSegmentGenTask(File localTempDir, URI inputFileURI, int seqId)
+  /**
+   * Returns the sizes of the input files when packing is enabled, or {@code null} otherwise.
+   */
+  private long[] getInputFileSizes(List<String> inputFiles, URI dirURI, long packingSize)
+      throws Exception {
+    if (packingSize <= 0) {
+      return null;
+    }
+    int numInputFiles = inputFiles.size();
+    long[] inputFileSizes = new long[numInputFiles];
+    for (int i = 0; i < numInputFiles; i++) {
+      inputFileSizes[i] = _inputDirFS.length(SegmentGenerationUtils.getFileURI(inputFiles.get(i), dirURI));
+    }
+    return inputFileSizes;
+  }
+
+  private static List<URI> getInputFileURIs(List<String> inputFiles, URI dirURI)
+      throws Exception {
+    List<URI> inputFileURIs = new ArrayList<>(inputFiles.size());
+    for (String inputFile : inputFiles) {
+      inputFileURIs.add(SegmentGenerationUtils.getFileURI(inputFile, dirURI));
+    }
+    return inputFileURIs;
+  }
+
+  private void submitTask(Runnable task) {
+    _submittedTasks.add(_executorService.submit(task));
+  }
+
+  private void submitSegmentGenTask(File localTempDir, List<URI> inputFileURIs, int seqId)
       throws Exception {
     //create localTempDir for input and output
     File localInputTempDir = new File(localTempDir, "input");
@@ -237,9 +285,16 @@ public class SegmentGenerationJobRunner implements IngestionJobRunner {
     File localOutputTempDir = new File(localTempDir, "output");
     FileUtils.forceMkdir(localOutputTempDir);
 
-    //copy input path to local
-    File localInputDataFile = new File(localInputTempDir, new File(inputFileURI.getPath()).getName());
-    _inputDirFS.copyToLocalFile(inputFileURI, localInputDataFile);
+    //copy input paths to local
+    List<File> localInputDataFiles = new ArrayList<>(inputFileURIs.size());
+    List<String> localInputDataFilePaths = new ArrayList<>(inputFileURIs.size());
+    for (URI inputFileURI : inputFileURIs) {
+      File localInputDataFile = new File(localInputTempDir, new File(inputFileURI.getPath()).getName());
+      _inputDirFS.copyToLocalFile(inputFileURI, localInputDataFile);
+      localInputDataFiles.add(localInputDataFile);
+      localInputDataFilePaths.add(localInputDataFile.getAbsolutePath());
+    }
+    URI inputFileURI = inputFileURIs.get(0);
 
     //create task spec
     SegmentGenerationTaskSpec taskSpec = new SegmentGenerationTaskSpec();
@@ -248,46 +303,76 @@ public class SegmentGenerationJobRunner implements IngestionJobRunner {
     taskSpec.setSchema(_schema);
     taskSpec.setTableConfig(_tableConfig);
     taskSpec.setSegmentNameGeneratorSpec(_spec.getSegmentNameGeneratorSpec());
-    taskSpec.setInputFilePath(localInputDataFile.getAbsolutePath());
+    if (localInputDataFilePaths.size() > 1) {
+      taskSpec.setPackedInputFilePaths(localInputDataFilePaths);
+    } else {
+      taskSpec.setInputFilePath(localInputDataFilePaths.get(0));
+    }
     taskSpec.setSequenceId(seqId);
     taskSpec.setFailOnEmptySegment(_spec.isFailOnEmptySegment());
+    taskSpec.setColumnParallelism(_spec.getSegmentCreationColumnParallelism());
+    taskSpec.setMaxNumRecordsPerSegment(_spec.getMaxNumRecordsPerSegment());
     taskSpec.setCustomProperty(BatchConfigProperties.INPUT_DATA_FILE_URI_KEY, inputFileURI.toString());
 
-    LOGGER.info("Submitting one Segment Generation Task for {}", inputFileURI);
-    _executorService.submit(() -> {
-      File localSegmentDir = null;
-      File localSegmentTarFile = null;
+    LOGGER.info("Submitting one Segment Generation Task for {}", inputFileURIs);
+    submitTask(() -> {
       try {
+        long inputBytes = 0;
+        for (File localInputDataFile : localInputDataFiles) {
+          inputBytes += localInputDataFile.length();
+        }
+        long startTimeMs = System.currentTimeMillis();
         //invoke segmentGenerationTask
         SegmentGenerationTaskRunner taskRunner = new SegmentGenerationTaskRunner(taskSpec);
-        String segmentName = taskRunner.run();
-        // Tar segment directory to compress file
-        localSegmentDir = new File(localOutputTempDir, segmentName);
-        String segmentTarFileName = URLEncoder.encode(segmentName + Constants.TAR_GZ_FILE_EXT, "UTF-8");
-        localSegmentTarFile = new File(localOutputTempDir, segmentTarFileName);
-        LOGGER.info("Tarring segment from: {} to: {}", localSegmentDir, localSegmentTarFile);
-        TarGzCompressionUtils.createTarGzFile(localSegmentDir, localSegmentTarFile);
-        long uncompressedSegmentSize = FileUtils.sizeOf(localSegmentDir);
-        long compressedSegmentSize = FileUtils.sizeOf(localSegmentTarFile);
-        LOGGER.info("Size for segment: {}, uncompressed: {}, compressed: {}", segmentName,
-            DataSizeUtils.fromBytes(uncompressedSegmentSize), DataSizeUtils.fromBytes(compressedSegmentSize));
-        //move segment to output PinotFS
-        URI outputSegmentTarURI =
-            SegmentGenerationUtils.getRelativeOutputPath(_inputDirURI, inputFileURI, _outputDirURI)
-                .resolve(segmentTarFileName);
-        if (!_spec.isOverwriteOutput() && _outputDirFS.exists(outputSegmentTarURI)) {
-          LOGGER.warn("Not overwrite existing output segment tar file: {}", _outputDirFS.exists(outputSegmentTarURI));
-        } else {
-          _outputDirFS.copyFromLocalFile(localSegmentTarFile, outputSegmentTarURI);
-        }
+        taskRunner.run(this::submitTask, segmentName -> moveSegmentToOutput(localOutputTempDir, segmentName,
+            inputFileURI)).whenComplete((v, t) -> {
+          if (t != null) {
+            LOGGER.error("Failed to generate Pinot segment for files - {}", inputFileURIs, t);
+          }
+        });
+        _numInputBytes.addAndGet(inputBytes);
+        long timeMs = Math.max(System.currentTimeMillis() - startTimeMs, 1);
+        LOGGER.info("Read {} input files ({}) in {}ms, throughput: {}/s", localInputDataFiles.size(),
+            DataSizeUtils.fromBytes(inputBytes), timeMs, DataSizeUtils.fromBytes(inputBytes * 1000 / timeMs));
       } catch (Exception e) {
-        LOGGER.error("Failed to generate Pinot segment for file - {}", inputFileURI, e);
+        LOGGER.error("Failed to generate Pinot segment for files - {}", inputFileURIs, e);
       } finally {
-        _segmentCreationTaskCountDownLatch.countDown();
-        FileUtils.deleteQuietly(localSegmentDir);
-        FileUtils.deleteQuietly(localSegmentTarFile);
-        FileUtils.deleteQuietly(localInputDataFile);
+        for (File localInputDataFile : localInputDataFiles) {
+          FileUtils.deleteQuietly(localInputDataFile);
+        }
       }
     });
   }
+
+  /**
+   * Tars the generated segment and moves it to the output directory.
+   */
+  private void moveSegmentToOutput(File localOutputTempDir, String segmentName, URI inputFileURI)
+      throws Exception {
+    // Tar segment directory to compress file
+    File localSegmentDir = new File(localOutputTempDir, segmentName);
+    String segmentTarFileName = URLEncoder.encode(segmentName + Constants.TAR_GZ_FILE_EXT, "UTF-8");
+    File localSegmentTarFile = new File(localOutputTempDir, segmentTarFileName);
+    try {
+      LOGGER.info("Tarring segment from: {} to: {}", localSegmentDir, localSegmentTarFile);
+      TarGzCompressionUtils.createTarGzFile(localSegmentDir, localSegmentTarFile);
+      long uncompressedSegmentSize = FileUtils.sizeOf(localSegmentDir);
+      long compressedSegmentSize = FileUtils.sizeOf(localSegmentTarFile);
+      LOGGER.info("Size for segment: {}, uncompressed: {}, compressed: {}", segmentName,
+          DataSizeUtils.fromBytes(uncompressedSegmentSize), DataSizeUtils.fromBytes(compressedSegmentSize));
+      //move segment to output PinotFS
+      URI outputSegmentTarURI =
+          SegmentGenerationUtils.getRelativeOutputPath(_inputDirURI, inputFileURI, _outputDirURI)
+              .resolve(segmentTarFileName);
+      if (!_spec.isOverwriteOutput() && _outputDirFS.exists(outputSegmentTarURI)) {
+        LOGGER.warn("Not overwrite existing output segment tar file: {}", _outputDirFS.exists(outputSegmentTarURI));
+      } else {
+        _outputDirFS.copyFromLocalFile(localSegmentTarFile, outputSegmentTarURI);
+      }
+      _numSegments.incrementAndGet();
+    } finally {
+      FileUtils.deleteQuietly(localSegmentDir);
+      FileUtils.deleteQuietly(localSegmentTarFile);
+    }
+  }
 }
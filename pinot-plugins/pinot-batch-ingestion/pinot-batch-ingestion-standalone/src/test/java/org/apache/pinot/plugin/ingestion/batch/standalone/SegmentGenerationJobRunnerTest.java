@@ -22,6 +22,7 @@ import com.google.common.collect.Lists;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Collections;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.plugin.inputformat.csv.CSVRecordReader;
@@ -65,6 +66,91 @@ public class SegmentGenerationJobRunnerTest {
     FileUtils.touch(new File(outputDir, outputFilename));
     FileUtils.touch(new File(outputDir, existingFilename));
     
+    SegmentGenerationJobSpec jobSpec = createJobSpec(testDir, inputDir, outputDir);
+    jobSpec.setOverwriteOutput(false);
+
+    SegmentGenerationJobRunner jobRunner = new SegmentGenerationJobRunner(jobSpec);
+    jobRunner.run();
+    
+    // The output directory should still have the original file in it.
+    File oldSegmentFile = new File(outputDir, existingFilename);
+    Assert.assertTrue(oldSegmentFile.exists());
+
+    // The output directory should have the original file in it (since we aren't overwriting)
+    File newSegmentFile = new File(outputDir, outputFilename);
+    Assert.assertTrue(newSegmentFile.exists());
+    Assert.assertTrue(newSegmentFile.isFile());
+    Assert.assertTrue(newSegmentFile.length() == 0);
+    
+    // Now run again, but this time with overwriting of output files, and confirm we got a valid segment file.
+    jobSpec.setOverwriteOutput(true);
+    jobRunner = new SegmentGenerationJobRunner(jobSpec);
+    jobRunner.run();
+
+    // The original file should still be there.
+    Assert.assertTrue(oldSegmentFile.exists());
+
+    Assert.assertTrue(newSegmentFile.exists());
+    Assert.assertTrue(newSegmentFile.isFile());
+    Assert.assertTrue(newSegmentFile.length() > 0);
+
+    // FUTURE - validate contents of file?
+    }
+
+  @Test
+  public void testSegmentGenerationWithSplitAndPacking()
+      throws Exception {
+    File testDir = Files.createTempDirectory("testSegmentGenerationWithSplitAndPacking-").toFile();
+    File inputDir = new File(testDir, "input");
+    inputDir.mkdirs();
+    FileUtils.writeLines(new File(inputDir, "input1.csv"),
+        Lists.newArrayList("col1,col2", "value1,1", "value2,2", "value3,3", "value4,4", "value5,5"));
+    FileUtils.writeLines(new File(inputDir, "input2.csv"), Lists.newArrayList("col1,col2", "value6,6"));
+    FileUtils.writeLines(new File(inputDir, "input3.csv"), Lists.newArrayList("col1,col2", "value7,7"));
+    File outputDir = new File(testDir, "output");
+
+    // All the input files should be packed into one group, which is split into 3 segments
+    SegmentGenerationJobSpec jobSpec = createJobSpec(testDir, inputDir, outputDir);
+    jobSpec.setInputFilePackingSize("1M");
+    jobSpec.setMaxNumRecordsPerSegment(3);
+    new SegmentGenerationJobRunner(jobSpec).run();
+
+    String[] outputFiles = outputDir.list();
+    Assert.assertNotNull(outputFiles);
+    Arrays.sort(outputFiles);
+    Assert.assertEquals(outputFiles, new String[]{
+        "myTable_OFFLINE_0_0.tar.gz", "myTable_OFFLINE_0_1.tar.gz", "myTable_OFFLINE_0_2.tar.gz"
+    });
+    for (String outputFile : outputFiles) {
+      Assert.assertTrue(new File(outputDir, outputFile).length() > 0);
+    }
+    FileUtils.deleteQuietly(testDir);
+  }
+
+  @Test
+  public void testSegmentGenerationWithSplitFailure()
+      throws Exception {
+    File testDir = Files.createTempDirectory("testSegmentGenerationWithSplitFailure-").toFile();
+    File inputDir = new File(testDir, "input");
+    inputDir.mkdirs();
+    // The invalid value in the last row fails the task after the first 2 chunks are submitted
+    FileUtils.writeLines(new File(inputDir, "input.csv"),
+        Lists.newArrayList("col1,col2", "value1,1", "value2,2", "value3,3", "value4,4", "value5,5", "value6,6",
+            "value7,7", "value8,invalid"));
+    File outputDir = new File(testDir, "output");
+
+    // No partial segments should be left in the output directory
+    SegmentGenerationJobSpec jobSpec = createJobSpec(testDir, inputDir, outputDir);
+    jobSpec.setMaxNumRecordsPerSegment(3);
+    new SegmentGenerationJobRunner(jobSpec).run();
+
+    String[] outputFiles = outputDir.list();
+    Assert.assertTrue(outputFiles == null || outputFiles.length == 0);
+    FileUtils.deleteQuietly(testDir);
+  }
+
+  private SegmentGenerationJobSpec createJobSpec(File testDir, File inputDir, File outputDir)
+      throws Exception {
     // Set up schema file.
     final String schemaName = "mySchema";
     File schemaFile = new File(testDir, "schema");
@@ -88,7 +174,6 @@ public class SegmentGenerationJobRunnerTest {
     jobSpec.setJobType("SegmentCreation");
     jobSpec.setInputDirURI(inputDir.toURI().toString());
     jobSpec.setOutputDirURI(outputDir.toURI().toString());
-    jobSpec.setOverwriteOutput(false);
     
     RecordReaderSpec recordReaderSpec = new RecordReaderSpec();
     recordReaderSpec.setDataFormat("csv");
@@ -112,31 +197,6 @@ public class SegmentGenerationJobRunnerTest {
     pfsSpec.setClassName(LocalPinotFS.class.getName());
     jobSpec.setPinotFSSpecs(Collections.singletonList(pfsSpec));
     
-    SegmentGenerationJobRunner jobRunner = new SegmentGenerationJobRunner(jobSpec);
-    jobRunner.run();
-    
-    // The output directory should still have the original file in it.
-    File oldSegmentFile = new File(outputDir, existingFilename);
-    Assert.assertTrue(oldSegmentFile.exists());
-
-    // The output directory should have the original file in it (since we aren't overwriting)
-    File newSegmentFile = new File(outputDir, outputFilename);
-    Assert.assertTrue(newSegmentFile.exists());
-    Assert.assertTrue(newSegmentFile.isFile());
-    Assert.assertTrue(newSegmentFile.length() == 0);
-    
-    // Now run again, but this time with overwriting of output files, and confirm we got a valid segment file.
-    jobSpec.setOverwriteOutput(true);
-    jobRunner = new SegmentGenerationJobRunner(jobSpec);
-    jobRunner.run();
-
-    // The original file should still be there.
-    Assert.assertTrue(oldSegmentFile.exists());
-
-    Assert.assertTrue(newSegmentFile.exists());
-    Assert.assertTrue(newSegmentFile.isFile());
-    Assert.assertTrue(newSegmentFile.length() > 0);
-
-    // FUTURE - validate contents of file?
-    }
+    return jobSpec;
+  }
 }
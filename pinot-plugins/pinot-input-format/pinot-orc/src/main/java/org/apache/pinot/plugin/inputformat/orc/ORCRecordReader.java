@@ -22,6 +22,7 @@ import com.google.common.base.Preconditions;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,8 +43,9 @@ import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.orc.OrcFile;
 import org.apache.orc.Reader;
 import org.apache.orc.TypeDescription;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
 import org.apache.pinot.spi.data.readers.GenericRow;
-import org.apache.pinot.spi.data.readers.RecordReader;
 import org.apache.pinot.spi.data.readers.RecordReaderConfig;
 import org.apache.pinot.spi.utils.StringUtils;
 
@@ -62,8 +64,10 @@ import org.apache.pinot.spi.utils.StringUtils;
  *   <li>LIST -> Object[] of the supported types</li> TODO: -> List?
  *   <li>MAP -> Map of the supported types</li>
  * </ul>
+ * <p>Records can also be read in batches ({@link #nextBatch(ColumnarBatch)}), where the ORC column vectors of the
+ * single-value fields are copied into primitive value arrays directly.
  */
-public class ORCRecordReader implements RecordReader {
+public class ORCRecordReader implements ColumnarRecordReader {
   private List<String> _orcFields;
   private List<TypeDescription> _orcFieldTypes;
   private boolean[] _includeOrcFields;
@@ -367,6 +371,124 @@ public class ORCRecordReader implements RecordReader {
     }
   }
 
+  @Override
+  public boolean isColumnarBatchSupported() {
+    return true;
+  }
+
+  @Override
+  public ColumnarBatch nextBatch(ColumnarBatch reuse)
+      throws IOException {
+    reuse.clear();
+    int numRows = _rowBatch.size - _nextRowId;
+    int numFields = _orcFields.size();
+    for (int i = 0; i < numFields; i++) {
+      if (_includeOrcFields[i]) {
+        extractColumn(_orcFields.get(i), _rowBatch.cols[i], _orcFieldTypes.get(i), _nextRowId, numRows, reuse);
+      }
+    }
+    reuse.setNumRows(numRows);
+
+    _hasNext = _orcRecordReader.nextBatch(_rowBatch);
+    _nextRowId = 0;
+    return reuse;
+  }
+
+  /**
+   * Extracts the values of the given rows from a column vector into the columnar batch. Single-value fields are copied
+   * into primitive value arrays, and other fields are extracted into an Object[] the same way as for the rows.
+   */
+  private void extractColumn(String field, ColumnVector columnVector, TypeDescription fieldType, int startRowId,
+      int numRows, ColumnarBatch batch) {
+    TypeDescription.Category category = fieldType.getCategory();
+    boolean[] nulls = null;
+    if (!columnVector.noNulls) {
+      nulls = new boolean[numRows];
+      for (int i = 0; i < numRows; i++) {
+        nulls[i] = columnVector.isNull[columnVector.isRepeating ? 0 : startRowId + i];
+      }
+    }
+    switch (category) {
+      case BYTE:
+      case SHORT:
+      case INT: {
+        long[] vector = ((LongColumnVector) columnVector).vector;
+        int[] values = batch.getOrCreateValues(field, int[].class, numRows);
+        for (int i = 0; i < numRows; i++) {
+          values[i] = (int) vector[columnVector.isRepeating ? 0 : startRowId + i];
+        }
+        batch.putValues(field, values, nulls);
+        break;
+      }
+      case LONG:
+      case DATE:
+      case TIMESTAMP: {
+        long[] vector = category == TypeDescription.Category.TIMESTAMP ? ((TimestampColumnVector) columnVector).time
+            : ((LongColumnVector) columnVector).vector;
+        long[] values = batch.getOrCreateValues(field, long[].class, numRows);
+        if (columnVector.isRepeating) {
+          Arrays.fill(values, 0, numRows, vector[0]);
+        } else {
+          System.arraycopy(vector, startRowId, values, 0, numRows);
+        }
+        batch.putValues(field, values, nulls);
+        break;
+      }
+      case FLOAT: {
+        double[] vector = ((DoubleColumnVector) columnVector).vector;
+        float[] values = batch.getOrCreateValues(field, float[].class, numRows);
+        for (int i = 0; i < numRows; i++) {
+          values[i] = (float) vector[columnVector.isRepeating ? 0 : startRowId + i];
+        }
+        batch.putValues(field, values, nulls);
+        break;
+      }
+      case DOUBLE: {
+        double[] vector = ((DoubleColumnVector) columnVector).vector;
+        double[] values = batch.getOrCreateValues(field, double[].class, numRows);
+        if (columnVector.isRepeating) {
+          Arrays.fill(values, 0, numRows, vector[0]);
+        } else {
+          System.arraycopy(vector, startRowId, values, 0, numRows);
+        }
+        batch.putValues(field, values, nulls);
+        break;
+      }
+      case BOOLEAN:
+      case STRING:
+      case VARCHAR:
+      case CHAR: {
+        String[] values = batch.getOrCreateValues(field, String[].class, numRows);
+        for (int i = 0; i < numRows; i++) {
+          if (nulls == null || !nulls[i]) {
+            values[i] = (String) extractSingleValue(field, columnVector, startRowId + i, category);
+          }
+        }
+        batch.putValues(field, values, nulls);
+        break;
+      }
+      case BINARY: {
+        byte[][] values = batch.getOrCreateValues(field, byte[][].class, numRows);
+        for (int i = 0; i < numRows; i++) {
+          if (nulls == null || !nulls[i]) {
+            values[i] = (byte[]) extractSingleValue(field, columnVector, startRowId + i, category);
+          }
+        }
+        batch.putValues(field, values, nulls);
+        break;
+      }
+      default: {
+        // LIST, MAP, STRUCT
+        Object[] values = batch.getOrCreateValues(field, Object[].class, numRows);
+        for (int i = 0; i < numRows; i++) {
+          values[i] = extractValue(field, columnVector, fieldType, startRowId + i);
+        }
+        batch.putValues(field, values, null);
+        break;
+      }
+    }
+  }
+
   @Override
   public void rewind()
       throws IOException {
@@ -32,9 +32,16 @@ import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.orc.OrcFile;
 import org.apache.orc.TypeDescription;
 import org.apache.orc.Writer;
+import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.readers.AbstractRecordReaderTest;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
 import org.apache.pinot.spi.data.readers.RecordReader;
 import org.apache.pinot.spi.utils.StringUtils;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 
 public class ORCRecordReaderTest extends AbstractRecordReaderTest {
@@ -141,4 +148,40 @@ public class ORCRecordReaderTest extends AbstractRecordReaderTest {
     }
     writer.close();
   }
+
+  @Test
+  public void testReadColumnarBatches()
+      throws Exception {
+    ORCRecordReader orcRecordReader = new ORCRecordReader();
+    orcRecordReader.init(_dataFile, _sourceFields, null);
+    assertTrue(orcRecordReader.isColumnarBatchSupported());
+    ColumnarBatch batch = new ColumnarBatch();
+    int numRecordsRead = 0;
+    while (orcRecordReader.hasNext()) {
+      batch = orcRecordReader.nextBatch(batch);
+      int numRows = batch.getNumRows();
+      assertTrue(numRows > 0);
+      for (int i = 0; i < numRows; i++) {
+        Map<String, Object> expectedRecord = _records.get(numRecordsRead + i);
+        for (FieldSpec fieldSpec : _pinotSchema.getAllFieldSpecs()) {
+          if (fieldSpec.isSingleValueField()) {
+            String column = fieldSpec.getName();
+            assertFalse(batch.isNullValue(column, i));
+            assertEquals(batch.getValue(column, i), expectedRecord.get(column));
+          }
+        }
+      }
+      numRecordsRead += numRows;
+    }
+    assertEquals(numRecordsRead, SAMPLE_RECORDS_SIZE);
+
+    // Rewind and read again
+    orcRecordReader.rewind();
+    numRecordsRead = 0;
+    while (orcRecordReader.hasNext()) {
+      numRecordsRead += orcRecordReader.nextBatch(batch).getNumRows();
+    }
+    assertEquals(numRecordsRead, SAMPLE_RECORDS_SIZE);
+    orcRecordReader.close();
+  }
 }
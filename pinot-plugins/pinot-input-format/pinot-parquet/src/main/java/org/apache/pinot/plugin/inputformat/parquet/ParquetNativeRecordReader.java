@@ -20,10 +20,17 @@ package org.apache.pinot.plugin.inputformat.parquet;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
 import org.apache.parquet.column.page.PageReadStore;
 import org.apache.parquet.example.data.Group;
 import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
@@ -32,16 +39,27 @@ import org.apache.parquet.hadoop.ParquetFileReader;
 import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 import org.apache.parquet.io.ColumnIOFactory;
 import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.schema.DecimalMetadata;
 import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
 import org.apache.pinot.spi.data.readers.GenericRow;
-import org.apache.pinot.spi.data.readers.RecordReader;
 import org.apache.pinot.spi.data.readers.RecordReaderConfig;
+import org.joda.time.DateTimeConstants;
 
 
 /**
  * Record reader for Native Parquet file.
+ * <p>When all the fields to read are non-repeated primitive fields, records can also be read in batches
+ * ({@link #nextBatch(ColumnarBatch)}), where the column pages are decoded into primitive value arrays directly without
+ * assembling the Parquet records.
  */
-public class ParquetNativeRecordReader implements RecordReader {
+public class ParquetNativeRecordReader implements ColumnarRecordReader {
+  private static final int MAX_NUM_ROWS_PER_BATCH = 10_000;
+
   private Path _dataFilePath;
   private ParquetNativeRecordExtractor _recordExtractor;
   private MessageType _schema;
@@ -52,6 +70,9 @@ public class ParquetNativeRecordReader implements RecordReader {
   private MessageColumnIO _columnIO;
   private org.apache.parquet.io.RecordReader _parquetRecordReader;
   private int _currentPageIdx;
+  // Columns to read in batches, or null if batches are not supported
+  private List<ColumnDescriptor> _batchColumns;
+  private ColumnReader[] _batchColumnReaders;
 
   @Override
   public void init(File dataFile, @Nullable Set<String> fieldsToRead, @Nullable RecordReaderConfig recordReaderConfig)
@@ -62,15 +83,34 @@ public class ParquetNativeRecordReader implements RecordReader {
     _recordExtractor = new ParquetNativeRecordExtractor();
     _recordExtractor.init(fieldsToRead, null);
     _schema = _parquetMetadata.getFileMetaData().getSchema();
+    _batchColumns = getBatchColumns(_schema, fieldsToRead);
     _parquetFileReader =
         new ParquetFileReader(conf, _parquetMetadata.getFileMetaData(), _dataFilePath, _parquetMetadata.getBlocks(),
             _schema.getColumns());
     _pageReadStore = _parquetFileReader.readNextRowGroup();
     _columnIO = new ColumnIOFactory().getColumnIO(_schema);
-    _parquetRecordReader = _columnIO.getRecordReader(_pageReadStore, new GroupRecordConverter(_schema));
     _currentPageIdx = 0;
   }
 
+  /**
+   * Returns the columns to read in batches, or {@code null} if any field to read is not a non-repeated primitive field.
+   * Fields that do not exist in the file are skipped.
+   */
+  @Nullable
+  private static List<ColumnDescriptor> getBatchColumns(MessageType schema, @Nullable Set<String> fieldsToRead) {
+    List<ColumnDescriptor> batchColumns = new ArrayList<>();
+    for (Type field : schema.getFields()) {
+      if (fieldsToRead != null && !fieldsToRead.isEmpty() && !fieldsToRead.contains(field.getName())) {
+        continue;
+      }
+      if (!field.isPrimitive() || field.isRepetition(Type.Repetition.REPEATED)) {
+        return null;
+      }
+      batchColumns.add(schema.getColumnDescription(new String[]{field.getName()}));
+    }
+    return batchColumns;
+  }
+
   @Override
   public boolean hasNext() {
     if (_pageReadStore == null) {
@@ -83,10 +123,11 @@ public class ParquetNativeRecordReader implements RecordReader {
     try {
       _pageReadStore = _parquetFileReader.readNextRowGroup();
       _currentPageIdx = 0;
+      _parquetRecordReader = null;
+      _batchColumnReaders = null;
       if (_pageReadStore == null) {
         return false;
       }
-      _parquetRecordReader = _columnIO.getRecordReader(_pageReadStore, new GroupRecordConverter(_schema));
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -102,12 +143,183 @@ public class ParquetNativeRecordReader implements RecordReader {
   @Override
   public GenericRow next(GenericRow reuse)
       throws IOException {
+    // NOTE: Create the record reader lazily because it starts reading the pages of the row group
+    if (_parquetRecordReader == null) {
+      _parquetRecordReader = _columnIO.getRecordReader(_pageReadStore, new GroupRecordConverter(_schema));
+    }
     _nextRecord = (Group) _parquetRecordReader.read();
     _recordExtractor.extract(_nextRecord, reuse);
     _currentPageIdx++;
     return reuse;
   }
 
+  @Override
+  public boolean isColumnarBatchSupported() {
+    return _batchColumns != null;
+  }
+
+  @Override
+  public ColumnarBatch nextBatch(ColumnarBatch reuse)
+      throws IOException {
+    reuse.clear();
+    int numColumns = _batchColumns.size();
+    if (_batchColumnReaders == null) {
+      ColumnReadStoreImpl columnReadStore =
+          new ColumnReadStoreImpl(_pageReadStore, new GroupRecordConverter(_schema).getRootConverter(), _schema,
+              _parquetMetadata.getFileMetaData().getCreatedBy());
+      _batchColumnReaders = new ColumnReader[numColumns];
+      for (int i = 0; i < numColumns; i++) {
+        _batchColumnReaders[i] = columnReadStore.getColumnReader(_batchColumns.get(i));
+      }
+    }
+    int numRows = (int) Math.min(_pageReadStore.getRowCount() - _currentPageIdx, MAX_NUM_ROWS_PER_BATCH);
+    for (int i = 0; i < numColumns; i++) {
+      readColumn(_batchColumns.get(i), _batchColumnReaders[i], numRows, reuse);
+    }
+    reuse.setNumRows(numRows);
+    _currentPageIdx += numRows;
+    return reuse;
+  }
+
+  /**
+   * Decodes the values of the next rows of a column into the columnar batch. The values are converted the same way as
+   * {@link ParquetNativeRecordExtractor} does for the rows.
+   */
+  private static void readColumn(ColumnDescriptor column, ColumnReader columnReader, int numRows,
+      ColumnarBatch batch) {
+    String field = column.getPath()[0];
+    PrimitiveType primitiveType = column.getPrimitiveType();
+    int maxDefinitionLevel = column.getMaxDefinitionLevel();
+    boolean[] nulls = null;
+    Object values;
+    switch (primitiveType.getPrimitiveTypeName()) {
+      case INT32: {
+        int[] intValues = batch.getOrCreateValues(field, int[].class, numRows);
+        for (int i = 0; i < numRows; i++) {
+          if (columnReader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+            intValues[i] = columnReader.getInteger();
+          } else {
+            nulls = markNull(nulls, i, numRows);
+          }
+          columnReader.consume();
+        }
+        values = intValues;
+        break;
+      }
+      case INT64: {
+        long[] longValues = batch.getOrCreateValues(field, long[].class, numRows);
+        for (int i = 0; i < numRows; i++) {
+          if (columnReader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+            longValues[i] = columnReader.getLong();
+          } else {
+            nulls = markNull(nulls, i, numRows);
+          }
+          columnReader.consume();
+        }
+        values = longValues;
+        break;
+      }
+      case INT96: {
+        long[] longValues = batch.getOrCreateValues(field, long[].class, numRows);
+        for (int i = 0; i < numRows; i++) {
+          if (columnReader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+            ByteBuffer buf = ByteBuffer.wrap(columnReader.getBinary().getBytes()).order(ByteOrder.LITTLE_ENDIAN);
+            longValues[i] = (buf.getInt(8) - ParquetNativeRecordExtractor.JULIAN_DAY_NUMBER_FOR_UNIX_EPOCH)
+                * DateTimeConstants.MILLIS_PER_DAY
+                + buf.getLong(0) / ParquetNativeRecordExtractor.NANOS_PER_MILLISECOND;
+          } else {
+            nulls = markNull(nulls, i, numRows);
+          }
+          columnReader.consume();
+        }
+        values = longValues;
+        break;
+      }
+      case FLOAT: {
+        float[] floatValues = batch.getOrCreateValues(field, float[].class, numRows);
+        for (int i = 0; i < numRows; i++) {
+          if (columnReader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+            floatValues[i] = columnReader.getFloat();
+          } else {
+            nulls = markNull(nulls, i, numRows);
+          }
+          columnReader.consume();
+        }
+        values = floatValues;
+        break;
+      }
+      case DOUBLE: {
+        double[] doubleValues = batch.getOrCreateValues(field, double[].class, numRows);
+        for (int i = 0; i < numRows; i++) {
+          if (columnReader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+            doubleValues[i] = columnReader.getDouble();
+          } else {
+            nulls = markNull(nulls, i, numRows);
+          }
+          columnReader.consume();
+        }
+        values = doubleValues;
+        break;
+      }
+      case BOOLEAN: {
+        String[] stringValues = batch.getOrCreateValues(field, String[].class, numRows);
+        for (int i = 0; i < numRows; i++) {
+          if (columnReader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+            stringValues[i] = Boolean.toString(columnReader.getBoolean());
+          } else {
+            nulls = markNull(nulls, i, numRows);
+          }
+          columnReader.consume();
+        }
+        values = stringValues;
+        break;
+      }
+      case BINARY:
+      case FIXED_LEN_BYTE_ARRAY: {
+        OriginalType originalType = primitiveType.getOriginalType();
+        Object[] objectValues;
+        if (originalType == OriginalType.UTF8) {
+          objectValues = batch.getOrCreateValues(field, String[].class, numRows);
+        } else if (originalType == OriginalType.DECIMAL) {
+          objectValues = batch.getOrCreateValues(field, Object[].class, numRows);
+        } else {
+          objectValues = batch.getOrCreateValues(field, byte[][].class, numRows);
+        }
+        DecimalMetadata decimalMetadata = primitiveType.getDecimalMetadata();
+        for (int i = 0; i < numRows; i++) {
+          if (columnReader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+            if (originalType == OriginalType.UTF8) {
+              objectValues[i] = columnReader.getBinary().toStringUsingUTF8();
+            } else if (originalType == OriginalType.DECIMAL) {
+              objectValues[i] = ParquetNativeRecordExtractor
+                  .binaryToDecimal(columnReader.getBinary(), decimalMetadata.getPrecision(),
+                      decimalMetadata.getScale());
+            } else {
+              objectValues[i] = columnReader.getBinary().getBytes();
+            }
+          } else {
+            nulls = markNull(nulls, i, numRows);
+          }
+          columnReader.consume();
+        }
+        values = objectValues;
+        break;
+      }
+      default:
+        throw new IllegalStateException(
+            "Unsupported field type: " + primitiveType.getPrimitiveTypeName() + " for field: " + field);
+    }
+    batch.putValues(field, values, nulls);
+  }
+
+  private static boolean[] markNull(@Nullable boolean[] nulls, int rowId, int numRows) {
+    if (nulls == null) {
+      nulls = new boolean[numRows];
+    }
+    nulls[rowId] = true;
+    return nulls;
+  }
+
   @Override
   public void rewind()
       throws IOException {
@@ -117,7 +329,8 @@ public class ParquetNativeRecordReader implements RecordReader {
         new ParquetFileReader(conf, _parquetMetadata.getFileMetaData(), _dataFilePath, _parquetMetadata.getBlocks(),
             _schema.getColumns());
     _pageReadStore = _parquetFileReader.readNextRowGroup();
-    _parquetRecordReader = _columnIO.getRecordReader(_pageReadStore, new GroupRecordConverter(_schema));
+    _parquetRecordReader = null;
+    _batchColumnReaders = null;
     _currentPageIdx = 0;
   }
 
@@ -22,6 +22,8 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Set;
 import javax.annotation.Nullable;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.data.readers.RecordReader;
 import org.apache.pinot.spi.data.readers.RecordReaderConfig;
@@ -30,8 +32,9 @@ import org.apache.pinot.spi.data.readers.RecordReaderConfig;
 /**
  * Pinot Record reader for Parquet file.<p>
  * It has two implementations: {@link ParquetAvroRecordReader} (Default) and {@link ParquetNativeRecordReader}.
+ * Columnar batches are only supported with the {@link ParquetNativeRecordReader}.
  */
-public class ParquetRecordReader implements RecordReader {
+public class ParquetRecordReader implements ColumnarRecordReader {
   private RecordReader _internalParquetRecordReader;
   private boolean _useAvroParquetRecordReader = true;
 
@@ -64,6 +67,18 @@ public class ParquetRecordReader implements RecordReader {
     return _internalParquetRecordReader.next(reuse);
   }
 
+  @Override
+  public boolean isColumnarBatchSupported() {
+    return _internalParquetRecordReader instanceof ColumnarRecordReader
+        && ((ColumnarRecordReader) _internalParquetRecordReader).isColumnarBatchSupported();
+  }
+
+  @Override
+  public ColumnarBatch nextBatch(ColumnarBatch reuse)
+      throws IOException {
+    return ((ColumnarRecordReader) _internalParquetRecordReader).nextBatch(reuse);
+  }
+
   @Override
   public void rewind()
       throws IOException {
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
@@ -32,6 +33,7 @@ import org.apache.parquet.hadoop.ParquetWriter;
 import org.apache.pinot.plugin.inputformat.avro.AvroUtils;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.readers.AbstractRecordReaderTest;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.data.readers.RecordReader;
 import org.testng.Assert;
@@ -99,6 +101,48 @@ public class ParquetRecordReaderTest extends AbstractRecordReaderTest {
     testReadParquetFile(nativeRecordReader, SAMPLE_RECORDS_SIZE);
   }
 
+  @Test
+  public void testParquetNativeColumnarBatches()
+      throws IOException {
+    // Columnar batches are only supported for primitive fields
+    ParquetNativeRecordReader nativeRecordReader = new ParquetNativeRecordReader();
+    nativeRecordReader.init(_dataFile, ImmutableSet.of(), new ParquetRecordReaderConfig());
+    Assert.assertFalse(nativeRecordReader.isColumnarBatchSupported());
+    nativeRecordReader.close();
+
+    Set<String> singleValueFields = ImmutableSet.of("dim_sv_int", "dim_sv_long", "dim_sv_float", "dim_sv_double",
+        "dim_sv_string", "met_int", "met_long", "met_float", "met_double");
+    ParquetRecordReader batchRecordReader = new ParquetRecordReader();
+    ParquetRecordReaderConfig parquetRecordReaderConfig = new ParquetRecordReaderConfig();
+    parquetRecordReaderConfig.setUseParquetAvroRecordReader(false);
+    batchRecordReader.init(_dataFile, singleValueFields, parquetRecordReaderConfig);
+    Assert.assertTrue(batchRecordReader.isColumnarBatchSupported());
+    ParquetRecordReader rowRecordReader = new ParquetRecordReader();
+    rowRecordReader.init(_dataFile, singleValueFields, parquetRecordReaderConfig);
+
+    ColumnarBatch batch = new ColumnarBatch();
+    GenericRow reuse = new GenericRow();
+    int recordsRead = 0;
+    while (batchRecordReader.hasNext()) {
+      batch = batchRecordReader.nextBatch(batch);
+      int numRows = batch.getNumRows();
+      Assert.assertTrue(numRows > 0);
+      for (int i = 0; i < numRows; i++) {
+        Assert.assertTrue(rowRecordReader.hasNext());
+        reuse.clear();
+        GenericRow row = rowRecordReader.next(reuse);
+        for (String field : singleValueFields) {
+          Assert.assertEquals(batch.getValue(field, i), row.getValue(field));
+        }
+      }
+      recordsRead += numRows;
+    }
+    Assert.assertFalse(rowRecordReader.hasNext());
+    Assert.assertEquals(recordsRead, SAMPLE_RECORDS_SIZE);
+    batchRecordReader.close();
+    rowRecordReader.close();
+  }
+
   @Test
   public void testComparison()
       throws IOException {
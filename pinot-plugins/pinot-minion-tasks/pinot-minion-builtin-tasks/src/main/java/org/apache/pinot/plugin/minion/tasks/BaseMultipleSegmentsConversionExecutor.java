@@ -177,13 +177,15 @@ public abstract class BaseMultipleSegmentsConversionExecutor extends BaseTaskExe
         // Set parameters for upload request
         NameValuePair enableParallelPushProtectionParameter =
             new BasicNameValuePair(FileUploadDownloadClient.QueryParameters.ENABLE_PARALLEL_PUSH_PROTECTION, "true");
+        // NOTE: Output segments might be uploaded to a different table (e.g. rollup table) than the input segments
+        String resultTableNameWithType = segmentConversionResult.getTableNameWithType();
         NameValuePair tableNameParameter = new BasicNameValuePair(FileUploadDownloadClient.QueryParameters.TABLE_NAME,
-            TableNameBuilder.extractRawTableName(tableNameWithType));
+            TableNameBuilder.extractRawTableName(resultTableNameWithType));
         List<NameValuePair> parameters = Arrays.asList(enableParallelPushProtectionParameter, tableNameParameter);
 
         SegmentConversionUtils
-            .uploadSegment(configs, FileUploadDownloadClient.makeAuthHeader(authToken), parameters, tableNameWithType,
-                resultSegmentName, uploadURL, convertedTarredSegmentFile);
+            .uploadSegment(configs, FileUploadDownloadClient.makeAuthHeader(authToken), parameters,
+                resultTableNameWithType, resultSegmentName, uploadURL, convertedTarredSegmentFile);
       }
 
       // Update the segment lineage to indicate that the segment replacement is done.
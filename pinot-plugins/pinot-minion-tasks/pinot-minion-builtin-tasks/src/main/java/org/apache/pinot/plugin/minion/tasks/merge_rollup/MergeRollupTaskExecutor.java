@@ -26,17 +26,23 @@ import java.util.List;
 import java.util.Map;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.metadata.segment.SegmentZKMetadataCustomMapModifier;
+import org.apache.pinot.common.minion.RollupTableSpec;
 import org.apache.pinot.core.common.MinionConstants;
 import org.apache.pinot.core.minion.PinotTaskConfig;
 import org.apache.pinot.core.segment.processing.framework.MergeType;
 import org.apache.pinot.core.segment.processing.framework.SegmentConfig;
 import org.apache.pinot.core.segment.processing.framework.SegmentProcessorConfig;
 import org.apache.pinot.core.segment.processing.framework.SegmentProcessorFramework;
+import org.apache.pinot.core.segment.processing.transformer.RecordTransformerConfig;
 import org.apache.pinot.plugin.minion.tasks.BaseMultipleSegmentsConversionExecutor;
 import org.apache.pinot.plugin.minion.tasks.SegmentConversionResult;
 import org.apache.pinot.segment.spi.AggregationFunctionType;
 import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.DateTimeFieldSpec;
+import org.apache.pinot.spi.data.DateTimeFieldSpec.TimeFormat;
+import org.apache.pinot.spi.data.DateTimeFormatSpec;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,11 +50,14 @@ import org.slf4j.LoggerFactory;
 /**
  * Task executor that provides merge and rollup service
  *
+ * <p>When the rollup table is configured in the task configs, the input segments are kept in the source table, and
+ * the rolled-up copy (time values rounded to the time buckets of the {@link RollupTableSpec}) is uploaded to the rollup
+ * table.
+ *
  * TODO:
- *   1. Add the support for roll-up
- *   2. Add the support for time split to provide backfill support for merged segments
- *   3. Add merge/rollup name prefixes for generated segments
- *   4. Add the support for realtime table
+ *   1. Add the support for time split to provide backfill support for merged segments
+ *   2. Add merge/rollup name prefixes for generated segments
+ *   3. Add the support for realtime table
  */
 public class MergeRollupTaskExecutor extends BaseMultipleSegmentsConversionExecutor {
   private static final Logger LOGGER = LoggerFactory.getLogger(MergeRollupTaskExecutor.class);
@@ -64,23 +73,44 @@ public class MergeRollupTaskExecutor extends BaseMultipleSegmentsConversionExecu
     LOGGER.info("Starting task: {} with configs: {}", taskType, configs);
     long startMillis = System.currentTimeMillis();
 
-    Preconditions.checkState(
-        MergeType.CONCAT.name().equalsIgnoreCase(configs.get(MinionConstants.MergeRollupTask.MERGE_TYPE_KEY)),
-        "Only 'CONCAT' mode is currently supported.");
-
     String tableNameWithType = configs.get(MinionConstants.TABLE_NAME_KEY);
-    TableConfig tableConfig = getTableConfig(tableNameWithType);
-    Schema schema = getSchema(tableNameWithType);
+    String rollupTableName = configs.get(MinionConstants.MergeRollupTask.ROLLUP_TABLE_NAME_KEY);
+    String outputTableNameWithType;
+    SegmentProcessorConfig.Builder segmentProcessorConfigBuilder;
+    if (rollupTableName == null) {
+      String mergeTypeString = configs.get(MinionConstants.MergeRollupTask.MERGE_TYPE_KEY);
+      Preconditions.checkState(mergeTypeString != null, "Merge type must be configured for task: %s", taskType);
+      MergeType mergeType = MergeType.valueOf(mergeTypeString.toUpperCase());
+      Preconditions.checkState(mergeType == MergeType.CONCAT || mergeType == MergeType.ROLLUP,
+          "Only 'CONCAT' and 'ROLLUP' modes are currently supported.");
 
-    Map<String, AggregationFunctionType> aggregationTypes = MergeRollupTaskUtils.getRollupAggregationTypes(configs);
-    String numRecordsPerSegmentString = configs.get(MinionConstants.MergeRollupTask.MAX_NUM_RECORDS_PER_SEGMENT);
-
-    SegmentProcessorConfig.Builder segmentProcessorConfigBuilder =
-        new SegmentProcessorConfig.Builder().setTableConfig(tableConfig).setSchema(schema)
-            .setMergeType(MergeType.CONCAT);
-    if (!aggregationTypes.isEmpty()) {
-      segmentProcessorConfigBuilder.setAggregationTypes(aggregationTypes);
+      outputTableNameWithType = tableNameWithType;
+      segmentProcessorConfigBuilder =
+          new SegmentProcessorConfig.Builder().setTableConfig(getTableConfig(tableNameWithType))
+              .setSchema(getSchema(tableNameWithType)).setMergeType(mergeType);
+      Map<String, AggregationFunctionType> aggregationTypes = MergeRollupTaskUtils.getRollupAggregationTypes(configs);
+      if (!aggregationTypes.isEmpty()) {
+        segmentProcessorConfigBuilder.setAggregationTypes(aggregationTypes);
+      }
+    } else {
+      // Keep the input segments in the source table, and upload the rolled-up copy to the rollup table
+      Preconditions.checkState(!Boolean.parseBoolean(configs.get(MinionConstants.ENABLE_REPLACE_SEGMENTS_KEY)),
+          "Segments cannot be replaced when uploading to rollup table: %s", rollupTableName);
+      outputTableNameWithType = TableNameBuilder.OFFLINE.tableNameWithType(rollupTableName);
+      TableConfig rollupTableConfig = getTableConfig(outputTableNameWithType);
+      RollupTableSpec rollupTableSpec = RollupTableSpec.fromTableConfig(rollupTableConfig);
+      Preconditions.checkState(rollupTableSpec != null && rollupTableSpec.getSourceTableName()
+              .equals(TableNameBuilder.extractRawTableName(tableNameWithType)),
+          "Table: %s is not configured as rollup table of table: %s", outputTableNameWithType, tableNameWithType);
+      Schema rollupSchema = getSchema(outputTableNameWithType);
+      segmentProcessorConfigBuilder =
+          new SegmentProcessorConfig.Builder().setTableConfig(rollupTableConfig).setSchema(rollupSchema)
+              .setMergeType(MergeType.ROLLUP).setAggregationTypes(rollupTableSpec.getAggregationTypes())
+              .setRecordTransformerConfig(getTimeBucketTransformerConfig(rollupTableConfig, rollupSchema,
+                  rollupTableSpec));
     }
+
+    String numRecordsPerSegmentString = configs.get(MinionConstants.MergeRollupTask.MAX_NUM_RECORDS_PER_SEGMENT);
     if (numRecordsPerSegmentString != null) {
       segmentProcessorConfigBuilder.setSegmentConfig(
           new SegmentConfig.Builder().setMaxNumRecordsPerSegment(Integer.parseInt(numRecordsPerSegmentString)).build());
@@ -112,16 +142,49 @@ public class MergeRollupTaskExecutor extends BaseMultipleSegmentsConversionExecu
     for (File file : outputSegmentsDir.listFiles()) {
       String outputSegmentName = file.getName();
       results.add(new SegmentConversionResult.Builder().setFile(file).setSegmentName(outputSegmentName)
-          .setTableNameWithType(tableNameWithType).build());
+          .setTableNameWithType(outputTableNameWithType).build());
     }
     return results;
   }
 
+  /**
+   * Returns the {@link RecordTransformerConfig} that rounds the time values down to the start of the rollup time
+   * buckets. Only EPOCH time format with the time bucket being a multiple of the time unit is supported.
+   */
+  private static RecordTransformerConfig getTimeBucketTransformerConfig(TableConfig rollupTableConfig,
+      Schema rollupSchema, RollupTableSpec rollupTableSpec) {
+    String timeColumn = rollupTableConfig.getValidationConfig().getTimeColumnName();
+    Preconditions.checkState(timeColumn != null, "Time column must be configured for rollup table: %s",
+        rollupTableConfig.getTableName());
+    DateTimeFieldSpec timeFieldSpec = rollupSchema.getSpecForTimeColumn(timeColumn);
+    Preconditions.checkState(timeFieldSpec != null, "Failed to find field spec for time column: %s", timeColumn);
+    DateTimeFormatSpec timeFormatSpec = new DateTimeFormatSpec(timeFieldSpec.getFormat());
+    Preconditions.checkState(timeFormatSpec.getTimeFormat() == TimeFormat.EPOCH,
+        "Only EPOCH time format is supported for rollup, got: %s", timeFormatSpec.getFormat());
+    long timeUnitMs = timeFormatSpec.getColumnUnit().toMillis(timeFormatSpec.getColumnSize());
+    long bucketMs = rollupTableSpec.getBucketMs();
+    Preconditions.checkState(timeUnitMs <= bucketMs && bucketMs % timeUnitMs == 0,
+        "Time unit of format: %s is not compatible with rollup granularity: %s", timeFormatSpec.getFormat(),
+        rollupTableSpec.getGranularity());
+    String roundFunction = String.format("round(%s, %d)", timeColumn, bucketMs / timeUnitMs);
+    return new RecordTransformerConfig.Builder()
+        .setTransformFunctionsMap(Collections.singletonMap(timeColumn, roundFunction)).build();
+  }
+
   @Override
   protected SegmentZKMetadataCustomMapModifier getSegmentZKMetadataCustomMapModifier(PinotTaskConfig pinotTaskConfig,
       SegmentConversionResult segmentConversionResult) {
+    String granularity = pinotTaskConfig.getConfigs().get(MinionConstants.MergeRollupTask.GRANULARITY_KEY);
+    if (granularity == null) {
+      // Use the granularity of the rollup table
+      RollupTableSpec rollupTableSpec =
+          RollupTableSpec.fromTableConfig(getTableConfig(segmentConversionResult.getTableNameWithType()));
+      Preconditions.checkState(rollupTableSpec != null, "Granularity must be configured for task: %s",
+          pinotTaskConfig.getTaskType());
+      granularity = rollupTableSpec.getGranularity().name();
+    }
     return new SegmentZKMetadataCustomMapModifier(SegmentZKMetadataCustomMapModifier.ModifyMode.UPDATE, Collections
         .singletonMap(MinionConstants.MergeRollupTask.TASK_TYPE + MinionConstants.TASK_BUCKET_GRANULARITY_SUFFIX,
-            pinotTaskConfig.getConfigs().get(MinionConstants.MergeRollupTask.GRANULARITY_KEY).toUpperCase()));
+            granularity.toUpperCase()));
   }
 }
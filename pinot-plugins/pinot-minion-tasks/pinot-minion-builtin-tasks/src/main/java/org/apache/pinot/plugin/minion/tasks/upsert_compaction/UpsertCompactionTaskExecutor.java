@@ -0,0 +1,215 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.plugin.minion.tasks.upsert_compaction;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadataCustomMapModifier;
+import org.apache.pinot.common.utils.FileUploadDownloadClient;
+import org.apache.pinot.core.common.MinionConstants;
+import org.apache.pinot.core.common.MinionConstants.UpsertCompactionTask;
+import org.apache.pinot.core.minion.PinotTaskConfig;
+import org.apache.pinot.plugin.minion.tasks.BaseSingleSegmentConversionExecutor;
+import org.apache.pinot.plugin.minion.tasks.SegmentConversionResult;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.PinotSegmentRecordReader;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.RecordReader;
+import org.apache.pinot.spi.data.readers.RecordReaderConfig;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Task executor for {@link UpsertCompactionTask}.
+ * <p>The executor fetches the valid doc ids of the segment from all the servers hosting it, and rebuilds the segment
+ * with the same name by keeping only the docs valid on any of the replicas (in the original doc order). A doc can
+ * never become valid again once it is invalidated, so the union of the valid doc ids from the replicas contains all
+ * the docs that are still valid when the compacted segment replaces the original one.
+ * <p>The compacted segment is uploaded with the CRC of the original segment in the IF-MATCH header, and the servers
+ * replace the segment the same way as reloading it, where the upsert metadata is updated to point to the new segment.
+ */
+public class UpsertCompactionTaskExecutor extends BaseSingleSegmentConversionExecutor {
+  private static final Logger LOGGER = LoggerFactory.getLogger(UpsertCompactionTaskExecutor.class);
+
+  public static final String NUM_RECORDS_REMOVED_KEY = "numRecordsRemoved";
+
+  @Override
+  protected SegmentConversionResult convert(PinotTaskConfig pinotTaskConfig, File indexDir, File workingDir)
+      throws Exception {
+    Map<String, String> configs = pinotTaskConfig.getConfigs();
+    String tableNameWithType = configs.get(MinionConstants.TABLE_NAME_KEY);
+    String segmentName = configs.get(MinionConstants.SEGMENT_NAME_KEY);
+    String originalSegmentCrc = configs.get(MinionConstants.ORIGINAL_SEGMENT_CRC_KEY);
+    TableConfig tableConfig = getTableConfig(tableNameWithType);
+
+    SegmentMetadataImpl segmentMetadata = new SegmentMetadataImpl(indexDir);
+    int totalDocs = segmentMetadata.getTotalDocs();
+    MutableRoaringBitmap validDocIds = fetchValidDocIds(tableNameWithType, segmentName, originalSegmentCrc,
+        configs.get(UpsertCompactionTask.SERVER_ADMIN_ENDPOINTS_KEY), workingDir);
+    int numValidDocs = validDocIds.getCardinality();
+    Preconditions.checkState(numValidDocs > 0, "No valid doc in segment: %s of table: %s", segmentName,
+        tableNameWithType);
+    Preconditions.checkState(validDocIds.last() < totalDocs,
+        "Valid doc ids do not match segment: %s of table: %s with %s docs", segmentName, tableNameWithType,
+        totalDocs);
+    int numRecordsRemoved = totalDocs - numValidDocs;
+    if (numRecordsRemoved == 0) {
+      LOGGER.info("No invalid record in segment: {} of table: {}, skip compacting", segmentName, tableNameWithType);
+      return new SegmentConversionResult.Builder().setFile(indexDir).setTableNameWithType(tableNameWithType)
+          .setSegmentName(segmentName).setCustomProperty(NUM_RECORDS_REMOVED_KEY, 0).build();
+    }
+
+    LOGGER.info("Start compacting segment: {} of table: {}, keeping {} out of {} records", segmentName,
+        tableNameWithType, numValidDocs, totalDocs);
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(tableConfig, segmentMetadata.getSchema());
+    config.setOutDir(workingDir.getPath());
+    config.setSegmentName(segmentName);
+    // Keep index creation time the same as original segment because both segments use the same raw data.
+    config.setCreationTime(String.valueOf(segmentMetadata.getIndexCreationTime()));
+    // Keep segment start/end time to properly handle time column type other than EPOCH (e.g.SIMPLE_FORMAT).
+    if (segmentMetadata.getTimeInterval() != null) {
+      config.setTimeColumnName(tableConfig.getValidationConfig().getTimeColumnName());
+      config.setStartTime(Long.toString(segmentMetadata.getStartTime()));
+      config.setEndTime(Long.toString(segmentMetadata.getEndTime()));
+      config.setSegmentTimeUnit(segmentMetadata.getTimeUnit());
+    }
+    try (CompactedRecordReader compactedRecordReader = new CompactedRecordReader(indexDir, validDocIds)) {
+      SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+      driver.init(config, compactedRecordReader);
+      driver.build();
+    }
+    LOGGER.info("Finished compacting segment: {} of table: {}, removed {} records", segmentName, tableNameWithType,
+        numRecordsRemoved);
+
+    return new SegmentConversionResult.Builder().setFile(new File(workingDir, segmentName))
+        .setTableNameWithType(tableNameWithType).setSegmentName(segmentName)
+        .setCustomProperty(NUM_RECORDS_REMOVED_KEY, numRecordsRemoved).build();
+  }
+
+  /**
+   * Fetches the valid doc ids of the segment from all the given servers, and returns the union of them. Servers with
+   * a different copy of the segment (CRC mismatch) reject the request and are skipped.
+   */
+  private static MutableRoaringBitmap fetchValidDocIds(String tableNameWithType, String segmentName,
+      String originalSegmentCrc, @Nullable String serverAdminEndpoints, File workingDir)
+      throws Exception {
+    Preconditions.checkState(StringUtils.isNotEmpty(serverAdminEndpoints),
+        "No server to fetch valid doc ids for segment: %s of table: %s", segmentName, tableNameWithType);
+    MutableRoaringBitmap validDocIds = null;
+    File validDocIdsFile = new File(workingDir, segmentName + ".validDocIds");
+    try (FileUploadDownloadClient fileUploadDownloadClient = new FileUploadDownloadClient(
+        MINION_CONTEXT.getSSLContext())) {
+      for (String serverAdminEndpoint : StringUtils.split(serverAdminEndpoints, MinionConstants.URL_SEPARATOR)) {
+        URI uri = new URI(serverAdminEndpoint + "/segments/" + tableNameWithType + "/" + segmentName
+            + "/validDocIds?crc=" + originalSegmentCrc);
+        try {
+          fileUploadDownloadClient.downloadFile(uri, validDocIdsFile);
+          ImmutableRoaringBitmap bitmap =
+              new ImmutableRoaringBitmap(ByteBuffer.wrap(Files.readAllBytes(validDocIdsFile.toPath())));
+          if (validDocIds == null) {
+            validDocIds = bitmap.toMutableRoaringBitmap();
+          } else {
+            validDocIds.or(bitmap);
+          }
+        } catch (Exception e) {
+          LOGGER.warn("Caught exception while fetching valid doc ids for segment: {} of table: {} from: {}",
+              segmentName, tableNameWithType, serverAdminEndpoint, e);
+        } finally {
+          Files.deleteIfExists(validDocIdsFile.toPath());
+        }
+      }
+    }
+    Preconditions.checkState(validDocIds != null, "Failed to fetch valid doc ids for segment: %s of table: %s",
+        segmentName, tableNameWithType);
+    return validDocIds;
+  }
+
+  @Override
+  protected SegmentZKMetadataCustomMapModifier getSegmentZKMetadataCustomMapModifier(
+      PinotTaskConfig pinotTaskConfig, SegmentConversionResult segmentConversionResult) {
+    return new SegmentZKMetadataCustomMapModifier(SegmentZKMetadataCustomMapModifier.ModifyMode.UPDATE, Collections
+        .singletonMap(UpsertCompactionTask.TASK_TYPE + MinionConstants.TASK_TIME_SUFFIX,
+            String.valueOf(System.currentTimeMillis())));
+  }
+
+  /**
+   * Record reader that only reads the valid docs from the segment in the original doc order.
+   */
+  private static class CompactedRecordReader implements RecordReader {
+    private final PinotSegmentRecordReader _pinotSegmentRecordReader;
+    private final MutableRoaringBitmap _validDocIds;
+    private PeekableIntIterator _validDocIdsIterator;
+
+    CompactedRecordReader(File indexDir, MutableRoaringBitmap validDocIds) {
+      _pinotSegmentRecordReader = new PinotSegmentRecordReader();
+      _pinotSegmentRecordReader.init(indexDir, null, null);
+      _validDocIds = validDocIds;
+      _validDocIdsIterator = validDocIds.getIntIterator();
+    }
+
+    @Override
+    public void init(File dataFile, @Nullable Set<String> fieldsToRead,
+        @Nullable RecordReaderConfig recordReaderConfig) {
+    }
+
+    @Override
+    public boolean hasNext() {
+      return _validDocIdsIterator.hasNext();
+    }
+
+    @Override
+    public GenericRow next() {
+      return next(new GenericRow());
+    }
+
+    @Override
+    public GenericRow next(GenericRow reuse) {
+      _pinotSegmentRecordReader.getRecord(reuse, _validDocIdsIterator.next());
+      return reuse;
+    }
+
+    @Override
+    public void rewind() {
+      _validDocIdsIterator = _validDocIds.getIntIterator();
+    }
+
+    @Override
+    public void close()
+        throws IOException {
+      _pinotSegmentRecordReader.close();
+    }
+  }
+}
@@ -0,0 +1,264 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.plugin.minion.tasks.upsert_compaction;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.pinot.common.data.Segment;
+import org.apache.pinot.common.metadata.segment.LLCRealtimeSegmentZKMetadata;
+import org.apache.pinot.common.restlet.resources.ValidDocIdsMetadataInfo;
+import org.apache.pinot.common.utils.FileUploadDownloadClient;
+import org.apache.pinot.controller.helix.core.minion.ClusterInfoAccessor;
+import org.apache.pinot.controller.helix.core.minion.generator.PinotTaskGenerator;
+import org.apache.pinot.controller.helix.core.minion.generator.TaskGeneratorUtils;
+import org.apache.pinot.core.common.MinionConstants;
+import org.apache.pinot.core.common.MinionConstants.UpsertCompactionTask;
+import org.apache.pinot.core.minion.PinotTaskConfig;
+import org.apache.pinot.spi.annotations.minion.TaskGenerator;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableTaskConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.config.table.UpsertConfig;
+import org.apache.pinot.spi.utils.CommonConstants.Segment.Realtime.Status;
+import org.apache.pinot.spi.utils.JsonUtils;
+import org.apache.pinot.spi.utils.TimeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Task generator for {@link UpsertCompactionTask}.
+ * <p>The generator fetches the valid doc ids metadata of the committed segments from the servers hosting the upsert
+ * enabled REALTIME table, and schedules a task for each segment committed before the buffer time period with the
+ * number/percentage of the invalid records above the thresholds. Segments with the most invalid records are scheduled
+ * first.
+ */
+@TaskGenerator
+public class UpsertCompactionTaskGenerator implements PinotTaskGenerator {
+  private static final Logger LOGGER = LoggerFactory.getLogger(UpsertCompactionTaskGenerator.class);
+
+  private static final String DEFAULT_BUFFER_PERIOD = "7d";
+  private static final double DEFAULT_INVALID_RECORDS_THRESHOLD_PERCENT = 30.0;
+  private static final long DEFAULT_INVALID_RECORDS_THRESHOLD_COUNT = 0;
+
+  private ClusterInfoAccessor _clusterInfoAccessor;
+
+  @Override
+  public void init(ClusterInfoAccessor clusterInfoAccessor) {
+    _clusterInfoAccessor = clusterInfoAccessor;
+  }
+
+  @Override
+  public String getTaskType() {
+    return UpsertCompactionTask.TASK_TYPE;
+  }
+
+  @Override
+  public List<PinotTaskConfig> generateTasks(List<TableConfig> tableConfigs) {
+    String taskType = UpsertCompactionTask.TASK_TYPE;
+    List<PinotTaskConfig> pinotTaskConfigs = new ArrayList<>();
+
+    // Get the segments that are being compacted so that we don't submit them again
+    Set<Segment> runningSegments = TaskGeneratorUtils.getRunningSegments(taskType, _clusterInfoAccessor);
+
+    try (FileUploadDownloadClient fileUploadDownloadClient = new FileUploadDownloadClient()) {
+      for (TableConfig tableConfig : tableConfigs) {
+        String realtimeTableName = tableConfig.getTableName();
+        if (tableConfig.getTableType() != TableType.REALTIME
+            || tableConfig.getUpsertMode() == UpsertConfig.Mode.NONE) {
+          LOGGER.warn("Skip generating task: {} for non-upsert table: {}", taskType, realtimeTableName);
+          continue;
+        }
+        LOGGER.info("Start generating task configs for table: {} for task: {}", realtimeTableName, taskType);
+
+        TableTaskConfig tableTaskConfig = tableConfig.getTaskConfig();
+        Preconditions.checkState(tableTaskConfig != null);
+        Map<String, String> taskConfigs = tableTaskConfig.getConfigsForTaskType(taskType);
+        Preconditions.checkState(taskConfigs != null, "Task config shouldn't be null for table: %s", realtimeTableName);
+
+        long bufferMs = TimeUtils.convertPeriodToMillis(
+            taskConfigs.getOrDefault(UpsertCompactionTask.BUFFER_TIME_PERIOD_KEY, DEFAULT_BUFFER_PERIOD));
+        double invalidRecordsThresholdPercent = getDoubleConfig(taskConfigs,
+            UpsertCompactionTask.INVALID_RECORDS_THRESHOLD_PERCENT_KEY, DEFAULT_INVALID_RECORDS_THRESHOLD_PERCENT);
+        long invalidRecordsThresholdCount = (long) getDoubleConfig(taskConfigs,
+            UpsertCompactionTask.INVALID_RECORDS_THRESHOLD_COUNT_KEY, DEFAULT_INVALID_RECORDS_THRESHOLD_COUNT);
+        int tableMaxNumTasks = (int) getDoubleConfig(taskConfigs, MinionConstants.TABLE_MAX_NUM_TASKS_KEY,
+            Integer.MAX_VALUE);
+
+        // Only compact the committed segments that are not being compacted
+        long bufferEndMs = System.currentTimeMillis() - bufferMs;
+        Map<String, LLCRealtimeSegmentZKMetadata> candidateSegments = new HashMap<>();
+        for (LLCRealtimeSegmentZKMetadata segmentZKMetadata : _clusterInfoAccessor
+            .getLLCRealtimeSegmentsMetadata(realtimeTableName)) {
+          String segmentName = segmentZKMetadata.getSegmentName();
+          if (segmentZKMetadata.getStatus() != Status.IN_PROGRESS && segmentZKMetadata.getDownloadUrl() != null
+              && segmentZKMetadata.getCreationTime() <= bufferEndMs && !runningSegments
+              .contains(new Segment(realtimeTableName, segmentName))) {
+            candidateSegments.put(segmentName, segmentZKMetadata);
+          }
+        }
+        if (candidateSegments.isEmpty()) {
+          LOGGER.info("No segment to compact for table: {}, skipping task generation: {}", realtimeTableName,
+              taskType);
+          continue;
+        }
+
+        Map<String, SegmentCompactionInfo> segmentCompactionInfoMap;
+        try {
+          segmentCompactionInfoMap =
+              getSegmentCompactionInfoMap(fileUploadDownloadClient, realtimeTableName, candidateSegments);
+        } catch (Exception e) {
+          LOGGER.warn("Caught exception while fetching valid doc ids metadata for table: {}, skipping task "
+              + "generation: {}", realtimeTableName, taskType, e);
+          continue;
+        }
+        List<SegmentCompactionInfo> segmentsToCompact =
+            getSegmentsToCompact(segmentCompactionInfoMap.values(), invalidRecordsThresholdPercent,
+                invalidRecordsThresholdCount);
+        int numTasks = Math.min(segmentsToCompact.size(), tableMaxNumTasks);
+        for (int i = 0; i < numTasks; i++) {
+          SegmentCompactionInfo segmentCompactionInfo = segmentsToCompact.get(i);
+          LLCRealtimeSegmentZKMetadata segmentZKMetadata = candidateSegments.get(segmentCompactionInfo._segmentName);
+          Map<String, String> configs = new HashMap<>();
+          configs.put(MinionConstants.TABLE_NAME_KEY, realtimeTableName);
+          configs.put(MinionConstants.SEGMENT_NAME_KEY, segmentCompactionInfo._segmentName);
+          configs.put(MinionConstants.DOWNLOAD_URL_KEY, segmentZKMetadata.getDownloadUrl());
+          configs.put(MinionConstants.UPLOAD_URL_KEY, _clusterInfoAccessor.getVipUrl() + "/segments");
+          configs.put(MinionConstants.ORIGINAL_SEGMENT_CRC_KEY, String.valueOf(segmentZKMetadata.getCrc()));
+          configs.put(UpsertCompactionTask.SERVER_ADMIN_ENDPOINTS_KEY,
+              String.join(MinionConstants.URL_SEPARATOR, segmentCompactionInfo._serverAdminEndpoints));
+          pinotTaskConfigs.add(new PinotTaskConfig(taskType, configs));
+        }
+        LOGGER.info("Finished generating {} tasks configs for table: {} for task: {}", numTasks, realtimeTableName,
+            taskType);
+      }
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while generating task: {}", taskType, e);
+    }
+    return pinotTaskConfigs;
+  }
+
+  /**
+   * Fetches the valid doc ids metadata for the candidate segments from all the servers hosting them. Only the metadata
+   * with CRC matching the segment ZK metadata is used. When replicas report different number of valid docs, the
+   * largest one is used to be conservative.
+   */
+  private Map<String, SegmentCompactionInfo> getSegmentCompactionInfoMap(
+      FileUploadDownloadClient fileUploadDownloadClient, String realtimeTableName,
+      Map<String, LLCRealtimeSegmentZKMetadata> candidateSegments)
+      throws Exception {
+    Map<String, List<String>> serverToSegmentsMap = _clusterInfoAccessor.getServerToSegmentsMap(realtimeTableName);
+    Map<String, String> serverToEndpointMap =
+        _clusterInfoAccessor.getServerAdminEndpoints(serverToSegmentsMap.keySet());
+    Map<String, SegmentCompactionInfo> segmentCompactionInfoMap = new HashMap<>();
+    for (Map.Entry<String, String> entry : serverToEndpointMap.entrySet()) {
+      String server = entry.getKey();
+      String endpoint = entry.getValue();
+      List<ValidDocIdsMetadataInfo> validDocIdsMetadataInfoList;
+      try {
+        String response = fileUploadDownloadClient
+            .sendGetRequest(new URI(endpoint + "/tables/" + realtimeTableName + "/validDocIdsMetadata"))
+            .getResponse();
+        validDocIdsMetadataInfoList =
+            JsonUtils.stringToObject(response, new TypeReference<List<ValidDocIdsMetadataInfo>>() {
+            });
+      } catch (Exception e) {
+        LOGGER.warn("Caught exception while fetching valid doc ids metadata from server: {} for table: {}", server,
+            realtimeTableName, e);
+        continue;
+      }
+      for (ValidDocIdsMetadataInfo validDocIdsMetadataInfo : validDocIdsMetadataInfoList) {
+        String segmentName = validDocIdsMetadataInfo.getSegmentName();
+        LLCRealtimeSegmentZKMetadata segmentZKMetadata = candidateSegments.get(segmentName);
+        if (segmentZKMetadata == null || !Long.toString(segmentZKMetadata.getCrc())
+            .equals(validDocIdsMetadataInfo.getCrc())) {
+          continue;
+        }
+        SegmentCompactionInfo segmentCompactionInfo =
+            segmentCompactionInfoMap.computeIfAbsent(segmentName, k -> new SegmentCompactionInfo(segmentName));
+        segmentCompactionInfo.addReplica(endpoint, validDocIdsMetadataInfo.getTotalDocs(),
+            validDocIdsMetadataInfo.getTotalValidDocs());
+      }
+    }
+    return segmentCompactionInfoMap;
+  }
+
+  /**
+   * Returns the segments with invalid records above the thresholds, sorted by the number of invalid records in
+   * descending order. Segments without any valid record are skipped because they cannot be compacted into a new
+   * segment.
+   */
+  @VisibleForTesting
+  static List<SegmentCompactionInfo> getSegmentsToCompact(Iterable<SegmentCompactionInfo> segmentCompactionInfos,
+      double invalidRecordsThresholdPercent, long invalidRecordsThresholdCount) {
+    List<SegmentCompactionInfo> segmentsToCompact = new ArrayList<>();
+    for (SegmentCompactionInfo segmentCompactionInfo : segmentCompactionInfos) {
+      int totalDocs = segmentCompactionInfo._totalDocs;
+      int numInvalidDocs = totalDocs - segmentCompactionInfo._maxValidDocs;
+      if (numInvalidDocs > 0 && numInvalidDocs < totalDocs && numInvalidDocs >= invalidRecordsThresholdCount
+          && numInvalidDocs * 100.0 >= totalDocs * invalidRecordsThresholdPercent) {
+        segmentsToCompact.add(segmentCompactionInfo);
+      }
+    }
+    segmentsToCompact.sort(Comparator.comparingInt(SegmentCompactionInfo::getNumInvalidDocs).reversed());
+    return segmentsToCompact;
+  }
+
+  private static double getDoubleConfig(Map<String, String> taskConfigs, String key, double defaultValue) {
+    String value = taskConfigs.get(key);
+    if (value != null) {
+      try {
+        return Double.parseDouble(value);
+      } catch (Exception e) {
+        LOGGER.warn("Invalid value: {} for config: {}, using default value: {}", value, key, defaultValue);
+      }
+    }
+    return defaultValue;
+  }
+
+  @VisibleForTesting
+  static class SegmentCompactionInfo {
+    final String _segmentName;
+    final List<String> _serverAdminEndpoints = new ArrayList<>();
+    int _totalDocs;
+    int _maxValidDocs;
+
+    SegmentCompactionInfo(String segmentName) {
+      _segmentName = segmentName;
+    }
+
+    void addReplica(String serverAdminEndpoint, int totalDocs, int numValidDocs) {
+      _serverAdminEndpoints.add(serverAdminEndpoint);
+      _totalDocs = totalDocs;
+      _maxValidDocs = Math.max(_maxValidDocs, numValidDocs);
+    }
+
+    int getNumInvalidDocs() {
+      return _totalDocs - _maxValidDocs;
+    }
+  }
+}
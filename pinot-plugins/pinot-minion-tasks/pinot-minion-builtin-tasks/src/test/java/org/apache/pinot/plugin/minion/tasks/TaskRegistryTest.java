@@ -29,6 +29,8 @@ import org.apache.pinot.plugin.minion.tasks.realtime_to_offline_segments.Realtim
 import org.apache.pinot.plugin.minion.tasks.realtime_to_offline_segments.RealtimeToOfflineSegmentsTaskGenerator;
 import org.apache.pinot.plugin.minion.tasks.segment_generation_and_push.SegmentGenerationAndPushTaskExecutorFactory;
 import org.apache.pinot.plugin.minion.tasks.segment_generation_and_push.SegmentGenerationAndPushTaskGenerator;
+import org.apache.pinot.plugin.minion.tasks.upsert_compaction.UpsertCompactionTaskExecutorFactory;
+import org.apache.pinot.plugin.minion.tasks.upsert_compaction.UpsertCompactionTaskGenerator;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -41,6 +43,7 @@ public class TaskRegistryTest {
     Assert.assertTrue(classes.contains(ConvertToRawIndexTaskGenerator.class));
     Assert.assertTrue(classes.contains(SegmentGenerationAndPushTaskGenerator.class));
     Assert.assertTrue(classes.contains(RealtimeToOfflineSegmentsTaskGenerator.class));
+    Assert.assertTrue(classes.contains(UpsertCompactionTaskGenerator.class));
   }
 
   @Test
@@ -52,5 +55,6 @@ public class TaskRegistryTest {
     Assert.assertTrue(classes.contains(PurgeTaskExecutorFactory.class));
     Assert.assertTrue(classes.contains(SegmentGenerationAndPushTaskExecutorFactory.class));
     Assert.assertTrue(classes.contains(RealtimeToOfflineSegmentsTaskExecutorFactory.class));
+    Assert.assertTrue(classes.contains(UpsertCompactionTaskExecutorFactory.class));
   }
 }
@@ -23,10 +23,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.io.FileUtils;
 import org.apache.helix.AccessOption;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.apache.pinot.common.minion.RollupTableSpec;
 import org.apache.pinot.common.utils.SchemaUtils;
 import org.apache.pinot.common.utils.config.TableConfigUtils;
 import org.apache.pinot.core.common.MinionConstants;
@@ -38,6 +40,7 @@ import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
 import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
 import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
 import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableCustomConfig;
 import org.apache.pinot.spi.config.table.TableType;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
@@ -59,7 +62,12 @@ public class MergeRollupTaskExecutorTest {
   private static final int NUM_ROWS = 5;
   private static final String MERGED_SEGMENT_NAME = "testTable_0";
   private static final String TABLE_NAME = "testTable";
+  private static final String ROLLUP_TABLE_NAME = "testTable_daily";
   private static final String D1 = "d1";
+  private static final String M1 = "m1";
+  private static final String TIME_COLUMN = "ts";
+  private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+  private static final long START_MS = 18990 * DAY_MS;
 
   private List<File> _segmentIndexDirList;
 
@@ -68,12 +76,17 @@ public class MergeRollupTaskExecutorTest {
       throws Exception {
     FileUtils.deleteDirectory(TEMP_DIR);
     TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME).build();
-    Schema schema = new Schema.SchemaBuilder().addSingleValueDimension(D1, FieldSpec.DataType.INT).build();
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(TABLE_NAME)
+        .addSingleValueDimension(D1, FieldSpec.DataType.INT).addMetric(M1, FieldSpec.DataType.LONG)
+        .addDateTime(TIME_COLUMN, FieldSpec.DataType.LONG, "1:MILLISECONDS:EPOCH", "1:MILLISECONDS").build();
 
     List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
     for (int i = 0; i < NUM_ROWS; i++) {
       GenericRow row = new GenericRow();
       row.putValue(D1, i);
+      row.putValue(M1, 1L);
+      // Spread the rows across 2 days
+      row.putValue(TIME_COLUMN, START_MS + (i % 2) * DAY_MS + TimeUnit.HOURS.toMillis(i));
       rows.add(row);
     }
 
@@ -98,6 +111,20 @@ public class MergeRollupTaskExecutorTest {
         .thenReturn(TableConfigUtils.toZNRecord(tableConfig));
     Mockito.when(helixPropertyStore.get("/SCHEMAS/testTable", null, AccessOption.PERSISTENT))
         .thenReturn(SchemaUtils.toZNRecord(schema));
+
+    // Rollup table of the table
+    TableConfig rollupTableConfig = getRollupTableConfig(ROLLUP_TABLE_NAME, TABLE_NAME);
+    Schema rollupSchema = new Schema.SchemaBuilder().setSchemaName(ROLLUP_TABLE_NAME)
+        .addSingleValueDimension(D1, FieldSpec.DataType.INT).addMetric(M1, FieldSpec.DataType.LONG)
+        .addDateTime(TIME_COLUMN, FieldSpec.DataType.LONG, "1:MILLISECONDS:EPOCH", "1:MILLISECONDS").build();
+    Mockito.when(helixPropertyStore.get("/CONFIGS/TABLE/testTable_daily_OFFLINE", null, AccessOption.PERSISTENT))
+        .thenReturn(TableConfigUtils.toZNRecord(rollupTableConfig));
+    Mockito.when(helixPropertyStore.get("/SCHEMAS/testTable_daily", null, AccessOption.PERSISTENT))
+        .thenReturn(SchemaUtils.toZNRecord(rollupSchema));
+
+    // Rollup table of another table
+    Mockito.when(helixPropertyStore.get("/CONFIGS/TABLE/otherTable_daily_OFFLINE", null, AccessOption.PERSISTENT))
+        .thenReturn(TableConfigUtils.toZNRecord(getRollupTableConfig("otherTable_daily", "otherTable")));
     minionContext.setHelixPropertyStore(helixPropertyStore);
   }
 
@@ -121,6 +148,48 @@ public class MergeRollupTaskExecutorTest {
     Assert.assertEquals(segmentMetadata.getTotalDocs(), NUM_SEGMENTS * NUM_ROWS);
   }
 
+  @Test
+  public void testConvertToRollupTable()
+      throws Exception {
+    MergeRollupTaskExecutor mergeRollupTaskExecutor = new MergeRollupTaskExecutor();
+    Map<String, String> configs = new HashMap<>();
+    configs.put(MinionConstants.TABLE_NAME_KEY, "testTable_OFFLINE");
+    configs.put(MinionConstants.MergeRollupTask.ROLLUP_TABLE_NAME_KEY, ROLLUP_TABLE_NAME);
+
+    PinotTaskConfig pinotTaskConfig = new PinotTaskConfig(MinionConstants.MergeRollupTask.TASK_TYPE, configs);
+    List<SegmentConversionResult> conversionResults =
+        mergeRollupTaskExecutor.convert(pinotTaskConfig, _segmentIndexDirList, new File(TEMP_DIR, "rollupWorkingDir"));
+
+    // The same rows from all the segments are rolled up into one record per day
+    Assert.assertEquals(conversionResults.size(), 1);
+    Assert.assertEquals(conversionResults.get(0).getTableNameWithType(), "testTable_daily_OFFLINE");
+    SegmentMetadataImpl segmentMetadata = new SegmentMetadataImpl(conversionResults.get(0).getFile());
+    Assert.assertEquals(segmentMetadata.getTotalDocs(), NUM_ROWS);
+    Assert.assertEquals(segmentMetadata.getTimeUnit(), TimeUnit.MILLISECONDS);
+    Assert.assertEquals(segmentMetadata.getStartTime(), START_MS);
+    Assert.assertEquals(segmentMetadata.getEndTime(), START_MS + DAY_MS);
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void testConvertToRollupTableOfAnotherTable()
+      throws Exception {
+    MergeRollupTaskExecutor mergeRollupTaskExecutor = new MergeRollupTaskExecutor();
+    Map<String, String> configs = new HashMap<>();
+    configs.put(MinionConstants.TABLE_NAME_KEY, "testTable_OFFLINE");
+    configs.put(MinionConstants.MergeRollupTask.ROLLUP_TABLE_NAME_KEY, "otherTable_daily");
+
+    PinotTaskConfig pinotTaskConfig = new PinotTaskConfig(MinionConstants.MergeRollupTask.TASK_TYPE, configs);
+    mergeRollupTaskExecutor.convert(pinotTaskConfig, _segmentIndexDirList, new File(TEMP_DIR, "otherWorkingDir"));
+  }
+
+  private static TableConfig getRollupTableConfig(String rollupTableName, String sourceTableName) {
+    Map<String, String> customConfigs = new HashMap<>();
+    customConfigs.put(RollupTableSpec.SOURCE_TABLE_KEY, sourceTableName);
+    customConfigs.put(RollupTableSpec.GRANULARITY_KEY, "daily");
+    return new TableConfigBuilder(TableType.OFFLINE).setTableName(rollupTableName).setTimeColumnName(TIME_COLUMN)
+        .setCustomConfig(new TableCustomConfig(customConfigs)).build();
+  }
+
   @AfterClass
   public void tearDown()
       throws Exception {
@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.plugin.minion.tasks.upsert_compaction;
+
+import java.util.Arrays;
+import java.util.List;
+import org.apache.pinot.plugin.minion.tasks.upsert_compaction.UpsertCompactionTaskGenerator.SegmentCompactionInfo;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests for {@link UpsertCompactionTaskGenerator}
+ */
+public class UpsertCompactionTaskGeneratorTest {
+
+  @Test
+  public void testGetSegmentsToCompact() {
+    // 10 invalid docs out of 100
+    SegmentCompactionInfo segment1 = getSegmentCompactionInfo("segment1", 100, 90, 95);
+    // 60 invalid docs out of 100
+    SegmentCompactionInfo segment2 = getSegmentCompactionInfo("segment2", 100, 40, 35);
+    // 30 invalid docs out of 50
+    SegmentCompactionInfo segment3 = getSegmentCompactionInfo("segment3", 50, 20, 20);
+    // No valid doc
+    SegmentCompactionInfo segment4 = getSegmentCompactionInfo("segment4", 100, 0, 0);
+    // No invalid doc
+    SegmentCompactionInfo segment5 = getSegmentCompactionInfo("segment5", 100, 100, 100);
+    List<SegmentCompactionInfo> segments = Arrays.asList(segment1, segment2, segment3, segment4, segment5);
+
+    // Should use the max valid docs across the replicas
+    assertEquals(segment1.getNumInvalidDocs(), 5);
+    assertEquals(segment1._serverAdminEndpoints, Arrays.asList("server1", "server2"));
+
+    List<SegmentCompactionInfo> segmentsToCompact = UpsertCompactionTaskGenerator.getSegmentsToCompact(segments, 0, 0);
+    assertEquals(segmentsToCompact.size(), 3);
+    assertSame(segmentsToCompact.get(0), segment2);
+    assertSame(segmentsToCompact.get(1), segment3);
+    assertSame(segmentsToCompact.get(2), segment1);
+
+    segmentsToCompact = UpsertCompactionTaskGenerator.getSegmentsToCompact(segments, 30, 0);
+    assertEquals(segmentsToCompact.size(), 2);
+    assertSame(segmentsToCompact.get(0), segment2);
+    assertSame(segmentsToCompact.get(1), segment3);
+
+    segmentsToCompact = UpsertCompactionTaskGenerator.getSegmentsToCompact(segments, 30, 50);
+    assertEquals(segmentsToCompact.size(), 1);
+    assertSame(segmentsToCompact.get(0), segment2);
+
+    segmentsToCompact = UpsertCompactionTaskGenerator.getSegmentsToCompact(segments, 80, 0);
+    assertTrue(segmentsToCompact.isEmpty());
+  }
+
+  private static SegmentCompactionInfo getSegmentCompactionInfo(String segmentName, int totalDocs,
+      int numValidDocsOnServer1, int numValidDocsOnServer2) {
+    SegmentCompactionInfo segmentCompactionInfo = new SegmentCompactionInfo(segmentName);
+    segmentCompactionInfo.addReplica("server1", totalDocs, numValidDocsOnServer1);
+    segmentCompactionInfo.addReplica("server2", totalDocs, numValidDocsOnServer2);
+    return segmentCompactionInfo;
+  }
+}
@@ -51,16 +51,21 @@ import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeLucene
 import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeLuceneTextIndexReader;
 import org.apache.pinot.segment.local.realtime.impl.json.MutableJsonIndex;
 import org.apache.pinot.segment.local.realtime.impl.nullvalue.MutableNullValueVector;
+import org.apache.pinot.segment.local.realtime.impl.startree.MutableStarTree;
+import org.apache.pinot.segment.local.realtime.impl.zonemap.MutableZoneMap;
+import org.apache.pinot.segment.local.segment.creator.impl.zonemap.ZoneMapIndexCreator;
 import org.apache.pinot.segment.local.segment.index.datasource.ImmutableDataSource;
 import org.apache.pinot.segment.local.segment.index.datasource.MutableDataSource;
 import org.apache.pinot.segment.local.segment.virtualcolumn.VirtualColumnContext;
 import org.apache.pinot.segment.local.segment.virtualcolumn.VirtualColumnProvider;
 import org.apache.pinot.segment.local.segment.virtualcolumn.VirtualColumnProviderFactory;
+import org.apache.pinot.segment.local.startree.v2.builder.StarTreeV2BuilderConfig;
 import org.apache.pinot.segment.local.upsert.PartitionUpsertMetadataManager;
 import org.apache.pinot.segment.local.utils.FixedIntArrayOffHeapIdMap;
 import org.apache.pinot.segment.local.utils.GeometrySerializer;
 import org.apache.pinot.segment.local.utils.IdMap;
 import org.apache.pinot.segment.local.utils.IngestionUtils;
+import org.apache.pinot.segment.spi.AggregationFunctionType;
 import org.apache.pinot.segment.spi.MutableSegment;
 import org.apache.pinot.segment.spi.SegmentMetadata;
 import org.apache.pinot.segment.spi.V1Constants;
@@ -69,13 +74,16 @@ import org.apache.pinot.segment.spi.index.ThreadSafeMutableRoaringBitmap;
 import org.apache.pinot.segment.spi.index.creator.H3IndexConfig;
 import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
 import org.apache.pinot.segment.spi.index.reader.BloomFilterReader;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
 import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
 import org.apache.pinot.segment.spi.index.reader.MutableDictionary;
 import org.apache.pinot.segment.spi.index.reader.MutableForwardIndex;
+import org.apache.pinot.segment.spi.index.startree.AggregationFunctionColumnPair;
 import org.apache.pinot.segment.spi.index.startree.StarTreeV2;
 import org.apache.pinot.segment.spi.partition.PartitionFunction;
 import org.apache.pinot.spi.config.table.ColumnPartitionConfig;
 import org.apache.pinot.spi.config.table.SegmentPartitionConfig;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
 import org.apache.pinot.spi.config.table.UpsertConfig;
 import org.apache.pinot.spi.data.DimensionFieldSpec;
 import org.apache.pinot.spi.data.FieldSpec;
@@ -83,6 +91,7 @@ import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.MetricFieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.IndexedGenericRow;
 import org.apache.pinot.spi.data.readers.PrimaryKey;
 import org.apache.pinot.spi.stream.RowMetadata;
 import org.apache.pinot.spi.utils.ByteArray;
@@ -108,6 +117,8 @@ public class MutableSegmentImpl implements MutableSegment {
 
   private static final int NODICT_VARIABLE_WIDTH_ESTIMATED_AVERAGE_VALUE_LENGTH_DEFAULT = 100;
   private static final int NODICT_VARIABLE_WIDTH_ESTIMATED_NUMBER_OF_VALUES_DEFAULT = 100_000;
+  private static final int JSON_INDEX_ESTIMATED_NUMBER_OF_POSTING_LISTS_DEFAULT = 100_000;
+  private static final int JSON_INDEX_ESTIMATED_AVERAGE_POSTING_LIST_KEY_LENGTH_DEFAULT = 32;
 
   private final Logger _logger;
   private final long _startTimeMillis = System.currentTimeMillis();
@@ -127,6 +138,8 @@ public class MutableSegmentImpl implements MutableSegment {
   private final boolean _nullHandlingEnabled;
 
   private final Map<String, IndexContainer> _indexContainerMap = new HashMap<>();
+  // Layout of the last indexed IndexedGenericRow, for which the row slots in the index containers are resolved
+  private IndexedGenericRow.Layout _rowLayout;
 
   private final IdMap<FixedIntArray> _recordIdMap;
   private boolean _aggregateMetrics;
@@ -161,6 +174,9 @@ public class MutableSegmentImpl implements MutableSegment {
   //        the valid doc ids won't be updated.
   private final ThreadSafeMutableRoaringBitmap _validDocIds;
 
+  // Star-tree pre-aggregation maintained while consuming, null if not configured
+  private final List<MutableStarTree> _mutableStarTrees;
+
   public MutableSegmentImpl(RealtimeSegmentConfig config, @Nullable ServerMetrics serverMetrics) {
     _serverMetrics = serverMetrics;
     _tableNameWithType = config.getTableNameWithType();
@@ -231,6 +247,7 @@ public class MutableSegmentImpl implements MutableSegment {
     Set<String> fstIndexColumns = config.getFSTIndexColumns();
     Set<String> jsonIndexColumns = config.getJsonIndexColumns();
     Map<String, H3IndexConfig> h3IndexConfigs = config.getH3IndexConfigs();
+    Set<String> zoneMapColumns = config.getZoneMapColumns();
 
     int avgNumMultiValues = config.getAvgNumMultiValues();
 
@@ -334,7 +351,20 @@ public class MutableSegmentImpl implements MutableSegment {
       }
 
       // Json index
-      MutableJsonIndex jsonIndex = jsonIndexColumns.contains(column) ? new MutableJsonIndex() : null;
+      MutableJsonIndex jsonIndex;
+      if (jsonIndexColumns.contains(column)) {
+        if (_offHeap) {
+          String allocationContext =
+              buildAllocationContext(_segmentName, column, V1Constants.Indexes.JSON_INDEX_FILE_EXTENSION);
+          jsonIndex = new MutableJsonIndex(_memoryManager, allocationContext,
+              Math.min(_capacity, JSON_INDEX_ESTIMATED_NUMBER_OF_POSTING_LISTS_DEFAULT),
+              JSON_INDEX_ESTIMATED_AVERAGE_POSTING_LIST_KEY_LENGTH_DEFAULT);
+        } else {
+          jsonIndex = new MutableJsonIndex();
+        }
+      } else {
+        jsonIndex = null;
+      }
 
       // H3 index
       MutableH3Index h3Index;
@@ -345,6 +375,16 @@ public class MutableSegmentImpl implements MutableSegment {
         throw new RuntimeException(String.format("Failed to initiate H3 index for column: %s", column), e);
       }
 
+      // Zone map
+      // NOTE: Skip creating zone map for aggregated metrics because the value will change over time.
+      MutableZoneMap zoneMap;
+      if (zoneMapColumns.contains(column) && fieldSpec.isSingleValueField() && (!_aggregateMetrics
+          || fieldSpec.getFieldType() != FieldSpec.FieldType.METRIC)) {
+        zoneMap = new MutableZoneMap(_capacity, ZoneMapIndexCreator.DEFAULT_NUM_DOCS_PER_BLOCK);
+      } else {
+        zoneMap = null;
+      }
+
       // Null value vector
       MutableNullValueVector nullValueVector = _nullHandlingEnabled ? new MutableNullValueVector() : null;
 
@@ -352,7 +392,7 @@ public class MutableSegmentImpl implements MutableSegment {
       _indexContainerMap.put(column,
           new IndexContainer(fieldSpec, partitionFunction, partitions, new NumValuesInfo(), forwardIndex, dictionary,
               invertedIndexReader, null, textIndex, fstIndexColumns.contains(column), jsonIndex, h3Index, null,
-              nullValueVector));
+              zoneMap, nullValueVector));
     }
 
     if (_realtimeLuceneReaders != null) {
@@ -375,6 +415,69 @@ public class MutableSegmentImpl implements MutableSegment {
       _partitionUpsertMetadataManager = null;
       _validDocIds = null;
     }
+
+    // NOTE: Star-tree is not supported for upsert because the replaced records cannot be removed from the aggregated
+    //       records.
+    _mutableStarTrees = isUpsertEnabled() ? null
+        : createMutableStarTrees(config.getStarTreeIndexConfigs(), config.getStarTreeRefreshIntervalMs());
+  }
+
+  /**
+   * Creates the mutable star-trees for the given star-tree index configs, or returns {@code null} if no star-tree can
+   * be created. The star-trees with dimensions that are not single-value dictionary-encoded, or metrics that are not
+   * single-value are skipped.
+   */
+  @Nullable
+  private List<MutableStarTree> createMutableStarTrees(@Nullable List<StarTreeIndexConfig> starTreeIndexConfigs,
+      long refreshIntervalMs) {
+    if (starTreeIndexConfigs == null || starTreeIndexConfigs.isEmpty()) {
+      return null;
+    }
+    List<MutableStarTree> mutableStarTrees = new ArrayList<>(starTreeIndexConfigs.size());
+    for (StarTreeIndexConfig starTreeIndexConfig : starTreeIndexConfigs) {
+      StarTreeV2BuilderConfig builderConfig;
+      try {
+        builderConfig = StarTreeV2BuilderConfig.fromIndexConfig(starTreeIndexConfig);
+      } catch (Exception e) {
+        _logger.warn("Skip creating star-tree with invalid config: {}", starTreeIndexConfig, e);
+        continue;
+      }
+      List<String> dimensionsSplitOrder = builderConfig.getDimensionsSplitOrder();
+      int numDimensions = dimensionsSplitOrder.size();
+      FieldSpec[] dimensionFieldSpecs = new FieldSpec[numDimensions];
+      Dictionary[] dictionaries = new Dictionary[numDimensions];
+      String unsupportedColumn = null;
+      for (int i = 0; i < numDimensions; i++) {
+        String dimension = dimensionsSplitOrder.get(i);
+        IndexContainer indexContainer = _indexContainerMap.get(dimension);
+        if (indexContainer == null || !indexContainer._fieldSpec.isSingleValueField()
+            || indexContainer._dictionary == null) {
+          unsupportedColumn = dimension;
+          break;
+        }
+        dimensionFieldSpecs[i] = indexContainer._fieldSpec;
+        dictionaries[i] = indexContainer._dictionary;
+      }
+      if (unsupportedColumn == null) {
+        for (AggregationFunctionColumnPair functionColumnPair : builderConfig.getFunctionColumnPairs()) {
+          if (functionColumnPair.getFunctionType() != AggregationFunctionType.COUNT) {
+            String metric = functionColumnPair.getColumn();
+            IndexContainer indexContainer = _indexContainerMap.get(metric);
+            if (indexContainer == null || !indexContainer._fieldSpec.isSingleValueField()) {
+              unsupportedColumn = metric;
+              break;
+            }
+          }
+        }
+      }
+      if (unsupportedColumn != null) {
+        _logger.warn("Skip creating star-tree: {} because column: {} is not supported in consuming segment",
+            builderConfig, unsupportedColumn);
+        continue;
+      }
+      mutableStarTrees.add(new MutableStarTree(builderConfig, dimensionFieldSpecs, dictionaries, refreshIntervalMs));
+    }
+    return !mutableStarTrees.isEmpty() ? mutableStarTrees : null;
   }
 
   /**
@@ -467,12 +570,15 @@ public class MutableSegmentImpl implements MutableSegment {
     boolean canTakeMore;
     if (isUpsertEnabled()) {
       row = handleUpsert(row, _numDocsIndexed);
+      resolveRowSlots(row);
 
       updateDictionary(row);
       addNewRow(row);
       // Update number of documents indexed at last to make the latest row queryable
       canTakeMore = _numDocsIndexed++ < _capacity;
     } else {
+      resolveRowSlots(row);
+
       // Update dictionary first
       updateDictionary(row);
 
@@ -490,6 +596,12 @@ public class MutableSegmentImpl implements MutableSegment {
         aggregateMetrics(row, docId);
         canTakeMore = true;
       }
+
+      // Update the star-trees after the row is added to the forward indexes so that the pre-aggregated records never
+      // contain a row that is not in the segment
+      if (_mutableStarTrees != null) {
+        updateStarTrees(row);
+      }
     }
 
     // Update last indexed time and latest ingestion time
@@ -514,11 +626,105 @@ public class MutableSegmentImpl implements MutableSegment {
         .updateRecord(this, new PartitionUpsertMetadataManager.RecordInfo(primaryKey, docId, timestamp), row);
   }
 
+  /**
+   * Resolves the slots of the columns in the layout of the given row if it is an {@link IndexedGenericRow}, so that
+   * the values can be read via the slots instead of the column names. The slots are only resolved when the layout
+   * changes.
+   */
+  private void resolveRowSlots(GenericRow row) {
+    if (row instanceof IndexedGenericRow) {
+      IndexedGenericRow.Layout layout = ((IndexedGenericRow) row).getLayout();
+      if (layout != _rowLayout) {
+        for (Map.Entry<String, IndexContainer> entry : _indexContainerMap.entrySet()) {
+          entry.getValue()._rowSlot = layout.getSlot(entry.getKey());
+        }
+        _rowLayout = layout;
+      }
+    }
+  }
+
+  /**
+   * Returns the value of the column from the given row. Should be called after {@link #resolveRowSlots(GenericRow)}.
+   */
+  private static Object getRowValue(GenericRow row, String column, IndexContainer indexContainer) {
+    int slot = indexContainer._rowSlot;
+    if (slot >= 0 && row instanceof IndexedGenericRow) {
+      return ((IndexedGenericRow) row).getValue(slot);
+    } else {
+      return row.getValue(column);
+    }
+  }
+
+  /**
+   * Returns the INT value of the column from the given row, without boxing the value stored as primitive in the
+   * {@link IndexedGenericRow}. Should be called after {@link #resolveRowSlots(GenericRow)}.
+   */
+  private static int getRowIntValue(GenericRow row, String column, IndexContainer indexContainer) {
+    int slot = indexContainer._rowSlot;
+    if (slot >= 0 && row instanceof IndexedGenericRow) {
+      return ((IndexedGenericRow) row).getInt(slot);
+    } else {
+      return (Integer) row.getValue(column);
+    }
+  }
+
+  /**
+   * Returns the LONG value of the column from the given row, without boxing the value stored as primitive in the
+   * {@link IndexedGenericRow}. Should be called after {@link #resolveRowSlots(GenericRow)}.
+   */
+  private static long getRowLongValue(GenericRow row, String column, IndexContainer indexContainer) {
+    int slot = indexContainer._rowSlot;
+    if (slot >= 0 && row instanceof IndexedGenericRow) {
+      return ((IndexedGenericRow) row).getLong(slot);
+    } else {
+      return (Long) row.getValue(column);
+    }
+  }
+
+  /**
+   * Returns the FLOAT value of the column from the given row, without boxing the value stored as primitive in the
+   * {@link IndexedGenericRow}. Should be called after {@link #resolveRowSlots(GenericRow)}.
+   */
+  private static float getRowFloatValue(GenericRow row, String column, IndexContainer indexContainer) {
+    int slot = indexContainer._rowSlot;
+    if (slot >= 0 && row instanceof IndexedGenericRow) {
+      return ((IndexedGenericRow) row).getFloat(slot);
+    } else {
+      return (Float) row.getValue(column);
+    }
+  }
+
+  /**
+   * Returns the DOUBLE value of the column from the given row, without boxing the value stored as primitive in the
+   * {@link IndexedGenericRow}. Should be called after {@link #resolveRowSlots(GenericRow)}.
+   */
+  private static double getRowDoubleValue(GenericRow row, String column, IndexContainer indexContainer) {
+    int slot = indexContainer._rowSlot;
+    if (slot >= 0 && row instanceof IndexedGenericRow) {
+      return ((IndexedGenericRow) row).getDouble(slot);
+    } else {
+      return (Double) row.getValue(column);
+    }
+  }
+
+  /**
+   * Returns whether the value of the column is {@code null} in the given row. Should be called after
+   * {@link #resolveRowSlots(GenericRow)}.
+   */
+  private static boolean isNullRowValue(GenericRow row, String column, IndexContainer indexContainer) {
+    int slot = indexContainer._rowSlot;
+    if (slot >= 0 && row instanceof IndexedGenericRow) {
+      return ((IndexedGenericRow) row).isNullValue(slot);
+    } else {
+      return row.isNullValue(column);
+    }
+  }
+
   private void updateDictionary(GenericRow row) {
     for (Map.Entry<String, IndexContainer> entry : _indexContainerMap.entrySet()) {
       String column = entry.getKey();
       IndexContainer indexContainer = entry.getValue();
-      Object value = row.getValue(column);
+      Object value = getRowValue(row, column, indexContainer);
       MutableDictionary dictionary = indexContainer._dictionary;
       if (dictionary != null) {
         if (indexContainer._fieldSpec.isSingleValueField()) {
@@ -534,19 +740,33 @@ public class MutableSegmentImpl implements MutableSegment {
     }
   }
 
+  private void updateStarTrees(GenericRow row) {
+    for (MutableStarTree mutableStarTree : _mutableStarTrees) {
+      String[] dimensions = mutableStarTree.getDimensions();
+      int numDimensions = dimensions.length;
+      int[] dictIds = new int[numDimensions];
+      for (int i = 0; i < numDimensions; i++) {
+        dictIds[i] = _indexContainerMap.get(dimensions[i])._dictId;
+      }
+      mutableStarTree.index(dictIds, row);
+    }
+  }
+
   private void addNewRow(GenericRow row)
       throws IOException {
     int docId = _numDocsIndexed;
     for (Map.Entry<String, IndexContainer> entry : _indexContainerMap.entrySet()) {
       String column = entry.getKey();
       IndexContainer indexContainer = entry.getValue();
-      Object value = row.getValue(column);
       FieldSpec fieldSpec = indexContainer._fieldSpec;
       if (fieldSpec.isSingleValueField()) {
         // Single-value column
+        // NOTE: Read the values via the typed accessors where possible, and only read the value as object when needed
+        //       to avoid boxing the primitive values of the IndexedGenericRow.
 
         // Check partitions
         if (column.equals(_partitionColumn)) {
+          Object value = getRowValue(row, column, indexContainer);
           int partition = _partitionFunction.getPartition(value);
           if (indexContainer._partitions.add(partition)) {
             _logger.warn("Found new partition: {} from partition column: {}, value: {}", partition, column, value);
@@ -576,71 +796,88 @@ public class MutableSegmentImpl implements MutableSegment {
         } else {
           // Single-value column with raw index
 
-          // Update forward index
+          // Update forward index and min/max value from raw value
+          // NOTE: Skip updating min/max value for aggregated metrics because the value will change over time.
+          boolean updateMinMaxValue = !_aggregateMetrics || fieldSpec.getFieldType() != FieldSpec.FieldType.METRIC;
           DataType dataType = fieldSpec.getDataType();
           switch (dataType.getStoredType()) {
-            case INT:
-              forwardIndex.setInt(docId, (Integer) value);
+            case INT: {
+              int intValue = getRowIntValue(row, column, indexContainer);
+              forwardIndex.setInt(docId, intValue);
+              if (updateMinMaxValue) {
+                updateMinMaxValue(indexContainer, intValue);
+              }
               break;
-            case LONG:
-              forwardIndex.setLong(docId, (Long) value);
+            }
+            case LONG: {
+              long longValue = getRowLongValue(row, column, indexContainer);
+              forwardIndex.setLong(docId, longValue);
+              if (updateMinMaxValue) {
+                updateMinMaxValue(indexContainer, longValue);
+              }
               break;
-            case FLOAT:
-              forwardIndex.setFloat(docId, (Float) value);
+            }
+            case FLOAT: {
+              float floatValue = getRowFloatValue(row, column, indexContainer);
+              forwardIndex.setFloat(docId, floatValue);
+              if (updateMinMaxValue) {
+                updateMinMaxValue(indexContainer, floatValue);
+              }
               break;
-            case DOUBLE:
-              forwardIndex.setDouble(docId, (Double) value);
+            }
+            case DOUBLE: {
+              double doubleValue = getRowDoubleValue(row, column, indexContainer);
+              forwardIndex.setDouble(docId, doubleValue);
+              if (updateMinMaxValue) {
+                updateMinMaxValue(indexContainer, doubleValue);
+              }
               break;
-            case STRING:
-              forwardIndex.setString(docId, (String) value);
+            }
+            case STRING: {
+              String stringValue = (String) getRowValue(row, column, indexContainer);
+              forwardIndex.setString(docId, stringValue);
+              if (updateMinMaxValue) {
+                updateMinMaxValue(indexContainer, stringValue);
+              }
               break;
-            case BYTES:
-              forwardIndex.setBytes(docId, (byte[]) value);
+            }
+            case BYTES: {
+              byte[] bytesValue = (byte[]) getRowValue(row, column, indexContainer);
+              forwardIndex.setBytes(docId, bytesValue);
+              if (updateMinMaxValue) {
+                updateMinMaxValue(indexContainer, new ByteArray(bytesValue));
+              }
               break;
+            }
             default:
               throw new UnsupportedOperationException(
                   "Unsupported data type: " + dataType + " for no-dictionary column: " + column);
           }
-
-          // Update min/max value from raw value
-          // NOTE: Skip updating min/max value for aggregated metrics because the value will change over time.
-          if (!_aggregateMetrics || fieldSpec.getFieldType() != FieldSpec.FieldType.METRIC) {
-            Comparable comparable;
-            if (dataType == BYTES) {
-              comparable = new ByteArray((byte[]) value);
-            } else {
-              comparable = (Comparable) value;
-            }
-            if (indexContainer._minValue == null) {
-              indexContainer._minValue = comparable;
-              indexContainer._maxValue = comparable;
-            } else {
-              if (comparable.compareTo(indexContainer._minValue) < 0) {
-                indexContainer._minValue = comparable;
-              }
-              if (comparable.compareTo(indexContainer._maxValue) > 0) {
-                indexContainer._maxValue = comparable;
-              }
-            }
-          }
         }
 
         // Update text index
         RealtimeLuceneTextIndexReader textIndex = indexContainer._textIndex;
         if (textIndex != null) {
-          textIndex.add((String) value);
+          textIndex.add((String) getRowValue(row, column, indexContainer));
         }
 
         // Update json index
         MutableJsonIndex jsonIndex = indexContainer._jsonIndex;
         if (jsonIndex != null) {
-          jsonIndex.add((String) value);
+          jsonIndex.add((String) getRowValue(row, column, indexContainer));
         }
 
         // Update H3 index
         MutableH3Index h3Index = indexContainer._h3Index;
         if (h3Index != null) {
-          h3Index.add(GeometrySerializer.deserialize((byte[]) value));
+          h3Index.add(GeometrySerializer.deserialize((byte[]) getRowValue(row, column, indexContainer)));
+        }
+
+        // Update zone map
+        MutableZoneMap zoneMap = indexContainer._zoneMap;
+        if (zoneMap != null) {
+          zoneMap.add(docId, getRowValue(row, column, indexContainer),
+              _nullHandlingEnabled && isNullRowValue(row, column, indexContainer));
         }
       } else {
         // Multi-value column (always dictionary-encoded)
@@ -663,30 +900,104 @@ public class MutableSegmentImpl implements MutableSegment {
       }
 
       // Update null value vector
-      if (_nullHandlingEnabled && row.isNullValue(column)) {
+      if (_nullHandlingEnabled && isNullRowValue(row, column, indexContainer)) {
         indexContainer._nullValueVector.setNull(docId);
       }
     }
   }
 
+  // NOTE: Compare the primitive values to only box the value when the min/max value changes
+
+  private static void updateMinMaxValue(IndexContainer indexContainer, int value) {
+    if (indexContainer._minValue == null) {
+      indexContainer._minValue = value;
+      indexContainer._maxValue = value;
+    } else {
+      if (value < (Integer) indexContainer._minValue) {
+        indexContainer._minValue = value;
+      }
+      if (value > (Integer) indexContainer._maxValue) {
+        indexContainer._maxValue = value;
+      }
+    }
+  }
+
+  private static void updateMinMaxValue(IndexContainer indexContainer, long value) {
+    if (indexContainer._minValue == null) {
+      indexContainer._minValue = value;
+      indexContainer._maxValue = value;
+    } else {
+      if (value < (Long) indexContainer._minValue) {
+        indexContainer._minValue = value;
+      }
+      if (value > (Long) indexContainer._maxValue) {
+        indexContainer._maxValue = value;
+      }
+    }
+  }
+
+  // NOTE: Use Float.compare() and Double.compare() to match the ordering of the boxed values (e.g. NaN)
+
+  private static void updateMinMaxValue(IndexContainer indexContainer, float value) {
+    if (indexContainer._minValue == null) {
+      indexContainer._minValue = value;
+      indexContainer._maxValue = value;
+    } else {
+      if (Float.compare(value, (Float) indexContainer._minValue) < 0) {
+        indexContainer._minValue = value;
+      }
+      if (Float.compare(value, (Float) indexContainer._maxValue) > 0) {
+        indexContainer._maxValue = value;
+      }
+    }
+  }
+
+  private static void updateMinMaxValue(IndexContainer indexContainer, double value) {
+    if (indexContainer._minValue == null) {
+      indexContainer._minValue = value;
+      indexContainer._maxValue = value;
+    } else {
+      if (Double.compare(value, (Double) indexContainer._minValue) < 0) {
+        indexContainer._minValue = value;
+      }
+      if (Double.compare(value, (Double) indexContainer._maxValue) > 0) {
+        indexContainer._maxValue = value;
+      }
+    }
+  }
+
+  private static void updateMinMaxValue(IndexContainer indexContainer, Comparable value) {
+    if (indexContainer._minValue == null) {
+      indexContainer._minValue = value;
+      indexContainer._maxValue = value;
+    } else {
+      if (value.compareTo(indexContainer._minValue) < 0) {
+        indexContainer._minValue = value;
+      }
+      if (value.compareTo(indexContainer._maxValue) > 0) {
+        indexContainer._maxValue = value;
+      }
+    }
+  }
+
   private void aggregateMetrics(GenericRow row, int docId) {
     for (MetricFieldSpec metricFieldSpec : _physicalMetricFieldSpecs) {
       String column = metricFieldSpec.getName();
-      Object value = row.getValue(column);
-      MutableForwardIndex forwardIndex = _indexContainerMap.get(column)._forwardIndex;
+      IndexContainer indexContainer = _indexContainerMap.get(column);
+      MutableForwardIndex forwardIndex = indexContainer._forwardIndex;
       DataType dataType = metricFieldSpec.getDataType();
       switch (dataType) {
         case INT:
-          forwardIndex.setInt(docId, (Integer) value + forwardIndex.getInt(docId));
+          forwardIndex.setInt(docId, getRowIntValue(row, column, indexContainer) + forwardIndex.getInt(docId));
           break;
         case LONG:
-          forwardIndex.setLong(docId, (Long) value + forwardIndex.getLong(docId));
+          forwardIndex.setLong(docId, getRowLongValue(row, column, indexContainer) + forwardIndex.getLong(docId));
           break;
         case FLOAT:
-          forwardIndex.setFloat(docId, (Float) value + forwardIndex.getFloat(docId));
+          forwardIndex.setFloat(docId, getRowFloatValue(row, column, indexContainer) + forwardIndex.getFloat(docId));
           break;
         case DOUBLE:
-          forwardIndex.setDouble(docId, (Double) value + forwardIndex.getDouble(docId));
+          forwardIndex.setDouble(docId, getRowDoubleValue(row, column, indexContainer) + forwardIndex.getDouble(docId));
           break;
         default:
           throw new UnsupportedOperationException(
@@ -750,7 +1061,33 @@ public class MutableSegmentImpl implements MutableSegment {
 
   @Override
   public List<StarTreeV2> getStarTrees() {
-    return null;
+    if (_mutableStarTrees == null) {
+      return null;
+    }
+    List<StarTreeV2> starTrees = new ArrayList<>(_mutableStarTrees.size());
+    for (MutableStarTree mutableStarTree : _mutableStarTrees) {
+      StarTreeV2 starTree = mutableStarTree.getStarTree();
+      if (starTree == null) {
+        // No row indexed yet
+        return null;
+      }
+      starTrees.add(starTree);
+    }
+    return starTrees;
+  }
+
+  /**
+   * Returns the total memory used by the segment in bytes, including the buffers allocated by the memory manager and
+   * the estimated on-heap memory of the star-tree records.
+   */
+  public long getTotalMemoryUsedBytes() {
+    long totalMemBytes = _memoryManager.getTotalAllocatedBytes();
+    if (_mutableStarTrees != null) {
+      for (MutableStarTree mutableStarTree : _mutableStarTrees) {
+        totalMemBytes += mutableStarTree.getMemoryUsage();
+      }
+    }
+    return totalMemBytes;
   }
 
   @Nullable
@@ -824,7 +1161,7 @@ public class MutableSegmentImpl implements MutableSegment {
     if (_offHeap) {
       if (_numDocsIndexed > 0) {
         int numSeconds = (int) ((System.currentTimeMillis() - _startTimeMillis) / 1000);
-        long totalMemBytes = _memoryManager.getTotalAllocatedBytes();
+        long totalMemBytes = getTotalMemoryUsedBytes();
         _logger
             .info("Segment used {} bytes of memory for {} rows consumed in {} seconds", totalMemBytes, _numDocsIndexed,
                 numSeconds);
@@ -1083,6 +1420,7 @@ public class MutableSegmentImpl implements MutableSegment {
     final boolean _enableFST;
     final MutableJsonIndex _jsonIndex;
     final BloomFilterReader _bloomFilter;
+    final MutableZoneMap _zoneMap;
     final MutableNullValueVector _nullValueVector;
 
     volatile Comparable _minValue;
@@ -1092,12 +1430,15 @@ public class MutableSegmentImpl implements MutableSegment {
     int _dictId = Integer.MIN_VALUE;
     int[] _dictIds;
 
+    // Slot of the column in the layout of the indexed rows, or -1 if the column is not in the layout
+    int _rowSlot = -1;
+
     IndexContainer(FieldSpec fieldSpec, @Nullable PartitionFunction partitionFunction,
         @Nullable Set<Integer> partitions, NumValuesInfo numValuesInfo, MutableForwardIndex forwardIndex,
         @Nullable MutableDictionary dictionary, @Nullable RealtimeInvertedIndexReader invertedIndex,
         @Nullable InvertedIndexReader rangeIndex, @Nullable RealtimeLuceneTextIndexReader textIndex, boolean enableFST,
         @Nullable MutableJsonIndex jsonIndex, @Nullable MutableH3Index h3Index, @Nullable BloomFilterReader bloomFilter,
-        @Nullable MutableNullValueVector nullValueVector) {
+        @Nullable MutableZoneMap zoneMap, @Nullable MutableNullValueVector nullValueVector) {
       _fieldSpec = fieldSpec;
       _partitionFunction = partitionFunction;
       _partitions = partitions;
@@ -1112,6 +1453,7 @@ public class MutableSegmentImpl implements MutableSegment {
       _enableFST = enableFST;
       _jsonIndex = jsonIndex;
       _bloomFilter = bloomFilter;
+      _zoneMap = zoneMap;
       _nullValueVector = nullValueVector;
     }
 
@@ -1119,7 +1461,7 @@ public class MutableSegmentImpl implements MutableSegment {
       return new MutableDataSource(_fieldSpec, _numDocsIndexed, _numValuesInfo._numValues,
           _numValuesInfo._maxNumValuesPerMVEntry, _partitionFunction, _partitions, _minValue, _maxValue, _forwardIndex,
           _dictionary, _invertedIndex, _rangeIndex, _textIndex, _enableFST, _jsonIndex, _h3Index, _bloomFilter,
-          _nullValueVector);
+          _zoneMap, _nullValueVector);
     }
 
     @Override
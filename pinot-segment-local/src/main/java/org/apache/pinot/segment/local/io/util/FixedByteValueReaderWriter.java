@@ -74,6 +74,26 @@ public final class FixedByteValueReaderWriter implements ValueReader {
     return StringUtil.decodeUtf8(buffer, 0, numBytesPerValue);
   }
 
+  @Override
+  public int compareUtf8Bytes(int index, int numBytesPerValue, byte paddingByte, byte[] utf8Bytes) {
+    long startOffset = (long) index * numBytesPerValue;
+    int length = utf8Bytes.length;
+    for (int i = 0; i < numBytesPerValue; i++) {
+      byte currentByte = _dataBuffer.getByte(startOffset + i);
+      if (currentByte == paddingByte) {
+        return i - length;
+      }
+      if (i == length) {
+        return 1;
+      }
+      int result = (currentByte & 0xFF) - (utf8Bytes[i] & 0xFF);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return numBytesPerValue - length;
+  }
+
   @Override
   public byte[] getBytes(int index, int numBytesPerValue) {
     long startOffset = (long) index * numBytesPerValue;
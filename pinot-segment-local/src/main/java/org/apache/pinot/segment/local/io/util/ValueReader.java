@@ -44,6 +44,14 @@ public interface ValueReader extends Closeable {
    */
   String getPaddedString(int index, int numBytesPerValue, byte[] buffer);
 
+  /**
+   * Compares the UTF-8 bytes of the unpadded STRING value at the given index with the given UTF-8 bytes
+   * lexicographically as unsigned bytes, without decoding the value.
+   *
+   * @return negative if the value is smaller, positive if the value is larger, 0 if they are equal
+   */
+  int compareUtf8Bytes(int index, int numBytesPerValue, byte paddingByte, byte[] utf8Bytes);
+
   /**
    * NOTE: Do not reuse buffer for BYTES because the return value can have variable length.
    */
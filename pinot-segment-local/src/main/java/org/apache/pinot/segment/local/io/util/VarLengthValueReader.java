@@ -100,6 +100,23 @@ public class VarLengthValueReader implements ValueReader {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public int compareUtf8Bytes(int index, int numBytesPerValue, byte paddingByte, byte[] utf8Bytes) {
+    int offsetPosition = _dataSectionStartOffSet + Integer.BYTES * index;
+    int startOffset = _dataBuffer.getInt(offsetPosition);
+    int endOffset = _dataBuffer.getInt(offsetPosition + Integer.BYTES);
+    int length = endOffset - startOffset;
+
+    int minLength = Math.min(length, utf8Bytes.length);
+    for (int i = 0; i < minLength; i++) {
+      int result = (_dataBuffer.getByte(startOffset + i) & 0xFF) - (utf8Bytes[i] & 0xFF);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return length - utf8Bytes.length;
+  }
+
   @Override
   public byte[] getBytes(int index, int numBytesPerValue) {
     // Read the offset of the byte array first and then read the actual byte array.
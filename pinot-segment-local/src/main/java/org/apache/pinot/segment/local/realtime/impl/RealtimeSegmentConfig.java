@@ -20,14 +20,18 @@ package org.apache.pinot.segment.local.realtime.impl;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
 import org.apache.pinot.segment.local.indexsegment.mutable.MutableSegmentImpl;
 import org.apache.pinot.segment.local.io.readerwriter.PinotDataBufferMemoryManager;
+import org.apache.pinot.segment.local.realtime.impl.startree.MutableStarTree;
 import org.apache.pinot.segment.local.upsert.PartitionUpsertMetadataManager;
 import org.apache.pinot.segment.spi.index.creator.H3IndexConfig;
 import org.apache.pinot.segment.spi.partition.PartitionFunction;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
 import org.apache.pinot.spi.config.table.UpsertConfig;
 import org.apache.pinot.spi.data.Schema;
 
@@ -46,7 +50,10 @@ public class RealtimeSegmentConfig {
   private final Set<String> _textIndexColumns;
   private final Set<String> _fstIndexColumns;
   private final Set<String> _jsonIndexColumns;
+  private final Set<String> _zoneMapColumns;
   private final Map<String, H3IndexConfig> _h3IndexConfigs;
+  private final List<StarTreeIndexConfig> _starTreeIndexConfigs;
+  private final long _starTreeRefreshIntervalMs;
   private final RealtimeSegmentZKMetadata _realtimeSegmentZKMetadata;
   private final boolean _offHeap;
   private final PinotDataBufferMemoryManager _memoryManager;
@@ -64,11 +71,12 @@ public class RealtimeSegmentConfig {
   private RealtimeSegmentConfig(String tableNameWithType, String segmentName, String streamName, Schema schema,
       String timeColumnName, int capacity, int avgNumMultiValues, Set<String> noDictionaryColumns,
       Set<String> varLengthDictionaryColumns, Set<String> invertedIndexColumns, Set<String> textIndexColumns,
-      Set<String> fstIndexColumns, Set<String> jsonIndexColumns, Map<String, H3IndexConfig> h3IndexConfigs,
-      RealtimeSegmentZKMetadata realtimeSegmentZKMetadata, boolean offHeap, PinotDataBufferMemoryManager memoryManager,
-      RealtimeSegmentStatsHistory statsHistory, String partitionColumn, PartitionFunction partitionFunction,
-      int partitionId, boolean aggregateMetrics, boolean nullHandlingEnabled, String consumerDir,
-      UpsertConfig.Mode upsertMode, PartitionUpsertMetadataManager partitionUpsertMetadataManager) {
+      Set<String> fstIndexColumns, Set<String> jsonIndexColumns, Set<String> zoneMapColumns,
+      Map<String, H3IndexConfig> h3IndexConfigs, List<StarTreeIndexConfig> starTreeIndexConfigs,
+      long starTreeRefreshIntervalMs, RealtimeSegmentZKMetadata realtimeSegmentZKMetadata, boolean offHeap,
+      PinotDataBufferMemoryManager memoryManager, RealtimeSegmentStatsHistory statsHistory, String partitionColumn,
+      PartitionFunction partitionFunction, int partitionId, boolean aggregateMetrics, boolean nullHandlingEnabled,
+      String consumerDir, UpsertConfig.Mode upsertMode, PartitionUpsertMetadataManager partitionUpsertMetadataManager) {
     _tableNameWithType = tableNameWithType;
     _segmentName = segmentName;
     _streamName = streamName;
@@ -82,7 +90,10 @@ public class RealtimeSegmentConfig {
     _textIndexColumns = textIndexColumns;
     _fstIndexColumns = fstIndexColumns;
     _jsonIndexColumns = jsonIndexColumns;
+    _zoneMapColumns = zoneMapColumns;
     _h3IndexConfigs = h3IndexConfigs;
+    _starTreeIndexConfigs = starTreeIndexConfigs;
+    _starTreeRefreshIntervalMs = starTreeRefreshIntervalMs;
     _realtimeSegmentZKMetadata = realtimeSegmentZKMetadata;
     _offHeap = offHeap;
     _memoryManager = memoryManager;
@@ -154,10 +165,23 @@ public class RealtimeSegmentConfig {
     return _jsonIndexColumns;
   }
 
+  public Set<String> getZoneMapColumns() {
+    return _zoneMapColumns;
+  }
+
   public Map<String, H3IndexConfig> getH3IndexConfigs() {
     return _h3IndexConfigs;
   }
 
+  @Nullable
+  public List<StarTreeIndexConfig> getStarTreeIndexConfigs() {
+    return _starTreeIndexConfigs;
+  }
+
+  public long getStarTreeRefreshIntervalMs() {
+    return _starTreeRefreshIntervalMs;
+  }
+
   public RealtimeSegmentZKMetadata getRealtimeSegmentZKMetadata() {
     return _realtimeSegmentZKMetadata;
   }
@@ -220,7 +244,10 @@ public class RealtimeSegmentConfig {
     private Set<String> _textIndexColumns = new HashSet<>();
     private Set<String> _fstIndexColumns = new HashSet<>();
     private Set<String> _jsonIndexColumns = new HashSet<>();
+    private Set<String> _zoneMapColumns = new HashSet<>();
     private Map<String, H3IndexConfig> _h3IndexConfigs = new HashMap<>();
+    private List<StarTreeIndexConfig> _starTreeIndexConfigs;
+    private long _starTreeRefreshIntervalMs = MutableStarTree.DEFAULT_REFRESH_INTERVAL_MS;
     private RealtimeSegmentZKMetadata _realtimeSegmentZKMetadata;
     private boolean _offHeap;
     private PinotDataBufferMemoryManager _memoryManager;
@@ -310,11 +337,33 @@ public class RealtimeSegmentConfig {
       return this;
     }
 
+    public Builder setZoneMapColumns(Set<String> zoneMapColumns) {
+      _zoneMapColumns = zoneMapColumns;
+      return this;
+    }
+
     public Builder setH3IndexConfigs(Map<String, H3IndexConfig> h3IndexConfigs) {
       _h3IndexConfigs = h3IndexConfigs;
       return this;
     }
 
+    /**
+     * Sets the star-tree index configs of the table, which are used to maintain the star-tree pre-aggregation while
+     * consuming.
+     */
+    public Builder setStarTreeIndexConfigs(@Nullable List<StarTreeIndexConfig> starTreeIndexConfigs) {
+      _starTreeIndexConfigs = starTreeIndexConfigs;
+      return this;
+    }
+
+    /**
+     * Sets the minimum interval between the refreshes of the star-tree snapshots served to the queries.
+     */
+    public Builder setStarTreeRefreshIntervalMs(long starTreeRefreshIntervalMs) {
+      _starTreeRefreshIntervalMs = starTreeRefreshIntervalMs;
+      return this;
+    }
+
     public Builder setRealtimeSegmentZKMetadata(RealtimeSegmentZKMetadata realtimeSegmentZKMetadata) {
       _realtimeSegmentZKMetadata = realtimeSegmentZKMetadata;
       return this;
@@ -378,9 +427,10 @@ public class RealtimeSegmentConfig {
     public RealtimeSegmentConfig build() {
       return new RealtimeSegmentConfig(_tableNameWithType, _segmentName, _streamName, _schema, _timeColumnName,
           _capacity, _avgNumMultiValues, _noDictionaryColumns, _varLengthDictionaryColumns, _invertedIndexColumns,
-          _textIndexColumns, _fstIndexColumns, _jsonIndexColumns, _h3IndexConfigs, _realtimeSegmentZKMetadata, _offHeap,
-          _memoryManager, _statsHistory, _partitionColumn, _partitionFunction, _partitionId, _aggregateMetrics,
-          _nullHandlingEnabled, _consumerDir, _upsertMode, _partitionUpsertMetadataManager);
+          _textIndexColumns, _fstIndexColumns, _jsonIndexColumns, _zoneMapColumns, _h3IndexConfigs,
+          _starTreeIndexConfigs, _starTreeRefreshIntervalMs, _realtimeSegmentZKMetadata, _offHeap, _memoryManager,
+          _statsHistory, _partitionColumn, _partitionFunction, _partitionId, _aggregateMetrics, _nullHandlingEnabled,
+          _consumerDir, _upsertMode, _partitionUpsertMetadataManager);
     }
   }
 }
@@ -22,10 +22,12 @@ import com.google.common.base.Preconditions;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.request.context.ExpressionContext;
 import org.apache.pinot.common.request.context.FilterContext;
 import org.apache.pinot.common.request.context.RequestContextUtils;
@@ -34,9 +36,13 @@ import org.apache.pinot.common.request.context.predicate.InPredicate;
 import org.apache.pinot.common.request.context.predicate.NotEqPredicate;
 import org.apache.pinot.common.request.context.predicate.NotInPredicate;
 import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.segment.local.io.readerwriter.PinotDataBufferMemoryManager;
+import org.apache.pinot.segment.local.realtime.impl.dictionary.StringOffHeapMutableDictionary;
 import org.apache.pinot.segment.local.segment.creator.impl.inv.json.BaseJsonIndexCreator;
+import org.apache.pinot.segment.local.segment.creator.impl.inv.json.StreamingJsonFlattener;
 import org.apache.pinot.segment.spi.index.creator.JsonIndexCreator;
 import org.apache.pinot.segment.spi.index.reader.JsonIndexReader;
+import org.apache.pinot.segment.spi.index.reader.MutableDictionary;
 import org.apache.pinot.spi.exception.BadQueryRequestException;
 import org.apache.pinot.spi.utils.JsonUtils;
 import org.apache.pinot.sql.parsers.CalciteSqlParser;
@@ -49,18 +55,54 @@ import static org.apache.pinot.common.request.context.FilterContext.Type.PREDICA
 
 /**
  * Json index for mutable segment.
+ * <p>The posting lists can be stored in 2 ways:
+ * <ul>
+ *   <li>On-heap: a HashMap from the posting list key (key or key-value pair) to the posting list</li>
+ *   <li>
+ *     Off-heap: the posting list keys are dictionary-encoded with an off-heap string dictionary, and the posting lists
+ *     are stored in a list indexed by the dictionary id, so that no posting list key is kept on heap
+ *   </li>
+ * </ul>
+ * <p>The json documents are flattened with the {@link StreamingJsonFlattener}, which does not build the intermediate
+ * json tree and flattened maps.
  */
 public class MutableJsonIndex implements JsonIndexReader {
   private final Map<String, RoaringBitmap> _postingListMap;
+  private final MutableDictionary _postingListKeyDictionary;
+  private final List<RoaringBitmap> _postingLists;
   private final IntList _docIdMapping;
+  private final StreamingJsonFlattener _jsonFlattener = new StreamingJsonFlattener();
+  private final StreamingJsonFlattener.PairConsumer _pairConsumer = this::addPair;
   private final ReentrantReadWriteLock.ReadLock _readLock;
   private final ReentrantReadWriteLock.WriteLock _writeLock;
 
   private int _nextDocId;
   private int _nextFlattenedDocId;
 
+  /**
+   * Constructs a json index with on-heap posting lists.
+   */
   public MutableJsonIndex() {
-    _postingListMap = new HashMap<>();
+    this(null, null, 0, 0);
+  }
+
+  /**
+   * Constructs a json index with off-heap dictionary-encoded posting lists if the memory manager is provided, or
+   * on-heap posting lists otherwise.
+   */
+  public MutableJsonIndex(@Nullable PinotDataBufferMemoryManager memoryManager, @Nullable String allocationContext,
+      int estimatedCardinality, int avgKeyLength) {
+    if (memoryManager != null) {
+      _postingListMap = null;
+      _postingListKeyDictionary =
+          new StringOffHeapMutableDictionary(estimatedCardinality, estimatedCardinality / 10, memoryManager,
+              allocationContext, avgKeyLength);
+      _postingLists = new ArrayList<>();
+    } else {
+      _postingListMap = new HashMap<>();
+      _postingListKeyDictionary = null;
+      _postingLists = null;
+    }
     _docIdMapping = new IntArrayList();
 
     ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
@@ -73,38 +115,65 @@ public class MutableJsonIndex implements JsonIndexReader {
    */
   public void add(String jsonString)
       throws IOException {
-    List<Map<String, String>> flattenedRecords = JsonUtils.flatten(JsonUtils.stringToJsonNode(jsonString));
+    // Parse and flatten outside of the lock, the flattener is only accessed by the single writer thread
+    int numRecords = _jsonFlattener.flatten(jsonString);
     _writeLock.lock();
     try {
-      addFlattenedRecords(flattenedRecords);
+      addFlattenedRecords(numRecords);
     } finally {
       _writeLock.unlock();
     }
   }
 
   /**
-   * Adds the flattened records for the next document.
+   * Adds the flattened records (stored in the json flattener) for the next document.
    */
-  private void addFlattenedRecords(List<Map<String, String>> records) {
-    int numRecords = records.size();
+  private void addFlattenedRecords(int numRecords)
+      throws IOException {
     Preconditions
         .checkState(_nextFlattenedDocId + numRecords >= 0, "Got more than %s flattened records", Integer.MAX_VALUE);
     for (int i = 0; i < numRecords; i++) {
       _docIdMapping.add(_nextDocId);
     }
-    // TODO: Consider storing tuples as the key of the posting list so that the strings can be reused, and the hashcode
-    //       can be cached.
-    for (Map<String, String> record : records) {
-      for (Map.Entry<String, String> entry : record.entrySet()) {
-        // Put both key and key-value into the posting list. Key is useful for checking if a key exists in the json.
-        String key = entry.getKey();
-        _postingListMap.computeIfAbsent(key, k -> new RoaringBitmap()).add(_nextFlattenedDocId);
-        String keyValue = key + JsonIndexCreator.KEY_VALUE_SEPARATOR + entry.getValue();
-        _postingListMap.computeIfAbsent(keyValue, k -> new RoaringBitmap()).add(_nextFlattenedDocId);
+    _jsonFlattener.forEachPair(_pairConsumer);
+    _nextFlattenedDocId += numRecords;
+    _nextDocId++;
+  }
+
+  /**
+   * Adds the given flattened key-value pair to the posting lists.
+   */
+  private void addPair(int recordIndex, String key, String value) {
+    // Put both key and key-value into the posting list. Key is useful for checking if a key exists in the json.
+    int flattenedDocId = _nextFlattenedDocId + recordIndex;
+    addToPostingList(key, flattenedDocId);
+    addToPostingList(key + JsonIndexCreator.KEY_VALUE_SEPARATOR + value, flattenedDocId);
+  }
+
+  private void addToPostingList(String postingListKey, int flattenedDocId) {
+    if (_postingListMap != null) {
+      _postingListMap.computeIfAbsent(postingListKey, k -> new RoaringBitmap()).add(flattenedDocId);
+    } else {
+      int dictId = _postingListKeyDictionary.index(postingListKey);
+      if (dictId == _postingLists.size()) {
+        _postingLists.add(new RoaringBitmap());
       }
-      _nextFlattenedDocId++;
+      _postingLists.get(dictId).add(flattenedDocId);
+    }
+  }
+
+  /**
+   * Returns the posting list for the given key (key or key-value pair), or {@code null} if it does not exist.
+   * <p>Should be called with the read lock held.
+   */
+  @Nullable
+  private RoaringBitmap getPostingList(String postingListKey) {
+    if (_postingListMap != null) {
+      return _postingListMap.get(postingListKey);
+    } else {
+      int dictId = _postingListKeyDictionary.indexOf(postingListKey);
+      return dictId >= 0 ? _postingLists.get(dictId) : null;
     }
-    _nextDocId++;
   }
 
   @Override
@@ -223,7 +292,7 @@ public class MutableJsonIndex implements JsonIndexReader {
         // "[0]"=1 -> ".$index"='0' && "."='1'
         // ".foo[1].bar"='abc' -> ".foo.$index"=1 && ".foo..bar"='abc'
         String searchKey = leftPart + JsonUtils.ARRAY_INDEX_KEY + BaseJsonIndexCreator.KEY_VALUE_SEPARATOR + arrayIndex;
-        RoaringBitmap docIds = _postingListMap.get(searchKey);
+        RoaringBitmap docIds = getPostingList(searchKey);
         if (docIds != null) {
           if (matchingDocIds == null) {
             matchingDocIds = docIds.clone();
@@ -243,7 +312,7 @@ public class MutableJsonIndex implements JsonIndexReader {
       String value = predicateType == Predicate.Type.EQ ? ((EqPredicate) predicate).getValue()
           : ((NotEqPredicate) predicate).getValue();
       String keyValuePair = key + BaseJsonIndexCreator.KEY_VALUE_SEPARATOR + value;
-      RoaringBitmap matchingDocIdsForKeyValuePair = _postingListMap.get(keyValuePair);
+      RoaringBitmap matchingDocIdsForKeyValuePair = getPostingList(keyValuePair);
       if (matchingDocIdsForKeyValuePair != null) {
         if (matchingDocIds == null) {
           return matchingDocIdsForKeyValuePair.clone();
@@ -260,7 +329,7 @@ public class MutableJsonIndex implements JsonIndexReader {
       RoaringBitmap matchingDocIdsForKeyValuePairs = new RoaringBitmap();
       for (String value : values) {
         String keyValuePair = key + BaseJsonIndexCreator.KEY_VALUE_SEPARATOR + value;
-        RoaringBitmap matchingDocIdsForKeyValuePair = _postingListMap.get(keyValuePair);
+        RoaringBitmap matchingDocIdsForKeyValuePair = getPostingList(keyValuePair);
         if (matchingDocIdsForKeyValuePair != null) {
           matchingDocIdsForKeyValuePairs.or(matchingDocIdsForKeyValuePair);
         }
@@ -272,7 +341,7 @@ public class MutableJsonIndex implements JsonIndexReader {
         return matchingDocIds;
       }
     } else if (predicateType == Predicate.Type.IS_NOT_NULL || predicateType == Predicate.Type.IS_NULL) {
-      RoaringBitmap matchingDocIdsForKey = _postingListMap.get(key);
+      RoaringBitmap matchingDocIdsForKey = getPostingList(key);
       if (matchingDocIdsForKey != null) {
         if (matchingDocIds == null) {
           return matchingDocIdsForKey.clone();
@@ -289,6 +358,10 @@ public class MutableJsonIndex implements JsonIndexReader {
   }
 
   @Override
-  public void close() {
+  public void close()
+      throws IOException {
+    if (_postingListKeyDictionary != null) {
+      _postingListKeyDictionary.close();
+    }
   }
 }
@@ -0,0 +1,723 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.realtime.impl.startree;
+
+import com.google.common.base.MoreObjects;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.ints.IntComparator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.pinot.segment.local.aggregator.ValueAggregator;
+import org.apache.pinot.segment.local.aggregator.ValueAggregatorFactory;
+import org.apache.pinot.segment.local.startree.v2.builder.StarTreeV2BuilderConfig;
+import org.apache.pinot.segment.local.startree.v2.store.StarTreeDataSource;
+import org.apache.pinot.segment.spi.AggregationFunctionType;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReaderContext;
+import org.apache.pinot.segment.spi.index.startree.AggregationFunctionColumnPair;
+import org.apache.pinot.segment.spi.index.startree.StarTree;
+import org.apache.pinot.segment.spi.index.startree.StarTreeNode;
+import org.apache.pinot.segment.spi.index.startree.StarTreeV2;
+import org.apache.pinot.segment.spi.index.startree.StarTreeV2Constants;
+import org.apache.pinot.segment.spi.index.startree.StarTreeV2Constants.MetadataKey;
+import org.apache.pinot.segment.spi.index.startree.StarTreeV2Metadata;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.MetricFieldSpec;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.FixedIntArray;
+
+
+/**
+ * The {@code MutableStarTree} class maintains the star-tree pre-aggregation for a consuming segment.
+ * <p>Each indexed row is aggregated into the record with the same dictionary ids for the dimensions in the split
+ * order, so the cost of indexing a row is a hash lookup plus the value aggregations. On query, an immutable on-heap
+ * {@link StarTreeV2} snapshot is generated from the aggregated records, and served through the same query path as the
+ * star-tree of an immutable segment.
+ * <p>The snapshot is refreshed at most once per refresh interval, so it can lag behind the indexed rows by up to the
+ * refresh interval (similar to the text index of the consuming segment). The refresh is incremental: only the records
+ * updated since the last refresh are copied while holding the indexing lock, and the new records are sorted and merged
+ * into the sorted records of the previous snapshot outside the indexing lock. Queries arriving during a refresh are
+ * served with the previous snapshot.
+ * <p>Different from the star-tree built for the immutable segment, star-nodes are not generated for the snapshot
+ * (same as skipping star-node creation for all dimensions) because they would require re-aggregating the records for
+ * every dimension on each snapshot. The records are sorted on the split order dimensions, and nodes with more than
+ * max leaf records records are split on the next dimension, so the filter on the leading dimensions can still be
+ * solved by traversing the tree.
+ * <p>Only single-value dictionary-encoded dimensions are supported, and the dictionary ids are shared with the
+ * consuming segment. This class is thread-safe for single writer and multiple readers.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class MutableStarTree {
+  public static final long DEFAULT_REFRESH_INTERVAL_MS = 1000L;
+
+  // Estimated on-heap overhead of a record in the record map: hash map entry, key, key array header, record object and
+  // metrics array header
+  private static final int RECORD_OVERHEAD_BYTES = 112;
+  // Estimated on-heap overhead of an aggregated value: object header plus the array header for the serialized values
+  private static final int AGGREGATED_VALUE_OVERHEAD_BYTES = 32;
+
+  private final String[] _dimensions;
+  private final FieldSpec[] _dimensionFieldSpecs;
+  private final Dictionary[] _dictionaries;
+  private final AggregationFunctionColumnPair[] _functionColumnPairs;
+  // Null for COUNT aggregation function
+  private final String[] _metricColumns;
+  private final ValueAggregator[] _valueAggregators;
+  private final int _numDimensions;
+  private final int _numMetrics;
+  private final int _maxLeafRecords;
+  private final long _refreshIntervalMs;
+
+  // Guarded by this
+  private final Map<FixedIntArray, Record> _recordMap = new HashMap<>();
+  // Records added or updated since the last snapshot
+  private final List<Record> _updatedRecords = new ArrayList<>();
+  // Written under the lock of this, but can be read without lock to check whether the snapshot is stale
+  private volatile int _numRowsIndexed;
+
+  // Guarded by _snapshotLock
+  private final ReentrantLock _snapshotLock = new ReentrantLock();
+  // Copies of the records as of the current snapshot, indexed by the record id
+  private int _numSnapshotRecords;
+  private int[][] _snapshotDimensions = new int[0][];
+  private Object[][] _snapshotMetrics = new Object[0][];
+  // Ids of the snapshot records sorted on the dimensions in the split order
+  private int[] _sortedRecordIds = new int[0];
+  private volatile Snapshot _snapshot;
+
+  /**
+   * Constructor for the mutable star-tree. The field specs and dictionaries should be of the dimensions in the split
+   * order of the builder config.
+   */
+  public MutableStarTree(StarTreeV2BuilderConfig builderConfig, FieldSpec[] dimensionFieldSpecs,
+      Dictionary[] dictionaries) {
+    this(builderConfig, dimensionFieldSpecs, dictionaries, DEFAULT_REFRESH_INTERVAL_MS);
+  }
+
+  /**
+   * Constructor for the mutable star-tree with the minimum interval between snapshot refreshes.
+   */
+  public MutableStarTree(StarTreeV2BuilderConfig builderConfig, FieldSpec[] dimensionFieldSpecs,
+      Dictionary[] dictionaries, long refreshIntervalMs) {
+    List<String> dimensionsSplitOrder = builderConfig.getDimensionsSplitOrder();
+    _numDimensions = dimensionsSplitOrder.size();
+    _dimensions = dimensionsSplitOrder.toArray(new String[0]);
+    _dimensionFieldSpecs = dimensionFieldSpecs;
+    _dictionaries = dictionaries;
+
+    _numMetrics = builderConfig.getFunctionColumnPairs().size();
+    _functionColumnPairs = builderConfig.getFunctionColumnPairs().toArray(new AggregationFunctionColumnPair[0]);
+    _metricColumns = new String[_numMetrics];
+    _valueAggregators = new ValueAggregator[_numMetrics];
+    for (int i = 0; i < _numMetrics; i++) {
+      AggregationFunctionColumnPair functionColumnPair = _functionColumnPairs[i];
+      _valueAggregators[i] = ValueAggregatorFactory.getValueAggregator(functionColumnPair.getFunctionType());
+      // Ignore the column for COUNT aggregation function
+      if (_valueAggregators[i].getAggregationType() != AggregationFunctionType.COUNT) {
+        _metricColumns[i] = functionColumnPair.getColumn();
+      }
+    }
+
+    _maxLeafRecords = builderConfig.getMaxLeafRecords();
+    _refreshIntervalMs = refreshIntervalMs;
+  }
+
+  public String[] getDimensions() {
+    return _dimensions;
+  }
+
+  /**
+   * Aggregates a row into the star-tree.
+   *
+   * @param dictIds Dictionary ids of the dimensions in the split order
+   * @param row Row to be indexed
+   */
+  @SuppressWarnings("NonAtomicOperationOnVolatileField")
+  public synchronized void index(int[] dictIds, GenericRow row) {
+    FixedIntArray key = new FixedIntArray(dictIds);
+    Record record = _recordMap.get(key);
+    if (record == null) {
+      Object[] metrics = new Object[_numMetrics];
+      for (int i = 0; i < _numMetrics; i++) {
+        metrics[i] = _valueAggregators[i].getInitialAggregatedValue(getRawValue(row, i));
+      }
+      record = new Record(_recordMap.size(), dictIds, metrics);
+      _recordMap.put(key, record);
+    } else {
+      Object[] metrics = record._metrics;
+      for (int i = 0; i < _numMetrics; i++) {
+        metrics[i] = _valueAggregators[i].applyRawValue(metrics[i], getRawValue(row, i));
+      }
+    }
+    if (!record._updated) {
+      record._updated = true;
+      _updatedRecords.add(record);
+    }
+    _numRowsIndexed++;
+  }
+
+  @Nullable
+  private Object getRawValue(GenericRow row, int metricIndex) {
+    String column = _metricColumns[metricIndex];
+    return column != null ? row.getValue(column) : null;
+  }
+
+  /**
+   * Returns the star-tree snapshot for the rows indexed so far, or {@code null} if no row has been indexed. The
+   * snapshot is refreshed if it is stale and the refresh interval has passed since the last refresh.
+   */
+  @Nullable
+  public StarTreeV2 getStarTree() {
+    Snapshot snapshot = _snapshot;
+    if (snapshot != null && !isRefreshNeeded(snapshot)) {
+      return snapshot;
+    }
+    if (!_snapshotLock.tryLock()) {
+      // Serve the current snapshot if another thread is refreshing it
+      if (snapshot != null) {
+        return snapshot;
+      }
+      _snapshotLock.lock();
+    }
+    try {
+      snapshot = _snapshot;
+      if (snapshot == null ? _numRowsIndexed > 0 : isRefreshNeeded(snapshot)) {
+        snapshot = refreshSnapshot();
+        _snapshot = snapshot;
+      }
+      return snapshot;
+    } finally {
+      _snapshotLock.unlock();
+    }
+  }
+
+  private boolean isRefreshNeeded(Snapshot snapshot) {
+    return _numRowsIndexed != snapshot._numRowsIndexed
+        && System.currentTimeMillis() - snapshot._refreshTimeMs >= _refreshIntervalMs;
+  }
+
+  /**
+   * Returns the estimated on-heap memory in bytes used by the aggregated records, including the copies of the records
+   * for the snapshot.
+   */
+  public long getMemoryUsage() {
+    int numRecords;
+    synchronized (this) {
+      numRecords = _recordMap.size();
+    }
+    long metricBytes = 0;
+    for (ValueAggregator valueAggregator : _valueAggregators) {
+      metricBytes += Long.BYTES + AGGREGATED_VALUE_OVERHEAD_BYTES
+          + Math.max(valueAggregator.getMaxAggregatedValueByteSize(), Long.BYTES);
+    }
+    // Each record is stored in the record map and copied for the snapshot
+    long bytesPerRecord = RECORD_OVERHEAD_BYTES + (long) Integer.BYTES * _numDimensions + 2 * metricBytes;
+    return numRecords * bytesPerRecord;
+  }
+
+  private Snapshot refreshSnapshot() {
+    long refreshTimeMs = System.currentTimeMillis();
+    int numRowsIndexed;
+    int numRecords;
+    Record[] updatedRecords;
+    Object[][] updatedMetrics;
+    synchronized (this) {
+      // Only copy the updated records while holding the lock for indexing. The aggregated values are cloned because
+      // they can be modified in place by the value aggregator.
+      numRowsIndexed = _numRowsIndexed;
+      numRecords = _recordMap.size();
+      int numUpdatedRecords = _updatedRecords.size();
+      updatedRecords = _updatedRecords.toArray(new Record[0]);
+      updatedMetrics = new Object[numUpdatedRecords][];
+      for (int i = 0; i < numUpdatedRecords; i++) {
+        Record record = updatedRecords[i];
+        record._updated = false;
+        updatedMetrics[i] = cloneMetrics(record._metrics);
+      }
+      _updatedRecords.clear();
+    }
+
+    // Apply the updated records to the snapshot records
+    if (numRecords > _snapshotMetrics.length) {
+      int capacity = Math.max(numRecords, _snapshotMetrics.length * 2);
+      _snapshotDimensions = Arrays.copyOf(_snapshotDimensions, capacity);
+      _snapshotMetrics = Arrays.copyOf(_snapshotMetrics, capacity);
+    }
+    int numUpdatedRecords = updatedRecords.length;
+    for (int i = 0; i < numUpdatedRecords; i++) {
+      Record record = updatedRecords[i];
+      _snapshotDimensions[record._id] = record._dimensions;
+      _snapshotMetrics[record._id] = updatedMetrics[i];
+    }
+
+    // Sort the new records (ids from the number of records in the previous snapshot), and merge them into the sorted
+    // records of the previous snapshot
+    int numPreviousRecords = _numSnapshotRecords;
+    int numNewRecords = numRecords - numPreviousRecords;
+    if (numNewRecords > 0) {
+      int[][] snapshotDimensions = _snapshotDimensions;
+      IntComparator comparator = (id1, id2) -> Arrays.compare(snapshotDimensions[id1], snapshotDimensions[id2]);
+      int[] newRecordIds = new int[numNewRecords];
+      for (int i = 0; i < numNewRecords; i++) {
+        newRecordIds[i] = numPreviousRecords + i;
+      }
+      IntArrays.quickSort(newRecordIds, comparator);
+      int[] sortedRecordIds = new int[numRecords];
+      int previousIndex = 0;
+      int newIndex = 0;
+      for (int i = 0; i < numRecords; i++) {
+        if (newIndex == numNewRecords || (previousIndex < numPreviousRecords
+            && comparator.compare(_sortedRecordIds[previousIndex], newRecordIds[newIndex]) < 0)) {
+          sortedRecordIds[i] = _sortedRecordIds[previousIndex++];
+        } else {
+          sortedRecordIds[i] = newRecordIds[newIndex++];
+        }
+      }
+      _sortedRecordIds = sortedRecordIds;
+      _numSnapshotRecords = numRecords;
+    }
+
+    return buildSnapshot(numRowsIndexed, refreshTimeMs);
+  }
+
+  private Object[] cloneMetrics(Object[] metrics) {
+    Object[] clonedMetrics = new Object[_numMetrics];
+    for (int i = 0; i < _numMetrics; i++) {
+      clonedMetrics[i] = _valueAggregators[i].cloneAggregatedValue(metrics[i]);
+    }
+    return clonedMetrics;
+  }
+
+  private Snapshot buildSnapshot(int numRowsIndexed, long refreshTimeMs) {
+    int numRecords = _numSnapshotRecords;
+    List<int[]> starTreeDimensions = new ArrayList<>(numRecords);
+    List<Object[]> starTreeMetrics = new ArrayList<>(numRecords);
+    for (int i = 0; i < numRecords; i++) {
+      int sortedId = _sortedRecordIds[i];
+      starTreeDimensions.add(_snapshotDimensions[sortedId]);
+      starTreeMetrics.add(_snapshotMetrics[sortedId]);
+    }
+
+    // Construct the tree, and append the aggregated records for the nodes
+    Node root = new Node(StarTreeNode.ALL, StarTreeNode.ALL, 0, numRecords);
+    constructNode(root, 0, starTreeDimensions, starTreeMetrics);
+
+    int numDocs = starTreeDimensions.size();
+    Map<String, DataSource> dataSourceMap = new HashMap<>();
+    for (int i = 0; i < _numDimensions; i++) {
+      int[] dictIds = new int[numDocs];
+      for (int docId = 0; docId < numDocs; docId++) {
+        dictIds[docId] = starTreeDimensions.get(docId)[i];
+      }
+      dataSourceMap.put(_dimensions[i],
+          new StarTreeDataSource(_dimensionFieldSpecs[i], numDocs, new DictIdReader(dictIds), _dictionaries[i]));
+    }
+    for (int i = 0; i < _numMetrics; i++) {
+      String metric = _functionColumnPairs[i].toColumnName();
+      ValueAggregator valueAggregator = _valueAggregators[i];
+      DataType valueType = valueAggregator.getAggregatedValueType();
+      MetricReader metricReader = new MetricReader(valueType, numDocs);
+      for (int docId = 0; docId < numDocs; docId++) {
+        metricReader.setValue(docId, valueAggregator, starTreeMetrics.get(docId)[i]);
+      }
+      dataSourceMap.put(metric,
+          new StarTreeDataSource(new MetricFieldSpec(metric, valueType), numDocs, metricReader, null));
+    }
+
+    PropertiesConfiguration metadataProperties = new PropertiesConfiguration();
+    metadataProperties.setProperty(MetadataKey.TOTAL_DOCS, numDocs);
+    metadataProperties.setProperty(MetadataKey.DIMENSIONS_SPLIT_ORDER, _dimensions);
+    String[] metricNames = new String[_numMetrics];
+    for (int i = 0; i < _numMetrics; i++) {
+      metricNames[i] = _functionColumnPairs[i].toColumnName();
+    }
+    metadataProperties.setProperty(MetadataKey.FUNCTION_COLUMN_PAIRS, metricNames);
+    metadataProperties.setProperty(MetadataKey.MAX_LEAF_RECORDS, _maxLeafRecords);
+    metadataProperties.setProperty(MetadataKey.SKIP_STAR_NODE_CREATION_FOR_DIMENSIONS, _dimensions);
+
+    return new Snapshot(numRowsIndexed, refreshTimeMs, new OnHeapStarTree(root, Arrays.asList(_dimensions)),
+        new StarTreeV2Metadata(metadataProperties), dataSourceMap);
+  }
+
+  /**
+   * Splits the node on the given dimension if it contains more than max leaf records records, appends the aggregated
+   * record for the node if needed, and returns the aggregated metrics of the node.
+   */
+  private Object[] constructNode(Node node, int childDimensionId, List<int[]> dimensions, List<Object[]> metrics) {
+    int startDocId = node._startDocId;
+    int endDocId = node._endDocId;
+    Object[] aggregatedMetrics = null;
+    if (endDocId - startDocId > _maxLeafRecords && childDimensionId < _numDimensions) {
+      node._childDimensionId = childDimensionId;
+      List<Node> children = new ArrayList<>();
+      int childStartDocId = startDocId;
+      int childDimensionValue = dimensions.get(startDocId)[childDimensionId];
+      for (int docId = startDocId + 1; docId <= endDocId; docId++) {
+        int dimensionValue = docId < endDocId ? dimensions.get(docId)[childDimensionId] : StarTreeNode.ALL;
+        if (dimensionValue != childDimensionValue) {
+          Node child = new Node(childDimensionId, childDimensionValue, childStartDocId, docId);
+          aggregatedMetrics =
+              mergeMetrics(aggregatedMetrics, constructNode(child, childDimensionId + 1, dimensions, metrics));
+          children.add(child);
+          childStartDocId = docId;
+          childDimensionValue = dimensionValue;
+        }
+      }
+      node._children = children.toArray(new Node[0]);
+    } else {
+      for (int docId = startDocId; docId < endDocId; docId++) {
+        aggregatedMetrics = mergeMetrics(aggregatedMetrics, metrics.get(docId));
+      }
+    }
+
+    if (endDocId - startDocId == 1) {
+      node._aggregatedDocId = startDocId;
+    } else {
+      // Keep the dimension values up to the dimension of the node, and use star for the following dimensions
+      int[] aggregatedDimensions = new int[_numDimensions];
+      int[] startDimensions = dimensions.get(startDocId);
+      for (int i = 0; i < _numDimensions; i++) {
+        aggregatedDimensions[i] =
+            i <= node._dimensionId ? startDimensions[i] : StarTreeV2Constants.STAR_IN_FORWARD_INDEX;
+      }
+      node._aggregatedDocId = dimensions.size();
+      dimensions.add(aggregatedDimensions);
+      metrics.add(aggregatedMetrics);
+    }
+    return aggregatedMetrics;
+  }
+
+  private Object[] mergeMetrics(@Nullable Object[] aggregatedMetrics, Object[] metrics) {
+    if (aggregatedMetrics == null) {
+      return cloneMetrics(metrics);
+    }
+    for (int i = 0; i < _numMetrics; i++) {
+      aggregatedMetrics[i] = _valueAggregators[i].applyAggregatedValue(aggregatedMetrics[i], metrics[i]);
+    }
+    return aggregatedMetrics;
+  }
+
+  private static class Record {
+    final int _id;
+    final int[] _dimensions;
+    final Object[] _metrics;
+    // Whether the record is added to the updated records since the last snapshot
+    boolean _updated;
+
+    Record(int id, int[] dimensions, Object[] metrics) {
+      _id = id;
+      _dimensions = dimensions;
+      _metrics = metrics;
+    }
+  }
+
+  private static class Snapshot implements StarTreeV2 {
+    final int _numRowsIndexed;
+    final long _refreshTimeMs;
+    final StarTree _starTree;
+    final StarTreeV2Metadata _metadata;
+    final Map<String, DataSource> _dataSourceMap;
+
+    Snapshot(int numRowsIndexed, long refreshTimeMs, StarTree starTree, StarTreeV2Metadata metadata,
+        Map<String, DataSource> dataSourceMap) {
+      _numRowsIndexed = numRowsIndexed;
+      _refreshTimeMs = refreshTimeMs;
+      _starTree = starTree;
+      _metadata = metadata;
+      _dataSourceMap = dataSourceMap;
+    }
+
+    @Override
+    public StarTree getStarTree() {
+      return _starTree;
+    }
+
+    @Override
+    public StarTreeV2Metadata getMetadata() {
+      return _metadata;
+    }
+
+    @Override
+    public DataSource getDataSource(String columnName) {
+      return _dataSourceMap.get(columnName);
+    }
+
+    @Override
+    public void close() {
+      // NOTE: The snapshot is fully on-heap, and the dictionaries are managed by the consuming segment.
+    }
+  }
+
+  private static class OnHeapStarTree implements StarTree {
+    final Node _root;
+    final List<String> _dimensionNames;
+
+    OnHeapStarTree(Node root, List<String> dimensionNames) {
+      _root = root;
+      _dimensionNames = dimensionNames;
+    }
+
+    @Override
+    public StarTreeNode getRoot() {
+      return _root;
+    }
+
+    @Override
+    public List<String> getDimensionNames() {
+      return _dimensionNames;
+    }
+
+    @Override
+    public void printTree(Map<String, Dictionary> dictionaryMap) {
+      printTreeHelper(dictionaryMap, _root, 0);
+    }
+
+    private void printTreeHelper(Map<String, Dictionary> dictionaryMap, Node node, int level) {
+      StringBuilder stringBuilder = new StringBuilder();
+      for (int i = 0; i < level; i++) {
+        stringBuilder.append("  ");
+      }
+      String dimensionName = "ALL";
+      String dimensionValueString = "ALL";
+      if (node._dimensionId != StarTreeNode.ALL) {
+        dimensionName = _dimensionNames.get(node._dimensionId);
+        dimensionValueString = dictionaryMap.get(dimensionName).get(node._dimensionValue).toString();
+      }
+      stringBuilder.append(MoreObjects.toStringHelper(node).add("level", level).add("dimensionName", dimensionName)
+          .add("dimensionValue", dimensionValueString).add("startDocId", node._startDocId)
+          .add("endDocId", node._endDocId).add("aggregatedDocId", node._aggregatedDocId)
+          .add("numChildren", node.getNumChildren()).toString());
+      System.out.println(stringBuilder.toString());
+      if (node._children != null) {
+        for (Node child : node._children) {
+          printTreeHelper(dictionaryMap, child, level + 1);
+        }
+      }
+    }
+  }
+
+  private static class Node implements StarTreeNode {
+    final int _dimensionId;
+    final int _dimensionValue;
+    final int _startDocId;
+    final int _endDocId;
+    int _aggregatedDocId;
+    int _childDimensionId = -1;
+    // Sorted by the dimension value, null for leaf node
+    Node[] _children;
+
+    Node(int dimensionId, int dimensionValue, int startDocId, int endDocId) {
+      _dimensionId = dimensionId;
+      _dimensionValue = dimensionValue;
+      _startDocId = startDocId;
+      _endDocId = endDocId;
+    }
+
+    @Override
+    public int getDimensionId() {
+      return _dimensionId;
+    }
+
+    @Override
+    public int getDimensionValue() {
+      return _dimensionValue;
+    }
+
+    @Override
+    public int getChildDimensionId() {
+      return _childDimensionId;
+    }
+
+    @Override
+    public int getStartDocId() {
+      return _startDocId;
+    }
+
+    @Override
+    public int getEndDocId() {
+      return _endDocId;
+    }
+
+    @Override
+    public int getAggregatedDocId() {
+      return _aggregatedDocId;
+    }
+
+    @Override
+    public int getNumChildren() {
+      return _children != null ? _children.length : 0;
+    }
+
+    @Override
+    public boolean isLeaf() {
+      return _children == null;
+    }
+
+    @Nullable
+    @Override
+    public StarTreeNode getChildForDimensionValue(int dimensionValue) {
+      if (_children == null || dimensionValue == StarTreeNode.ALL) {
+        return null;
+      }
+      int low = 0;
+      int high = _children.length - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        int midValue = _children[mid]._dimensionValue;
+        if (midValue < dimensionValue) {
+          low = mid + 1;
+        } else if (midValue > dimensionValue) {
+          high = mid - 1;
+        } else {
+          return _children[mid];
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public Iterator<Node> getChildrenIterator() {
+      return _children != null ? Arrays.asList(_children).iterator() : Collections.emptyIterator();
+    }
+  }
+
+  private static class DictIdReader implements ForwardIndexReader<ForwardIndexReaderContext> {
+    final int[] _dictIds;
+
+    DictIdReader(int[] dictIds) {
+      _dictIds = dictIds;
+    }
+
+    @Override
+    public boolean isDictionaryEncoded() {
+      return true;
+    }
+
+    @Override
+    public boolean isSingleValue() {
+      return true;
+    }
+
+    @Override
+    public DataType getValueType() {
+      return DataType.INT;
+    }
+
+    @Override
+    public int getDictId(int docId, ForwardIndexReaderContext context) {
+      return _dictIds[docId];
+    }
+
+    @Override
+    public void readDictIds(int[] docIds, int length, int[] dictIdBuffer, ForwardIndexReaderContext context) {
+      for (int i = 0; i < length; i++) {
+        dictIdBuffer[i] = _dictIds[docIds[i]];
+      }
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static class MetricReader implements ForwardIndexReader<ForwardIndexReaderContext> {
+    final DataType _valueType;
+    final long[] _longValues;
+    final double[] _doubleValues;
+    final byte[][] _bytesValues;
+
+    MetricReader(DataType valueType, int numDocs) {
+      _valueType = valueType;
+      _longValues = valueType == DataType.LONG ? new long[numDocs] : null;
+      _doubleValues = valueType == DataType.DOUBLE ? new double[numDocs] : null;
+      _bytesValues = valueType == DataType.BYTES ? new byte[numDocs][] : null;
+    }
+
+    void setValue(int docId, ValueAggregator valueAggregator, Object value) {
+      switch (_valueType) {
+        case LONG:
+          _longValues[docId] = ((Number) value).longValue();
+          break;
+        case DOUBLE:
+          _doubleValues[docId] = ((Number) value).doubleValue();
+          break;
+        case BYTES:
+          _bytesValues[docId] = valueAggregator.serializeAggregatedValue(value);
+          break;
+        default:
+          throw new IllegalStateException("Unsupported aggregated value type: " + _valueType);
+      }
+    }
+
+    @Override
+    public boolean isDictionaryEncoded() {
+      return false;
+    }
+
+    @Override
+    public boolean isSingleValue() {
+      return true;
+    }
+
+    @Override
+    public DataType getValueType() {
+      return _valueType;
+    }
+
+    @Override
+    public int getInt(int docId, ForwardIndexReaderContext context) {
+      return _longValues != null ? (int) _longValues[docId] : (int) _doubleValues[docId];
+    }
+
+    @Override
+    public long getLong(int docId, ForwardIndexReaderContext context) {
+      return _longValues != null ? _longValues[docId] : (long) _doubleValues[docId];
+    }
+
+    @Override
+    public float getFloat(int docId, ForwardIndexReaderContext context) {
+      return _longValues != null ? _longValues[docId] : (float) _doubleValues[docId];
+    }
+
+    @Override
+    public double getDouble(int docId, ForwardIndexReaderContext context) {
+      return _longValues != null ? _longValues[docId] : _doubleValues[docId];
+    }
+
+    @Override
+    public byte[] getBytes(int docId, ForwardIndexReaderContext context) {
+      return _bytesValues[docId];
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
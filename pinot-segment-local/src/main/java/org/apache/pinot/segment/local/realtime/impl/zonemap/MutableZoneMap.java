@@ -0,0 +1,101 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.realtime.impl.zonemap;
+
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
+import org.apache.pinot.spi.utils.ByteArray;
+
+
+/**
+ * Zone map for a single-value column in the mutable segment, which is maintained incrementally while the documents
+ * are indexed.
+ * <p>This class is thread-safe for single writer multiple readers. The min/max value of a block only expands as more
+ * documents are added, so a reader always gets a range covering all the documents indexed before the reader reads the
+ * number of documents of the segment.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class MutableZoneMap implements ZoneMapReader {
+  private final int _numDocsPerBlock;
+  private final int[] _nullCounts;
+  private final Comparable[] _minValues;
+  private final Comparable[] _maxValues;
+
+  private volatile int _numBlocks;
+
+  public MutableZoneMap(int capacity, int numDocsPerBlock) {
+    _numDocsPerBlock = numDocsPerBlock;
+    int maxNumBlocks = (capacity + numDocsPerBlock - 1) / numDocsPerBlock;
+    _nullCounts = new int[maxNumBlocks];
+    _minValues = new Comparable[maxNumBlocks];
+    _maxValues = new Comparable[maxNumBlocks];
+  }
+
+  /**
+   * Adds the value of the given document. The value should be in the stored type of the column (e.g. byte[] for BYTES
+   * column). Documents should be added in the order of the document id.
+   */
+  public void add(int docId, Object value, boolean isNull) {
+    Comparable comparableValue = value instanceof byte[] ? new ByteArray((byte[]) value) : (Comparable) value;
+    int blockId = docId / _numDocsPerBlock;
+    if (blockId == _numBlocks) {
+      _minValues[blockId] = comparableValue;
+      _maxValues[blockId] = comparableValue;
+      _numBlocks = blockId + 1;
+    } else {
+      if (comparableValue.compareTo(_minValues[blockId]) < 0) {
+        _minValues[blockId] = comparableValue;
+      }
+      if (comparableValue.compareTo(_maxValues[blockId]) > 0) {
+        _maxValues[blockId] = comparableValue;
+      }
+    }
+    if (isNull) {
+      _nullCounts[blockId]++;
+    }
+  }
+
+  @Override
+  public int getNumDocsPerBlock() {
+    return _numDocsPerBlock;
+  }
+
+  @Override
+  public int getNumBlocks() {
+    return _numBlocks;
+  }
+
+  @Override
+  public Comparable getMinValue(int blockId) {
+    return _minValues[blockId];
+  }
+
+  @Override
+  public Comparable getMaxValue(int blockId) {
+    return _maxValues[blockId];
+  }
+
+  @Override
+  public int getNullCount(int blockId) {
+    return _nullCounts[blockId];
+  }
+
+  @Override
+  public void close() {
+  }
+}
@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.recordtransformer;
+
+import org.apache.pinot.spi.data.readers.IndexedGenericRow;
+
+
+/**
+ * Resolves the slots of a fixed set of columns in the {@link IndexedGenericRow.Layout} of the records. The slots are
+ * cached for the last seen layout, so that they are only resolved once for all the records sharing the same layout.
+ * <p>NOTE: This class is not thread-safe, and should be used by a single record transformer.
+ */
+class ColumnSlotResolver {
+  private final String[] _columns;
+  private IndexedGenericRow.Layout _layout;
+  private int[] _slots;
+
+  ColumnSlotResolver(String[] columns) {
+    _columns = columns;
+  }
+
+  /**
+   * Returns the slots of the columns in the layout of the given record, where the slot is -1 for the column not in the
+   * layout.
+   */
+  int[] getSlots(IndexedGenericRow record) {
+    IndexedGenericRow.Layout layout = record.getLayout();
+    if (layout != _layout) {
+      _slots = layout.getSlots(_columns);
+      _layout = layout;
+    }
+    return _slots;
+  }
+}
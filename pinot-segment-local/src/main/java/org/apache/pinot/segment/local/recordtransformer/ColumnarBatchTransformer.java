@@ -0,0 +1,193 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.recordtransformer;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pinot.common.utils.PinotDataType;
+import org.apache.pinot.common.utils.StringUtil;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.ingestion.IngestionConfig;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.FieldSpec.FieldType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
+import org.apache.pinot.spi.data.readers.RecordReader;
+
+
+/**
+ * The {@code ColumnarBatchTransformer} class applies the default record transformation to a {@link ColumnarBatch}
+ * column by column, which gives the same values as applying the {@link DataTypeTransformer},
+ * {@link NullValueTransformer} and {@link SanitizationTransformer} to each row. It is only applicable when
+ * {@link #isSupported(TableConfig, Schema)} returns {@code true}, i.e. there is no expression, filter or complex type
+ * transformation, and all the columns are single-valued.
+ * <p>The transformed batch contains one value array of the stored type for each column in the schema, where the
+ * {@code null} values are filled with the default null value of the column and marked as {@code null}.
+ */
+public class ColumnarBatchTransformer {
+  private final List<FieldSpec> _fieldSpecs = new ArrayList<>();
+  private final List<PinotDataType> _dataTypes = new ArrayList<>();
+
+  public ColumnarBatchTransformer(Schema schema) {
+    for (FieldSpec fieldSpec : schema.getAllFieldSpecs()) {
+      if (!fieldSpec.isVirtualColumn()) {
+        _fieldSpecs.add(fieldSpec);
+        _dataTypes.add(PinotDataType.getPinotDataTypeForIngestion(fieldSpec));
+      }
+    }
+  }
+
+  /**
+   * Returns whether the records from the given record reader can be read and transformed in columnar batches.
+   */
+  public static boolean isSupported(RecordReader recordReader, TableConfig tableConfig, Schema schema) {
+    return recordReader instanceof ColumnarRecordReader && ((ColumnarRecordReader) recordReader)
+        .isColumnarBatchSupported() && isSupported(tableConfig, schema);
+  }
+
+  /**
+   * Returns whether the records of the table can be transformed in columnar batches.
+   */
+  public static boolean isSupported(TableConfig tableConfig, Schema schema) {
+    IngestionConfig ingestionConfig = tableConfig.getIngestionConfig();
+    if (ingestionConfig != null && (ingestionConfig.getFilterConfig() != null
+        || ingestionConfig.getComplexTypeConfig() != null)) {
+      return false;
+    }
+    if (!new ExpressionTransformer(tableConfig, schema).isNoOp()) {
+      return false;
+    }
+    for (FieldSpec fieldSpec : schema.getAllFieldSpecs()) {
+      if (!fieldSpec.isVirtualColumn() && (!fieldSpec.isSingleValueField()
+          || fieldSpec.getFieldType() == FieldType.TIME)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Transforms the given batch read from the record reader into the given output batch, and returns the output batch.
+   * The value arrays of the input batch might be modified and shared with the output batch.
+   */
+  public ColumnarBatch transform(ColumnarBatch input, ColumnarBatch output) {
+    output.clear();
+    int numRows = input.getNumRows();
+    int numColumns = _fieldSpecs.size();
+    for (int i = 0; i < numColumns; i++) {
+      FieldSpec fieldSpec = _fieldSpecs.get(i);
+      String column = fieldSpec.getName();
+      DataType storedType = fieldSpec.getDataType().getStoredType();
+      Object defaultNullValue = fieldSpec.getDefaultNullValue();
+      Object inputValues = input.getValues(column);
+      boolean[] nulls;
+      Object values;
+      if (fieldSpec.getDataType() == storedType && isStoredTypeArray(inputValues, storedType)) {
+        // Values are already of the stored type, only fill the default null values
+        values = inputValues;
+        nulls = input.getNulls(column);
+        if (nulls != null) {
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            if (nulls[rowId]) {
+              setValue(values, rowId, defaultNullValue, storedType);
+            }
+          }
+        }
+      } else {
+        values = output.getOrCreateValues(column, getStoredTypeArrayClass(storedType), numRows);
+        nulls = null;
+        PinotDataType dest = _dataTypes.get(i);
+        for (int rowId = 0; rowId < numRows; rowId++) {
+          Object value = input.isNullValue(column, rowId) ? null : input.getValue(column, rowId);
+          if (value != null) {
+            value = DataTypeTransformer.transformValue(column, value, dest);
+          }
+          if (value == null) {
+            if (nulls == null) {
+              nulls = new boolean[numRows];
+            }
+            nulls[rowId] = true;
+            value = defaultNullValue;
+          }
+          setValue(values, rowId, value, storedType);
+        }
+      }
+      if (storedType == DataType.STRING) {
+        String[] stringValues = (String[]) values;
+        int maxLength = fieldSpec.getMaxLength();
+        for (int rowId = 0; rowId < numRows; rowId++) {
+          stringValues[rowId] = StringUtil.sanitizeStringValue(stringValues[rowId], maxLength);
+        }
+      }
+      output.putValues(column, values, nulls);
+    }
+    output.setNumRows(numRows);
+    return output;
+  }
+
+  private static boolean isStoredTypeArray(Object values, DataType storedType) {
+    return values != null && values.getClass() == getStoredTypeArrayClass(storedType);
+  }
+
+  private static Class<?> getStoredTypeArrayClass(DataType storedType) {
+    switch (storedType) {
+      case INT:
+        return int[].class;
+      case LONG:
+        return long[].class;
+      case FLOAT:
+        return float[].class;
+      case DOUBLE:
+        return double[].class;
+      case STRING:
+        return String[].class;
+      case BYTES:
+        return byte[][].class;
+      default:
+        throw new IllegalStateException("Unsupported stored type: " + storedType);
+    }
+  }
+
+  private static void setValue(Object values, int rowId, Object value, DataType storedType) {
+    switch (storedType) {
+      case INT:
+        ((int[]) values)[rowId] = (Integer) value;
+        break;
+      case LONG:
+        ((long[]) values)[rowId] = (Long) value;
+        break;
+      case FLOAT:
+        ((float[]) values)[rowId] = (Float) value;
+        break;
+      case DOUBLE:
+        ((double[]) values)[rowId] = (Double) value;
+        break;
+      case STRING:
+        ((String[]) values)[rowId] = (String) value;
+        break;
+      case BYTES:
+        ((byte[][]) values)[rowId] = (byte[]) value;
+        break;
+      default:
+        throw new IllegalStateException("Unsupported stored type: " + storedType);
+    }
+  }
+}
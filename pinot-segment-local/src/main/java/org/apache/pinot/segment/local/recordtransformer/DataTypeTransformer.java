@@ -32,6 +32,7 @@ import org.apache.pinot.common.utils.PinotDataType;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.IndexedGenericRow;
 
 
 /**
@@ -67,60 +68,139 @@ public class DataTypeTransformer implements RecordTransformer {
     MULTI_VALUE_TYPE_MAP.put(String.class, PinotDataType.STRING_ARRAY);
   }
 
-  private final Map<String, PinotDataType> _dataTypes = new HashMap<>();
+  // Value classes that are already in the internal representation of the destination data type
+  private static final Map<PinotDataType, Class> INTERNAL_VALUE_CLASS_MAP = new HashMap<>();
+
+  static {
+    INTERNAL_VALUE_CLASS_MAP.put(PinotDataType.INTEGER, Integer.class);
+    INTERNAL_VALUE_CLASS_MAP.put(PinotDataType.LONG, Long.class);
+    INTERNAL_VALUE_CLASS_MAP.put(PinotDataType.FLOAT, Float.class);
+    INTERNAL_VALUE_CLASS_MAP.put(PinotDataType.DOUBLE, Double.class);
+    INTERNAL_VALUE_CLASS_MAP.put(PinotDataType.STRING, String.class);
+    INTERNAL_VALUE_CLASS_MAP.put(PinotDataType.BYTES, byte[].class);
+  }
+
+  private final String[] _columns;
+  private final PinotDataType[] _dataTypes;
+  private final Class[] _internalValueClasses;
+  private final ColumnSlotResolver _slotResolver;
 
   public DataTypeTransformer(Schema schema) {
+    List<String> columns = new ArrayList<>();
+    List<PinotDataType> dataTypes = new ArrayList<>();
     for (FieldSpec fieldSpec : schema.getAllFieldSpecs()) {
       if (!fieldSpec.isVirtualColumn()) {
-        _dataTypes.put(fieldSpec.getName(), PinotDataType.getPinotDataTypeForIngestion(fieldSpec));
+        columns.add(fieldSpec.getName());
+        dataTypes.add(PinotDataType.getPinotDataTypeForIngestion(fieldSpec));
       }
     }
+    _columns = columns.toArray(new String[0]);
+    _dataTypes = dataTypes.toArray(new PinotDataType[0]);
+    _internalValueClasses = new Class[_dataTypes.length];
+    for (int i = 0; i < _dataTypes.length; i++) {
+      _internalValueClasses[i] = INTERNAL_VALUE_CLASS_MAP.get(_dataTypes[i]);
+    }
+    _slotResolver = new ColumnSlotResolver(_columns);
   }
 
   @Override
   public GenericRow transform(GenericRow record) {
-    for (Map.Entry<String, PinotDataType> entry : _dataTypes.entrySet()) {
-      String column = entry.getKey();
-      try {
-        Object value = record.getValue(column);
-        if (value == null) {
-          continue;
-        }
-        PinotDataType dest = entry.getValue();
-        value = standardize(column, value, dest.isSingleValue());
-        // NOTE: The standardized value could be null for empty Collection/Map/Object[].
-        if (value == null) {
-          record.putValue(column, null);
-          continue;
+    int numColumns = _columns.length;
+    if (record instanceof IndexedGenericRow) {
+      // Fast path for the indexed record, where the values are accessed via the slots
+      IndexedGenericRow indexedRecord = (IndexedGenericRow) record;
+      int[] slots = _slotResolver.getSlots(indexedRecord);
+      for (int i = 0; i < numColumns; i++) {
+        int slot = slots[i];
+        if (slot >= 0) {
+          transform(indexedRecord, slot, _columns[i], _dataTypes[i], _internalValueClasses[i]);
+        } else {
+          transform(record, _columns[i], _dataTypes[i]);
         }
+      }
+    } else {
+      for (int i = 0; i < numColumns; i++) {
+        transform(record, _columns[i], _dataTypes[i]);
+      }
+    }
+    return record;
+  }
 
-        // Convert data type if necessary
-        PinotDataType source;
-        if (value instanceof Object[]) {
-          // Multi-value column
-          Object[] values = (Object[]) value;
-          source = MULTI_VALUE_TYPE_MAP.get(values[0].getClass());
-          if (source == null) {
-            source = PinotDataType.OBJECT_ARRAY;
-          }
-        } else {
-          // Single-value column
-          source = SINGLE_VALUE_TYPE_MAP.get(value.getClass());
-          if (source == null) {
-            source = PinotDataType.OBJECT;
-          }
+  private static void transform(GenericRow record, String column, PinotDataType dest) {
+    Object value = record.getValue(column);
+    if (value != null) {
+      record.putValue(column, transformValue(column, value, dest));
+    }
+  }
+
+  /**
+   * Transforms the value in the given slot of the indexed record. Skips the values that are already in the internal
+   * representation of the destination data type, and converts the numeric values into primitives without boxing.
+   */
+  private static void transform(IndexedGenericRow record, int slot, String column, PinotDataType dest,
+      @Nullable Class internalValueClass) {
+    Class valueClass = record.getValueClass(slot);
+    if (valueClass == null || valueClass == internalValueClass) {
+      return;
+    }
+    if (valueClass == Integer.class || valueClass == Long.class || valueClass == Float.class
+        || valueClass == Double.class) {
+      switch (dest) {
+        case INTEGER:
+          record.putInt(slot, record.getInt(slot));
+          return;
+        case LONG:
+          record.putLong(slot, record.getLong(slot));
+          return;
+        case FLOAT:
+          record.putFloat(slot, record.getFloat(slot));
+          return;
+        case DOUBLE:
+          record.putDouble(slot, record.getDouble(slot));
+          return;
+        default:
+          break;
+      }
+    }
+    record.putValue(slot, transformValue(column, record.getValue(slot), dest));
+  }
+
+  /**
+   * Transforms a non-null value into the internal representation of the given destination data type. Returns
+   * {@code null} for empty Collection/Map/Object[].
+   */
+  @Nullable
+  public static Object transformValue(String column, Object value, PinotDataType dest) {
+    try {
+      value = standardize(column, value, dest.isSingleValue());
+      // NOTE: The standardized value could be null for empty Collection/Map/Object[].
+      if (value == null) {
+        return null;
+      }
+
+      // Convert data type if necessary
+      PinotDataType source;
+      if (value instanceof Object[]) {
+        // Multi-value column
+        Object[] values = (Object[]) value;
+        source = MULTI_VALUE_TYPE_MAP.get(values[0].getClass());
+        if (source == null) {
+          source = PinotDataType.OBJECT_ARRAY;
         }
-        if (source != dest) {
-          value = dest.convert(value, source);
+      } else {
+        // Single-value column
+        source = SINGLE_VALUE_TYPE_MAP.get(value.getClass());
+        if (source == null) {
+          source = PinotDataType.OBJECT;
         }
-        value = dest.toInternal(value);
-
-        record.putValue(column, value);
-      } catch (Exception e) {
-        throw new RuntimeException("Caught exception while transforming data type for column: " + column, e);
       }
+      if (source != dest) {
+        value = dest.convert(value, source);
+      }
+      return dest.toInternal(value);
+    } catch (Exception e) {
+      throw new RuntimeException("Caught exception while transforming data type for column: " + column, e);
     }
-    return record;
   }
 
   /**
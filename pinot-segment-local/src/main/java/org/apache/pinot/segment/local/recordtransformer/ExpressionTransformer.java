@@ -31,6 +31,7 @@ import org.apache.pinot.spi.config.table.ingestion.TransformConfig;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.IndexedGenericRow;
 
 
 /**
@@ -41,6 +42,9 @@ import org.apache.pinot.spi.data.readers.GenericRow;
 public class ExpressionTransformer implements RecordTransformer {
 
   private final LinkedHashMap<String, FunctionEvaluator> _expressionEvaluators = new LinkedHashMap<>();
+  private final String[] _columns;
+  private final FunctionEvaluator[] _evaluators;
+  private final ColumnSlotResolver _slotResolver;
 
   public ExpressionTransformer(TableConfig tableConfig, Schema schema) {
     Map<String, FunctionEvaluator> expressionEvaluators = new HashMap<>();
@@ -65,6 +69,9 @@ public class ExpressionTransformer implements RecordTransformer {
     for (Map.Entry<String, FunctionEvaluator> entry : expressionEvaluators.entrySet()) {
       topologicalSort(entry.getKey(), expressionEvaluators, visited);
     }
+    _columns = _expressionEvaluators.keySet().toArray(new String[0]);
+    _evaluators = _expressionEvaluators.values().toArray(new FunctionEvaluator[0]);
+    _slotResolver = new ColumnSlotResolver(_columns);
   }
 
   private void topologicalSort(String column, Map<String, FunctionEvaluator> expressionEvaluators, Set<String> visited) {
@@ -84,8 +91,33 @@ public class ExpressionTransformer implements RecordTransformer {
     _expressionEvaluators.put(column, functionEvaluator);
   }
 
+  /**
+   * Returns {@code true} if there is no expression to evaluate.
+   */
+  public boolean isNoOp() {
+    return _expressionEvaluators.isEmpty();
+  }
+
   @Override
   public GenericRow transform(GenericRow record) {
+    if (record instanceof IndexedGenericRow) {
+      // Fast path for the indexed record, where the destination values are accessed via the slots
+      IndexedGenericRow indexedRecord = (IndexedGenericRow) record;
+      int[] slots = _slotResolver.getSlots(indexedRecord);
+      int numEvaluators = _evaluators.length;
+      for (int i = 0; i < numEvaluators; i++) {
+        int slot = slots[i];
+        if (slot >= 0) {
+          // Skip transformation if column value already exist.
+          if (!indexedRecord.hasValue(slot)) {
+            indexedRecord.putValue(slot, _evaluators[i].evaluate(record));
+          }
+        } else if (record.getValue(_columns[i]) == null) {
+          record.putValue(_columns[i], _evaluators[i].evaluate(record));
+        }
+      }
+      return record;
+    }
     for (Map.Entry<String, FunctionEvaluator> entry : _expressionEvaluators.entrySet()) {
       String column = entry.getKey();
       FunctionEvaluator transformFunctionEvaluator = entry.getValue();
@@ -18,40 +18,68 @@
  */
 package org.apache.pinot.segment.local.recordtransformer;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.FieldSpec.FieldType;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.IndexedGenericRow;
 
 
 public class NullValueTransformer implements RecordTransformer {
-  private final Map<String, Object> _defaultNullValues = new HashMap<>();
+  private final String[] _columns;
+  private final Object[] _defaultNullValues;
+  private final ColumnSlotResolver _slotResolver;
 
   public NullValueTransformer(Schema schema) {
+    List<String> columns = new ArrayList<>();
+    List<Object> defaultNullValues = new ArrayList<>();
     for (FieldSpec fieldSpec : schema.getAllFieldSpecs()) {
       if (!fieldSpec.isVirtualColumn() && fieldSpec.getFieldType() != FieldType.TIME) {
-        String fieldName = fieldSpec.getName();
+        columns.add(fieldSpec.getName());
         Object defaultNullValue = fieldSpec.getDefaultNullValue();
         if (fieldSpec.isSingleValueField()) {
-          _defaultNullValues.put(fieldName, defaultNullValue);
+          defaultNullValues.add(defaultNullValue);
         } else {
-          _defaultNullValues.put(fieldName, new Object[]{defaultNullValue});
+          defaultNullValues.add(new Object[]{defaultNullValue});
         }
       }
     }
+    _columns = columns.toArray(new String[0]);
+    _defaultNullValues = defaultNullValues.toArray();
+    _slotResolver = new ColumnSlotResolver(_columns);
   }
 
   @Override
   public GenericRow transform(GenericRow record) {
-    for (Map.Entry<String, Object> entry : _defaultNullValues.entrySet()) {
-      String fieldName = entry.getKey();
-      Object value = record.getValue(fieldName);
-      if (value == null) {
-        record.putDefaultNullValue(fieldName, entry.getValue());
+    int numColumns = _columns.length;
+    if (record instanceof IndexedGenericRow) {
+      // Fast path for the indexed record, where the values are accessed via the slots
+      IndexedGenericRow indexedRecord = (IndexedGenericRow) record;
+      int[] slots = _slotResolver.getSlots(indexedRecord);
+      for (int i = 0; i < numColumns; i++) {
+        int slot = slots[i];
+        if (slot >= 0) {
+          if (!indexedRecord.hasValue(slot)) {
+            indexedRecord.putDefaultNullValue(slot, _defaultNullValues[i]);
+          }
+        } else {
+          transform(record, i);
+        }
+      }
+    } else {
+      for (int i = 0; i < numColumns; i++) {
+        transform(record, i);
       }
     }
     return record;
   }
+
+  private void transform(GenericRow record, int columnIndex) {
+    String column = _columns[columnIndex];
+    if (record.getValue(column) == null) {
+      record.putDefaultNullValue(column, _defaultNullValues[columnIndex]);
+    }
+  }
 }
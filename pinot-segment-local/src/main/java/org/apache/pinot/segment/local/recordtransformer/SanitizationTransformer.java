@@ -18,13 +18,15 @@
  */
 package org.apache.pinot.segment.local.recordtransformer;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.StringUtil;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.IndexedGenericRow;
 
 
 /**
@@ -38,40 +40,80 @@ import org.apache.pinot.spi.data.readers.GenericRow;
  * {@link FieldSpec}.
  */
 public class SanitizationTransformer implements RecordTransformer {
-  private final Map<String, Integer> _stringColumnMaxLengthMap = new HashMap<>();
+  private final String[] _stringColumns;
+  private final int[] _maxLengths;
+  private final ColumnSlotResolver _slotResolver;
 
   public SanitizationTransformer(Schema schema) {
+    List<String> stringColumns = new ArrayList<>();
+    List<Integer> maxLengths = new ArrayList<>();
     for (FieldSpec fieldSpec : schema.getAllFieldSpecs()) {
       if (!fieldSpec.isVirtualColumn() && fieldSpec.getDataType() == DataType.STRING) {
-        _stringColumnMaxLengthMap.put(fieldSpec.getName(), fieldSpec.getMaxLength());
+        stringColumns.add(fieldSpec.getName());
+        maxLengths.add(fieldSpec.getMaxLength());
       }
     }
+    _stringColumns = stringColumns.toArray(new String[0]);
+    _maxLengths = maxLengths.stream().mapToInt(Integer::intValue).toArray();
+    _slotResolver = new ColumnSlotResolver(_stringColumns);
   }
 
   @Override
   public GenericRow transform(GenericRow record) {
-    for (Map.Entry<String, Integer> entry : _stringColumnMaxLengthMap.entrySet()) {
-      String stringColumn = entry.getKey();
-      int maxLength = entry.getValue();
-      Object value = record.getValue(stringColumn);
-      if (value instanceof String) {
-        // Single-valued column
-        String stringValue = (String) value;
-        String sanitizedValue = StringUtil.sanitizeStringValue(stringValue, maxLength);
-        // NOTE: reference comparison
-        //noinspection StringEquality
-        if (sanitizedValue != stringValue) {
-          record.putValue(stringColumn, sanitizedValue);
-        }
-      } else {
-        // Multi-valued column
-        Object[] values = (Object[]) value;
-        int numValues = values.length;
-        for (int i = 0; i < numValues; i++) {
-          values[i] = StringUtil.sanitizeStringValue(values[i].toString(), maxLength);
+    int numStringColumns = _stringColumns.length;
+    if (record instanceof IndexedGenericRow) {
+      // Fast path for the indexed record, where the values are accessed via the slots
+      IndexedGenericRow indexedRecord = (IndexedGenericRow) record;
+      int[] slots = _slotResolver.getSlots(indexedRecord);
+      for (int i = 0; i < numStringColumns; i++) {
+        int slot = slots[i];
+        if (slot >= 0) {
+          String sanitizedValue = sanitize(indexedRecord.getValue(slot), _maxLengths[i]);
+          if (sanitizedValue != null) {
+            indexedRecord.putValue(slot, sanitizedValue);
+          }
+        } else {
+          transform(record, i);
         }
       }
+    } else {
+      for (int i = 0; i < numStringColumns; i++) {
+        transform(record, i);
+      }
     }
     return record;
   }
+
+  private void transform(GenericRow record, int columnIndex) {
+    String stringColumn = _stringColumns[columnIndex];
+    String sanitizedValue = sanitize(record.getValue(stringColumn), _maxLengths[columnIndex]);
+    if (sanitizedValue != null) {
+      record.putValue(stringColumn, sanitizedValue);
+    }
+  }
+
+  /**
+   * Sanitizes the given value. For single-valued column, returns the sanitized value if it is different from the
+   * original value, or {@code null} otherwise. For multi-valued column, sanitizes the values in place and returns
+   * {@code null}.
+   */
+  @Nullable
+  private static String sanitize(Object value, int maxLength) {
+    if (value instanceof String) {
+      // Single-valued column
+      String stringValue = (String) value;
+      String sanitizedValue = StringUtil.sanitizeStringValue(stringValue, maxLength);
+      // NOTE: reference comparison
+      //noinspection StringEquality
+      return sanitizedValue != stringValue ? sanitizedValue : null;
+    } else {
+      // Multi-valued column
+      Object[] values = (Object[]) value;
+      int numValues = values.length;
+      for (int i = 0; i < numValues; i++) {
+        values[i] = StringUtil.sanitizeStringValue(values[i].toString(), maxLength);
+      }
+      return null;
+    }
+  }
 }
@@ -20,6 +20,7 @@ package org.apache.pinot.segment.local.segment.creator;
 
 import java.util.Collection;
 import org.apache.pinot.common.Utils;
+import org.apache.pinot.segment.local.recordtransformer.ColumnarBatchTransformer;
 import org.apache.pinot.segment.local.recordtransformer.ComplexTypeTransformer;
 import org.apache.pinot.segment.local.recordtransformer.CompositeTransformer;
 import org.apache.pinot.segment.local.recordtransformer.RecordTransformer;
@@ -28,7 +29,12 @@ import org.apache.pinot.segment.local.utils.IngestionUtils;
 import org.apache.pinot.segment.spi.creator.SegmentCreationDataSource;
 import org.apache.pinot.segment.spi.creator.SegmentPreIndexStatsCollector;
 import org.apache.pinot.segment.spi.creator.StatsCollectorConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
 import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.IndexedGenericRow;
 import org.apache.pinot.spi.data.readers.RecordReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,16 +57,31 @@ public class RecordReaderSegmentCreationDataSource implements SegmentCreationDat
   @Override
   public SegmentPreIndexStatsCollector gatherStats(StatsCollectorConfig statsCollectorConfig) {
     try {
-      RecordTransformer recordTransformer = CompositeTransformer
-          .getDefaultTransformer(statsCollectorConfig.getTableConfig(), statsCollectorConfig.getSchema());
-      ComplexTypeTransformer complexTypeTransformer =
-          ComplexTypeTransformer.getComplexTypeTransformer(statsCollectorConfig.getTableConfig());
-
+      TableConfig tableConfig = statsCollectorConfig.getTableConfig();
+      Schema schema = statsCollectorConfig.getSchema();
       SegmentPreIndexStatsCollector collector = new SegmentPreIndexStatsCollectorImpl(statsCollectorConfig);
       collector.init();
 
+      if (ColumnarBatchTransformer.isSupported(_recordReader, tableConfig, schema)) {
+        // Gather the stats from the columnar batches
+        ColumnarRecordReader columnarRecordReader = (ColumnarRecordReader) _recordReader;
+        ColumnarBatchTransformer batchTransformer = new ColumnarBatchTransformer(schema);
+        ColumnarBatch readBatch = new ColumnarBatch();
+        ColumnarBatch transformedBatch = new ColumnarBatch();
+        while (columnarRecordReader.hasNext()) {
+          readBatch = columnarRecordReader.nextBatch(readBatch);
+          transformedBatch = batchTransformer.transform(readBatch, transformedBatch);
+          collector.collectBatch(transformedBatch);
+        }
+        collector.build();
+        return collector;
+      }
+
+      RecordTransformer recordTransformer = CompositeTransformer.getDefaultTransformer(tableConfig, schema);
+      ComplexTypeTransformer complexTypeTransformer = ComplexTypeTransformer.getComplexTypeTransformer(tableConfig);
+
       // Gather the stats
-      GenericRow reuse = new GenericRow();
+      GenericRow reuse = new IndexedGenericRow(IndexedGenericRow.Layout.of(schema));
       while (_recordReader.hasNext()) {
         reuse.clear();
 
@@ -21,14 +21,23 @@ package org.apache.pinot.segment.local.segment.creator.impl;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.pinot.common.utils.FileUtils;
@@ -48,6 +57,7 @@ import org.apache.pinot.segment.local.segment.creator.impl.inv.json.OnHeapJsonIn
 import org.apache.pinot.segment.local.segment.creator.impl.inv.text.LuceneFSTIndexCreator;
 import org.apache.pinot.segment.local.segment.creator.impl.nullvalue.NullValueVectorCreator;
 import org.apache.pinot.segment.local.segment.creator.impl.text.LuceneTextIndexCreator;
+import org.apache.pinot.segment.local.segment.creator.impl.zonemap.ZoneMapIndexCreator;
 import org.apache.pinot.segment.local.utils.GeometrySerializer;
 import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
@@ -62,6 +72,7 @@ import org.apache.pinot.segment.spi.index.creator.JsonIndexCreator;
 import org.apache.pinot.segment.spi.index.creator.SegmentIndexCreationInfo;
 import org.apache.pinot.segment.spi.index.creator.TextIndexCreator;
 import org.apache.pinot.segment.spi.index.creator.TextIndexType;
+import org.apache.pinot.segment.spi.index.creator.ZoneMapCreator;
 import org.apache.pinot.segment.spi.index.reader.H3IndexResolution;
 import org.apache.pinot.segment.spi.partition.PartitionFunction;
 import org.apache.pinot.spi.config.table.FieldConfig;
@@ -70,6 +81,7 @@ import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.FieldSpec.FieldType;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.utils.TimeUtils;
 import org.joda.time.DateTimeZone;
@@ -85,6 +97,10 @@ import static org.apache.pinot.segment.spi.V1Constants.MetadataKeys.Segment.*;
 
 /**
  * Segment creator which writes data in a columnar form.
+ * <p>When {@link SegmentGeneratorConfig#getNumColumnIndexCreationThreads()} is larger than 1, the dictionaries, the
+ * per-column indexes for each batch of rows and the sealing of the indexes are built on a thread pool with one task per
+ * column. All the creators of a column are only accessed by one thread at a time, and the rows of a column are always
+ * indexed in doc id order.
  */
 // TODO: check resource leaks
 public class SegmentColumnarIndexCreator implements SegmentCreator {
@@ -92,6 +108,8 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private static final Logger LOGGER = LoggerFactory.getLogger(SegmentColumnarIndexCreator.class);
   // Allow at most 512 characters for the metadata property
   private static final int METADATA_PROPERTY_LENGTH_LIMIT = 512;
+  // Number of rows to buffer before indexing them with one task per column
+  private static final int COLUMN_PARALLEL_INDEX_BATCH_SIZE = 10_000;
 
   private SegmentGeneratorConfig config;
   private Map<String, ColumnIndexCreationInfo> indexCreationInfoMap;
@@ -102,6 +120,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private final Map<String, TextIndexCreator> _fstIndexCreatorMap = new HashMap<>();
   private final Map<String, JsonIndexCreator> _jsonIndexCreatorMap = new HashMap<>();
   private final Map<String, GeoSpatialIndexCreator> _h3IndexCreatorMap = new HashMap<>();
+  private final Map<String, ZoneMapCreator> _zoneMapCreatorMap = new HashMap<>();
   private final Map<String, NullValueVectorCreator> _nullValueVectorCreatorMap = new HashMap<>();
   private String segmentName;
   private Schema schema;
@@ -110,6 +129,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private int docIdCounter;
   private boolean _nullHandlingEnabled;
   private Map<String, Map<String, String>> _columnProperties;
+  private ExecutorService _executorService;
 
   @Override
   public void init(SegmentGeneratorConfig segmentCreationSpec, SegmentIndexCreationInfo segmentIndexCreationInfo,
@@ -132,6 +152,13 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       return;
     }
 
+    int numColumnIndexCreationThreads = segmentCreationSpec.getNumColumnIndexCreationThreads();
+    if (numColumnIndexCreationThreads > 1) {
+      LOGGER.info("Building column indexes with {} threads", numColumnIndexCreationThreads);
+      _executorService = Executors.newFixedThreadPool(numColumnIndexCreationThreads,
+          new ThreadFactoryBuilder().setNameFormat("column-index-creator-%d").build());
+    }
+
     Collection<FieldSpec> fieldSpecs = schema.getAllFieldSpecs();
     Set<String> invertedIndexColumns = new HashSet<>();
     for (String columnName : config.getInvertedIndexCreationColumns()) {
@@ -168,6 +195,13 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
               columnName);
     }
 
+    Set<String> zoneMapColumns = new HashSet<>();
+    for (String columnName : config.getZoneMapCreationColumns()) {
+      Preconditions.checkState(schema.hasColumn(columnName),
+          "Cannot create zone map for column: %s because it is not in schema", columnName);
+      zoneMapColumns.add(columnName);
+    }
+
     // Initialize creators for dictionary, forward index and inverted index
     for (FieldSpec fieldSpec : fieldSpecs) {
       // Ignore virtual columns
@@ -190,15 +224,6 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
                 indexCreationInfo.isUseVarLengthDictionary());
         _dictionaryCreatorMap.put(columnName, dictionaryCreator);
 
-        // Create dictionary
-        try {
-          dictionaryCreator.build();
-        } catch (Exception e) {
-          LOGGER.error("Error building dictionary for field: {}, cardinality: {}, number of bytes per entry: {}",
-              fieldSpec.getName(), indexCreationInfo.getDistinctValueCount(), dictionaryCreator.getNumBytesPerEntry());
-          throw e;
-        }
-
         // Initialize forward index creator
         int cardinality = indexCreationInfo.getDistinctValueCount();
         if (fieldSpec.isSingleValueField()) {
@@ -290,12 +315,87 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
         _h3IndexCreatorMap.put(columnName, h3IndexCreator);
       }
 
+      if (zoneMapColumns.contains(columnName)) {
+        Preconditions
+            .checkState(fieldSpec.isSingleValueField(), "Zone map is currently only supported on single-value columns");
+        _zoneMapCreatorMap.put(columnName, new ZoneMapIndexCreator(_indexDir, columnName, storedType, totalDocs));
+      }
+
       _nullHandlingEnabled = config.isNullHandlingEnabled();
       if (_nullHandlingEnabled) {
         // Initialize Null value vector map
         _nullValueVectorCreatorMap.put(columnName, new NullValueVectorCreator(_indexDir, columnName));
       }
     }
+
+    // Create dictionaries
+    List<Callable<Void>> buildDictionaryTasks = new ArrayList<>(_dictionaryCreatorMap.size());
+    for (Map.Entry<String, SegmentDictionaryCreator> entry : _dictionaryCreatorMap.entrySet()) {
+      String columnName = entry.getKey();
+      SegmentDictionaryCreator dictionaryCreator = entry.getValue();
+      buildDictionaryTasks.add(() -> {
+        try {
+          dictionaryCreator.build();
+        } catch (Exception e) {
+          LOGGER.error("Error building dictionary for field: {}, cardinality: {}, number of bytes per entry: {}",
+              columnName, indexCreationInfoMap.get(columnName).getDistinctValueCount(),
+              dictionaryCreator.getNumBytesPerEntry());
+          throw e;
+        }
+        return null;
+      });
+    }
+    runColumnTasks(buildDictionaryTasks);
+  }
+
+  /**
+   * Runs the given per-column tasks, in parallel if the executor service is configured, and waits for all of them to
+   * finish. The first failure is re-thrown after all the tasks are done.
+   */
+  private void runColumnTasks(List<Callable<Void>> tasks)
+      throws IOException {
+    if (_executorService == null) {
+      for (Callable<Void> task : tasks) {
+        try {
+          task.call();
+        } catch (IOException | RuntimeException e) {
+          throw e;
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+      return;
+    }
+
+    List<Future<Void>> futures = new ArrayList<>(tasks.size());
+    for (Callable<Void> task : tasks) {
+      futures.add(_executorService.submit(task));
+    }
+    Throwable firstFailure = null;
+    for (Future<Void> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        if (firstFailure == null) {
+          firstFailure = e.getCause();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        for (Future<Void> futureToCancel : futures) {
+          futureToCancel.cancel(true);
+        }
+        throw new RuntimeException("Interrupted while building column indexes", e);
+      }
+    }
+    if (firstFailure != null) {
+      if (firstFailure instanceof IOException) {
+        throw (IOException) firstFailure;
+      }
+      if (firstFailure instanceof RuntimeException) {
+        throw (RuntimeException) firstFailure;
+      }
+      throw new RuntimeException(firstFailure);
+    }
   }
 
   public static boolean shouldDeriveNumDocsPerChunk(String columnName,
@@ -380,95 +480,270 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       throws IOException {
     for (Map.Entry<String, ForwardIndexCreator> entry : _forwardIndexCreatorMap.entrySet()) {
       String columnName = entry.getKey();
-      ForwardIndexCreator forwardIndexCreator = entry.getValue();
+      indexColumn(columnName, entry.getValue(), row.getValue(columnName), row.isNullValue(columnName), docIdCounter);
+    }
+    docIdCounter++;
+  }
 
-      Object columnValueToIndex = row.getValue(columnName);
-      if (columnValueToIndex == null) {
-        throw new RuntimeException("Null value for column:" + columnName);
+  @Override
+  public void indexRows(List<GenericRow> rows)
+      throws IOException {
+    if (_executorService == null) {
+      for (GenericRow row : rows) {
+        indexRow(row);
       }
+      return;
+    }
 
-      boolean isSingleValue = schema.getFieldSpecFor(columnName).isSingleValueField();
-      SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
-
-      if (isSingleValue) {
-        // SV column
-        // text-index enabled SV column
-        TextIndexCreator textIndexCreator = _textIndexCreatorMap.get(columnName);
-        if (textIndexCreator != null) {
-          textIndexCreator.add((String) columnValueToIndex);
+    int startDocId = docIdCounter;
+    int numRows = rows.size();
+    List<Callable<Void>> indexColumnTasks = new ArrayList<>(_forwardIndexCreatorMap.size());
+    for (Map.Entry<String, ForwardIndexCreator> entry : _forwardIndexCreatorMap.entrySet()) {
+      String columnName = entry.getKey();
+      ForwardIndexCreator forwardIndexCreator = entry.getValue();
+      indexColumnTasks.add(() -> {
+        for (int i = 0; i < numRows; i++) {
+          GenericRow row = rows.get(i);
+          indexColumn(columnName, forwardIndexCreator, row.getValue(columnName), row.isNullValue(columnName),
+              startDocId + i);
         }
-        JsonIndexCreator jsonIndexCreator = _jsonIndexCreatorMap.get(columnName);
-        if (jsonIndexCreator != null) {
-          jsonIndexCreator.add((String) columnValueToIndex);
+        return null;
+      });
+    }
+    runColumnTasks(indexColumnTasks);
+    docIdCounter += numRows;
+  }
+
+  @Override
+  public void indexBatch(ColumnarBatch batch)
+      throws IOException {
+    int startDocId = docIdCounter;
+    int numRows = batch.getNumRows();
+    List<Callable<Void>> indexColumnTasks = new ArrayList<>(_forwardIndexCreatorMap.size());
+    for (Map.Entry<String, ForwardIndexCreator> entry : _forwardIndexCreatorMap.entrySet()) {
+      String columnName = entry.getKey();
+      ForwardIndexCreator forwardIndexCreator = entry.getValue();
+      indexColumnTasks.add(() -> {
+        if (!indexColumnValues(columnName, forwardIndexCreator, batch, startDocId)) {
+          for (int i = 0; i < numRows; i++) {
+            indexColumn(columnName, forwardIndexCreator, batch.getValue(columnName, i),
+                batch.isNullValue(columnName, i), startDocId + i);
+          }
         }
-        GeoSpatialIndexCreator h3IndexCreator = _h3IndexCreatorMap.get(columnName);
-        if (h3IndexCreator != null) {
-          h3IndexCreator.add(GeometrySerializer.deserialize((byte[]) columnValueToIndex));
+        return null;
+      });
+    }
+    runColumnTasks(indexColumnTasks);
+    docIdCounter += numRows;
+  }
+
+  /**
+   * Indexes the values of the given column in the batch directly from the value array of the stored type, without
+   * boxing each value. Returns {@code false} if the column has to be indexed value by value, i.e. it is multi-valued,
+   * has an index other than the dictionary, forward and inverted index, or the value array is not of the stored type.
+   */
+  private boolean indexColumnValues(String columnName, ForwardIndexCreator forwardIndexCreator, ColumnarBatch batch,
+      int startDocId)
+      throws IOException {
+    FieldSpec fieldSpec = schema.getFieldSpecFor(columnName);
+    if (!fieldSpec.isSingleValueField() || _textIndexCreatorMap.containsKey(columnName)
+        || _jsonIndexCreatorMap.containsKey(columnName) || _h3IndexCreatorMap.containsKey(columnName)
+        || _zoneMapCreatorMap.containsKey(columnName)) {
+      return false;
+    }
+    DataType storedType = fieldSpec.getDataType().getStoredType();
+    Object values = batch.getValues(columnName);
+    if (!isStoredTypeArray(values, storedType)) {
+      return false;
+    }
+
+    int numRows = batch.getNumRows();
+    SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+    if (dictionaryCreator != null) {
+      int[] dictIds = new int[numRows];
+      dictionaryCreator.indexOfSV(values, numRows, dictIds);
+      DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
+      for (int i = 0; i < numRows; i++) {
+        forwardIndexCreator.putDictId(dictIds[i]);
+        if (invertedIndexCreator != null) {
+          invertedIndexCreator.add(dictIds[i]);
         }
-        if (dictionaryCreator != null) {
-          // dictionary encoded SV column
-          // get dictID from dictionary
-          int dictId = dictionaryCreator.indexOfSV(columnValueToIndex);
-          // store the docID -> dictID mapping in forward index
-          forwardIndexCreator.putDictId(dictId);
-          DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
-          if (invertedIndexCreator != null) {
-            // if inverted index enabled during segment creation,
-            // then store dictID -> docID mapping in inverted index
-            invertedIndexCreator.add(dictId);
+      }
+    } else {
+      switch (storedType) {
+        case INT:
+          int[] intValues = batch.getIntValues(columnName);
+          for (int i = 0; i < numRows; i++) {
+            forwardIndexCreator.putInt(intValues[i]);
           }
-        } else {
-          // non-dictionary encoded SV column
-          // store the docId -> raw value mapping in forward index
-          if (textIndexCreator != null && !shouldStoreRawValueForTextIndex(columnName)) {
-            // for text index on raw columns, check the config to determine if actual raw value should
-            // be stored or not
-            columnValueToIndex = _columnProperties.get(columnName).get(FieldConfig.TEXT_INDEX_RAW_VALUE);
-            if (columnValueToIndex == null) {
-              columnValueToIndex = FieldConfig.TEXT_INDEX_DEFAULT_RAW_VALUE;
-            }
+          break;
+        case LONG:
+          long[] longValues = batch.getLongValues(columnName);
+          for (int i = 0; i < numRows; i++) {
+            forwardIndexCreator.putLong(longValues[i]);
           }
-          switch (forwardIndexCreator.getValueType()) {
-            case INT:
-              forwardIndexCreator.putInt((int) columnValueToIndex);
-              break;
-            case LONG:
-              forwardIndexCreator.putLong((long) columnValueToIndex);
-              break;
-            case FLOAT:
-              forwardIndexCreator.putFloat((float) columnValueToIndex);
-              break;
-            case DOUBLE:
-              forwardIndexCreator.putDouble((double) columnValueToIndex);
-              break;
-            case STRING:
-              forwardIndexCreator.putString((String) columnValueToIndex);
-              break;
-            case BYTES:
-              forwardIndexCreator.putBytes((byte[]) columnValueToIndex);
-              break;
-            default:
-              throw new IllegalStateException();
+          break;
+        case FLOAT:
+          float[] floatValues = batch.getFloatValues(columnName);
+          for (int i = 0; i < numRows; i++) {
+            forwardIndexCreator.putFloat(floatValues[i]);
+          }
+          break;
+        case DOUBLE:
+          double[] doubleValues = batch.getDoubleValues(columnName);
+          for (int i = 0; i < numRows; i++) {
+            forwardIndexCreator.putDouble(doubleValues[i]);
+          }
+          break;
+        case STRING:
+          String[] stringValues = batch.getStringValues(columnName);
+          for (int i = 0; i < numRows; i++) {
+            forwardIndexCreator.putString(stringValues[i]);
+          }
+          break;
+        case BYTES:
+          byte[][] bytesValues = batch.getBytesValues(columnName);
+          for (int i = 0; i < numRows; i++) {
+            forwardIndexCreator.putBytes(bytesValues[i]);
+          }
+          break;
+        default:
+          throw new IllegalStateException();
+      }
+    }
+
+    if (_nullHandlingEnabled) {
+      boolean[] nulls = batch.getNulls(columnName);
+      if (nulls != null) {
+        NullValueVectorCreator nullValueVectorCreator = _nullValueVectorCreatorMap.get(columnName);
+        for (int i = 0; i < numRows; i++) {
+          if (nulls[i]) {
+            nullValueVectorCreator.setNull(startDocId + i);
           }
         }
-      } else {
-        // MV column (always dictionary encoded)
-        int[] dictIds = dictionaryCreator.indexOfMV(columnValueToIndex);
-        forwardIndexCreator.putDictIdMV(dictIds);
+      }
+    }
+    return true;
+  }
+
+  private static boolean isStoredTypeArray(@Nullable Object values, DataType storedType) {
+    switch (storedType) {
+      case INT:
+        return values instanceof int[];
+      case LONG:
+        return values instanceof long[];
+      case FLOAT:
+        return values instanceof float[];
+      case DOUBLE:
+        return values instanceof double[];
+      case STRING:
+        return values instanceof String[];
+      case BYTES:
+        return values instanceof byte[][];
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  public int getIndexBatchSize() {
+    return _executorService != null ? COLUMN_PARALLEL_INDEX_BATCH_SIZE : 0;
+  }
+
+  /**
+   * Indexes the value of the given column as the given doc id.
+   */
+  private void indexColumn(String columnName, ForwardIndexCreator forwardIndexCreator, Object columnValueToIndex,
+      boolean isNullValue, int docId)
+      throws IOException {
+    if (columnValueToIndex == null) {
+      throw new RuntimeException("Null value for column:" + columnName);
+    }
+
+    boolean isSingleValue = schema.getFieldSpecFor(columnName).isSingleValueField();
+    SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+
+    if (isSingleValue) {
+      // SV column
+      // text-index enabled SV column
+      TextIndexCreator textIndexCreator = _textIndexCreatorMap.get(columnName);
+      if (textIndexCreator != null) {
+        textIndexCreator.add((String) columnValueToIndex);
+      }
+      JsonIndexCreator jsonIndexCreator = _jsonIndexCreatorMap.get(columnName);
+      if (jsonIndexCreator != null) {
+        jsonIndexCreator.add((String) columnValueToIndex);
+      }
+      GeoSpatialIndexCreator h3IndexCreator = _h3IndexCreatorMap.get(columnName);
+      if (h3IndexCreator != null) {
+        h3IndexCreator.add(GeometrySerializer.deserialize((byte[]) columnValueToIndex));
+      }
+      ZoneMapCreator zoneMapCreator = _zoneMapCreatorMap.get(columnName);
+      if (zoneMapCreator != null) {
+        zoneMapCreator.add(columnValueToIndex, _nullHandlingEnabled && isNullValue);
+      }
+      if (dictionaryCreator != null) {
+        // dictionary encoded SV column
+        // get dictID from dictionary
+        int dictId = dictionaryCreator.indexOfSV(columnValueToIndex);
+        // store the docID -> dictID mapping in forward index
+        forwardIndexCreator.putDictId(dictId);
         DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
         if (invertedIndexCreator != null) {
-          invertedIndexCreator.add(dictIds, dictIds.length);
+          // if inverted index enabled during segment creation,
+          // then store dictID -> docID mapping in inverted index
+          invertedIndexCreator.add(dictId);
+        }
+      } else {
+        // non-dictionary encoded SV column
+        // store the docId -> raw value mapping in forward index
+        if (textIndexCreator != null && !shouldStoreRawValueForTextIndex(columnName)) {
+          // for text index on raw columns, check the config to determine if actual raw value should
+          // be stored or not
+          columnValueToIndex = _columnProperties.get(columnName).get(FieldConfig.TEXT_INDEX_RAW_VALUE);
+          if (columnValueToIndex == null) {
+            columnValueToIndex = FieldConfig.TEXT_INDEX_DEFAULT_RAW_VALUE;
+          }
         }
+        switch (forwardIndexCreator.getValueType()) {
+          case INT:
+            forwardIndexCreator.putInt((int) columnValueToIndex);
+            break;
+          case LONG:
+            forwardIndexCreator.putLong((long) columnValueToIndex);
+            break;
+          case FLOAT:
+            forwardIndexCreator.putFloat((float) columnValueToIndex);
+            break;
+          case DOUBLE:
+            forwardIndexCreator.putDouble((double) columnValueToIndex);
+            break;
+          case STRING:
+            forwardIndexCreator.putString((String) columnValueToIndex);
+            break;
+          case BYTES:
+            forwardIndexCreator.putBytes((byte[]) columnValueToIndex);
+            break;
+          default:
+            throw new IllegalStateException();
+        }
+      }
+    } else {
+      // MV column (always dictionary encoded)
+      int[] dictIds = dictionaryCreator.indexOfMV(columnValueToIndex);
+      forwardIndexCreator.putDictIdMV(dictIds);
+      DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
+      if (invertedIndexCreator != null) {
+        invertedIndexCreator.add(dictIds, dictIds.length);
       }
+    }
 
-      if (_nullHandlingEnabled) {
-        // If row has null value for given column name, add to null value vector
-        if (row.isNullValue(columnName)) {
-          _nullValueVectorCreatorMap.get(columnName).setNull(docIdCounter);
-        }
+    if (_nullHandlingEnabled) {
+      // If row has null value for given column name, add to null value vector
+      if (isNullValue) {
+        _nullValueVectorCreatorMap.get(columnName).setNull(docId);
       }
     }
-    docIdCounter++;
   }
 
   private boolean shouldStoreRawValueForTextIndex(String column) {
@@ -491,24 +766,42 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   @Override
   public void seal()
       throws ConfigurationException, IOException {
-    for (DictionaryBasedInvertedIndexCreator invertedIndexCreator : _invertedIndexCreatorMap.values()) {
-      invertedIndexCreator.seal();
-    }
-    for (TextIndexCreator textIndexCreator : _textIndexCreatorMap.values()) {
-      textIndexCreator.seal();
-    }
-    for (TextIndexCreator fstIndexCreator : _fstIndexCreatorMap.values()) {
-      fstIndexCreator.seal();
-    }
-    for (JsonIndexCreator jsonIndexCreator : _jsonIndexCreatorMap.values()) {
-      jsonIndexCreator.seal();
-    }
-    for (GeoSpatialIndexCreator h3IndexCreator : _h3IndexCreatorMap.values()) {
-      h3IndexCreator.seal();
-    }
-    for (NullValueVectorCreator nullValueVectorCreator : _nullValueVectorCreatorMap.values()) {
-      nullValueVectorCreator.seal();
+    // Seal the indexes of each column within one task
+    List<Callable<Void>> sealTasks = new ArrayList<>(_forwardIndexCreatorMap.size());
+    for (String columnName : _forwardIndexCreatorMap.keySet()) {
+      sealTasks.add(() -> {
+        DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
+        if (invertedIndexCreator != null) {
+          invertedIndexCreator.seal();
+        }
+        TextIndexCreator textIndexCreator = _textIndexCreatorMap.get(columnName);
+        if (textIndexCreator != null) {
+          textIndexCreator.seal();
+        }
+        TextIndexCreator fstIndexCreator = _fstIndexCreatorMap.get(columnName);
+        if (fstIndexCreator != null) {
+          fstIndexCreator.seal();
+        }
+        JsonIndexCreator jsonIndexCreator = _jsonIndexCreatorMap.get(columnName);
+        if (jsonIndexCreator != null) {
+          jsonIndexCreator.seal();
+        }
+        GeoSpatialIndexCreator h3IndexCreator = _h3IndexCreatorMap.get(columnName);
+        if (h3IndexCreator != null) {
+          h3IndexCreator.seal();
+        }
+        ZoneMapCreator zoneMapCreator = _zoneMapCreatorMap.get(columnName);
+        if (zoneMapCreator != null) {
+          zoneMapCreator.seal();
+        }
+        NullValueVectorCreator nullValueVectorCreator = _nullValueVectorCreatorMap.get(columnName);
+        if (nullValueVectorCreator != null) {
+          nullValueVectorCreator.seal();
+        }
+        return null;
+      });
     }
+    runColumnTasks(sealTasks);
     writeMetadata();
   }
 
@@ -756,9 +1049,13 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   @Override
   public void close()
       throws IOException {
+    if (_executorService != null) {
+      _executorService.shutdownNow();
+      _executorService = null;
+    }
     FileUtils.close(Iterables
         .concat(_dictionaryCreatorMap.values(), _forwardIndexCreatorMap.values(), _invertedIndexCreatorMap.values(),
             _textIndexCreatorMap.values(), _fstIndexCreatorMap.values(), _jsonIndexCreatorMap.values(),
-            _h3IndexCreatorMap.values(), _nullValueVectorCreatorMap.values()));
+            _h3IndexCreatorMap.values(), _zoneMapCreatorMap.values(), _nullValueVectorCreatorMap.values()));
   }
 }
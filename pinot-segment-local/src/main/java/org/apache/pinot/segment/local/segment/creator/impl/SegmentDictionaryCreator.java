@@ -264,6 +264,53 @@ public class SegmentDictionaryCreator implements Closeable {
     }
   }
 
+  /**
+   * Looks up the dictionary ids of the first {@code numValues} values in the given value array of the stored type (e.g.
+   * int[] for INT), without boxing each value.
+   */
+  public void indexOfSV(Object values, int numValues, int[] dictIds) {
+    switch (_storedType) {
+      case INT:
+        int[] intValues = (int[]) values;
+        for (int i = 0; i < numValues; i++) {
+          dictIds[i] = _intValueToIndexMap.get(intValues[i]);
+        }
+        break;
+      case LONG:
+        long[] longValues = (long[]) values;
+        for (int i = 0; i < numValues; i++) {
+          dictIds[i] = _longValueToIndexMap.get(longValues[i]);
+        }
+        break;
+      case FLOAT:
+        float[] floatValues = (float[]) values;
+        for (int i = 0; i < numValues; i++) {
+          dictIds[i] = _floatValueToIndexMap.get(floatValues[i]);
+        }
+        break;
+      case DOUBLE:
+        double[] doubleValues = (double[]) values;
+        for (int i = 0; i < numValues; i++) {
+          dictIds[i] = _doubleValueToIndexMap.get(doubleValues[i]);
+        }
+        break;
+      case STRING:
+        String[] stringValues = (String[]) values;
+        for (int i = 0; i < numValues; i++) {
+          dictIds[i] = _stringValueToIndexMap.getInt(stringValues[i]);
+        }
+        break;
+      case BYTES:
+        byte[][] bytesValues = (byte[][]) values;
+        for (int i = 0; i < numValues; i++) {
+          dictIds[i] = _bytesValueToIndexMap.getInt(new ByteArray(bytesValues[i]));
+        }
+        break;
+      default:
+        throw new UnsupportedOperationException("Unsupported data type : " + _storedType);
+    }
+  }
+
   public int[] indexOfMV(Object value) {
     Object[] multiValues = (Object[]) value;
     int[] indexes = new int[multiValues.length];
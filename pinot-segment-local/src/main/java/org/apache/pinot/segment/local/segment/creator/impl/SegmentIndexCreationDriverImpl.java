@@ -23,6 +23,7 @@ import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -33,6 +34,7 @@ import java.util.UUID;
 import javax.annotation.Nullable;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.recordtransformer.ColumnarBatchTransformer;
 import org.apache.pinot.segment.local.recordtransformer.ComplexTypeTransformer;
 import org.apache.pinot.segment.local.recordtransformer.CompositeTransformer;
 import org.apache.pinot.segment.local.recordtransformer.RecordTransformer;
@@ -64,8 +66,11 @@ import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.IngestionSchemaValidator;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.SchemaValidatorFactory;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
 import org.apache.pinot.spi.data.readers.FileFormat;
 import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.IndexedGenericRow;
 import org.apache.pinot.spi.data.readers.RecordReader;
 import org.apache.pinot.spi.data.readers.RecordReaderFactory;
 import org.apache.pinot.spi.utils.ByteArray;
@@ -89,6 +94,8 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
   private Schema dataSchema;
   private RecordTransformer _recordTransformer;
   private ComplexTypeTransformer _complexTypeTransformer;
+  // Set when the records are read and transformed in columnar batches instead of rows
+  private ColumnarBatchTransformer _columnarBatchTransformer;
   private IngestionSchemaValidator _ingestionSchemaValidator;
   private int totalDocs = 0;
   private File tempIndexDir;
@@ -153,6 +160,11 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     }
     init(config, dataSource, CompositeTransformer.getDefaultTransformer(config.getTableConfig(), config.getSchema()),
         ComplexTypeTransformer.getComplexTypeTransformer(config.getTableConfig()));
+    if (dataSource instanceof RecordReaderSegmentCreationDataSource && ColumnarBatchTransformer
+        .isSupported(recordReader, config.getTableConfig(), config.getSchema())) {
+      LOGGER.info("Reading records in columnar batches from: {}", recordReader.getClass().getSimpleName());
+      _columnarBatchTransformer = new ColumnarBatchTransformer(config.getSchema());
+    }
   }
 
   public void init(SegmentGeneratorConfig config, SegmentCreationDataSource dataSource,
@@ -210,51 +222,111 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
       // Build the index
       recordReader.rewind();
       LOGGER.info("Start building IndexCreator!");
-      GenericRow reuse = new GenericRow();
-      while (recordReader.hasNext()) {
-        long recordReadStartTime = System.currentTimeMillis();
-        long recordReadStopTime;
-        long indexStopTime;
+      if (_columnarBatchTransformer != null) {
+        indexColumnarBatches();
+      } else {
+        indexRows();
+      }
+    } catch (Exception e) {
+      indexCreator.close();
+      throw e;
+    } finally {
+      recordReader.close();
+    }
+    LOGGER.info("Finished records indexing in IndexCreator!");
+
+    handlePostCreation();
+  }
+
+  private void indexRows()
+      throws Exception {
+    // When the index creator builds the columns in parallel, buffer the rows and index them in batches
+    int indexBatchSize = indexCreator.getIndexBatchSize();
+    List<GenericRow> indexBatch = indexBatchSize > 0 ? new ArrayList<>(indexBatchSize) : null;
+    IndexedGenericRow.Layout rowLayout = IndexedGenericRow.Layout.of(dataSchema);
+    GenericRow reuse = new IndexedGenericRow(rowLayout);
+    while (recordReader.hasNext()) {
+      long recordReadStartTime = System.currentTimeMillis();
+      long recordReadStopTime;
+      long indexStopTime;
+      if (indexBatch != null) {
+        // Rows are kept in the batch, so they cannot be reused
+        reuse = new IndexedGenericRow(rowLayout);
+      } else {
         reuse.clear();
-        GenericRow decodedRow = recordReader.next(reuse);
-        if (_complexTypeTransformer != null) {
-          // TODO: consolidate complex type transformer into composite type transformer
-          decodedRow = _complexTypeTransformer.transform(decodedRow);
-        }
-        if (decodedRow.getValue(GenericRow.MULTIPLE_RECORDS_KEY) != null) {
-          recordReadStopTime = System.currentTimeMillis();
-          totalRecordReadTime += (recordReadStopTime - recordReadStartTime);
-          for (Object singleRow : (Collection) decodedRow.getValue(GenericRow.MULTIPLE_RECORDS_KEY)) {
-            recordReadStartTime = System.currentTimeMillis();
-            GenericRow transformedRow = _recordTransformer.transform((GenericRow) singleRow);
-            recordReadStopTime = System.currentTimeMillis();
-            totalRecordReadTime += (recordReadStopTime - recordReadStartTime);
-            if (transformedRow != null && IngestionUtils.shouldIngestRow(transformedRow)) {
-              indexCreator.indexRow(transformedRow);
-              indexStopTime = System.currentTimeMillis();
-              totalIndexTime += (indexStopTime - recordReadStopTime);
-            }
-          }
-        } else {
-          GenericRow transformedRow = _recordTransformer.transform(decodedRow);
+      }
+      GenericRow decodedRow = recordReader.next(reuse);
+      if (_complexTypeTransformer != null) {
+        // TODO: consolidate complex type transformer into composite type transformer
+        decodedRow = _complexTypeTransformer.transform(decodedRow);
+      }
+      if (decodedRow.getValue(GenericRow.MULTIPLE_RECORDS_KEY) != null) {
+        recordReadStopTime = System.currentTimeMillis();
+        totalRecordReadTime += (recordReadStopTime - recordReadStartTime);
+        for (Object singleRow : (Collection) decodedRow.getValue(GenericRow.MULTIPLE_RECORDS_KEY)) {
+          recordReadStartTime = System.currentTimeMillis();
+          GenericRow transformedRow = _recordTransformer.transform((GenericRow) singleRow);
           recordReadStopTime = System.currentTimeMillis();
           totalRecordReadTime += (recordReadStopTime - recordReadStartTime);
           if (transformedRow != null && IngestionUtils.shouldIngestRow(transformedRow)) {
-            indexCreator.indexRow(transformedRow);
+            indexRow(transformedRow, indexBatch, indexBatchSize);
             indexStopTime = System.currentTimeMillis();
             totalIndexTime += (indexStopTime - recordReadStopTime);
           }
         }
+      } else {
+        GenericRow transformedRow = _recordTransformer.transform(decodedRow);
+        recordReadStopTime = System.currentTimeMillis();
+        totalRecordReadTime += (recordReadStopTime - recordReadStartTime);
+        if (transformedRow != null && IngestionUtils.shouldIngestRow(transformedRow)) {
+          indexRow(transformedRow, indexBatch, indexBatchSize);
+          indexStopTime = System.currentTimeMillis();
+          totalIndexTime += (indexStopTime - recordReadStopTime);
+        }
       }
-    } catch (Exception e) {
-      indexCreator.close();
-      throw e;
-    } finally {
-      recordReader.close();
     }
-    LOGGER.info("Finished records indexing in IndexCreator!");
+    if (indexBatch != null && !indexBatch.isEmpty()) {
+      long indexStartTime = System.currentTimeMillis();
+      indexCreator.indexRows(indexBatch);
+      totalIndexTime += (System.currentTimeMillis() - indexStartTime);
+    }
+  }
 
-    handlePostCreation();
+  /**
+   * Reads the records in columnar batches, and indexes each transformed batch column by column.
+   */
+  private void indexColumnarBatches()
+      throws Exception {
+    ColumnarRecordReader columnarRecordReader = (ColumnarRecordReader) recordReader;
+    ColumnarBatch readBatch = new ColumnarBatch();
+    ColumnarBatch transformedBatch = new ColumnarBatch();
+    while (columnarRecordReader.hasNext()) {
+      long recordReadStartTime = System.currentTimeMillis();
+      readBatch = columnarRecordReader.nextBatch(readBatch);
+      transformedBatch = _columnarBatchTransformer.transform(readBatch, transformedBatch);
+      long recordReadStopTime = System.currentTimeMillis();
+      totalRecordReadTime += (recordReadStopTime - recordReadStartTime);
+      if (transformedBatch.getNumRows() > 0) {
+        indexCreator.indexBatch(transformedBatch);
+        totalIndexTime += (System.currentTimeMillis() - recordReadStopTime);
+      }
+    }
+  }
+
+  /**
+   * Indexes the given row directly, or adds it to the index batch and indexes the batch when it is full.
+   */
+  private void indexRow(GenericRow row, @Nullable List<GenericRow> indexBatch, int indexBatchSize)
+      throws Exception {
+    if (indexBatch == null) {
+      indexCreator.indexRow(row);
+    } else {
+      indexBatch.add(row);
+      if (indexBatch.size() == indexBatchSize) {
+        indexCreator.indexRows(indexBatch);
+        indexBatch.clear();
+      }
+    }
   }
 
   private void handlePostCreation()
@@ -341,6 +413,7 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
       try (
           MultipleTreesBuilder builder = new MultipleTreesBuilder(starTreeIndexConfigs, enableDefaultStarTree, indexDir,
               buildMode)) {
+        builder.setNumThreads(config.getNumStarTreeBuildThreads());
         builder.build();
       }
     }
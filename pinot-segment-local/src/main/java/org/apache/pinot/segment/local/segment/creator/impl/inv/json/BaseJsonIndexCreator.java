@@ -27,14 +27,12 @@ import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
-import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.index.creator.JsonIndexCreator;
 import org.apache.pinot.segment.spi.memory.CleanerUtil;
-import org.apache.pinot.spi.utils.JsonUtils;
 import org.roaringbitmap.Container;
 import org.roaringbitmap.RoaringBitmap;
 import org.roaringbitmap.RoaringBitmapWriter;
@@ -69,6 +67,8 @@ public abstract class BaseJsonIndexCreator implements JsonIndexCreator {
   final Map<String, RoaringBitmapWriter<RoaringBitmap>> _postingListMap = new TreeMap<>();
   final RoaringBitmapWriter.Wizard<Container, RoaringBitmap> _bitmapWriterWizard =
       RoaringBitmapWriter.writer().runCompress(false);
+  final StreamingJsonFlattener _jsonFlattener = new StreamingJsonFlattener();
+  final StreamingJsonFlattener.PairConsumer _pairConsumer = this::addPair;
 
   int _nextFlattenedDocId;
   int _maxValueLength;
@@ -89,40 +89,41 @@ public abstract class BaseJsonIndexCreator implements JsonIndexCreator {
   @Override
   public void add(String jsonString)
       throws IOException {
-    addFlattenedRecords(JsonUtils.flatten(JsonUtils.stringToJsonNode(jsonString)));
+    addFlattenedRecords(_jsonFlattener.flatten(jsonString));
   }
 
   /**
-   * Adds the flattened records for the next document.
+   * Adds the flattened records (stored in the json flattener) for the next document.
    */
-  void addFlattenedRecords(List<Map<String, String>> records)
+  void addFlattenedRecords(int numRecords)
       throws IOException {
-    int numRecords = records.size();
     Preconditions
         .checkState(_nextFlattenedDocId + numRecords >= 0, "Got more than %s flattened records", Integer.MAX_VALUE);
     _numFlattenedRecordsList.add(numRecords);
-    for (Map<String, String> record : records) {
-      for (Map.Entry<String, String> entry : record.entrySet()) {
-        // Put both key and key-value into the posting list. Key is useful for checking if a key exists in the json.
-        String key = entry.getKey();
-        addToPostingList(key);
-        String keyValue = key + JsonIndexCreator.KEY_VALUE_SEPARATOR + entry.getValue();
-        addToPostingList(keyValue);
-      }
-      _nextFlattenedDocId++;
-    }
+    _jsonFlattener.forEachPair(_pairConsumer);
+    _nextFlattenedDocId += numRecords;
+  }
+
+  /**
+   * Adds the given flattened key-value pair to the posting lists.
+   */
+  private void addPair(int recordIndex, String key, String value) {
+    // Put both key and key-value into the posting list. Key is useful for checking if a key exists in the json.
+    int flattenedDocId = _nextFlattenedDocId + recordIndex;
+    addToPostingList(key, flattenedDocId);
+    addToPostingList(key + JsonIndexCreator.KEY_VALUE_SEPARATOR + value, flattenedDocId);
   }
 
   /**
-   * Adds the given value to the posting list.
+   * Adds the given flattened doc id to the posting list of the given value.
    */
-  void addToPostingList(String value) {
+  void addToPostingList(String value, int flattenedDocId) {
     RoaringBitmapWriter<RoaringBitmap> bitmapWriter = _postingListMap.get(value);
     if (bitmapWriter == null) {
       bitmapWriter = _bitmapWriterWizard.get();
       _postingListMap.put(value, bitmapWriter);
     }
-    bitmapWriter.add(_nextFlattenedDocId);
+    bitmapWriter.add(flattenedDocId);
   }
 
   /**
@@ -76,9 +76,9 @@ public class OffHeapJsonIndexCreator extends BaseJsonIndexCreator {
   }
 
   @Override
-  void addFlattenedRecords(List<Map<String, String>> records)
+  void addFlattenedRecords(int numRecords)
       throws IOException {
-    super.addFlattenedRecords(records);
+    super.addFlattenedRecords(numRecords);
     _nextDocId++;
     if (_nextDocId % FLUSH_THRESHOLD == 0) {
       flush();
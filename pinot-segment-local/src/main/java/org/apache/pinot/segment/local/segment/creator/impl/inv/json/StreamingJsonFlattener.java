@@ -0,0 +1,239 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator.impl.inv.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.spi.utils.JsonUtils;
+
+
+/**
+ * Token based json flattener that produces the same flattened records as {@link JsonUtils#flatten} without building
+ * the intermediate Jackson tree and the per-level key-value maps.
+ * <p>The full key of each value is built incrementally while walking the tokens, so every key is only materialized once
+ * (instead of once per nesting level). A flattened record is kept as a list of ids into the shared key-value pair
+ * buffers, and the pairs are emitted to a {@link PairConsumer} once the whole document is processed.
+ * <p>Different from the tree based flattening, duplicate keys within a json object are not de-duplicated, which has no
+ * effect on the posting lists built from the flattened records.
+ * <p>This class is not thread-safe, and is designed to be reused to flatten multiple documents.
+ */
+public class StreamingJsonFlattener {
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final StringBuilder _keyBuilder = new StringBuilder();
+  private final List<String> _keys = new ArrayList<>();
+  private final List<String> _values = new ArrayList<>();
+  private List<IntList> _records = Collections.emptyList();
+
+  /**
+   * Consumer of the flattened key-value pairs.
+   */
+  public interface PairConsumer {
+
+    /**
+     * Consumes a key-value pair of the flattened record with the given index (0-based within the document).
+     */
+    void accept(int recordIndex, String key, String value)
+        throws IOException;
+  }
+
+  /**
+   * Flattens the given json string, and returns the number of flattened records. The key-value pairs of the flattened
+   * records can be read via {@link #forEachPair(PairConsumer)} until the next document is flattened.
+   */
+  public int flatten(String jsonString)
+      throws IOException {
+    _keyBuilder.setLength(0);
+    _keys.clear();
+    _values.clear();
+    try (JsonParser parser = JSON_FACTORY.createParser(jsonString)) {
+      JsonToken token = parser.nextToken();
+      _records = token != null ? flatten(parser, token) : Collections.emptyList();
+    }
+    return _records.size();
+  }
+
+  /**
+   * Emits all the key-value pairs of the last flattened document to the given consumer.
+   */
+  public void forEachPair(PairConsumer consumer)
+      throws IOException {
+    int numRecords = _records.size();
+    for (int i = 0; i < numRecords; i++) {
+      IntList record = _records.get(i);
+      int numPairs = record.size();
+      for (int j = 0; j < numPairs; j++) {
+        int pairId = record.getInt(j);
+        consumer.accept(i, _keys.get(pairId), _values.get(pairId));
+      }
+    }
+  }
+
+  /**
+   * Flattens the json value starting at the current token. The key of the value should already be in the key builder.
+   */
+  private List<IntList> flatten(JsonParser parser, JsonToken token)
+      throws IOException {
+    switch (token) {
+      case START_OBJECT:
+        return flattenObject(parser);
+      case START_ARRAY:
+        return flattenArray(parser);
+      case VALUE_NULL:
+        return Collections.emptyList();
+      default:
+        IntList record = new IntArrayList();
+        record.add(addPair(_keyBuilder.toString(), getValueText(parser, token)));
+        List<IntList> records = new ArrayList<>(1);
+        records.add(record);
+        return records;
+    }
+  }
+
+  private List<IntList> flattenArray(JsonParser parser)
+      throws IOException {
+    int keyLength = _keyBuilder.length();
+    String indexKey = null;
+    _keyBuilder.append(JsonUtils.KEY_SEPARATOR);
+    List<IntList> records = new ArrayList<>();
+    JsonToken token;
+    int index = 0;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      List<IntList> childRecords = flatten(parser, token);
+      if (!childRecords.isEmpty()) {
+        if (indexKey == null) {
+          indexKey = _keyBuilder.substring(0, keyLength) + JsonUtils.ARRAY_INDEX_KEY;
+        }
+        int indexPairId = addPair(indexKey, Integer.toString(index));
+        for (IntList childRecord : childRecords) {
+          childRecord.add(indexPairId);
+          records.add(childRecord);
+        }
+      }
+      index++;
+    }
+    _keyBuilder.setLength(keyLength);
+    return records;
+  }
+
+  private List<IntList> flattenObject(JsonParser parser)
+      throws IOException {
+    int keyLength = _keyBuilder.length();
+    // Merge all non-nested records into a single record
+    IntList nonNestedRecord = null;
+    // Put all nested records (from array) into a list to be processed later
+    List<List<IntList>> nestedRecordsList = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      _keyBuilder.append(JsonUtils.KEY_SEPARATOR).append(parser.getCurrentName());
+      List<IntList> childRecords = flatten(parser, parser.nextToken());
+      _keyBuilder.setLength(keyLength);
+      int numChildRecords = childRecords.size();
+      if (numChildRecords == 0) {
+        continue;
+      }
+      if (numChildRecords == 1) {
+        if (nonNestedRecord == null) {
+          nonNestedRecord = childRecords.get(0);
+        } else {
+          nonNestedRecord.addAll(childRecords.get(0));
+        }
+        continue;
+      }
+      if (nestedRecordsList == null) {
+        nestedRecordsList = new ArrayList<>();
+      }
+      nestedRecordsList.add(childRecords);
+    }
+
+    // Merge non-nested records and nested records
+    if (nestedRecordsList == null) {
+      if (nonNestedRecord == null) {
+        return Collections.emptyList();
+      }
+      List<IntList> records = new ArrayList<>(1);
+      records.add(nonNestedRecord);
+      return records;
+    }
+    List<IntList> records = nestedRecordsList.get(0);
+    int numNestedRecordsLists = nestedRecordsList.size();
+    // If there are multiple child nodes with multiple records, calculate each combination of them as a new record
+    for (int i = 1; i < numNestedRecordsLists; i++) {
+      List<IntList> nestedRecords = nestedRecordsList.get(i);
+      List<IntList> combinedRecords = new ArrayList<>(records.size() * nestedRecords.size());
+      for (IntList record : records) {
+        for (IntList nestedRecord : nestedRecords) {
+          IntList combinedRecord = new IntArrayList(record.size() + nestedRecord.size());
+          combinedRecord.addAll(record);
+          combinedRecord.addAll(nestedRecord);
+          combinedRecords.add(combinedRecord);
+        }
+      }
+      records = combinedRecords;
+    }
+    if (nonNestedRecord != null) {
+      for (IntList record : records) {
+        record.addAll(nonNestedRecord);
+      }
+    }
+    return records;
+  }
+
+  private int addPair(String key, String value) {
+    int pairId = _keys.size();
+    _keys.add(key);
+    _values.add(value);
+    return pairId;
+  }
+
+  /**
+   * Returns the text of the value token, which matches {@link com.fasterxml.jackson.databind.JsonNode#asText()} of the
+   * value node parsed with the default object mapper.
+   */
+  private static String getValueText(JsonParser parser, JsonToken token)
+      throws IOException {
+    switch (token) {
+      case VALUE_NUMBER_INT:
+        switch (parser.getNumberType()) {
+          case INT:
+            return Integer.toString(parser.getIntValue());
+          case LONG:
+            return Long.toString(parser.getLongValue());
+          default:
+            return parser.getBigIntegerValue().toString();
+        }
+      case VALUE_NUMBER_FLOAT:
+        return Double.toString(parser.getDoubleValue());
+      case VALUE_TRUE:
+        return "true";
+      case VALUE_FALSE:
+        return "false";
+      case VALUE_STRING:
+        return parser.getText();
+      default:
+        throw new IllegalStateException("Unsupported json token: " + token);
+    }
+  }
+}
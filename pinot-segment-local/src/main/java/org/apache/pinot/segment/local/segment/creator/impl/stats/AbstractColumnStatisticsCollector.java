@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.segment.local.segment.creator.impl.stats;
 
+import java.lang.reflect.Array;
 import java.util.HashSet;
 import java.util.Set;
 import javax.annotation.Nullable;
@@ -95,6 +96,21 @@ public abstract class AbstractColumnStatisticsCollector implements ColumnStatist
     }
   }
 
+  /**
+   * Updates whether the column is sorted with a batch of values, where {@code sortedWithinBatch} indicates whether the
+   * values are sorted within the batch.
+   */
+  void addressSorted(Object firstValue, Object lastValue, boolean sortedWithinBatch) {
+    if (isSorted) {
+      if (sortedWithinBatch) {
+        addressSorted(firstValue);
+        previousValue = lastValue;
+      } else {
+        isSorted = false;
+      }
+    }
+  }
+
   @Override
   public boolean isSorted() {
     return fieldSpec.isSingleValueField() && isSorted;
@@ -105,6 +121,17 @@ public abstract class AbstractColumnStatisticsCollector implements ColumnStatist
    */
   public abstract void collect(Object entry);
 
+  /**
+   * Collects statistics for the first {@code numValues} single values in the given value array of the stored type of
+   * the column (see {@link org.apache.pinot.spi.data.readers.ColumnarBatch}). Collectors of primitive types override
+   * this method to collect the values without boxing them.
+   */
+  public void collectValues(Object values, int numValues) {
+    for (int i = 0; i < numValues; i++) {
+      collect(Array.get(values, i));
+    }
+  }
+
   public abstract Object getMinValue();
 
   public abstract Object getMaxValue();
@@ -55,6 +55,33 @@ public class FloatColumnPreIndexStatsCollector extends AbstractColumnStatisticsC
     }
   }
 
+  @Override
+  public void collectValues(Object values, int numValues) {
+    if (!(values instanceof float[])) {
+      super.collectValues(values, numValues);
+      return;
+    }
+    if (numValues == 0) {
+      return;
+    }
+    float[] typedValues = (float[]) values;
+    boolean sortedWithinBatch = true;
+    for (int i = 0; i < numValues; i++) {
+      float value = typedValues[i];
+      if (sortedWithinBatch && i > 0 && Float.compare(value, typedValues[i - 1]) < 0) {
+        sortedWithinBatch = false;
+      }
+      _values.add(value);
+    }
+    addressSorted(typedValues[0], typedValues[numValues - 1], sortedWithinBatch);
+    if (getPartitionFunction() != null) {
+      for (int i = 0; i < numValues; i++) {
+        updatePartition(typedValues[i]);
+      }
+    }
+    totalNumberOfEntries += numValues;
+  }
+
   @Override
   public Float getMinValue() {
     if (_sealed) {
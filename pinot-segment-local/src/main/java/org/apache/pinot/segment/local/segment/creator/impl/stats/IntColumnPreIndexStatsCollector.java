@@ -55,6 +55,33 @@ public class IntColumnPreIndexStatsCollector extends AbstractColumnStatisticsCol
     }
   }
 
+  @Override
+  public void collectValues(Object values, int numValues) {
+    if (!(values instanceof int[])) {
+      super.collectValues(values, numValues);
+      return;
+    }
+    if (numValues == 0) {
+      return;
+    }
+    int[] typedValues = (int[]) values;
+    boolean sortedWithinBatch = true;
+    for (int i = 0; i < numValues; i++) {
+      int value = typedValues[i];
+      if (sortedWithinBatch && i > 0 && value < typedValues[i - 1]) {
+        sortedWithinBatch = false;
+      }
+      _values.add(value);
+    }
+    addressSorted(typedValues[0], typedValues[numValues - 1], sortedWithinBatch);
+    if (getPartitionFunction() != null) {
+      for (int i = 0; i < numValues; i++) {
+        updatePartition(typedValues[i]);
+      }
+    }
+    totalNumberOfEntries += numValues;
+  }
+
   @Override
   public Integer getMinValue() {
     if (_sealed) {
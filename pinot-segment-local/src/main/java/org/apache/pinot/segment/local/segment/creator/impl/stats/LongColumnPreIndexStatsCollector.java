@@ -55,6 +55,33 @@ public class LongColumnPreIndexStatsCollector extends AbstractColumnStatisticsCo
     }
   }
 
+  @Override
+  public void collectValues(Object values, int numValues) {
+    if (!(values instanceof long[])) {
+      super.collectValues(values, numValues);
+      return;
+    }
+    if (numValues == 0) {
+      return;
+    }
+    long[] typedValues = (long[]) values;
+    boolean sortedWithinBatch = true;
+    for (int i = 0; i < numValues; i++) {
+      long value = typedValues[i];
+      if (sortedWithinBatch && i > 0 && value < typedValues[i - 1]) {
+        sortedWithinBatch = false;
+      }
+      _values.add(value);
+    }
+    addressSorted(typedValues[0], typedValues[numValues - 1], sortedWithinBatch);
+    if (getPartitionFunction() != null) {
+      for (int i = 0; i < numValues; i++) {
+        updatePartition(typedValues[i]);
+      }
+    }
+    totalNumberOfEntries += numValues;
+  }
+
   @Override
   public Long getMinValue() {
     if (_sealed) {
@@ -25,7 +25,9 @@ import org.apache.pinot.segment.spi.creator.SegmentPreIndexStatsCollector;
 import org.apache.pinot.segment.spi.creator.StatsCollectorConfig;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
 import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.IndexedGenericRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -88,6 +90,10 @@ public class SegmentPreIndexStatsCollectorImpl implements SegmentPreIndexStatsCo
 
   @Override
   public void collectRow(GenericRow row) {
+    if (row instanceof IndexedGenericRow) {
+      collectIndexedRow((IndexedGenericRow) row);
+      return;
+    }
     for (Map.Entry<String, Object> columnNameAndValue : row.getFieldToValueMap().entrySet()) {
       final String columnName = columnNameAndValue.getKey();
       final Object value = columnNameAndValue.getValue();
@@ -105,6 +111,51 @@ public class SegmentPreIndexStatsCollectorImpl implements SegmentPreIndexStatsCo
     ++totalDocCount;
   }
 
+  /**
+   * Collects the values from the indexed row via the slots, without materializing the field to value map.
+   */
+  private void collectIndexedRow(IndexedGenericRow row) {
+    IndexedGenericRow.Layout layout = row.getLayout();
+    for (Map.Entry<String, AbstractColumnStatisticsCollector> entry : columnStatsCollectorMap.entrySet()) {
+      String columnName = entry.getKey();
+      int slot = layout.getSlot(columnName);
+      Object value;
+      if (slot >= 0) {
+        if (!row.containsField(slot)) {
+          continue;
+        }
+        value = row.getValue(slot);
+      } else {
+        value = row.getValue(columnName);
+        if (value == null) {
+          continue;
+        }
+      }
+      try {
+        entry.getValue().collect(value);
+      } catch (Exception e) {
+        LOGGER.error("Exception while collecting stats for column:{} in row:{}", columnName, row);
+        throw e;
+      }
+    }
+
+    ++totalDocCount;
+  }
+
+  @Override
+  public void collectBatch(ColumnarBatch batch) {
+    int numRows = batch.getNumRows();
+    for (Map.Entry<String, AbstractColumnStatisticsCollector> entry : columnStatsCollectorMap.entrySet()) {
+      String columnName = entry.getKey();
+      Object values = batch.getValues(columnName);
+      if (values != null) {
+        entry.getValue().collectValues(values, numRows);
+      }
+    }
+
+    totalDocCount += numRows;
+  }
+
   @Override
   public int getTotalDocCount() {
     return totalDocCount;
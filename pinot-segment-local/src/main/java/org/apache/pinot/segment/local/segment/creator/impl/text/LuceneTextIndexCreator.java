@@ -20,13 +20,17 @@ package org.apache.pinot.segment.local.segment.creator.impl.text;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteOrder;
 import java.util.Arrays;
+import java.util.Collections;
+import org.apache.commons.io.FileUtils;
 import org.apache.lucene.analysis.CharArraySet;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.store.Directory;
@@ -36,6 +40,7 @@ import org.apache.pinot.segment.local.segment.creator.impl.SegmentColumnarIndexC
 import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.index.creator.DictionaryBasedInvertedIndexCreator;
 import org.apache.pinot.segment.spi.index.creator.TextIndexCreator;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 
 
 /**
@@ -48,8 +53,13 @@ public class LuceneTextIndexCreator implements TextIndexCreator {
   private static final int LUCENE_INDEX_MAX_BUFFER_SIZE_MB = 500;
 
   public static final String LUCENE_INDEX_DOC_ID_COLUMN_NAME = "DocID";
+  // Key in the Lucene commit user data, set to "true" when the Lucene docIds are the same as the Pinot docIds so that
+  // the docId mapping is not needed
+  public static final String LUCENE_DOC_IDS_MATCH_PINOT_DOC_IDS_KEY = "pinot.docIdsMatch";
 
   private final String _textColumn;
+  private final File _segmentIndexDir;
+  private final boolean _commit;
   private final Directory _indexDirectory;
   private final IndexWriter _indexWriter;
 
@@ -86,6 +96,8 @@ public class LuceneTextIndexCreator implements TextIndexCreator {
    */
   public LuceneTextIndexCreator(String column, File segmentIndexDir, boolean commit) {
     _textColumn = column;
+    _segmentIndexDir = segmentIndexDir;
+    _commit = commit;
     try {
       // segment generation is always in V1 and later we convert (as part of post creation processing)
       // to V3 if segmentVersion is set to V3 in SegmentGeneratorConfig.
@@ -139,11 +151,50 @@ public class LuceneTextIndexCreator implements TextIndexCreator {
       // should probably explore a global lucene index (a single index for all TEXT columns)
       // as opposed to per column index.
       _indexWriter.forceMerge(1);
+      if (_commit) {
+        writeDocIdMapping();
+      }
     } catch (Exception e) {
       throw new RuntimeException("Caught exception while sealing the Lucene index for column: " + _textColumn, e);
     }
   }
 
+  /**
+   * Writes the mapping from Lucene docId to Pinot docId, so that the segment load does not need to read the stored
+   * Pinot docId of every Lucene document. If the docIds are the same (which is the common case after merging into a
+   * single Lucene segment), records that in the commit user data instead of writing the mapping file.
+   */
+  private void writeDocIdMapping()
+      throws IOException {
+    File docIdMappingFile =
+        new File(_segmentIndexDir, _textColumn + V1Constants.Indexes.LUCENE_TEXT_INDEX_DOCID_MAPPING_FILE_EXTENSION);
+    try (DirectoryReader indexReader = DirectoryReader.open(_indexWriter)) {
+      int numDocs = indexReader.maxDoc();
+      int[] pinotDocIds = new int[numDocs];
+      boolean docIdsMatch = true;
+      for (int i = 0; i < numDocs; i++) {
+        int pinotDocId = Integer.parseInt(indexReader.document(i).get(LUCENE_INDEX_DOC_ID_COLUMN_NAME));
+        pinotDocIds[i] = pinotDocId;
+        docIdsMatch &= pinotDocId == i;
+      }
+      if (docIdsMatch) {
+        // Remove the stale mapping (if any) so that it won't be picked up
+        FileUtils.deleteQuietly(docIdMappingFile);
+        _indexWriter.setLiveCommitData(
+            Collections.singletonMap(LUCENE_DOC_IDS_MATCH_PINOT_DOC_IDS_KEY, Boolean.toString(true)).entrySet());
+        return;
+      }
+      // Use the same format as the mapping created by the reader: LITTLE_ENDIAN int per Lucene docId
+      try (PinotDataBuffer buffer = PinotDataBuffer
+          .mapFile(docIdMappingFile, /* readOnly */ false, 0, (long) numDocs * Integer.BYTES, ByteOrder.LITTLE_ENDIAN,
+              "Text index docId mapping buffer: " + _textColumn)) {
+        for (int i = 0; i < numDocs; i++) {
+          buffer.putInt((long) i * Integer.BYTES, pinotDocIds[i]);
+        }
+      }
+    }
+  }
+
   @Override
   public void close()
       throws IOException {
@@ -0,0 +1,160 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator.impl.zonemap;
+
+import com.google.common.base.Preconditions;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.index.creator.ZoneMapCreator;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.apache.pinot.spi.utils.StringUtils;
+
+
+/**
+ * Creator for the zone map of a single-value column. The blocks are flushed to the index file as soon as they are
+ * completed, so only the min/max value of the current block is kept in memory.
+ * <p>Index file format (big-endian):
+ * <ul>
+ *   <li>Version (int)</li>
+ *   <li>Number of docs per block (int)</li>
+ *   <li>Number of blocks (int)</li>
+ *   <li>For each block: number of null values (int), min value, max value</li>
+ * </ul>
+ * INT/LONG/FLOAT/DOUBLE values are stored as fixed-width values, STRING/BYTES values are stored as the length (int)
+ * followed by the (UTF-8 encoded) bytes.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class ZoneMapIndexCreator implements ZoneMapCreator {
+  public static final int VERSION = 1;
+  public static final int DEFAULT_NUM_DOCS_PER_BLOCK = 1024;
+
+  private final DataType _storedType;
+  private final int _numDocsPerBlock;
+  private final int _numBlocks;
+  private final DataOutputStream _dataOutputStream;
+
+  private int _numDocsInCurrentBlock;
+  private int _numBlocksWritten;
+  private int _nullCount;
+  private Comparable _minValue;
+  private Comparable _maxValue;
+
+  public ZoneMapIndexCreator(File indexDir, String columnName, DataType storedType, int numDocs)
+      throws IOException {
+    this(indexDir, columnName, storedType, numDocs, DEFAULT_NUM_DOCS_PER_BLOCK);
+  }
+
+  public ZoneMapIndexCreator(File indexDir, String columnName, DataType storedType, int numDocs, int numDocsPerBlock)
+      throws IOException {
+    Preconditions.checkArgument(numDocsPerBlock > 0, "Number of docs per block must be positive");
+    _storedType = storedType;
+    _numDocsPerBlock = numDocsPerBlock;
+    _numBlocks = (numDocs + numDocsPerBlock - 1) / numDocsPerBlock;
+    File zoneMapFile = new File(indexDir, columnName + V1Constants.Indexes.ZONE_MAP_FILE_EXTENSION);
+    _dataOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(zoneMapFile)));
+    _dataOutputStream.writeInt(VERSION);
+    _dataOutputStream.writeInt(numDocsPerBlock);
+    _dataOutputStream.writeInt(_numBlocks);
+  }
+
+  @Override
+  public void add(Object value, boolean isNull)
+      throws IOException {
+    Comparable comparableValue = value instanceof byte[] ? new ByteArray((byte[]) value) : (Comparable) value;
+    if (_numDocsInCurrentBlock == 0) {
+      _minValue = comparableValue;
+      _maxValue = comparableValue;
+    } else {
+      if (comparableValue.compareTo(_minValue) < 0) {
+        _minValue = comparableValue;
+      }
+      if (comparableValue.compareTo(_maxValue) > 0) {
+        _maxValue = comparableValue;
+      }
+    }
+    if (isNull) {
+      _nullCount++;
+    }
+    if (++_numDocsInCurrentBlock == _numDocsPerBlock) {
+      writeCurrentBlock();
+    }
+  }
+
+  private void writeCurrentBlock()
+      throws IOException {
+    _dataOutputStream.writeInt(_nullCount);
+    writeValue(_minValue);
+    writeValue(_maxValue);
+    _numBlocksWritten++;
+    _numDocsInCurrentBlock = 0;
+    _nullCount = 0;
+  }
+
+  private void writeValue(Comparable value)
+      throws IOException {
+    switch (_storedType) {
+      case INT:
+        _dataOutputStream.writeInt((Integer) value);
+        break;
+      case LONG:
+        _dataOutputStream.writeLong((Long) value);
+        break;
+      case FLOAT:
+        _dataOutputStream.writeFloat((Float) value);
+        break;
+      case DOUBLE:
+        _dataOutputStream.writeDouble((Double) value);
+        break;
+      case STRING:
+        byte[] utf8Bytes = StringUtils.encodeUtf8((String) value);
+        _dataOutputStream.writeInt(utf8Bytes.length);
+        _dataOutputStream.write(utf8Bytes);
+        break;
+      case BYTES:
+        byte[] bytes = ((ByteArray) value).getBytes();
+        _dataOutputStream.writeInt(bytes.length);
+        _dataOutputStream.write(bytes);
+        break;
+      default:
+        throw new IllegalStateException("Unsupported data type for zone map: " + _storedType);
+    }
+  }
+
+  @Override
+  public void seal()
+      throws IOException {
+    if (_numDocsInCurrentBlock > 0) {
+      writeCurrentBlock();
+    }
+    Preconditions.checkState(_numBlocksWritten == _numBlocks, "Expecting %s blocks, got: %s", _numBlocks,
+        _numBlocksWritten);
+    _dataOutputStream.flush();
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _dataOutputStream.close();
+  }
+}
@@ -48,6 +48,7 @@ import org.apache.pinot.segment.local.segment.index.readers.geospatial.Immutable
 import org.apache.pinot.segment.local.segment.index.readers.json.ImmutableJsonIndexReader;
 import org.apache.pinot.segment.local.segment.index.readers.sorted.SortedIndexReaderImpl;
 import org.apache.pinot.segment.local.segment.index.readers.text.LuceneTextIndexReader;
+import org.apache.pinot.segment.local.segment.index.readers.zonemap.ImmutableZoneMapReader;
 import org.apache.pinot.segment.spi.ColumnMetadata;
 import org.apache.pinot.segment.spi.index.column.ColumnIndexContainer;
 import org.apache.pinot.segment.spi.index.reader.BloomFilterReader;
@@ -58,6 +59,7 @@ import org.apache.pinot.segment.spi.index.reader.JsonIndexReader;
 import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
 import org.apache.pinot.segment.spi.index.reader.SortedIndexReader;
 import org.apache.pinot.segment.spi.index.reader.TextIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 import org.apache.pinot.segment.spi.store.ColumnIndexType;
 import org.apache.pinot.segment.spi.store.SegmentDirectory;
@@ -80,6 +82,7 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
   private final H3IndexReader _h3Index;
   private final BaseImmutableDictionary _dictionary;
   private final BloomFilterReader _bloomFilter;
+  private final ZoneMapReader _zoneMap;
   private final NullValueVectorReaderImpl _nullValueVectorReader;
 
   public PhysicalColumnIndexContainer(SegmentDirectory.Reader segmentReader, ColumnMetadata metadata,
@@ -93,7 +96,9 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     boolean loadJsonIndex = indexLoadingConfig.getJsonIndexColumns().contains(columnName);
     boolean loadH3Index = indexLoadingConfig.getH3IndexConfigs().containsKey(columnName);
     boolean loadOnHeapDictionary = indexLoadingConfig.getOnHeapDictionaryColumns().contains(columnName);
+    boolean enableDictionaryHashIndex = indexLoadingConfig.getDictionaryHashIndexColumns().contains(columnName);
     BloomFilterConfig bloomFilterConfig = indexLoadingConfig.getBloomFilterConfigs().get(columnName);
+    boolean loadZoneMap = indexLoadingConfig.getZoneMapColumns().contains(columnName);
 
     if (segmentReader.hasIndexFor(columnName, ColumnIndexType.NULLVALUE_VECTOR)) {
       PinotDataBuffer nullValueVectorBuffer = segmentReader.getIndexFor(columnName, ColumnIndexType.NULLVALUE_VECTOR);
@@ -134,11 +139,19 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
       _bloomFilter = null;
     }
 
+    if (loadZoneMap) {
+      Preconditions.checkState(segmentReader.hasIndexFor(columnName, ColumnIndexType.ZONE_MAP));
+      PinotDataBuffer zoneMapBuffer = segmentReader.getIndexFor(columnName, ColumnIndexType.ZONE_MAP);
+      _zoneMap = new ImmutableZoneMapReader(zoneMapBuffer, metadata.getDataType().getStoredType());
+    } else {
+      _zoneMap = null;
+    }
+
     PinotDataBuffer fwdIndexBuffer = segmentReader.getIndexFor(columnName, ColumnIndexType.FORWARD_INDEX);
     if (metadata.hasDictionary()) {
       // Dictionary-based index
       _dictionary = loadDictionary(segmentReader.getIndexFor(columnName, ColumnIndexType.DICTIONARY), metadata,
-          loadOnHeapDictionary);
+          loadOnHeapDictionary, enableDictionaryHashIndex);
       if (metadata.isSingleValue()) {
         // Single-value
         if (metadata.isSorted()) {
@@ -228,6 +241,11 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     return _bloomFilter;
   }
 
+  @Override
+  public ZoneMapReader getZoneMap() {
+    return _zoneMap;
+  }
+
   @Override
   public TextIndexReader getFSTIndex() {
     return _fstIndex;
@@ -241,6 +259,15 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
   //TODO: move this to a DictionaryLoader class
   public static BaseImmutableDictionary loadDictionary(PinotDataBuffer dictionaryBuffer, ColumnMetadata metadata,
       boolean loadOnHeap) {
+    return loadDictionary(dictionaryBuffer, metadata, loadOnHeap, false);
+  }
+
+  /**
+   * Loads the dictionary, where the on-heap hash index for exact-match lookups is only enabled for the off-heap STRING
+   * dictionary.
+   */
+  public static BaseImmutableDictionary loadDictionary(PinotDataBuffer dictionaryBuffer, ColumnMetadata metadata,
+      boolean loadOnHeap, boolean enableHashIndex) {
     DataType dataType = metadata.getDataType();
     if (loadOnHeap) {
       String columnName = metadata.getColumnName();
@@ -269,7 +296,7 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
         int numBytesPerValue = metadata.getColumnMaxLength();
         byte paddingByte = (byte) metadata.getPaddingCharacter();
         return loadOnHeap ? new OnHeapStringDictionary(dictionaryBuffer, length, numBytesPerValue, paddingByte)
-            : new StringDictionary(dictionaryBuffer, length, numBytesPerValue, paddingByte);
+            : new StringDictionary(dictionaryBuffer, length, numBytesPerValue, paddingByte, enableHashIndex);
 
       case BYTES:
         numBytesPerValue = metadata.getColumnMaxLength();
@@ -324,5 +351,8 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     if (_bloomFilter != null) {
       _bloomFilter.close();
     }
+    if (_zoneMap != null) {
+      _zoneMap.close();
+    }
   }
 }
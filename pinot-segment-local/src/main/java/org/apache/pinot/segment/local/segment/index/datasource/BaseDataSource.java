@@ -29,6 +29,7 @@ import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
 import org.apache.pinot.segment.spi.index.reader.JsonIndexReader;
 import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
 import org.apache.pinot.segment.spi.index.reader.TextIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
 
 
 public abstract class BaseDataSource implements DataSource {
@@ -42,13 +43,15 @@ public abstract class BaseDataSource implements DataSource {
   private final JsonIndexReader _jsonIndex;
   private final H3IndexReader _h3Index;
   private final BloomFilterReader _bloomFilter;
+  private final ZoneMapReader _zoneMap;
   private final NullValueVectorReader _nullValueVector;
 
   public BaseDataSource(DataSourceMetadata dataSourceMetadata, ForwardIndexReader<?> forwardIndex,
       @Nullable Dictionary dictionary, @Nullable InvertedIndexReader<?> invertedIndex,
       @Nullable InvertedIndexReader<?> rangeIndex, @Nullable TextIndexReader textIndex,
       @Nullable TextIndexReader fstIndex, @Nullable JsonIndexReader jsonIndex, @Nullable H3IndexReader h3Index,
-      @Nullable BloomFilterReader bloomFilter, @Nullable NullValueVectorReader nullValueVector) {
+      @Nullable BloomFilterReader bloomFilter, @Nullable ZoneMapReader zoneMap,
+      @Nullable NullValueVectorReader nullValueVector) {
     _dataSourceMetadata = dataSourceMetadata;
     _forwardIndex = forwardIndex;
     _dictionary = dictionary;
@@ -59,6 +62,7 @@ public abstract class BaseDataSource implements DataSource {
     _jsonIndex = jsonIndex;
     _h3Index = h3Index;
     _bloomFilter = bloomFilter;
+    _zoneMap = zoneMap;
     _nullValueVector = nullValueVector;
   }
 
@@ -120,6 +124,12 @@ public abstract class BaseDataSource implements DataSource {
     return _bloomFilter;
   }
 
+  @Nullable
+  @Override
+  public ZoneMapReader getZoneMap() {
+    return _zoneMap;
+  }
+
   @Nullable
   @Override
   public NullValueVectorReader getNullValueVector() {
@@ -57,11 +57,13 @@ public class IndexLoadingConfig {
   private Set<String> _textIndexColumns = new HashSet<>();
   private Set<String> _fstIndexColumns = new HashSet<>();
   private Set<String> _jsonIndexColumns = new HashSet<>();
+  private Set<String> _zoneMapColumns = new HashSet<>();
   private Map<String, H3IndexConfig> _h3IndexConfigs = new HashMap<>();
   private Set<String> _noDictionaryColumns = new HashSet<>(); // TODO: replace this by _noDictionaryConfig.
   private Map<String, String> _noDictionaryConfig = new HashMap<>();
   private Set<String> _varLengthDictionaryColumns = new HashSet<>();
   private Set<String> _onHeapDictionaryColumns = new HashSet<>();
+  private Set<String> _dictionaryHashIndexColumns = new HashSet<>();
   private Map<String, BloomFilterConfig> _bloomFilterConfigs = new HashMap<>();
   private boolean _enableDynamicStarTreeCreation;
   private List<StarTreeIndexConfig> _starTreeIndexConfigs;
@@ -111,6 +113,11 @@ public class IndexLoadingConfig {
       _jsonIndexColumns.addAll(jsonIndexColumns);
     }
 
+    List<String> zoneMapColumns = indexingConfig.getZoneMapColumns();
+    if (zoneMapColumns != null) {
+      _zoneMapColumns.addAll(zoneMapColumns);
+    }
+
     List<String> rangeIndexColumns = indexingConfig.getRangeIndexColumns();
     if (rangeIndexColumns != null) {
       _rangeIndexColumns.addAll(rangeIndexColumns);
@@ -158,6 +165,11 @@ public class IndexLoadingConfig {
       _onHeapDictionaryColumns.addAll(onHeapDictionaryColumns);
     }
 
+    List<String> dictionaryHashIndexColumns = indexingConfig.getDictionaryHashIndexColumns();
+    if (dictionaryHashIndexColumns != null) {
+      _dictionaryHashIndexColumns.addAll(dictionaryHashIndexColumns);
+    }
+
     _enableDynamicStarTreeCreation = indexingConfig.isEnableDynamicStarTreeCreation();
     _starTreeIndexConfigs = indexingConfig.getStarTreeIndexConfigs();
     _enableDefaultStarTree = indexingConfig.isEnableDefaultStarTree();
@@ -296,6 +308,10 @@ public class IndexLoadingConfig {
     return _jsonIndexColumns;
   }
 
+  public Set<String> getZoneMapColumns() {
+    return _zoneMapColumns;
+  }
+
   public Map<String, H3IndexConfig> getH3IndexConfigs() {
     return _h3IndexConfigs;
   }
@@ -345,6 +361,11 @@ public class IndexLoadingConfig {
     _jsonIndexColumns = jsonIndexColumns;
   }
 
+  @VisibleForTesting
+  public void setZoneMapColumns(Set<String> zoneMapColumns) {
+    _zoneMapColumns = zoneMapColumns;
+  }
+
   @VisibleForTesting
   public void setH3IndexConfigs(Map<String, H3IndexConfig> h3IndexConfigs) {
     _h3IndexConfigs = h3IndexConfigs;
@@ -360,6 +381,11 @@ public class IndexLoadingConfig {
     _onHeapDictionaryColumns = onHeapDictionaryColumns;
   }
 
+  @VisibleForTesting
+  public void setDictionaryHashIndexColumns(Set<String> dictionaryHashIndexColumns) {
+    _dictionaryHashIndexColumns = dictionaryHashIndexColumns;
+  }
+
   public Set<String> getNoDictionaryColumns() {
     return _noDictionaryColumns;
   }
@@ -376,6 +402,10 @@ public class IndexLoadingConfig {
     return _onHeapDictionaryColumns;
   }
 
+  public Set<String> getDictionaryHashIndexColumns() {
+    return _dictionaryHashIndexColumns;
+  }
+
   public Map<String, BloomFilterConfig> getBloomFilterConfigs() {
     return _bloomFilterConfigs;
   }
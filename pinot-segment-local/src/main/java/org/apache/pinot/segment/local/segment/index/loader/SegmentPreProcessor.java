@@ -34,6 +34,7 @@ import org.apache.pinot.segment.local.segment.index.loader.invertedindex.JsonInd
 import org.apache.pinot.segment.local.segment.index.loader.invertedindex.LuceneFSTIndexHandler;
 import org.apache.pinot.segment.local.segment.index.loader.invertedindex.RangeIndexHandler;
 import org.apache.pinot.segment.local.segment.index.loader.invertedindex.TextIndexHandler;
+import org.apache.pinot.segment.local.segment.index.loader.zonemap.ZoneMapHandler;
 import org.apache.pinot.segment.local.startree.StarTreeBuilderUtils;
 import org.apache.pinot.segment.local.startree.v2.builder.MultipleTreesBuilder;
 import org.apache.pinot.segment.local.startree.v2.builder.StarTreeV2BuilderConfig;
@@ -146,6 +147,11 @@ public class SegmentPreProcessor implements AutoCloseable {
           new BloomFilterHandler(_indexDir, _segmentMetadata, _indexLoadingConfig, segmentWriter);
       bloomFilterHandler.createBloomFilters();
 
+      // Create zone maps according to the index config.
+      ZoneMapHandler zoneMapHandler =
+          new ZoneMapHandler(_indexDir, _segmentMetadata, _indexLoadingConfig, segmentWriter);
+      zoneMapHandler.createZoneMaps();
+
       // Create/modify/remove star-trees if required
       if (_indexLoadingConfig.isEnableDynamicStarTreeCreation()) {
         List<StarTreeV2BuilderConfig> starTreeBuilderConfigs = StarTreeBuilderUtils
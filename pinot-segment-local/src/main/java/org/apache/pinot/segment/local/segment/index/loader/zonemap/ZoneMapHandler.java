@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.loader.zonemap;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.creator.impl.zonemap.ZoneMapIndexCreator;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.local.segment.index.loader.LoaderUtils;
+import org.apache.pinot.segment.local.segment.index.readers.NullValueVectorReaderImpl;
+import org.apache.pinot.segment.spi.ColumnMetadata;
+import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.creator.SegmentVersion;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReaderContext;
+import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
+import org.apache.pinot.segment.spi.store.ColumnIndexType;
+import org.apache.pinot.segment.spi.store.SegmentDirectory;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class ZoneMapHandler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ZoneMapHandler.class);
+
+  private final File _indexDir;
+  private final SegmentDirectory.Writer _segmentWriter;
+  private final String _segmentName;
+  private final SegmentVersion _segmentVersion;
+  private final Set<ColumnMetadata> _zoneMapColumns = new HashSet<>();
+
+  public ZoneMapHandler(File indexDir, SegmentMetadata segmentMetadata, IndexLoadingConfig indexLoadingConfig,
+      SegmentDirectory.Writer segmentWriter) {
+    _indexDir = indexDir;
+    _segmentWriter = segmentWriter;
+    _segmentName = segmentMetadata.getName();
+    _segmentVersion = segmentMetadata.getVersion();
+
+    for (String column : indexLoadingConfig.getZoneMapColumns()) {
+      ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
+      if (columnMetadata != null) {
+        _zoneMapColumns.add(columnMetadata);
+      }
+    }
+  }
+
+  public void createZoneMaps()
+      throws Exception {
+    for (ColumnMetadata columnMetadata : _zoneMapColumns) {
+      createZoneMapForColumn(columnMetadata);
+    }
+  }
+
+  private void createZoneMapForColumn(ColumnMetadata columnMetadata)
+      throws Exception {
+    String columnName = columnMetadata.getColumnName();
+
+    File inProgress = new File(_indexDir, columnName + V1Constants.Indexes.ZONE_MAP_FILE_EXTENSION + ".inprogress");
+    File zoneMapFile = new File(_indexDir, columnName + V1Constants.Indexes.ZONE_MAP_FILE_EXTENSION);
+
+    if (!inProgress.exists()) {
+      // Marker file does not exist, which means last run ended normally.
+
+      if (_segmentWriter.hasIndexFor(columnName, ColumnIndexType.ZONE_MAP)) {
+        // Skip creating zone map if already exists.
+
+        LOGGER.info("Found zone map for segment: {}, column: {}", _segmentName, columnName);
+        return;
+      }
+
+      // Create a marker file.
+      FileUtils.touch(inProgress);
+    } else {
+      // Marker file exists, which means last run gets interrupted.
+
+      // Remove zone map if exists.
+      // For v1 and v2, it's the actual zone map. For v3, it's the temporary zone map.
+      FileUtils.deleteQuietly(zoneMapFile);
+    }
+
+    // Create new zone map for the column.
+    LOGGER.info("Creating new zone map for segment: {}, column: {}", _segmentName, columnName);
+    Preconditions.checkState(columnMetadata.isSingleValue(), "Zone map can only be applied to single-value columns");
+    createZoneMap(columnMetadata);
+
+    // For v3, write the generated zone map file into the single file and remove it.
+    if (_segmentVersion == SegmentVersion.v3) {
+      LoaderUtils.writeIndexToV3Format(_segmentWriter, columnName, zoneMapFile, ColumnIndexType.ZONE_MAP);
+    }
+
+    // Delete the marker file.
+    FileUtils.deleteQuietly(inProgress);
+
+    LOGGER.info("Created zone map for segment: {}, column: {}", _segmentName, columnName);
+  }
+
+  private void createZoneMap(ColumnMetadata columnMetadata)
+      throws IOException {
+    String columnName = columnMetadata.getColumnName();
+    DataType storedType = columnMetadata.getDataType().getStoredType();
+    int numDocs = columnMetadata.getTotalDocs();
+    NullValueVectorReader nullValueVectorReader =
+        _segmentWriter.hasIndexFor(columnName, ColumnIndexType.NULLVALUE_VECTOR) ? new NullValueVectorReaderImpl(
+            _segmentWriter.getIndexFor(columnName, ColumnIndexType.NULLVALUE_VECTOR)) : null;
+    try (ForwardIndexReader forwardIndexReader = LoaderUtils.getForwardIndexReader(_segmentWriter, columnMetadata);
+        ForwardIndexReaderContext readerContext = forwardIndexReader.createContext();
+        ZoneMapIndexCreator zoneMapCreator = new ZoneMapIndexCreator(_indexDir, columnName, storedType, numDocs)) {
+      if (columnMetadata.hasDictionary()) {
+        try (Dictionary dictionary = LoaderUtils.getDictionary(_segmentWriter, columnMetadata)) {
+          for (int i = 0; i < numDocs; i++) {
+            zoneMapCreator.add(dictionary.get(forwardIndexReader.getDictId(i, readerContext)),
+                isNull(nullValueVectorReader, i));
+          }
+        }
+      } else {
+        for (int i = 0; i < numDocs; i++) {
+          zoneMapCreator.add(getRawValue(forwardIndexReader, readerContext, storedType, i),
+              isNull(nullValueVectorReader, i));
+        }
+      }
+      zoneMapCreator.seal();
+    }
+  }
+
+  private static boolean isNull(NullValueVectorReader nullValueVectorReader, int docId) {
+    return nullValueVectorReader != null && nullValueVectorReader.isNull(docId);
+  }
+
+  private static Object getRawValue(ForwardIndexReader forwardIndexReader, ForwardIndexReaderContext readerContext,
+      DataType storedType, int docId) {
+    switch (storedType) {
+      case INT:
+        return forwardIndexReader.getInt(docId, readerContext);
+      case LONG:
+        return forwardIndexReader.getLong(docId, readerContext);
+      case FLOAT:
+        return forwardIndexReader.getFloat(docId, readerContext);
+      case DOUBLE:
+        return forwardIndexReader.getDouble(docId, readerContext);
+      case STRING:
+        return forwardIndexReader.getString(docId, readerContext);
+      case BYTES:
+        return forwardIndexReader.getBytes(docId, readerContext);
+      default:
+        throw new IllegalStateException("Unsupported data type for zone map: " + storedType);
+    }
+  }
+}
@@ -22,6 +22,7 @@ import com.google.common.base.Preconditions;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import java.io.IOException;
 import java.util.Arrays;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.StringUtil;
 import org.apache.pinot.segment.local.io.util.FixedByteValueReaderWriter;
 import org.apache.pinot.segment.local.io.util.ValueReader;
@@ -200,6 +201,10 @@ public abstract class BaseImmutableDictionary implements Dictionary {
     int low = 0;
     int high = _length - 1;
     if (_paddingByte == 0) {
+      byte[] utf8Bytes = getComparableUtf8Bytes(value);
+      if (utf8Bytes != null) {
+        return binarySearchUtf8Bytes(utf8Bytes);
+      }
       while (low <= high) {
         int mid = (low + high) >>> 1;
         String midValue = _valueReader.getUnpaddedString(mid, _numBytesPerValue, _paddingByte, buffer);
@@ -230,6 +235,46 @@ public abstract class BaseImmutableDictionary implements Dictionary {
     return -(low + 1);
   }
 
+  /**
+   * Binary searches the UTF-8 bytes of a STRING value by comparing the bytes in place without decoding the dictionary
+   * values. The UTF-8 bytes should be acquired from {@link #getComparableUtf8Bytes(String)} so that the byte order
+   * matches the order of the dictionary values. Should only be called for dictionary with zero padding byte.
+   */
+  protected int binarySearchUtf8Bytes(byte[] utf8Bytes) {
+    int low = 0;
+    int high = _length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int compareResult = _valueReader.compareUtf8Bytes(mid, _numBytesPerValue, _paddingByte, utf8Bytes);
+      if (compareResult < 0) {
+        low = mid + 1;
+      } else if (compareResult > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  /**
+   * Returns the UTF-8 bytes of the given STRING value if comparing them with the UTF-8 bytes of any other value gives
+   * the same result as {@link String#compareTo(String)} (the order of the dictionary values), or {@code null} if not.
+   * <p>UTF-8 byte order is the code point order, which differs from the UTF-16 code unit order of
+   * {@link String#compareTo(String)} only when comparing a supplementary character (surrogate pair) with a character
+   * larger than the surrogates. Values without surrogates and characters above them are always ordered the same way.
+   */
+  @Nullable
+  protected static byte[] getComparableUtf8Bytes(String value) {
+    int length = value.length();
+    for (int i = 0; i < length; i++) {
+      if (value.charAt(i) >= Character.MIN_SURROGATE) {
+        return null;
+      }
+    }
+    return StringUtil.encodeUtf8(value);
+  }
+
   protected int binarySearch(byte[] value) {
     int low = 0;
     int high = _length - 1;
@@ -284,6 +329,14 @@ public abstract class BaseImmutableDictionary implements Dictionary {
     return _valueReader.getUnpaddedString(dictId, _numBytesPerValue, _paddingByte, buffer);
   }
 
+  protected int compareUtf8Bytes(int dictId, byte[] utf8Bytes) {
+    return _valueReader.compareUtf8Bytes(dictId, _numBytesPerValue, _paddingByte, utf8Bytes);
+  }
+
+  protected byte getPaddingByte() {
+    return _paddingByte;
+  }
+
   protected String getPaddedString(int dictId, byte[] buffer) {
     return _valueReader.getPaddedString(dictId, _numBytesPerValue, buffer);
   }
@@ -18,15 +18,54 @@
  */
 package org.apache.pinot.segment.local.segment.index.readers;
 
+import it.unimi.dsi.fastutil.HashCommon;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.utils.BytesUtils;
 
 
+/**
+ * Immutable dictionary for STRING values.
+ * <p>Lookups compare the UTF-8 bytes of the values in place without decoding them (see
+ * {@link #binarySearchUtf8Bytes(byte[])}).
+ * <p>When the hash index is enabled for the column (disabled by default, see
+ * {@code IndexingConfig.dictionaryHashIndexColumns}) and the dictionary is hot for exact-match lookups (the number of
+ * {@link #indexOf(String)} calls exceeds the number of values, e.g. with large IN predicates), an on-heap open
+ * addressing hash index from the value hash code to the dictionary id is built so that {@link #indexOf(String)} becomes
+ * O(1). The cost of building the hash index is amortized over the lookups that triggered it. The hash index takes 8
+ * bytes per value at most, and is not built for dictionaries with more than {@link #MAX_LENGTH_FOR_HASH_INDEX} values.
+ * The heap memory used by the hash indexes is tracked in {@link #getHashIndexMemoryUsage()}.
+ */
 public class StringDictionary extends BaseImmutableDictionary {
+  public static final int MAX_LENGTH_FOR_HASH_INDEX = 1 << 22;
+
+  private static final AtomicLong HASH_INDEX_MEMORY_USAGE = new AtomicLong();
+
+  private final boolean _enableHashIndex;
+  // Hash table with load factor 0.5, where each slot stores (dictId + 1), or 0 for empty slot
+  private volatile int[] _hashTable;
+  // NOTE: Racy increment is fine here because the count is only used as a heuristic to build the hash table
+  private int _numLookups;
 
   public StringDictionary(PinotDataBuffer dataBuffer, int length, int numBytesPerValue, byte paddingByte) {
+    this(dataBuffer, length, numBytesPerValue, paddingByte, false);
+  }
+
+  public StringDictionary(PinotDataBuffer dataBuffer, int length, int numBytesPerValue, byte paddingByte,
+      boolean enableHashIndex) {
     super(dataBuffer, length, numBytesPerValue, paddingByte);
+    // Hash index is not applicable to legacy dictionary with non-zero padding byte
+    _enableHashIndex = enableHashIndex && paddingByte == 0 && length <= MAX_LENGTH_FOR_HASH_INDEX;
+  }
+
+  /**
+   * Returns the heap memory (in bytes) used by the hash indexes of all the STRING dictionaries loaded.
+   */
+  public static long getHashIndexMemoryUsage() {
+    return HASH_INDEX_MEMORY_USAGE.get();
   }
 
   @Override
@@ -34,6 +73,67 @@ public class StringDictionary extends BaseImmutableDictionary {
     return binarySearch(stringValue);
   }
 
+  @Override
+  public int indexOf(String stringValue) {
+    if (getPaddingByte() != 0) {
+      return super.indexOf(stringValue);
+    }
+    byte[] utf8Bytes = getComparableUtf8Bytes(stringValue);
+    if (utf8Bytes == null) {
+      return super.indexOf(stringValue);
+    }
+    int[] hashTable = _hashTable;
+    if (hashTable == null) {
+      if (!_enableHashIndex || ++_numLookups <= length()) {
+        int index = binarySearchUtf8Bytes(utf8Bytes);
+        return index >= 0 ? index : Dictionary.NULL_VALUE_INDEX;
+      }
+      hashTable = getOrBuildHashTable();
+    }
+    int mask = hashTable.length - 1;
+    int pos = HashCommon.mix(stringValue.hashCode()) & mask;
+    int entry;
+    while ((entry = hashTable[pos]) != 0) {
+      int dictId = entry - 1;
+      if (compareUtf8Bytes(dictId, utf8Bytes) == 0) {
+        return dictId;
+      }
+      pos = (pos + 1) & mask;
+    }
+    return Dictionary.NULL_VALUE_INDEX;
+  }
+
+  private synchronized int[] getOrBuildHashTable() {
+    int[] hashTable = _hashTable;
+    if (hashTable == null) {
+      int length = length();
+      hashTable = new int[HashCommon.arraySize(length, 0.5f)];
+      int mask = hashTable.length - 1;
+      byte[] buffer = getBuffer();
+      for (int dictId = 0; dictId < length; dictId++) {
+        int pos = HashCommon.mix(getUnpaddedString(dictId, buffer).hashCode()) & mask;
+        while (hashTable[pos] != 0) {
+          pos = (pos + 1) & mask;
+        }
+        hashTable[pos] = dictId + 1;
+      }
+      _hashTable = hashTable;
+      HASH_INDEX_MEMORY_USAGE.addAndGet((long) hashTable.length * Integer.BYTES);
+    }
+    return hashTable;
+  }
+
+  @Override
+  public synchronized void close()
+      throws IOException {
+    int[] hashTable = _hashTable;
+    if (hashTable != null) {
+      _hashTable = null;
+      HASH_INDEX_MEMORY_USAGE.addAndGet(-(long) hashTable.length * Integer.BYTES);
+    }
+    super.close();
+  }
+
   @Override
   public DataType getValueType() {
     return DataType.STRING;
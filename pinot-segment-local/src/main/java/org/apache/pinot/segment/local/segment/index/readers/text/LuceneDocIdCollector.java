@@ -19,6 +19,7 @@
 package org.apache.pinot.segment.local.segment.index.readers.text;
 
 import java.io.IOException;
+import javax.annotation.Nullable;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.LeafCollector;
@@ -40,13 +41,15 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
  * a callback is invoked into this collector that simply collects the
  * matching doc's docID. We store the docID in a bitmap to be traversed later
  * as part of doc id iteration etc.
+ * The docID translator is null when the lucene docIDs are the same as the pinot docIDs.
  */
 public class LuceneDocIdCollector implements Collector {
 
   private final MutableRoaringBitmap _docIds;
   private final LuceneTextIndexReader.DocIdTranslator _docIdTranslator;
 
-  public LuceneDocIdCollector(MutableRoaringBitmap docIds, LuceneTextIndexReader.DocIdTranslator docIdTranslator) {
+  public LuceneDocIdCollector(MutableRoaringBitmap docIds,
+      @Nullable LuceneTextIndexReader.DocIdTranslator docIdTranslator) {
     _docIds = docIds;
     _docIdTranslator = docIdTranslator;
   }
@@ -58,6 +61,20 @@ public class LuceneDocIdCollector implements Collector {
 
   @Override
   public LeafCollector getLeafCollector(LeafReaderContext context) {
+    if (_docIdTranslator == null) {
+      return new LeafCollector() {
+
+        @Override
+        public void setScorer(Scorable scorer) throws IOException {
+          // we don't use scoring, so this is NO-OP
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+          _docIds.add(context.docBase + doc);
+        }
+      };
+    }
     return new LeafCollector() {
 
       @Override
@@ -18,6 +18,8 @@
  */
 package org.apache.pinot.segment.local.segment.index.readers.text;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
@@ -28,6 +30,7 @@ import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.IndexSearcher;
@@ -55,12 +58,21 @@ import org.slf4j.LoggerFactory;
 public class LuceneTextIndexReader implements TextIndexReader {
   private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(LuceneTextIndexReader.class);
 
+  // Lucene Query is immutable once parsed, so the parsed queries can be shared across all the segments. Key is the
+  // column name, default operator and search query (see getParsedQueryKey()).
+  private static final int MAX_PARSED_QUERY_CACHE_SIZE = 10_000;
+  private static final Cache<String, Query> PARSED_QUERY_CACHE =
+      CacheBuilder.newBuilder().maximumSize(MAX_PARSED_QUERY_CACHE_SIZE).build();
+
   private final IndexReader _indexReader;
   private final Directory _indexDirectory;
   private final IndexSearcher _indexSearcher;
   private final String _column;
+  // Null when Lucene docIds are the same as Pinot docIds
   private final DocIdTranslator _docIdTranslator;
   private final StandardAnalyzer _standardAnalyzer;
+  // Cache of the search query results for this segment, null if not enabled
+  private final Cache<String, MutableRoaringBitmap> _resultCache;
   private boolean _useANDForMultiTermQueries = false;
 
   /**
@@ -78,7 +90,8 @@ public class LuceneTextIndexReader implements TextIndexReader {
     try {
       File indexFile = getTextIndexFile(indexDir);
       _indexDirectory = FSDirectory.open(indexFile.toPath());
-      _indexReader = DirectoryReader.open(_indexDirectory);
+      DirectoryReader indexReader = DirectoryReader.open(_indexDirectory);
+      _indexReader = indexReader;
       _indexSearcher = new IndexSearcher(_indexReader);
       if (textIndexProperties == null || !Boolean
           .parseBoolean(textIndexProperties.get(FieldConfig.TEXT_INDEX_ENABLE_QUERY_CACHE))) {
@@ -90,9 +103,19 @@ public class LuceneTextIndexReader implements TextIndexReader {
           .parseBoolean(textIndexProperties.get(FieldConfig.TEXT_INDEX_USE_AND_FOR_MULTI_TERM_QUERIES))) {
         _useANDForMultiTermQueries = true;
       }
-      // TODO: consider using a threshold of num docs per segment to decide between building
-      // mapping file upfront on segment load v/s on-the-fly during query processing
-      _docIdTranslator = new DocIdTranslator(indexDir, _column, numDocs, _indexSearcher);
+      int resultCacheSize = 0;
+      if (textIndexProperties != null && textIndexProperties.containsKey(FieldConfig.TEXT_INDEX_RESULT_CACHE_SIZE)) {
+        resultCacheSize = Integer.parseInt(textIndexProperties.get(FieldConfig.TEXT_INDEX_RESULT_CACHE_SIZE));
+      }
+      _resultCache = resultCacheSize > 0 ? CacheBuilder.newBuilder().maximumSize(resultCacheSize).build() : null;
+      // Segments created with the docId mapping information skip the mapping when Lucene docIds match Pinot docIds,
+      // or have the mapping file written during segment creation
+      if (Boolean.parseBoolean(indexReader.getIndexCommit().getUserData()
+          .get(LuceneTextIndexCreator.LUCENE_DOC_IDS_MATCH_PINOT_DOC_IDS_KEY))) {
+        _docIdTranslator = null;
+      } else {
+        _docIdTranslator = new DocIdTranslator(indexDir, _column, numDocs, _indexSearcher);
+      }
       _standardAnalyzer = new StandardAnalyzer(LuceneTextIndexCreator.ENGLISH_STOP_WORDS_SET);
     } catch (Exception e) {
       LOGGER
@@ -130,9 +153,34 @@ public class LuceneTextIndexReader implements TextIndexReader {
 
   @Override
   public MutableRoaringBitmap getDocIds(String searchQuery) {
+    if (_resultCache != null) {
+      MutableRoaringBitmap cachedDocIds = _resultCache.getIfPresent(searchQuery);
+      if (cachedDocIds != null) {
+        // Return a copy because the caller might modify the returned bitmap
+        return cachedDocIds.clone();
+      }
+    }
     MutableRoaringBitmap docIds = new MutableRoaringBitmap();
     Collector docIDCollector = new LuceneDocIdCollector(docIds, _docIdTranslator);
     try {
+      _indexSearcher.search(getParsedQuery(searchQuery), docIDCollector);
+      if (_resultCache != null) {
+        docIds.runOptimize();
+        _resultCache.put(searchQuery, docIds.clone());
+      }
+      return docIds;
+    } catch (Exception e) {
+      String msg =
+          "Caught excepttion while searching the text index for column:" + _column + " search query:" + searchQuery;
+      throw new RuntimeException(msg, e);
+    }
+  }
+
+  private Query getParsedQuery(String searchQuery)
+      throws ParseException {
+    String key = getParsedQueryKey(searchQuery);
+    Query query = PARSED_QUERY_CACHE.getIfPresent(key);
+    if (query == null) {
       // Lucene Query Parser is JavaCC based. It is stateful and should
       // be instantiated per query. Analyzer on the other hand is stateless
       // and can be created upfront.
@@ -140,14 +188,14 @@ public class LuceneTextIndexReader implements TextIndexReader {
       if (_useANDForMultiTermQueries) {
         parser.setDefaultOperator(QueryParser.Operator.AND);
       }
-      Query query = parser.parse(searchQuery);
-      _indexSearcher.search(query, docIDCollector);
-      return docIds;
-    } catch (Exception e) {
-      String msg =
-          "Caught excepttion while searching the text index for column:" + _column + " search query:" + searchQuery;
-      throw new RuntimeException(msg, e);
+      query = parser.parse(searchQuery);
+      PARSED_QUERY_CACHE.put(key, query);
     }
+    return query;
+  }
+
+  private String getParsedQueryKey(String searchQuery) {
+    return _column + (_useANDForMultiTermQueries ? "\0AND\0" : "\0OR\0") + searchQuery;
   }
 
   /**
@@ -161,7 +209,9 @@ public class LuceneTextIndexReader implements TextIndexReader {
       throws IOException {
     _indexReader.close();
     _indexDirectory.close();
-    _docIdTranslator.close();
+    if (_docIdTranslator != null) {
+      _docIdTranslator.close();
+    }
   }
 
   /**
@@ -180,7 +230,8 @@ public class LuceneTextIndexReader implements TextIndexReader {
       int length = Integer.BYTES * numDocs;
       File docIdMappingFile = new File(SegmentDirectoryPaths.findSegmentDirectory(segmentIndexDir),
           column + V1Constants.Indexes.LUCENE_TEXT_INDEX_DOCID_MAPPING_FILE_EXTENSION);
-      // The mapping is local to a segment. It is created on the server during segment load.
+      // The mapping is local to a segment. It is created during segment creation, or on the server during segment load
+      // for the segments created before that.
       // Unless we are running Pinot on Solaris/SPARC, the underlying architecture is
       // LITTLE_ENDIAN (Linux/x86). So use that as byte order.
       String desc = "Text index docId mapping buffer: " + column;
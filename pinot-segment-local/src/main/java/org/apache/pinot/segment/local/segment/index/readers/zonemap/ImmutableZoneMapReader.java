@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.readers.zonemap;
+
+import com.google.common.base.Preconditions;
+import org.apache.pinot.segment.local.segment.creator.impl.zonemap.ZoneMapIndexCreator;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.apache.pinot.spi.utils.StringUtils;
+
+
+/**
+ * Reader for the zone map created by {@link ZoneMapIndexCreator}. The zone map is small (one entry per block of
+ * documents), so it is loaded on-heap to avoid de-serializing the min/max values on each access.
+ */
+@SuppressWarnings("rawtypes")
+public class ImmutableZoneMapReader implements ZoneMapReader {
+  private final int _numDocsPerBlock;
+  private final int _numBlocks;
+  private final int[] _nullCounts;
+  private final Comparable[] _minValues;
+  private final Comparable[] _maxValues;
+
+  public ImmutableZoneMapReader(PinotDataBuffer dataBuffer, DataType storedType) {
+    int version = dataBuffer.getInt(0);
+    Preconditions.checkState(version == ZoneMapIndexCreator.VERSION, "Unsupported zone map version: %s", version);
+    _numDocsPerBlock = dataBuffer.getInt(4);
+    _numBlocks = dataBuffer.getInt(8);
+    _nullCounts = new int[_numBlocks];
+    _minValues = new Comparable[_numBlocks];
+    _maxValues = new Comparable[_numBlocks];
+    long offset = 12;
+    for (int i = 0; i < _numBlocks; i++) {
+      _nullCounts[i] = dataBuffer.getInt(offset);
+      offset += Integer.BYTES;
+      switch (storedType) {
+        case INT:
+          _minValues[i] = dataBuffer.getInt(offset);
+          _maxValues[i] = dataBuffer.getInt(offset + Integer.BYTES);
+          offset += 2 * Integer.BYTES;
+          break;
+        case LONG:
+          _minValues[i] = dataBuffer.getLong(offset);
+          _maxValues[i] = dataBuffer.getLong(offset + Long.BYTES);
+          offset += 2 * Long.BYTES;
+          break;
+        case FLOAT:
+          _minValues[i] = dataBuffer.getFloat(offset);
+          _maxValues[i] = dataBuffer.getFloat(offset + Float.BYTES);
+          offset += 2 * Float.BYTES;
+          break;
+        case DOUBLE:
+          _minValues[i] = dataBuffer.getDouble(offset);
+          _maxValues[i] = dataBuffer.getDouble(offset + Double.BYTES);
+          offset += 2 * Double.BYTES;
+          break;
+        case STRING:
+        case BYTES:
+          byte[] minBytes = new byte[dataBuffer.getInt(offset)];
+          offset += Integer.BYTES;
+          dataBuffer.copyTo(offset, minBytes);
+          offset += minBytes.length;
+          byte[] maxBytes = new byte[dataBuffer.getInt(offset)];
+          offset += Integer.BYTES;
+          dataBuffer.copyTo(offset, maxBytes);
+          offset += maxBytes.length;
+          if (storedType == DataType.STRING) {
+            _minValues[i] = StringUtils.decodeUtf8(minBytes);
+            _maxValues[i] = StringUtils.decodeUtf8(maxBytes);
+          } else {
+            _minValues[i] = new ByteArray(minBytes);
+            _maxValues[i] = new ByteArray(maxBytes);
+          }
+          break;
+        default:
+          throw new IllegalStateException("Unsupported data type for zone map: " + storedType);
+      }
+    }
+  }
+
+  @Override
+  public int getNumDocsPerBlock() {
+    return _numDocsPerBlock;
+  }
+
+  @Override
+  public int getNumBlocks() {
+    return _numBlocks;
+  }
+
+  @Override
+  public Comparable getMinValue(int blockId) {
+    return _minValues[blockId];
+  }
+
+  @Override
+  public Comparable getMaxValue(int blockId) {
+    return _maxValues[blockId];
+  }
+
+  @Override
+  public int getNullCount(int blockId) {
+    return _nullCounts[blockId];
+  }
+
+  @Override
+  public void close() {
+  }
+}
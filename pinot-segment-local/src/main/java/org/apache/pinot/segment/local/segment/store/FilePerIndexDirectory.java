@@ -175,6 +175,9 @@ class FilePerIndexDirectory extends ColumnIndexDirectory {
       case JSON_INDEX:
         fileExtension = V1Constants.Indexes.JSON_INDEX_FILE_EXTENSION;
         break;
+      case ZONE_MAP:
+        fileExtension = V1Constants.Indexes.ZONE_MAP_FILE_EXTENSION;
+        break;
       default:
         throw new IllegalStateException("Unsupported index type: " + indexType);
     }
@@ -28,6 +28,7 @@ import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
 import org.apache.pinot.segment.spi.index.reader.JsonIndexReader;
 import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
 import org.apache.pinot.segment.spi.index.reader.TextIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
 
 
 /**
@@ -90,6 +91,11 @@ public class VirtualColumnIndexContainer implements ColumnIndexContainer {
     return null;
   }
 
+  @Override
+  public ZoneMapReader getZoneMap() {
+    return null;
+  }
+
   @Override
   public NullValueVectorReader getNullValueVector() {
     return null;
@@ -24,8 +24,12 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.annotation.Nullable;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.configuration.Configuration;
@@ -54,16 +58,27 @@ import org.slf4j.LoggerFactory;
  * given {@link BuildMode} ({@code ON_HEAP} or {@code OFF_HEAP}).
  * <p>The indexes for all star-trees will be stored in a single index file, and there will be an extra index map file to
  * mark the offset and size of each index in the index file.
+ * <p>When the number of threads is larger than 1, multiple star-trees are built concurrently, and the off-heap builder
+ * reads and sorts the records on multiple threads. The estimated memory of the star-trees being built concurrently is
+ * bounded by the memory budget, and the off-heap builder spills the temporary buffers that do not fit into its share
+ * of the budget into memory-mapped files.
  */
 public class MultipleTreesBuilder implements Closeable {
   private static final Logger LOGGER = LoggerFactory.getLogger(MultipleTreesBuilder.class);
 
+  public static final long DEFAULT_MEMORY_BUDGET_IN_BYTES = 1_000_000_000L;
+  // Estimated on-heap size of a star-tree record for each metric, used to estimate the memory of the on-heap builder
+  private static final int ESTIMATED_ON_HEAP_METRIC_SIZE_IN_BYTES = 32;
+
   private final List<StarTreeV2BuilderConfig> _builderConfigs;
   private final BuildMode _buildMode;
   private final File _segmentDirectory;
   private final PropertiesConfiguration _metadataProperties;
   private final ImmutableSegment _segment;
 
+  private int _numThreads = 1;
+  private long _memoryBudgetInBytes = DEFAULT_MEMORY_BUDGET_IN_BYTES;
+
   public enum BuildMode {
     ON_HEAP, OFF_HEAP
   }
@@ -115,6 +130,22 @@ public class MultipleTreesBuilder implements Closeable {
     }
   }
 
+  /**
+   * Sets the number of threads used to build the star-trees (1 by default, which builds all the star-trees in sequence
+   * on the calling thread).
+   */
+  public void setNumThreads(int numThreads) {
+    _numThreads = numThreads;
+  }
+
+  /**
+   * Sets the memory budget for the star-trees being built concurrently. A single star-tree with estimated memory
+   * larger than the budget is still built, but not concurrently with others.
+   */
+  public void setMemoryBudgetInBytes(long memoryBudgetInBytes) {
+    _memoryBudgetInBytes = memoryBudgetInBytes;
+  }
+
   /**
    * Builds the star-trees.
    */
@@ -122,9 +153,10 @@ public class MultipleTreesBuilder implements Closeable {
       throws Exception {
     long startTime = System.currentTimeMillis();
     int numStarTrees = _builderConfigs.size();
-    LOGGER.info("Starting building {} star-trees with configs: {} using {} builder", numStarTrees, _builderConfigs,
-        _buildMode);
+    LOGGER.info("Starting building {} star-trees with configs: {} using {} builder and {} threads", numStarTrees,
+        _builderConfigs, _buildMode, _numThreads);
 
+    ExecutorService executorService = _numThreads > 1 ? Executors.newFixedThreadPool(_numThreads) : null;
     try (StarTreeIndexCombiner indexCombiner = new StarTreeIndexCombiner(
         new File(_segmentDirectory, StarTreeV2Constants.INDEX_FILE_NAME))) {
       File starTreeIndexDir = new File(_segmentDirectory, StarTreeV2Constants.STAR_TREE_TEMP_DIR);
@@ -132,15 +164,20 @@ public class MultipleTreesBuilder implements Closeable {
       _metadataProperties.addProperty(MetadataKey.STAR_TREE_COUNT, numStarTrees);
       List<Map<IndexKey, IndexValue>> indexMaps = new ArrayList<>(numStarTrees);
 
-      // Build all star-trees
-      for (int i = 0; i < numStarTrees; i++) {
-        StarTreeV2BuilderConfig builderConfig = _builderConfigs.get(i);
-        Configuration metadataProperties = _metadataProperties.subset(MetadataKey.getStarTreePrefix(i));
-        try (SingleTreeBuilder singleTreeBuilder = getSingleTreeBuilder(builderConfig, starTreeIndexDir, _segment,
-            metadataProperties, _buildMode)) {
-          singleTreeBuilder.build();
+      if (executorService == null || numStarTrees == 1) {
+        // Build all star-trees in sequence
+        for (int i = 0; i < numStarTrees; i++) {
+          StarTreeV2BuilderConfig builderConfig = _builderConfigs.get(i);
+          Configuration metadataProperties = _metadataProperties.subset(MetadataKey.getStarTreePrefix(i));
+          try (SingleTreeBuilder singleTreeBuilder = getSingleTreeBuilder(builderConfig, starTreeIndexDir, _segment,
+              metadataProperties, _buildMode, executorService, _numThreads,
+              OffHeapSingleTreeBuilder.DEFAULT_MMAP_SIZE_THRESHOLD)) {
+            singleTreeBuilder.build();
+          }
+          indexMaps.add(indexCombiner.combine(builderConfig, starTreeIndexDir));
         }
-        indexMaps.add(indexCombiner.combine(builderConfig, starTreeIndexDir));
+      } else {
+        buildConcurrently(executorService, starTreeIndexDir, indexCombiner, indexMaps);
       }
 
       // Save the metadata and index maps to the disk
@@ -152,18 +189,115 @@ public class MultipleTreesBuilder implements Closeable {
       StarTreeIndexMapUtils
           .storeToFile(indexMaps, new File(_segmentDirectory, StarTreeV2Constants.INDEX_MAP_FILE_NAME));
       FileUtils.forceDelete(starTreeIndexDir);
+    } finally {
+      if (executorService != null) {
+        executorService.shutdownNow();
+      }
     }
 
     LOGGER.info("Finished building {} star-trees in {}ms", numStarTrees, System.currentTimeMillis() - startTime);
   }
 
+  /**
+   * Builds the star-trees concurrently into separate directories, then combines the indexes and metadata in the order
+   * of the builder configs. The star-trees wait for the memory budget before being built.
+   */
+  private void buildConcurrently(ExecutorService sortExecutorService, File starTreeIndexDir,
+      StarTreeIndexCombiner indexCombiner, List<Map<IndexKey, IndexValue>> indexMaps)
+      throws Exception {
+    int numStarTrees = _builderConfigs.size();
+    int numConcurrentStarTrees = Math.min(_numThreads, numStarTrees);
+    long mmapSizeThreshold = _memoryBudgetInBytes / numConcurrentStarTrees;
+    MemoryBudget memoryBudget = new MemoryBudget(_memoryBudgetInBytes);
+    int numDocs = _segment.getSegmentMetadata().getTotalDocs();
+    ExecutorService executorService = Executors.newFixedThreadPool(numConcurrentStarTrees);
+    try {
+      List<Future<PropertiesConfiguration>> futures = new ArrayList<>(numStarTrees);
+      for (int i = 0; i < numStarTrees; i++) {
+        StarTreeV2BuilderConfig builderConfig = _builderConfigs.get(i);
+        File outputDir = new File(starTreeIndexDir, Integer.toString(i));
+        long estimatedMemory = estimateMemoryInBytes(builderConfig, numDocs, mmapSizeThreshold);
+        futures.add(executorService.submit(() -> {
+          FileUtils.forceMkdir(outputDir);
+          // NOTE: Use a separate configuration for each star-tree because the configuration is not thread-safe
+          PropertiesConfiguration metadataProperties = new PropertiesConfiguration();
+          memoryBudget.acquire(estimatedMemory);
+          try (SingleTreeBuilder singleTreeBuilder = getSingleTreeBuilder(builderConfig, outputDir, _segment,
+              metadataProperties, _buildMode, sortExecutorService, _numThreads, mmapSizeThreshold)) {
+            singleTreeBuilder.build();
+          } finally {
+            memoryBudget.release(estimatedMemory);
+          }
+          return metadataProperties;
+        }));
+      }
+      for (int i = 0; i < numStarTrees; i++) {
+        PropertiesConfiguration metadataProperties = futures.get(i).get();
+        Configuration starTreeMetadataProperties = _metadataProperties.subset(MetadataKey.getStarTreePrefix(i));
+        Iterator<String> keys = metadataProperties.getKeys();
+        while (keys.hasNext()) {
+          String key = keys.next();
+          starTreeMetadataProperties.setProperty(key, metadataProperties.getProperty(key));
+        }
+        File outputDir = new File(starTreeIndexDir, Integer.toString(i));
+        indexMaps.add(indexCombiner.combine(_builderConfigs.get(i), outputDir));
+        FileUtils.forceDelete(outputDir);
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  /**
+   * Estimates the memory used to build the star-tree. For off-heap builder, the record buffer larger than the mmap size
+   * threshold is memory-mapped, so only the sorted doc ids are counted.
+   */
+  private long estimateMemoryInBytes(StarTreeV2BuilderConfig builderConfig, int numDocs, long mmapSizeThreshold) {
+    int numDimensions = builderConfig.getDimensionsSplitOrder().size();
+    int numMetrics = builderConfig.getFunctionColumnPairs().size();
+    if (_buildMode == BuildMode.ON_HEAP) {
+      return (long) numDocs * (numDimensions * Integer.BYTES + numMetrics * ESTIMATED_ON_HEAP_METRIC_SIZE_IN_BYTES);
+    } else {
+      long bufferSize = (long) numDocs * numDimensions * Integer.BYTES;
+      return (bufferSize > mmapSizeThreshold ? 0 : bufferSize) + (long) numDocs * Integer.BYTES;
+    }
+  }
+
   private static SingleTreeBuilder getSingleTreeBuilder(StarTreeV2BuilderConfig builderConfig, File outputDir,
-      ImmutableSegment segment, Configuration metadataProperties, BuildMode buildMode)
+      ImmutableSegment segment, Configuration metadataProperties, BuildMode buildMode,
+      @Nullable ExecutorService executorService, int parallelism, long mmapSizeThreshold)
       throws FileNotFoundException {
     if (buildMode == BuildMode.ON_HEAP) {
       return new OnHeapSingleTreeBuilder(builderConfig, outputDir, segment, metadataProperties);
     } else {
-      return new OffHeapSingleTreeBuilder(builderConfig, outputDir, segment, metadataProperties);
+      return new OffHeapSingleTreeBuilder(builderConfig, outputDir, segment, metadataProperties, executorService,
+          parallelism, mmapSizeThreshold);
+    }
+  }
+
+  /**
+   * Memory budget shared by the star-trees being built concurrently.
+   */
+  private static class MemoryBudget {
+    final long _budgetInBytes;
+    long _usedInBytes;
+
+    MemoryBudget(long budgetInBytes) {
+      _budgetInBytes = budgetInBytes;
+    }
+
+    synchronized void acquire(long bytes)
+        throws InterruptedException {
+      // Always admit when nothing is being built so that star-tree larger than the budget can still be built
+      while (_usedInBytes > 0 && _usedInBytes + bytes > _budgetInBytes) {
+        wait();
+      }
+      _usedInBytes += bytes;
+    }
+
+    synchronized void release(long bytes) {
+      _usedInBytes -= bytes;
+      notifyAll();
     }
   }
 
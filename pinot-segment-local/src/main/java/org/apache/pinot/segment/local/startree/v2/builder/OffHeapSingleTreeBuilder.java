@@ -29,6 +29,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.segment.spi.ImmutableSegment;
@@ -38,17 +42,23 @@ import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 
 /**
  * The {@code OffHeapSingleTreeBuilder} class is the single star-tree builder that uses off-heap memory.
+ * <p>When an executor service is provided, the segment records are read and sorted on multiple threads. The records
+ * are kept off-heap (in direct memory, or in a memory-mapped file when the buffer is larger than the mmap size
+ * threshold), and only the sorted doc ids are kept on heap.
  */
 public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
   private static final String SEGMENT_RECORD_FILE_NAME = "segment.record";
   private static final String STAR_TREE_RECORD_FILE_NAME = "star-tree.record";
   // If the temporary buffer needed is larger than 500M, use MMAP, otherwise use DIRECT
-  private static final long MMAP_SIZE_THRESHOLD = 500_000_000;
+  public static final long DEFAULT_MMAP_SIZE_THRESHOLD = 500_000_000;
 
   private final File _segmentRecordFile;
   private final File _starTreeRecordFile;
   private final BufferedOutputStream _starTreeRecordOutputStream;
   private final List<Long> _starTreeRecordOffsets;
+  private final ExecutorService _executorService;
+  private final int _parallelism;
+  private final long _mmapSizeThreshold;
 
   private PinotDataBuffer _starTreeRecordBuffer;
   private int _numReadableStarTreeRecords;
@@ -65,7 +75,29 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
   public OffHeapSingleTreeBuilder(StarTreeV2BuilderConfig builderConfig, File outputDir, ImmutableSegment segment,
       Configuration metadataProperties)
       throws FileNotFoundException {
+    this(builderConfig, outputDir, segment, metadataProperties, null, 1, DEFAULT_MMAP_SIZE_THRESHOLD);
+  }
+
+  /**
+   * Constructor for the off-heap single star-tree builder that reads and sorts the records on multiple threads.
+   *
+   * @param builderConfig Builder config
+   * @param outputDir Directory to store the index files
+   * @param segment Index segment
+   * @param metadataProperties Segment metadata properties
+   * @param executorService Executor service to read and sort the records, or {@code null} to use the building thread
+   * @param parallelism Max number of tasks to be submitted to the executor service for each step
+   * @param mmapSizeThreshold Use MMAP instead of DIRECT memory for temporary buffers larger than this size
+   * @throws FileNotFoundException
+   */
+  public OffHeapSingleTreeBuilder(StarTreeV2BuilderConfig builderConfig, File outputDir, ImmutableSegment segment,
+      Configuration metadataProperties, @Nullable ExecutorService executorService, int parallelism,
+      long mmapSizeThreshold)
+      throws FileNotFoundException {
     super(builderConfig, outputDir, segment, metadataProperties);
+    _executorService = executorService;
+    _parallelism = parallelism;
+    _mmapSizeThreshold = mmapSizeThreshold;
     _segmentRecordFile = new File(_outputDir, SEGMENT_RECORD_FILE_NAME);
     Preconditions
         .checkState(!_segmentRecordFile.exists(), "Segment record file: " + _segmentRecordFile + " already exists");
@@ -195,7 +227,7 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
     // Write all dimensions for segment records into the buffer, and sort all records using an int array
     PinotDataBuffer dataBuffer;
     long bufferSize = (long) numDocs * _numDimensions * Integer.BYTES;
-    if (bufferSize > MMAP_SIZE_THRESHOLD) {
+    if (bufferSize > _mmapSizeThreshold) {
       dataBuffer = PinotDataBuffer.mapFile(_segmentRecordFile, false, 0, bufferSize, PinotDataBuffer.NATIVE_ORDER,
           "OffHeapSingleTreeBuilder: segment record buffer");
     } else {
@@ -207,17 +239,10 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
       sortedDocIds[i] = i;
     }
     try {
-      long offset = 0;
-      for (int i = 0; i < numDocs; i++) {
-        int[] dimensions = getSegmentRecordDimensions(i);
-        for (int j = 0; j < _numDimensions; j++) {
-          dataBuffer.putInt(offset, dimensions[j]);
-          offset += Integer.BYTES;
-        }
-      }
-      it.unimi.dsi.fastutil.Arrays.quickSort(0, numDocs, (i1, i2) -> {
-        long offset1 = (long) sortedDocIds[i1] * _numDimensions * Integer.BYTES;
-        long offset2 = (long) sortedDocIds[i2] * _numDimensions * Integer.BYTES;
+      writeSegmentRecordDimensions(dataBuffer, numDocs);
+      ParallelSortUtils.sort(sortedDocIds, 0, numDocs, (docId1, docId2) -> {
+        long offset1 = (long) docId1 * _numDimensions * Integer.BYTES;
+        long offset2 = (long) docId2 * _numDimensions * Integer.BYTES;
         for (int i = 0; i < _numDimensions; i++) {
           int dimension1 = dataBuffer.getInt(offset1 + i * Integer.BYTES);
           int dimension2 = dataBuffer.getInt(offset2 + i * Integer.BYTES);
@@ -226,11 +251,7 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
           }
         }
         return 0;
-      }, (i1, i2) -> {
-        int temp = sortedDocIds[i1];
-        sortedDocIds[i1] = sortedDocIds[i2];
-        sortedDocIds[i2] = temp;
-      });
+      }, _executorService, _parallelism);
     } finally {
       dataBuffer.close();
       if (_segmentRecordFile.exists()) {
@@ -267,6 +288,52 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
     };
   }
 
+  /**
+   * Writes the dimensions of all the segment records into the buffer. When an executor service is provided, each
+   * dimension is read on a separate thread (dimension readers are not thread-safe, but are independent of each other).
+   */
+  private void writeSegmentRecordDimensions(PinotDataBuffer dataBuffer, int numDocs)
+      throws IOException {
+    if (_executorService == null || _numDimensions == 1) {
+      long offset = 0;
+      for (int i = 0; i < numDocs; i++) {
+        int[] dimensions = getSegmentRecordDimensions(i);
+        for (int j = 0; j < _numDimensions; j++) {
+          dataBuffer.putInt(offset, dimensions[j]);
+          offset += Integer.BYTES;
+        }
+      }
+      return;
+    }
+
+    List<Future<?>> futures = new ArrayList<>(_numDimensions);
+    for (int i = 0; i < _numDimensions; i++) {
+      int dimensionId = i;
+      futures.add(_executorService.submit(() -> {
+        long offset = (long) dimensionId * Integer.BYTES;
+        long recordSize = (long) _numDimensions * Integer.BYTES;
+        for (int docId = 0; docId < numDocs; docId++) {
+          dataBuffer.putInt(offset, _dimensionReaders[dimensionId].getDictId(docId));
+          offset += recordSize;
+        }
+      }));
+    }
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading the segment records", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Caught exception while reading the segment records", e.getCause());
+    } finally {
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
   @Override
   Iterator<Record> generateRecordsForStarNode(int startDocId, int endDocId, int dimensionId)
       throws IOException {
@@ -278,22 +345,19 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
     for (int i = 0; i < numDocs; i++) {
       sortedDocIds[i] = startDocId + i;
     }
-    it.unimi.dsi.fastutil.Arrays.quickSort(0, numDocs, (i1, i2) -> {
-      long offset1 = _starTreeRecordOffsets.get(sortedDocIds[i1]);
-      long offset2 = _starTreeRecordOffsets.get(sortedDocIds[i2]);
+    PinotDataBuffer starTreeRecordBuffer = _starTreeRecordBuffer;
+    ParallelSortUtils.sort(sortedDocIds, 0, numDocs, (docId1, docId2) -> {
+      long offset1 = _starTreeRecordOffsets.get(docId1);
+      long offset2 = _starTreeRecordOffsets.get(docId2);
       for (int i = dimensionId + 1; i < _numDimensions; i++) {
-        int dimension1 = _starTreeRecordBuffer.getInt(offset1 + i * Integer.BYTES);
-        int dimension2 = _starTreeRecordBuffer.getInt(offset2 + i * Integer.BYTES);
+        int dimension1 = starTreeRecordBuffer.getInt(offset1 + i * Integer.BYTES);
+        int dimension2 = starTreeRecordBuffer.getInt(offset2 + i * Integer.BYTES);
         if (dimension1 != dimension2) {
           return dimension1 - dimension2;
         }
       }
       return 0;
-    }, (i1, i2) -> {
-      int temp = sortedDocIds[i1];
-      sortedDocIds[i1] = sortedDocIds[i2];
-      sortedDocIds[i2] = temp;
-    });
+    }, _executorService, _parallelism);
 
     // Create an iterator for aggregated records
     return new Iterator<Record>() {
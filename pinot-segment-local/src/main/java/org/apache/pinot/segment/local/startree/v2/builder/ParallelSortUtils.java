@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.startree.v2.builder;
+
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.ints.IntComparator;
+import it.unimi.dsi.fastutil.ints.IntHeapPriorityQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+
+
+/**
+ * The {@code ParallelSortUtils} class sorts ids with a comparator using multiple threads.
+ * <p>The ids are split into runs which are sorted in parallel, then the sorted runs are merged on the calling thread.
+ * The comparator is invoked concurrently from multiple threads, so it should only read from the shared (off-heap)
+ * record buffer.
+ */
+class ParallelSortUtils {
+  private ParallelSortUtils() {
+  }
+
+  // Do not split the ids into runs shorter than this length
+  static final int MIN_RUN_LENGTH = 10_000;
+
+  /**
+   * Sorts the ids within the given range with the comparator. Sorts on the calling thread if the executor service is
+   * {@code null} or the range is too short to be split into multiple runs.
+   *
+   * @param ids Ids to be sorted
+   * @param from Start index (inclusive)
+   * @param to End index (exclusive)
+   * @param comparator Comparator of the ids
+   * @param executorService Executor service to sort the runs, or {@code null} to sort on the calling thread
+   * @param parallelism Max number of runs to be sorted in parallel
+   */
+  static void sort(int[] ids, int from, int to, IntComparator comparator, @Nullable ExecutorService executorService,
+      int parallelism) {
+    int length = to - from;
+    int numRuns = executorService != null ? Math.min(parallelism, length / MIN_RUN_LENGTH) : 1;
+    if (numRuns <= 1) {
+      IntArrays.quickSort(ids, from, to, comparator);
+      return;
+    }
+
+    // Sort the runs in parallel
+    int[] runStarts = new int[numRuns + 1];
+    for (int i = 0; i <= numRuns; i++) {
+      runStarts[i] = from + (int) ((long) length * i / numRuns);
+    }
+    List<Future<?>> futures = new ArrayList<>(numRuns);
+    for (int i = 0; i < numRuns; i++) {
+      int runStart = runStarts[i];
+      int runEnd = runStarts[i + 1];
+      futures.add(executorService.submit(() -> IntArrays.quickSort(ids, runStart, runEnd, comparator)));
+    }
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while sorting the ids", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Caught exception while sorting the ids", e.getCause());
+    } finally {
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+    }
+
+    // Merge the sorted runs
+    int[] positions = new int[numRuns];
+    System.arraycopy(runStarts, 0, positions, 0, numRuns);
+    IntHeapPriorityQueue runQueue = new IntHeapPriorityQueue(numRuns,
+        (run1, run2) -> comparator.compare(ids[positions[run1]], ids[positions[run2]]));
+    for (int i = 0; i < numRuns; i++) {
+      runQueue.enqueue(i);
+    }
+    int[] mergedIds = new int[length];
+    for (int i = 0; i < length; i++) {
+      int run = runQueue.dequeueInt();
+      mergedIds[i] = ids[positions[run]++];
+      if (positions[run] < runStarts[run + 1]) {
+        runQueue.enqueue(run);
+      }
+    }
+    System.arraycopy(mergedIds, 0, ids, from, length);
+  }
+}
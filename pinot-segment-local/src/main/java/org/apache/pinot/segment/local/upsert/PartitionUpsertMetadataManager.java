@@ -19,8 +19,15 @@
 package org.apache.pinot.segment.local.upsert;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.metrics.ServerGauge;
@@ -69,6 +76,13 @@ public class PartitionUpsertMetadataManager {
   @VisibleForTesting
   final ConcurrentHashMap<PrimaryKey, RecordLocation> _primaryKeyToRecordLocationMap = new ConcurrentHashMap<>();
 
+  // Immutable segments tracked for persisting the upsert snapshot. Keyed by segment name so that a replaced segment is
+  // no longer tracked once the new segment is added.
+  private final ConcurrentHashMap<String, IndexSegment> _immutableSegmentMap = new ConcurrentHashMap<>();
+  // Whether immutable segments were added or removed since the last snapshot. Doc ids invalidated by the consuming
+  // segment are not tracked because they are re-applied when the consuming segment is re-consumed or committed.
+  private final AtomicBoolean _snapshotOutdated = new AtomicBoolean();
+
   // Reused for reading previous record during partial upsert
   private final GenericRow _reuse = new GenericRow();
   // Stores the result of updateRecord()
@@ -149,6 +163,8 @@ public class PartitionUpsertMetadataManager {
         }
       });
     }
+    _immutableSegmentMap.put(segmentName, segment);
+    _snapshotOutdated.set(true);
     // Update metrics
     _serverMetrics.setValueOfPartitionGauge(_tableNameWithType, _partitionId, ServerGauge.UPSERT_PRIMARY_KEYS_COUNT,
         _primaryKeyToRecordLocationMap.size());
@@ -220,6 +236,9 @@ public class PartitionUpsertMetadataManager {
   public void removeSegment(IndexSegment segment) {
     String segmentName = segment.getSegmentName();
     LOGGER.info("Removing upsert metadata for segment: {}", segmentName);
+    if (_immutableSegmentMap.remove(segmentName, segment)) {
+      _snapshotOutdated.set(true);
+    }
 
     assert segment.getValidDocIds() != null;
     if (!segment.getValidDocIds().getMutableRoaringBitmap().isEmpty()) {
@@ -236,6 +255,61 @@ public class PartitionUpsertMetadataManager {
         _primaryKeyToRecordLocationMap.size());
   }
 
+  /**
+   * Persists the upsert snapshot (valid doc ids and record locations) for all the immutable segments managed by this
+   * partition into the segment index directories, so that the upsert metadata can be restored without scanning the
+   * primary key and time columns when the server restarts.
+   * <p>The snapshot is taken without blocking the ingestion. A record invalidated after being collected is filtered out
+   * with the valid doc ids when loading the snapshot, and a valid doc id is never re-validated for an immutable
+   * segment, so the snapshot never reports a stale location as valid.
+   */
+  public void persistSnapshots(int numPrimaryKeyColumns) {
+    // Reset before collecting the record locations so that concurrent segment changes mark the snapshot outdated again
+    _snapshotOutdated.set(false);
+    if (_immutableSegmentMap.isEmpty()) {
+      return;
+    }
+    Map<IndexSegment, List<RecordInfo>> segmentToRecordInfosMap = new IdentityHashMap<>();
+    for (IndexSegment segment : _immutableSegmentMap.values()) {
+      segmentToRecordInfosMap.put(segment, new ArrayList<>());
+    }
+    _primaryKeyToRecordLocationMap.forEach((primaryKey, recordLocation) -> {
+      List<RecordInfo> recordInfos = segmentToRecordInfosMap.get(recordLocation.getSegment());
+      if (recordInfos != null) {
+        recordInfos.add(new RecordInfo(primaryKey, recordLocation.getDocId(), recordLocation.getTimestamp()));
+      }
+    });
+    for (Map.Entry<IndexSegment, List<RecordInfo>> entry : segmentToRecordInfosMap.entrySet()) {
+      IndexSegment segment = entry.getKey();
+      String segmentName = segment.getSegmentName();
+      File indexDir = segment.getSegmentMetadata().getIndexDir();
+      ThreadSafeMutableRoaringBitmap validDocIds = segment.getValidDocIds();
+      if (indexDir == null || validDocIds == null) {
+        continue;
+      }
+      List<RecordInfo> recordInfos = entry.getValue();
+      recordInfos.sort(Comparator.comparingInt(RecordInfo::getDocId));
+      try {
+        UpsertSnapshotUtils.persistSnapshot(indexDir, validDocIds.getMutableRoaringBitmap(), recordInfos,
+            numPrimaryKeyColumns);
+      } catch (Exception e) {
+        LOGGER.warn("Caught exception while persisting upsert snapshot for segment: {} of table: {}", segmentName,
+            _tableNameWithType, e);
+      }
+    }
+    LOGGER.info("Persisted upsert snapshots for {} segments of partition: {} of table: {}",
+        segmentToRecordInfosMap.size(), _partitionId, _tableNameWithType);
+  }
+
+  /**
+   * Persists the upsert snapshots only if immutable segments were added or removed since the last snapshot.
+   */
+  public void persistSnapshotsIfOutdated(int numPrimaryKeyColumns) {
+    if (_snapshotOutdated.get()) {
+      persistSnapshots(numPrimaryKeyColumns);
+    }
+  }
+
   public static final class RecordInfo {
     private final PrimaryKey _primaryKey;
     private final int _docId;
@@ -246,5 +320,17 @@ public class PartitionUpsertMetadataManager {
       _docId = docId;
       _timestamp = timestamp;
     }
+
+    public PrimaryKey getPrimaryKey() {
+      return _primaryKey;
+    }
+
+    public int getDocId() {
+      return _docId;
+    }
+
+    public long getTimestamp() {
+      return _timestamp;
+    }
   }
 }
@@ -46,4 +46,23 @@ public class TableUpsertMetadataManager {
     return _partitionMetadataManagerMap.computeIfAbsent(partitionId,
         k -> new PartitionUpsertMetadataManager(_tableNameWithType, k, _serverMetrics, _partialUpsertHandler));
   }
+
+  /**
+   * Persists the upsert snapshots for all the partitions of the table.
+   */
+  public void persistSnapshots(int numPrimaryKeyColumns) {
+    for (PartitionUpsertMetadataManager partitionUpsertMetadataManager : _partitionMetadataManagerMap.values()) {
+      partitionUpsertMetadataManager.persistSnapshots(numPrimaryKeyColumns);
+    }
+  }
+
+  /**
+   * Persists the upsert snapshots for the partitions of the table whose immutable segments changed since the last
+   * snapshot.
+   */
+  public void persistOutdatedSnapshots(int numPrimaryKeyColumns) {
+    for (PartitionUpsertMetadataManager partitionUpsertMetadataManager : _partitionMetadataManagerMap.values()) {
+      partitionUpsertMetadataManager.persistSnapshotsIfOutdated(numPrimaryKeyColumns);
+    }
+  }
 }
@@ -0,0 +1,203 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.upsert;
+
+import com.google.common.base.Preconditions;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * Utility methods to persist and load the upsert snapshot of an immutable segment.
+ * <p>The snapshot is stored in the segment index directory, and contains the valid doc ids of the segment and the
+ * primary key, doc id and timestamp of each record location pointing to the segment (sorted by doc id), so that the
+ * upsert metadata can be restored without reading the primary key and time columns of all the docs.
+ * <p>Snapshot format:
+ * <ul>
+ *   <li>Version (int)</li>
+ *   <li>Number of primary key columns (int)</li>
+ *   <li>Valid doc ids bitmap size (int), followed by the serialized bitmap</li>
+ *   <li>Number of records (int)</li>
+ *   <li>For each record: doc id (int), timestamp (long), then each primary key value as a type byte followed by the
+ *   value (string and bytes values are prefixed with their length in bytes)</li>
+ * </ul>
+ */
+public class UpsertSnapshotUtils {
+  private UpsertSnapshotUtils() {
+  }
+
+  public static final String SNAPSHOT_FILE_NAME = "upsert.snapshot";
+  // Version 2 stores string values as length-prefixed UTF-8 bytes to support values over 64KB
+  public static final int VERSION = 2;
+
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+  private static final byte INT_TYPE = 0;
+  private static final byte LONG_TYPE = 1;
+  private static final byte FLOAT_TYPE = 2;
+  private static final byte DOUBLE_TYPE = 3;
+  private static final byte STRING_TYPE = 4;
+  private static final byte BYTES_TYPE = 5;
+
+  /**
+   * Persists the upsert snapshot into the given index directory. The records should be sorted by doc id. The snapshot
+   * file is replaced atomically.
+   */
+  public static void persistSnapshot(File indexDir, MutableRoaringBitmap validDocIds,
+      List<PartitionUpsertMetadataManager.RecordInfo> recordInfos, int numPrimaryKeyColumns)
+      throws IOException {
+    File snapshotFile = new File(indexDir, SNAPSHOT_FILE_NAME);
+    File tempFile = new File(indexDir, SNAPSHOT_FILE_NAME + TEMP_FILE_SUFFIX);
+    try (DataOutputStream outputStream = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+      outputStream.writeInt(VERSION);
+      outputStream.writeInt(numPrimaryKeyColumns);
+      validDocIds.runOptimize();
+      outputStream.writeInt(validDocIds.serializedSizeInBytes());
+      validDocIds.serialize(outputStream);
+      outputStream.writeInt(recordInfos.size());
+      for (PartitionUpsertMetadataManager.RecordInfo recordInfo : recordInfos) {
+        outputStream.writeInt(recordInfo.getDocId());
+        outputStream.writeLong(recordInfo.getTimestamp());
+        Object[] values = recordInfo.getPrimaryKey().getValues();
+        Preconditions.checkState(values.length == numPrimaryKeyColumns,
+            "Expecting %s primary key values, got: %s", numPrimaryKeyColumns, values.length);
+        for (Object value : values) {
+          writeValue(outputStream, value);
+        }
+      }
+    }
+    Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Loads the records from the upsert snapshot in the given index directory, or returns {@code null} if the snapshot
+   * does not exist or does not match the primary key columns. Only the records whose doc id is valid in the snapshot
+   * are returned, sorted by doc id.
+   */
+  @Nullable
+  public static List<PartitionUpsertMetadataManager.RecordInfo> loadSnapshot(File indexDir, int numPrimaryKeyColumns)
+      throws IOException {
+    File snapshotFile = new File(indexDir, SNAPSHOT_FILE_NAME);
+    if (!snapshotFile.isFile()) {
+      return null;
+    }
+    try (DataInputStream inputStream = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+      int version = inputStream.readInt();
+      if (version != VERSION || inputStream.readInt() != numPrimaryKeyColumns) {
+        return null;
+      }
+      inputStream.readInt();
+      MutableRoaringBitmap validDocIds = new MutableRoaringBitmap();
+      validDocIds.deserialize(inputStream);
+      int numRecords = inputStream.readInt();
+      List<PartitionUpsertMetadataManager.RecordInfo> recordInfos = new ArrayList<>(numRecords);
+      for (int i = 0; i < numRecords; i++) {
+        int docId = inputStream.readInt();
+        long timestamp = inputStream.readLong();
+        Object[] values = new Object[numPrimaryKeyColumns];
+        for (int j = 0; j < numPrimaryKeyColumns; j++) {
+          values[j] = readValue(inputStream);
+        }
+        // Skip the records invalidated while taking the snapshot
+        if (validDocIds.contains(docId)) {
+          recordInfos.add(new PartitionUpsertMetadataManager.RecordInfo(new PrimaryKey(values), docId, timestamp));
+        }
+      }
+      return recordInfos;
+    }
+  }
+
+  private static void writeValue(DataOutputStream outputStream, Object value)
+      throws IOException {
+    if (value instanceof Integer) {
+      outputStream.writeByte(INT_TYPE);
+      outputStream.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      outputStream.writeByte(LONG_TYPE);
+      outputStream.writeLong((Long) value);
+    } else if (value instanceof Float) {
+      outputStream.writeByte(FLOAT_TYPE);
+      outputStream.writeFloat((Float) value);
+    } else if (value instanceof Double) {
+      outputStream.writeByte(DOUBLE_TYPE);
+      outputStream.writeDouble((Double) value);
+    } else if (value instanceof String) {
+      outputStream.writeByte(STRING_TYPE);
+      writeBytes(outputStream, ((String) value).getBytes(UTF_8));
+    } else if (value instanceof ByteArray) {
+      outputStream.writeByte(BYTES_TYPE);
+      writeBytes(outputStream, ((ByteArray) value).getBytes());
+    } else {
+      throw new IllegalStateException("Unsupported primary key value type: " + value.getClass());
+    }
+  }
+
+  private static void writeBytes(DataOutputStream outputStream, byte[] bytes)
+      throws IOException {
+    outputStream.writeInt(bytes.length);
+    outputStream.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream inputStream)
+      throws IOException {
+    byte[] bytes = new byte[inputStream.readInt()];
+    inputStream.readFully(bytes);
+    return bytes;
+  }
+
+  private static Object readValue(DataInputStream inputStream)
+      throws IOException {
+    byte type = inputStream.readByte();
+    switch (type) {
+      case INT_TYPE:
+        return inputStream.readInt();
+      case LONG_TYPE:
+        return inputStream.readLong();
+      case FLOAT_TYPE:
+        return inputStream.readFloat();
+      case DOUBLE_TYPE:
+        return inputStream.readDouble();
+      case STRING_TYPE:
+        return new String(readBytes(inputStream), UTF_8);
+      case BYTES_TYPE:
+        return new ByteArray(readBytes(inputStream));
+      default:
+        throw new IllegalStateException("Unsupported primary key value type: " + type);
+    }
+  }
+}
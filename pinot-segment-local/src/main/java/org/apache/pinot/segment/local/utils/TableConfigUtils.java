@@ -510,6 +510,11 @@ public final class TableConfigUtils {
         columnNameToConfigMap.put(columnName, "Json Index Config");
       }
     }
+    if (indexingConfig.getZoneMapColumns() != null) {
+      for (String columnName : indexingConfig.getZoneMapColumns()) {
+        columnNameToConfigMap.put(columnName, "Zone Map Config");
+      }
+    }
 
     List<StarTreeIndexConfig> starTreeIndexConfigList = indexingConfig.getStarTreeIndexConfigs();
     if (starTreeIndexConfigList != null) {
@@ -588,6 +593,13 @@ public final class TableConfigUtils {
                 "Json index can only be created for single value String column. Invalid for column: %s", jsonIndexCol);
       }
     }
+
+    if (indexingConfig.getZoneMapColumns() != null) {
+      for (String zoneMapCol : indexingConfig.getZoneMapColumns()) {
+        Preconditions.checkState(schema.getFieldSpecFor(zoneMapCol).isSingleValueField(),
+            "Zone map can only be created for single value column. Invalid for column: %s", zoneMapCol);
+      }
+    }
   }
 
   /**
@@ -0,0 +1,210 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.indexsegment.mutable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import org.apache.pinot.segment.local.io.writer.impl.DirectMemoryManager;
+import org.apache.pinot.segment.local.realtime.impl.RealtimeSegmentConfig;
+import org.apache.pinot.segment.local.realtime.impl.RealtimeSegmentStatsHistory;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.segment.spi.index.startree.StarTreeNode;
+import org.apache.pinot.segment.spi.index.startree.StarTreeV2;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+public class MutableSegmentImplStarTreeTest {
+  private static final String SEGMENT_NAME = "testSegment__0__0__155555";
+  private static final String DIMENSION_1 = "dim1";
+  private static final String DIMENSION_2 = "dim2";
+  private static final String METRIC = "metric";
+  private static final String COUNT_STAR = "count__*";
+  private static final String SUM_METRIC = "sum__" + METRIC;
+  private static final String MAX_METRIC = "max__" + METRIC;
+  private static final int NUM_ROWS = 10000;
+  private static final Random RANDOM = new Random();
+
+  private MutableSegmentImpl _mutableSegment;
+
+  @BeforeClass
+  public void setUp() {
+    // Refresh the snapshot whenever more rows are indexed
+    _mutableSegment = createMutableSegment(0L);
+  }
+
+  private static MutableSegmentImpl createMutableSegment(long starTreeRefreshIntervalMs) {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName("testSchema")
+        .addSingleValueDimension(DIMENSION_1, DataType.STRING).addSingleValueDimension(DIMENSION_2, DataType.INT)
+        .addMetric(METRIC, DataType.LONG).build();
+    RealtimeSegmentStatsHistory statsHistory = mock(RealtimeSegmentStatsHistory.class);
+    when(statsHistory.getEstimatedCardinality(anyString())).thenReturn(200);
+    when(statsHistory.getEstimatedAvgColSize(anyString())).thenReturn(32);
+    // Use a small max leaf records to split the tree on both dimensions
+    StarTreeIndexConfig starTreeIndexConfig =
+        new StarTreeIndexConfig(Arrays.asList(DIMENSION_1, DIMENSION_2), null, Arrays.asList(COUNT_STAR, SUM_METRIC,
+            MAX_METRIC), 5);
+    RealtimeSegmentConfig realtimeSegmentConfig =
+        new RealtimeSegmentConfig.Builder().setTableNameWithType("testTable_REALTIME").setSegmentName(SEGMENT_NAME)
+            .setStreamName("testStream").setSchema(schema).setCapacity(100000).setAvgNumMultiValues(2)
+            .setNoDictionaryColumns(Collections.singleton(METRIC)).setVarLengthDictionaryColumns(Collections.emptySet())
+            .setInvertedIndexColumns(Collections.emptySet())
+            .setStarTreeIndexConfigs(Collections.singletonList(starTreeIndexConfig))
+            .setStarTreeRefreshIntervalMs(starTreeRefreshIntervalMs)
+            .setRealtimeSegmentZKMetadata(new RealtimeSegmentZKMetadata())
+            .setMemoryManager(new DirectMemoryManager(SEGMENT_NAME)).setStatsHistory(statsHistory).build();
+    return new MutableSegmentImpl(realtimeSegmentConfig, null);
+  }
+
+  @Test
+  public void testStarTree()
+      throws Exception {
+    // No star-tree before indexing any row
+    assertNull(_mutableSegment.getStarTrees());
+
+    Map<String, Long> expectedSums = new HashMap<>();
+    long expectedSum = 0;
+    long expectedMax = Long.MIN_VALUE;
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      String dim1Value = "value" + RANDOM.nextInt(10);
+      long metricValue = RANDOM.nextInt(1000);
+      row.putValue(DIMENSION_1, dim1Value);
+      row.putValue(DIMENSION_2, RANDOM.nextInt(100));
+      row.putValue(METRIC, metricValue);
+      _mutableSegment.index(row, null);
+      expectedSums.merge(dim1Value, metricValue, Long::sum);
+      expectedSum += metricValue;
+      expectedMax = Math.max(expectedMax, metricValue);
+    }
+
+    List<StarTreeV2> starTrees = _mutableSegment.getStarTrees();
+    assertNotNull(starTrees);
+    assertEquals(starTrees.size(), 1);
+    StarTreeV2 starTree = starTrees.get(0);
+    // Snapshot should be re-used when no more row is indexed
+    assertSame(_mutableSegment.getStarTrees().get(0), starTree);
+    assertEquals(starTree.getMetadata().getDimensionsSplitOrder(), Arrays.asList(DIMENSION_1, DIMENSION_2));
+
+    // Check the aggregated document for the root node
+    StarTreeNode root = starTree.getStarTree().getRoot();
+    int aggregatedDocId = root.getAggregatedDocId();
+    assertEquals(getLong(starTree, COUNT_STAR, aggregatedDocId), NUM_ROWS);
+    assertEquals((long) getDouble(starTree, SUM_METRIC, aggregatedDocId), expectedSum);
+    assertEquals((long) getDouble(starTree, MAX_METRIC, aggregatedDocId), expectedMax);
+
+    // Check the aggregated documents for the first level nodes
+    assertEquals(root.getNumChildren(), expectedSums.size());
+    DataSource dim1DataSource = starTree.getDataSource(DIMENSION_1);
+    Dictionary dim1Dictionary = dim1DataSource.getDictionary();
+    ForwardIndexReader dim1ForwardIndex = dim1DataSource.getForwardIndex();
+    long totalCount = 0;
+    Iterator<? extends StarTreeNode> childrenIterator = root.getChildrenIterator();
+    while (childrenIterator.hasNext()) {
+      StarTreeNode child = childrenIterator.next();
+      assertNotNull(root.getChildForDimensionValue(child.getDimensionValue()));
+      assertFalse(child.isLeaf());
+      int childAggregatedDocId = child.getAggregatedDocId();
+      assertEquals(dim1ForwardIndex.getDictId(childAggregatedDocId, null), child.getDimensionValue());
+      String dim1Value = dim1Dictionary.getStringValue(child.getDimensionValue());
+      assertEquals((long) getDouble(starTree, SUM_METRIC, childAggregatedDocId), (long) expectedSums.get(dim1Value));
+      totalCount += getLong(starTree, COUNT_STAR, childAggregatedDocId);
+
+      // Sum of the records under the node should match the aggregated document
+      long sum = 0;
+      for (int docId = child.getStartDocId(); docId < child.getEndDocId(); docId++) {
+        assertEquals(dim1ForwardIndex.getDictId(docId, null), child.getDimensionValue());
+        sum += (long) getDouble(starTree, SUM_METRIC, docId);
+      }
+      assertEquals(sum, (long) expectedSums.get(dim1Value));
+    }
+    assertEquals(totalCount, NUM_ROWS);
+
+    // Snapshot should be refreshed after indexing more rows
+    GenericRow row = new GenericRow();
+    row.putValue(DIMENSION_1, "newValue");
+    row.putValue(DIMENSION_2, 0);
+    row.putValue(METRIC, 1L);
+    _mutableSegment.index(row, null);
+    StarTreeV2 newStarTree = _mutableSegment.getStarTrees().get(0);
+    assertEquals(getLong(newStarTree, COUNT_STAR, newStarTree.getStarTree().getRoot().getAggregatedDocId()),
+        NUM_ROWS + 1);
+    assertEquals(newStarTree.getStarTree().getRoot().getNumChildren(), expectedSums.size() + 1);
+  }
+
+  @Test
+  public void testRefreshInterval()
+      throws Exception {
+    MutableSegmentImpl mutableSegment = createMutableSegment(Long.MAX_VALUE);
+    try {
+      long memoryUsedBytes = mutableSegment.getTotalMemoryUsedBytes();
+      GenericRow row = new GenericRow();
+      row.putValue(DIMENSION_1, "value");
+      row.putValue(DIMENSION_2, 0);
+      row.putValue(METRIC, 1L);
+      mutableSegment.index(row, null);
+      // The star-tree record should be counted in the memory usage
+      assertTrue(mutableSegment.getTotalMemoryUsedBytes() > memoryUsedBytes);
+
+      // The first snapshot should be generated right away, then re-used until the refresh interval has passed
+      StarTreeV2 starTree = mutableSegment.getStarTrees().get(0);
+      assertEquals(getLong(starTree, COUNT_STAR, starTree.getStarTree().getRoot().getAggregatedDocId()), 1);
+      mutableSegment.index(row, null);
+      assertSame(mutableSegment.getStarTrees().get(0), starTree);
+    } finally {
+      mutableSegment.destroy();
+    }
+  }
+
+  private static long getLong(StarTreeV2 starTree, String column, int docId) {
+    return starTree.getDataSource(column).getForwardIndex().getLong(docId, null);
+  }
+
+  private static double getDouble(StarTreeV2 starTree, String column, int docId) {
+    return starTree.getDataSource(column).getForwardIndex().getDouble(docId, null);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _mutableSegment.destroy();
+  }
+}
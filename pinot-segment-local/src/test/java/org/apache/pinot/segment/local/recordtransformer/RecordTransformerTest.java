@@ -29,6 +29,7 @@ import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.IndexedGenericRow;
 import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -280,6 +281,44 @@ public class RecordTransformerTest {
     }
   }
 
+  @Test
+  public void testDefaultTransformerWithIndexedRecord() {
+    RecordTransformer transformer = CompositeTransformer.getDefaultTransformer(TABLE_CONFIG, SCHEMA);
+    IndexedGenericRow.Layout layout = IndexedGenericRow.Layout.of(SCHEMA);
+    GenericRow expectedRecord = getRecord();
+    IndexedGenericRow record = new IndexedGenericRow(layout);
+    record.init(getRecord());
+    // Field not in the schema should be kept in the record
+    record.putValue("extra", "extra");
+    for (int i = 0; i < NUM_ROUNDS; i++) {
+      expectedRecord = transformer.transform(expectedRecord);
+      record = (IndexedGenericRow) transformer.transform(record);
+      assertNotNull(record);
+      assertEquals(record.getValue("extra"), "extra");
+      record.removeValue("extra");
+      assertEquals(record, expectedRecord);
+      assertEquals(record.getValue("svInt"), 123);
+      assertEquals(record.getInt(layout.getSlot("svInt")), 123);
+      assertEquals(record.getLong(layout.getSlot("svLong")), 123L);
+      assertEquals(record.getFloat(layout.getSlot("svFloat")), 123f);
+      assertEquals(record.getDouble(layout.getSlot("svDouble")), 123d);
+      assertTrue(record.getNullValueFields().isEmpty());
+      record.putValue("extra", "extra");
+    }
+
+    // Test empty record
+    expectedRecord = new GenericRow();
+    record = new IndexedGenericRow(layout);
+    for (int i = 0; i < NUM_ROUNDS; i++) {
+      expectedRecord = transformer.transform(expectedRecord);
+      record = (IndexedGenericRow) transformer.transform(record);
+      assertNotNull(record);
+      assertEquals(record, expectedRecord);
+      assertTrue(record.isNullValue(layout.getSlot("svInt")));
+      validateNullValueFields(record);
+    }
+  }
+
   @Test
   public void testPassThroughTransformer() {
     RecordTransformer transformer = CompositeTransformer.getPassThroughTransformer();
@@ -0,0 +1,264 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator.impl;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.recordtransformer.ColumnarBatchTransformer;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.local.segment.readers.PinotSegmentRecordReader;
+import org.apache.pinot.segment.spi.ColumnMetadata;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.RecordReader;
+import org.apache.pinot.spi.data.readers.RecordReaderConfig;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests that building a segment from columnar batches gives the same segment as building it from rows.
+ */
+public class SegmentColumnarBatchCreationTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "SegmentColumnarBatchCreationTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final int NUM_ROWS = 1000;
+  private static final int BATCH_SIZE = 128;
+  private static final long RANDOM_SEED = System.currentTimeMillis();
+  private static final Random RANDOM = new Random(RANDOM_SEED);
+  private static final String ERROR_MESSAGE = "Random seed: " + RANDOM_SEED;
+
+  private static final String INT_COLUMN = "intColumn";
+  private static final String LONG_COLUMN = "longColumn";
+  private static final String FLOAT_RAW_COLUMN = "floatRawColumn";
+  private static final String DOUBLE_COLUMN = "doubleColumn";
+  private static final String STRING_COLUMN = "stringColumn";
+  private static final String STRING_RAW_COLUMN = "stringRawColumn";
+  private static final String BYTES_COLUMN = "bytesColumn";
+
+  // Value array class read from the columnar record reader for each column. The long column is read as int[] to cover
+  // the data type conversion in the batch transformer.
+  private static final Map<String, Class<?>> VALUE_ARRAY_CLASSES = new LinkedHashMap<>();
+
+  static {
+    VALUE_ARRAY_CLASSES.put(INT_COLUMN, int[].class);
+    VALUE_ARRAY_CLASSES.put(LONG_COLUMN, int[].class);
+    VALUE_ARRAY_CLASSES.put(FLOAT_RAW_COLUMN, float[].class);
+    VALUE_ARRAY_CLASSES.put(DOUBLE_COLUMN, double[].class);
+    VALUE_ARRAY_CLASSES.put(STRING_COLUMN, String[].class);
+    VALUE_ARRAY_CLASSES.put(STRING_RAW_COLUMN, String[].class);
+    VALUE_ARRAY_CLASSES.put(BYTES_COLUMN, byte[][].class);
+  }
+
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+      .addSingleValueDimension(INT_COLUMN, DataType.INT).addMetric(LONG_COLUMN, DataType.LONG)
+      .addSingleValueDimension(FLOAT_RAW_COLUMN, DataType.FLOAT).addMetric(DOUBLE_COLUMN, DataType.DOUBLE)
+      .addSingleValueDimension(STRING_COLUMN, DataType.STRING)
+      .addSingleValueDimension(STRING_RAW_COLUMN, DataType.STRING)
+      .addSingleValueDimension(BYTES_COLUMN, DataType.BYTES).build();
+  private static final TableConfig TABLE_CONFIG =
+      new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+          .setNoDictionaryColumns(Arrays.asList(FLOAT_RAW_COLUMN, STRING_RAW_COLUMN))
+          .setInvertedIndexColumns(Arrays.asList(INT_COLUMN, STRING_COLUMN)).setNullHandlingEnabled(true).build();
+
+  private final List<GenericRow> _rows = new ArrayList<>(NUM_ROWS);
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+    TABLE_CONFIG.getIndexingConfig().setCreateInvertedIndexDuringSegmentGeneration(true);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      // Sorted column
+      row.putValue(INT_COLUMN, i / 10);
+      row.putValue(LONG_COLUMN, i % 13 == 0 ? null : RANDOM.nextInt());
+      row.putValue(FLOAT_RAW_COLUMN, RANDOM.nextFloat());
+      row.putValue(DOUBLE_COLUMN, (double) RANDOM.nextInt(100));
+      row.putValue(STRING_COLUMN, i % 7 == 0 ? null : "value_" + RANDOM.nextInt(50));
+      row.putValue(STRING_RAW_COLUMN, "raw_" + RANDOM.nextInt());
+      row.putValue(BYTES_COLUMN, new byte[]{(byte) RANDOM.nextInt(10), (byte) RANDOM.nextInt(10)});
+      _rows.add(row);
+    }
+  }
+
+  @Test
+  public void testRowAndBatchPathsBuildSameSegment()
+      throws Exception {
+    ColumnarGenericRowRecordReader columnarRecordReader = new ColumnarGenericRowRecordReader(_rows);
+    assertTrue(ColumnarBatchTransformer.isSupported(columnarRecordReader, TABLE_CONFIG, SCHEMA));
+
+    File rowSegmentDir = buildSegment(new GenericRowRecordReader(_rows), "rowSegment", 1);
+    for (int numThreads : new int[]{1, 2}) {
+      columnarRecordReader.rewind();
+      File batchSegmentDir = buildSegment(columnarRecordReader, "batchSegment_" + numThreads, numThreads);
+      compareSegments(rowSegmentDir, batchSegmentDir);
+    }
+  }
+
+  private File buildSegment(RecordReader recordReader, String segmentName, int numColumnIndexCreationThreads)
+      throws Exception {
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(TABLE_CONFIG, SCHEMA);
+    config.setOutDir(TEMP_DIR.getPath());
+    config.setSegmentName(segmentName);
+    config.setNumColumnIndexCreationThreads(numColumnIndexCreationThreads);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, recordReader);
+    driver.build();
+    return new File(TEMP_DIR, segmentName);
+  }
+
+  private void compareSegments(File expectedSegmentDir, File actualSegmentDir)
+      throws Exception {
+    SegmentMetadataImpl expectedMetadata = new SegmentMetadataImpl(expectedSegmentDir);
+    SegmentMetadataImpl actualMetadata = new SegmentMetadataImpl(actualSegmentDir);
+    assertEquals(actualMetadata.getTotalDocs(), NUM_ROWS, ERROR_MESSAGE);
+    for (String column : VALUE_ARRAY_CLASSES.keySet()) {
+      ColumnMetadata expectedColumnMetadata = expectedMetadata.getColumnMetadataFor(column);
+      ColumnMetadata actualColumnMetadata = actualMetadata.getColumnMetadataFor(column);
+      assertEquals(actualColumnMetadata.getCardinality(), expectedColumnMetadata.getCardinality(), ERROR_MESSAGE);
+      assertEquals(actualColumnMetadata.isSorted(), expectedColumnMetadata.isSorted(), ERROR_MESSAGE);
+      assertEquals(actualColumnMetadata.hasDictionary(), expectedColumnMetadata.hasDictionary(), ERROR_MESSAGE);
+      assertEquals(actualColumnMetadata.getMinValue(), expectedColumnMetadata.getMinValue(), ERROR_MESSAGE);
+      assertEquals(actualColumnMetadata.getMaxValue(), expectedColumnMetadata.getMaxValue(), ERROR_MESSAGE);
+    }
+    assertTrue(actualMetadata.getColumnMetadataFor(INT_COLUMN).isSorted(), ERROR_MESSAGE);
+
+    try (PinotSegmentRecordReader expectedRecordReader = new PinotSegmentRecordReader(expectedSegmentDir);
+        PinotSegmentRecordReader actualRecordReader = new PinotSegmentRecordReader(actualSegmentDir)) {
+      GenericRow expectedRow = new GenericRow();
+      GenericRow actualRow = new GenericRow();
+      for (int docId = 0; docId < NUM_ROWS; docId++) {
+        expectedRow.clear();
+        actualRow.clear();
+        expectedRecordReader.getRecord(expectedRow, docId);
+        actualRecordReader.getRecord(actualRow, docId);
+        assertEquals(actualRow.getNullValueFields(), expectedRow.getNullValueFields(), ERROR_MESSAGE);
+        for (String column : VALUE_ARRAY_CLASSES.keySet()) {
+          Object expectedValue = expectedRow.getValue(column);
+          Object actualValue = actualRow.getValue(column);
+          if (expectedValue instanceof byte[]) {
+            assertTrue(Arrays.equals((byte[]) actualValue, (byte[]) expectedValue), ERROR_MESSAGE);
+          } else {
+            assertEquals(actualValue, expectedValue, ERROR_MESSAGE);
+          }
+        }
+      }
+    }
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+
+  /**
+   * Record reader for a list of {@link GenericRow}s that also reads the rows in columnar batches.
+   */
+  private static class ColumnarGenericRowRecordReader implements ColumnarRecordReader {
+    private final List<GenericRow> _rows;
+    private int _nextRowId = 0;
+
+    ColumnarGenericRowRecordReader(List<GenericRow> rows) {
+      _rows = rows;
+    }
+
+    @Override
+    public void init(File dataFile, @Nullable Set<String> fieldsToRead, @Nullable RecordReaderConfig config) {
+    }
+
+    @Override
+    public boolean hasNext() {
+      return _nextRowId < _rows.size();
+    }
+
+    @Override
+    public GenericRow next() {
+      return next(new GenericRow());
+    }
+
+    @Override
+    public GenericRow next(GenericRow reuse) {
+      reuse.init(_rows.get(_nextRowId++));
+      return reuse;
+    }
+
+    @Override
+    public boolean isColumnarBatchSupported() {
+      return true;
+    }
+
+    @Override
+    public ColumnarBatch nextBatch(ColumnarBatch reuse) {
+      reuse.clear();
+      int numRows = Math.min(BATCH_SIZE, _rows.size() - _nextRowId);
+      for (Map.Entry<String, Class<?>> entry : VALUE_ARRAY_CLASSES.entrySet()) {
+        String column = entry.getKey();
+        Object values = reuse.getOrCreateValues(column, entry.getValue(), numRows);
+        boolean[] nulls = null;
+        for (int i = 0; i < numRows; i++) {
+          Object value = _rows.get(_nextRowId + i).getValue(column);
+          if (value != null) {
+            Array.set(values, i, value);
+          } else {
+            if (nulls == null) {
+              nulls = new boolean[numRows];
+            }
+            nulls[i] = true;
+          }
+        }
+        reuse.putValues(column, values, nulls);
+      }
+      reuse.setNumRows(numRows);
+      _nextRowId += numRows;
+      return reuse;
+    }
+
+    @Override
+    public void rewind() {
+      _nextRowId = 0;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator.impl.inv.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.pinot.spi.utils.JsonUtils;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class StreamingJsonFlattenerTest {
+
+  @Test
+  public void testFlatten()
+      throws IOException {
+    //@formatter:off
+    String[] jsonStrings = new String[]{
+        "null",
+        "123",
+        "-1.50",
+        "12345678901234",
+        "123456789012345678901234567890",
+        "true",
+        "\"abc\"",
+        "[]",
+        "[1,2,3]",
+        "[1,[2,3],[4,[5,6]]]",
+        "[null,{},[],{\"a\":null}]",
+        "{}",
+        "{\"key\":null}",
+        "{\"name\":\"adam\",\"age\":20,\"score\":1e2}",
+        "{\"name\":\"adam\",\"addresses\":[{\"country\":\"us\",\"street\":\"main st\",\"number\":1},{\"country\":\"ca\",\"street\":\"second st\",\"number\":2}]}",
+        "{\"name\":\"charles\",\"addresses\":[{\"street\":\"a\",\"types\":[\"home\",\"office\"]},{\"street\":\"b\"}],\"skills\":[\"english\",\"programming\"]}",
+        "{\"a\":[1,2],\"b\":{\"c\":[3,4],\"d\":[{\"e\":5},{\"e\":6,\"f\":[7,8]}]},\"g\":[]}"};
+    //@formatter:on
+
+    StreamingJsonFlattener jsonFlattener = new StreamingJsonFlattener();
+    for (String jsonString : jsonStrings) {
+      List<Map<String, String>> expectedRecords = JsonUtils.flatten(JsonUtils.stringToJsonNode(jsonString));
+      int numRecords = jsonFlattener.flatten(jsonString);
+      List<Map<String, String>> actualRecords = new ArrayList<>(numRecords);
+      for (int i = 0; i < numRecords; i++) {
+        actualRecords.add(new TreeMap<>());
+      }
+      jsonFlattener.forEachPair((recordIndex, key, value) -> actualRecords.get(recordIndex).put(key, value));
+      assertEquals(actualRecords, expectedRecords, "Flattened records mismatch for json: " + jsonString);
+    }
+  }
+}
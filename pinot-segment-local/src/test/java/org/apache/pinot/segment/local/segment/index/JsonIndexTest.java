@@ -21,6 +21,8 @@ package org.apache.pinot.segment.local.segment.index;
 import java.io.File;
 import java.io.IOException;
 import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.io.readerwriter.PinotDataBufferMemoryManager;
+import org.apache.pinot.segment.local.io.writer.impl.DirectMemoryManager;
 import org.apache.pinot.segment.local.realtime.impl.json.MutableJsonIndex;
 import org.apache.pinot.segment.local.segment.creator.impl.inv.json.OffHeapJsonIndexCreator;
 import org.apache.pinot.segment.local.segment.creator.impl.inv.json.OnHeapJsonIndexCreator;
@@ -89,11 +91,15 @@ public class JsonIndexTest {
         PinotDataBuffer offHeapDataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(offHeapIndexFile);
         JsonIndexReader onHeapIndexReader = new ImmutableJsonIndexReader(onHeapDataBuffer, records.length);
         JsonIndexReader offHeapIndexReader = new ImmutableJsonIndexReader(offHeapDataBuffer, records.length);
-        MutableJsonIndex mutableJsonIndex = new MutableJsonIndex()) {
+        MutableJsonIndex mutableJsonIndex = new MutableJsonIndex();
+        PinotDataBufferMemoryManager memoryManager = new DirectMemoryManager(JsonIndexTest.class.getName());
+        MutableJsonIndex offHeapMutableJsonIndex = new MutableJsonIndex(memoryManager, "offHeapMutable", 100, 32)) {
       for (String record : records) {
         mutableJsonIndex.add(record);
+        offHeapMutableJsonIndex.add(record);
       }
-      JsonIndexReader[] indexReaders = new JsonIndexReader[]{onHeapIndexReader, offHeapIndexReader, mutableJsonIndex};
+      JsonIndexReader[] indexReaders =
+          new JsonIndexReader[]{onHeapIndexReader, offHeapIndexReader, mutableJsonIndex, offHeapMutableJsonIndex};
       for (JsonIndexReader indexReader : indexReaders) {
         MutableRoaringBitmap matchingDocIds = getMatchingDocIds(indexReader, "name='bob'");
         Assert.assertEquals(matchingDocIds.toArray(), new int[]{1});
@@ -173,11 +179,15 @@ public class JsonIndexTest {
         PinotDataBuffer offHeapDataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(offHeapIndexFile);
         JsonIndexReader onHeapIndexReader = new ImmutableJsonIndexReader(onHeapDataBuffer, records.length);
         JsonIndexReader offHeapIndexReader = new ImmutableJsonIndexReader(offHeapDataBuffer, records.length);
-        MutableJsonIndex mutableJsonIndex = new MutableJsonIndex()) {
+        MutableJsonIndex mutableJsonIndex = new MutableJsonIndex();
+        PinotDataBufferMemoryManager memoryManager = new DirectMemoryManager(JsonIndexTest.class.getName());
+        MutableJsonIndex offHeapMutableJsonIndex = new MutableJsonIndex(memoryManager, "offHeapMutable", 100, 32)) {
       for (String record : records) {
         mutableJsonIndex.add(record);
+        offHeapMutableJsonIndex.add(record);
       }
-      JsonIndexReader[] indexReaders = new JsonIndexReader[]{onHeapIndexReader, offHeapIndexReader, mutableJsonIndex};
+      JsonIndexReader[] indexReaders =
+          new JsonIndexReader[]{onHeapIndexReader, offHeapIndexReader, mutableJsonIndex, offHeapMutableJsonIndex};
       for (JsonIndexReader indexReader : indexReaders) {
         MutableRoaringBitmap matchingDocIds = getMatchingDocIds(indexReader, "name = 'adam-123'");
         Assert.assertEquals(matchingDocIds.toArray(), new int[]{123});
@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.creator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.local.segment.readers.PinotSegmentRecordReader;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests that building the columns in parallel generates the same segment as building them on a single thread.
+ */
+public class SegmentGenerationWithColumnParallelismTest {
+  private static final File TEMP_DIR =
+      new File(FileUtils.getTempDirectory(), "SegmentGenerationWithColumnParallelismTest");
+  private static final String SEGMENT_NAME = "testSegment";
+  // Larger than the batch size of the column parallel index creation
+  private static final int NUM_ROWS = 25_000;
+
+  private static final String INT_COLUMN = "intColumn";
+  private static final String STRING_COLUMN = "stringColumn";
+  private static final String RAW_STRING_COLUMN = "rawStringColumn";
+  private static final String MV_INT_COLUMN = "mvIntColumn";
+  private static final String LONG_METRIC = "longMetric";
+
+  @Test
+  public void testColumnParallelism()
+      throws Exception {
+    Schema schema = new Schema.SchemaBuilder().addSingleValueDimension(INT_COLUMN, DataType.INT)
+        .addSingleValueDimension(STRING_COLUMN, DataType.STRING)
+        .addSingleValueDimension(RAW_STRING_COLUMN, DataType.STRING)
+        .addMultiValueDimension(MV_INT_COLUMN, DataType.INT).addMetric(LONG_METRIC, DataType.LONG).build();
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName("testTable")
+        .setInvertedIndexColumns(Collections.singletonList(STRING_COLUMN))
+        .setNoDictionaryColumns(Collections.singletonList(RAW_STRING_COLUMN)).build();
+
+    Random random = new Random();
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(INT_COLUMN, random.nextInt(1000));
+      row.putValue(STRING_COLUMN, "value-" + random.nextInt(100));
+      row.putValue(RAW_STRING_COLUMN, "raw-" + i);
+      row.putValue(MV_INT_COLUMN, new Object[]{random.nextInt(10), random.nextInt(10)});
+      row.putValue(LONG_METRIC, random.nextLong());
+      rows.add(row);
+    }
+
+    File serialSegmentDir = buildSegment(tableConfig, schema, rows, "serial", 1);
+    File parallelSegmentDir = buildSegment(tableConfig, schema, rows, "parallel", 4);
+    assertEquals(new SegmentMetadataImpl(parallelSegmentDir).getTotalDocs(), NUM_ROWS);
+
+    try (PinotSegmentRecordReader serialReader = new PinotSegmentRecordReader(serialSegmentDir);
+        PinotSegmentRecordReader parallelReader = new PinotSegmentRecordReader(parallelSegmentDir)) {
+      while (serialReader.hasNext()) {
+        assertTrue(parallelReader.hasNext());
+        assertEquals(parallelReader.next(), serialReader.next());
+      }
+      assertFalse(parallelReader.hasNext());
+    }
+  }
+
+  private File buildSegment(TableConfig tableConfig, Schema schema, List<GenericRow> rows, String outputDirName,
+      int numColumnIndexCreationThreads)
+      throws Exception {
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(tableConfig, schema);
+    config.setOutDir(new File(TEMP_DIR, outputDirName).getAbsolutePath());
+    config.setSegmentName(SEGMENT_NAME);
+    config.setNumColumnIndexCreationThreads(numColumnIndexCreationThreads);
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows));
+    driver.build();
+    return driver.getOutputDirectory();
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.creator;
+
+import java.io.File;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.realtime.impl.zonemap.MutableZoneMap;
+import org.apache.pinot.segment.local.segment.creator.impl.zonemap.ZoneMapIndexCreator;
+import org.apache.pinot.segment.local.segment.index.readers.zonemap.ImmutableZoneMapReader;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.apache.pinot.util.TestUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class ZoneMapCreatorTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "ZoneMapCreatorTest");
+  private static final int NUM_DOCS = 1000;
+  private static final int NUM_DOCS_PER_BLOCK = 64;
+  private static final Random RANDOM = new Random();
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    TestUtils.ensureDirectoriesExistAndEmpty(TEMP_DIR);
+  }
+
+  @Test
+  public void testZoneMap()
+      throws Exception {
+    for (DataType storedType : new DataType[]{
+        DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE, DataType.STRING, DataType.BYTES
+    }) {
+      testZoneMap(storedType);
+    }
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private void testZoneMap(DataType storedType)
+      throws Exception {
+    String columnName = "testColumn_" + storedType;
+    Object[] values = new Object[NUM_DOCS];
+    boolean[] isNull = new boolean[NUM_DOCS];
+    MutableZoneMap mutableZoneMap = new MutableZoneMap(NUM_DOCS, NUM_DOCS_PER_BLOCK);
+    try (ZoneMapIndexCreator zoneMapCreator = new ZoneMapIndexCreator(TEMP_DIR, columnName, storedType, NUM_DOCS,
+        NUM_DOCS_PER_BLOCK)) {
+      for (int i = 0; i < NUM_DOCS; i++) {
+        values[i] = getRandomValue(storedType);
+        isNull[i] = RANDOM.nextInt(10) == 0;
+        zoneMapCreator.add(values[i], isNull[i]);
+        mutableZoneMap.add(i, values[i], isNull[i]);
+      }
+      zoneMapCreator.seal();
+    }
+
+    // Compute the expected min/max value and null count for each block
+    int numBlocks = (NUM_DOCS + NUM_DOCS_PER_BLOCK - 1) / NUM_DOCS_PER_BLOCK;
+    Comparable[] expectedMinValues = new Comparable[numBlocks];
+    Comparable[] expectedMaxValues = new Comparable[numBlocks];
+    int[] expectedNullCounts = new int[numBlocks];
+    for (int i = 0; i < NUM_DOCS; i++) {
+      int blockId = i / NUM_DOCS_PER_BLOCK;
+      Comparable value = values[i] instanceof byte[] ? new ByteArray((byte[]) values[i]) : (Comparable) values[i];
+      if (expectedMinValues[blockId] == null || value.compareTo(expectedMinValues[blockId]) < 0) {
+        expectedMinValues[blockId] = value;
+      }
+      if (expectedMaxValues[blockId] == null || value.compareTo(expectedMaxValues[blockId]) > 0) {
+        expectedMaxValues[blockId] = value;
+      }
+      if (isNull[i]) {
+        expectedNullCounts[blockId]++;
+      }
+    }
+
+    File zoneMapFile = new File(TEMP_DIR, columnName + V1Constants.Indexes.ZONE_MAP_FILE_EXTENSION);
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(zoneMapFile);
+        ZoneMapReader immutableZoneMap = new ImmutableZoneMapReader(dataBuffer, storedType)) {
+      for (ZoneMapReader zoneMap : new ZoneMapReader[]{immutableZoneMap, mutableZoneMap}) {
+        assertEquals(zoneMap.getNumDocsPerBlock(), NUM_DOCS_PER_BLOCK);
+        assertEquals(zoneMap.getNumBlocks(), numBlocks);
+        for (int i = 0; i < numBlocks; i++) {
+          assertEquals(zoneMap.getMinValue(i), expectedMinValues[i]);
+          assertEquals(zoneMap.getMaxValue(i), expectedMaxValues[i]);
+          assertEquals(zoneMap.getNullCount(i), expectedNullCounts[i]);
+        }
+      }
+    }
+  }
+
+  private static Object getRandomValue(DataType storedType) {
+    switch (storedType) {
+      case INT:
+        return RANDOM.nextInt();
+      case LONG:
+        return RANDOM.nextLong();
+      case FLOAT:
+        return RANDOM.nextFloat();
+      case DOUBLE:
+        return RANDOM.nextDouble();
+      case STRING:
+        return "value-" + RANDOM.nextInt(NUM_DOCS);
+      case BYTES:
+        byte[] bytes = new byte[RANDOM.nextInt(10)];
+        RANDOM.nextBytes(bytes);
+        return bytes;
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+}
@@ -42,6 +42,7 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 
 public class ImmutableDictionaryTest {
@@ -329,6 +330,71 @@ public class ImmutableDictionaryTest {
     }
   }
 
+  @Test
+  public void testStringDictionaryUtf8BytesLookup()
+      throws Exception {
+    // Mix ASCII values with values containing characters above the surrogates and supplementary characters, where UTF-8
+    // byte order differs from String order
+    String[] characters = new String[]{"a", "b", "z", "\u00e9", "\u4e2d", "\uffe0", "\ud83d\ude00"};
+    Set<String> stringSet = new HashSet<>();
+    while (stringSet.size() < NUM_VALUES) {
+      StringBuilder stringBuilder = new StringBuilder();
+      int length = RANDOM.nextInt(10);
+      for (int i = 0; i < length; i++) {
+        // Mostly ASCII characters
+        stringBuilder.append(RANDOM.nextInt(4) == 0 ? characters[RANDOM.nextInt(characters.length)]
+            : characters[RANDOM.nextInt(3)]);
+      }
+      stringSet.add(stringBuilder.toString());
+    }
+    String[] stringValues = stringSet.toArray(new String[0]);
+    Arrays.sort(stringValues);
+
+    for (boolean useVarLengthDictionary : new boolean[]{false, true}) {
+      String column = "utf8StringColumn" + (useVarLengthDictionary ? "VarLength" : "");
+      int numBytesPerValue;
+      try (SegmentDictionaryCreator dictionaryCreator = new SegmentDictionaryCreator(stringValues,
+          new DimensionFieldSpec(column, FieldSpec.DataType.STRING, true), TEMP_DIR, useVarLengthDictionary)) {
+        dictionaryCreator.build();
+        numBytesPerValue = dictionaryCreator.getNumBytesPerEntry();
+      }
+      for (boolean enableHashIndex : new boolean[]{false, true}) {
+        long hashIndexMemoryUsage = StringDictionary.getHashIndexMemoryUsage();
+        try (StringDictionary stringDictionary = new StringDictionary(
+            PinotDataBuffer.mapReadOnlyBigEndianFile(new File(TEMP_DIR, column + V1Constants.Dict.FILE_EXTENSION)),
+            NUM_VALUES, numBytesPerValue, (byte) 0, enableHashIndex)) {
+          testStringDictionaryUtf8BytesLookup(stringDictionary, stringValues, characters);
+          // Hash index should only be built (and accounted) when enabled
+          if (enableHashIndex) {
+            assertTrue(StringDictionary.getHashIndexMemoryUsage() > hashIndexMemoryUsage);
+          } else {
+            assertEquals(StringDictionary.getHashIndexMemoryUsage(), hashIndexMemoryUsage);
+          }
+        }
+        assertEquals(StringDictionary.getHashIndexMemoryUsage(), hashIndexMemoryUsage);
+      }
+    }
+  }
+
+  private void testStringDictionaryUtf8BytesLookup(StringDictionary stringDictionary, String[] stringValues,
+      String[] characters) {
+    // Look up more than NUM_VALUES times to trigger the hash index
+    for (int i = 0; i < 3 * NUM_VALUES; i++) {
+      int dictId = i % NUM_VALUES;
+      assertEquals(stringDictionary.indexOf(stringValues[dictId]), dictId);
+
+      StringBuilder stringBuilder = new StringBuilder();
+      int length = RANDOM.nextInt(12);
+      for (int j = 0; j < length; j++) {
+        stringBuilder.append(characters[RANDOM.nextInt(characters.length)]);
+      }
+      String randomString = stringBuilder.toString();
+      int expectedIndex = Arrays.binarySearch(stringValues, randomString);
+      assertEquals(stringDictionary.insertionIndexOf(randomString), expectedIndex);
+      assertEquals(stringDictionary.indexOf(randomString), expectedIndex >= 0 ? expectedIndex : -1);
+    }
+  }
+
   @Test
   public void testBytesDictionary()
       throws Exception {
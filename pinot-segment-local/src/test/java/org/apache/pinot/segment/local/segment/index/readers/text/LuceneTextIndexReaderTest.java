@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.readers.text;
+
+import java.io.File;
+import java.util.Collections;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.creator.impl.text.LuceneTextIndexCreator;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.spi.config.table.FieldConfig;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+
+public class LuceneTextIndexReaderTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "LuceneTextIndexReaderTest");
+  private static final String TEXT_COLUMN = "textColumn";
+  private static final String[] DOCUMENTS = new String[]{
+      "distributed systems and databases", "realtime analytics with apache pinot", "databases for realtime analytics",
+      "machine learning pipelines", "apache kafka streams"
+  };
+
+  @BeforeMethod
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+    FileUtils.forceMkdir(INDEX_DIR);
+    try (LuceneTextIndexCreator textIndexCreator = new LuceneTextIndexCreator(TEXT_COLUMN, INDEX_DIR, true)) {
+      for (String document : DOCUMENTS) {
+        textIndexCreator.add(document);
+      }
+      textIndexCreator.seal();
+    }
+  }
+
+  @Test
+  public void testDocIdMappingSkipped()
+      throws Exception {
+    // Lucene docIds are the same as Pinot docIds for a single merged Lucene segment, so no mapping file is needed
+    try (LuceneTextIndexReader textIndexReader = new LuceneTextIndexReader(TEXT_COLUMN, INDEX_DIR, DOCUMENTS.length,
+        null)) {
+      assertFalse(
+          new File(INDEX_DIR, TEXT_COLUMN + V1Constants.Indexes.LUCENE_TEXT_INDEX_DOCID_MAPPING_FILE_EXTENSION)
+              .exists());
+      assertEquals(textIndexReader.getDocIds("realtime").toArray(), new int[]{1, 2});
+      assertEquals(textIndexReader.getDocIds("apache AND analytics").toArray(), new int[]{1});
+      assertEquals(textIndexReader.getDocIds("databases OR kafka").toArray(), new int[]{0, 2, 4});
+      // Parsed query should be served from the cache
+      assertEquals(textIndexReader.getDocIds("realtime").toArray(), new int[]{1, 2});
+    }
+  }
+
+  @Test
+  public void testResultCache()
+      throws Exception {
+    try (LuceneTextIndexReader textIndexReader = new LuceneTextIndexReader(TEXT_COLUMN, INDEX_DIR, DOCUMENTS.length,
+        Collections.singletonMap(FieldConfig.TEXT_INDEX_RESULT_CACHE_SIZE, "10"))) {
+      MutableRoaringBitmap docIds = textIndexReader.getDocIds("analytics");
+      assertEquals(docIds.toArray(), new int[]{1, 2});
+      // Modifying the returned bitmap should not affect the cached result
+      docIds.add(3);
+      assertEquals(textIndexReader.getDocIds("analytics").toArray(), new int[]{1, 2});
+      assertEquals(textIndexReader.getDocIds("machine").toArray(), new int[]{3});
+    }
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.startree.v2.builder;
+
+import it.unimi.dsi.fastutil.ints.IntComparator;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.index.startree.StarTreeV2Constants;
+import org.apache.pinot.segment.spi.store.SegmentDirectoryPaths;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests that building the star-trees with multiple threads generates the same star-tree indexes as building them on a
+ * single thread.
+ */
+public class ParallelStarTreeBuildTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "ParallelStarTreeBuildTest");
+  private static final String SEGMENT_NAME = "testSegment";
+  // Larger than the minimum run length of the parallel sort
+  private static final int NUM_ROWS = 50_000;
+
+  private static final String DIMENSION_1 = "dim1";
+  private static final String DIMENSION_2 = "dim2";
+  private static final String DIMENSION_3 = "dim3";
+  private static final String METRIC = "metric";
+
+  @Test
+  public void testParallelStarTreeBuild()
+      throws Exception {
+    Schema schema = new Schema.SchemaBuilder().addSingleValueDimension(DIMENSION_1, DataType.INT)
+        .addSingleValueDimension(DIMENSION_2, DataType.STRING).addSingleValueDimension(DIMENSION_3, DataType.LONG)
+        .addMetric(METRIC, DataType.LONG).build();
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName("testTable").build();
+    List<StarTreeIndexConfig> starTreeIndexConfigs = Arrays.asList(
+        new StarTreeIndexConfig(Arrays.asList(DIMENSION_1, DIMENSION_2, DIMENSION_3), null,
+            Arrays.asList("COUNT__*", "SUM__" + METRIC, "MAX__" + METRIC), 10),
+        new StarTreeIndexConfig(Arrays.asList(DIMENSION_3, DIMENSION_1), null,
+            Arrays.asList("SUM__" + METRIC, "DISTINCTCOUNTHLL__" + DIMENSION_2), 100));
+
+    // NOTE: Use small metric values so that the sum of the metric is exact regardless of the aggregation order
+    Random random = new Random();
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(DIMENSION_1, random.nextInt(100));
+      row.putValue(DIMENSION_2, "value-" + random.nextInt(50));
+      row.putValue(DIMENSION_3, (long) random.nextInt(20));
+      row.putValue(METRIC, (long) random.nextInt(1000));
+      rows.add(row);
+    }
+
+    File serialIndexDir =
+        SegmentDirectoryPaths.findSegmentDirectory(buildSegment(tableConfig, schema, starTreeIndexConfigs, rows,
+            "serial", 1));
+    File parallelIndexDir =
+        SegmentDirectoryPaths.findSegmentDirectory(buildSegment(tableConfig, schema, starTreeIndexConfigs, rows,
+            "parallel", 4));
+    for (String fileName : new String[]{StarTreeV2Constants.INDEX_FILE_NAME, StarTreeV2Constants.INDEX_MAP_FILE_NAME}) {
+      File serialFile = new File(serialIndexDir, fileName);
+      assertTrue(serialFile.exists());
+      assertTrue(FileUtils.contentEquals(new File(parallelIndexDir, fileName), serialFile), fileName);
+    }
+  }
+
+  @Test
+  public void testParallelSort()
+      throws Exception {
+    int numValues = 100_000;
+    Random random = new Random();
+    int[] values = new int[numValues];
+    for (int i = 0; i < numValues; i++) {
+      values[i] = random.nextInt(1000);
+    }
+    IntComparator comparator = (i1, i2) -> Integer.compare(values[i1], values[i2]);
+
+    int[] ids = new int[numValues];
+    for (int i = 0; i < numValues; i++) {
+      ids[i] = i;
+    }
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      // Only sort the middle part of the array
+      ParallelSortUtils.sort(ids, 10, numValues - 10, comparator, executorService, 4);
+    } finally {
+      executorService.shutdownNow();
+    }
+    boolean[] seen = new boolean[numValues];
+    for (int i = 0; i < numValues; i++) {
+      if (i < 10 || i >= numValues - 10) {
+        assertEquals(ids[i], i);
+      } else if (i > 10) {
+        assertTrue(values[ids[i - 1]] <= values[ids[i]]);
+      }
+      seen[ids[i]] = true;
+    }
+    for (boolean value : seen) {
+      assertTrue(value);
+    }
+  }
+
+  private File buildSegment(TableConfig tableConfig, Schema schema, List<StarTreeIndexConfig> starTreeIndexConfigs,
+      List<GenericRow> rows, String outputDirName, int numStarTreeBuildThreads)
+      throws Exception {
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(tableConfig, schema);
+    config.setOutDir(new File(TEMP_DIR, outputDirName).getAbsolutePath());
+    config.setSegmentName(SEGMENT_NAME);
+    config.setStarTreeIndexConfigs(starTreeIndexConfigs);
+    config.setNumStarTreeBuildThreads(numStarTreeBuildThreads);
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows));
+    driver.build();
+    return driver.getOutputDirectory();
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
@@ -18,14 +18,19 @@
  */
 package org.apache.pinot.segment.local.upsert;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.utils.LLCSegmentName;
 import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentImpl;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.index.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.data.readers.PrimaryKey;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
@@ -34,9 +39,11 @@ import org.testng.annotations.Test;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
 
 
 public class PartitionUpsertMetadataManagerTest {
@@ -114,6 +121,110 @@ public class PartitionUpsertMetadataManagerTest {
     assertSame(recordLocationMap.get(getPrimaryKey(1)).getSegment(), newSegment1);
   }
 
+  @Test
+  public void testPersistAndLoadSnapshots()
+      throws IOException {
+    File tempDir = new File(FileUtils.getTempDirectory(), "PartitionUpsertMetadataManagerTest");
+    FileUtils.deleteQuietly(tempDir);
+    try {
+      PartitionUpsertMetadataManager upsertMetadataManager =
+          new PartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, mock(ServerMetrics.class), null);
+      List<PartitionUpsertMetadataManager.RecordInfo> recordInfoList1 = new ArrayList<>();
+      recordInfoList1.add(new PartitionUpsertMetadataManager.RecordInfo(getPrimaryKey(0), 0, 100));
+      recordInfoList1.add(new PartitionUpsertMetadataManager.RecordInfo(getPrimaryKey(1), 1, 100));
+      recordInfoList1.add(new PartitionUpsertMetadataManager.RecordInfo(getPrimaryKey(2), 2, 100));
+      recordInfoList1.add(new PartitionUpsertMetadataManager.RecordInfo(getPrimaryKey(0), 3, 120));
+      File indexDir1 = new File(tempDir, "segment1");
+      ImmutableSegmentImpl segment1 = mockSegment(1, new ThreadSafeMutableRoaringBitmap(), indexDir1);
+      upsertMetadataManager.addSegment(segment1, recordInfoList1.iterator());
+      List<PartitionUpsertMetadataManager.RecordInfo> recordInfoList2 = new ArrayList<>();
+      recordInfoList2.add(new PartitionUpsertMetadataManager.RecordInfo(getPrimaryKey(2), 0, 120));
+      recordInfoList2.add(new PartitionUpsertMetadataManager.RecordInfo(getPrimaryKey(3), 1, 100));
+      File indexDir2 = new File(tempDir, "segment2");
+      ImmutableSegmentImpl segment2 = mockSegment(2, new ThreadSafeMutableRoaringBitmap(), indexDir2);
+      upsertMetadataManager.addSegment(segment2, recordInfoList2.iterator());
+      upsertMetadataManager.persistSnapshots(1);
+
+      // Only the valid records should be loaded from the snapshots
+      List<PartitionUpsertMetadataManager.RecordInfo> snapshot1 = UpsertSnapshotUtils.loadSnapshot(indexDir1, 1);
+      assertNotNull(snapshot1);
+      assertEquals(snapshot1.size(), 2);
+      List<PartitionUpsertMetadataManager.RecordInfo> snapshot2 = UpsertSnapshotUtils.loadSnapshot(indexDir2, 1);
+      assertNotNull(snapshot2);
+      assertEquals(snapshot2.size(), 2);
+      // Primary key column mismatch
+      assertNull(UpsertSnapshotUtils.loadSnapshot(indexDir1, 2));
+
+      // Restore the upsert metadata from the snapshots
+      PartitionUpsertMetadataManager restoredUpsertMetadataManager =
+          new PartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, mock(ServerMetrics.class), null);
+      Map<PrimaryKey, RecordLocation> recordLocationMap = restoredUpsertMetadataManager._primaryKeyToRecordLocationMap;
+      ThreadSafeMutableRoaringBitmap validDocIds1 = new ThreadSafeMutableRoaringBitmap();
+      ImmutableSegmentImpl restoredSegment1 = mockSegment(1, validDocIds1, indexDir1);
+      restoredUpsertMetadataManager.addSegment(restoredSegment1, snapshot1.iterator());
+      ThreadSafeMutableRoaringBitmap validDocIds2 = new ThreadSafeMutableRoaringBitmap();
+      ImmutableSegmentImpl restoredSegment2 = mockSegment(2, validDocIds2, indexDir2);
+      restoredUpsertMetadataManager.addSegment(restoredSegment2, snapshot2.iterator());
+      // segment1: 0 -> {3, 120}, 1 -> {1, 100}
+      // segment2: 2 -> {0, 120}, 3 -> {1, 100}
+      checkRecordLocation(recordLocationMap, 0, restoredSegment1, 3, 120);
+      checkRecordLocation(recordLocationMap, 1, restoredSegment1, 1, 100);
+      checkRecordLocation(recordLocationMap, 2, restoredSegment2, 0, 120);
+      checkRecordLocation(recordLocationMap, 3, restoredSegment2, 1, 100);
+      assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{1, 3});
+      assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 1});
+    } finally {
+      FileUtils.deleteQuietly(tempDir);
+    }
+  }
+
+  private static ImmutableSegmentImpl mockSegment(int sequenceNumber, ThreadSafeMutableRoaringBitmap validDocIds,
+      File indexDir)
+      throws IOException {
+    ImmutableSegmentImpl segment = mockSegment(sequenceNumber, validDocIds);
+    FileUtils.forceMkdir(indexDir);
+    SegmentMetadataImpl segmentMetadata = mock(SegmentMetadataImpl.class);
+    when(segmentMetadata.getIndexDir()).thenReturn(indexDir);
+    when(segment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    return segment;
+  }
+
+  @Test
+  public void testSnapshotWithLargeStringPrimaryKey()
+      throws IOException {
+    File tempDir = new File(FileUtils.getTempDirectory(), "PartitionUpsertMetadataManagerTest");
+    FileUtils.deleteQuietly(tempDir);
+    try {
+      PartitionUpsertMetadataManager upsertMetadataManager =
+          new PartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, mock(ServerMetrics.class), null);
+      // Larger than the 64KB limit of DataOutput.writeUTF()
+      String largeKey = StringUtils.repeat("\u00e9", 40_000);
+      List<PartitionUpsertMetadataManager.RecordInfo> recordInfoList = new ArrayList<>();
+      recordInfoList.add(new PartitionUpsertMetadataManager.RecordInfo(new PrimaryKey(new Object[]{largeKey}), 0, 100));
+      File indexDir = new File(tempDir, "segment1");
+      ImmutableSegmentImpl segment = mockSegment(1, new ThreadSafeMutableRoaringBitmap(), indexDir);
+      upsertMetadataManager.addSegment(segment, recordInfoList.iterator());
+
+      // Snapshot is only persisted when outdated
+      upsertMetadataManager.persistSnapshotsIfOutdated(1);
+      File snapshotFile = new File(indexDir, UpsertSnapshotUtils.SNAPSHOT_FILE_NAME);
+      assertTrue(snapshotFile.exists());
+      assertTrue(snapshotFile.delete());
+      upsertMetadataManager.persistSnapshotsIfOutdated(1);
+      assertFalse(snapshotFile.exists());
+
+      List<PartitionUpsertMetadataManager.RecordInfo> snapshot = UpsertSnapshotUtils.loadSnapshot(indexDir, 1);
+      assertNull(snapshot);
+      upsertMetadataManager.persistSnapshots(1);
+      snapshot = UpsertSnapshotUtils.loadSnapshot(indexDir, 1);
+      assertNotNull(snapshot);
+      assertEquals(snapshot.size(), 1);
+      assertEquals(snapshot.get(0).getPrimaryKey().getValues(), new Object[]{largeKey});
+    } finally {
+      FileUtils.deleteQuietly(tempDir);
+    }
+  }
+
   private static ImmutableSegmentImpl mockSegment(int sequenceNumber, ThreadSafeMutableRoaringBitmap validDocIds) {
     ImmutableSegmentImpl segment = mock(ImmutableSegmentImpl.class);
     String segmentName = getSegmentName(sequenceNumber);
@@ -22,10 +22,12 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.List;
 import java.util.Map;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.pinot.segment.spi.index.creator.SegmentIndexCreationInfo;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
 import org.apache.pinot.spi.data.readers.GenericRow;
 
 
@@ -55,6 +57,50 @@ public interface SegmentCreator extends Closeable, Serializable {
   void indexRow(GenericRow row)
       throws IOException;
 
+  /**
+   * Adds a batch of rows to the index. Implementations can build the columns of the batch in parallel.
+   *
+   * @param rows The rows to index, in doc id order.
+   */
+  default void indexRows(List<GenericRow> rows)
+      throws IOException {
+    for (GenericRow row : rows) {
+      indexRow(row);
+    }
+  }
+
+  /**
+   * Returns the number of rows the caller should batch before calling {@link #indexRows(List)}, or 0 if rows should
+   * be indexed one at a time via {@link #indexRow(GenericRow)}.
+   */
+  default int getIndexBatchSize() {
+    return 0;
+  }
+
+  /**
+   * Adds a batch of rows in the columnar format to the index. The batch should contain the values of the stored type
+   * for all the columns, where the {@code null} values are filled with the default null values and marked as
+   * {@code null} (see {@link ColumnarBatch}).
+   *
+   * @param batch The batch to index, in doc id order.
+   */
+  default void indexBatch(ColumnarBatch batch)
+      throws IOException {
+    int numRows = batch.getNumRows();
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      GenericRow row = new GenericRow();
+      for (String column : batch.getColumns()) {
+        Object value = batch.getValue(column, rowId);
+        if (batch.isNullValue(column, rowId)) {
+          row.putDefaultNullValue(column, value);
+        } else {
+          row.putValue(column, value);
+        }
+      }
+      indexRow(row);
+    }
+  }
+
   /**
    * Sets the name of the segment.
    *
@@ -75,6 +75,7 @@ public class SegmentGeneratorConfig implements Serializable {
   private final List<String> _textIndexCreationColumns = new ArrayList<>();
   private final List<String> _fstIndexCreationColumns = new ArrayList<>();
   private final List<String> _jsonIndexCreationColumns = new ArrayList<>();
+  private final List<String> _zoneMapCreationColumns = new ArrayList<>();
   private final Map<String, H3IndexConfig> _h3IndexConfigs = new HashMap<>();
   private final List<String> _columnSortOrder = new ArrayList<>();
   private List<String> _varLengthDictionaryColumns = new ArrayList<>();
@@ -107,6 +108,10 @@ public class SegmentGeneratorConfig implements Serializable {
   private boolean _skipTimeValueCheck = false;
   private boolean _nullHandlingEnabled = false;
   private boolean _failOnEmptySegment = false;
+  // Number of threads used to build the per-column dictionaries and indexes in parallel (1 means single-threaded)
+  private int _numColumnIndexCreationThreads = 1;
+  // Number of threads used to build the star-trees and sort the star-tree records in parallel (1 means single-threaded)
+  private int _numStarTreeBuildThreads = 1;
 
   // constructed from FieldConfig
   private Map<String, Map<String, String>> _columnProperties = new HashMap<>();
@@ -183,6 +188,10 @@ public class SegmentGeneratorConfig implements Serializable {
         _jsonIndexCreationColumns.addAll(indexingConfig.getJsonIndexColumns());
       }
 
+      if (indexingConfig.getZoneMapColumns() != null) {
+        _zoneMapCreationColumns.addAll(indexingConfig.getZoneMapColumns());
+      }
+
       List<FieldConfig> fieldConfigList = tableConfig.getFieldConfigList();
       if (fieldConfigList != null) {
         for (FieldConfig fieldConfig : fieldConfigList) {
@@ -334,6 +343,10 @@ public class SegmentGeneratorConfig implements Serializable {
     return _jsonIndexCreationColumns;
   }
 
+  public List<String> getZoneMapCreationColumns() {
+    return _zoneMapCreationColumns;
+  }
+
   public Map<String, H3IndexConfig> getH3IndexConfigs() {
     return _h3IndexConfigs;
   }
@@ -632,6 +645,22 @@ public class SegmentGeneratorConfig implements Serializable {
     _onHeap = onHeap;
   }
 
+  public int getNumColumnIndexCreationThreads() {
+    return _numColumnIndexCreationThreads;
+  }
+
+  public void setNumColumnIndexCreationThreads(int numColumnIndexCreationThreads) {
+    _numColumnIndexCreationThreads = numColumnIndexCreationThreads;
+  }
+
+  public int getNumStarTreeBuildThreads() {
+    return _numStarTreeBuildThreads;
+  }
+
+  public void setNumStarTreeBuildThreads(int numStarTreeBuildThreads) {
+    _numStarTreeBuildThreads = numStarTreeBuildThreads;
+  }
+
   public boolean isSkipTimeValueCheck() {
     return _skipTimeValueCheck;
   }
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.segment.spi.creator;
 
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
 import org.apache.pinot.spi.data.readers.GenericRow;
 
 
@@ -31,5 +32,21 @@ public interface SegmentPreIndexStatsCollector extends SegmentPreIndexStatsConta
   void collectRow(GenericRow row)
       throws Exception;
 
+  /**
+   * Collects the stats for a batch of rows in the columnar format, where the {@code null} values are filled with the
+   * default null values (same as the rows passed to {@link #collectRow(GenericRow)}).
+   */
+  default void collectBatch(ColumnarBatch batch)
+      throws Exception {
+    int numRows = batch.getNumRows();
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      GenericRow row = new GenericRow();
+      for (String column : batch.getColumns()) {
+        row.putValue(column, batch.getValue(column, rowId));
+      }
+      collectRow(row);
+    }
+  }
+
   void logStats();
 }
@@ -27,6 +27,7 @@ import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
 import org.apache.pinot.segment.spi.index.reader.JsonIndexReader;
 import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
 import org.apache.pinot.segment.spi.index.reader.TextIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
 
 
 /**
@@ -93,6 +94,12 @@ public interface DataSource {
   @Nullable
   BloomFilterReader getBloomFilter();
 
+  /**
+   * Returns the zone map for the column if exists, or {@code null} if not.
+   */
+  @Nullable
+  ZoneMapReader getZoneMap();
+
   /**
    * Returns null value vector for the column if exists, or {@code null} if not.
    */
@@ -27,6 +27,7 @@ import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
 import org.apache.pinot.segment.spi.index.reader.JsonIndexReader;
 import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
 import org.apache.pinot.segment.spi.index.reader.TextIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
 
 
 /**
@@ -79,6 +80,11 @@ public interface ColumnIndexContainer extends Closeable {
    */
   BloomFilterReader getBloomFilter();
 
+  /**
+   * Returns the zone map for the column, or {@code null} if it does not exist.
+   */
+  ZoneMapReader getZoneMap();
+
   /**
    * Returns the null value vector for the column, or {@code null} if it does not exist.
    * @return
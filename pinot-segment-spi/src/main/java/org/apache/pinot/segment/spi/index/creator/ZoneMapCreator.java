@@ -0,0 +1,43 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.spi.index.creator;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+
+/**
+ * Index creator for zone map, which records the min/max value and the number of null values for each fixed-size block
+ * of documents of a single-value column.
+ */
+public interface ZoneMapCreator extends Closeable {
+
+  /**
+   * Adds the value of the next document. The value should be in the stored type of the column (e.g. byte[] for BYTES
+   * column). For null value, the default null value should be passed in with {@code isNull} set to {@code true}.
+   */
+  void add(Object value, boolean isNull)
+      throws IOException;
+
+  /**
+   * Seals the index and flushes it to disk.
+   */
+  void seal()
+      throws IOException;
+}
@@ -0,0 +1,58 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.spi.index.reader;
+
+import java.io.Closeable;
+
+
+/**
+ * Interface for zone map reader.
+ * <p>Zone map records the min/max value and the number of null values for each fixed-size block of documents of a
+ * single-value column, which can be used to skip the blocks that cannot match the filter while scanning the column.
+ * The min/max values are in the internal representation of the stored type of the column (e.g. ByteArray for BYTES
+ * column), and include the default null value if the block contains null values.
+ */
+@SuppressWarnings("rawtypes")
+public interface ZoneMapReader extends Closeable {
+
+  /**
+   * Returns the number of documents within each block. The block id of a document is {@code docId / numDocsPerBlock}.
+   */
+  int getNumDocsPerBlock();
+
+  /**
+   * Returns the number of blocks with documents indexed.
+   */
+  int getNumBlocks();
+
+  /**
+   * Returns the min value within the given block.
+   */
+  Comparable getMinValue(int blockId);
+
+  /**
+   * Returns the max value within the given block.
+   */
+  Comparable getMaxValue(int blockId);
+
+  /**
+   * Returns the number of null values within the given block.
+   */
+  int getNullCount(int blockId);
+}
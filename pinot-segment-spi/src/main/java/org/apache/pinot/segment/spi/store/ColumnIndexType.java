@@ -28,7 +28,8 @@ public enum ColumnIndexType {
   FST_INDEX("fst_index"),
   JSON_INDEX("json_index"),
   RANGE_INDEX("range_index"),
-  H3_INDEX("h3_index");
+  H3_INDEX("h3_index"),
+  ZONE_MAP("zone_map");
 
   private final String indexName;
 
@@ -27,6 +27,7 @@ import java.io.File;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLDecoder;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
@@ -37,6 +38,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import javax.inject.Inject;
+import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.Encoded;
 import javax.ws.rs.GET;
@@ -54,19 +56,27 @@ import javax.ws.rs.core.StreamingOutput;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.restlet.resources.ResourceUtils;
 import org.apache.pinot.common.restlet.resources.SegmentConsumerInfo;
+import org.apache.pinot.common.restlet.resources.SegmentQueryStats;
+import org.apache.pinot.common.restlet.resources.TableFilterStats;
 import org.apache.pinot.common.restlet.resources.TableMetadataInfo;
 import org.apache.pinot.common.restlet.resources.TableSegments;
 import org.apache.pinot.common.restlet.resources.TablesList;
+import org.apache.pinot.common.restlet.resources.ValidDocIdsMetadataInfo;
 import org.apache.pinot.common.utils.LLCSegmentName;
 import org.apache.pinot.common.utils.TarGzCompressionUtils;
 import org.apache.pinot.core.data.manager.InstanceDataManager;
 import org.apache.pinot.core.data.manager.offline.ImmutableSegmentDataManager;
 import org.apache.pinot.core.data.manager.realtime.RealtimeSegmentDataManager;
 import org.apache.pinot.core.data.manager.realtime.SegmentUploader;
+import org.apache.pinot.core.query.stats.FilterStatsCollector;
+import org.apache.pinot.core.query.stats.SegmentQueryStatsCollector;
 import org.apache.pinot.segment.local.data.manager.SegmentDataManager;
 import org.apache.pinot.segment.local.data.manager.TableDataManager;
 import org.apache.pinot.segment.spi.ColumnMetadata;
 import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.apache.pinot.segment.spi.index.ThreadSafeMutableRoaringBitmap;
 import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
 import org.apache.pinot.server.api.access.AccessControl;
 import org.apache.pinot.server.api.access.AccessControlFactory;
@@ -75,6 +85,7 @@ import org.apache.pinot.spi.config.table.TableType;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -456,4 +467,105 @@ public class TablesResource {
     }
     return segmentConsumerInfoList;
   }
+
+  @GET
+  @Path("/tables/{tableNameWithType}/filterStats")
+  @Produces(MediaType.APPLICATION_JSON)
+  @ApiOperation(value = "Provide the filter stats of the table", notes = "Provide the per column filter stats (predicate types, access paths and entries scanned) collected from the queries served")
+  public TableFilterStats getTableFilterStats(
+      @ApiParam(value = "Name of the table with type", required = true, example = "myTable_OFFLINE") @PathParam("tableNameWithType") String tableNameWithType) {
+    return FilterStatsCollector.getInstance().getTableFilterStats(tableNameWithType);
+  }
+
+  @DELETE
+  @Path("/tables/{tableNameWithType}/filterStats")
+  @Produces(MediaType.APPLICATION_JSON)
+  @ApiOperation(value = "Reset the filter stats of the table", notes = "Reset the per column filter stats collected from the queries served")
+  public String resetTableFilterStats(
+      @ApiParam(value = "Name of the table with type", required = true, example = "myTable_OFFLINE") @PathParam("tableNameWithType") String tableNameWithType) {
+    FilterStatsCollector.getInstance().reset(tableNameWithType);
+    return "Reset filter stats for table: " + tableNameWithType;
+  }
+
+  @GET
+  @Path("/tables/{tableNameWithType}/segments/queryStats")
+  @Produces(MediaType.APPLICATION_JSON)
+  @ApiOperation(value = "Provide the query stats of the segments of the table", notes = "Provide the number of recent queries that processed each segment of the table")
+  public SegmentQueryStats getSegmentQueryStats(
+      @ApiParam(value = "Name of the table with type", required = true, example = "myTable_OFFLINE") @PathParam("tableNameWithType") String tableNameWithType) {
+    return SegmentQueryStatsCollector.getInstance().getSegmentQueryStats(tableNameWithType);
+  }
+
+  @GET
+  @Path("/tables/{tableNameWithType}/validDocIdsMetadata")
+  @Produces(MediaType.APPLICATION_JSON)
+  @ApiOperation(value = "Provide the valid doc ids metadata of the immutable segments", notes = "Provide the total docs and total valid docs of the immutable segments of an upsert enabled table")
+  public List<ValidDocIdsMetadataInfo> getValidDocIdsMetadata(
+      @ApiParam(value = "Name of the REALTIME table", required = true, example = "myTable_REALTIME") @PathParam("tableNameWithType") String tableNameWithType) {
+    TableDataManager tableDataManager =
+        ServerResourceUtils.checkGetTableDataManager(_serverInstance, tableNameWithType);
+    List<ValidDocIdsMetadataInfo> validDocIdsMetadataInfoList = new ArrayList<>();
+    List<SegmentDataManager> segmentDataManagers = tableDataManager.acquireAllSegments();
+    try {
+      for (SegmentDataManager segmentDataManager : segmentDataManagers) {
+        IndexSegment segment = segmentDataManager.getSegment();
+        if (!(segment instanceof ImmutableSegment)) {
+          continue;
+        }
+        ThreadSafeMutableRoaringBitmap validDocIds = segment.getValidDocIds();
+        if (validDocIds == null) {
+          continue;
+        }
+        SegmentMetadata segmentMetadata = segment.getSegmentMetadata();
+        validDocIdsMetadataInfoList.add(
+            new ValidDocIdsMetadataInfo(segment.getSegmentName(), segmentMetadata.getCrc(),
+                segmentMetadata.getTotalDocs(), validDocIds.getMutableRoaringBitmap().getCardinality()));
+      }
+    } finally {
+      for (SegmentDataManager segmentDataManager : segmentDataManagers) {
+        tableDataManager.releaseSegment(segmentDataManager);
+      }
+    }
+    return validDocIdsMetadataInfoList;
+  }
+
+  @GET
+  @Path("/segments/{tableNameWithType}/{segmentName}/validDocIds")
+  @Produces(MediaType.APPLICATION_OCTET_STREAM)
+  @ApiOperation(value = "Download the valid doc ids of an immutable segment", notes = "Download the serialized bitmap of the valid doc ids of an immutable segment in an upsert enabled table")
+  public Response downloadValidDocIds(
+      @ApiParam(value = "Name of the REALTIME table", required = true, example = "myTable_REALTIME") @PathParam("tableNameWithType") String tableNameWithType,
+      @ApiParam(value = "Name of the segment", required = true) @PathParam("segmentName") String segmentName,
+      @ApiParam(value = "Expected CRC of the segment") @QueryParam("crc") String expectedCrc) {
+    TableDataManager tableDataManager =
+        ServerResourceUtils.checkGetTableDataManager(_serverInstance, tableNameWithType);
+    SegmentDataManager segmentDataManager = tableDataManager.acquireSegment(segmentName);
+    if (segmentDataManager == null) {
+      throw new WebApplicationException(
+          String.format("Table %s segment %s does not exist", tableNameWithType, segmentName),
+          Response.Status.NOT_FOUND);
+    }
+    try {
+      IndexSegment segment = segmentDataManager.getSegment();
+      ThreadSafeMutableRoaringBitmap validDocIds = segment.getValidDocIds();
+      if (!(segment instanceof ImmutableSegment) || validDocIds == null) {
+        throw new WebApplicationException(
+            String.format("Table %s segment %s is not an immutable segment with valid doc ids", tableNameWithType,
+                segmentName), Response.Status.BAD_REQUEST);
+      }
+      String crc = segment.getSegmentMetadata().getCrc();
+      if (expectedCrc != null && !expectedCrc.equals(crc)) {
+        throw new WebApplicationException(
+            String.format("Table %s segment %s CRC: %s does not match expected CRC: %s", tableNameWithType,
+                segmentName, crc, expectedCrc), Response.Status.PRECONDITION_FAILED);
+      }
+      MutableRoaringBitmap bitmap = validDocIds.getMutableRoaringBitmap();
+      bitmap.runOptimize();
+      byte[] bytes = new byte[bitmap.serializedSizeInBytes()];
+      bitmap.serialize(ByteBuffer.wrap(bytes));
+      return Response.ok(bytes).header(HttpHeaders.CONTENT_LENGTH, bytes.length).build();
+    } finally {
+      tableDataManager.releaseSegment(segmentDataManager);
+    }
+  }
 }
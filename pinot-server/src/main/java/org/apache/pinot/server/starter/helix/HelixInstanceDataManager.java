@@ -37,13 +37,18 @@ import org.apache.helix.HelixManager;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.pinot.common.metadata.ZKMetadataProvider;
+import org.apache.pinot.common.metadata.segment.LLCRealtimeSegmentZKMetadata;
+import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.restlet.resources.SegmentErrorInfo;
 import org.apache.pinot.core.data.manager.InstanceDataManager;
 import org.apache.pinot.core.data.manager.offline.TableDataManagerProvider;
 import org.apache.pinot.core.data.manager.realtime.PinotFSSegmentUploader;
+import org.apache.pinot.core.data.manager.realtime.RealtimeTableDataManager;
 import org.apache.pinot.core.data.manager.realtime.SegmentBuildTimeLeaseExtender;
 import org.apache.pinot.core.data.manager.realtime.SegmentUploader;
+import org.apache.pinot.core.query.stats.FilterStatsCollector;
+import org.apache.pinot.core.query.stats.SegmentQueryStatsCollector;
 import org.apache.pinot.segment.local.data.manager.SegmentDataManager;
 import org.apache.pinot.segment.local.data.manager.TableDataManager;
 import org.apache.pinot.segment.local.data.manager.TableDataManagerConfig;
@@ -184,6 +189,9 @@ public class HelixInstanceDataManager implements InstanceDataManager {
       LOGGER.info("Removed segment: {} from table: {}", segmentName, k);
       if (v.getNumSegments() == 0) {
         v.shutDown();
+        // The table is removed from the server, clear its query stats so that a re-created table starts fresh
+        FilterStatsCollector.getInstance().reset(k);
+        SegmentQueryStatsCollector.getInstance().reset(k);
         return null;
       } else {
         return v;
@@ -191,6 +199,35 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     });
   }
 
+  @Override
+  public void replaceRealtimeSegment(String realtimeTableName, String segmentName)
+      throws Exception {
+    LOGGER.info("Replacing segment: {} in table: {}", segmentName, realtimeTableName);
+    TableDataManager tableDataManager = _tableDataManagerMap.get(realtimeTableName);
+    if (tableDataManager == null) {
+      LOGGER.info("Table data manager does not exist. Skip replacing segment: {} in table: {}", segmentName,
+          realtimeTableName);
+      return;
+    }
+    RealtimeSegmentZKMetadata segmentZKMetadata =
+        ZKMetadataProvider.getRealtimeSegmentZKMetadata(_propertyStore, realtimeTableName, segmentName);
+    Preconditions.checkState(segmentZKMetadata instanceof LLCRealtimeSegmentZKMetadata,
+        "Only LLC segment can be replaced, got segment: %s in table: %s", segmentName, realtimeTableName);
+    SegmentMetadata segmentMetadata = getSegmentMetadata(realtimeTableName, segmentName);
+    if (segmentMetadata == null || Long.parseLong(segmentMetadata.getCrc()) == segmentZKMetadata.getCrc()) {
+      LOGGER.info("Segment is not loaded or CRC matches. Skip replacing segment: {} in table: {}", segmentName,
+          realtimeTableName);
+      return;
+    }
+
+    TableConfig tableConfig = ZKMetadataProvider.getTableConfig(_propertyStore, realtimeTableName);
+    Preconditions.checkNotNull(tableConfig);
+    ((RealtimeTableDataManager) tableDataManager)
+        .downloadAndReplaceSegment(segmentName, (LLCRealtimeSegmentZKMetadata) segmentZKMetadata,
+            new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig), tableConfig);
+    LOGGER.info("Replaced segment: {} in table: {}", segmentName, realtimeTableName);
+  }
+
   @Override
   public void reloadSegment(String tableNameWithType, String segmentName)
       throws Exception {
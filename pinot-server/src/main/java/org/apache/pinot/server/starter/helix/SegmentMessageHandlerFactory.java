@@ -30,6 +30,7 @@ import org.apache.pinot.common.messages.SegmentReloadMessage;
 import org.apache.pinot.common.metrics.ServerMeter;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.core.data.manager.InstanceDataManager;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -119,7 +120,12 @@ public class SegmentMessageHandlerFactory implements MessageHandlerFactory {
       try {
         acquireSema(_segmentName, LOGGER);
         // The number of retry times depends on the retry count in Constants.
-        _fetcherAndLoader.addOrReplaceOfflineSegment(_tableNameWithType, _segmentName);
+        if (TableNameBuilder.isRealtimeTableResource(_tableNameWithType)) {
+          // Refreshing a REALTIME segment is only allowed for upsert enabled tables
+          _instanceDataManager.replaceRealtimeSegment(_tableNameWithType, _segmentName);
+        } else {
+          _fetcherAndLoader.addOrReplaceOfflineSegment(_tableNameWithType, _segmentName);
+        }
         result.setSuccess(true);
       } catch (Exception e) {
         _metrics.addMeteredTableValue(_tableNameWithType, ServerMeter.REFRESH_FAILURES, 1);
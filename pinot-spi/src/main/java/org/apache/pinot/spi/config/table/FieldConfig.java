@@ -43,6 +43,8 @@ public class FieldConfig extends BaseJsonConfig {
   // Lucene creates a query result cache if this option is enabled
   // the cache improves performance of repeatable queries
   public static String TEXT_INDEX_ENABLE_QUERY_CACHE = "enableQueryCacheForTextIndex";
+  // Max number of search query results (docId bitmaps) to cache per segment, result cache is disabled if not positive
+  public static String TEXT_INDEX_RESULT_CACHE_SIZE = "textIndexResultCacheSize";
   public static String TEXT_INDEX_USE_AND_FOR_MULTI_TERM_QUERIES = "useANDForMultiTermTextIndexQueries";
   public static String TEXT_INDEX_NO_RAW_DATA = "noRawDataForTextIndex";
   public static String TEXT_INDEX_RAW_VALUE = "rawValueForTextIndex";
@@ -30,6 +30,7 @@ public class IndexingConfig extends BaseJsonConfig {
   private List<String> _rangeIndexColumns;
   private List<String> _jsonIndexColumns;
   private List<String> _h3IndexColumns;
+  private List<String> _zoneMapColumns;
   private boolean _autoGeneratedInvertedIndex;
   private boolean _createInvertedIndexDuringSegmentGeneration;
   private List<String> _sortedColumn;
@@ -43,6 +44,8 @@ public class IndexingConfig extends BaseJsonConfig {
   private List<String> _noDictionaryColumns; // TODO: replace this with noDictionaryConfig.
   private Map<String, String> _noDictionaryConfig;
   private List<String> _onHeapDictionaryColumns;
+  // Columns for which an on-heap hash index is built for the exact-match lookups on the immutable STRING dictionary
+  private List<String> _dictionaryHashIndexColumns;
   private boolean _enableDefaultStarTree;
   private List<StarTreeIndexConfig> _starTreeIndexConfigs;
   // Whether to allow creating star-tree when server loads the segment
@@ -83,6 +86,14 @@ public class IndexingConfig extends BaseJsonConfig {
     _jsonIndexColumns = jsonIndexColumns;
   }
 
+  public List<String> getZoneMapColumns() {
+    return _zoneMapColumns;
+  }
+
+  public void setZoneMapColumns(List<String> zoneMapColumns) {
+    _zoneMapColumns = zoneMapColumns;
+  }
+
   public boolean isAutoGeneratedInvertedIndex() {
     return _autoGeneratedInvertedIndex;
   }
@@ -192,6 +203,14 @@ public class IndexingConfig extends BaseJsonConfig {
     _onHeapDictionaryColumns = onHeapDictionaryColumns;
   }
 
+  public List<String> getDictionaryHashIndexColumns() {
+    return _dictionaryHashIndexColumns;
+  }
+
+  public void setDictionaryHashIndexColumns(List<String> dictionaryHashIndexColumns) {
+    _dictionaryHashIndexColumns = dictionaryHashIndexColumns;
+  }
+
   @Nullable
   public List<String> getVarLengthDictionaryColumns() {
     return _varLengthDictionaryColumns;
@@ -29,6 +29,7 @@ import org.apache.pinot.spi.config.BaseJsonConfig;
 
 /** Class representing upsert configuration of a table. */
 public class UpsertConfig extends BaseJsonConfig {
+  public static final long DEFAULT_SNAPSHOT_INTERVAL_SECONDS = 300L;
 
   public enum Mode {
     FULL, PARTIAL, NONE
@@ -45,9 +46,22 @@ public class UpsertConfig extends BaseJsonConfig {
   @JsonPropertyDescription("Partial update strategies.")
   private final Map<String, Strategy> _partialUpsertStrategies;
 
+  @JsonPropertyDescription("Whether to persist the upsert metadata snapshot of the immutable segments to speed up the "
+      + "server restart.")
+  private final boolean _enableSnapshot;
+
+  @JsonPropertyDescription("Interval in seconds between persisting the upsert metadata snapshots when enabled.")
+  private final long _snapshotIntervalSeconds;
+
+  public UpsertConfig(Mode mode, @Nullable Map<String, Strategy> partialUpsertStrategies) {
+    this(mode, partialUpsertStrategies, null, null);
+  }
+
   @JsonCreator
   public UpsertConfig(@JsonProperty(value = "mode", required = true) Mode mode,
-      @JsonProperty("partialUpsertStrategies") @Nullable Map<String, Strategy> partialUpsertStrategies) {
+      @JsonProperty("partialUpsertStrategies") @Nullable Map<String, Strategy> partialUpsertStrategies,
+      @JsonProperty("enableSnapshot") @Nullable Boolean enableSnapshot,
+      @JsonProperty("snapshotIntervalSeconds") @Nullable Long snapshotIntervalSeconds) {
     Preconditions.checkArgument(mode != null, "Upsert mode must be configured");
     _mode = mode;
 
@@ -56,6 +70,11 @@ public class UpsertConfig extends BaseJsonConfig {
     } else {
       _partialUpsertStrategies = null;
     }
+    _enableSnapshot = enableSnapshot != null && enableSnapshot;
+    Preconditions.checkArgument(snapshotIntervalSeconds == null || snapshotIntervalSeconds > 0,
+        "Upsert snapshot interval must be positive");
+    _snapshotIntervalSeconds =
+        snapshotIntervalSeconds != null ? snapshotIntervalSeconds : DEFAULT_SNAPSHOT_INTERVAL_SECONDS;
   }
 
   public Mode getMode() {
@@ -66,4 +85,12 @@ public class UpsertConfig extends BaseJsonConfig {
   public Map<String, Strategy> getPartialUpsertStrategies() {
     return _partialUpsertStrategies;
   }
+
+  public boolean isEnableSnapshot() {
+    return _enableSnapshot;
+  }
+
+  public long getSnapshotIntervalSeconds() {
+    return _snapshotIntervalSeconds;
+  }
 }
@@ -0,0 +1,197 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.spi.data.readers;
+
+import com.google.common.base.Preconditions;
+import java.lang.reflect.Array;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+
+/**
+ * The columnar batch is the value holder returned from {@link ColumnarRecordReader#nextBatch(ColumnarBatch)}. It holds
+ * the values of a batch of rows as one value array (column vector) per column, so that columnar file formats can be
+ * read without materializing a {@link GenericRow} for each row.
+ *
+ * The allowed value arrays are: int[], long[], float[], double[], String[], byte[][], and Object[] for any other values
+ * (in the same format as the values in the {@link GenericRow}). The value arrays can be longer than the number of rows
+ * in the batch so that they can be reused across batches. Optionally, a boolean array can be attached to each column
+ * to mark the {@code null} values, in which case the value in the value array is ignored.
+ */
+public class ColumnarBatch {
+  private final Map<String, Object> _valuesMap = new HashMap<>();
+  private final Map<String, boolean[]> _nullsMap = new HashMap<>();
+  private int _numRows;
+
+  public int getNumRows() {
+    return _numRows;
+  }
+
+  public void setNumRows(int numRows) {
+    _numRows = numRows;
+  }
+
+  public Set<String> getColumns() {
+    return _valuesMap.keySet();
+  }
+
+  /**
+   * Puts the value array of a column, with an optional array to mark the {@code null} values.
+   */
+  public void putValues(String column, Object values, @Nullable boolean[] nulls) {
+    Preconditions.checkArgument(values.getClass().isArray(), "Values for column: %s is not an array", column);
+    _valuesMap.put(column, values);
+    if (nulls != null) {
+      _nullsMap.put(column, nulls);
+    } else {
+      _nullsMap.remove(column);
+    }
+  }
+
+  /**
+   * Returns the value array of a column, or {@code null} if the column does not exist in the batch. The value array
+   * can be reused as the value array of the next batch.
+   */
+  @Nullable
+  public Object getValues(String column) {
+    return _valuesMap.get(column);
+  }
+
+  /**
+   * Returns the int value array of a column, or {@code null} if the column does not exist in the batch.
+   */
+  @Nullable
+  public int[] getIntValues(String column) {
+    return (int[]) _valuesMap.get(column);
+  }
+
+  /**
+   * Returns the long value array of a column, or {@code null} if the column does not exist in the batch.
+   */
+  @Nullable
+  public long[] getLongValues(String column) {
+    return (long[]) _valuesMap.get(column);
+  }
+
+  /**
+   * Returns the float value array of a column, or {@code null} if the column does not exist in the batch.
+   */
+  @Nullable
+  public float[] getFloatValues(String column) {
+    return (float[]) _valuesMap.get(column);
+  }
+
+  /**
+   * Returns the double value array of a column, or {@code null} if the column does not exist in the batch.
+   */
+  @Nullable
+  public double[] getDoubleValues(String column) {
+    return (double[]) _valuesMap.get(column);
+  }
+
+  /**
+   * Returns the string value array of a column, or {@code null} if the column does not exist in the batch.
+   */
+  @Nullable
+  public String[] getStringValues(String column) {
+    return (String[]) _valuesMap.get(column);
+  }
+
+  /**
+   * Returns the bytes value array of a column, or {@code null} if the column does not exist in the batch.
+   */
+  @Nullable
+  public byte[][] getBytesValues(String column) {
+    return (byte[][]) _valuesMap.get(column);
+  }
+
+  /**
+   * Returns the value array of a column from the previous batch if it is of the given array class and can hold the
+   * given number of values, or creates a new value array otherwise. This helps reusing the value arrays across batches.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T getOrCreateValues(String column, Class<T> arrayClass, int numValues) {
+    Object values = _valuesMap.get(column);
+    if (values != null && values.getClass() == arrayClass && Array.getLength(values) >= numValues) {
+      return (T) values;
+    }
+    return (T) Array.newInstance(arrayClass.getComponentType(), numValues);
+  }
+
+  /**
+   * Returns the array that marks the {@code null} values of a column, or {@code null} if the column does not contain
+   * {@code null} values.
+   */
+  @Nullable
+  public boolean[] getNulls(String column) {
+    return _nullsMap.get(column);
+  }
+
+  public boolean isNullValue(String column, int rowId) {
+    boolean[] nulls = _nullsMap.get(column);
+    return nulls != null && nulls[rowId];
+  }
+
+  /**
+   * Returns the (boxed) value in the value array of a column at the given row, or {@code null} if the column does not
+   * exist in the batch. Prefer the typed value array accessors (e.g. {@link #getIntValues(String)}) when the type of
+   * the value array is known to avoid boxing each value.
+   * <p>NOTE: This method does not check whether the value is marked as {@code null}, use
+   * {@link #isNullValue(String, int)} for that.
+   */
+  @Nullable
+  public Object getValue(String column, int rowId) {
+    Object values = _valuesMap.get(column);
+    if (values == null) {
+      return null;
+    }
+    if (values instanceof int[]) {
+      return ((int[]) values)[rowId];
+    } else if (values instanceof long[]) {
+      return ((long[]) values)[rowId];
+    } else if (values instanceof float[]) {
+      return ((float[]) values)[rowId];
+    } else if (values instanceof double[]) {
+      return ((double[]) values)[rowId];
+    } else {
+      return ((Object[]) values)[rowId];
+    }
+  }
+
+  /**
+   * Fills the given row with the values at the given row id, for consumers that only handle {@link GenericRow}s.
+   * <p>The passed in row should be cleared before calling this method.
+   */
+  public GenericRow getRow(int rowId, GenericRow reuse) {
+    for (String column : _valuesMap.keySet()) {
+      reuse.putValue(column, isNullValue(column, rowId) ? null : getValue(column, rowId));
+    }
+    return reuse;
+  }
+
+  /**
+   * Clears the batch. The value arrays are kept (and can be fetched via {@link #getValues(String)}) for reuse.
+   */
+  public void clear() {
+    _nullsMap.clear();
+    _numRows = 0;
+  }
+}
@@ -0,0 +1,46 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.spi.data.readers;
+
+import java.io.IOException;
+
+
+/**
+ * The <code>ColumnarRecordReader</code> is a {@link RecordReader} that can also read records in batches of column
+ * vectors ({@link ColumnarBatch}). Readers for columnar file formats (e.g. Parquet, ORC) should implement this
+ * interface to read the column pages directly into the value arrays without materializing a {@link GenericRow} per
+ * row.
+ * <p>The row-based and batch-based methods should not be mixed between two {@link #rewind()} calls.
+ */
+public interface ColumnarRecordReader extends RecordReader {
+
+  /**
+   * Returns whether the records can be read in batches via {@link #nextBatch(ColumnarBatch)}. Some readers only
+   * support batches for certain schemas (e.g. no nested fields).
+   */
+  boolean isColumnarBatchSupported();
+
+  /**
+   * Reads the next batch of records into the given batch (the value arrays of the given batch can be reused), and
+   * returns the batch. The batch is cleared within this method. Should only be called when {@link #hasNext()} returns
+   * <code>true</code>, and the returned batch contains at least one record.
+   */
+  ColumnarBatch nextBatch(ColumnarBatch reuse)
+      throws IOException;
+}
@@ -74,8 +74,9 @@ public class GenericRow implements Serializable {
    * before calling this method.
    */
   public void init(GenericRow row) {
-    _fieldToValueMap.putAll(row._fieldToValueMap);
-    _nullValueFields.addAll(row._nullValueFields);
+    // NOTE: Use the getters so that the fields of the sub-classes (e.g. IndexedGenericRow) are also included
+    _fieldToValueMap.putAll(row.getFieldToValueMap());
+    _nullValueFields.addAll(row.getNullValueFields());
   }
 
   /**
@@ -140,7 +141,7 @@ public class GenericRow implements Serializable {
   /**
    * @return a deep copy of the object.
    */
-  private Object copy(Object value) {
+  protected Object copy(Object value) {
     if (value == null) {
       return null;
     } else if (value instanceof Map) {
@@ -220,7 +221,7 @@ public class GenericRow implements Serializable {
 
   @Override
   public int hashCode() {
-    return EqualityUtils.hashCodeOf(_fieldToValueMap.hashCode(), _nullValueFields.hashCode());
+    return EqualityUtils.hashCodeOf(getFieldToValueMap().hashCode(), getNullValueFields().hashCode());
   }
 
   @Override
@@ -230,8 +231,8 @@ public class GenericRow implements Serializable {
     }
     if (obj instanceof GenericRow) {
       GenericRow that = (GenericRow) obj;
-      return _nullValueFields.equals(that._nullValueFields) && EqualityUtils
-          .isEqual(_fieldToValueMap, that._fieldToValueMap);
+      return getNullValueFields().equals(that.getNullValueFields()) && EqualityUtils
+          .isEqual(getFieldToValueMap(), that.getFieldToValueMap());
     }
     return false;
   }
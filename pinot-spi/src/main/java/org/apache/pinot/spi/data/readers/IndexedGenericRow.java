@@ -0,0 +1,565 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.spi.data.readers;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.utils.JsonUtils;
+
+
+/**
+ * The {@code IndexedGenericRow} is a {@link GenericRow} whose fields in the {@link Layout} (typically the columns in
+ * the {@link Schema}) are stored in arrays indexed by the slot of the field, and the other fields (e.g. source fields
+ * for the transform functions) are stored in the map of the {@link GenericRow}.
+ * <p>The slots are resolved from the layout once, so that the record transformers and the indexing can access the
+ * values without looking up the map per field. The INT, LONG, FLOAT and DOUBLE values can be stored as primitives via
+ * the slot based put methods (e.g. {@link #putInt(int, int)}), and will only be boxed when accessed as object.
+ * <p>The row has the same behavior as a {@link GenericRow} when accessed via the field name, and can be reused by
+ * calling {@link #clear()}.
+ */
+public class IndexedGenericRow extends GenericRow {
+  private static final byte ABSENT = 0;
+  private static final byte OBJECT = 1;
+  private static final byte INT = 2;
+  private static final byte LONG = 3;
+  private static final byte FLOAT = 4;
+  private static final byte DOUBLE = 5;
+
+  private final Layout _layout;
+  private final byte[] _valueTypes;
+  private final long[] _primitiveValues;
+  // For primitive values, the boxed value is lazily cached
+  private final Object[] _values;
+  private final boolean[] _nullValues;
+  private int _numNullValues;
+  // Read-only view of all the fields, backed by the row
+  private final Map<String, Object> _fieldToValueMap = new FieldToValueMap();
+
+  public IndexedGenericRow(Layout layout) {
+    _layout = layout;
+    int numFields = layout.getNumFields();
+    _valueTypes = new byte[numFields];
+    _primitiveValues = new long[numFields];
+    _values = new Object[numFields];
+    _nullValues = new boolean[numFields];
+  }
+
+  @JsonIgnore
+  public Layout getLayout() {
+    return _layout;
+  }
+
+  /**
+   * Returns whether the field in the given slot exists (the value might be {@code null}).
+   */
+  public boolean containsField(int slot) {
+    return _valueTypes[slot] != ABSENT;
+  }
+
+  /**
+   * Returns whether the field in the given slot has a non-null value.
+   */
+  public boolean hasValue(int slot) {
+    byte valueType = _valueTypes[slot];
+    return valueType > OBJECT || (valueType == OBJECT && _values[slot] != null);
+  }
+
+  /**
+   * Returns the value of the field in the given slot, or {@code null} if the field does not exist.
+   */
+  @Nullable
+  public Object getValue(int slot) {
+    Object value = _values[slot];
+    if (value == null) {
+      long primitiveValue = _primitiveValues[slot];
+      switch (_valueTypes[slot]) {
+        case INT:
+          value = (int) primitiveValue;
+          break;
+        case LONG:
+          value = primitiveValue;
+          break;
+        case FLOAT:
+          value = Float.intBitsToFloat((int) primitiveValue);
+          break;
+        case DOUBLE:
+          value = Double.longBitsToDouble(primitiveValue);
+          break;
+        default:
+          return null;
+      }
+      _values[slot] = value;
+    }
+    return value;
+  }
+
+  /**
+   * Returns the class of the value of the field in the given slot (the boxed class for the primitive values), or
+   * {@code null} if the value is {@code null}.
+   */
+  @Nullable
+  public Class<?> getValueClass(int slot) {
+    switch (_valueTypes[slot]) {
+      case INT:
+        return Integer.class;
+      case LONG:
+        return Long.class;
+      case FLOAT:
+        return Float.class;
+      case DOUBLE:
+        return Double.class;
+      case OBJECT:
+        Object value = _values[slot];
+        return value != null ? value.getClass() : null;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Returns the value of the field in the given slot as int. The value must be a non-null {@link Number}.
+   */
+  public int getInt(int slot) {
+    return _valueTypes[slot] == INT ? (int) _primitiveValues[slot] : ((Number) getValue(slot)).intValue();
+  }
+
+  /**
+   * Returns the value of the field in the given slot as long. The value must be a non-null {@link Number}.
+   */
+  public long getLong(int slot) {
+    return _valueTypes[slot] == LONG ? _primitiveValues[slot] : ((Number) getValue(slot)).longValue();
+  }
+
+  /**
+   * Returns the value of the field in the given slot as float. The value must be a non-null {@link Number}.
+   */
+  public float getFloat(int slot) {
+    return _valueTypes[slot] == FLOAT ? Float.intBitsToFloat((int) _primitiveValues[slot])
+        : ((Number) getValue(slot)).floatValue();
+  }
+
+  /**
+   * Returns the value of the field in the given slot as double. The value must be a non-null {@link Number}.
+   */
+  public double getDouble(int slot) {
+    return _valueTypes[slot] == DOUBLE ? Double.longBitsToDouble(_primitiveValues[slot])
+        : ((Number) getValue(slot)).doubleValue();
+  }
+
+  /**
+   * Sets the value of the field in the given slot.
+   */
+  public void putValue(int slot, @Nullable Object value) {
+    _valueTypes[slot] = OBJECT;
+    _values[slot] = value;
+  }
+
+  public void putInt(int slot, int value) {
+    _valueTypes[slot] = INT;
+    _primitiveValues[slot] = value;
+    _values[slot] = null;
+  }
+
+  public void putLong(int slot, long value) {
+    _valueTypes[slot] = LONG;
+    _primitiveValues[slot] = value;
+    _values[slot] = null;
+  }
+
+  public void putFloat(int slot, float value) {
+    _valueTypes[slot] = FLOAT;
+    _primitiveValues[slot] = Float.floatToRawIntBits(value);
+    _values[slot] = null;
+  }
+
+  public void putDouble(int slot, double value) {
+    _valueTypes[slot] = DOUBLE;
+    _primitiveValues[slot] = Double.doubleToRawLongBits(value);
+    _values[slot] = null;
+  }
+
+  /**
+   * Returns whether the value is {@code null} for the field in the given slot.
+   */
+  public boolean isNullValue(int slot) {
+    return _nullValues[slot];
+  }
+
+  /**
+   * Sets the {@code defaultNullValue} for the field in the given slot.
+   */
+  public void putDefaultNullValue(int slot, Object defaultNullValue) {
+    putValue(slot, defaultNullValue);
+    addNullValueField(slot);
+  }
+
+  /**
+   * Marks the field in the given slot as {@code null}.
+   */
+  public void addNullValueField(int slot) {
+    if (!_nullValues[slot]) {
+      _nullValues[slot] = true;
+      _numNullValues++;
+    }
+  }
+
+  /**
+   * Marks the field in the given slot as {@code non-null} and returns whether the field was marked as {@code null}.
+   */
+  public boolean removeNullValueField(int slot) {
+    if (_nullValues[slot]) {
+      _nullValues[slot] = false;
+      _numNullValues--;
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void init(GenericRow row) {
+    if (row instanceof IndexedGenericRow && ((IndexedGenericRow) row)._layout == _layout) {
+      IndexedGenericRow indexedRow = (IndexedGenericRow) row;
+      int numFields = _layout.getNumFields();
+      System.arraycopy(indexedRow._valueTypes, 0, _valueTypes, 0, numFields);
+      System.arraycopy(indexedRow._primitiveValues, 0, _primitiveValues, 0, numFields);
+      System.arraycopy(indexedRow._values, 0, _values, 0, numFields);
+      System.arraycopy(indexedRow._nullValues, 0, _nullValues, 0, numFields);
+      _numNullValues = indexedRow._numNullValues;
+      super.init(indexedRow.getNonIndexedRow());
+    } else {
+      for (Map.Entry<String, Object> entry : row.getFieldToValueMap().entrySet()) {
+        putValue(entry.getKey(), entry.getValue());
+      }
+      for (String nullValueField : row.getNullValueFields()) {
+        addNullValueField(nullValueField);
+      }
+    }
+  }
+
+  /**
+   * Returns a {@link GenericRow} with the fields not in the layout.
+   */
+  private GenericRow getNonIndexedRow() {
+    GenericRow row = new GenericRow();
+    for (Map.Entry<String, Object> entry : super.getFieldToValueMap().entrySet()) {
+      row.putValue(entry.getKey(), entry.getValue());
+    }
+    for (String nullValueField : super.getNullValueFields()) {
+      row.addNullValueField(nullValueField);
+    }
+    return row;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>The returned map is a read-only view backed by the row, so changes to the row are reflected in the map.
+   */
+  @Override
+  public Map<String, Object> getFieldToValueMap() {
+    return _fieldToValueMap;
+  }
+
+  @Override
+  public Set<String> getNullValueFields() {
+    if (_numNullValues == 0) {
+      return super.getNullValueFields();
+    }
+    Set<String> nullValueFields = new HashSet<>(super.getNullValueFields());
+    int numFields = _layout.getNumFields();
+    for (int i = 0; i < numFields; i++) {
+      if (_nullValues[i]) {
+        nullValueFields.add(_layout.getFieldName(i));
+      }
+    }
+    return Collections.unmodifiableSet(nullValueFields);
+  }
+
+  @Override
+  public Object getValue(String fieldName) {
+    int slot = _layout.getSlot(fieldName);
+    return slot >= 0 ? getValue(slot) : super.getValue(fieldName);
+  }
+
+  @Override
+  public Object removeValue(String fieldName) {
+    int slot = _layout.getSlot(fieldName);
+    if (slot >= 0) {
+      Object value = getValue(slot);
+      _valueTypes[slot] = ABSENT;
+      _values[slot] = null;
+      return value;
+    } else {
+      return super.removeValue(fieldName);
+    }
+  }
+
+  @Override
+  public boolean isNullValue(String fieldName) {
+    int slot = _layout.getSlot(fieldName);
+    return slot >= 0 ? _nullValues[slot] : super.isNullValue(fieldName);
+  }
+
+  @Override
+  public boolean hasNullValues() {
+    return _numNullValues > 0 || super.hasNullValues();
+  }
+
+  @Override
+  public IndexedGenericRow copy() {
+    IndexedGenericRow copy = new IndexedGenericRow(_layout);
+    copy.init(this);
+    int numFields = _layout.getNumFields();
+    for (int i = 0; i < numFields; i++) {
+      if (copy._valueTypes[i] == OBJECT) {
+        copy._values[i] = copy(copy._values[i]);
+      }
+    }
+    for (Map.Entry<String, Object> entry : super.getFieldToValueMap().entrySet()) {
+      copy.putValue(entry.getKey(), copy(entry.getValue()));
+    }
+    return copy;
+  }
+
+  @Override
+  public void putValue(String fieldName, @Nullable Object value) {
+    int slot = _layout.getSlot(fieldName);
+    if (slot >= 0) {
+      putValue(slot, value);
+    } else {
+      super.putValue(fieldName, value);
+    }
+  }
+
+  @Override
+  public void putDefaultNullValue(String fieldName, Object defaultNullValue) {
+    int slot = _layout.getSlot(fieldName);
+    if (slot >= 0) {
+      putDefaultNullValue(slot, defaultNullValue);
+    } else {
+      super.putDefaultNullValue(fieldName, defaultNullValue);
+    }
+  }
+
+  @Override
+  public void addNullValueField(String fieldName) {
+    int slot = _layout.getSlot(fieldName);
+    if (slot >= 0) {
+      addNullValueField(slot);
+    } else {
+      super.addNullValueField(fieldName);
+    }
+  }
+
+  @Override
+  public boolean removeNullValueField(String fieldName) {
+    int slot = _layout.getSlot(fieldName);
+    return slot >= 0 ? removeNullValueField(slot) : super.removeNullValueField(fieldName);
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(_valueTypes, ABSENT);
+    Arrays.fill(_values, null);
+    if (_numNullValues > 0) {
+      Arrays.fill(_nullValues, false);
+      _numNullValues = 0;
+    }
+    super.clear();
+  }
+
+  @Deprecated
+  @Override
+  public void init(Map<String, Object> fieldToValueMap) {
+    for (Map.Entry<String, Object> entry : fieldToValueMap.entrySet()) {
+      putValue(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Deprecated
+  @JsonIgnore
+  @Override
+  public Set<Map.Entry<String, Object>> getEntrySet() {
+    return getFieldToValueMap().entrySet();
+  }
+
+  @Deprecated
+  @JsonIgnore
+  @Override
+  public String[] getFieldNames() {
+    return getFieldToValueMap().keySet().toArray(new String[0]);
+  }
+
+  @Deprecated
+  @Override
+  public void putField(String fieldName, @Nullable Object value) {
+    putValue(fieldName, value);
+  }
+
+  @Deprecated
+  @Override
+  public byte[] toBytes()
+      throws IOException {
+    return JsonUtils.objectToBytes(getFieldToValueMap());
+  }
+
+  /**
+   * Read-only view of the fields in the layout followed by the other fields of the row.
+   */
+  private class FieldToValueMap extends AbstractMap<String, Object> {
+    private final Set<Entry<String, Object>> _entrySet = new AbstractSet<Entry<String, Object>>() {
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        return new FieldToValueIterator();
+      }
+
+      @Override
+      public int size() {
+        return FieldToValueMap.this.size();
+      }
+    };
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return _entrySet;
+    }
+
+    @Override
+    public int size() {
+      int size = IndexedGenericRow.super.getFieldToValueMap().size();
+      for (byte valueType : _valueTypes) {
+        if (valueType != ABSENT) {
+          size++;
+        }
+      }
+      return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      if (!(key instanceof String)) {
+        return false;
+      }
+      int slot = _layout.getSlot((String) key);
+      return slot >= 0 ? _valueTypes[slot] != ABSENT : IndexedGenericRow.super.getFieldToValueMap().containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+      if (!(key instanceof String)) {
+        return null;
+      }
+      return IndexedGenericRow.this.getValue((String) key);
+    }
+  }
+
+  private class FieldToValueIterator implements Iterator<Map.Entry<String, Object>> {
+    private final Iterator<Map.Entry<String, Object>> _nonIndexedIterator =
+        IndexedGenericRow.super.getFieldToValueMap().entrySet().iterator();
+    private int _nextSlot = nextSlot(0);
+
+    private int nextSlot(int slot) {
+      int numFields = _valueTypes.length;
+      while (slot < numFields && _valueTypes[slot] == ABSENT) {
+        slot++;
+      }
+      return slot;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return _nextSlot < _valueTypes.length || _nonIndexedIterator.hasNext();
+    }
+
+    @Override
+    public Map.Entry<String, Object> next() {
+      if (_nextSlot < _valueTypes.length) {
+        int slot = _nextSlot;
+        _nextSlot = nextSlot(slot + 1);
+        return new AbstractMap.SimpleImmutableEntry<>(_layout.getFieldName(slot), getValue(slot));
+      }
+      return _nonIndexedIterator.next();
+    }
+  }
+
+  /**
+   * The {@code Layout} class maps the fields to the slots in the {@link IndexedGenericRow}. The layout is immutable and
+   * should be shared by all the rows with the same set of fields, so that the slots resolved from the layout can be
+   * reused for all the rows.
+   */
+  public static class Layout implements Serializable {
+    private final String[] _fieldNames;
+    private final Map<String, Integer> _slotMap;
+
+    public Layout(Collection<String> fieldNames) {
+      _fieldNames = fieldNames.toArray(new String[0]);
+      _slotMap = new HashMap<>();
+      for (int i = 0; i < _fieldNames.length; i++) {
+        _slotMap.put(_fieldNames[i], i);
+      }
+    }
+
+    /**
+     * Returns the layout for the columns in the given schema.
+     */
+    public static Layout of(Schema schema) {
+      return new Layout(schema.getColumnNames());
+    }
+
+    public int getNumFields() {
+      return _fieldNames.length;
+    }
+
+    public String getFieldName(int slot) {
+      return _fieldNames[slot];
+    }
+
+    /**
+     * Returns the slot of the given field, or -1 if the field is not in the layout.
+     */
+    public int getSlot(String fieldName) {
+      Integer slot = _slotMap.get(fieldName);
+      return slot != null ? slot : -1;
+    }
+
+    /**
+     * Returns the slots of the given fields, where the slot is -1 for the field not in the layout.
+     */
+    public int[] getSlots(String[] fieldNames) {
+      int numFields = fieldNames.length;
+      int[] slots = new int[numFields];
+      for (int i = 0; i < numFields; i++) {
+        slots[i] = getSlot(fieldNames[i]);
+      }
+      return slots;
+    }
+  }
+}
@@ -126,6 +126,25 @@ public class SegmentGenerationJobSpec implements Serializable {
    */
   private boolean _failOnEmptySegment = false;
 
+  /**
+   * Number of threads used to build the columns of a single segment in parallel. Values less than or equal to 1 build
+   * all the columns on the segment creation thread. The same number of threads is used to build the star-trees.
+   */
+  private int _segmentCreationColumnParallelism = 1;
+
+  /**
+   * Maximum number of records per segment. When positive, each input file (or group of packed input files) is read
+   * once and split into segments of at most this many records, which are built in parallel while the input is still
+   * being read. Non-positive value means one segment per input file.
+   */
+  private int _maxNumRecordsPerSegment = -1;
+
+  /**
+   * Input files smaller than this size (e.g. '256M') are packed together into one segment until the total size of the
+   * packed input files reaches this size. Packing is disabled when not set.
+   */
+  private String _inputFilePackingSize;
+
   /**
    * Controller auth token
    */
@@ -292,6 +311,30 @@ public class SegmentGenerationJobSpec implements Serializable {
     _failOnEmptySegment = failOnEmptySegment;
   }
 
+  public int getSegmentCreationColumnParallelism() {
+    return _segmentCreationColumnParallelism;
+  }
+
+  public void setSegmentCreationColumnParallelism(int segmentCreationColumnParallelism) {
+    _segmentCreationColumnParallelism = segmentCreationColumnParallelism;
+  }
+
+  public int getMaxNumRecordsPerSegment() {
+    return _maxNumRecordsPerSegment;
+  }
+
+  public void setMaxNumRecordsPerSegment(int maxNumRecordsPerSegment) {
+    _maxNumRecordsPerSegment = maxNumRecordsPerSegment;
+  }
+
+  public String getInputFilePackingSize() {
+    return _inputFilePackingSize;
+  }
+
+  public void setInputFilePackingSize(String inputFilePackingSize) {
+    _inputFilePackingSize = inputFilePackingSize;
+  }
+
   public String getAuthToken() {
     return _authToken;
   }
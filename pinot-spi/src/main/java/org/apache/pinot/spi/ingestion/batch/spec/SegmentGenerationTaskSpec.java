@@ -19,7 +19,9 @@
 package org.apache.pinot.spi.ingestion.batch.spec;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.data.Schema;
@@ -58,6 +60,11 @@ public class SegmentGenerationTaskSpec implements Serializable {
    */
   private String _inputFilePath;
 
+  /**
+   * Data file paths when multiple data files are packed into one segment
+   */
+  private List<String> _packedInputFilePaths;
+
   /**
    * Output segment directory to host all data files
    */
@@ -70,6 +77,16 @@ public class SegmentGenerationTaskSpec implements Serializable {
 
   private boolean _failOnEmptySegment = false;
 
+  /**
+   * Number of threads used to build the columns of the segment in parallel
+   */
+  private int _columnParallelism = 1;
+
+  /**
+   * Maximum number of records per segment, non-positive value means no limit
+   */
+  private int _maxNumRecordsPerSegment = -1;
+
   /**
    * Custom properties set into segment metadata
    */
@@ -115,6 +132,21 @@ public class SegmentGenerationTaskSpec implements Serializable {
     _inputFilePath = inputFilePath;
   }
 
+  /**
+   * Returns the paths of all the data files for the task.
+   */
+  public List<String> getInputFilePaths() {
+    return _packedInputFilePaths != null ? _packedInputFilePaths : Collections.singletonList(_inputFilePath);
+  }
+
+  /**
+   * Packs multiple data files into one segment. The input file path is set to the first data file.
+   */
+  public void setPackedInputFilePaths(List<String> packedInputFilePaths) {
+    _packedInputFilePaths = packedInputFilePaths;
+    _inputFilePath = packedInputFilePaths.get(0);
+  }
+
   public String getOutputDirectoryPath() {
     return _outputDirectoryPath;
   }
@@ -139,6 +171,22 @@ public class SegmentGenerationTaskSpec implements Serializable {
     _failOnEmptySegment = failOnEmptySegment;
   }
 
+  public int getColumnParallelism() {
+    return _columnParallelism;
+  }
+
+  public void setColumnParallelism(int columnParallelism) {
+    _columnParallelism = columnParallelism;
+  }
+
+  public int getMaxNumRecordsPerSegment() {
+    return _maxNumRecordsPerSegment;
+  }
+
+  public void setMaxNumRecordsPerSegment(int maxNumRecordsPerSegment) {
+    _maxNumRecordsPerSegment = maxNumRecordsPerSegment;
+  }
+
   public void setCustomProperty(String key, String value) {
     if (!key.startsWith(CUSTOM_PREFIX)) {
       key = CUSTOM_PREFIX + key;
@@ -103,6 +103,13 @@ public class StreamConfigProperties {
   // Time threshold that controller will wait for the segment to be built by the server
   public static final String SEGMENT_COMMIT_TIMEOUT_SECONDS = "realtime.segment.commit.timeoutSeconds";
 
+  /**
+   * Whether to start consuming the next segment as soon as the committer of the current segment is picked, instead of
+   * waiting for the current segment to be built, uploaded and committed. The sealed segment keeps serving queries from
+   * memory until the committed segment replaces it. Disabled by default.
+   */
+  public static final String SEGMENT_PAUSELESS_COMMIT_ENABLED = "realtime.segment.pauselessCommit.enabled";
+
   /**
    * Helper method to create a stream specific property
    */
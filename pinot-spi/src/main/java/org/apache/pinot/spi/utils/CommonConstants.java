@@ -120,7 +120,8 @@ public class CommonConstants {
         RandomAssignmentStrategy,
         BalanceNumSegmentAssignmentStrategy,
         BucketizedSegmentAssignmentStrategy,
-        ReplicaGroupSegmentAssignmentStrategy
+        ReplicaGroupSegmentAssignmentStrategy,
+        LoadAwareSegmentAssignmentStrategy
       }
     }
 
@@ -199,6 +200,10 @@ public class CommonConstants {
         "pinot.broker.startup.minResourcePercent";
     public static final double DEFAULT_BROKER_MIN_RESOURCE_PERCENT_FOR_START = 100.0;
     public static final String CONFIG_OF_ENABLE_QUERY_LIMIT_OVERRIDE = "pinot.broker.enable.query.limit.override";
+    // Max number of compiled SQL query templates (keyed by query with literals replaced) to cache, 0 to disable cache
+    public static final String CONFIG_OF_BROKER_QUERY_COMPILATION_CACHE_SIZE =
+        "pinot.broker.query.compilation.cache.size";
+    public static final int DEFAULT_BROKER_QUERY_COMPILATION_CACHE_SIZE = 0;
 
     // Config for number of threads to use for Broker reduce-phase.
     public static final String CONFIG_OF_MAX_REDUCE_THREADS_PER_QUERY = "pinot.broker.max.reduce.threads.per.query";
@@ -210,6 +215,7 @@ public class CommonConstants {
     public static final int DEFAULT_BROKER_GROUPBY_TRIM_THRESHOLD = 1_000_000;
 
     public static final String BROKER_TLS_PREFIX = "pinot.broker.tls";
+    public static final String BROKER_NETTY_PREFIX = "pinot.broker.netty";
     public static final String BROKER_NETTYTLS_ENABLED = "pinot.broker.nettytls.enabled";
 
     public static class Request {
@@ -337,6 +343,7 @@ public class CommonConstants {
 
     public static final String SERVER_TLS_PREFIX = "pinot.server.tls";
     public static final String SERVER_NETTYTLS_PREFIX = "pinot.server.nettytls";
+    public static final String SERVER_NETTY_PREFIX = "pinot.server.netty";
 
     // The complete config key is pinot.server.instance.segment.store.uri
     public static final String CONFIG_OF_SEGMENT_STORE_URI = "segment.store.uri";
@@ -513,6 +520,7 @@ public class CommonConstants {
     public static class AssignmentStrategy {
       public static String BALANCE_NUM_SEGMENT_ASSIGNMENT_STRATEGY = "BalanceNumSegmentAssignmentStrategy";
       public static String REPLICA_GROUP_SEGMENT_ASSIGNMENT_STRATEGY = "ReplicaGroupSegmentAssignmentStrategy";
+      public static String LOAD_AWARE_SEGMENT_ASSIGNMENT_STRATEGY = "LoadAwareSegmentAssignmentStrategy";
     }
 
     public static class BuiltInVirtualColumn {
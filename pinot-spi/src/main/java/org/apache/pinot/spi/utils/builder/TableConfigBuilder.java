@@ -97,6 +97,7 @@ public class TableConfigBuilder {
   private List<String> _varLengthDictionaryColumns;
   private List<StarTreeIndexConfig> _starTreeIndexConfigs;
   private List<String> _jsonIndexColumns;
+  private List<String> _zoneMapColumns;
 
   private TableCustomConfig _customConfig;
   private QuotaConfig _quotaConfig;
@@ -282,6 +283,11 @@ public class TableConfigBuilder {
     return this;
   }
 
+  public TableConfigBuilder setZoneMapColumns(List<String> zoneMapColumns) {
+    _zoneMapColumns = zoneMapColumns;
+    return this;
+  }
+
   public TableConfigBuilder setStreamConfigs(Map<String, String> streamConfigs) {
     Preconditions.checkState(_tableType == TableType.REALTIME);
     _streamConfigs = streamConfigs;
@@ -401,6 +407,7 @@ public class TableConfigBuilder {
     indexingConfig.setVarLengthDictionaryColumns(_varLengthDictionaryColumns);
     indexingConfig.setStarTreeIndexConfigs(_starTreeIndexConfigs);
     indexingConfig.setJsonIndexColumns(_jsonIndexColumns);
+    indexingConfig.setZoneMapColumns(_zoneMapColumns);
 
     if (_customConfig == null) {
       _customConfig = new TableCustomConfig(null);
@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.spi.data.readers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+
+public class IndexedGenericRowTest {
+  private static final IndexedGenericRow.Layout LAYOUT = new IndexedGenericRow.Layout(Arrays.asList("a", "b", "c"));
+
+  @Test
+  public void testLayout() {
+    assertEquals(LAYOUT.getNumFields(), 3);
+    assertEquals(LAYOUT.getSlot("b"), 1);
+    assertEquals(LAYOUT.getFieldName(2), "c");
+    assertEquals(LAYOUT.getSlot("d"), -1);
+    assertEquals(LAYOUT.getSlots(new String[]{"c", "d", "a"}), new int[]{2, -1, 0});
+  }
+
+  @Test
+  public void testPrimitiveValues() {
+    IndexedGenericRow row = new IndexedGenericRow(LAYOUT);
+    assertFalse(row.containsField(0));
+    assertFalse(row.hasValue(0));
+    assertNull(row.getValueClass(0));
+
+    row.putInt(0, 1);
+    assertTrue(row.hasValue(0));
+    assertEquals(row.getValueClass(0), Integer.class);
+    assertEquals(row.getInt(0), 1);
+    assertEquals(row.getLong(0), 1L);
+    assertEquals(row.getValue("a"), 1);
+
+    row.putDouble(1, 1.5);
+    assertEquals(row.getValueClass(1), Double.class);
+    assertEquals(row.getDouble(1), 1.5);
+    assertEquals(row.getFloat(1), 1.5f);
+    assertEquals(row.getValue("b"), 1.5);
+
+    // Overriding the primitive value should invalidate the boxed value
+    row.putLong(1, 2L);
+    assertEquals(row.getValue(1), 2L);
+    row.putFloat(1, 2.5f);
+    assertEquals(row.getValue(1), 2.5f);
+
+    // Object value can be read as primitive
+    row.putValue(2, 3);
+    assertEquals(row.getLong(2), 3L);
+
+    // Null value should still be counted as a field
+    row.putValue("c", null);
+    assertTrue(row.containsField(2));
+    assertFalse(row.hasValue(2));
+    assertTrue(row.getFieldToValueMap().containsKey("c"));
+  }
+
+  @Test
+  public void testCompatibilityWithGenericRow() {
+    IndexedGenericRow row = new IndexedGenericRow(LAYOUT);
+    GenericRow expectedRow = new GenericRow();
+    Object[] multiValues = new Object[]{"x", Collections.singletonList("y")};
+    for (GenericRow r : Arrays.asList(row, expectedRow)) {
+      r.putValue("a", 1);
+      r.putValue("d", "d");
+      r.putDefaultNullValue("b", 0L);
+      r.putValue("c", multiValues);
+      r.addNullValueField("e");
+    }
+    assertEquals(row, expectedRow);
+    assertEquals(expectedRow, row);
+    assertEquals(row.hashCode(), expectedRow.hashCode());
+    assertEquals(row.getFieldToValueMap().keySet(), expectedRow.getFieldToValueMap().keySet());
+
+    // Field to value map is a read-only view backed by the row
+    Map<String, Object> fieldToValueMap = row.getFieldToValueMap();
+    assertSame(row.getFieldToValueMap(), fieldToValueMap);
+    assertEquals(fieldToValueMap, expectedRow.getFieldToValueMap());
+    assertEquals(fieldToValueMap.size(), 4);
+    assertEquals(fieldToValueMap.get("a"), 1);
+    assertEquals(fieldToValueMap.get("d"), "d");
+    assertNull(fieldToValueMap.get("e"));
+    row.putValue("f", "f");
+    assertEquals(fieldToValueMap.get("f"), "f");
+    assertEquals(fieldToValueMap.size(), 5);
+    row.removeValue("f");
+    assertFalse(fieldToValueMap.containsKey("f"));
+    expectThrows(UnsupportedOperationException.class, () -> fieldToValueMap.put("a", 2));
+    assertEquals(row.getNullValueFields(), expectedRow.getNullValueFields());
+    assertTrue(row.isNullValue("b"));
+    assertTrue(row.isNullValue(1));
+    assertTrue(row.isNullValue("e"));
+    assertTrue(row.hasNullValues());
+    assertEquals(row.getValue("d"), "d");
+
+    // Copy
+    IndexedGenericRow copy = row.copy();
+    assertEquals(copy, row);
+    assertEquals(copy.getLayout(), LAYOUT);
+
+    // Init from GenericRow and IndexedGenericRow
+    IndexedGenericRow fromGenericRow = new IndexedGenericRow(LAYOUT);
+    fromGenericRow.init(expectedRow);
+    assertEquals(fromGenericRow, row);
+    IndexedGenericRow fromIndexedRow = new IndexedGenericRow(LAYOUT);
+    fromIndexedRow.init(row);
+    assertEquals(fromIndexedRow, row);
+    GenericRow genericRow = new GenericRow();
+    genericRow.init(row);
+    assertEquals(genericRow, expectedRow);
+
+    // Remove
+    assertTrue(row.removeNullValueField("b"));
+    assertFalse(row.removeNullValueField("b"));
+    assertEquals(row.removeValue("a"), 1);
+    assertFalse(row.containsField(0));
+    assertFalse(row.getFieldToValueMap().containsKey("a"));
+
+    // Clear
+    row.clear();
+    assertEquals(row, new GenericRow());
+    assertFalse(row.hasNullValues());
+  }
+}
@@ -28,9 +28,14 @@ import java.util.concurrent.TimeUnit;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.controller.recommender.io.metadata.SchemaWithMetaData;
+import org.apache.pinot.controller.recommender.realtime.provisioning.ConsumptionBenchmark;
 import org.apache.pinot.controller.recommender.realtime.provisioning.MemoryEstimator;
+import org.apache.pinot.segment.local.segment.readers.PinotSegmentRecordReader;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.RecordReader;
+import org.apache.pinot.spi.data.readers.RecordReaderFactory;
 import org.apache.pinot.spi.utils.DataSizeUtils;
 import org.apache.pinot.spi.utils.JsonUtils;
 import org.apache.pinot.tools.Command;
@@ -54,6 +59,7 @@ public class RealtimeProvisioningHelperCommand extends AbstractBaseAdminCommand
   private static final int DEFAULT_RETENTION_FOR_WEEKLY_PUSH = 24*7 + 72;
   private static final int DEFAULT_RETENTION_FOR_MONTHLY_PUSH = 24*31 + 72;
   private static final int DEFAULT_NUMBER_OF_ROWS = 10_000;
+  private static final int DEFAULT_BENCHMARK_QUERY_SAMPLES = 10;
 
   @Option(name = "-tableConfigFile", required = true, metaVar = "<String>")
   private String _tableConfigFile;
@@ -91,6 +97,29 @@ public class RealtimeProvisioningHelperCommand extends AbstractBaseAdminCommand
   @Option(name = "-maxUsableHostMemory", required = false, metaVar = "<String>", usage = "Maximum memory per host that can be used for pinot data (e.g. 250G, 100M). Default 48g")
   private String _maxUsableHostMemory = "48G";
 
+  @Option(name = "-benchmark", required = false, usage = "Replay sample rows through a consuming segment with the table's index config to measure"
+      + "\n\tthe actual ingestion throughput, memory, commit time and query latency, and recommend rows per segment and hosts")
+  private boolean _benchmark;
+
+  @Option(name = "-sampleDataFile", required = false, metaVar = "<String>", usage = "File with sample stream data to replay in benchmark mode (default: rows of the sample segment)")
+  private String _sampleDataFile;
+
+  @Option(name = "-sampleDataFormat", required = false, metaVar = "<String>", usage = "Format of the sample data file (e.g. avro, json, csv)")
+  private String _sampleDataFormat;
+
+  @Option(name = "-benchmarkRows", required = false, metaVar = "<int>", usage = "Number of rows to index into the consuming segment in benchmark mode (default: number of sample rows)."
+      + "\n\tSample rows are replayed if more rows are needed, which requires -sampleDataFile")
+  private int _benchmarkRows;
+
+  @Option(name = "-benchmarkRowsPerSecond", required = false, metaVar = "<int>", usage = "Rate at which rows are indexed in benchmark mode (default: as fast as possible)")
+  private int _benchmarkRowsPerSecond;
+
+  @Option(name = "-benchmarkQuery", required = false, metaVar = "<String>", usage = "SQL query to measure the latency on the consuming segment in benchmark mode (default: count star)")
+  private String _benchmarkQuery;
+
+  @Option(name = "-numCoresPerHost", required = false, metaVar = "<int>", usage = "Number of cores per host used for recommendation in benchmark mode (default: cores of this host)")
+  private int _numCoresPerHost = Runtime.getRuntime().availableProcessors();
+
   @Option(name = "-help", help = true, aliases = {"-h", "--h", "--help"})
   private boolean _help = false;
 
@@ -144,6 +173,41 @@ public class RealtimeProvisioningHelperCommand extends AbstractBaseAdminCommand
     return this;
   }
 
+  public RealtimeProvisioningHelperCommand setBenchmark(boolean benchmark) {
+    _benchmark = benchmark;
+    return this;
+  }
+
+  public RealtimeProvisioningHelperCommand setSampleDataFile(String sampleDataFile) {
+    _sampleDataFile = sampleDataFile;
+    return this;
+  }
+
+  public RealtimeProvisioningHelperCommand setSampleDataFormat(String sampleDataFormat) {
+    _sampleDataFormat = sampleDataFormat;
+    return this;
+  }
+
+  public RealtimeProvisioningHelperCommand setBenchmarkRows(int benchmarkRows) {
+    _benchmarkRows = benchmarkRows;
+    return this;
+  }
+
+  public RealtimeProvisioningHelperCommand setBenchmarkRowsPerSecond(int benchmarkRowsPerSecond) {
+    _benchmarkRowsPerSecond = benchmarkRowsPerSecond;
+    return this;
+  }
+
+  public RealtimeProvisioningHelperCommand setBenchmarkQuery(String benchmarkQuery) {
+    _benchmarkQuery = benchmarkQuery;
+    return this;
+  }
+
+  public RealtimeProvisioningHelperCommand setNumCoresPerHost(int numCoresPerHost) {
+    _numCoresPerHost = numCoresPerHost;
+    return this;
+  }
+
   @Override
   public String toString() {
     String segmentStr = _sampleCompletedSegmentDir != null
@@ -152,7 +216,15 @@ public class RealtimeProvisioningHelperCommand extends AbstractBaseAdminCommand
     return "RealtimeProvisioningHelper -tableConfigFile " + _tableConfigFile + " -numPartitions " + _numPartitions
         + " -pushFrequency " + _pushFrequency + " -numHosts " + _numHosts + " -numHours " + _numHours + segmentStr
         + " -ingestionRate " + _ingestionRate + " -maxUsableHostMemory " + _maxUsableHostMemory + " -retentionHours "
-        + _retentionHours;
+        + _retentionHours + (_benchmark ? getBenchmarkString() : "");
+  }
+
+  private String getBenchmarkString() {
+    String sampleDataStr = _sampleDataFile != null
+        ? " -sampleDataFile " + _sampleDataFile + " -sampleDataFormat " + _sampleDataFormat : "";
+    String queryStr = _benchmarkQuery != null ? " -benchmarkQuery \"" + _benchmarkQuery + "\"" : "";
+    return " -benchmark" + sampleDataStr + " -benchmarkRows " + _benchmarkRows + " -benchmarkRowsPerSecond "
+        + _benchmarkRowsPerSecond + queryStr + " -numCoresPerHost " + _numCoresPerHost;
   }
 
   @Override
@@ -165,7 +237,8 @@ public class RealtimeProvisioningHelperCommand extends AbstractBaseAdminCommand
     return
         "Given the table config, partitions, retention and a sample completed segment for a realtime table to be setup, "
             + "this tool will provide memory used by each host and an optimal segment size for various combinations of hours to consume and hosts. "
-            + "Instead of a completed segment, if schema with characteristics of data is provided, a segment will be generated and used for memory estimation.";
+            + "Instead of a completed segment, if schema with characteristics of data is provided, a segment will be generated and used for memory estimation. "
+            + "In benchmark mode, sample rows are replayed through a consuming segment to measure the actual cost of consumption and recommend rows per segment and hosts.";
   }
 
   @Override
@@ -195,6 +268,8 @@ public class RealtimeProvisioningHelperCommand extends AbstractBaseAdminCommand
     boolean segmentProvided = _sampleCompletedSegmentDir != null;
     boolean characteristicsProvided = _schemaWithMetadataFile != null;
     Preconditions.checkState(segmentProvided ^ characteristicsProvided, "Either completed segment should be provided or schema with characteristics file!");
+    Preconditions.checkState(_sampleDataFile == null || (_benchmark && _sampleDataFormat != null),
+        "Sample data file can only be provided in benchmark mode along with its format!");
 
     LOGGER.info("Executing command: {}", toString());
 
@@ -265,6 +340,11 @@ public class RealtimeProvisioningHelperCommand extends AbstractBaseAdminCommand
           new MemoryEstimator(tableConfig, schema, schemaWithMetaData, _numRows, _ingestionRate, maxUsableHostMemBytes,
               tableRetentionHours, workingDir);
     }
+    // Run the benchmark before estimating memory, which deletes the working dir (and the segment generated in it)
+    ConsumptionBenchmark.Result benchmarkResult = null;
+    if (_benchmark) {
+      benchmarkResult = runBenchmark(tableConfig, memoryEstimator);
+    }
     File sampleStatsHistory = memoryEstimator.initializeStatsHistory();
     memoryEstimator
         .estimateMemoryUsed(sampleStatsHistory, numHosts, numHours, totalConsumingPartitions, _retentionHours);
@@ -280,9 +360,81 @@ public class RealtimeProvisioningHelperCommand extends AbstractBaseAdminCommand
     displayResults(memoryEstimator.getConsumingMemoryPerHost(), numHosts, numHours);
     LOGGER.info("\nTotal number of segments queried per host (for all partitions)");
     displayResults(memoryEstimator.getNumSegmentsQueriedPerHost(), numHosts, numHours);
+    if (benchmarkResult != null) {
+      displayBenchmarkResult(benchmarkResult,
+          ConsumptionBenchmark.recommend(benchmarkResult, _ingestionRate, totalConsumingPartitions, numHosts, numHours,
+              _retentionHours, maxUsableHostMemBytes, _numCoresPerHost));
+    }
     return true;
   }
 
+  private ConsumptionBenchmark.Result runBenchmark(TableConfig tableConfig, MemoryEstimator memoryEstimator) {
+    Schema schema = memoryEstimator.getSchema();
+    String query = _benchmarkQuery != null ? _benchmarkQuery : ConsumptionBenchmark.getDefaultQuery(tableConfig);
+    try (RecordReader recordReader = _sampleDataFile != null ? RecordReaderFactory
+        .getRecordReader(_sampleDataFormat, new File(_sampleDataFile), null, null)
+        : new PinotSegmentRecordReader(memoryEstimator.getSampleCompletedSegment())) {
+      int numSampleRows;
+      if (_sampleDataFile != null) {
+        numSampleRows = countRows(recordReader);
+      } else {
+        // Replaying the rows of the sample segment would under-estimate the dictionary sizes and the memory used
+        numSampleRows = memoryEstimator.getTotalDocsInSampleSegment();
+        Preconditions.checkState(_benchmarkRows <= numSampleRows,
+            "Benchmark rows: %s exceed the rows in the sample segment: %s, provide -sampleDataFile to replay",
+            _benchmarkRows, numSampleRows);
+      }
+      int numRowsToIndex = _benchmarkRows > 0 ? _benchmarkRows : numSampleRows;
+      ConsumptionBenchmark benchmark =
+          new ConsumptionBenchmark(tableConfig, schema, Files.createTempDir(), numRowsToIndex, _benchmarkRowsPerSecond,
+              query, DEFAULT_BENCHMARK_QUERY_SAMPLES);
+      return benchmark.run(recordReader);
+    } catch (Exception e) {
+      throw new RuntimeException("Caught exception while running the consumption benchmark", e);
+    }
+  }
+
+  private static int countRows(RecordReader recordReader)
+      throws IOException {
+    GenericRow reuse = new GenericRow();
+    int numRows = 0;
+    while (recordReader.hasNext()) {
+      reuse.clear();
+      recordReader.next(reuse);
+      numRows++;
+    }
+    return numRows;
+  }
+
+  private void displayBenchmarkResult(ConsumptionBenchmark.Result result,
+      ConsumptionBenchmark.Recommendation recommendation) {
+    System.out.println("\n============================================================\nBenchmark");
+    System.out.println(String.format("\nRows indexed: %d (%.0f rows/s, %.0f rows/s per core)",
+        result.getNumRowsIndexed(), result.getRowsPerSecond(), result.getRowsPerCoreSecond()));
+    System.out.println(String.format("Consuming segment memory: %s off-heap, %s heap (%.1f bytes/row)",
+        DataSizeUtils.fromBytes(result.getOffHeapBytes()), DataSizeUtils.fromBytes(result.getHeapBytes()),
+        result.getConsumingBytesPerRow()));
+    System.out.println(String.format("Commit: built %s segment in %dms",
+        DataSizeUtils.fromBytes(result.getCompletedSegmentSizeBytes()), result.getCommitBuildTimeMs()));
+    if (result.getNumQueries() > 0) {
+      System.out.println(String.format("Query latency on consuming segment: p50 %.2fms, p90 %.2fms, max %.2fms",
+          result.getQueryLatencyMs(50), result.getQueryLatencyMs(90), result.getQueryLatencyMs(100)));
+    }
+    if (recommendation == null) {
+      System.out.println("\nNo combination of numHosts and numHours fits the usable host memory and cores");
+      return;
+    }
+    System.out.println(String.format(
+        "\nRecommended: %d hosts, consume %d hours (%d rows per segment, realtime.segment.flush.threshold.rows)",
+        recommendation.getNumHosts(), recommendation.getNumHoursToConsume(), recommendation.getRowsPerSegment()));
+    System.out.println(String.format(
+        "Per host: %s active memory (%s consuming), %.1f cores for consumption; segment size: %s, commit: ~%dms",
+        DataSizeUtils.fromBytes(recommendation.getActiveMemoryPerHostBytes()),
+        DataSizeUtils.fromBytes(recommendation.getConsumingMemoryPerHostBytes()),
+        recommendation.getNumCoresForConsumptionPerHost(),
+        DataSizeUtils.fromBytes(recommendation.getCompletedSegmentSizeBytes()), recommendation.getCommitBuildTimeMs()));
+  }
+
   private void displayOutputHeader(StringBuilder note) {
     System.out.println("\n============================================================\n" + toString());
     System.out.println(note.toString());